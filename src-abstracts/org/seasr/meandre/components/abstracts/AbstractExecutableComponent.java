@@ -44,7 +44,10 @@ package org.seasr.meandre.components.abstracts;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -68,6 +71,11 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.ComponentInputCache;
 import org.seasr.meandre.components.PackedDataComponents;
 import org.seasr.meandre.components.abstracts.util.ComponentLogFormatter;
+import org.seasr.meandre.components.abstracts.util.ComponentMetrics;
+import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.components.abstracts.util.DataBatch;
+import org.seasr.meandre.components.abstracts.util.FlowMetrics;
+import org.seasr.meandre.components.abstracts.util.ParallelExecutor;
 import org.seasr.meandre.components.abstracts.util.WebConsoleHandler;
 import org.seasr.meandre.support.generic.logging.formatter.ExceptionFormatter;
 
@@ -106,6 +114,23 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
     )
     public static final String PROP_IGNORE_ERRORS = "_ignore_errors";
 
+    @ComponentProperty(
+            description = "The number of items of a batched input (see _batch_size) to process concurrently. " +
+                          "Only applies to components marked as @Stateless; the outputs are pushed in the order " +
+                          "the items were received, before the next input is processed.",
+            defaultValue = "1",
+            name = "_parallelism"
+    )
+    public static final String PROP_PARALLELISM = "_parallelism";
+
+    @ComponentProperty(
+            description = "Set to 'true' to count the data pushed on each output port in the execution metrics. " +
+                          "The count goes through a proxy of the component context, so it is off by default.",
+            defaultValue = "false",
+            name = "_count_outputs"
+    )
+    public static final String PROP_COUNT_OUTPUTS = "_count_outputs";
+
     //--------------------------------------------------------------------------------------------
 
 
@@ -114,6 +139,8 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
     //
     public ComponentInputCache componentInputCache;
     //
+    public ComponentMetrics componentMetrics;
+    //
     public PackedDataComponents packedDataComponentsInput = null;
     public PackedDataComponents packedDataComponentsOutput = null;
 
@@ -124,6 +151,14 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
     public Logger console = null;
     public boolean ignoreErrors = false;
 
+    /** The context last given to execute() and its metered wrapper */
+    private ComponentContext _rawContext = null;
+    private ComponentContext _meteredContext = null;
+    private boolean _countOutputs = false;
+
+    /** Runs executeCallBack for the items of a DataBatch on worker threads when _parallelism > 1 (null otherwise) */
+    private ParallelExecutor _parallelExecutor = null;
+
 
     //--------------------------------------------------------------------------------------------
 
@@ -177,6 +212,29 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
         if (ignoreErrors)
             console.fine("Exceptions are being ignored per user's request.");
 
+        _countOutputs = Boolean.parseBoolean(getPropertyOrDefault(PROP_COUNT_OUTPUTS, "false", ccp));
+
+        // not present in the descriptors of components created before the property existed
+        String parallelism = ccp.getProperty(PROP_PARALLELISM);
+        if (parallelism != null && parallelism.trim().length() > 0) {
+            int workers;
+            try {
+                workers = Integer.parseInt(parallelism.trim());
+            }
+            catch (NumberFormatException e) {
+                throw new ComponentContextException("Invalid value for property '" + PROP_PARALLELISM + "' specified: " + parallelism);
+            }
+
+            if (workers > 1) {
+                if (getClass().isAnnotationPresent(Stateless.class)) {
+                    _parallelExecutor = new ParallelExecutor(ccp.getExecutionInstanceID(), workers, 2 * workers);
+                    console.fine(String.format("Processing up to %d inputs concurrently", workers));
+                } else
+                    console.warning(String.format("Ignoring %s=%d - %s is not marked as @%s", PROP_PARALLELISM, workers,
+                            getClass().getSimpleName(), Stateless.class.getSimpleName()));
+            }
+        }
+
         inputPortNames = new HashSet<String>();
         for (String componentInput : ccp.getInputNames())
             inputPortNames.add(componentInput);
@@ -190,6 +248,9 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
 
         componentInputCache.setLogger(console);
 
+        componentMetrics = new ComponentMetrics(ccp.getInstanceName(), getClass(),
+                ccp.getInputNames(), ccp.getOutputNames());
+
         try {
             console.entering(getClass().getName(), "initializeCallBack", ccp);
             initializeCallBack(ccp);
@@ -210,6 +271,15 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
             if (!ignoreErrors)
                 throw new ComponentContextException(e);
         }
+
+        // only components that initialized are part of the flow summary
+        FlowMetrics.register(ccp.getFlowExecutionInstanceID(), componentMetrics);
+        try {
+            componentMetrics.register(ccp.getFlowExecutionInstanceID(), ccp.getExecutionInstanceID());
+        }
+        catch (Exception e) {
+            console.fine("Could not register the component metrics with JMX: " + e);
+        }
     }
 
     /*
@@ -220,6 +290,15 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
     public void execute(ComponentContext cc)
             throws ComponentExecutionException, ComponentContextException {
 
+        // count the data pushed by the component
+        if (_countOutputs) {
+            if (cc != _rawContext) {
+                _rawContext = cc;
+                _meteredContext = componentMetrics.wrap(cc);
+            }
+            cc = _meteredContext;
+        }
+
         componentContext = cc;
 
         // Initialize the PackedDataComponent variables each iteration
@@ -229,6 +308,11 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
         inputPortsWithInitiators = new HashSet<String>();
         inputPortsWithTerminators = new HashSet<String>();
 
+        // the inputs of this execution, by port name
+        Map<String, Object> inputs = new HashMap<String, Object>();
+        // the first error thrown for an item of a DataBatch (already pushed on the error port)
+        Exception batchError = null;
+
         try {
             boolean callExecute = true;
 
@@ -236,13 +320,17 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
                 if (!cc.isInputAvailable(inputPort)) continue;
 
                 Object data = cc.getDataComponentFromInput(inputPort);
+                componentMetrics.recordReceived(inputPort, data);
+                inputs.put(inputPort, data);
 
                 // show the inputs and data-types received on each input in "debug" mode
-                String debugMsg = String.format("Input port '%s' has data of type '%s'",
-                        inputPort, data.getClass().getName());
-                if (data instanceof StreamDelimiter)
-                	debugMsg += String.format(" (stream: %d)", ((StreamDelimiter)data).getStreamId());
-                console.finer(debugMsg);
+                if (console.isLoggable(Level.FINER)) {
+                    String debugMsg = String.format("Input port '%s' has data of type '%s'",
+                            inputPort, data.getClass().getName());
+                    if (data instanceof StreamDelimiter)
+                        debugMsg += String.format(" (stream: %d)", ((StreamDelimiter)data).getStreamId());
+                    console.finer(debugMsg);
+                }
 
                 if (data instanceof StreamInitiator)
                     inputPortsWithInitiators.add(inputPort);
@@ -256,6 +344,10 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
             inputPortsWithInitiators = Collections.unmodifiableSet(inputPortsWithInitiators);
             inputPortsWithTerminators = Collections.unmodifiableSet(inputPortsWithTerminators);
 
+            int batchSize = ComponentUtils.getBatchSize(inputs);
+
+            long start = System.nanoTime();
+
             if (inputPortsWithInitiators.size() > 0) {
                 callExecute = false;
                 handleStreamInitiators();
@@ -267,12 +359,21 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
             }
 
             if (callExecute) {
-                console.entering(getClass().getName(), "executeCallBack", cc);
-                executeCallBack(cc);
-                console.exiting(getClass().getName(), "executeCallBack");
-            }
+                if (batchSize >= 0)
+                    batchError = executeBatch(cc, inputs, batchSize);
+
+                else {
+                    console.entering(getClass().getName(), "executeCallBack", cc);
+                    executeCallBack(cc);
+                    console.exiting(getClass().getName(), "executeCallBack");
+
+                    componentMetrics.recordExecute(System.nanoTime() - start);
+                }
+            } else
+                componentMetrics.recordStreamDelimiters(System.nanoTime() - start);
         }
         catch (ComponentContextException e) {
+            componentMetrics.recordError();
             console.throwing(getClass().getName(), "executeCallBack", e);
             cc.pushDataComponentToOutput(OUT_ERROR, ExceptionFormatter.formatException(e));
 
@@ -280,6 +381,7 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
                 throw e;
         }
         catch (ComponentExecutionException e) {
+            componentMetrics.recordError();
             console.throwing(getClass().getName(), "executeCallBack", e);
             cc.pushDataComponentToOutput(OUT_ERROR, ExceptionFormatter.formatException(e));
 
@@ -287,12 +389,27 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
                 throw e;
         }
         catch (Exception e) {
+            componentMetrics.recordError();
             console.throwing(getClass().getName(), "executeCallBack", e);
             cc.pushDataComponentToOutput(OUT_ERROR, ExceptionFormatter.formatException(e));
 
             if (!ignoreErrors)
                 throw new ComponentExecutionException(e);
         }
+
+        if (batchError != null && !ignoreErrors) {
+            if (batchError instanceof ComponentContextException)
+                throw (ComponentContextException) batchError;
+
+            if (batchError instanceof ComponentExecutionException)
+                throw (ComponentExecutionException) batchError;
+
+            throw new ComponentExecutionException(batchError);
+        }
+
+        // report the errors of the executions done on the worker threads
+        if (_parallelExecutor != null)
+            _parallelExecutor.rethrowFailure();
     }
 
     /*
@@ -304,6 +421,9 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
             throws ComponentExecutionException, ComponentContextException {
 
         try {
+            if (_parallelExecutor != null)
+                _parallelExecutor.shutdown();
+
             console.entering(getClass().getName(), "disposeCallBack", ccp);
             disposeCallBack(ccp);
             console.exiting(getClass().getName(), "disposeCallBack");
@@ -324,6 +444,17 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
             if (!ignoreErrors)
                 throw new ComponentContextException(e);
         }
+        finally {
+            if (componentMetrics != null) {
+                componentMetrics.unregister();
+                if (console.isLoggable(Level.FINE))
+                    console.fine("Execution metrics: " + componentMetrics.getSummary());
+
+                List<ComponentMetrics> flowMetrics = FlowMetrics.unregister(ccp.getFlowExecutionInstanceID(), componentMetrics);
+                if (flowMetrics != null && ccp.getLogger() != null)
+                    ccp.getLogger().info(FlowMetrics.format(ccp.getFlowExecutionInstanceID(), flowMetrics));
+            }
+        }
     }
 
     //--------------------------------------------------------------------------------------------
@@ -339,6 +470,88 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
 
     //--------------------------------------------------------------------------------------------
 
+    /**
+     * Calls executeCallBack once per item of the DataBatch(es) received. With _parallelism > 1 the items are processed on the worker
+     * threads, and their outputs are all pushed before this returns.
+     *
+     * @param cc The component context
+     * @param inputs The inputs received, by port name
+     * @param batchSize The number of items in the batches
+     * @return The first error thrown (already pushed on the error port), or null
+     * @throws Exception Thrown if the execution cannot be scheduled
+     */
+    private Exception executeBatch(ComponentContext cc, Map<String, Object> inputs, int batchSize) throws Exception {
+        if (_parallelExecutor != null) {
+            try {
+                for (int i = 0; i < batchSize; i++)
+                    submitToWorkers(cc, ComponentUtils.getItemInputs(inputs, i));
+            }
+            finally {
+                _parallelExecutor.drain();
+            }
+
+            // the errors of the items are reported by rethrowFailure()
+            return null;
+        }
+
+        try {
+            for (int i = 0; i < batchSize; i++) {
+                componentContext = ComponentUtils.withInputs(cc, ComponentUtils.getItemInputs(inputs, i));
+
+                Exception error = executeItem(componentContext);
+                if (error != null && !ignoreErrors)
+                    return error;
+            }
+
+            return null;
+        }
+        finally {
+            componentContext = cc;
+        }
+    }
+
+    private void submitToWorkers(ComponentContext cc, Map<String, Object> inputs)
+        throws InterruptedException, ComponentContextException {
+
+        _parallelExecutor.submit(cc, inputs, new ParallelExecutor.Task() {
+            public void execute(ComponentContext context) throws Exception {
+                Exception error = executeItem(context);
+                if (error != null && !ignoreErrors)
+                    throw error;
+            }
+        });
+    }
+
+    /**
+     * Calls executeCallBack for one item of a DataBatch, on the calling thread or on a worker thread
+     * (for @Stateless components with _parallelism > 1); errors are pushed on the error port in order with the
+     * other outputs of the execution
+     *
+     * @param cc The context holding the inputs of the execution
+     * @return The error thrown by executeCallBack, or null
+     * @throws ComponentContextException Thrown if the error cannot be pushed
+     */
+    private Exception executeItem(ComponentContext cc) throws ComponentContextException {
+        long start = System.nanoTime();
+
+        try {
+            console.entering(getClass().getName(), "executeCallBack", cc);
+            executeCallBack(cc);
+            console.exiting(getClass().getName(), "executeCallBack");
+
+            componentMetrics.recordExecute(System.nanoTime() - start);
+
+            return null;
+        }
+        catch (Exception e) {
+            componentMetrics.recordError();
+            console.throwing(getClass().getName(), "executeCallBack", e);
+            cc.pushDataComponentToOutput(OUT_ERROR, ExceptionFormatter.formatException(e));
+
+            return e;
+        }
+    }
+
     /**
      * Forwards the stream initiator on all output ports (except the error port);
      * Make sure you override this method for components with FiringPolicy = any and simply invoke 'executeCallBack(componentContext);' and
@@ -421,6 +634,27 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
         return outputPortNames.contains(componentOutputName);
     }
 
+    /**
+     * Reads an input in an execute() override, before (or instead of) the DataBatch(es) being taken apart
+     *
+     * @param cc The component context
+     * @param portName The input port
+     * @return The input
+     * @throws ComponentExecutionException Thrown if the input is a DataBatch
+     * @throws ComponentContextException Thrown if the input cannot be read
+     */
+    protected Object getUnbatchedInput(ComponentContext cc, String portName)
+        throws ComponentExecutionException, ComponentContextException {
+
+        Object data = cc.getDataComponentFromInput(portName);
+        if (data instanceof DataBatch)
+            throw new ComponentExecutionException(String.format(
+                    "%s cannot take batched inputs on port '%s' - set _batch_size to 1 on the component pushing to it",
+                    getClass().getSimpleName(), portName));
+
+        return data;
+    }
+
     public void outputError(String message, Level level) {
         outputError(message, null, level);
     }
@@ -496,4 +730,21 @@ public abstract class AbstractExecutableComponent implements ExecutableComponent
     public String getPropertyOrDieTrying(String propName, ComponentContextProperties context) throws ComponentExecutionException {
     	return getPropertyOrDieTrying(propName, true, true, context);
     }
+
+    /**
+    * Retrieves the value of a property that may be missing from the descriptors of components
+    * created before the property existed
+    *
+    * @param propName The property name
+    * @param defaultValue The value to use if the property does not exist or is empty
+    * @param context The component context
+    * @return The trimmed property value, or the default value
+    */
+    public String getPropertyOrDefault(String propName, String defaultValue, ComponentContextProperties context) {
+        String propValue = context.getProperty(propName);
+        if (propValue == null || propValue.trim().length() == 0)
+            return defaultValue;
+
+        return propValue.trim();
+    }
 }
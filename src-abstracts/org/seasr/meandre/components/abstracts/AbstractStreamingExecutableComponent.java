@@ -42,11 +42,21 @@
 
 package org.seasr.meandre.components.abstracts;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.meandre.annotations.ComponentProperty;
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextException;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
+import org.meandre.core.system.components.ext.StreamDelimiter;
 import org.meandre.core.system.components.ext.StreamInitiator;
 import org.meandre.core.system.components.ext.StreamTerminator;
+import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.components.abstracts.util.DataBatch;
 
 
 /**
@@ -64,17 +74,67 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
     )
     public static final String PROP_STREAM_ID = "_stream_id";
 
+    @ComponentProperty(
+            description = "The maximum number of data items coalesced into a single push on an output port " +
+                          "(for the ports the component pushes to in batches). Set to 1 to push every item on its own. " +
+                          "Only set above 1 when the receiving components take their inputs in executeCallBack " +
+                          "(not web service or third-party components that read them in execute).",
+            defaultValue = "1",
+            name = "_batch_size"
+    )
+    public static final String PROP_BATCH_SIZE = "_batch_size";
+
+    @ComponentProperty(
+            description = "The (estimated) number of bytes held in the pending batches that causes them to be pushed " +
+                          "before reaching _batch_size items. Set to 0 for no limit.",
+            defaultValue = "1048576",
+            name = "_batch_bytes"
+    )
+    public static final String PROP_BATCH_BYTES = "_batch_bytes";
+
     //--------------------------------------------------------------------------------------------
 
 
     public Integer streamId;
 
+    private int _batchSize = 1;
+    private long _batchBytes = 1048576;
+
+    /** The pending batch of each output port pushed to with pushBatched(...) */
+    private final Map<String, List<Object>> _batches = new LinkedHashMap<String, List<Object>>();
+    private int _pendingCount = 0;      // the number of items in the largest pending batch
+    private long _pendingBytes = 0;
+    private ComponentContext _batchContext = null;
+
 
     //--------------------------------------------------------------------------------------------
 
     @Override
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
-        streamId = Integer.parseInt(getPropertyOrDieTrying(PROP_STREAM_ID, ccp));
+        if (isStreamIdRequired())
+            streamId = Integer.parseInt(getPropertyOrDieTrying(PROP_STREAM_ID, ccp));
+        else {
+            // empty (or missing from flows created before the component handled streams): all delimiters are forwarded
+            String sStreamId = getPropertyOrDefault(PROP_STREAM_ID, "", ccp);
+            streamId = (sStreamId.length() > 0) ? Integer.valueOf(sStreamId) : null;
+        }
+
+        // not present in the descriptors of components created before batching existed
+        String batchSize = ccp.getProperty(PROP_BATCH_SIZE);
+        if (batchSize != null && batchSize.trim().length() > 0)
+            _batchSize = Integer.parseInt(batchSize.trim());
+
+        String batchBytes = ccp.getProperty(PROP_BATCH_BYTES);
+        if (batchBytes != null && batchBytes.trim().length() > 0)
+            _batchBytes = Long.parseLong(batchBytes.trim());
+    }
+
+    @Override
+    public void execute(ComponentContext cc) throws ComponentExecutionException, ComponentContextException {
+        super.execute(cc);
+
+        // nothing is held back between executions
+        flushBatches();
     }
 
     //--------------------------------------------------------------------------------------------
@@ -83,13 +143,89 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
     public void endStream() throws Exception {};
     public abstract boolean isAccumulator();
 
+    /**
+     * @return False if the component also works without a '_stream_id', in which case it handles no stream
+     */
+    protected boolean isStreamIdRequired() {
+        return true;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Pushes a data item to an output port, coalescing the items pushed during an execution into
+     * DataBatch-es of up to '_batch_size' items (or '_batch_bytes' bytes). The receiving components
+     * get the items one by one, as if they had been pushed individually.
+     *
+     * All the pending batches are pushed together, when an item that would exceed the limits is pushed to
+     * (one of) the port(s) with the most pending items - so ports pushed to in lockstep (ex: meta tuple and
+     * tuples) stay aligned. Pending batches are also pushed before any stream delimiter, and at the end of
+     * every execution.
+     *
+     * @param cc The component context
+     * @param portName The output port
+     * @param data The data item
+     * @throws ComponentContextException Thrown if the data cannot be pushed
+     */
+    public void pushBatched(ComponentContext cc, String portName, Object data) throws ComponentContextException {
+        if (data instanceof StreamDelimiter) {
+            flushBatches();
+            cc.pushDataComponentToOutput(portName, data);
+            return;
+        }
+
+        if (_batchSize <= 1) {
+            cc.pushDataComponentToOutput(portName, data);
+            return;
+        }
+
+        List<Object> batch = _batches.get(portName);
+        if (batch == null) {
+            batch = new ArrayList<Object>(_batchSize);
+            _batches.put(portName, batch);
+        }
+
+        if (_pendingCount > 0 && batch.size() == _pendingCount &&
+                (_pendingCount >= _batchSize || (_batchBytes > 0 && _pendingBytes >= _batchBytes)))
+            flushBatches();
+
+        batch.add(data);
+        _batchContext = cc;
+        _pendingCount = Math.max(_pendingCount, batch.size());
+
+        if (_batchBytes > 0)
+            _pendingBytes += ComponentUtils.estimateSize(data);
+    }
+
+    /**
+     * Pushes the pending batches (a batch holding a single item is pushed as the item itself)
+     *
+     * @throws ComponentContextException Thrown if the data cannot be pushed
+     */
+    public void flushBatches() throws ComponentContextException {
+        if (_batchContext == null) return;
+
+        for (Map.Entry<String, List<Object>> entry : _batches.entrySet()) {
+            List<Object> batch = entry.getValue();
+            if (batch.isEmpty()) continue;
+
+            Object data = (batch.size() == 1) ? batch.get(0) : new DataBatch(batch);
+            _batchContext.pushDataComponentToOutput(entry.getKey(), data);
+            batch.clear();
+        }
+
+        _pendingCount = 0;
+        _pendingBytes = 0;
+        _batchContext = null;
+    }
+
     //--------------------------------------------------------------------------------------------
 
     @Override
     public void handleStreamInitiators() throws Exception {
         console.entering(getClass().getName(), "handleStreamInitiators", inputPortsWithInitiators);
 
-        if (streamId == null)
+        if (streamId == null && isStreamIdRequired())
             throw new ComponentExecutionException(String.format("The component '%s' should call super.initializeCallBack(ccp) " +
                     "in its initializeCallBack method!", getClass().getSimpleName()));
 
@@ -100,7 +236,7 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
                     "and then deal with stream delimiters in 'executeCallBack'. This is the most reliable way to work with streams.");
 
         StreamInitiator si = (StreamInitiator) componentContext.getDataComponentFromInput(componentContext.getInputNames()[0]);
-        if (si.getStreamId() != streamId) {
+        if (streamId == null || si.getStreamId() != streamId) {
             console.fine(String.format("Forwarding the %s (id: %d) on all output ports...", StreamInitiator.class.getSimpleName(), si.getStreamId()));
         } else
             if (isAccumulator())
@@ -109,6 +245,8 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
                 throw new ComponentExecutionException(String.format("Stream id conflict! Incoming stream has the same id (%d) " +
                 		"as the one set for this component (%s)!", streamId, getClass().getSimpleName()));
 
+        flushBatches();
+
         for (String portName : componentContext.getOutputNames()) {
             if (portName.equals(OUT_ERROR)) continue;
 
@@ -122,7 +260,7 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
     public void handleStreamTerminators() throws Exception {
         console.entering(getClass().getName(), "handleStreamTerminators", inputPortsWithTerminators);
 
-        if (streamId == null)
+        if (streamId == null && isStreamIdRequired())
             throw new ComponentExecutionException(String.format("The component '%s' should call super.initializeCallBack(ccp) " +
                     "in its initializeCallBack method!", getClass().getSimpleName()));
 
@@ -133,7 +271,7 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
                     "and then deal with stream delimiters in 'executeCallBack'. This is the most reliable way to work with streams.");
 
         StreamTerminator st = (StreamTerminator) componentContext.getDataComponentFromInput(componentContext.getInputNames()[0]);
-        if (st.getStreamId() != streamId) {
+        if (streamId == null || st.getStreamId() != streamId) {
             console.fine(String.format("Forwarding the %s (id: %d) on all output ports...", StreamTerminator.class.getSimpleName(), st.getStreamId()));
         } else
             if (isAccumulator())
@@ -142,6 +280,8 @@ public abstract class AbstractStreamingExecutableComponent extends AbstractExecu
                 throw new ComponentExecutionException(String.format("Stream id conflict! Incoming stream has the same id (%d) " +
                         "as the one set for this component (%s)!", streamId, getClass().getSimpleName()));
 
+        flushBatches();
+
         for (String portName : componentContext.getOutputNames()) {
             if (portName.equals(OUT_ERROR)) continue;
 
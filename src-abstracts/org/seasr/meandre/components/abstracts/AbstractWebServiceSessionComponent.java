@@ -48,6 +48,7 @@ import java.util.Formatter;
 import java.util.Hashtable;
 import java.util.Random;
 import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
@@ -281,6 +282,8 @@ public abstract class AbstractWebServiceSessionComponent extends
 	 */
 	public void execute(ComponentContext cc)
 		throws ComponentExecutionException, ComponentContextException {
+		// the packed data is read again below, after the callback
+		getUnbatchedInput(cc, InPackedDataComponent);
 		super.execute(cc);
 		try{
 			HttpServletRequest request = null;
@@ -342,11 +345,12 @@ public abstract class AbstractWebServiceSessionComponent extends
 							uniqueSessionKey = c.getValue();
 							long nanoTimeValue = Long.valueOf( (Long) sessionTime.get(uniqueSessionKey) );
 							//
-							console.fine( this.getClass().getName() +
-													": Encountered a Parameterized Request with a valid UniqueSessionKey" +
-													": Elapsed nanoTime since last seen = " +
-													(System.nanoTime() - nanoTimeValue)
-								);
+							if (console.isLoggable(Level.FINE))
+								console.fine( this.getClass().getName() +
+														": Encountered a Parameterized Request with a valid UniqueSessionKey" +
+														": Elapsed nanoTime since last seen = " +
+														(System.nanoTime() - nanoTimeValue)
+									);
 							//
 							// save the found value
 							cookie = c;
@@ -366,9 +370,10 @@ public abstract class AbstractWebServiceSessionComponent extends
 							// Here is the case where we find a Cookie with the right name,
 							// BUT it is not in the collection of cached active keys the simple answer
 							// is to reset the cookie to a good one.
-							console.fine( this.getClass().getName() +
-													": Encountered a Parameterized Request with an invalid UniqueSessionKey"
-								);
+							if (console.isLoggable(Level.FINE))
+								console.fine( this.getClass().getName() +
+														": Encountered a Parameterized Request with an invalid UniqueSessionKey"
+									);
 							//
 							cookie = setUpSession(instanceId);
 							response.addCookie(cookie);
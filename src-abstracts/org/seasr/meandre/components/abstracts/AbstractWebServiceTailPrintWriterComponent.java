@@ -111,9 +111,9 @@ public abstract class AbstractWebServiceTailPrintWriterComponent extends Abstrac
 		//
 		console.entering(getClass().getName(), "execute", cc);
 
-        Object sResponse = (Object)cc.getDataComponentFromInput(httpServletResponsePayload);
-        Semaphore sem = (Semaphore) cc.getDataComponentFromInput(semaphore);
-        HttpServletResponse response = (HttpServletResponse) cc.getDataComponentFromInput(httpServletResponse);
+        Object sResponse = getUnbatchedInput(cc, httpServletResponsePayload);
+        Semaphore sem = (Semaphore) getUnbatchedInput(cc, semaphore);
+        HttpServletResponse response = (HttpServletResponse) getUnbatchedInput(cc, httpServletResponse);
 
         try {
         	console.fine("Attempting to send using PrintWriter");
@@ -1,5 +1,8 @@
 package org.seasr.meandre.components.abstracts.python;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.meandre.annotations.ComponentOutput;
 import org.meandre.annotations.ComponentProperty;
 import org.meandre.core.ComponentContext;
@@ -11,6 +14,7 @@ import org.python.core.PyString;
 import org.python.core.PySystemState;
 import org.python.util.PythonInterpreter;
 import org.seasr.datatypes.core.Names;
+import org.seasr.meandre.components.abstracts.util.ComponentUtils;
 
 
 public abstract class AbstractPythonExecutableComponent implements ExecutableComponent {
@@ -47,6 +51,7 @@ public abstract class AbstractPythonExecutableComponent implements ExecutableCom
 
 
     private PythonInterpreter _pythonInterpreter;
+    private String[] _inputNames;
 
     protected AbstractPythonExecutableComponent() {
         PySystemState sys = new PySystemState();
@@ -56,6 +61,7 @@ public abstract class AbstractPythonExecutableComponent implements ExecutableCom
     }
 
     public void initialize(ComponentContextProperties ccp) throws ComponentExecutionException, ComponentContextException {
+      _inputNames = ccp.getInputNames();
       _pythonInterpreter.exec(String.format("from %1$s import %1$s", getClass().getSimpleName()));
       _pythonInterpreter.exec(String.format("component = %s()", getClass().getSimpleName()));
       _pythonInterpreter.set("ccp", ccp);
@@ -63,8 +69,23 @@ public abstract class AbstractPythonExecutableComponent implements ExecutableCom
     }
 
     public void execute(ComponentContext cc) throws ComponentExecutionException, ComponentContextException {
-      _pythonInterpreter.set("cc", cc);
-      _pythonInterpreter.exec("component.execute(cc)");
+      Map<String, Object> inputs = new HashMap<String, Object>();
+      for (String inputName : _inputNames)
+          if (cc.isInputAvailable(inputName))
+              inputs.put(inputName, cc.getDataComponentFromInput(inputName));
+
+      // the python code is given the items of a DataBatch one by one
+      int batchSize = ComponentUtils.getBatchSize(inputs);
+      if (batchSize < 0) {
+          _pythonInterpreter.set("cc", cc);
+          _pythonInterpreter.exec("component.execute(cc)");
+          return;
+      }
+
+      for (int i = 0; i < batchSize; i++) {
+          _pythonInterpreter.set("cc", ComponentUtils.withInputs(cc, ComponentUtils.getItemInputs(inputs, i)));
+          _pythonInterpreter.exec("component.execute(cc)");
+      }
     }
 
     public void dispose(ComponentContextProperties ccp) throws ComponentExecutionException, ComponentContextException {
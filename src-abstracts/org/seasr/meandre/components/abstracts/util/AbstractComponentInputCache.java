@@ -42,16 +42,28 @@
 
 package org.seasr.meandre.components.abstracts.util;
 
-import java.util.Hashtable;
-import java.util.LinkedList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextException;
 
+import com.google.protobuf.Message;
+
 /**
  * @author Bernie Acs
  *
@@ -62,57 +74,189 @@ import org.meandre.core.ComponentContextException;
  * OR where some set of inputs are required to handle a logical processing cycle. This
  * Object is intended to be couple with a single ExecutableComponent.
  *
+ * Each port has its own lock-free queue, resolved to an array slot when the cache is created,
+ * so storing and retrieving inputs never takes a lock on the whole cache. A port is meant to have
+ * a single thread storing and a single thread retrieving inputs at a time (usually the same thread).
+ *
+ * By default the cache is unbounded. Once {@link #setBounds(long, long, File)} is called,
+ * each port keeps at most the given number of bytes of protobuf inputs in memory; inputs beyond
+ * that are serialized to a fixed size temporary file (see {@link SpillRing}) and read back in order.
+ * When the spill file of a port is full, store() fails right away: the inputs are stored and retrieved
+ * by the thread running execute(), so waiting for space would never end, and the bounds are meant
+ * to turn runaway memory use into an error rather than to slow down the upstream components.
+ *
  */
 public abstract class AbstractComponentInputCache {
 
-	/**
-	 * Internal storage container for a Collection of java.util.Queue Objects keyed by input Name.
-	 */
-	private Map<String, Queue<Object>> _inputCacheMap;
+	/** Stands in the queue for an input held in the spill file */
+	private static final Object SPILLED = new Object();
+
+	/** The port queues, in the order of the port indices */
+	private final PortQueue[] _queues;
+
+	/** The port indices, keyed by port name (never modified after construction) */
+	private final Map<String, Integer> _portIndex;
+
+	/** Prototypes of the spilled message types, keyed by class name */
+	private final Map<String, Message> _prototypes = new ConcurrentHashMap<String, Message>();
+
+	private volatile long _maxMemoryBytes = -1;
+	private volatile long _maxSpillBytes = 0;
+	private volatile File _spillDir = null;
 
 	private Logger _logger = null;
 
 
 	protected AbstractComponentInputCache(Set<String> portNames) {
-	    _inputCacheMap = new Hashtable<String, Queue<Object>>(portNames.size());
-	    for (String portName : portNames) _inputCacheMap.put(portName, new LinkedList<Object>());
+	    _queues = new PortQueue[portNames.size()];
+	    _portIndex = new HashMap<String, Integer>(portNames.size() * 2);
+
+	    int idx = 0;
+	    for (String portName : portNames) {
+	        _queues[idx] = new PortQueue(portName);
+	        _portIndex.put(portName, idx++);
+	    }
+	}
+
+	/**
+	 * Bounds the memory used by the cache
+	 *
+	 * @param maxMemoryBytes The number of bytes of queued protobuf inputs kept in memory per port (-1 for no limit)
+	 * @param maxSpillBytes The size of the spill file per port (0 to fail instead of spilling)
+	 * @param spillDir The folder for the spill files, or null for the system default
+	 */
+	public void setBounds(long maxMemoryBytes, long maxSpillBytes, File spillDir) {
+	    _maxSpillBytes = Math.max(0, maxSpillBytes);
+	    _spillDir = spillDir;
+	    _maxMemoryBytes = maxMemoryBytes;
 	}
 
-	synchronized public void storeIfAvailable(ComponentContext cc, String portName) throws ComponentContextException {
+	/**
+	 * Bounds the memory used by the cache, spilling to the system temporary folder
+	 *
+	 * @param maxMemoryBytes The number of bytes of queued protobuf inputs kept in memory per port (-1 for no limit)
+	 * @param maxSpillBytes The size of the spill file per port (0 to fail instead of spilling)
+	 */
+	public void setBounds(long maxMemoryBytes, long maxSpillBytes) {
+	    setBounds(maxMemoryBytes, maxSpillBytes, null);
+	}
+
+	/**
+	 * @return The index of the port, for use with the index based methods
+	 * @throws ComponentContextException If the port is unknown
+	 */
+	public int getPortIndex(String portName) throws ComponentContextException {
+	    Integer idx = _portIndex.get(portName);
+	    if (idx == null)
+	        throw new ComponentContextException("Unknown port name specified: " + portName);
+
+	    return idx;
+	}
+
+	public void storeIfAvailable(ComponentContext cc, String portName) throws ComponentContextException {
 	    if (!cc.isInputAvailable(portName)) return;
 	    store(cc, portName);
 	}
 
-	synchronized public void store(ComponentContext cc, String portName) throws ComponentContextException {
+	public void store(ComponentContext cc, String portName) throws ComponentContextException {
+	    PortQueue queue = getQueue(portName);
 	    Object input = cc.getDataComponentFromInput(portName);
-	    _inputCacheMap.get(portName).add(input);
+
+	    long maxMemoryBytes = _maxMemoryBytes;
+	    if (maxMemoryBytes < 0) {
+	        // unbounded: no need to size the input
+	        queue.add(input, 0);
+	        return;
+	    }
+
+	    long size = ComponentUtils.estimateSize(input);
+	    if (!(input instanceof Message) || queue.memoryBytes.get() + size <= maxMemoryBytes) {
+	        queue.add(input, size);
+	        return;
+	    }
+
+	    spill(queue, serialize((Message) input));
+	    queue.add(SPILLED, 0);
 	}
 
-	synchronized public Object retrieveNext(String portName) throws ComponentContextException {
-	    return hasData(portName) ? _inputCacheMap.get(portName).poll() : null;
+	public Object retrieveNext(String portName) throws ComponentContextException {
+	    return retrieveNext(getQueue(portName));
 	}
 
-	synchronized public Object peek(String portName) throws ComponentContextException {
-	    return hasData(portName) ? _inputCacheMap.get(portName).peek() : null;
+	public Object retrieveNext(int portIndex) throws ComponentContextException {
+	    return retrieveNext(_queues[portIndex]);
 	}
 
-	synchronized public boolean hasData(String portName) throws ComponentContextException {
-	    if (!_inputCacheMap.containsKey(portName))
-	        throw new ComponentContextException("Unknown port name specified: " + portName);
+	public Object peek(String portName) throws ComponentContextException {
+	    PortQueue queue = getQueue(portName);
 
-	    return !_inputCacheMap.get(portName).isEmpty();
+	    Object input = queue.peeked.get();
+	    if (input != null) return input;
+
+	    input = queue.entries.peek();
+	    if (input == SPILLED) {
+	        // bring it back in memory so that the next retrieveNext() returns the same object
+	        queue.entries.poll();
+	        input = unspill(queue);
+	        queue.memoryBytes.addAndGet(ComponentUtils.estimateSize(input));
+	        queue.peeked.set(input);
+	    }
+
+	    return input;
 	}
 
-	synchronized public boolean hasDataAll(String[] portNames) throws ComponentContextException {
-	    boolean hasData = true;
+	public boolean hasData(String portName) throws ComponentContextException {
+	    return getQueue(portName).count.get() > 0;
+	}
+
+	public boolean hasData(int portIndex) {
+	    return _queues[portIndex].count.get() > 0;
+	}
+
+	public boolean hasDataAll(String[] portNames) throws ComponentContextException {
 	    for (String portName : portNames)
-	        hasData &= hasData(portName);
+	        if (!hasData(portName)) return false;
+
+	    return true;
+	}
+
+	public boolean hasDataAll(int[] portIndices) {
+	    for (int portIndex : portIndices)
+	        if (!hasData(portIndex)) return false;
+
+	    return true;
+	}
 
-	    return hasData;
+	public Integer getDataCount(String portName) throws ComponentContextException {
+	    return getQueue(portName).count.get();
 	}
 
-	synchronized public Integer getDataCount(String portName) throws ComponentContextException {
-	    return hasData(portName) ? _inputCacheMap.get(portName).size() : 0;
+	/**
+	 * @return The largest number of inputs queued at once for the port
+	 */
+	public int getMaxDataCount(String portName) throws ComponentContextException {
+	    return getQueue(portName).maxCount;
+	}
+
+	/**
+	 * @return The largest number of bytes of queued inputs held in memory at once for the port
+	 */
+	public long getMaxMemoryBytes(String portName) throws ComponentContextException {
+	    return getQueue(portName).maxMemoryBytes;
+	}
+
+	/**
+	 * @return The largest number of bytes held in the spill file at once for the port
+	 */
+	public long getMaxSpillBytes(String portName) throws ComponentContextException {
+	    return getQueue(portName).maxSpillBytes;
+	}
+
+	/**
+	 * @return The number of inputs of the port that were spilled to disk
+	 */
+	public long getSpillCount(String portName) throws ComponentContextException {
+	    return getQueue(portName).spillCount;
 	}
 
 	public void setLogger(Logger logger) {
@@ -120,12 +264,153 @@ public abstract class AbstractComponentInputCache {
 	}
 
 	public void dispose() {
-	    for (Queue<Object> queue : _inputCacheMap.values())
-	        queue.clear();
+	    for (PortQueue queue : _queues) {
+	        if (_logger != null && queue.spillCount > 0 && _logger.isLoggable(Level.FINE))
+	            _logger.fine(String.format("Input cache for port '%s': at most %,d input(s) queued, %,d bytes in memory, " +
+	                    "%,d bytes spilled; %,d input(s) spilled in total", queue.portName, queue.maxCount,
+	                    queue.maxMemoryBytes, queue.maxSpillBytes, queue.spillCount));
+
+	        queue.entries.clear();
+	        queue.peeked.set(null);
+	        queue.count.set(0);
+	        queue.memoryBytes.set(0);
 
-	    _inputCacheMap.clear();
-	    _inputCacheMap = null;
+	        synchronized (queue) {
+	            if (queue.ring != null) {
+	                queue.ring.close();
+	                queue.ring = null;
+	            }
+	        }
+	    }
+
+	    _prototypes.clear();
 
 	    _logger = null;
 	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private PortQueue getQueue(String portName) throws ComponentContextException {
+	    return _queues[getPortIndex(portName)];
+	}
+
+	private Object retrieveNext(PortQueue queue) throws ComponentContextException {
+	    Object input = queue.peeked.getAndSet(null);
+	    if (input == null) {
+	        input = queue.entries.poll();
+	        if (input == null) return null;
+
+	        if (input == SPILLED) {
+	            queue.count.decrementAndGet();
+	            return unspill(queue);
+	        }
+	    }
+
+	    queue.count.decrementAndGet();
+	    if (_maxMemoryBytes >= 0)
+	        queue.memoryBytes.addAndGet(-ComponentUtils.estimateSize(input));
+
+	    return input;
+	}
+
+	private void spill(PortQueue queue, byte[] record) throws ComponentContextException {
+	    synchronized (queue) {
+	        if (queue.ring == null)
+	            queue.ring = new SpillRing(_maxSpillBytes, _spillDir);
+
+	        if (record.length > _maxSpillBytes)
+	            throw new ComponentContextException(String.format(
+	                    "An input of %,d bytes for port '%s' is larger than the spill file (%,d bytes)",
+	                    record.length, queue.portName, _maxSpillBytes));
+
+	        try {
+	            if (!queue.ring.offer(record))
+	                throw new ComponentContextException(String.format(
+	                        "The input cache for port '%s' is full (%,d bytes in memory, %,d bytes spilled)",
+	                        queue.portName, queue.memoryBytes.get(), queue.ring.getUsedBytes()));
+	        }
+	        catch (IOException e) {
+	            throw new ComponentContextException(e);
+	        }
+
+	        queue.maxSpillBytes = Math.max(queue.maxSpillBytes, queue.ring.getUsedBytes());
+	        queue.spillCount++;
+	    }
+	}
+
+	private byte[] serialize(Message message) throws ComponentContextException {
+	    String className = message.getClass().getName();
+	    if (!_prototypes.containsKey(className))
+	        _prototypes.put(className, message.getDefaultInstanceForType());
+
+	    try {
+	        ByteArrayOutputStream baos = new ByteArrayOutputStream(message.getSerializedSize() + className.length() + 2);
+	        DataOutputStream out = new DataOutputStream(baos);
+	        out.writeUTF(className);
+	        message.writeTo(out);
+	        out.flush();
+
+	        return baos.toByteArray();
+	    }
+	    catch (IOException e) {
+	        throw new ComponentContextException(e);
+	    }
+	}
+
+	private Object unspill(PortQueue queue) throws ComponentContextException {
+	    byte[] record;
+	    synchronized (queue) {
+	        try {
+	            record = queue.ring.poll();
+	        }
+	        catch (IOException e) {
+	            throw new ComponentContextException(e);
+	        }
+	    }
+
+	    try {
+	        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+	        Message prototype = _prototypes.get(in.readUTF());
+
+	        return prototype.newBuilderForType().mergeFrom(in).build();
+	    }
+	    catch (IOException e) {
+	        throw new ComponentContextException(e);
+	    }
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static class PortQueue {
+	    final String portName;
+	    final ConcurrentLinkedQueue<Object> entries = new ConcurrentLinkedQueue<Object>();
+	    final AtomicInteger count = new AtomicInteger();
+	    final AtomicLong memoryBytes = new AtomicLong();
+
+	    /** An input taken out of the spill file by peek(), returned by the next retrieve */
+	    final AtomicReference<Object> peeked = new AtomicReference<Object>();
+
+	    /** The spill file (guarded by this) */
+	    SpillRing ring;
+
+	    // high-water marks, only updated by the storing thread
+	    volatile int maxCount = 0;
+	    volatile long maxMemoryBytes = 0;
+	    volatile long maxSpillBytes = 0;
+	    volatile long spillCount = 0;
+
+	    PortQueue(String portName) {
+	        this.portName = portName;
+	    }
+
+	    void add(Object input, long size) {
+	        // count last so that hasData() never reports an input that cannot be retrieved yet
+	        long bytes = (size != 0) ? memoryBytes.addAndGet(size) : memoryBytes.get();
+	        entries.add(input);
+	        int n = count.incrementAndGet();
+
+	        if (n > maxCount) maxCount = n;
+	        if (bytes > maxMemoryBytes) maxMemoryBytes = bytes;
+	    }
+	}
 }
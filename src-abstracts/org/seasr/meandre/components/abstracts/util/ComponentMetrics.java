@@ -0,0 +1,326 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.meandre.core.ComponentContext;
+
+/**
+ * Execution metrics of a component: invocation and error counts, latency histograms,
+ * and the number of elements and bytes received and pushed on each port.
+ * Bytes are estimated with {@link ComponentUtils#estimateSize(Object)}.
+ */
+public class ComponentMetrics implements ComponentMetricsMBean {
+
+    /** The JMX domain the metrics are registered under */
+    public static final String JMX_DOMAIN = "org.seasr.meandre";
+
+    private final String _name;
+    private final String _componentClass;
+
+    private final LatencyHistogram _execute = new LatencyHistogram();
+    private final LatencyHistogram _streamDelimiters = new LatencyHistogram();
+    private final AtomicLong _errors = new AtomicLong();
+
+    private final Map<String, PortCounter> _inputs;
+    private final Map<String, PortCounter> _outputs;
+    private final ConcurrentMap<String, AtomicLong> _counters = new ConcurrentHashMap<String, AtomicLong>();
+
+    private ObjectName _objectName = null;
+
+
+    /**
+     * @param name The name of the component instance
+     * @param componentClass The component class
+     * @param inputNames The input port names
+     * @param outputNames The output port names
+     */
+    public ComponentMetrics(String name, Class<?> componentClass, String[] inputNames, String[] outputNames) {
+        _name = name;
+        _componentClass = componentClass.getName();
+
+        _inputs = new HashMap<String, PortCounter>(inputNames.length * 2);
+        for (String portName : inputNames)
+            _inputs.put(portName, new PortCounter());
+
+        _outputs = new HashMap<String, PortCounter>(outputNames.length * 2);
+        for (String portName : outputNames)
+            _outputs.put(portName, new PortCounter());
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    public void recordExecute(long nanos) {
+        _execute.record(nanos);
+    }
+
+    public void recordStreamDelimiters(long nanos) {
+        _streamDelimiters.record(nanos);
+    }
+
+    public void recordError() {
+        _errors.incrementAndGet();
+    }
+
+    public void recordReceived(String portName, Object data) {
+        PortCounter counter = _inputs.get(portName);
+        if (counter != null) counter.record(data);
+    }
+
+    public void recordPushed(String portName, Object data) {
+        PortCounter counter = _outputs.get(portName);
+        if (counter != null) counter.record(data);
+    }
+
+    /**
+     * Returns a named counter, for metrics specific to a component. The counter is created on first use
+     * and is reported along with the other metrics.
+     *
+     * @param name The counter name
+     * @return The counter
+     */
+    public AtomicLong getCounter(String name) {
+        AtomicLong counter = _counters.get(name);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = _counters.putIfAbsent(name, newCounter);
+            if (counter == null) counter = newCounter;
+        }
+
+        return counter;
+    }
+
+    /**
+     * Wraps a component context so that the data pushed through it is counted
+     *
+     * @param cc The component context
+     * @return The wrapped context
+     */
+    public ComponentContext wrap(final ComponentContext cc) {
+        return (ComponentContext) Proxy.newProxyInstance(ComponentContext.class.getClassLoader(),
+                new Class<?>[] { ComponentContext.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (args != null && args.length == 2 && method.getName().equals("pushDataComponentToOutput"))
+                            recordPushed((String) args[0], args[1]);
+
+                        try {
+                            return method.invoke(cc, args);
+                        }
+                        catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server
+     *
+     * @param flowExecutionId The flow execution id
+     * @param executionInstanceId The component execution instance id
+     * @throws Exception Thrown if the registration fails
+     */
+    public void register(String flowExecutionId, String executionInstanceId) throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(String.format("%s:type=Component,flow=%s,name=%s", JMX_DOMAIN,
+                ObjectName.quote(flowExecutionId), ObjectName.quote(executionInstanceId)));
+
+        server.registerMBean(this, objectName);
+        _objectName = objectName;
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if registered
+     */
+    public void unregister() {
+        if (_objectName == null) return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(_objectName);
+        }
+        catch (Exception e) { }
+
+        _objectName = null;
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * @return A one line summary of the metrics
+     */
+    public String getSummary() {
+        String summary = String.format("%,d execute(s) in %,d ms (mean %,.1f us, p50 %,d us, p99 %,d us, max %,d us), " +
+                "%,d error(s), received %,d element(s) / %,d bytes, pushed %,d element(s) / %,d bytes",
+                getInvocationCount(), getExecuteTimeMillis(), getExecuteMeanMicros(), getExecuteP50Micros(),
+                getExecuteP99Micros(), getExecuteMaxMicros(), getErrorCount(), getElementsReceived(), getBytesReceived(),
+                getElementsPushed(), getBytesPushed());
+
+        for (String counter : getCounters())
+            summary += ", " + counter;
+
+        return summary;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    public String getComponentClass() {
+        return _componentClass;
+    }
+
+    public long getInvocationCount() {
+        return _execute.getCount();
+    }
+
+    public long getStreamDelimiterCount() {
+        return _streamDelimiters.getCount();
+    }
+
+    public long getErrorCount() {
+        return _errors.get();
+    }
+
+    public long getExecuteTimeMillis() {
+        return (_execute.getTotal() + _streamDelimiters.getTotal()) / 1000000;
+    }
+
+    public double getExecuteMeanMicros() {
+        return _execute.getMean() / 1000;
+    }
+
+    public long getExecuteP50Micros() {
+        return _execute.getValueAtPercentile(50) / 1000;
+    }
+
+    public long getExecuteP99Micros() {
+        return _execute.getValueAtPercentile(99) / 1000;
+    }
+
+    public long getExecuteMaxMicros() {
+        return _execute.getMax() / 1000;
+    }
+
+    public long getElementsReceived() {
+        return sumElements(_inputs);
+    }
+
+    public long getBytesReceived() {
+        return sumBytes(_inputs);
+    }
+
+    public long getElementsPushed() {
+        return sumElements(_outputs);
+    }
+
+    public long getBytesPushed() {
+        return sumBytes(_outputs);
+    }
+
+    public String[] getPortStatistics() {
+        List<String> stats = new ArrayList<String>(_inputs.size() + _outputs.size());
+        for (Map.Entry<String, PortCounter> entry : _inputs.entrySet())
+            stats.add(String.format("in  %s: %,d element(s), %,d bytes",
+                    entry.getKey(), entry.getValue().elements.get(), entry.getValue().bytes.get()));
+        for (Map.Entry<String, PortCounter> entry : _outputs.entrySet())
+            stats.add(String.format("out %s: %,d element(s), %,d bytes",
+                    entry.getKey(), entry.getValue().elements.get(), entry.getValue().bytes.get()));
+
+        return stats.toArray(new String[stats.size()]);
+    }
+
+    public String[] getCounters() {
+        List<String> counters = new ArrayList<String>(_counters.size());
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<String, AtomicLong>(_counters).entrySet())
+            counters.add(String.format("%s %,d", entry.getKey(), entry.getValue().get()));
+
+        return counters.toArray(new String[counters.size()]);
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static long sumElements(Map<String, PortCounter> counters) {
+        long sum = 0;
+        for (PortCounter counter : counters.values())
+            sum += counter.elements.get();
+
+        return sum;
+    }
+
+    private static long sumBytes(Map<String, PortCounter> counters) {
+        long sum = 0;
+        for (PortCounter counter : counters.values())
+            sum += counter.bytes.get();
+
+        return sum;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static class PortCounter {
+        final AtomicLong elements = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+
+        void record(Object data) {
+            elements.incrementAndGet();
+            bytes.addAndGet(ComponentUtils.estimateSize(data));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+/**
+ * The JMX view of the execution metrics of a component
+ */
+public interface ComponentMetricsMBean {
+
+    public String getComponentClass();
+
+    public long getInvocationCount();
+
+    public long getStreamDelimiterCount();
+
+    public long getErrorCount();
+
+    public long getExecuteTimeMillis();
+
+    public double getExecuteMeanMicros();
+
+    public long getExecuteP50Micros();
+
+    public long getExecuteP99Micros();
+
+    public long getExecuteMaxMicros();
+
+    public long getElementsReceived();
+
+    public long getBytesReceived();
+
+    public long getElementsPushed();
+
+    public long getBytesPushed();
+
+    /**
+     * @return One line per port: direction, name, elements and bytes
+     */
+    public String[] getPortStatistics();
+
+    /**
+     * @return One line per component specific counter: name and value
+     */
+    public String[] getCounters();
+}
@@ -46,16 +46,26 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.JarURLConnection;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
+import org.meandre.core.ComponentExecutionException;
 import org.meandre.core.system.components.ext.StreamDelimiter;
 import org.seasr.meandre.support.generic.io.JARInstaller;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 import org.seasr.meandre.support.generic.io.StreamUtils;
 import org.seasr.meandre.support.generic.io.exceptions.ResourceNotFoundException;
 
+import com.google.protobuf.Message;
+
 /**
  * This class provides utility functions for components
  *
@@ -143,4 +153,107 @@ public class ComponentUtils {
 
         return JARInstaller.installFromStream(resInputStream, location, force);
     }
+
+    /**
+     * Estimates the number of bytes held by a data component; protobuf messages report their
+     * serialized size (which they compute once and remember), strings and byte arrays their length,
+     * and batches the sum of their items
+     *
+     * @param data The data component
+     * @return The (approximate) number of bytes, or 0 if unknown
+     */
+    public static long estimateSize(Object data) {
+        if (data instanceof Message)
+            return ((Message) data).getSerializedSize();
+
+        if (data instanceof CharSequence)
+            return 2L * ((CharSequence) data).length();
+
+        if (data instanceof byte[])
+            return ((byte[]) data).length;
+
+        if (data instanceof DataBatch) {
+            DataBatch batch = (DataBatch) data;
+            long size = 0;
+            for (int i = 0, iMax = batch.size(); i < iMax; i++)
+                size += estimateSize(batch.get(i));
+
+            return size;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Checks the DataBatch(es) received in an execution
+     *
+     * @param inputs The inputs received, by port name
+     * @return The number of items in the batches, or -1 if no input is a DataBatch
+     * @throws ComponentExecutionException Thrown if the batches have different sizes, or if only some of the inputs
+     *         are batches (the items could not be paired with the other inputs)
+     */
+    public static int getBatchSize(Map<String, Object> inputs) throws ComponentExecutionException {
+        int batchSize = -1;
+
+        for (Map.Entry<String, Object> entry : inputs.entrySet()) {
+            if (!(entry.getValue() instanceof DataBatch)) continue;
+
+            int size = ((DataBatch) entry.getValue()).size();
+            if (batchSize >= 0 && size != batchSize)
+                throw new ComponentExecutionException(String.format(
+                        "The batches received on the input ports have different sizes (%d and %d)", batchSize, size));
+
+            batchSize = size;
+        }
+
+        if (batchSize >= 0)
+            for (Map.Entry<String, Object> entry : inputs.entrySet())
+                if (!(entry.getValue() instanceof DataBatch))
+                    throw new ComponentExecutionException(String.format(
+                            "Input port '%s' received a single datum together with a batch of %d items on another port - " +
+                            "set _batch_size to 1 on the components pushing to these ports", entry.getKey(), batchSize));
+
+        return batchSize;
+    }
+
+    /**
+     * @param inputs The inputs received, by port name
+     * @param index The index of the item
+     * @return The inputs with each DataBatch replaced by its item at the given index
+     */
+    public static Map<String, Object> getItemInputs(Map<String, Object> inputs, int index) {
+        Map<String, Object> itemInputs = new HashMap<String, Object>(inputs);
+        for (Map.Entry<String, Object> entry : inputs.entrySet())
+            if (entry.getValue() instanceof DataBatch)
+                itemInputs.put(entry.getKey(), ((DataBatch) entry.getValue()).get(index));
+
+        return itemInputs;
+    }
+
+    /**
+     * Wraps a component context so that it returns the given inputs instead of its own
+     *
+     * @param cc The component context
+     * @param inputs The inputs, by port name
+     * @return The wrapped context
+     */
+    public static ComponentContext withInputs(final ComponentContext cc, final Map<String, Object> inputs) {
+        return (ComponentContext) Proxy.newProxyInstance(ComponentContext.class.getClassLoader(),
+                new Class<?>[] { ComponentContext.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getDataComponentFromInput"))
+                            return inputs.get(args[0]);
+
+                        if (method.getName().equals("isInputAvailable"))
+                            return inputs.containsKey(args[0]);
+
+                        try {
+                            return method.invoke(cc, args);
+                        }
+                        catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
 }
@@ -0,0 +1,84 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.util.Collection;
+
+/**
+ * A batch of data items pushed to a port as a single datum, to amortize the per-push overhead
+ * of the framework for small items. Batches are created by
+ * AbstractStreamingExecutableComponent.pushBatched(...) and are taken apart again by
+ * AbstractExecutableComponent.execute(...) (and AbstractPythonExecutableComponent.execute(...))
+ * on the receiving side, which calls executeCallBack once per item. Components that read their
+ * inputs in their own execute(...) override, or that are not built on these classes, get the
+ * DataBatch itself; the ones in this package reject it.
+ *
+ * A batch never contains stream delimiters; pending batches are pushed before any delimiter.
+ * When a batch is received, every other input of the execution must be a batch of the same size.
+ */
+public final class DataBatch {
+
+    private final Object[] _items;
+
+
+    public DataBatch(Collection<?> items) {
+        _items = items.toArray();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    public int size() {
+        return _items.length;
+    }
+
+    public Object get(int index) {
+        return _items[index];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%d]", getClass().getSimpleName(), _items.length);
+    }
+}
@@ -0,0 +1,181 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of the component metrics of each running flow, so that a summary
+ * of the whole flow can be produced when its last component is disposed
+ */
+public class FlowMetrics {
+
+    /**
+     * Notified when the last component of a flow is disposed (ex: by load testing tools)
+     */
+    public interface Listener {
+        public void flowCompleted(String flowExecutionId, List<ComponentMetrics> components);
+    }
+
+    /** The metrics of all the components of each flow */
+    private static final Map<String, List<ComponentMetrics>> _flows = new HashMap<String, List<ComponentMetrics>>();
+    /** The metrics of the components of each flow that are not disposed yet */
+    private static final Map<String, List<ComponentMetrics>> _running = new HashMap<String, List<ComponentMetrics>>();
+    private static final List<Listener> _listeners = new CopyOnWriteArrayList<Listener>();
+
+
+    public static void addListener(Listener listener) {
+        _listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        _listeners.remove(listener);
+    }
+
+
+    /**
+     * Adds a component, once initialized, to a flow
+     *
+     * @param flowExecutionId The flow execution id
+     * @param metrics The metrics of the component
+     */
+    public static synchronized void register(String flowExecutionId, ComponentMetrics metrics) {
+        List<ComponentMetrics> components = _flows.get(flowExecutionId);
+        if (components == null) {
+            components = new ArrayList<ComponentMetrics>();
+            _flows.put(flowExecutionId, components);
+            _running.put(flowExecutionId, new ArrayList<ComponentMetrics>());
+        }
+
+        if (!containsSame(components, metrics)) {
+            components.add(metrics);
+            _running.get(flowExecutionId).add(metrics);
+        }
+    }
+
+    /**
+     * Marks a component of a flow as disposed; components that were not registered
+     * (or were already disposed) are ignored
+     *
+     * @param flowExecutionId The flow execution id
+     * @param metrics The metrics of the component
+     * @return The metrics of all the components of the flow if this was the last one, null otherwise
+     */
+    public static List<ComponentMetrics> unregister(String flowExecutionId, ComponentMetrics metrics) {
+        List<ComponentMetrics> components = remove(flowExecutionId, metrics);
+        if (components != null)
+            for (Listener listener : _listeners)
+                listener.flowCompleted(flowExecutionId, components);
+
+        return components;
+    }
+
+    /**
+     * Formats the metrics of the components of a flow as a table, the most expensive component first
+     *
+     * @param flowExecutionId The flow execution id
+     * @param components The component metrics
+     * @return The summary
+     */
+    public static String format(String flowExecutionId, List<ComponentMetrics> components) {
+        List<ComponentMetrics> sorted = new ArrayList<ComponentMetrics>(components);
+        Collections.sort(sorted, new Comparator<ComponentMetrics>() {
+            public int compare(ComponentMetrics m1, ComponentMetrics m2) {
+                long t1 = m1.getExecuteTimeMillis();
+                long t2 = m2.getExecuteTimeMillis();
+                return (t1 < t2) ? 1 : (t1 > t2) ? -1 : 0;
+            }
+        });
+
+        long total = 0;
+        for (ComponentMetrics metrics : sorted)
+            total += metrics.getExecuteTimeMillis();
+
+        String newLine = System.getProperty("line.separator");
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Execution summary for flow %s (%,d ms in components)", flowExecutionId, total)).append(newLine);
+        sb.append(String.format("%-40s %10s %6s %10s %10s %10s %7s %12s %14s %12s %14s",
+                "component", "time ms", "%", "executes", "p50 us", "p99 us", "errors",
+                "elems in", "bytes in", "elems out", "bytes out")).append(newLine);
+
+        for (ComponentMetrics m : sorted)
+            sb.append(String.format("%-40s %,10d %6.1f %,10d %,10d %,10d %,7d %,12d %,14d %,12d %,14d",
+                    m.getName(), m.getExecuteTimeMillis(), (total > 0) ? 100d * m.getExecuteTimeMillis() / total : 0d,
+                    m.getInvocationCount(), m.getExecuteP50Micros(), m.getExecuteP99Micros(), m.getErrorCount(),
+                    m.getElementsReceived(), m.getBytesReceived(), m.getElementsPushed(), m.getBytesPushed())).append(newLine);
+
+        return sb.toString();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static synchronized List<ComponentMetrics> remove(String flowExecutionId, ComponentMetrics metrics) {
+        List<ComponentMetrics> running = _running.get(flowExecutionId);
+        if (running == null) return null;
+
+        for (int i = 0; i < running.size(); i++)
+            if (running.get(i) == metrics) {
+                running.remove(i);
+                if (!running.isEmpty()) return null;
+
+                _running.remove(flowExecutionId);
+                return _flows.remove(flowExecutionId);
+            }
+
+        return null;
+    }
+
+    private static boolean containsSame(List<ComponentMetrics> components, ComponentMetrics metrics) {
+        for (ComponentMetrics m : components)
+            if (m == metrics) return true;
+
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size, log-linear histogram of durations (in the style of HdrHistogram):
+ * each power of two is split in 16 linear sub-buckets, so any recorded value is reported
+ * within 1/16 (6.25%) of its true value, from 1ns up to Long.MAX_VALUE, in 8KB.
+ * Recording is lock-free and can happen while other threads read the histogram.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray _counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _total = new AtomicLong();
+    private final AtomicLong _max = new AtomicLong();
+
+
+    /**
+     * Records a value
+     *
+     * @param value The value (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        _counts.incrementAndGet(bucketFor(value));
+        _count.incrementAndGet();
+        _total.addAndGet(value);
+
+        long max;
+        while (value > (max = _max.get()) && !_max.compareAndSet(max, value));
+    }
+
+    public long getCount() {
+        return _count.get();
+    }
+
+    public long getTotal() {
+        return _total.get();
+    }
+
+    public long getMax() {
+        return _max.get();
+    }
+
+    public double getMean() {
+        long count = _count.get();
+        return (count > 0) ? (double) _total.get() / count : 0;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The largest value that falls in the same bucket as the value at the given percentile
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = _count.get();
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0, iMax = _counts.length(); i < iMax; i++) {
+            seen += _counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestValueIn(i), _max.get());
+        }
+
+        return _max.get();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static int bucketFor(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exp = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        int shift = exp - SUB_BUCKET_BITS;
+
+        return ((long) (SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,289 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextException;
+import org.meandre.core.ComponentExecutionException;
+
+/**
+ * Runs the executions of a component on a pool of worker threads, pushing their outputs
+ * in the order the executions were submitted.
+ *
+ * Each execution is given a context that returns the inputs it was submitted with and
+ * buffers the data it pushes. The worker threads never push to the real context: the
+ * buffered data is pushed by the thread calling submit(...) and drain(), so all the
+ * outputs of an execute() call can be pushed before it returns. The number of executions
+ * queued or running is bounded, so submit(...) blocks when the workers fall behind.
+ */
+public class ParallelExecutor {
+
+    /**
+     * The work done by one execution
+     */
+    public interface Task {
+        /**
+         * @param cc The context holding the inputs of this execution and buffering its outputs
+         * @throws Exception Thrown in the event of an error
+         */
+        public void execute(ComponentContext cc) throws Exception;
+    }
+
+    private final ExecutorService _workers;
+    private final Semaphore _permits;
+
+    /** The executions not yet pushed, in submission order */
+    private final LinkedList<Execution> _pending = new LinkedList<Execution>();
+
+    /** The first error thrown by an execution, not yet reported */
+    private final AtomicReference<Throwable> _failure = new AtomicReference<Throwable>();
+
+
+    /**
+     * @param name The name prefix of the worker threads
+     * @param parallelism The number of worker threads
+     * @param maxPending The maximum number of executions queued or running
+     */
+    public ParallelExecutor(final String name, int parallelism, int maxPending) {
+        if (parallelism < 1 || maxPending < parallelism)
+            throw new IllegalArgumentException(String.format("Invalid parallelism (%d) or maxPending (%d)", parallelism, maxPending));
+
+        _permits = new Semaphore(maxPending);
+        _workers = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            private final AtomicInteger _count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, String.format("%s-worker-%d", name, _count.incrementAndGet()));
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Pushes the outputs of the executions completed so far, then schedules an execution;
+     * blocks while the maximum number of executions are queued or running
+     *
+     * @param cc The context the outputs of the execution are pushed to
+     * @param inputs The inputs of the execution, by port name
+     * @param task The work to do
+     * @throws InterruptedException Thrown if interrupted while waiting
+     * @throws ComponentContextException Thrown if the outputs of a completed execution cannot be pushed
+     */
+    public void submit(ComponentContext cc, Map<String, Object> inputs, final Task task)
+        throws InterruptedException, ComponentContextException {
+
+        Execution completed;
+        while ((completed = nextCompleted(false)) != null)
+            completed.pushOutputs();
+
+        _permits.acquire();
+
+        final Execution execution = new Execution(cc, inputs);
+        synchronized (_pending) {
+            _pending.add(execution);
+        }
+
+        _workers.execute(new Runnable() {
+            public void run() {
+                try {
+                    task.execute(execution.createContext());
+                }
+                catch (Throwable t) {
+                    _failure.compareAndSet(null, t);
+                }
+                finally {
+                    synchronized (_pending) {
+                        execution.done = true;
+                        _pending.notifyAll();
+                    }
+                    _permits.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for all the submitted executions to complete, pushing their outputs in order
+     *
+     * @throws InterruptedException Thrown if interrupted while waiting
+     * @throws ComponentContextException Thrown if the outputs of an execution cannot be pushed
+     *         (after the outputs of the other executions have been pushed)
+     */
+    public void drain() throws InterruptedException, ComponentContextException {
+        ComponentContextException failure = null;
+
+        Execution completed;
+        while ((completed = nextCompleted(true)) != null) {
+            try {
+                completed.pushOutputs();
+            }
+            catch (ComponentContextException e) {
+                if (failure == null) failure = e;
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Rethrows (once) the first error thrown by an execution or while pushing its outputs
+     *
+     * @throws ComponentExecutionException
+     * @throws ComponentContextException
+     */
+    public void rethrowFailure() throws ComponentExecutionException, ComponentContextException {
+        Throwable t = _failure.getAndSet(null);
+        if (t == null) return;
+
+        if (t instanceof ComponentExecutionException)
+            throw (ComponentExecutionException) t;
+
+        if (t instanceof ComponentContextException)
+            throw (ComponentContextException) t;
+
+        if (t instanceof Error)
+            throw (Error) t;
+
+        throw new ComponentExecutionException((Exception) t);
+    }
+
+    /**
+     * Stops the worker threads (executions still running are left to complete, their outputs are dropped)
+     */
+    public void shutdown() {
+        _workers.shutdown();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Removes the oldest execution once it has completed
+     *
+     * @param wait True to wait for it to complete, false to return null if it has not
+     * @return The oldest execution, or null if none is pending (or it has not completed and wait=false)
+     * @throws InterruptedException Thrown if interrupted while waiting
+     */
+    private Execution nextCompleted(boolean wait) throws InterruptedException {
+        synchronized (_pending) {
+            if (_pending.isEmpty()) return null;
+
+            while (!_pending.getFirst().done) {
+                if (!wait) return null;
+                _pending.wait();
+            }
+
+            return _pending.removeFirst();
+        }
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static class Execution {
+        private final ComponentContext _cc;
+        private final Map<String, Object> _inputs;
+        private final List<String> _outputPorts = new ArrayList<String>();
+        private final List<Object> _outputs = new ArrayList<Object>();
+
+        /** Guarded by the pending list */
+        boolean done = false;
+
+        Execution(ComponentContext cc, Map<String, Object> inputs) {
+            _cc = cc;
+            _inputs = inputs;
+        }
+
+        ComponentContext createContext() {
+            return (ComponentContext) Proxy.newProxyInstance(ComponentContext.class.getClassLoader(),
+                    new Class<?>[] { ComponentContext.class }, new InvocationHandler() {
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            String name = method.getName();
+
+                            if (name.equals("getDataComponentFromInput"))
+                                return _inputs.get(args[0]);
+
+                            if (name.equals("isInputAvailable"))
+                                return _inputs.containsKey(args[0]);
+
+                            if (name.equals("pushDataComponentToOutput")) {
+                                _outputPorts.add((String) args[0]);
+                                _outputs.add(args[1]);
+                                return null;
+                            }
+
+                            try {
+                                return method.invoke(_cc, args);
+                            }
+                            catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    });
+        }
+
+        void pushOutputs() throws ComponentContextException {
+            for (int i = 0, iMax = _outputs.size(); i < iMax; i++)
+                _cc.pushDataComponentToOutput(_outputPorts.get(i), _outputs.get(i));
+        }
+    }
+}
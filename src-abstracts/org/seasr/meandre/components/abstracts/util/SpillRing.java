@@ -0,0 +1,188 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.abstracts.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * A fixed capacity FIFO of byte records backed by a temporary file.
+ * Writes wrap around to the beginning of the file once the end is reached, so the
+ * file never grows beyond the capacity given. The file is created on the first write.
+ */
+public class SpillRing {
+
+	private static final int HEADER_SIZE = 4;
+
+	private final long _capacity;
+	private final File _dir;
+	private final byte[] _header = new byte[HEADER_SIZE];
+
+	private File _file;
+	private RandomAccessFile _raf;
+	private long _readPos = 0;
+	private long _writePos = 0;
+	private long _used = 0;
+	private int _count = 0;
+
+
+	/**
+	 * @param capacity The maximum number of bytes held (including a 4-byte header per record)
+	 * @param dir The folder for the temporary file, or null for the system default
+	 */
+	public SpillRing(long capacity, File dir) {
+	    _capacity = capacity;
+	    _dir = dir;
+	}
+
+	/**
+	 * Appends a record
+	 *
+	 * @param record The record
+	 * @return True if the record was added, false if there was not enough free space
+	 * @throws IOException
+	 */
+	public boolean offer(byte[] record) throws IOException {
+	    long size = HEADER_SIZE + record.length;
+	    if (_used + size > _capacity) return false;
+
+	    if (_raf == null) {
+	        _file = File.createTempFile("inputcache_", ".spill", _dir);
+	        _raf = new RandomAccessFile(_file, "rw");
+	    }
+
+	    int len = record.length;
+	    _header[0] = (byte) (len >>> 24);
+	    _header[1] = (byte) (len >>> 16);
+	    _header[2] = (byte) (len >>> 8);
+	    _header[3] = (byte) len;
+
+	    _writePos = write(_writePos, _header);
+	    _writePos = write(_writePos, record);
+	    _used += size;
+	    _count++;
+
+	    return true;
+	}
+
+	/**
+	 * Removes the oldest record
+	 *
+	 * @return The record, or null if the ring is empty
+	 * @throws IOException
+	 */
+	public byte[] poll() throws IOException {
+	    if (_count == 0) return null;
+
+	    _readPos = read(_readPos, _header);
+	    int len = ((_header[0] & 0xff) << 24) | ((_header[1] & 0xff) << 16) | ((_header[2] & 0xff) << 8) | (_header[3] & 0xff);
+
+	    byte[] record = new byte[len];
+	    _readPos = read(_readPos, record);
+	    _used -= HEADER_SIZE + len;
+	    _count--;
+
+	    if (_count == 0)
+	        _readPos = _writePos = 0;
+
+	    return record;
+	}
+
+	/**
+	 * @return The number of bytes in use
+	 */
+	public long getUsedBytes() {
+	    return _used;
+	}
+
+	/**
+	 * @return The number of records held
+	 */
+	public int size() {
+	    return _count;
+	}
+
+	/**
+	 * Releases the temporary file
+	 */
+	public void close() {
+	    if (_raf != null) {
+	        try {
+	            _raf.close();
+	        }
+	        catch (IOException e) { }
+	        _file.delete();
+	        _raf = null;
+	        _file = null;
+	    }
+
+	    _readPos = _writePos = _used = _count = 0;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private long write(long pos, byte[] data) throws IOException {
+	    int first = (int) Math.min(data.length, _capacity - pos);
+	    _raf.seek(pos);
+	    _raf.write(data, 0, first);
+	    if (first < data.length) {
+	        _raf.seek(0);
+	        _raf.write(data, first, data.length - first);
+	    }
+
+	    return (pos + data.length) % _capacity;
+	}
+
+	private long read(long pos, byte[] data) throws IOException {
+	    int first = (int) Math.min(data.length, _capacity - pos);
+	    _raf.seek(pos);
+	    _raf.readFully(data, 0, first);
+	    if (first < data.length) {
+	        _raf.seek(0);
+	        _raf.readFully(data, first, data.length - first);
+	    }
+
+	    return (pos + data.length) % _capacity;
+	}
+}
@@ -46,6 +46,7 @@ import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -205,7 +206,7 @@ public class DocumentTopicsToCSV extends AbstractExecutableComponent {
 
                 csvWriter.write(csvEntry, header, processors);
 
-                if (docNum % 5000 == 0)
+                if (docNum % 5000 == 0 && console.isLoggable(Level.FINE))
                     console.fine(String.format("Processed %,d out of %,d", docNum, dataSize));
             }
         }
@@ -43,6 +43,7 @@
 package org.seasr.meandre.components.analytics.mallet;
 
 import java.util.Arrays;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -183,7 +184,7 @@ public class DocumentTopicsToXML extends AbstractExecutableComponent {
 
             xmlModel.appendChild(xmlDoc);
 
-            if (++processed % 1000 == 0)
+            if (++processed % 1000 == 0 && console.isLoggable(Level.FINE))
                 console.fine(String.format("Processed %,d out of %,d", processed, dataSize));
         }
 
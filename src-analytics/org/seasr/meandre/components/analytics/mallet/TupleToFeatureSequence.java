@@ -58,6 +58,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 import cc.mallet.types.Alphabet;
 import cc.mallet.types.FeatureSequence;
@@ -137,7 +138,7 @@ public class TupleToFeatureSequence extends AbstractStreamingExecutableComponent
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+        SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
         SimpleTuple tuple = tuplePeer.createTuple();
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
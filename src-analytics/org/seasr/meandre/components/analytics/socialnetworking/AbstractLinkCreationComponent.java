@@ -67,6 +67,7 @@ import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableCompone
 import org.seasr.meandre.components.nlp.opennlp.OpenNLPNamedEntity;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * Abstract skeleton component that provides link creation services.
@@ -168,7 +169,7 @@ public abstract class AbstractLinkCreationComponent extends AbstractStreamingExe
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inMetaTuple = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inMetaTuple);
+        SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inMetaTuple);
         console.fine("Input meta tuple: " + tuplePeer.toString());
 
         StringsArray inTuples = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
@@ -42,6 +42,8 @@
 
 package org.seasr.meandre.components.analytics.statistics;
 
+import java.util.logging.Level;
+
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
 import org.meandre.annotations.Component.Licenses;
@@ -203,7 +205,8 @@ public class ComputePearson extends AbstractStreamingExecutableComponent {
 			}
 
 		    String query = sb.toString();
-            console.fine("Pushing query: " + query);
+            if (console.isLoggable(Level.FINE))
+                console.fine("Pushing query: " + query);
             cc.pushDataComponentToOutput(OUT_QUERY, query);
 		}
 
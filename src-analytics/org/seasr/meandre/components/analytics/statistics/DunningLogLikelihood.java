@@ -46,6 +46,7 @@ import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.ComponentInput;
@@ -93,7 +94,8 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
             name = Names.PORT_TOKEN_COUNTS,
             description = "Token counts for the analysis set of documents." +
                 "<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>" +
-                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap"
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap" +
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap"
         //TODO: This could actually be NumbersMap...
                 //TODO: I've corrected this type, it was: org.seasr.datatypes.BasicDataTypes.IntegersMap
     )
@@ -103,7 +105,8 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
             name = Names.PORT_TOKEN_COUNTS_REFERENCE,
             description = "Token counts for the reference set of documents." +
                 "<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>" +
-                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap"
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap" +
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap"
         //TODO: This could actually be NumbersMap...
     )
     protected static final String IN_REF_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS_REFERENCE;
@@ -113,7 +116,8 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
     @ComponentOutput(
             name = "int_likelihood_scores",
             description = "Resulting analysis of dunning loglikelihood (rounded to integer values)." +
-                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap"
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.IntegersMap" +
+                "<br>TYPE: org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap"
     )
     protected static final String OUT_INT_LIKELIHOOD_SCORES = "int_likelihood_scores";
 
@@ -157,17 +161,26 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
     )
     protected static final String PROP_CUTOFF = "cutoff";
 
+    @ComponentProperty(
+            name = Names.PROP_PACKED,
+            description = "Should the integer likelihood scores be output as a PackedIntegersMap?",
+            defaultValue = "false"
+    )
+    protected static final String PROP_PACKED = Names.PROP_PACKED;
+
     //--------------------------------------------------------------------------------------------
 
     Boolean _signedInts = true;
     Boolean _signedDoubles = true;
     private int _cutoff = 0;
+    private boolean _packed = false;
 
     @Override
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
         _signedInts  = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_SIGNED_INTS, ccp));
         _signedDoubles  = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_SIGNED_DOUBLES, ccp));
         _cutoff  = Integer.parseInt(getPropertyOrDieTrying(PROP_CUTOFF, ccp));
+        _packed = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_PACKED, ccp));
     }
 
     @Override
@@ -199,7 +212,9 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
 //			min = (min<score) ? min : score;
 //		}
 
-        Map<String, Integer> outputMap = new Hashtable<String, Integer>();
+        String[] outputTokens = new String[results.size()];
+        int[] outputScores = new int[outputTokens.length];
+        int outputCount = 0;
         Map<String,Double> outputMapDoubles = new Hashtable<String, Double>();
         Map<String,Double> significanceMapDoubles = new Hashtable<String, Double>();
         for (ReverseScoredString key : results.keySet()) {
@@ -210,17 +225,21 @@ public class DunningLogLikelihood extends AbstractExecutableComponent {
             significanceMapDoubles.put(key.getString(), new Double(results.get(key)[SIGNIFICANCE_INDEX]));
 
 //			if (min > 1) //apply score directly
-                outputMap.put(key.getString(), new Integer((int)(score*(_signedInts ? sign : 1))));
+            outputTokens[outputCount] = key.getString();
+            outputScores[outputCount++] = (int)(score*(_signedInts ? sign : 1));
 //			else //scale score
 //				outputMap.put(key.getString(), new Integer((int)(score/min)));
 
-            console.finest(String.format("%s\t%s\t%s\t%s", key.getString(), score, (int)score,sign));
+            if (console.isLoggable(Level.FINEST))
+                console.finest(String.format("%s\t%s\t%s\t%s", key.getString(), score, (int)score,sign));
         }
 
 //		for (ReverseScoredString key : results.keySet()) {
 //		}
 
-        cc.pushDataComponentToOutput(OUT_INT_LIKELIHOOD_SCORES, BasicDataTypesTools.mapToIntegerMap(outputMap, false));
+        cc.pushDataComponentToOutput(OUT_INT_LIKELIHOOD_SCORES, _packed ?
+                BasicDataTypesTools.arraysToPackedIntegerMap(outputTokens, outputScores, false) :
+                BasicDataTypesTools.arraysToIntegerMap(outputTokens, outputScores, false));
         cc.pushDataComponentToOutput(OUT_TOKEN_DOUBLES, BasicDataTypesTools.mapToDoubleMap(outputMapDoubles, false));
         cc.pushDataComponentToOutput(OUT_STAT_SIGNIFICANCE_SCORE, BasicDataTypesTools.mapToDoubleMap(significanceMapDoubles, false));
     }
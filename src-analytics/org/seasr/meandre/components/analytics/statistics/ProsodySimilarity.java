@@ -62,6 +62,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 import org.seasr.meandre.support.components.analytics.statistics.Prosody;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.util.KeyValuePair;
 
 /**
@@ -286,7 +287,7 @@ public class ProsodySimilarity extends AbstractStreamingExecutableComponent {
 		Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         StringsArray inTuple = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inMeta);
+		SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inMeta);
 		Strings[] tuples = BasicDataTypesTools.stringsArrayToJavaArray(inTuple);
 
 		int index = _prosody.addData(tuplePeer, tuples);
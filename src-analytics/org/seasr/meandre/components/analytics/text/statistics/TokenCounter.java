@@ -42,8 +42,7 @@
 
 package org.seasr.meandre.components.analytics.text.statistics;
 
-import java.util.HashMap;
-import java.util.Map;
+import gnu.trove.map.hash.TObjectIntHashMap;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.ComponentInput;
@@ -59,6 +58,7 @@ import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
+import org.seasr.datatypes.core.views.TokenizedSentencesView;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 
 import de.intarsys.tools.component.ComponentException;
@@ -84,7 +84,7 @@ import de.intarsys.tools.component.ComponentException;
 				      "this component counts all the different occurrences of the " +
 				      "tokens. If the document contains multiple token sequences, the " +
 				      "component aggregate all the sequences providing a cumulative count.",
-		dependency = {"protobuf-java-2.2.0.jar"}
+		dependency = {"protobuf-java-2.2.0.jar", "trove4j-3.0.3.jar"}
 )
 public class TokenCounter extends AbstractExecutableComponent {
 
@@ -106,7 +106,8 @@ public class TokenCounter extends AbstractExecutableComponent {
 	@ComponentOutput(
 			name = Names.PORT_TOKEN_COUNTS,
 			description = "The token counts" +
-			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap"
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
 	)
 	protected static final String OUT_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -119,41 +120,58 @@ public class TokenCounter extends AbstractExecutableComponent {
     )
     protected static final String PROP_ORDERED = Names.PROP_ORDERED;
 
+    @ComponentProperty(
+            name = Names.PROP_PACKED,
+            description = "Should the token counts be output as a PackedIntegersMap? " +
+                "The packed format is much more compact for large vocabularies, but it can only be consumed " +
+                "by components that accept it.",
+            defaultValue = "false"
+    )
+    protected static final String PROP_PACKED = Names.PROP_PACKED;
+
 	//--------------------------------------------------------------------------------------------
 
 
 	/** Should the tokens be ordered */
 	private boolean bOrdered;
 
+	/** Should the counts be output in the packed format */
+	private boolean bPacked;
+
 
 	//--------------------------------------------------------------------------------------------
 
 	@Override
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
 		bOrdered = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_ORDERED, true, true, ccp));
+		bPacked = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_PACKED, ccp));
 	}
 
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
 		Object obj = cc.getDataComponentFromInput(IN_TOKENS);
 
-		Map<String, Integer> tokenCounts = new HashMap<String, Integer>();
+		TObjectIntHashMap<String> tokenCounts = new TObjectIntHashMap<String>();
 
 		if (obj instanceof StringsMap) //tokenized sentences
-			processSentences((StringsMap)obj, tokenCounts);
+			processSentences(DataTypeParser.parseAsTokenizedSentencesView(obj), tokenCounts);
 
 		else
 
 		if (obj instanceof Strings) //tokens only
-			processTokens(DataTypeParser.parseAsString(obj), tokenCounts);
+			processTokens(DataTypeParser.parseAsStringsView(obj), tokenCounts);
 
 		else
 		    throw new ComponentException("Don't know how to process input of type: " + obj.getClass().getName());
 
 		console.fine(String.format("Found %,d unique tokens", tokenCounts.size()));
 
-		componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS,
-		        BasicDataTypesTools.mapToIntegerMap(tokenCounts, bOrdered));
+		String[] tokens = tokenCounts.keys(new String[tokenCounts.size()]);
+		int[] counts = tokenCounts.values();
+
+		componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS, bPacked ?
+		        BasicDataTypesTools.arraysToPackedIntegerMap(tokens, counts, bOrdered) :
+		        BasicDataTypesTools.arraysToIntegerMap(tokens, counts, bOrdered));
 	}
 
     @Override
@@ -162,20 +180,14 @@ public class TokenCounter extends AbstractExecutableComponent {
 
     //--------------------------------------------------------------------------------------------
 
-    private void processSentences(StringsMap sentences, Map<String, Integer> tokenCounts) throws Exception {
-    	for (int i = 0, iMax = sentences.getKeyCount(); i < iMax; i++) {
-    		Strings value = sentences.getValue(i);  // this is the set of tokens for that sentence
-    		processTokens(DataTypeParser.parseAsString(value), tokenCounts);
-		}
+    private void processSentences(TokenizedSentencesView sentences, TObjectIntHashMap<String> tokenCounts) throws Exception {
+    	for (int i = 0, iMax = sentences.size(); i < iMax; i++)
+    		processTokens(sentences.getTokenList(i), tokenCounts);  // this is the set of tokens for that sentence
     }
 
-    private void processTokens(String[] tokens, Map<String, Integer> tokenCounts) throws Exception {
+    private void processTokens(Iterable<String> tokens, TObjectIntHashMap<String> tokenCounts) throws Exception {
 		// Retrieve the tokens and count them
-		for (String token : tokens) {
-		    Integer count = tokenCounts.get(token);
-		    if (count == null) count = 0;
-
-			tokenCounts.put(token, count + 1);
-		}
+		for (String token : tokens)
+		    tokenCounts.adjustOrPutValue(token, 1, 1);
     }
 }
@@ -42,7 +42,8 @@
 
 package org.seasr.meandre.components.analytics.text.statistics;
 
-import java.util.Hashtable;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -59,6 +60,8 @@ import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
+import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
+import org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 
 /**
@@ -82,7 +85,7 @@ import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableCompone
 				      "accumulates/reduces the token counts and then pushes the resulting model. " +
 				      "If no wrapped model is provided it will act as a simple pass through. This " +
 				      "component is based on Wrapped models reducer.",
-		dependency = {"protobuf-java-2.2.0.jar"}
+		dependency = {"protobuf-java-2.2.0.jar", "trove4j-3.0.3.jar"}
 )
 public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 
@@ -92,7 +95,8 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 			name = Names.PORT_TOKEN_COUNTS,
 			description = "The token counts to accumulate" +
     			"<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>" +
-    			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap"
+    			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+    			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
 	)
 	protected static final String IN_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -101,7 +105,8 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 	@ComponentOutput(
 			name = Names.PORT_TOKEN_COUNTS,
 			description = "The accumulated token counts" +
-			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap"
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
 	)
 	protected static final String OUT_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -116,11 +121,18 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
     )
     protected static final String PROP_ORDERED = Names.PROP_ORDERED;
 
+    @ComponentProperty(
+            name = Names.PROP_PACKED,
+            description = "Should the accumulated token counts be output as a PackedIntegersMap?",
+            defaultValue = "false"
+    )
+    protected static final String PROP_PACKED = Names.PROP_PACKED;
+
 	//--------------------------------------------------------------------------------------------
 
 
 	/** The accumulated counts */
-	protected Hashtable<String,Integer> _accumulator;
+	protected TObjectIntHashMap<String> _accumulator;
 
 	/** Number of models accumulated */
 	protected int _modelCounter;
@@ -128,6 +140,9 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 	/** Should the tokens be ordered */
 	private boolean _shouldOrderTokens;
 
+	/** Should the counts be output in the packed format */
+	private boolean _shouldPackCounts;
+
 
 	//--------------------------------------------------------------------------------------------
 
@@ -136,6 +151,7 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 	    super.initializeCallBack(ccp);
 
 	    _shouldOrderTokens = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_ORDERED, ccp));
+	    _shouldPackCounts = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_PACKED, ccp));
 
 	    initializeReduction();
 	}
@@ -146,6 +162,16 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 
 		if (_accumulator == null)
 			cc.pushDataComponentToOutput(OUT_TOKEN_COUNTS, obj);
+		else
+
+		if (obj instanceof PackedIntegersMap)
+		    reduceModel((PackedIntegersMap)obj);
+
+		else
+
+		if (obj instanceof IntegersMap)
+		    reduceModel((IntegersMap)obj);
+
 		else
 		    reduceModel(DataTypeParser.parseAsStringIntegerMap(obj));
 	}
@@ -155,6 +181,7 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
         _accumulator = null;
         _modelCounter = 0;
         _shouldOrderTokens = false;
+        _shouldPackCounts = false;
     }
 
 	//-----------------------------------------------------------------------------------
@@ -177,7 +204,7 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 
         initializeReduction();
 
-        _accumulator = new Hashtable<String, Integer>();
+        _accumulator = new TObjectIntHashMap<String>();
     }
 
     @Override
@@ -211,8 +238,14 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 	 */
 	protected void pushReduction() throws Exception {
 		// Push
-		if (_accumulator != null && _accumulator.size() > 0)
-		    componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS, BasicDataTypesTools.mapToIntegerMap(_accumulator, _shouldOrderTokens));
+		if (_accumulator != null && _accumulator.size() > 0) {
+		    String[] tokens = _accumulator.keys(new String[_accumulator.size()]);
+		    int[] counts = _accumulator.values();
+
+		    componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS, _shouldPackCounts ?
+		            BasicDataTypesTools.arraysToPackedIntegerMap(tokens, counts, _shouldOrderTokens) :
+		            BasicDataTypesTools.arraysToIntegerMap(tokens, counts, _shouldOrderTokens));
+		}
 	}
 
 	/**
@@ -222,15 +255,37 @@ public class TokenCounterReducer extends AbstractStreamingExecutableComponent {
 	 */
 	protected void reduceModel(Map<String, Integer> im) {
 	    for (Entry<String, Integer> entry : im.entrySet()) {
-			String token = entry.getKey();
 			int count = entry.getValue();
+			_accumulator.adjustOrPutValue(entry.getKey(), count, count);
+		}
+
+	    _modelCounter++;
+	}
 
-			Integer oldCount = _accumulator.get(token);
-			if (oldCount != null)
-			    count += oldCount;
+	/**
+	 * Accumulates the packed model.
+	 *
+	 * @param im The model to accumulate
+	 */
+	protected void reduceModel(PackedIntegersMap im) {
+	    for (int i = 0, iMax = im.getKeyCount(); i < iMax; i++) {
+	        int count = im.getCount(i);
+	        _accumulator.adjustOrPutValue(im.getKey(i), count, count);
+	    }
 
-			_accumulator.put(token, count);
-		}
+	    _modelCounter++;
+	}
+
+	/**
+	 * Accumulates the model.
+	 *
+	 * @param im The model to accumulate
+	 */
+	protected void reduceModel(IntegersMap im) {
+	    for (int i = 0, iMax = im.getValueCount(); i < iMax; i++) {
+	        int count = im.getValue(i).getValue(0);
+	        _accumulator.adjustOrPutValue(im.getKey(i), count, count);
+	    }
 
 	    _modelCounter++;
 	}
@@ -63,6 +63,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.IOUtils;
 
 /**
@@ -124,7 +125,7 @@ public class TwitterSearch extends AbstractExecutableComponent {
     public void executeCallBack(ComponentContext cc) throws Exception {
         String query = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_TEXT))[0];
 
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[] { "from_user", "from_user_id_str", "profile_image_url", "created_at", "text" });
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[] { "from_user", "from_user_id_str", "profile_image_url", "created_at", "text" });
         StringsArray.Builder tweetsBuilder = StringsArray.newBuilder();
 
         _nextPage = String.format("?q=%s&since_id=0", URLEncoder.encode(query, "UTF-8"));
@@ -20,6 +20,7 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.apps.twitter.TwitterServices;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 import twitter4j.Status;
 import twitter4j.StatusDeletionNotice;
@@ -187,7 +188,7 @@ implements Runnable, StatusListener {
 	    String LOC  = "location";
 
 
-	    SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[]{ID,TWEET,TEXT,USER,FOLL,LOC});
+	    SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[]{ID,TWEET,TEXT,USER,FOLL,LOC});
 		outTuple = outPeer.createTuple();
 
 		ID_IDX         = outPeer.getIndexForFieldName(ID);
@@ -76,6 +76,7 @@ import org.seasr.meandre.support.components.apps.twitter.LRUCacheWithMap;
 import org.seasr.meandre.support.components.tuples.FrequencyMap;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.components.tuples.TupleUtilities;
 
 /**
@@ -220,7 +221,7 @@ public class TwitterTupleWebServer extends AbstractExecutableComponent
 
 		/* the original twitter tuples */
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
 
 
 		StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
@@ -229,7 +230,7 @@ public class TwitterTupleWebServer extends AbstractExecutableComponent
 
 		/* the ne tuples */
 		Strings inputNEMeta = (Strings) cc.getDataComponentFromInput(IN_NE_META_TUPLE);
-		SimpleTuplePeer neTuplePeer = new SimpleTuplePeer(inputNEMeta);
+		SimpleTuplePeer neTuplePeer = TuplePeerRegistry.getPeer(inputNEMeta);
 
 
 		StringsArray neInput = (StringsArray) cc.getDataComponentFromInput(IN_NE_TUPLES);
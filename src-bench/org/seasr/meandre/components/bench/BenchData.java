@@ -0,0 +1,204 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark datasets generated from the samples in test/data/samples.
+ *
+ * <p>The text of all the samples (with markup removed) forms the corpus. Datasets
+ * of any size are drawn from it with a fixed seed, so that they keep the vocabulary
+ * and word frequencies of the samples and are the same from one run to the next.
+ * The samples folder can be changed with the <code>bench.data.dir</code> system property.</p>
+ */
+public class BenchData {
+
+    public static final String PROP_DATA_DIR = "bench.data.dir";
+    public static final String DEFAULT_DATA_DIR = "test/data/samples";
+
+    private static final long SEED = 1714;
+
+    private static String[] _corpus = null;
+
+
+    /**
+     * @return The words of the samples, in the order they appear
+     */
+    public static synchronized String[] corpus() throws IOException {
+        if (_corpus == null) {
+            File dataDir = new File(System.getProperty(PROP_DATA_DIR, DEFAULT_DATA_DIR));
+            List<String> words = new ArrayList<String>();
+            collectWords(dataDir, words);
+            if (words.isEmpty())
+                throw new IOException("No samples found in " + dataDir.getAbsolutePath());
+
+            _corpus = words.toArray(new String[words.size()]);
+        }
+
+        return _corpus;
+    }
+
+    /**
+     * @param count The number of tokens
+     * @return Tokens drawn from the corpus
+     */
+    public static String[] tokens(int count) throws IOException {
+        String[] corpus = corpus();
+        Random random = new Random(SEED);
+        String[] tokens = new String[count];
+        for (int i = 0; i < count; i++)
+            tokens[i] = corpus[random.nextInt(corpus.length)];
+
+        return tokens;
+    }
+
+    /**
+     * @param count The number of words
+     * @return Text made of consecutive corpus words, with a sentence break every 20 words
+     */
+    public static String text(int count) throws IOException {
+        String[] corpus = corpus();
+        StringBuilder sb = new StringBuilder(count * 8);
+        int start = new Random(SEED).nextInt(corpus.length);
+        for (int i = 0; i < count; i++) {
+            sb.append(corpus[(start + i) % corpus.length]);
+            sb.append((i % 20 == 19) ? ".\n" : " ");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @param length The length of the document, in characters
+     * @return A single line document made of consecutive corpus words and sentences
+     */
+    public static String document(int length) throws IOException {
+        String[] corpus = corpus();
+        StringBuilder sb = new StringBuilder(length + 64);
+        for (int i = new Random(SEED).nextInt(corpus.length), n = 0; sb.length() < length; i++, n++) {
+            sb.append(corpus[i % corpus.length]);
+            sb.append((n % 20 == 19) ? ". " : " ");
+        }
+        sb.setLength(length);
+
+        return sb.toString();
+    }
+
+    /**
+     * @param count The number of values
+     * @return Uniformly distributed doubles in [0, 1000)
+     */
+    public static double[] doubles(int count) {
+        Random random = new Random(SEED);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++)
+            values[i] = random.nextDouble() * 1000;
+
+        return values;
+    }
+
+    /**
+     * @param count The number of values
+     * @param bound The upper bound (exclusive)
+     * @return Uniformly distributed ints in [0, bound)
+     */
+    public static int[] ints(int count, int bound) {
+        Random random = new Random(SEED);
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++)
+            values[i] = random.nextInt(bound);
+
+        return values;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static void collectWords(File file, List<String> words) throws IOException {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+            if (files == null) return;
+
+            Arrays.sort(files);
+            for (File f : files)
+                collectWords(f, words);
+
+            return;
+        }
+
+        String text = readFile(file)
+            .replaceAll("(?s)<!--.*?-->", " ")
+            .replaceAll("<[^>]*>", " ")
+            .replaceAll("&\\w+;", " ");
+
+        for (String word : text.split("[^\\p{L}\\p{N}'-]+"))
+            if (word.length() > 0)
+                words.add(word);
+    }
+
+    private static String readFile(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        return new String(data, "UTF-8");
+    }
+}
@@ -0,0 +1,195 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.meandre.annotations.ComponentInput;
+import org.meandre.annotations.ComponentOutput;
+import org.meandre.annotations.ComponentProperty;
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ExecutableComponent;
+
+/**
+ * Runs a component in-process, outside of a Meandre server, so that its
+ * executeCallBack can be benchmarked.
+ *
+ * <p>The properties default to the values declared in the component's annotations.
+ * The data pushed by the last execution is kept (the last push on each port)
+ * so that benchmarks can consume it.</p>
+ */
+public class ComponentDriver {
+
+    private static int _instanceCount = 0;
+
+    private final ExecutableComponent _component;
+    private final Map<String, String> _properties = new HashMap<String, String>();
+    private final List<String> _inputNames = new ArrayList<String>();
+    private final List<String> _outputNames = new ArrayList<String>();
+    private final Map<String, Object> _inputs = new HashMap<String, Object>();
+    private final Map<String, Object> _outputs = new HashMap<String, Object>();
+    private final ComponentContext _context;
+
+
+    /**
+     * @param component The component to run
+     * @param properties Property values that override the defaults (can be null)
+     */
+    public ComponentDriver(ExecutableComponent component, Map<String, String> properties) {
+        _component = component;
+
+        for (Class<?> cls = component.getClass(); cls != null; cls = cls.getSuperclass())
+            for (Field field : cls.getDeclaredFields()) {
+                ComponentProperty property = field.getAnnotation(ComponentProperty.class);
+                if (property != null && !_properties.containsKey(property.name()))
+                    _properties.put(property.name(), property.defaultValue());
+
+                ComponentInput input = field.getAnnotation(ComponentInput.class);
+                if (input != null && !_inputNames.contains(input.name()))
+                    _inputNames.add(input.name());
+
+                ComponentOutput output = field.getAnnotation(ComponentOutput.class);
+                if (output != null && !_outputNames.contains(output.name()))
+                    _outputNames.add(output.name());
+            }
+
+        if (properties != null)
+            _properties.putAll(properties);
+
+        final String instanceName;
+        synchronized (ComponentDriver.class) {
+            instanceName = component.getClass().getSimpleName() + "-" + (++_instanceCount);
+        }
+
+        _context = (ComponentContext) Proxy.newProxyInstance(ComponentContext.class.getClassLoader(),
+                new Class<?>[] { ComponentContext.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+
+                        if (name.equals("getDataComponentFromInput"))
+                            return _inputs.get(args[0]);
+                        if (name.equals("isInputAvailable"))
+                            return _inputs.containsKey(args[0]);
+                        if (name.equals("pushDataComponentToOutput")) {
+                            _outputs.put((String) args[0], args[1]);
+                            return null;
+                        }
+                        if (name.equals("getProperty"))
+                            return _properties.get(args[0]);
+                        if (name.equals("getPropertyNames"))
+                            return _properties.keySet().toArray(new String[_properties.size()]);
+                        if (name.equals("getInputNames"))
+                            return _inputNames.toArray(new String[_inputNames.size()]);
+                        if (name.equals("getOutputNames"))
+                            return _outputNames.toArray(new String[_outputNames.size()]);
+                        if (name.equals("getOutputConsole"))
+                            return System.out;
+                        if (name.equals("getLogger"))
+                            return Logger.getLogger(ComponentDriver.class.getName());
+                        if (name.equals("getRunDirectory") || name.equals("getPublicResourcesDirectory"))
+                            return System.getProperty("java.io.tmpdir") + File.separator + "bench";
+                        if (name.equals("getFlowProperties"))
+                            return new HashMap<String, String>();
+                        if (name.equals("equals"))
+                            return proxy == args[0];
+                        if (name.equals("hashCode"))
+                            return System.identityHashCode(proxy);
+                        if (method.getReturnType() == String.class)
+                            return "bench://" + instanceName;  // ids, names and urls
+                        if (method.getReturnType() == boolean.class)
+                            return false;
+                        if (method.getReturnType() == int.class)
+                            return 0;
+
+                        return null;
+                    }
+                });
+    }
+
+    public void initialize() throws Exception {
+        _component.initialize(_context);
+    }
+
+    /**
+     * Executes the component once
+     *
+     * @param inputs The data on each input port
+     * @return The data pushed on each output port
+     */
+    public Map<String, Object> execute(Map<String, Object> inputs) throws Exception {
+        _inputs.clear();
+        _inputs.putAll(inputs);
+        _outputs.clear();
+        _component.execute(_context);
+
+        return _outputs;
+    }
+
+    /**
+     * Executes a component that has a single input
+     *
+     * @param input The data on the input port
+     * @return The data pushed on each output port
+     */
+    public Map<String, Object> execute(String port, Object input) throws Exception {
+        Map<String, Object> inputs = new HashMap<String, Object>(2);
+        inputs.put(port, input);
+
+        return execute(inputs);
+    }
+
+    public void dispose() throws Exception {
+        _component.dispose(_context);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.meandre.support.components.tuples.SimpleTuple;
+import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+
+/**
+ * Benchmarks the conversions between Java and protocol buffer datatypes,
+ * and the SimpleTuple accessors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataTypesBenchmark {
+
+    /** The number of tokens in the dataset */
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private static final String[] TUPLE_FIELDS = { "sentenceId", "token", "pos", "tokenStart", "count" };
+
+    private Map<String, Integer> _counts;
+    private IntegersMap _integersMap;
+    private String[] _tokens;
+    private StringsArray _stringsArray;
+    private SimpleTuplePeer _tuplePeer;
+    private SimpleTuple[] _tuples;
+
+
+    @Setup
+    public void setUp() throws Exception {
+        _tokens = BenchData.tokens(size);
+
+        _counts = new HashMap<String, Integer>();
+        for (String token : _tokens) {
+            Integer count = _counts.get(token);
+            _counts.put(token, (count == null) ? 1 : count + 1);
+        }
+        _integersMap = BasicDataTypesTools.mapToIntegerMap(_counts, true);
+
+        // sentences of 20 tokens
+        Strings[] sentences = new Strings[(size + 19) / 20];
+        for (int i = 0; i < sentences.length; i++) {
+            int len = Math.min(20, size - i * 20);
+            String[] sentence = new String[len];
+            System.arraycopy(_tokens, i * 20, sentence, 0, len);
+            sentences[i] = BasicDataTypesTools.stringToStrings(sentence);
+        }
+        _stringsArray = BasicDataTypesTools.javaArrayToStringsArray(sentences);
+
+        _tuplePeer = new SimpleTuplePeer(TUPLE_FIELDS);
+        _tuples = new SimpleTuple[size];
+        for (int i = 0; i < size; i++) {
+            _tuples[i] = _tuplePeer.createTuple();
+            _tuples[i].setValue(1, _tokens[i]);
+        }
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public IntegersMap mapToIntegerMap() {
+        return BasicDataTypesTools.mapToIntegerMap(_counts, true);
+    }
+
+    @Benchmark
+    public Map<String, Integer> integerMapToMap() {
+        return BasicDataTypesTools.IntegerMapToMap(_integersMap, true);
+    }
+
+    @Benchmark
+    public String[] stringsRoundTrip() {
+        return BasicDataTypesTools.stringsToStringArray(BasicDataTypesTools.stringToStrings(_tokens));
+    }
+
+    @Benchmark
+    public StringsArray stringsArrayRoundTrip() {
+        return BasicDataTypesTools.javaArrayToStringsArray(BasicDataTypesTools.stringsArrayToJavaArray(_stringsArray));
+    }
+
+    @Benchmark
+    public int tupleSetGetByName() {
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            SimpleTuple tuple = _tuples[i];
+            tuple.setValue("pos", "NN");
+            tuple.setValue("tokenStart", Integer.toString(i));
+            length += tuple.getValue("token").length() + tuple.getValue("pos").length();
+        }
+
+        return length;
+    }
+
+    @Benchmark
+    public int tupleSetGetByIndex() {
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            SimpleTuple tuple = _tuples[i];
+            tuple.setValue(2, "NN");
+            tuple.setValue(3, i);
+            length += tuple.getValue(1).length() + tuple.getValue(2).length();
+        }
+
+        return length;
+    }
+
+    @Benchmark
+    public Strings tupleCreateAndConvert() {
+        Strings last = null;
+        for (int i = 0; i < size; i++) {
+            SimpleTuple tuple = _tuplePeer.createTuple();
+            tuple.setValue(0, i / 20);
+            tuple.setValue(1, _tokens[i]);
+            last = tuple.convert();
+        }
+
+        return last;
+    }
+}
@@ -0,0 +1,479 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.meandre.components.test.framework.ComponentTesterBase;
+import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.util.ComponentMetrics;
+import org.seasr.meandre.components.abstracts.util.FlowMetrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Replays the text processing flows of test/flows in-process on generated corpora
+ * of increasing size, and writes a JSON report of how they performed.
+ *
+ * <p>The push-text component that feeds each flow is replaced by push-text-streaming,
+ * which pushes a generated document (see {@link BenchData#document(int)}) as many times
+ * as needed to reach the corpus size. For every flow and corpus size the report has
+ * the end-to-end wall time and throughput, the peak heap, the GC pauses and the
+ * execution metrics of each component (from {@link FlowMetrics}).</p>
+ *
+ * <p>Arguments (all optional):
+ * <ul>
+ *   <li><code>--sizes=10MB,100MB,1GB</code> the corpus sizes</li>
+ *   <li><code>--flows=analytics/token-counter-to-text.zz,...</code> the flows, relative to test/flows</li>
+ *   <li><code>--report=file.json</code> where to write the report (default: standard output)</li>
+ * </ul></p>
+ */
+public class FlowLoadHarness {
+
+    public static final String DEFAULT_SIZES = "10MB,100MB,1GB";
+
+    /** The flows that process the text pushed by a push-text component */
+    public static final String DEFAULT_FLOWS =
+        "analytics/token-counter-to-text.zz," +
+        "analytics/token-counter-to-text-with-filter.zz," +
+        "analytics/text-sentence-tokenizer-with-filter.zz," +
+        "opennlp/text-sentence-tokenizer.zz," +
+        "opennlp/text-sentence-pos.zz," +
+        "opennlp/text-sentence-ne.zz";
+
+    /** The same source folders as the component tests use */
+    private static final String[] SOURCE_FOLDERS =
+        { "src-analytics", "src-nlp", "src-sentiment", "src-tools", "src-transform", "src-vis" };
+
+    private static final String FLOWS_FOLDER = "test" + File.separator + "flows";
+    private static final String PUSH_TEXT = "meandre://seasr.org/components/foundry/push-text";
+    private static final String PUSH_TEXT_STREAMING = "meandre://seasr.org/components/foundry/push-text-streaming";
+    private static final String STREAMING_ALIAS = "LOAD_PUSH_TEXT_STREAMING";
+
+    /** The length of the generated document */
+    private static final int DOCUMENT_LENGTH = 1024 * 1024;
+
+    private static final long HEAP_SAMPLING_MILLIS = 10;
+
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<String, String>();
+        options.put("sizes", DEFAULT_SIZES);
+        options.put("flows", DEFAULT_FLOWS);
+        options.put("report", null);
+        for (String arg : args) {
+            int pos = arg.indexOf('=');
+            String name = arg.startsWith("--") && pos > 0 ? arg.substring(2, pos) : null;
+            if (name == null || !options.containsKey(name))
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(name, arg.substring(pos + 1));
+        }
+
+        String document = BenchData.document(DOCUMENT_LENGTH);
+        Map<String, ComponentTesterBase> testers = new LinkedHashMap<String, ComponentTesterBase>();
+        List<Run> runs = new ArrayList<Run>();
+
+        for (String flow : options.get("flows").split(",")) {
+            flow = flow.trim();
+            String folder = flow.substring(0, flow.lastIndexOf('/'));
+            String flowName = flow.substring(flow.lastIndexOf('/') + 1);
+
+            ComponentTesterBase ctb = testers.get(folder);
+            if (ctb == null) {
+                ctb = new ComponentTesterBase();
+                ctb.setBaseTestPort(50000);
+                ctb.setFlowsFolder(FLOWS_FOLDER + File.separator + folder.replace('/', File.separatorChar));
+                ctb.setTempDescriptorFolder("tmp" + File.separator + "desc" + File.separator + "load" + File.separator + folder);
+                ctb.setSourceFolders(SOURCE_FOLDERS);
+                ctb.initialize();
+                testers.put(folder, ctb);
+            }
+
+            for (String size : options.get("sizes").split(",")) {
+                long bytes = parseSize(size.trim());
+                long documents = Math.max(1, bytes / DOCUMENT_LENGTH);
+
+                Run run = new Run(flow, documents * DOCUMENT_LENGTH, documents);
+                System.out.println(String.format("Running %s on %,d bytes (%,d documents)", flow, run.corpusBytes, documents));
+                try {
+                    String zigzag = rewriteFlow(ctb.getZigZag(flowName), document, documents);
+                    run.execute(ctb, zigzag);
+                }
+                catch (Exception e) {
+                    run.failure = e.toString();
+                }
+                runs.add(run);
+
+                System.out.println(run.getSummary());
+            }
+        }
+
+        String report = toJson(runs);
+        String reportFile = options.get("report");
+        if (reportFile != null) {
+            File file = new File(reportFile);
+            if (file.getParentFile() != null) file.getParentFile().mkdirs();
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(report);
+            }
+            finally {
+                writer.close();
+            }
+            System.out.println("Report saved to: " + file.getAbsolutePath());
+        } else
+            System.out.println(report);
+
+        for (Run run : runs)
+            if (run.failure != null)
+                System.exit(1);
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Replaces the push-text component feeding a flow with push-text-streaming, and turns on
+     * the counting of the outputs of the components created along with it
+     *
+     * @param zigzag The ZigZag script of the flow
+     * @param document The document to push
+     * @param times The number of times to push it
+     * @return The rewritten script
+     */
+    static String rewriteFlow(String zigzag, String document, long times) {
+        Matcher alias = Pattern.compile("alias\\s*<" + Pattern.quote(PUSH_TEXT) + ">\\s*as\\s+(\\w+)").matcher(zigzag);
+        if (!alias.find())
+            throw new IllegalArgumentException("The flow does not use push-text");
+
+        // find the first instance (ex: "push = PUSH()" or "push, counter = PUSH(), COUNTER()");
+        // other instances of the same alias (ex: a word list) are left alone
+        String instance = null;
+        String[] names = null;
+        String[] components = null;
+        Matcher assignment = Pattern.compile("(?m)^[ \\t]*([\\w \\t,]+?)[ \\t]*=[ \\t]*([\\w \\t,()]+?)[ \\t]*$").matcher(zigzag);
+        while (instance == null && assignment.find()) {
+            names = assignment.group(1).split("\\s*,\\s*");
+            components = assignment.group(2).split("\\s*,\\s*");
+            for (int i = 0; i < components.length && i < names.length; i++)
+                if (components[i].replaceAll("\\s", "").equals(alias.group(1) + "()")) {
+                    instance = names[i].trim();
+                    components[i] = STREAMING_ALIAS + "()";
+                    break;
+                }
+        }
+        if (instance == null)
+            throw new IllegalArgumentException("No push-text instance found in the flow");
+
+        Matcher message = Pattern.compile("(?m)^\\s*" + Pattern.quote(instance) + "\\.message\\s*=\\s*\".*\"\\s*$").matcher(zigzag);
+        if (!message.find())
+            throw new IllegalArgumentException("The message of " + instance + " is not set in the flow");
+
+        if (message.start() < assignment.end())
+            throw new IllegalArgumentException("The message of " + instance + " is set before its instance is created");
+
+        StringBuilder sb = new StringBuilder(zigzag.length() + document.length() + 256);
+        sb.append(zigzag, 0, alias.end());
+        sb.append(String.format("%nalias <%s> as %s", PUSH_TEXT_STREAMING, STREAMING_ALIAS));
+        sb.append(zigzag, alias.end(), assignment.start());
+        sb.append(join(names)).append(" = ").append(join(components));
+        sb.append(zigzag, assignment.end(), message.start());
+        // ZigZag strings have no escapes
+        sb.append(String.format("%s.message = \"%s\"%n", instance, document.replaceAll("[\"\\\\]", " ")));
+        sb.append(String.format("%s.times = \"%d\"%n", instance, times));
+        sb.append(String.format("%s.wrap_stream = \"false\"", instance));
+        for (String name : names)
+            sb.append(String.format("%n%s.%s = \"true\"", name.trim(), AbstractExecutableComponent.PROP_COUNT_OUTPUTS));
+        sb.append(zigzag, message.end(), zigzag.length());
+
+        return sb.toString();
+    }
+
+    private static String join(String[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values)
+            sb.append(sb.length() > 0 ? ", " : "").append(value.trim());
+
+        return sb.toString();
+    }
+
+    static long parseSize(String size) {
+        Matcher m = Pattern.compile("(?i)(\\d+)\\s*([KMG]?)B?").matcher(size);
+        if (!m.matches())
+            throw new IllegalArgumentException("Invalid size: " + size);
+
+        long value = Long.parseLong(m.group(1));
+        String unit = m.group(2).toUpperCase();
+        if (unit.equals("K")) return value << 10;
+        if (unit.equals("M")) return value << 20;
+        if (unit.equals("G")) return value << 30;
+
+        return value;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static String toJson(List<Run> runs) {
+        Runtime runtime = Runtime.getRuntime();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"timestamp\": ").append(quote(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()))).append(",\n");
+        sb.append("  \"java\": ").append(quote(System.getProperty("java.vm.name") + " " + System.getProperty("java.version"))).append(",\n");
+        sb.append("  \"processors\": ").append(runtime.availableProcessors()).append(",\n");
+        sb.append("  \"maxHeapBytes\": ").append(runtime.maxMemory()).append(",\n");
+        sb.append("  \"runs\": [");
+        for (int i = 0; i < runs.size(); i++) {
+            sb.append(i > 0 ? "," : "").append("\n");
+            runs.get(i).toJson(sb, "    ");
+        }
+        sb.append("\n  ]\n}\n");
+
+        return sb.toString();
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "null";
+
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (char c : s.toCharArray())
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+
+        return sb.append('"').toString();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * One execution of a flow on a corpus
+     */
+    private static class Run implements FlowMetrics.Listener, NotificationListener {
+        final String flow;
+        final long corpusBytes;
+        final long documents;
+
+        long wallMillis;
+        volatile long peakHeapBytes;
+        long gcPauses;
+        long gcPauseMillis;
+        long gcMaxPauseMillis;
+        long outputBytes;
+        String failure = null;
+
+        final List<ComponentMetrics> components = new ArrayList<ComponentMetrics>();
+
+
+        Run(String flow, long corpusBytes, long documents) {
+            this.flow = flow;
+            this.corpusBytes = corpusBytes;
+            this.documents = documents;
+        }
+
+        void execute(ComponentTesterBase ctb, String zigzag) throws Exception {
+            final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            List<NotificationEmitter> collectors = new ArrayList<NotificationEmitter>();
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+                // concurrent cycles (ex: "G1 Concurrent GC", "ZGC Cycles") are not pauses
+                if (gc instanceof NotificationEmitter && !gc.getName().matches(".*(Concurrent|Cycles).*"))
+                    collectors.add((NotificationEmitter) gc);
+
+            System.gc();
+            peakHeapBytes = memory.getHeapMemoryUsage().getUsed();
+
+            Thread sampler = new Thread("heap-sampler") {
+                @Override
+                public void run() {
+                    try {
+                        while (!isInterrupted()) {
+                            peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+                            Thread.sleep(HEAP_SAMPLING_MILLIS);
+                        }
+                    }
+                    catch (InterruptedException e) { }
+                }
+            };
+            sampler.setDaemon(true);
+
+            DiscardingOutputStream out = new DiscardingOutputStream();
+            DiscardingOutputStream err = new DiscardingOutputStream();
+
+            FlowMetrics.addListener(this);
+            for (NotificationEmitter collector : collectors)
+                collector.addNotificationListener(this, null, null);
+            sampler.start();
+            try {
+                long start = System.nanoTime();
+                ctb.runZigZag(zigzag, out, err);
+                wallMillis = (System.nanoTime() - start) / 1000000;
+            }
+            finally {
+                sampler.interrupt();
+                for (NotificationEmitter collector : collectors)
+                    try { collector.removeNotificationListener(this); } catch (Exception e) { }
+                FlowMetrics.removeListener(this);
+            }
+            sampler.join();
+
+            outputBytes = out.getCount();
+            for (ComponentMetrics metrics : components)
+                if (metrics.getErrorCount() > 0 && failure == null)
+                    failure = String.format("%,d error(s) in %s", metrics.getErrorCount(), metrics.getName());
+        }
+
+        public synchronized void flowCompleted(String flowExecutionId, List<ComponentMetrics> flowComponents) {
+            components.addAll(flowComponents);
+        }
+
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                return;
+
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            gcPauses++;
+            gcPauseMillis += duration;
+            gcMaxPauseMillis = Math.max(gcMaxPauseMillis, duration);
+        }
+
+        double getThroughput() {
+            return (wallMillis > 0) ? (corpusBytes / 1048576d) / (wallMillis / 1000d) : 0d;
+        }
+
+        String getSummary() {
+            if (failure != null && wallMillis == 0)
+                return "  FAILED: " + failure;
+
+            return String.format("  %,d ms (%.2f MB/s), peak heap %,d MB, %,d GC pause(s) totaling %,d ms (max %,d ms)%s",
+                    wallMillis, getThroughput(), peakHeapBytes >> 20, gcPauses, gcPauseMillis, gcMaxPauseMillis,
+                    (failure != null) ? " - FAILED: " + failure : "");
+        }
+
+        synchronized void toJson(StringBuilder sb, String indent) {
+            sb.append(indent).append("{\n");
+            sb.append(indent).append("  \"flow\": ").append(quote(flow)).append(",\n");
+            sb.append(indent).append("  \"corpusBytes\": ").append(corpusBytes).append(",\n");
+            sb.append(indent).append("  \"documents\": ").append(documents).append(",\n");
+            sb.append(indent).append("  \"status\": ").append(quote(failure == null ? "ok" : "failed")).append(",\n");
+            sb.append(indent).append("  \"failure\": ").append(quote(failure)).append(",\n");
+            sb.append(indent).append("  \"wallMillis\": ").append(wallMillis).append(",\n");
+            sb.append(indent).append("  \"throughputMBps\": ").append(String.format("%.3f", getThroughput())).append(",\n");
+            sb.append(indent).append("  \"peakHeapBytes\": ").append(peakHeapBytes).append(",\n");
+            sb.append(indent).append("  \"gcPauses\": ").append(gcPauses).append(",\n");
+            sb.append(indent).append("  \"gcPauseMillis\": ").append(gcPauseMillis).append(",\n");
+            sb.append(indent).append("  \"gcMaxPauseMillis\": ").append(gcMaxPauseMillis).append(",\n");
+            sb.append(indent).append("  \"outputBytes\": ").append(outputBytes).append(",\n");
+            sb.append(indent).append("  \"components\": [");
+            for (int i = 0; i < components.size(); i++) {
+                ComponentMetrics m = components.get(i);
+                sb.append(i > 0 ? "," : "").append("\n");
+                sb.append(indent).append("    { ");
+                sb.append("\"name\": ").append(quote(m.getName())).append(", ");
+                sb.append("\"class\": ").append(quote(m.getComponentClass())).append(", ");
+                sb.append("\"executeMillis\": ").append(m.getExecuteTimeMillis()).append(", ");
+                sb.append("\"executes\": ").append(m.getInvocationCount()).append(", ");
+                sb.append("\"p50Micros\": ").append(m.getExecuteP50Micros()).append(", ");
+                sb.append("\"p99Micros\": ").append(m.getExecuteP99Micros()).append(", ");
+                sb.append("\"maxMicros\": ").append(m.getExecuteMaxMicros()).append(", ");
+                sb.append("\"errors\": ").append(m.getErrorCount()).append(", ");
+                sb.append("\"elementsIn\": ").append(m.getElementsReceived()).append(", ");
+                sb.append("\"bytesIn\": ").append(m.getBytesReceived()).append(", ");
+                sb.append("\"elementsOut\": ").append(m.getElementsPushed()).append(", ");
+                sb.append("\"bytesOut\": ").append(m.getBytesPushed());
+                sb.append(" }");
+            }
+            sb.append(components.isEmpty() ? "]\n" : "\n" + indent + "  ]\n");
+            sb.append(indent).append("}");
+        }
+    }
+
+    /**
+     * Counts what the flow prints instead of keeping it in memory
+     */
+    private static class DiscardingOutputStream extends ByteArrayOutputStream {
+        private long _count = 0;
+
+        @Override
+        public synchronized void write(int b) {
+            _count++;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            _count += len;
+        }
+
+        public synchronized long getCount() {
+            return _count;
+        }
+    }
+}
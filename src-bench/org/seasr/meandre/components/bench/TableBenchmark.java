@@ -0,0 +1,134 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.seasr.datatypes.datamining.table.Column;
+import org.seasr.datatypes.datamining.table.Column.SortMode;
+import org.seasr.datatypes.datamining.table.basic.DoubleColumn;
+import org.seasr.datatypes.datamining.table.basic.IntColumn;
+import org.seasr.datatypes.datamining.table.basic.MutableTableImpl;
+import org.seasr.datatypes.datamining.table.basic.StringColumn;
+import org.seasr.datatypes.datamining.table.sparse.primitivetypes.VIntIntHashMap;
+import org.seasr.datatypes.datamining.table.util.TableUtilities;
+
+/**
+ * Benchmarks the table columns, table sorting and the sparse table maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TableBenchmark {
+
+    /** The number of rows in the dataset */
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private static final int[] SORT_COLUMNS = { 0, 2, 1 };
+
+    private double[] _doubles;
+    private Double[] _boxedDoubles;
+    private MutableTableImpl _table;
+    private VIntIntHashMap _map;
+
+
+    @Setup
+    public void setUp() throws Exception {
+        _doubles = BenchData.doubles(size);
+        _boxedDoubles = new Double[size];
+        for (int i = 0; i < size; i++)
+            _boxedDoubles[i] = _doubles[i];
+
+        // few distinct values in the first column, so that the other sort columns are used
+        _table = new MutableTableImpl(new Column[] {
+                new IntColumn(BenchData.ints(size, 100)),
+                new DoubleColumn(_doubles.clone()),
+                new StringColumn(BenchData.tokens(size))
+        });
+
+        int[] values = BenchData.ints(size, size);
+        _map = new VIntIntHashMap(size);
+        for (int i = 0; i < size; i++)
+            _map.put(i, values[i]);
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public DoubleColumn doubleColumnAddRow() {
+        DoubleColumn column = new DoubleColumn();
+        for (int i = 0; i < size; i++)
+            column.addRow(_boxedDoubles[i]);
+
+        return column;
+    }
+
+    @Benchmark
+    public DoubleColumn doubleColumnSort() {
+        DoubleColumn column = new DoubleColumn(_doubles.clone());
+        column.sort(SortMode.ASCENDING);
+
+        return column;
+    }
+
+    @Benchmark
+    public int[] multiSortIndex() {
+        return TableUtilities.multiSortIndex(_table, SORT_COLUMNS);
+    }
+
+    @Benchmark
+    public VIntIntHashMap intIntMapSortedOrder() {
+        return _map.getSortedOrder();
+    }
+}
@@ -0,0 +1,199 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.bench;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.datatypes.core.Names;
+import org.seasr.meandre.components.analytics.text.statistics.TokenCounter;
+import org.seasr.meandre.components.tools.text.normalize.porter.Stem;
+import org.seasr.meandre.components.transform.text.TextCleaner;
+import org.seasr.meandre.components.transform.text.TextReplacement;
+import org.seasr.meandre.components.transform.text.TokenToNGrams;
+import org.seasr.meandre.support.components.transform.text.LevenshteinDistance;
+
+/**
+ * Benchmarks the text processing components (run through a {@link ComponentDriver})
+ * and the Levenshtein distance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextBenchmark {
+
+    /** The number of tokens (or words of text) in the dataset */
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private String[] _tokens;
+    private Strings _tokensData;
+    private Strings _text;
+    private Strings _replacementMap;
+
+    private ComponentDriver _tokenCounter;
+    private ComponentDriver _tokenToNGrams;
+    private ComponentDriver _stem;
+    private ComponentDriver _textReplacement;
+    private ComponentDriver _textCleaner;
+
+
+    @Setup
+    public void setUp() throws Exception {
+        _tokens = BenchData.tokens(size);
+        _tokensData = BasicDataTypesTools.stringToStrings(_tokens);
+        _text = BasicDataTypesTools.stringToStrings(BenchData.text(size));
+        _replacementMap = BasicDataTypesTools.stringToStrings(replacementMap(BenchData.corpus(), 50));
+
+        _tokenCounter = new ComponentDriver(new TokenCounter(), null);
+        _tokenCounter.initialize();
+
+        Map<String, String> nGramProperties = new HashMap<String, String>();
+        nGramProperties.put(Names.PROP_ARITY, "3");
+        _tokenToNGrams = new ComponentDriver(new TokenToNGrams(), nGramProperties);
+        _tokenToNGrams.initialize();
+
+        _stem = new ComponentDriver(new Stem(), null);
+        _stem.initialize();
+
+        _textReplacement = new ComponentDriver(new TextReplacement(), null);
+        _textReplacement.initialize();
+
+        Map<String, String> cleanerProperties = new HashMap<String, String>();
+        cleanerProperties.put(Names.PROP_FIND, "[^\\p{L}\\s]+");
+        cleanerProperties.put(Names.PROP_REPLACE, "");
+        cleanerProperties.put(Names.PROP_FIND_2, "\\s+");
+        cleanerProperties.put(Names.PROP_REPLACE_2, " ");
+        _textCleaner = new ComponentDriver(new TextCleaner(), cleanerProperties);
+        _textCleaner.initialize();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        _tokenCounter.dispose();
+        _tokenToNGrams.dispose();
+        _stem.dispose();
+        _textReplacement.dispose();
+        _textCleaner.dispose();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public Object tokenCounter() throws Exception {
+        return _tokenCounter.execute(Names.PORT_TOKENS, _tokensData).get(Names.PORT_TOKEN_COUNTS);
+    }
+
+    @Benchmark
+    public Object tokenToNGrams() throws Exception {
+        return _tokenToNGrams.execute(Names.PORT_TOKENS, _tokensData).get(Names.PORT_TOKENS);
+    }
+
+    @Benchmark
+    public Object stem() throws Exception {
+        return _stem.execute(Names.PORT_OBJECT, _tokensData).get(Names.PORT_TOKENS);
+    }
+
+    @Benchmark
+    public Object textReplacement() throws Exception {
+        Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(Names.PORT_TEXT, _text);
+        inputs.put("mapData", _replacementMap);
+
+        return _textReplacement.execute(inputs).get(Names.PORT_TEXT);
+    }
+
+    @Benchmark
+    public Object textCleaner() throws Exception {
+        return _textCleaner.execute(Names.PORT_TEXT, _text).get(Names.PORT_TEXT);
+    }
+
+    @Benchmark
+    public int levenshteinDistance() {
+        int distance = 0;
+        for (int i = 1; i < size; i++)
+            distance += LevenshteinDistance.computeLevenshteinDistance(_tokens[i - 1], _tokens[i]);
+
+        return distance;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a TextReplacement configuration that replaces pairs of corpus words
+     * (ex: "w1 = {w2, w3};")
+     *
+     * @param corpus The corpus words
+     * @param entries The number of entries
+     * @return The configuration
+     */
+    private static String replacementMap(String[] corpus, int entries) {
+        Set<String> words = new LinkedHashSet<String>();
+        for (String word : corpus)
+            if (word.length() > 3 && words.size() < entries * 3)
+                words.add(word.toLowerCase());
+
+        String[] w = words.toArray(new String[words.size()]);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 2 < w.length; i += 3)
+            sb.append(String.format("%s = {%s, %s};", w[i], w[i + 1], w[i + 2]));
+
+        return sb.toString();
+    }
+}
@@ -10195,6 +10195,1203 @@ public final class BasicDataTypes {
     }
   }
   
+  public static final class PackedIntegersMap extends
+      com.google.protobuf.GeneratedMessage.ExtendableMessage<
+        PackedIntegersMap> {
+    // Use PackedIntegersMap.newBuilder() to construct.
+    private PackedIntegersMap() {}
+    
+    private static final PackedIntegersMap defaultInstance = new PackedIntegersMap();
+    public static PackedIntegersMap getDefaultInstance() {
+      return defaultInstance;
+    }
+    
+    public PackedIntegersMap getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+    
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.seasr.datatypes.core.BasicDataTypes.internal_static_PackedIntegersMap_descriptor;
+    }
+    
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.seasr.datatypes.core.BasicDataTypes.internal_static_PackedIntegersMap_fieldAccessorTable;
+    }
+    
+    // repeated string key = 1;
+    public static final int KEY_FIELD_NUMBER = 1;
+    private java.util.List<java.lang.String> key_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.String> getKeyList() {
+      return key_;
+    }
+    public int getKeyCount() { return key_.size(); }
+    public java.lang.String getKey(int index) {
+      return key_.get(index);
+    }
+    
+    // repeated int32 count = 2 [packed = true];
+    public static final int COUNT_FIELD_NUMBER = 2;
+    private java.util.List<java.lang.Integer> count_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.Integer> getCountList() {
+      return count_;
+    }
+    public int getCountCount() { return count_.size(); }
+    public int getCount(int index) {
+      return count_.get(index);
+    }
+    private int countMemoizedSerializedSize = -1;
+    
+    public final boolean isInitialized() {
+      if (!extensionsAreInitialized()) return false;
+      return true;
+    }
+    
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      com.google.protobuf.GeneratedMessage.ExtendableMessage
+        .ExtensionWriter extensionWriter = newExtensionWriter();
+      for (java.lang.String element : getKeyList()) {
+        output.writeString(1, element);
+      }
+      if (getCountList().size() > 0) {
+        output.writeRawVarint32(18);
+        output.writeRawVarint32(countMemoizedSerializedSize);
+      }
+      for (int element : getCountList()) {
+        output.writeInt32NoTag(element);
+      }
+      extensionWriter.writeUntil(536870912, output);
+      getUnknownFields().writeTo(output);
+    }
+    
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+    
+      size = 0;
+      {
+        int dataSize = 0;
+        for (java.lang.String element : getKeyList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeStringSizeNoTag(element);
+        }
+        size += dataSize;
+        size += 1 * getKeyList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int element : getCountList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(element);
+        }
+        size += dataSize;
+        if (!getCountList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        countMemoizedSerializedSize = dataSize;
+      }
+      size += extensionsSerializedSize();
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+    
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeDelimitedFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeDelimitedFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+    
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.ExtendableBuilder<
+          org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap, Builder> {
+      private org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap result;
+      
+      // Construct using org.seasr.datatypes.BasicDataTypes.PackedIntegersMap.newBuilder()
+      private Builder() {}
+      
+      private static Builder create() {
+        Builder builder = new Builder();
+        builder.result = new org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap();
+        return builder;
+      }
+      
+      protected org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap internalGetResult() {
+        return result;
+      }
+      
+      public Builder clear() {
+        if (result == null) {
+          throw new IllegalStateException(
+            "Cannot call clear() after build().");
+        }
+        result = new org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap();
+        return this;
+      }
+      
+      public Builder clone() {
+        return create().mergeFrom(result);
+      }
+      
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.getDescriptor();
+      }
+      
+      public org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap getDefaultInstanceForType() {
+        return org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.getDefaultInstance();
+      }
+      
+      public boolean isInitialized() {
+        return result.isInitialized();
+      }
+      public org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap build() {
+        if (result != null && !isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return buildPartial();
+      }
+      
+      private org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap buildParsed()
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        if (!isInitialized()) {
+          throw newUninitializedMessageException(
+            result).asInvalidProtocolBufferException();
+        }
+        return buildPartial();
+      }
+      
+      public org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap buildPartial() {
+        if (result == null) {
+          throw new IllegalStateException(
+            "build() has already been called on this Builder.");
+        }
+        if (result.key_ != java.util.Collections.EMPTY_LIST) {
+          result.key_ =
+            java.util.Collections.unmodifiableList(result.key_);
+        }
+        if (result.count_ != java.util.Collections.EMPTY_LIST) {
+          result.count_ =
+            java.util.Collections.unmodifiableList(result.count_);
+        }
+        org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap returnMe = result;
+        result = null;
+        return returnMe;
+      }
+      
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap) {
+          return mergeFrom((org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+      
+      public Builder mergeFrom(org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap other) {
+        if (other == org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.getDefaultInstance()) return this;
+        if (!other.key_.isEmpty()) {
+          if (result.key_.isEmpty()) {
+            result.key_ = new java.util.ArrayList<java.lang.String>();
+          }
+          result.key_.addAll(other.key_);
+        }
+        if (!other.count_.isEmpty()) {
+          if (result.count_.isEmpty()) {
+            result.count_ = new java.util.ArrayList<java.lang.Integer>();
+          }
+          result.count_.addAll(other.count_);
+        }
+        this.mergeExtensionFields(other);
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+      
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder(
+            this.getUnknownFields());
+        while (true) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              this.setUnknownFields(unknownFields.build());
+              return this;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                this.setUnknownFields(unknownFields.build());
+                return this;
+              }
+              break;
+            }
+            case 10: {
+              addKey(input.readString());
+              break;
+            }
+            case 16: {
+              addCount(input.readInt32());
+              break;
+            }
+            case 18: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              while (input.getBytesUntilLimit() > 0) {
+                addCount(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+          }
+        }
+      }
+      
+      
+      // repeated string key = 1;
+      public java.util.List<java.lang.String> getKeyList() {
+        return java.util.Collections.unmodifiableList(result.key_);
+      }
+      public int getKeyCount() {
+        return result.getKeyCount();
+      }
+      public java.lang.String getKey(int index) {
+        return result.getKey(index);
+      }
+      public Builder setKey(int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  result.key_.set(index, value);
+        return this;
+      }
+      public Builder addKey(java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  if (result.key_.isEmpty()) {
+          result.key_ = new java.util.ArrayList<java.lang.String>();
+        }
+        result.key_.add(value);
+        return this;
+      }
+      public Builder addAllKey(
+          java.lang.Iterable<? extends java.lang.String> values) {
+        if (result.key_.isEmpty()) {
+          result.key_ = new java.util.ArrayList<java.lang.String>();
+        }
+        super.addAll(values, result.key_);
+        return this;
+      }
+      public Builder clearKey() {
+        result.key_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // repeated int32 count = 2 [packed = true];
+      public java.util.List<java.lang.Integer> getCountList() {
+        return java.util.Collections.unmodifiableList(result.count_);
+      }
+      public int getCountCount() {
+        return result.getCountCount();
+      }
+      public int getCount(int index) {
+        return result.getCount(index);
+      }
+      public Builder setCount(int index, int value) {
+        result.count_.set(index, value);
+        return this;
+      }
+      public Builder addCount(int value) {
+        if (result.count_.isEmpty()) {
+          result.count_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        result.count_.add(value);
+        return this;
+      }
+      public Builder addAllCount(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        if (result.count_.isEmpty()) {
+          result.count_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        super.addAll(values, result.count_);
+        return this;
+      }
+      public Builder clearCount() {
+        result.count_ = java.util.Collections.emptyList();
+        return this;
+      }
+    }
+    
+    static {
+      org.seasr.datatypes.core.BasicDataTypes.getDescriptor();
+    }
+    
+    static {
+      org.seasr.datatypes.core.BasicDataTypes.internalForceInit();
+    }
+  }
+  
+  public static final class TupleBatch extends
+      com.google.protobuf.GeneratedMessage.ExtendableMessage<
+        TupleBatch> {
+    // Use TupleBatch.newBuilder() to construct.
+    private TupleBatch() {}
+    
+    private static final TupleBatch defaultInstance = new TupleBatch();
+    public static TupleBatch getDefaultInstance() {
+      return defaultInstance;
+    }
+    
+    public TupleBatch getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+    
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.seasr.datatypes.core.BasicDataTypes.internal_static_TupleBatch_descriptor;
+    }
+    
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.seasr.datatypes.core.BasicDataTypes.internal_static_TupleBatch_fieldAccessorTable;
+    }
+    
+    // repeated string name = 1;
+    public static final int NAME_FIELD_NUMBER = 1;
+    private java.util.List<java.lang.String> name_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.String> getNameList() {
+      return name_;
+    }
+    public int getNameCount() { return name_.size(); }
+    public java.lang.String getName(int index) {
+      return name_.get(index);
+    }
+    
+    // repeated int32 type = 2 [packed = true];
+    public static final int TYPE_FIELD_NUMBER = 2;
+    private java.util.List<java.lang.Integer> type_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.Integer> getTypeList() {
+      return type_;
+    }
+    public int getTypeCount() { return type_.size(); }
+    public int getType(int index) {
+      return type_.get(index);
+    }
+    private int typeMemoizedSerializedSize = -1;
+    
+    // optional int32 rows = 3;
+    public static final int ROWS_FIELD_NUMBER = 3;
+    private boolean hasRows;
+    private int rows_ = 0;
+    public boolean hasRows() { return hasRows; }
+    public int getRows() { return rows_; }
+    
+    // repeated int64 long_value = 4 [packed = true];
+    public static final int LONG_VALUE_FIELD_NUMBER = 4;
+    private java.util.List<java.lang.Long> longValue_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.Long> getLongValueList() {
+      return longValue_;
+    }
+    public int getLongValueCount() { return longValue_.size(); }
+    public long getLongValue(int index) {
+      return longValue_.get(index);
+    }
+    private int longValueMemoizedSerializedSize = -1;
+    
+    // repeated double double_value = 5 [packed = true];
+    public static final int DOUBLE_VALUE_FIELD_NUMBER = 5;
+    private java.util.List<java.lang.Double> doubleValue_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.Double> getDoubleValueList() {
+      return doubleValue_;
+    }
+    public int getDoubleValueCount() { return doubleValue_.size(); }
+    public double getDoubleValue(int index) {
+      return doubleValue_.get(index);
+    }
+    private int doubleValueMemoizedSerializedSize = -1;
+    
+    // repeated int32 string_code = 6 [packed = true];
+    public static final int STRING_CODE_FIELD_NUMBER = 6;
+    private java.util.List<java.lang.Integer> stringCode_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.Integer> getStringCodeList() {
+      return stringCode_;
+    }
+    public int getStringCodeCount() { return stringCode_.size(); }
+    public int getStringCode(int index) {
+      return stringCode_.get(index);
+    }
+    private int stringCodeMemoizedSerializedSize = -1;
+    
+    // repeated string dictionary = 7;
+    public static final int DICTIONARY_FIELD_NUMBER = 7;
+    private java.util.List<java.lang.String> dictionary_ =
+      java.util.Collections.emptyList();
+    public java.util.List<java.lang.String> getDictionaryList() {
+      return dictionary_;
+    }
+    public int getDictionaryCount() { return dictionary_.size(); }
+    public java.lang.String getDictionary(int index) {
+      return dictionary_.get(index);
+    }
+    
+    public final boolean isInitialized() {
+      if (!extensionsAreInitialized()) return false;
+      return true;
+    }
+    
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      com.google.protobuf.GeneratedMessage.ExtendableMessage
+        .ExtensionWriter extensionWriter = newExtensionWriter();
+      for (java.lang.String element : getNameList()) {
+        output.writeString(1, element);
+      }
+      if (getTypeList().size() > 0) {
+        output.writeRawVarint32(18);
+        output.writeRawVarint32(typeMemoizedSerializedSize);
+      }
+      for (int element : getTypeList()) {
+        output.writeInt32NoTag(element);
+      }
+      if (hasRows()) {
+        output.writeInt32(3, getRows());
+      }
+      if (getLongValueList().size() > 0) {
+        output.writeRawVarint32(34);
+        output.writeRawVarint32(longValueMemoizedSerializedSize);
+      }
+      for (long element : getLongValueList()) {
+        output.writeInt64NoTag(element);
+      }
+      if (getDoubleValueList().size() > 0) {
+        output.writeRawVarint32(42);
+        output.writeRawVarint32(doubleValueMemoizedSerializedSize);
+      }
+      for (double element : getDoubleValueList()) {
+        output.writeDoubleNoTag(element);
+      }
+      if (getStringCodeList().size() > 0) {
+        output.writeRawVarint32(50);
+        output.writeRawVarint32(stringCodeMemoizedSerializedSize);
+      }
+      for (int element : getStringCodeList()) {
+        output.writeInt32NoTag(element);
+      }
+      for (java.lang.String element : getDictionaryList()) {
+        output.writeString(7, element);
+      }
+      extensionWriter.writeUntil(536870912, output);
+      getUnknownFields().writeTo(output);
+    }
+    
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+    
+      size = 0;
+      {
+        int dataSize = 0;
+        for (java.lang.String element : getNameList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeStringSizeNoTag(element);
+        }
+        size += dataSize;
+        size += 1 * getNameList().size();
+      }
+      {
+        int dataSize = 0;
+        for (int element : getTypeList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(element);
+        }
+        size += dataSize;
+        if (!getTypeList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        typeMemoizedSerializedSize = dataSize;
+      }
+      if (hasRows()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, getRows());
+      }
+      {
+        int dataSize = 0;
+        for (long element : getLongValueList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt64SizeNoTag(element);
+        }
+        size += dataSize;
+        if (!getLongValueList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        longValueMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        dataSize = 8 * getDoubleValueList().size();
+        size += dataSize;
+        if (!getDoubleValueList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        doubleValueMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int element : getStringCodeList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(element);
+        }
+        size += dataSize;
+        if (!getStringCodeList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        stringCodeMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (java.lang.String element : getDictionaryList()) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeStringSizeNoTag(element);
+        }
+        size += dataSize;
+        size += 1 * getDictionaryList().size();
+      }
+      size += extensionsSerializedSize();
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+    
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return newBuilder().mergeFrom(data, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeDelimitedFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeDelimitedFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input).buildParsed();
+    }
+    public static org.seasr.datatypes.core.BasicDataTypes.TupleBatch parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return newBuilder().mergeFrom(input, extensionRegistry)
+               .buildParsed();
+    }
+    
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.seasr.datatypes.core.BasicDataTypes.TupleBatch prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+    
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.ExtendableBuilder<
+          org.seasr.datatypes.core.BasicDataTypes.TupleBatch, Builder> {
+      private org.seasr.datatypes.core.BasicDataTypes.TupleBatch result;
+      
+      // Construct using org.seasr.datatypes.BasicDataTypes.TupleBatch.newBuilder()
+      private Builder() {}
+      
+      private static Builder create() {
+        Builder builder = new Builder();
+        builder.result = new org.seasr.datatypes.core.BasicDataTypes.TupleBatch();
+        return builder;
+      }
+      
+      protected org.seasr.datatypes.core.BasicDataTypes.TupleBatch internalGetResult() {
+        return result;
+      }
+      
+      public Builder clear() {
+        if (result == null) {
+          throw new IllegalStateException(
+            "Cannot call clear() after build().");
+        }
+        result = new org.seasr.datatypes.core.BasicDataTypes.TupleBatch();
+        return this;
+      }
+      
+      public Builder clone() {
+        return create().mergeFrom(result);
+      }
+      
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.seasr.datatypes.core.BasicDataTypes.TupleBatch.getDescriptor();
+      }
+      
+      public org.seasr.datatypes.core.BasicDataTypes.TupleBatch getDefaultInstanceForType() {
+        return org.seasr.datatypes.core.BasicDataTypes.TupleBatch.getDefaultInstance();
+      }
+      
+      public boolean isInitialized() {
+        return result.isInitialized();
+      }
+      public org.seasr.datatypes.core.BasicDataTypes.TupleBatch build() {
+        if (result != null && !isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return buildPartial();
+      }
+      
+      private org.seasr.datatypes.core.BasicDataTypes.TupleBatch buildParsed()
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        if (!isInitialized()) {
+          throw newUninitializedMessageException(
+            result).asInvalidProtocolBufferException();
+        }
+        return buildPartial();
+      }
+      
+      public org.seasr.datatypes.core.BasicDataTypes.TupleBatch buildPartial() {
+        if (result == null) {
+          throw new IllegalStateException(
+            "build() has already been called on this Builder.");
+        }
+        if (result.name_ != java.util.Collections.EMPTY_LIST) {
+          result.name_ =
+            java.util.Collections.unmodifiableList(result.name_);
+        }
+        if (result.type_ != java.util.Collections.EMPTY_LIST) {
+          result.type_ =
+            java.util.Collections.unmodifiableList(result.type_);
+        }
+        if (result.longValue_ != java.util.Collections.EMPTY_LIST) {
+          result.longValue_ =
+            java.util.Collections.unmodifiableList(result.longValue_);
+        }
+        if (result.doubleValue_ != java.util.Collections.EMPTY_LIST) {
+          result.doubleValue_ =
+            java.util.Collections.unmodifiableList(result.doubleValue_);
+        }
+        if (result.stringCode_ != java.util.Collections.EMPTY_LIST) {
+          result.stringCode_ =
+            java.util.Collections.unmodifiableList(result.stringCode_);
+        }
+        if (result.dictionary_ != java.util.Collections.EMPTY_LIST) {
+          result.dictionary_ =
+            java.util.Collections.unmodifiableList(result.dictionary_);
+        }
+        org.seasr.datatypes.core.BasicDataTypes.TupleBatch returnMe = result;
+        result = null;
+        return returnMe;
+      }
+      
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.seasr.datatypes.core.BasicDataTypes.TupleBatch) {
+          return mergeFrom((org.seasr.datatypes.core.BasicDataTypes.TupleBatch)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+      
+      public Builder mergeFrom(org.seasr.datatypes.core.BasicDataTypes.TupleBatch other) {
+        if (other == org.seasr.datatypes.core.BasicDataTypes.TupleBatch.getDefaultInstance()) return this;
+        if (!other.name_.isEmpty()) {
+          if (result.name_.isEmpty()) {
+            result.name_ = new java.util.ArrayList<java.lang.String>();
+          }
+          result.name_.addAll(other.name_);
+        }
+        if (!other.type_.isEmpty()) {
+          if (result.type_.isEmpty()) {
+            result.type_ = new java.util.ArrayList<java.lang.Integer>();
+          }
+          result.type_.addAll(other.type_);
+        }
+        if (other.hasRows()) {
+          setRows(other.getRows());
+        }
+        if (!other.longValue_.isEmpty()) {
+          if (result.longValue_.isEmpty()) {
+            result.longValue_ = new java.util.ArrayList<java.lang.Long>();
+          }
+          result.longValue_.addAll(other.longValue_);
+        }
+        if (!other.doubleValue_.isEmpty()) {
+          if (result.doubleValue_.isEmpty()) {
+            result.doubleValue_ = new java.util.ArrayList<java.lang.Double>();
+          }
+          result.doubleValue_.addAll(other.doubleValue_);
+        }
+        if (!other.stringCode_.isEmpty()) {
+          if (result.stringCode_.isEmpty()) {
+            result.stringCode_ = new java.util.ArrayList<java.lang.Integer>();
+          }
+          result.stringCode_.addAll(other.stringCode_);
+        }
+        if (!other.dictionary_.isEmpty()) {
+          if (result.dictionary_.isEmpty()) {
+            result.dictionary_ = new java.util.ArrayList<java.lang.String>();
+          }
+          result.dictionary_.addAll(other.dictionary_);
+        }
+        this.mergeExtensionFields(other);
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+      
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder(
+            this.getUnknownFields());
+        while (true) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              this.setUnknownFields(unknownFields.build());
+              return this;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                this.setUnknownFields(unknownFields.build());
+                return this;
+              }
+              break;
+            }
+            case 10: {
+              addName(input.readString());
+              break;
+            }
+            case 16: {
+              addType(input.readInt32());
+              break;
+            }
+            case 18: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              while (input.getBytesUntilLimit() > 0) {
+                addType(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 24: {
+              setRows(input.readInt32());
+              break;
+            }
+            case 32: {
+              addLongValue(input.readInt64());
+              break;
+            }
+            case 34: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              while (input.getBytesUntilLimit() > 0) {
+                addLongValue(input.readInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 41: {
+              addDoubleValue(input.readDouble());
+              break;
+            }
+            case 42: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              while (input.getBytesUntilLimit() > 0) {
+                addDoubleValue(input.readDouble());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 48: {
+              addStringCode(input.readInt32());
+              break;
+            }
+            case 50: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              while (input.getBytesUntilLimit() > 0) {
+                addStringCode(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 58: {
+              addDictionary(input.readString());
+              break;
+            }
+          }
+        }
+      }
+      
+      
+      // repeated string name = 1;
+      public java.util.List<java.lang.String> getNameList() {
+        return java.util.Collections.unmodifiableList(result.name_);
+      }
+      public int getNameCount() {
+        return result.getNameCount();
+      }
+      public java.lang.String getName(int index) {
+        return result.getName(index);
+      }
+      public Builder setName(int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  result.name_.set(index, value);
+        return this;
+      }
+      public Builder addName(java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  if (result.name_.isEmpty()) {
+          result.name_ = new java.util.ArrayList<java.lang.String>();
+        }
+        result.name_.add(value);
+        return this;
+      }
+      public Builder addAllName(
+          java.lang.Iterable<? extends java.lang.String> values) {
+        if (result.name_.isEmpty()) {
+          result.name_ = new java.util.ArrayList<java.lang.String>();
+        }
+        super.addAll(values, result.name_);
+        return this;
+      }
+      public Builder clearName() {
+        result.name_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // repeated int32 type = 2 [packed = true];
+      public java.util.List<java.lang.Integer> getTypeList() {
+        return java.util.Collections.unmodifiableList(result.type_);
+      }
+      public int getTypeCount() {
+        return result.getTypeCount();
+      }
+      public int getType(int index) {
+        return result.getType(index);
+      }
+      public Builder setType(int index, int value) {
+        result.type_.set(index, value);
+        return this;
+      }
+      public Builder addType(int value) {
+        if (result.type_.isEmpty()) {
+          result.type_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        result.type_.add(value);
+        return this;
+      }
+      public Builder addAllType(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        if (result.type_.isEmpty()) {
+          result.type_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        super.addAll(values, result.type_);
+        return this;
+      }
+      public Builder clearType() {
+        result.type_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // optional int32 rows = 3;
+      public boolean hasRows() {
+        return result.hasRows();
+      }
+      public int getRows() {
+        return result.getRows();
+      }
+      public Builder setRows(int value) {
+        result.hasRows = true;
+        result.rows_ = value;
+        return this;
+      }
+      public Builder clearRows() {
+        result.hasRows = false;
+        result.rows_ = 0;
+        return this;
+      }
+      
+      // repeated int64 long_value = 4 [packed = true];
+      public java.util.List<java.lang.Long> getLongValueList() {
+        return java.util.Collections.unmodifiableList(result.longValue_);
+      }
+      public int getLongValueCount() {
+        return result.getLongValueCount();
+      }
+      public long getLongValue(int index) {
+        return result.getLongValue(index);
+      }
+      public Builder setLongValue(int index, long value) {
+        result.longValue_.set(index, value);
+        return this;
+      }
+      public Builder addLongValue(long value) {
+        if (result.longValue_.isEmpty()) {
+          result.longValue_ = new java.util.ArrayList<java.lang.Long>();
+        }
+        result.longValue_.add(value);
+        return this;
+      }
+      public Builder addAllLongValue(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        if (result.longValue_.isEmpty()) {
+          result.longValue_ = new java.util.ArrayList<java.lang.Long>();
+        }
+        super.addAll(values, result.longValue_);
+        return this;
+      }
+      public Builder clearLongValue() {
+        result.longValue_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // repeated double double_value = 5 [packed = true];
+      public java.util.List<java.lang.Double> getDoubleValueList() {
+        return java.util.Collections.unmodifiableList(result.doubleValue_);
+      }
+      public int getDoubleValueCount() {
+        return result.getDoubleValueCount();
+      }
+      public double getDoubleValue(int index) {
+        return result.getDoubleValue(index);
+      }
+      public Builder setDoubleValue(int index, double value) {
+        result.doubleValue_.set(index, value);
+        return this;
+      }
+      public Builder addDoubleValue(double value) {
+        if (result.doubleValue_.isEmpty()) {
+          result.doubleValue_ = new java.util.ArrayList<java.lang.Double>();
+        }
+        result.doubleValue_.add(value);
+        return this;
+      }
+      public Builder addAllDoubleValue(
+          java.lang.Iterable<? extends java.lang.Double> values) {
+        if (result.doubleValue_.isEmpty()) {
+          result.doubleValue_ = new java.util.ArrayList<java.lang.Double>();
+        }
+        super.addAll(values, result.doubleValue_);
+        return this;
+      }
+      public Builder clearDoubleValue() {
+        result.doubleValue_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // repeated int32 string_code = 6 [packed = true];
+      public java.util.List<java.lang.Integer> getStringCodeList() {
+        return java.util.Collections.unmodifiableList(result.stringCode_);
+      }
+      public int getStringCodeCount() {
+        return result.getStringCodeCount();
+      }
+      public int getStringCode(int index) {
+        return result.getStringCode(index);
+      }
+      public Builder setStringCode(int index, int value) {
+        result.stringCode_.set(index, value);
+        return this;
+      }
+      public Builder addStringCode(int value) {
+        if (result.stringCode_.isEmpty()) {
+          result.stringCode_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        result.stringCode_.add(value);
+        return this;
+      }
+      public Builder addAllStringCode(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        if (result.stringCode_.isEmpty()) {
+          result.stringCode_ = new java.util.ArrayList<java.lang.Integer>();
+        }
+        super.addAll(values, result.stringCode_);
+        return this;
+      }
+      public Builder clearStringCode() {
+        result.stringCode_ = java.util.Collections.emptyList();
+        return this;
+      }
+      
+      // repeated string dictionary = 7;
+      public java.util.List<java.lang.String> getDictionaryList() {
+        return java.util.Collections.unmodifiableList(result.dictionary_);
+      }
+      public int getDictionaryCount() {
+        return result.getDictionaryCount();
+      }
+      public java.lang.String getDictionary(int index) {
+        return result.getDictionary(index);
+      }
+      public Builder setDictionary(int index, java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  result.dictionary_.set(index, value);
+        return this;
+      }
+      public Builder addDictionary(java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  if (result.dictionary_.isEmpty()) {
+          result.dictionary_ = new java.util.ArrayList<java.lang.String>();
+        }
+        result.dictionary_.add(value);
+        return this;
+      }
+      public Builder addAllDictionary(
+          java.lang.Iterable<? extends java.lang.String> values) {
+        if (result.dictionary_.isEmpty()) {
+          result.dictionary_ = new java.util.ArrayList<java.lang.String>();
+        }
+        super.addAll(values, result.dictionary_);
+        return this;
+      }
+      public Builder clearDictionary() {
+        result.dictionary_ = java.util.Collections.emptyList();
+        return this;
+      }
+    }
+    
+    static {
+      org.seasr.datatypes.core.BasicDataTypes.getDescriptor();
+    }
+    
+    static {
+      org.seasr.datatypes.core.BasicDataTypes.internalForceInit();
+    }
+  }
+  
   private static com.google.protobuf.Descriptors.Descriptor
     internal_static_Bytes_descriptor;
   private static
@@ -10346,6 +11543,17 @@ public final class BasicDataTypes {
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_DenseStringsDataFrame_LabeledStrings_fieldAccessorTable;
   
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_PackedIntegersMap_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_PackedIntegersMap_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_TupleBatch_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_TupleBatch_fieldAccessorTable;
+  
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
     return descriptor;
@@ -10397,8 +11605,14 @@ public final class BasicDataTypes {
       "\200\002\"\220\001\n\025DenseStringsDataFrame\0225\n\006column\030\001" +
       " \003(\0132%.DenseStringsDataFrame.LabeledStri" +
       "ngs\0326\n\016LabeledStrings\022\014\n\004name\030\001 \001(\t\022\026\n\004d" +
-      "ata\030\002 \001(\0132\010.Strings*\010\010\010\020\200\200\200\200\002B\'\n\023org.sea" +
-      "sr.datatypesB\016BasicDataTypesH\001"
+      "ata\030\002 \001(\0132\010.Strings*\010\010\010\020\200\200\200\200\002\"=\n\021PackedI" +
+      "ntegersMap\022\013\n\003key\030\001 \003(\t\022\021\n\005count\030\002 \003(\005B\002" +
+      "\020\001*\010\010\010\020\200\200\200\200\002\"\243\001\n\nTupleBatch\022\014\n\004name\030\001 \003(" +
+      "\t\022\020\n\004type\030\002 \003(\005B\002\020\001\022\014\n\004rows\030\003 \001(\005\022\026\n\nlon" +
+      "g_value\030\004 \003(\003B\002\020\001\022\030\n\014double_value\030\005 \003(\001B" +
+      "\002\020\001\022\027\n\013string_code\030\006 \003(\005B\002\020\001\022\022\n\ndictiona" +
+      "ry\030\007 \003(\t*\010\010\010\020\200\200\200\200\002B\'\n\023org.seasr.datatype",
+      "sB\016BasicDataTypesH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -10645,6 +11859,22 @@ public final class BasicDataTypes {
               new java.lang.String[] { "Name", "Data", },
               org.seasr.datatypes.core.BasicDataTypes.DenseStringsDataFrame.LabeledStrings.class,
               org.seasr.datatypes.core.BasicDataTypes.DenseStringsDataFrame.LabeledStrings.Builder.class);
+          internal_static_PackedIntegersMap_descriptor =
+            getDescriptor().getMessageTypes().get(24);
+          internal_static_PackedIntegersMap_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_PackedIntegersMap_descriptor,
+              new java.lang.String[] { "Key", "Count", },
+              org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.class,
+              org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.Builder.class);
+          internal_static_TupleBatch_descriptor =
+            getDescriptor().getMessageTypes().get(25);
+          internal_static_TupleBatch_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_TupleBatch_descriptor,
+              new java.lang.String[] { "Name", "Type", "Rows", "LongValue", "DoubleValue", "StringCode", "Dictionary", },
+              org.seasr.datatypes.core.BasicDataTypes.TupleBatch.class,
+              org.seasr.datatypes.core.BasicDataTypes.TupleBatch.Builder.class);
           return null;
         }
       };
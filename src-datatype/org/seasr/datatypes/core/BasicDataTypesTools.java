@@ -59,6 +59,7 @@ import org.seasr.datatypes.core.BasicDataTypes.FloatsMap;
 import org.seasr.datatypes.core.BasicDataTypes.Integers;
 import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
 import org.seasr.datatypes.core.BasicDataTypes.LongsMap;
+import org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
 import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
@@ -77,7 +78,7 @@ import com.google.protobuf.ByteString;
  */
 public abstract class BasicDataTypesTools {
 
-    enum NumberTypes {INTEGER, LONG, FLOAT, DOUBLE};
+    enum NumberTypes {INTEGER, PACKED_INTEGER, LONG, FLOAT, DOUBLE};
 
     /**
      * Creates a Integers object out of a regular Integer.
@@ -285,6 +286,170 @@ public abstract class BasicDataTypesTools {
         return map;
     }
 
+    /**
+     * Creates an empty packed integer map.
+     *
+     * @return The empty packed integer map created
+     */
+    public static PackedIntegersMap buildEmptyPackedIntegersMap () {
+        org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.Builder res = BasicDataTypes.PackedIntegersMap.newBuilder();
+        return res.build();
+    }
+
+    /**
+     * Builds the packed integer map and sorts it if needed.
+     *
+     * @param htCounts The token counts
+     * @param bOrdered Should the counts be ordered?
+     * @return The PackedIntegersMap
+     */
+    public static PackedIntegersMap mapToPackedIntegerMap(Map<String, Integer> htCounts, boolean bOrdered) {
+        String[] keys = new String[htCounts.size()];
+        int[] counts = new int[keys.length];
+
+        int i = 0;
+        for (Entry<String, Integer> entry : htCounts.entrySet()) {
+            keys[i] = entry.getKey();
+            counts[i++] = entry.getValue();
+        }
+
+        return arraysToPackedIntegerMap(keys, counts, bOrdered);
+    }
+
+    /**
+     * Builds the packed integer map out of parallel key and count arrays, and sorts it if needed.
+     *
+     * @param keys The tokens
+     * @param counts The token counts (counts[i] is the count for keys[i])
+     * @param bOrdered Should the counts be ordered?
+     * @return The PackedIntegersMap
+     */
+    public static PackedIntegersMap arraysToPackedIntegerMap(String[] keys, int[] counts, boolean bOrdered) {
+        org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.Builder res = BasicDataTypes.PackedIntegersMap.newBuilder();
+
+        if (bOrdered) {
+            for (int i : sortedCountOrder(counts)) {
+                res.addKey(keys[i]);
+                res.addCount(counts[i]);
+            }
+        } else
+            for (int i = 0; i < keys.length; i++) {
+                res.addKey(keys[i]);
+                res.addCount(counts[i]);
+            }
+
+        return res.build();
+    }
+
+    /**
+     * Builds the (nested) integer map out of parallel key and count arrays, and sorts it if needed.
+     *
+     * @param keys The tokens
+     * @param counts The token counts (counts[i] is the count for keys[i])
+     * @param bOrdered Should the counts be ordered?
+     * @return The IntegerMap
+     */
+    public static IntegersMap arraysToIntegerMap(String[] keys, int[] counts, boolean bOrdered) {
+        org.seasr.datatypes.core.BasicDataTypes.IntegersMap.Builder res = BasicDataTypes.IntegersMap.newBuilder();
+
+        if (bOrdered) {
+            for (int i : sortedCountOrder(counts)) {
+                res.addKey(keys[i]);
+                res.addValue(BasicDataTypes.Integers.newBuilder().addValue(counts[i]));
+            }
+        } else
+            for (int i = 0; i < keys.length; i++) {
+                res.addKey(keys[i]);
+                res.addValue(BasicDataTypes.Integers.newBuilder().addValue(counts[i]));
+            }
+
+        return res.build();
+    }
+
+    /**
+     * Computes the order in which the counts should be visited so that they appear from the highest
+     * to the lowest. Entries with equal counts keep their relative order.
+     *
+     * @param counts The counts
+     * @return The indices into the counts array, in decreasing order of count
+     */
+    public static int[] sortedCountOrder(int[] counts) {
+        int n = counts.length;
+
+        // Pack each (count, index) pair into a long so that a primitive sort does the work;
+        // the index is stored reversed so that ties come out in their original order
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++)
+            packed[i] = ((long) counts[i] << 32) | (n - 1 - i);
+
+        Arrays.sort(packed);
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = n - 1 - (int) packed[n - 1 - i];
+
+        return order;
+    }
+
+    /**
+     * Converts a protocol buffer packed string integer map to the equivalent (unordered) java map
+     *
+     * @param im The packed integer map to convert
+     * @return The converted map
+     */
+    public static Map<String,Integer> PackedIntegerMapToMap ( PackedIntegersMap im ) {
+        return PackedIntegerMapToMap(im, false);
+    }
+
+    /**
+     * Converts a protocol buffer packed string integer map to the equivalent java map.
+     * If an ordered map is desired (one that maintains the insertion order of the key-value pairs, set ordered=true)
+     *
+     * @param im The packed integer map to convert
+     * @param ordered True to return an ordered map (LinkedHashMap), false to return a regular map (HashMap)
+     * @return The converted map
+     */
+    public static Map<String, Integer> PackedIntegerMapToMap(PackedIntegersMap im, boolean ordered) {
+        Map<String,Integer> map = (ordered) ?
+                new LinkedHashMap<String, Integer>(im.getKeyCount()) :
+                new HashMap<String,Integer>(im.getKeyCount());
+
+        for ( int i=0,iMax=im.getKeyCount() ; i<iMax ; i++ )
+            map.put(im.getKey(i), im.getCount(i));
+
+        return map;
+    }
+
+    /**
+     * Converts a protocol buffer string integer map to the packed representation
+     *
+     * @param im The integer map to convert
+     * @return The packed integer map
+     */
+    public static PackedIntegersMap integerMapToPackedIntegerMap(IntegersMap im) {
+        org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap.Builder res = BasicDataTypes.PackedIntegersMap.newBuilder();
+        for ( int i=0,iMax=im.getValueCount() ; i<iMax ; i++ ) {
+            res.addKey(im.getKey(i));
+            res.addCount(im.getValue(i).getValue(0));
+        }
+        return res.build();
+    }
+
+    /**
+     * Converts a protocol buffer packed string integer map to the (nested) integer map representation
+     *
+     * @param im The packed integer map to convert
+     * @return The integer map
+     */
+    public static IntegersMap packedIntegerMapToIntegerMap(PackedIntegersMap im) {
+        org.seasr.datatypes.core.BasicDataTypes.IntegersMap.Builder res = BasicDataTypes.IntegersMap.newBuilder();
+        for ( int i=0,iMax=im.getKeyCount() ; i<iMax ; i++ ) {
+            res.addKey(im.getKey(i));
+            res.addValue(BasicDataTypes.Integers.newBuilder().addValue(im.getCount(i)));
+        }
+        return res.build();
+    }
+
     /**
      * Converts a protocol buffer string integer/long/float/double map to a java Number map
      *
@@ -299,6 +464,10 @@ public abstract class BasicDataTypesTools {
             type = NumberTypes.INTEGER;
             size = ((IntegersMap)im).getKeyCount();
         } else
+        if (im instanceof PackedIntegersMap) {
+            type = NumberTypes.PACKED_INTEGER;
+            size = ((PackedIntegersMap)im).getKeyCount();
+        } else
         if (im instanceof LongsMap) {
             type = NumberTypes.LONG;
             size = ((LongsMap)im).getKeyCount();
@@ -318,6 +487,7 @@ public abstract class BasicDataTypesTools {
         for ( int i=0,iMax=size ; i<iMax ; i++ )
             switch (type) {
             case INTEGER: ht.put (((IntegersMap)im).getKey(i), ((IntegersMap)im).getValue(i).getValue(0)); break;
+            case PACKED_INTEGER: ht.put (((PackedIntegersMap)im).getKey(i), ((PackedIntegersMap)im).getCount(i)); break;
             case LONG: ht.put (((LongsMap)im).getKey(i), ((LongsMap)im).getValue(i).getValue(0)); break;
             case FLOAT: ht.put (((FloatsMap)im).getKey(i), ((FloatsMap)im).getValue(i).getValue(0)); break;
             case DOUBLE: ht.put (((DoublesMap)im).getKey(i), ((DoublesMap)im).getValue(i).getValue(0)); break;
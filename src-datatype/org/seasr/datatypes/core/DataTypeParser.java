@@ -59,9 +59,13 @@ import org.seasr.datatypes.core.BasicDataTypes.FloatsMap;
 import org.seasr.datatypes.core.BasicDataTypes.Integers;
 import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
 import org.seasr.datatypes.core.BasicDataTypes.LongsMap;
+import org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
 import org.seasr.datatypes.core.exceptions.UnsupportedDataTypeException;
+import org.seasr.datatypes.core.views.StringsView;
+import org.seasr.datatypes.core.views.TokenCountView;
+import org.seasr.datatypes.core.views.TokenizedSentencesView;
 import org.seasr.meandre.support.generic.io.DOMUtils;
 import org.seasr.meandre.support.generic.io.ModelUtils;
 import org.seasr.meandre.support.generic.io.StreamUtils;
@@ -114,6 +118,40 @@ public abstract class DataTypeParser {
         return text;
     }
 
+    /**
+     * Attempts to wrap the given data in a read-only StringsView, without copying it
+     *
+     * @param data The data
+     * @return The StringsView
+     * @throws UnsupportedDataTypeException Thrown if the data is in an unsupported format
+     */
+    public static StringsView parseAsStringsView(Object data) throws UnsupportedDataTypeException {
+        StringsView view;
+
+        if (data == null)
+            view = null;
+
+        else
+
+        if (data instanceof StringsView)
+            view = (StringsView)data;
+
+        else
+
+        if (data instanceof Strings)
+            view = new StringsView((Strings)data);
+
+        else
+
+        if (data instanceof String[])
+            view = new StringsView((String[])data);
+
+        else
+            view = new StringsView(parseAsString(data));
+
+        return view;
+    }
+
     /**
      * Attempts to convert the given data to a Integer array
      *
@@ -231,7 +269,8 @@ public abstract class DataTypeParser {
 
         else
 
-        if (data instanceof IntegersMap || data instanceof LongsMap || data instanceof FloatsMap || data instanceof DoublesMap)
+        if (data instanceof IntegersMap || data instanceof PackedIntegersMap || data instanceof LongsMap ||
+                data instanceof FloatsMap || data instanceof DoublesMap)
             map = BasicDataTypesTools.NumberMapToMap(data);
 
         else
@@ -270,6 +309,11 @@ public abstract class DataTypeParser {
 
         else
 
+        if (data instanceof PackedIntegersMap)
+            map = BasicDataTypesTools.PackedIntegerMapToMap((PackedIntegersMap)data, ordered);
+
+        else
+
         if (data instanceof Map) {
             map = (Map<String, Integer>)data;
             if (!(map.values().iterator().next() instanceof Integer))
@@ -293,6 +337,74 @@ public abstract class DataTypeParser {
         return parseAsStringIntegerMap(data, false);
     }
 
+    /**
+     * Attempts to wrap the given data in a read-only TokenCountView, without copying it
+     *
+     * @param data The data
+     * @return The TokenCountView
+     * @throws UnsupportedDataTypeException Thrown if the data is in an unsupported format
+     */
+    public static TokenCountView parseAsTokenCountView(Object data) throws UnsupportedDataTypeException {
+        TokenCountView view;
+
+        if (data == null)
+            view = null;
+
+        else
+
+        if (data instanceof TokenCountView)
+            view = (TokenCountView)data;
+
+        else
+
+        if (data instanceof PackedIntegersMap)
+            view = new TokenCountView((PackedIntegersMap)data);
+
+        else
+
+        if (data instanceof IntegersMap)
+            view = new TokenCountView((IntegersMap)data);
+
+        else
+
+        if (data instanceof Map)
+            view = new TokenCountView(parseAsStringIntegerMap(data));
+
+        else
+            throw new UnsupportedDataTypeException(data.getClass().getName());
+
+        return view;
+    }
+
+    /**
+     * Attempts to wrap the given data in a read-only TokenizedSentencesView, without copying it
+     *
+     * @param data The data
+     * @return The TokenizedSentencesView
+     * @throws UnsupportedDataTypeException Thrown if the data is in an unsupported format
+     */
+    public static TokenizedSentencesView parseAsTokenizedSentencesView(Object data) throws UnsupportedDataTypeException {
+        TokenizedSentencesView view;
+
+        if (data == null)
+            view = null;
+
+        else
+
+        if (data instanceof TokenizedSentencesView)
+            view = (TokenizedSentencesView)data;
+
+        else
+
+        if (data instanceof StringsMap)
+            view = new TokenizedSentencesView((StringsMap)data);
+
+        else
+            throw new UnsupportedDataTypeException(data.getClass().getName());
+
+        return view;
+    }
+
     /**
      * Attempts to convert the given data to a Map<String, Double>
      *
@@ -145,7 +145,9 @@ public abstract class Names {
 	public static final String PROP_LOCAL_FILENAME_GET = "local_filename_get";
 	public static final String PROP_LOCAL_FILENAME_PUT = "local_filename_put";
 	public static final String PROP_LOCATION = "location";
+	public static final String PROP_MAX_QUEUED_BYTES = "max_queued_bytes";
 	public static final String PROP_MAX_SIZE = "max_size";
+	public static final String PROP_MAX_SPILLED_BYTES = "max_spilled_bytes";
 	public static final String PROP_MAX_VALUE = "max_value";
 	public static final String PROP_MESSAGE = "message";
     public static final String PROP_MIN_SIZE = "min_size";
@@ -157,6 +159,7 @@ public abstract class Names {
 	public static final String PROP_OFFSET = "offset";
 	public static final String PROP_ORDERED = "ordered";
 	public static final String PROP_OUTPUT_HTML = "output_html";
+	public static final String PROP_PACKED = "packed";
 	public static final String PROP_PAGE_SIZE = "page_size";
 	public static final String PROP_PASSPHRASE = "passphrase";
 	public static final String PROP_PASSWORD = "password";
@@ -0,0 +1,165 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.datatypes.core.views;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+
+/**
+ * A read-only view over a sequence of strings that avoids copying the
+ * underlying protocol buffer message into a Java array.
+ */
+
+public class StringsView implements Iterable<String> {
+    private final List<String> _values;
+    private Map<String, Integer> _index;
+
+    /**
+     * Creates a view over the values of a Strings message
+     *
+     * @param strings The Strings message
+     */
+    public StringsView(Strings strings) {
+        _values = strings.getValueList();
+    }
+
+    /**
+     * Creates a view over a Java string array (the array is not copied)
+     *
+     * @param strings The strings
+     */
+    public StringsView(String... strings) {
+        _values = Collections.unmodifiableList(Arrays.asList(strings));
+    }
+
+    /**
+     * Creates a view over a list of strings (the list is not copied)
+     *
+     * @param strings The strings
+     */
+    public StringsView(List<String> strings) {
+        _values = Collections.unmodifiableList(strings);
+    }
+
+    /**
+     * @return The number of strings in the view
+     */
+    public int size() {
+        return _values.size();
+    }
+
+    /**
+     * @return True if the view contains no strings
+     */
+    public boolean isEmpty() {
+        return _values.isEmpty();
+    }
+
+    /**
+     * Returns the string at the specified position
+     *
+     * @param index The index
+     * @return The string
+     */
+    public String get(int index) {
+        return _values.get(index);
+    }
+
+    /**
+     * Returns the position of the first occurrence of a string in the view.
+     * The lookup table is built on the first call.
+     *
+     * @param value The string to look for
+     * @return The index, or -1 if the string is not in the view
+     */
+    public int indexOf(String value) {
+        if (_index == null) {
+            Map<String, Integer> index = new HashMap<String, Integer>(_values.size());
+            for (int i = _values.size() - 1; i >= 0; i--)
+                index.put(_values.get(i), i);
+            _index = index;
+        }
+
+        Integer i = _index.get(value);
+        return (i != null) ? i : -1;
+    }
+
+    /**
+     * @param value The string to look for
+     * @return True if the view contains the string
+     */
+    public boolean contains(String value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return An unmodifiable list backed by the view
+     */
+    public List<String> asList() {
+        return _values;
+    }
+
+    /**
+     * Copies the strings into a new array
+     *
+     * @return The array of strings
+     */
+    public String[] toArray() {
+        return _values.toArray(new String[_values.size()]);
+    }
+
+    public Iterator<String> iterator() {
+        return _values.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return _values.toString();
+    }
+}
@@ -0,0 +1,198 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.datatypes.core.views;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
+import org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap;
+
+/**
+ * A read-only view over token counts. Wraps an IntegersMap, a PackedIntegersMap
+ * or a Java map without copying the keys or counts; the key to index lookup
+ * table is only built if a lookup by key is requested.
+ */
+
+public class TokenCountView implements Iterable<String> {
+    private final List<String> _keys;
+    private final IntegersMap _integersMap;
+    private final PackedIntegersMap _packedMap;
+    private final int[] _counts;
+    private Map<String, Integer> _index;
+
+    /**
+     * Creates a view over an IntegersMap
+     *
+     * @param map The token counts
+     */
+    public TokenCountView(IntegersMap map) {
+        _keys = map.getKeyList();
+        _integersMap = map;
+        _packedMap = null;
+        _counts = null;
+    }
+
+    /**
+     * Creates a view over a PackedIntegersMap
+     *
+     * @param map The token counts
+     */
+    public TokenCountView(PackedIntegersMap map) {
+        _keys = map.getKeyList();
+        _integersMap = null;
+        _packedMap = map;
+        _counts = null;
+    }
+
+    /**
+     * Creates a view over a Java map. Since a Java map cannot be accessed by position,
+     * the map is flattened once into parallel arrays.
+     *
+     * @param map The token counts
+     */
+    public TokenCountView(Map<String, Integer> map) {
+        String[] keys = new String[map.size()];
+        int[] counts = new int[keys.length];
+
+        int i = 0;
+        for (Entry<String, Integer> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            counts[i++] = entry.getValue();
+        }
+
+        _keys = Collections.unmodifiableList(Arrays.asList(keys));
+        _integersMap = null;
+        _packedMap = null;
+        _counts = counts;
+    }
+
+    /**
+     * @return The number of tokens
+     */
+    public int size() {
+        return _keys.size();
+    }
+
+    /**
+     * Returns the token at the specified position
+     *
+     * @param index The index
+     * @return The token
+     */
+    public String getKey(int index) {
+        return _keys.get(index);
+    }
+
+    /**
+     * Returns the count at the specified position
+     *
+     * @param index The index
+     * @return The count
+     */
+    public int getCount(int index) {
+        if (_packedMap != null)
+            return _packedMap.getCount(index);
+
+        if (_integersMap != null)
+            return _integersMap.getValue(index).getValue(0);
+
+        return _counts[index];
+    }
+
+    /**
+     * Returns the position of a token. The lookup table is built on the first call.
+     *
+     * @param key The token
+     * @return The index, or -1 if the token is not present
+     */
+    public int indexOf(String key) {
+        if (_index == null) {
+            Map<String, Integer> index = new HashMap<String, Integer>(_keys.size());
+            for (int i = _keys.size() - 1; i >= 0; i--)
+                index.put(_keys.get(i), i);
+            _index = index;
+        }
+
+        Integer i = _index.get(key);
+        return (i != null) ? i : -1;
+    }
+
+    /**
+     * @param key The token
+     * @return True if the token is present
+     */
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the count of a token
+     *
+     * @param key The token
+     * @return The count, or 0 if the token is not present
+     */
+    public int getCount(String key) {
+        int i = indexOf(key);
+        return (i >= 0) ? getCount(i) : 0;
+    }
+
+    /**
+     * @return An unmodifiable list of the tokens
+     */
+    public List<String> getKeyList() {
+        return _keys;
+    }
+
+    /**
+     * Iterates over the tokens, in order
+     */
+    public Iterator<String> iterator() {
+        return _keys.iterator();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.datatypes.core.views;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
+
+/**
+ * A read-only view over tokenized sentences (a StringsMap keyed by sentence text,
+ * holding the tokens of each sentence) that avoids copying the message into Java
+ * maps and arrays.
+ */
+
+public class TokenizedSentencesView implements Iterable<StringsView> {
+    private final StringsMap _sentences;
+
+    /**
+     * Creates a view over tokenized sentences
+     *
+     * @param sentences The tokenized sentences
+     */
+    public TokenizedSentencesView(StringsMap sentences) {
+        _sentences = sentences;
+    }
+
+    /**
+     * @return The number of sentences
+     */
+    public int size() {
+        return _sentences.getKeyCount();
+    }
+
+    /**
+     * Returns the text of a sentence
+     *
+     * @param index The sentence index
+     * @return The sentence text
+     */
+    public String getSentence(int index) {
+        return _sentences.getKey(index);
+    }
+
+    /**
+     * Returns the tokens of a sentence
+     *
+     * @param index The sentence index
+     * @return A view over the sentence tokens
+     */
+    public StringsView getTokens(int index) {
+        return new StringsView(_sentences.getValue(index));
+    }
+
+    /**
+     * Returns the tokens of a sentence as an unmodifiable list
+     *
+     * @param index The sentence index
+     * @return The sentence tokens
+     */
+    public List<String> getTokenList(int index) {
+        return _sentences.getValue(index).getValueList();
+    }
+
+    /**
+     * Returns the underlying Strings message holding the tokens of a sentence
+     *
+     * @param index The sentence index
+     * @return The sentence tokens
+     */
+    public Strings getTokensMessage(int index) {
+        return _sentences.getValue(index);
+    }
+
+    /**
+     * @return The total number of tokens across all sentences
+     */
+    public int getTokenCount() {
+        int count = 0;
+        for (int i = 0, iMax = size(); i < iMax; i++)
+            count += _sentences.getValue(i).getValueCount();
+
+        return count;
+    }
+
+    /**
+     * Iterates over the tokens of each sentence
+     */
+    public Iterator<StringsView> iterator() {
+        return new Iterator<StringsView>() {
+            private int _pos = 0;
+
+            public boolean hasNext() {
+                return _pos < size();
+            }
+
+            public StringsView next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return getTokens(_pos++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
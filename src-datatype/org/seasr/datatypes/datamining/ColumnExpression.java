@@ -42,6 +42,7 @@
 
 package org.seasr.datatypes.datamining;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.seasr.datatypes.datamining.table.ColumnTypes;
@@ -91,6 +92,9 @@ public class ColumnExpression implements Expression {
    // LN = 10,
    // EXP = 11;
 
+   /** number of rows a compiled expression evaluates at a time */
+   static private final int CHUNK_SIZE = 2048;
+
    /** order */
    static private final int[] order = {
       0, 0, 2, 2, 1, 4, 3, 5
@@ -182,6 +186,12 @@ public class ColumnExpression implements Expression {
    /** missing values in the table. */
    private boolean[] missingValues;
 
+   /** true if any entry of missingValues is set. */
+   private boolean anyMissing;
+
+   /** the evaluation tree compiled into kernels, or null until evaluated. */
+   private Kernel program;
+
    /** root of evaluation tree. */
    private Node root;
 
@@ -249,9 +259,49 @@ public class ColumnExpression implements Expression {
     */
    private void initMissing() {
       this.missingValues = new boolean[table.getNumRows()];
+      this.anyMissing = false;
+   }
+
+   /**
+    * Create a new column for the result of an expression.
+    *
+    * @param  type    datatype of the column
+    * @param  numRows number of rows
+    *
+    * @return a primitive array of the datatype, cast to an <code>Object</code>
+    *
+    * @throws ExpressionException when the datatype is unknown
+    */
+   private Object newColumn(int type, int numRows) throws ExpressionException {
+
+      switch (type) {
+
+         case TYPE_BOOLEAN:
+            return new boolean[numRows];
+
+         case TYPE_BYTE:
+            return new byte[numRows];
+
+         case TYPE_DOUBLE:
+            return new double[numRows];
+
+         case TYPE_FLOAT:
+            return new float[numRows];
+
+         case TYPE_INTEGER:
+            return new int[numRows];
 
-      for (int i = 0; i < missingValues.length; i++) {
-         this.missingValues[i] = false;
+         case TYPE_LONG:
+            return new long[numRows];
+
+         case TYPE_SHORT:
+            return new short[numRows];
+
+         case TYPE_STRING:
+            return new String[numRows];
+
+         default:
+            throw new ExpressionException("ColumnExpression: apparently malformed expression.");
       }
    }
 
@@ -627,6 +677,11 @@ public class ColumnExpression implements Expression {
     * Evaluates the current expression and returns a new column in the form of a
     * primitive array cast to an <code>Object</code>.
     *
+    * <p>The evaluation tree is compiled into kernels the first time, which
+    * then evaluate the whole expression <code>CHUNK_SIZE</code> rows at a
+    * time. The rows with a missing value are collected in a bitmask per chunk
+    * and set to the table's default missing value at the end.</p>
+    *
     * @return the appropriate new column
     *
     * @throws ExpressionException when something goes wrong
@@ -637,7 +692,36 @@ public class ColumnExpression implements Expression {
          return null;
       }
 
-      Object result = root.evaluate();
+      if (program == null) {
+         program = root.compile();
+      }
+
+      int numRows = table.getNumRows();
+      Object result = newColumn(program.type, numRows);
+      long[] chunkMissing = new long[CHUNK_SIZE >>> 6];
+
+      program.open();
+
+      for (int start = 0; start < numRows; start += CHUNK_SIZE) {
+         int len = Math.min(CHUNK_SIZE, numRows - start);
+
+         Arrays.fill(chunkMissing, 0L);
+         program.evaluate(start, len, chunkMissing);
+         System.arraycopy(program.values(), 0, result, start, len);
+
+         for (int w = 0; w < chunkMissing.length; w++) {
+
+            for (long word = chunkMissing[w]; word != 0; word &= word - 1) {
+               missingValues[start + (w << 6) +
+                             Long.numberOfTrailingZeros(word)] = true;
+               anyMissing = true;
+            }
+         }
+      }
+
+      if (!anyMissing) {
+         return result;
+      }
 
       // Now repopulate missing values with the default missing value for that
       // type.
@@ -818,6 +902,7 @@ public class ColumnExpression implements Expression {
     */
    public void setExpression(String expression) throws ExpressionException {
       root = parse(expression);
+      program = null;
    }
 
    /**
@@ -842,6 +927,7 @@ public class ColumnExpression implements Expression {
       throws ExpressionException {
 
       lazy = true;
+      program = null;
       extraColumnIndexToType = new HashMap();
 
       if (newColumns == null || newColumnTypes == null) {
@@ -871,6 +957,7 @@ public class ColumnExpression implements Expression {
     */
    public void setTable(MutableTable mt) {
       table = mt;
+      program = null;
 
       labelToIndex = new HashMap();
 
@@ -904,15 +991,17 @@ public String toString() { return root.toString(); }
     * @version $Revision: 1.8 $, $Date: 2006/09/01 18:53:48 $
     */
    private abstract class Node {
-      /** datatype of value returned from evaluate */
+      /** datatype of the values computed by this node */
       protected int returnType = 0;
 
-       /**
-        * Evaluate
-        * @return result of evaluation
-        * @throws ExpressionException
-        */
-      public abstract Object evaluate() throws ExpressionException;
+      /**
+       * Compile this node and its children into a kernel.
+       *
+       * @return kernel computing the values of this node
+       *
+       * @throws ExpressionException when the node cannot be evaluated
+       */
+      public abstract Kernel compile() throws ExpressionException;
 
        /**
         * Get a nicely formatted description of this Node
@@ -1078,187 +1167,33 @@ public String toString() { return root.toString(); }
          }
       }
 
-       /**
-        * Evaluate
-        *
-        * @return result of evaluation
-        * @throws ncsa.d2k.modules.core.datatype.ExpressionException when
-        * something goes wrong
-        *
-        */
-       @Override
-    public Object evaluate() throws ExpressionException {
-           double[] retVal = new double[table.getNumRows()];
-           double[] arg;
-
-           // evaluate the argument and copy all of its results into a double
-           // array for simplicity later
-           switch (argument.returnType) {
-
-               case TYPE_BOOLEAN:
-                   throw new ExpressionException("FunctionNode: Functions do not evaluate to boolean values.");
-
-               case TYPE_DOUBLE:
-                   arg = (double[]) argument.evaluate();
-
-                   break;
-
-               case TYPE_FLOAT:
-
-                   float[] ar = (float[]) argument.evaluate();
-                   arg = new double[ar.length];
-
-                   for (int i = 0; i < ar.length; i++) {
-                       arg[i] = ar[i];
-                   }
-
-                   break;
-
-               case TYPE_LONG:
-
-                   long[] l = (long[]) argument.evaluate();
-                   arg = new double[l.length];
-
-                   for (int i = 0; i < l.length; i++) {
-                       arg[i] = l[i];
-                   }
-
-                   break;
-
-               case TYPE_BYTE:
-
-                   byte[] b = (byte[]) argument.evaluate();
-                   arg = new double[b.length];
-
-                   for (int i = 0; i < b.length; i++) {
-                       arg[i] = b[i];
-                   }
-
-                   break;
-
-               case TYPE_INTEGER:
-
-                   int[] ia = (int[]) argument.evaluate();
-                   arg = new double[ia.length];
-
-                   for (int i = 0; i < ia.length; i++) {
-                       arg[i] = ia[i];
-                   }
-
-                   break;
-
-               case TYPE_SHORT:
-
-                   short[] s = (short[]) argument.evaluate();
-                   arg = new double[s.length];
-
-                   for (int i = 0; i < s.length; i++) {
-                       arg[i] = s[i];
-                   }
-
-                   break;
-
-               default:
-                   throw new ExpressionException("FunctionNode: Cannot use return type.");
-           }
-
-           switch (operation) {
-
-               case LOG_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.log(arg[i]) / Math.log(10);
-                   }
-
-                   break;
-
-               case SIN_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.sin(arg[i]);
-                   }
-
-                   break;
-
-               case COS_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.cos(arg[i]);
-                   }
-
-                   break;
-
-               case TAN_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.tan(arg[i]);
-                   }
-
-                   break;
-
-               case SQRT_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.sqrt(arg[i]);
-                   }
-
-                   break;
-
-               case ABS_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.abs(arg[i]);
-                   }
-
-                   break;
-
-               case EXP_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.exp(arg[i]);
-                   }
-
-                   break;
-
-               case ASIN_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.asin(arg[i]);
-                   }
-
-                   break;
-
-               case ACOS_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.acos(arg[i]);
-                   }
-
-                   break;
-
-               case ATAN_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = Math.atan(arg[i]);
-                   }
-
-                   break;
-
-               case NEG_OP:
-
-                   for (int i = 0; i < arg.length; i++) {
-                       retVal[i] = arg[i] * -1;
-                   }
+      /**
+       * Compile this node into a kernel.
+       *
+       * @return kernel computing the values of this node
+       *
+       * @throws ExpressionException when the argument is not numeric
+       */
+      @Override
+      public Kernel compile() throws ExpressionException {
 
-                   break;
+         switch (argument.returnType) {
 
-               default:
-                   throw new ExpressionException("FunctionNode: Function not recognized.");
+            case TYPE_BOOLEAN:
+               throw new ExpressionException("FunctionNode: Functions do not evaluate to boolean values.");
 
-           }
+            case TYPE_BYTE:
+            case TYPE_DOUBLE:
+            case TYPE_FLOAT:
+            case TYPE_INTEGER:
+            case TYPE_LONG:
+            case TYPE_SHORT:
+               return new FunctionKernel(operation, argument.compile());
 
-           return retVal;
-       } // end method evaluate
+            default:
+               throw new ExpressionException("FunctionNode: Cannot use return type.");
+         }
+      }
 
        /**
         * Get a nicely formatted description of this Node
@@ -1602,2384 +1537,1345 @@ public String toString() { return root.toString(); }
       }
 
 
-       /**
-        * Evaluate
-        *
-        * @return result of evaluation
-        * @throws ncsa.d2k.modules.core.datatype.ExpressionException when
-        * something goes wrong
-        */
-       @Override
-    public Object evaluate() throws ExpressionException {
-
-           int numRows = table.getNumRows();
-           Object[] output = new Object[numRows];
+      /**
+       * Compile this node into a kernel.
+       *
+       * @return kernel computing the values of this node
+       *
+       * @throws ExpressionException when the operands cannot be combined
+       */
+      @Override
+      public Kernel compile() throws ExpressionException {
 
-           switch (left.returnType) {
+         if (left.returnType == TYPE_STRING || right.returnType == TYPE_STRING) {
+            throw new ExpressionException("ColumnExpression: apparently malformed expression.");
+         }
 
-               case TYPE_BOOLEAN:
+         if ((left.returnType == TYPE_BOOLEAN) != (right.returnType == TYPE_BOOLEAN)) {
+            throw new ExpressionException("ColumnExpression: Illegal expression.");
+         }
 
-                   switch (right.returnType) {
+         return new OperationKernel(type, returnType, left.compile(),
+                                    right.compile());
+      }
 
-                       case TYPE_BOOLEAN:
+      /**
+       * Format contents nicely.
+       *
+       * @return String description of this
+       */
+      @Override
+    public String toString() {
 
-                           boolean[] b = new boolean[table.getNumRows()];
-                           boolean[] bL = (boolean[]) left.evaluate();
-                           boolean[] bR = (boolean[]) right.evaluate();
+         StringBuffer buffer = new StringBuffer();
 
-                           switch (type) {
+         if (left instanceof OperationNode) {
+            buffer.append('(');
+            buffer.append(left);
+            buffer.append(')');
+         } else {
+            buffer.append(left);
+         }
 
-                               case AND:
+         buffer.append(' ');
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = bL[i] && bR[i];
-                                   }
+         switch (type) {
 
-                                   break;
+            case ADDITION:
+               buffer.append('+');
 
-                               case OR:
+               break;
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = bL[i] || bR[i];
-                                   }
+            case SUBTRACTION:
+               buffer.append('-');
 
-                                   break;
+               break;
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+            case MULTIPLICATION:
+               buffer.append('*');
 
-                           return b;
+               break;
 
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+            case DIVISION:
+               buffer.append('/');
 
-                   }
+               break;
 
-               case TYPE_BYTE:
+            case MODULUS:
+               buffer.append('%');
 
-                   switch (right.returnType) {
+               break;
 
-                       case TYPE_BOOLEAN:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+            case AND:
+               buffer.append("&&");
 
-                       case TYPE_BYTE:
+               break;
 
-                           byte[] b = new byte[table.getNumRows()];
-                           byte[] bL = (byte[]) left.evaluate();
-                           byte[] bR = (byte[]) right.evaluate();
+            case OR:
+               buffer.append("||");
 
-                           switch (type) {
+               break;
 
-                               case ADDITION:
+            // vered - merging updates form basic3
+            case POW:
+               buffer.append("^");
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) (bL[i] + bR[i]);
-                                   }
+               break;
+               // vered - end merging
 
-                                   break;
+         }
 
-                               case SUBTRACTION:
+         buffer.append(' ');
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) (bL[i] - bR[i]);
-                                   }
+         if (right instanceof OperationNode) {
+            buffer.append('(');
+            buffer.append(right);
+            buffer.append(')');
+         } else {
+            buffer.append(right);
+         }
 
-                                   break;
+         return buffer.toString();
 
-                               case MULTIPLICATION:
+      } // end method toString
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) (bL[i] * bR[i]);
-                                   }
+      ////////////////////////////////////////////////////////////////////////////////
+      // end operation evaluation
+      // //
+      ////////////////////////////////////////////////////////////////////////////////
 
-                                   break;
+   } // end class OperationNode
 
-                               case DIVISION:
+   /**
+    * A node that is not an operation.
+    *
+    * @author  $Author: clutter $
+    * @version $Revision: 1.8 $, $Date: 2006/09/01 18:53:48 $
+    */
+   private class TerminalNode extends Node {
+      /** column index */
+      private int column;
+      private final int myownflag;
+       /** scalar value */
+      private float myownscalarvalue;
+       /** non-scalar value */
+      private String myValue;
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) (bL[i] / bR[i]);
-                                   }
+      /**
+       * Constructor.
+       *
+       * @param  myownflag        flag
+       * @param  column           column index
+       * @param  myownscalarvalue scalar value
+       *
+       * @throws ExpressionException when something goes wrong
+       */
+      public TerminalNode(int myownflag, int column, float myownscalarvalue)
+         throws ExpressionException {
 
-                                   break;
+         this.myownflag = myownflag;
 
-                               case MODULUS:
-
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) (bL[i] % bR[i]);
-                                   }
-
-                                   break;
-
-                               case POW:
+         if (myownflag == 0) {
+            this.column = column;
 
-                                   for (int i = 0; i < b.length; i++) {
-                                       b[i] = (byte) Math.pow(bL[i], bR[i]);
-                                   }
+            if (column < table.getNumColumns()) { // in table
 
-                                   break;
+               switch (table.getColumnType(column)) {
 
+                  case ColumnTypes.BOOLEAN:
+                     returnType = TYPE_BOOLEAN;
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+                     break;
 
-                           return b;
+                  case ColumnTypes.BYTE:
+                     returnType = TYPE_BYTE;
 
-                       case TYPE_DOUBLE:
+                     break;
 
-                           double[] d = new double[table.getNumRows()];
-                           bL = (byte[]) left.evaluate();
+                  case ColumnTypes.DOUBLE:
+                     returnType = TYPE_DOUBLE;
 
-                           double[] dR = (double[]) right.evaluate();
+                     break;
 
-                           switch (type) {
+                  case ColumnTypes.FLOAT:
+                     returnType = TYPE_FLOAT;
 
-                               case ADDITION:
+                     break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = bL[i] + dR[i];
-                                   }
+                  case ColumnTypes.INTEGER:
+                     returnType = TYPE_INTEGER;
 
-                                   break;
+                     break;
 
-                               case SUBTRACTION:
+                  case ColumnTypes.LONG:
+                     returnType = TYPE_LONG;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = bL[i] - dR[i];
-                                   }
+                     break;
 
-                                   break;
+                  case ColumnTypes.SHORT:
+                     returnType = TYPE_SHORT;
 
-                               case MULTIPLICATION:
+                     break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = bL[i] * dR[i];
-                                   }
+                  default:
+                     throw new ExpressionException("ColumnExpression supports only numeric and boolean columns.");
+               }
 
-                                   break;
+            } else { // in array passed to setLazyExpression
 
-                               case DIVISION:
+               returnType =
+                  ((Integer) extraColumnIndexToType.get(new Integer(column)))
+                     .intValue();
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = bL[i] / dR[i];
-                                   }
+            }
+         } else {
+            returnType = TYPE_FLOAT;
+            this.myownscalarvalue = myownscalarvalue;
+         }
+      }
 
-                                   break;
+      /**
+       * Creates a new TerminalNode object.
+       *
+       * @param  myownflag  flag
+       * @param  expression expression
+       * @param  tempFloat  float (not used)
+       *
+       * @throws ExpressionException TerminalNode constructor for solo String
+       *                             values
+       */
+      public TerminalNode(int myownflag, String expression, float tempFloat)
+         throws ExpressionException {
 
-                               case MODULUS:
+         this.myownflag = myownflag;
+         myValue = expression;
+         returnType = TYPE_STRING;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = bL[i] % dR[i];
-                                   }
+      }
 
-                                   break;
+      /**
+       * Compile this node into a kernel.
+       *
+       * @return kernel computing the values of this node
+       *
+       * @throws ExpressionException when the column is of an unsupported type
+       */
+      @Override
+      public Kernel compile() throws ExpressionException {
 
+         if (myownflag == 0) {
 
-                               case POW:
+            switch (returnType) {
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(bL[i], dR[i]);
-                                   }
+               case TYPE_BOOLEAN:
+               case TYPE_BYTE:
+               case TYPE_DOUBLE:
+               case TYPE_FLOAT:
+               case TYPE_INTEGER:
+               case TYPE_LONG:
+               case TYPE_SHORT:
+                  return new ColumnKernel(returnType, column);
 
-                                   break;
+               default:
+                  throw new ExpressionException("There has been an error in ColumnExpression. Double-check your expression.");
+            }
+         }
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+         ConstantKernel constant = new ConstantKernel(returnType);
 
-                           return d;
+         if (myownflag == 1) {
+            Arrays.fill(constant.floats, myownscalarvalue);
+         } else {
+            Arrays.fill(constant.strings, myValue);
+         }
 
-                       case TYPE_FLOAT:
+         return constant;
+      } // end method compile
 
-                           float[] f = new float[table.getNumRows()];
-                           bL = (byte[]) left.evaluate();
+      /**
+       * Format description nicely.
+       *
+       * @return description
+       */
+      @Override
+    public String toString() {
 
-                           float[] fR = (float[]) right.evaluate();
+         if (myownflag == 0) {
 
-                           switch (type) {
+            if (column >= table.getNumColumns()) {
+               return "NEW";
+            }
 
-                               case ADDITION:
+            return table.getColumnLabel(column);
+         } else {
+            return (Float.toString(myownscalarvalue));
+         }
+      }
+   } // end class TerminalNode
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = bL[i] + fR[i];
-                                   }
+   /**
+    * A node compiled for evaluation. A kernel computes the values of its node
+    * for one chunk of rows at a time, into a buffer of the node's datatype
+    * that is reused for every chunk, so no temporary as long as the table is
+    * allocated.
+    */
+   private abstract class Kernel {
+
+      /** datatype of the values computed by evaluate */
+      protected final int type;
+
+      /** values of a boolean kernel */
+      protected boolean[] booleans;
+      /** values of a byte kernel */
+      protected byte[] bytes;
+      /** values of a double kernel */
+      protected double[] doubles;
+      /** values of a float kernel */
+      protected float[] floats;
+      /** values of an int kernel */
+      protected int[] ints;
+      /** values of a long kernel */
+      protected long[] longs;
+      /** values of a short kernel */
+      protected short[] shorts;
+      /** values of a string kernel */
+      protected String[] strings;
 
-                                   break;
+      /**
+       * Constructor.
+       *
+       * @param type datatype of the values
+       */
+      Kernel(int type) {
+         this.type = type;
 
-                               case SUBTRACTION:
+         switch (type) {
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = bL[i] - fR[i];
-                                   }
+            case TYPE_BOOLEAN:
+               booleans = new boolean[CHUNK_SIZE];
 
-                                   break;
+               break;
 
-                               case MULTIPLICATION:
+            case TYPE_BYTE:
+               bytes = new byte[CHUNK_SIZE];
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = bL[i] * fR[i];
-                                   }
+               break;
 
-                                   break;
+            case TYPE_DOUBLE:
+               doubles = new double[CHUNK_SIZE];
 
-                               case DIVISION:
+               break;
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = bL[i] / fR[i];
-                                   }
+            case TYPE_FLOAT:
+               floats = new float[CHUNK_SIZE];
 
-                                   break;
+               break;
 
-                               case MODULUS:
+            case TYPE_INTEGER:
+               ints = new int[CHUNK_SIZE];
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = bL[i] % fR[i];
-                                   }
+               break;
 
-                                   break;
+            case TYPE_LONG:
+               longs = new long[CHUNK_SIZE];
 
+               break;
 
-                               case POW:
+            case TYPE_SHORT:
+               shorts = new short[CHUNK_SIZE];
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(bL[i], fR[i]);
-                                   }
+               break;
 
-                                   break;
+            case TYPE_STRING:
+               strings = new String[CHUNK_SIZE];
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               break;
+         }
+      }
 
-                           return f;
+      /**
+       * Get the values of the chunk as doubles.
+       *
+       * @param  scratch buffer to convert into when the values are not doubles
+       * @param  len     number of rows in the chunk
+       *
+       * @return the values
+       */
+      public double[] asDoubles(double[] scratch, int len) {
 
-                       case TYPE_INTEGER:
+         switch (type) {
 
-                           int[] I = new int[table.getNumRows()];
-                           bL = (byte[]) left.evaluate();
+            case TYPE_BYTE:
 
-                           int[] iR = (int[]) right.evaluate();
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = bytes[j];
+               }
 
-                           switch (type) {
+               return scratch;
 
-                               case ADDITION:
+            case TYPE_FLOAT:
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = bL[i] + iR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = floats[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case SUBTRACTION:
+            case TYPE_INTEGER:
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = bL[i] - iR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = ints[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case MULTIPLICATION:
+            case TYPE_LONG:
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = bL[i] * iR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = longs[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case DIVISION:
+            case TYPE_SHORT:
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = bL[i] / iR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = shorts[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case MODULUS:
+            default:
+               return doubles;
+         }
+      }
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = bL[i] % iR[i];
-                                   }
+      /**
+       * Get the values of the chunk as floats. Only used for byte, short, int
+       * and float kernels.
+       *
+       * @param  scratch buffer to convert into when the values are not floats
+       * @param  len     number of rows in the chunk
+       *
+       * @return the values
+       */
+      public float[] asFloats(float[] scratch, int len) {
 
-                                   break;
+         switch (type) {
 
-                               case POW:
+            case TYPE_BYTE:
 
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = (int) Math.pow(bL[i], iR[i]);
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = bytes[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+            case TYPE_INTEGER:
 
-                           return I;
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = ints[j];
+               }
 
-                       case TYPE_LONG:
+               return scratch;
 
-                           long[] l = new long[table.getNumRows()];
-                           bL = (byte[]) left.evaluate();
+            case TYPE_SHORT:
 
-                           long[] lR = (long[]) right.evaluate();
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = shorts[j];
+               }
 
-                           switch (type) {
+               return scratch;
 
-                               case ADDITION:
+            default:
+               return floats;
+         }
+      }
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = bL[i] + lR[i];
-                                   }
+      /**
+       * Get the values of the chunk as ints. Only used for byte, short and int
+       * kernels.
+       *
+       * @param  scratch buffer to convert into when the values are not ints
+       * @param  len     number of rows in the chunk
+       *
+       * @return the values
+       */
+      public int[] asInts(int[] scratch, int len) {
 
-                                   break;
+         switch (type) {
 
-                               case SUBTRACTION:
+            case TYPE_BYTE:
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = bL[i] - lR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = bytes[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case MULTIPLICATION:
+            case TYPE_SHORT:
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = bL[i] * lR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = shorts[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case DIVISION:
+            default:
+               return ints;
+         }
+      }
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = bL[i] / lR[i];
-                                   }
+      /**
+       * Get the values of the chunk as longs. Only used for byte, short, int
+       * and long kernels.
+       *
+       * @param  scratch buffer to convert into when the values are not longs
+       * @param  len     number of rows in the chunk
+       *
+       * @return the values
+       */
+      public long[] asLongs(long[] scratch, int len) {
 
-                                   break;
+         switch (type) {
 
-                               case MODULUS:
+            case TYPE_BYTE:
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = bL[i] % lR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = bytes[j];
+               }
 
-                                   break;
+               return scratch;
 
-                               case POW:
+            case TYPE_INTEGER:
 
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = (long) Math.pow(bL[i], lR[i]);
-                                   }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = ints[j];
+               }
 
-                                   break;
+               return scratch;
 
+            case TYPE_SHORT:
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               for (int j = 0; j < len; j++) {
+                  scratch[j] = shorts[j];
+               }
 
-                           return l;
+               return scratch;
 
-                       case TYPE_SHORT:
+            default:
+               return longs;
+         }
+      }
 
-                           short[] s = new short[table.getNumRows()];
-                           bL = (byte[]) left.evaluate();
+      /**
+       * Compute the values of a chunk of rows.
+       *
+       * @param  start   first row of the chunk
+       * @param  len     number of rows in the chunk, at most <code>
+       *                 CHUNK_SIZE</code>
+       * @param  missing bitmask of the chunk; bit <code>j</code> is set when a
+       *                 value of row <code>start + j</code> is missing
+       *
+       * @throws ExpressionException when something goes wrong
+       */
+      public abstract void evaluate(int start, int len, long[] missing)
+         throws ExpressionException;
 
-                           short[] sR = (short[]) right.evaluate();
+      /**
+       * Prepare for evaluating the table; called once before the first chunk.
+       */
+      public void open() { }
 
-                           switch (type) {
+      /**
+       * Get the buffer holding the values of the chunk.
+       *
+       * @return the values, as a primitive array cast to an <code>Object</code>
+       */
+      public Object values() {
 
-                               case ADDITION:
+         switch (type) {
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (bL[i] + sR[i]);
-                                   }
+            case TYPE_BOOLEAN:
+               return booleans;
 
-                                   break;
+            case TYPE_BYTE:
+               return bytes;
 
-                               case SUBTRACTION:
+            case TYPE_DOUBLE:
+               return doubles;
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (bL[i] - sR[i]);
-                                   }
+            case TYPE_FLOAT:
+               return floats;
 
-                                   break;
+            case TYPE_INTEGER:
+               return ints;
 
-                               case MULTIPLICATION:
+            case TYPE_LONG:
+               return longs;
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (bL[i] * sR[i]);
-                                   }
+            case TYPE_SHORT:
+               return shorts;
 
-                                   break;
+            default:
+               return strings;
+         }
+      }
+   } // end class Kernel
 
-                               case DIVISION:
+   /**
+    * Kernel reading a column of the table.
+    */
+   private class ColumnKernel extends Kernel {
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (bL[i] / sR[i]);
-                                   }
+      /** column index */
+      private final int column;
 
-                                   break;
+      /** true when the column has missing values to flag */
+      private boolean checkMissing;
 
-                               case MODULUS:
+      /**
+       * Constructor.
+       *
+       * @param type   datatype of the column
+       * @param column column index
+       */
+      ColumnKernel(int type, int column) {
+         super(type);
+         this.column = column;
+      }
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (bL[i] % sR[i]);
-                                   }
+      /**
+       * Read a chunk of the column.
+       *
+       * @param start   first row of the chunk
+       * @param len     number of rows in the chunk
+       * @param missing bitmask of the chunk's missing values
+       */
+      @Override
+      public void evaluate(int start, int len, long[] missing) {
 
-                                   break;
+         switch (type) {
 
+            case TYPE_BOOLEAN:
 
-                               case POW:
+               for (int j = 0; j < len; j++) {
+                  booleans[j] = table.getBoolean(start + j, column);
+               }
 
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) Math.pow(bL[i], sR[i]);
-                                   }
+               break;
 
-                                   break;
+            case TYPE_BYTE:
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               for (int j = 0; j < len; j++) {
+                  bytes[j] = table.getByte(start + j, column);
+               }
 
-                           return s;
+               break;
 
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+            case TYPE_DOUBLE:
 
-                   }
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = table.getDouble(start + j, column);
+               }
 
-               case TYPE_DOUBLE:
+               break;
 
-                   switch (right.returnType) {
+            case TYPE_FLOAT:
 
-                       case TYPE_BOOLEAN:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+               for (int j = 0; j < len; j++) {
+                  floats[j] = table.getFloat(start + j, column);
+               }
 
-                       case TYPE_BYTE:
+               break;
 
-                           double[] d = new double[table.getNumRows()];
-                           double[] dL = (double[]) left.evaluate();
-                           byte[] bR = (byte[]) right.evaluate();
+            case TYPE_INTEGER:
 
-                           switch (type) {
+               for (int j = 0; j < len; j++) {
+                  ints[j] = table.getInt(start + j, column);
+               }
 
-                               case ADDITION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + bR[i];
-                                   }
+            case TYPE_LONG:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  longs[j] = table.getLong(start + j, column);
+               }
 
-                               case SUBTRACTION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - bR[i];
-                                   }
+            case TYPE_SHORT:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  shorts[j] = table.getShort(start + j, column);
+               }
 
-                               case MULTIPLICATION:
+               break;
+         }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * bR[i];
-                                   }
+         if (checkMissing) {
 
-                                   break;
+            for (int j = 0; j < len; j++) {
 
-                               case DIVISION:
+               if (table.isValueMissing(start + j, column)) {
+                  missing[j >>> 6] |= 1L << j;
+               }
+            }
+         }
+      } // end method evaluate
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / bR[i];
-                                   }
+      /**
+       * Look up once whether the column has missing values at all.
+       */
+      @Override
+      public void open() { checkMissing = table.hasMissingValues(column); }
+   } // end class ColumnKernel
 
-                                   break;
+   /**
+    * Kernel of a scalar or string constant. Its buffer is filled when it is
+    * compiled and never changes.
+    */
+   private class ConstantKernel extends Kernel {
 
-                               case MODULUS:
+      /**
+       * Constructor.
+       *
+       * @param type datatype of the constant
+       */
+      ConstantKernel(int type) { super(type); }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % bR[i];
-                                   }
+      /**
+       * Nothing to do; the values are the same for every chunk.
+       *
+       * @param start   first row of the chunk
+       * @param len     number of rows in the chunk
+       * @param missing bitmask of the chunk's missing values
+       */
+      @Override
+      public void evaluate(int start, int len, long[] missing) { }
+   }
 
-                                   break;
+   /**
+    * Kernel of a <code>FunctionNode</code>.
+    */
+   private class FunctionKernel extends Kernel {
 
+      /** the argument. */
+      private final Kernel argument;
 
-                               case POW:
+      /** the argument converted to doubles. */
+      private final double[] arg = new double[CHUNK_SIZE];
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], bR[i]);
-                                   }
+      /** the operation. */
+      private final int operation;
 
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal Expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_DOUBLE:
-                           d = new double[table.getNumRows()];
-                           dL = (double[]) left.evaluate();
-
-                           double[] dR = (double[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + dR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - dR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * dR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / dR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % dR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], dR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_FLOAT:
-                           d = new double[table.getNumRows()];
-                           dL = (double[]) left.evaluate();
-
-                           float[] fR = (float[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + fR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - fR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * fR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / fR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % fR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], fR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_INTEGER:
-                           d = new double[table.getNumRows()];
-                           dL = (double[]) left.evaluate();
-
-                           int[] iR = (int[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
+      /**
+       * Constructor.
+       *
+       * @param operation the operation
+       * @param argument  the argument
+       */
+      FunctionKernel(int operation, Kernel argument) {
+         super(TYPE_DOUBLE);
+         this.operation = operation;
+         this.argument = argument;
+      }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + iR[i];
-                                   }
+      /**
+       * Compute the function over a chunk.
+       *
+       * @param  start   first row of the chunk
+       * @param  len     number of rows in the chunk
+       * @param  missing bitmask of the chunk's missing values
+       *
+       * @throws ExpressionException when the function is not recognized
+       */
+      @Override
+      public void evaluate(int start, int len, long[] missing)
+         throws ExpressionException {
+         argument.evaluate(start, len, missing);
 
-                                   break;
+         double[] a = argument.asDoubles(arg, len);
 
-                               case SUBTRACTION:
+         switch (operation) {
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - iR[i];
-                                   }
+            case LOG_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.log(a[j]) / Math.log(10);
+               }
 
-                               case MULTIPLICATION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * iR[i];
-                                   }
+            case NAT_LOG_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.log(a[j]);
+               }
 
-                               case DIVISION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / iR[i];
-                                   }
+            case SIN_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.sin(a[j]);
+               }
 
-                               case MODULUS:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % iR[i];
-                                   }
+            case COS_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.cos(a[j]);
+               }
 
+               break;
 
-                               case POW:
+            case TAN_OP:
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], iR[i]);
-                                   }
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.tan(a[j]);
+               }
 
-                                   break;
+               break;
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+            case SQRT_OP:
 
-                           return d;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.sqrt(a[j]);
+               }
 
-                       case TYPE_LONG:
-                           d = new double[table.getNumRows()];
-                           dL = (double[]) left.evaluate();
+               break;
 
-                           long[] lR = (long[]) right.evaluate();
+            case ABS_OP:
 
-                           switch (type) {
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.abs(a[j]);
+               }
 
-                               case ADDITION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + lR[i];
-                                   }
+            case EXP_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.exp(a[j]);
+               }
 
-                               case SUBTRACTION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - lR[i];
-                                   }
+            case ASIN_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.asin(a[j]);
+               }
 
-                               case MULTIPLICATION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * lR[i];
-                                   }
+            case ACOS_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.acos(a[j]);
+               }
 
-                               case DIVISION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / lR[i];
-                                   }
+            case ATAN_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.atan(a[j]);
+               }
 
-                               case MODULUS:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % lR[i];
-                                   }
+            case NEG_OP:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] * -1;
+               }
 
-                               case POW:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], lR[i]);
-                                   }
+            default:
+               throw new ExpressionException("FunctionNode: Function not recognized.");
+         }
+      } // end method evaluate
 
-                                   break;
+      /**
+       * Prepare the argument.
+       */
+      @Override
+      public void open() { argument.open(); }
+   } // end class FunctionKernel
 
+   /**
+    * Kernel of an <code>OperationNode</code>. Arithmetic is done in the
+    * datatype of the result, or in int for byte and short results, as Java
+    * promotes them, and powers are computed on the operands as doubles.
+    */
+   private class OperationKernel extends Kernel {
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+      /** left child */
+      private final Kernel left;
+      /** right child */
+      private final Kernel right;
 
-                           return d;
+      /** type of operation. */
+      private final int operation;
+
+      /** operands and result widened to the datatype of the arithmetic */
+      private int[] leftInts;
+      private int[] rightInts;
+      private int[] wideInts;
+      private long[] leftLongs;
+      private long[] rightLongs;
+      private float[] leftFloats;
+      private float[] rightFloats;
+      private double[] leftDoubles;
+      private double[] rightDoubles;
 
-                       case TYPE_SHORT:
-                           d = new double[table.getNumRows()];
-                           dL = (double[]) left.evaluate();
+      /**
+       * Constructor.
+       *
+       * @param operation operation type
+       * @param type      datatype of the result
+       * @param left      left hand side
+       * @param right     right hand side
+       */
+      OperationKernel(int operation, int type, Kernel left, Kernel right) {
+         super(type);
+         this.operation = operation;
+         this.left = left;
+         this.right = right;
 
-                           short[] sR = (short[]) right.evaluate();
+         if (operation == POW) {
+            leftDoubles = new double[CHUNK_SIZE];
+            rightDoubles = new double[CHUNK_SIZE];
 
-                           switch (type) {
+            return;
+         }
 
-                               case ADDITION:
+         switch (type) {
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] + sR[i];
-                                   }
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INTEGER:
+               leftInts = new int[CHUNK_SIZE];
+               rightInts = new int[CHUNK_SIZE];
+               wideInts = (type == TYPE_INTEGER) ? ints : new int[CHUNK_SIZE];
 
-                                   break;
+               break;
 
-                               case SUBTRACTION:
+            case TYPE_LONG:
+               leftLongs = new long[CHUNK_SIZE];
+               rightLongs = new long[CHUNK_SIZE];
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] - sR[i];
-                                   }
+               break;
 
-                                   break;
+            case TYPE_FLOAT:
+               leftFloats = new float[CHUNK_SIZE];
+               rightFloats = new float[CHUNK_SIZE];
 
-                               case MULTIPLICATION:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] * sR[i];
-                                   }
+            case TYPE_DOUBLE:
+               leftDoubles = new double[CHUNK_SIZE];
+               rightDoubles = new double[CHUNK_SIZE];
 
-                                   break;
+               break;
+         }
+      }
 
-                               case DIVISION:
+      /**
+       * Compute the operation in doubles.
+       *
+       * @param  len number of rows in the chunk
+       *
+       * @throws ExpressionException when the operation is illegal
+       */
+      private void computeDoubles(int len) throws ExpressionException {
+         double[] a = left.asDoubles(leftDoubles, len);
+         double[] b = right.asDoubles(rightDoubles, len);
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] / sR[i];
-                                   }
+         switch (operation) {
 
-                                   break;
+            case ADDITION:
 
-                               case MODULUS:
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] + b[j];
+               }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = dL[i] % sR[i];
-                                   }
+               break;
 
-                                   break;
+            case SUBTRACTION:
 
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] - b[j];
+               }
 
-                               case POW:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(dL[i], sR[i]);
-                                   }
+            case MULTIPLICATION:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] * b[j];
+               }
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               break;
 
-                           return d;
+            case DIVISION:
 
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] / b[j];
+               }
 
-                   }
+               break;
 
-               case TYPE_FLOAT:
+            case MODULUS:
 
-                   switch (right.returnType) {
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = a[j] % b[j];
+               }
 
-                       case TYPE_BOOLEAN:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
+               break;
 
-                       case TYPE_BYTE:
+            default:
+               throw new ExpressionException("ColumnExpression: Illegal expression.");
+         }
+      } // end method computeDoubles
 
-                           float[] f = new float[table.getNumRows()];
-                           float[] fL = (float[]) left.evaluate();
-                           byte[] bR = (byte[]) right.evaluate();
+      /**
+       * Compute the operation in floats.
+       *
+       * @param  len number of rows in the chunk
+       *
+       * @throws ExpressionException when the operation is illegal
+       */
+      private void computeFloats(int len) throws ExpressionException {
+         float[] a = left.asFloats(leftFloats, len);
+         float[] b = right.asFloats(rightFloats, len);
 
-                           switch (type) {
+         switch (operation) {
 
-                               case ADDITION:
+            case ADDITION:
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] + bR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  floats[j] = a[j] + b[j];
+               }
 
-                                   break;
+               break;
 
-                               case SUBTRACTION:
+            case SUBTRACTION:
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] - bR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  floats[j] = a[j] - b[j];
+               }
 
-                                   break;
+               break;
 
-                               case MULTIPLICATION:
+            case MULTIPLICATION:
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] * bR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  floats[j] = a[j] * b[j];
+               }
 
-                                   break;
+               break;
 
-                               case DIVISION:
+            case DIVISION:
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] / bR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  floats[j] = a[j] / b[j];
+               }
 
-                                   break;
+               break;
 
-                               case MODULUS:
+            case MODULUS:
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] % bR[i];
-                                   }
+               for (int j = 0; j < len; j++) {
+                  floats[j] = a[j] % b[j];
+               }
 
-                                   break;
+               break;
 
+            default:
+               throw new ExpressionException("ColumnExpression: Illegal expression.");
+         }
+      } // end method computeFloats
 
-                               case POW:
+      /**
+       * Compute the operation in ints, narrowing the result for byte and short
+       * kernels.
+       *
+       * @param  len number of rows in the chunk
+       *
+       * @throws ExpressionException when the operation is illegal
+       */
+      private void computeInts(int len) throws ExpressionException {
+         int[] a = left.asInts(leftInts, len);
+         int[] b = right.asInts(rightInts, len);
+         int[] c = wideInts;
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(fL[i], bR[i]);
-                                   }
+         switch (operation) {
 
-                                   break;
+            case ADDITION:
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal Expression.");
-                           }
+               for (int j = 0; j < len; j++) {
+                  c[j] = a[j] + b[j];
+               }
 
-                           return f;
+               break;
 
-                       case TYPE_DOUBLE:
+            case SUBTRACTION:
 
-                           double[] d = new double[table.getNumRows()];
-                           fL = (float[]) left.evaluate();
+               for (int j = 0; j < len; j++) {
+                  c[j] = a[j] - b[j];
+               }
 
-                           double[] dR = (double[]) right.evaluate();
+               break;
 
-                           switch (type) {
+            case MULTIPLICATION:
 
-                               case ADDITION:
+               for (int j = 0; j < len; j++) {
+                  c[j] = a[j] * b[j];
+               }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = fL[i] + dR[i];
-                                   }
+               break;
 
-                                   break;
+            case DIVISION:
 
-                               case SUBTRACTION:
+               for (int j = 0; j < len; j++) {
+                  c[j] = a[j] / b[j];
+               }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = fL[i] - dR[i];
-                                   }
+               break;
 
-                                   break;
+            case MODULUS:
 
-                               case MULTIPLICATION:
+               for (int j = 0; j < len; j++) {
+                  c[j] = a[j] % b[j];
+               }
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = fL[i] * dR[i];
-                                   }
+               break;
 
-                                   break;
+            default:
+               throw new ExpressionException("ColumnExpression: Illegal expression.");
+         }
 
-                               case DIVISION:
+         if (type == TYPE_BYTE) {
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = fL[i] / dR[i];
-                                   }
+            for (int j = 0; j < len; j++) {
+               bytes[j] = (byte) c[j];
+            }
+         } else if (type == TYPE_SHORT) {
 
-                                   break;
+            for (int j = 0; j < len; j++) {
+               shorts[j] = (short) c[j];
+            }
+         }
+      } // end method computeInts
 
-                               case MODULUS:
+      /**
+       * Compute the operation in longs.
+       *
+       * @param  len number of rows in the chunk
+       *
+       * @throws ExpressionException when the operation is illegal
+       */
+      private void computeLongs(int len) throws ExpressionException {
+         long[] a = left.asLongs(leftLongs, len);
+         long[] b = right.asLongs(rightLongs, len);
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = fL[i] % dR[i];
-                                   }
+         switch (operation) {
 
-                                   break;
+            case ADDITION:
 
+               for (int j = 0; j < len; j++) {
+                  longs[j] = a[j] + b[j];
+               }
 
-                               case POW:
+               break;
 
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(fL[i], dR[i]);
-                                   }
+            case SUBTRACTION:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  longs[j] = a[j] - b[j];
+               }
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               break;
 
-                           return d;
+            case MULTIPLICATION:
 
-                       case TYPE_FLOAT:
-                           f = new float[table.getNumRows()];
-                           fL = (float[]) left.evaluate();
+               for (int j = 0; j < len; j++) {
+                  longs[j] = a[j] * b[j];
+               }
 
-                           float[] fR = (float[]) right.evaluate();
+               break;
 
-                           switch (type) {
+            case DIVISION:
 
-                               case ADDITION:
+               for (int j = 0; j < len; j++) {
+                  longs[j] = a[j] / b[j];
+               }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] + fR[i];
-                                   }
+               break;
 
-                                   break;
+            case MODULUS:
 
-                               case SUBTRACTION:
+               for (int j = 0; j < len; j++) {
+                  longs[j] = a[j] % b[j];
+               }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] - fR[i];
-                                   }
+               break;
 
-                                   break;
+            default:
+               throw new ExpressionException("ColumnExpression: Illegal expression.");
+         }
+      } // end method computeLongs
 
-                               case MULTIPLICATION:
+      /**
+       * Raise the left operand to the power of the right one.
+       *
+       * @param len number of rows in the chunk
+       */
+      private void computePowers(int len) {
+         double[] a = left.asDoubles(leftDoubles, len);
+         double[] b = right.asDoubles(rightDoubles, len);
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] * fR[i];
-                                   }
+         switch (type) {
 
-                                   break;
+            case TYPE_BYTE:
 
-                               case DIVISION:
+               for (int j = 0; j < len; j++) {
+                  bytes[j] = (byte) Math.pow(a[j], b[j]);
+               }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] / fR[i];
-                                   }
+               break;
 
-                                   break;
+            case TYPE_SHORT:
 
-                               case MODULUS:
+               for (int j = 0; j < len; j++) {
+                  shorts[j] = (short) Math.pow(a[j], b[j]);
+               }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] % fR[i];
-                                   }
+               break;
 
-                                   break;
+            case TYPE_INTEGER:
 
+               for (int j = 0; j < len; j++) {
+                  ints[j] = (int) Math.pow(a[j], b[j]);
+               }
 
-                               case POW:
+               break;
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(fL[i], fR[i]);
-                                   }
+            case TYPE_LONG:
 
-                                   break;
+               for (int j = 0; j < len; j++) {
+                  longs[j] = (long) Math.pow(a[j], b[j]);
+               }
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               break;
 
-                           return f;
+            case TYPE_FLOAT:
 
-                       case TYPE_INTEGER:
-                           f = new float[table.getNumRows()];
-                           fL = (float[]) left.evaluate();
+               for (int j = 0; j < len; j++) {
+                  floats[j] = (float) Math.pow(a[j], b[j]);
+               }
 
-                           int[] iR = (int[]) right.evaluate();
+               break;
 
-                           switch (type) {
+            case TYPE_DOUBLE:
 
-                               case ADDITION:
+               for (int j = 0; j < len; j++) {
+                  doubles[j] = Math.pow(a[j], b[j]);
+               }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] + iR[i];
-                                   }
+               break;
+         }
+      } // end method computePowers
 
-                                   break;
+      /**
+       * Compute the operation over a chunk.
+       *
+       * @param  start   first row of the chunk
+       * @param  len     number of rows in the chunk
+       * @param  missing bitmask of the chunk's missing values
+       *
+       * @throws ExpressionException when the operation is illegal
+       */
+      @Override
+      public void evaluate(int start, int len, long[] missing)
+         throws ExpressionException {
+         left.evaluate(start, len, missing);
+         right.evaluate(start, len, missing);
 
-                               case SUBTRACTION:
+         if (type == TYPE_BOOLEAN) {
+            boolean[] a = left.booleans;
+            boolean[] b = right.booleans;
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] - iR[i];
-                                   }
+            switch (operation) {
 
-                                   break;
+               case AND:
 
-                               case MULTIPLICATION:
+                  for (int j = 0; j < len; j++) {
+                     booleans[j] = a[j] && b[j];
+                  }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] * iR[i];
-                                   }
+                  break;
 
-                                   break;
+               case OR:
 
-                               case DIVISION:
+                  for (int j = 0; j < len; j++) {
+                     booleans[j] = a[j] || b[j];
+                  }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] / iR[i];
-                                   }
+                  break;
 
-                                   break;
+               default:
+                  throw new ExpressionException("ColumnExpression: Illegal expression.");
+            }
 
-                               case MODULUS:
+            return;
+         }
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] % iR[i];
-                                   }
+         if (operation == POW) {
+            computePowers(len);
 
-                                   break;
+            return;
+         }
 
+         switch (type) {
 
-                               case POW:
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INTEGER:
+               computeInts(len);
 
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(fL[i], iR[i]);
-                                   }
+               break;
 
-                                   break;
+            case TYPE_LONG:
+               computeLongs(len);
 
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
+               break;
 
-                           return f;
+            case TYPE_FLOAT:
+               computeFloats(len);
 
-                       case TYPE_LONG:
-                           d = new double[table.getNumRows()];
-                           fL = (float[]) left.evaluate();
+               break;
 
-                           long[] lR = (long[]) right.evaluate();
+            case TYPE_DOUBLE:
+               computeDoubles(len);
 
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = (double) fL[i] + (double) lR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = (double) fL[i] - (double) lR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = (double) fL[i] * (double) lR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = (double) fL[i] / (double) lR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = (double) fL[i] % (double) lR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(fL[i], lR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_SHORT:
-                           f = new float[table.getNumRows()];
-                           fL = (float[]) left.evaluate();
-
-                           short[] sR = (short[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] + sR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] - sR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] * sR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] / sR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = fL[i] % sR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(fL[i], sR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return f;
-
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
-
-                   }
-
-               case TYPE_INTEGER:
-
-                   switch (right.returnType) {
-
-                       case TYPE_BOOLEAN:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
-
-                       case TYPE_BYTE:
-
-                           int[] I = new int[table.getNumRows()];
-                           int[] iL = (int[]) left.evaluate();
-                           byte[] bR = (byte[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] + bR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] - bR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] * bR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] / bR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] % bR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = (int) Math.pow(iL[i], bR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal Expression.");
-                           }
-
-                           return I;
-
-                       case TYPE_DOUBLE:
-
-                           double[] d = new double[table.getNumRows()];
-                           iL = (int[]) left.evaluate();
-
-                           double[] dR = (double[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = iL[i] + dR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = iL[i] - dR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = iL[i] * dR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = iL[i] / dR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = iL[i] % dR[i];
-                                   }
-
-                                   break;
-
-                               case POW:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(iL[i], dR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_FLOAT:
-
-                           float[] f = new float[table.getNumRows()];
-                           iL = (int[]) left.evaluate();
-
-                           float[] fR = (float[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = iL[i] + fR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = iL[i] - fR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = iL[i] * fR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = iL[i] / fR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = iL[i] % fR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(iL[i], fR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return f;
-
-                       case TYPE_INTEGER:
-                           I = new int[table.getNumRows()];
-                           iL = (int[]) left.evaluate();
-
-                           int[] iR = (int[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] + iR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] - iR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] * iR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] / iR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] % iR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = (int) Math.pow(iL[i], iR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return I;
-
-                       case TYPE_LONG:
-
-                           long[] l = new long[table.getNumRows()];
-                           iL = (int[]) left.evaluate();
-
-                           long[] lR = (long[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = iL[i] + lR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = iL[i] - lR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = iL[i] * lR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = iL[i] / lR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = iL[i] % lR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = (long) Math.pow(iL[i], lR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return l;
-
-                       case TYPE_SHORT:
-                           I = new int[table.getNumRows()];
-                           iL = (int[]) left.evaluate();
-
-                           short[] sR = (short[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] + sR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] - sR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] * sR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] / sR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = iL[i] % sR[i];
-                                   }
-
-                                   break;
-
-                               case POW:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = (int) Math.pow(iL[i], sR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return I;
-
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
-
-                   }
-
-               case TYPE_SHORT:
-
-                   switch (right.returnType) {
-
-                       case TYPE_BOOLEAN:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
-
-                       case TYPE_BYTE:
-
-                           short[] s = new short[table.getNumRows()];
-                           short[] sL = (short[]) left.evaluate();
-                           byte[] bR = (byte[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] + bR[i]);
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] - bR[i]);
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] * bR[i]);
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] / bR[i]);
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] % bR[i]);
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) Math.pow(sL[i], bR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return s;
-
-                       case TYPE_DOUBLE:
-
-                           double[] d = new double[table.getNumRows()];
-                           sL = (short[]) left.evaluate();
-
-                           double[] dR = (double[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = sL[i] + dR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = sL[i] - dR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = sL[i] * dR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = sL[i] / dR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = sL[i] % dR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < d.length; i++) {
-                                       d[i] = Math.pow(sL[i], dR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return d;
-
-                       case TYPE_FLOAT:
-
-                           float[] f = new float[table.getNumRows()];
-                           sL = (short[]) left.evaluate();
-
-                           float[] fR = (float[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = sL[i] + fR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = sL[i] - fR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = sL[i] * fR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = sL[i] / fR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = sL[i] % fR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < f.length; i++) {
-                                       f[i] = (float) Math.pow(sL[i], fR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return f;
-
-                       case TYPE_INTEGER:
-
-                           int[] I = new int[table.getNumRows()];
-                           sL = (short[]) left.evaluate();
-
-                           int[] iR = (int[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = sL[i] + iR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = sL[i] - iR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = sL[i] * iR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = sL[i] / iR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = sL[i] % iR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < I.length; i++) {
-                                       I[i] = (int) Math.pow(sL[i], iR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return I;
-
-                       case TYPE_LONG:
-
-                           long[] l = new long[table.getNumRows()];
-                           sL = (short[]) left.evaluate();
-
-                           long[] lR = (long[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = sL[i] + lR[i];
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = sL[i] - lR[i];
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = sL[i] * lR[i];
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = sL[i] / lR[i];
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = sL[i] % lR[i];
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < l.length; i++) {
-                                       l[i] = (long) Math.pow(sL[i], lR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return l;
-
-                       case TYPE_SHORT:
-                           s = new short[table.getNumRows()];
-                           sL = (short[]) left.evaluate();
-
-                           short[] sR = (short[]) right.evaluate();
-
-                           switch (type) {
-
-                               case ADDITION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] + sR[i]);
-                                   }
-
-                                   break;
-
-                               case SUBTRACTION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] - sR[i]);
-                                   }
-
-                                   break;
-
-                               case MULTIPLICATION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] * sR[i]);
-                                   }
-
-                                   break;
-
-                               case DIVISION:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] / sR[i]);
-                                   }
-
-                                   break;
-
-                               case MODULUS:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) (sL[i] % sR[i]);
-                                   }
-
-                                   break;
-
-
-                               case POW:
-
-                                   for (int i = 0; i < s.length; i++) {
-                                       s[i] = (short) Math.pow(sL[i], sR[i]);
-                                   }
-
-                                   break;
-
-                               default:
-                                   throw new ExpressionException("ColumnExpression: Illegal expression.");
-                           }
-
-                           return s;
-
-                       default:
-                           throw new ExpressionException("ColumnExpression: Illegal expression.");
-
-                   } // switch(right return type)
-
-           } // switch(left return type)
-
-           throw new ExpressionException("ColumnExpression: apparently malformed expression.");
-           // return null;
-
-       } // evaluate
-
-      /**
-       * Format contents nicely.
-       *
-       * @return String description of this
-       */
-      @Override
-    public String toString() {
-
-         StringBuffer buffer = new StringBuffer();
-
-         if (left instanceof OperationNode) {
-            buffer.append('(');
-            buffer.append(left);
-            buffer.append(')');
-         } else {
-            buffer.append(left);
-         }
-
-         buffer.append(' ');
-
-         switch (type) {
-
-            case ADDITION:
-               buffer.append('+');
-
-               break;
-
-            case SUBTRACTION:
-               buffer.append('-');
-
-               break;
-
-            case MULTIPLICATION:
-               buffer.append('*');
-
-               break;
-
-            case DIVISION:
-               buffer.append('/');
-
-               break;
-
-            case MODULUS:
-               buffer.append('%');
-
-               break;
-
-            case AND:
-               buffer.append("&&");
-
-               break;
-
-            case OR:
-               buffer.append("||");
-
-               break;
-
-            // vered - merging updates form basic3
-            case POW:
-               buffer.append("^");
-
-               break;
-               // vered - end merging
-
-         }
-
-         buffer.append(' ');
-
-         if (right instanceof OperationNode) {
-            buffer.append('(');
-            buffer.append(right);
-            buffer.append(')');
-         } else {
-            buffer.append(right);
-         }
-
-         return buffer.toString();
-
-      } // end method toString
-
-      ////////////////////////////////////////////////////////////////////////////////
-      // end operation evaluation
-      // //
-      ////////////////////////////////////////////////////////////////////////////////
-
-   } // end class OperationNode
-
-   /**
-    * A node that is not an operation.
-    *
-    * @author  $Author: clutter $
-    * @version $Revision: 1.8 $, $Date: 2006/09/01 18:53:48 $
-    */
-   private class TerminalNode extends Node {
-      /** column index */
-      private int column;
-      private final int myownflag;
-       /** scalar value */
-      private float myownscalarvalue;
-       /** non-scalar value */
-      private String myValue;
-
-      /**
-       * Constructor.
-       *
-       * @param  myownflag        flag
-       * @param  column           column index
-       * @param  myownscalarvalue scalar value
-       *
-       * @throws ExpressionException when something goes wrong
-       */
-      public TerminalNode(int myownflag, int column, float myownscalarvalue)
-         throws ExpressionException {
-
-         this.myownflag = myownflag;
-
-         if (myownflag == 0) {
-            this.column = column;
-
-            if (column < table.getNumColumns()) { // in table
-
-               switch (table.getColumnType(column)) {
-
-                  case ColumnTypes.BOOLEAN:
-                     returnType = TYPE_BOOLEAN;
-
-                     break;
-
-                  case ColumnTypes.BYTE:
-                     returnType = TYPE_BYTE;
-
-                     break;
-
-                  case ColumnTypes.DOUBLE:
-                     returnType = TYPE_DOUBLE;
-
-                     break;
-
-                  case ColumnTypes.FLOAT:
-                     returnType = TYPE_FLOAT;
-
-                     break;
-
-                  case ColumnTypes.INTEGER:
-                     returnType = TYPE_INTEGER;
-
-                     break;
-
-                  case ColumnTypes.LONG:
-                     returnType = TYPE_LONG;
-
-                     break;
-
-                  case ColumnTypes.SHORT:
-                     returnType = TYPE_SHORT;
-
-                     break;
-
-                  default:
-                     throw new ExpressionException("ColumnExpression supports only numeric and boolean columns.");
-               }
-
-            } else { // in array passed to setLazyExpression
-
-               returnType =
-                  ((Integer) extraColumnIndexToType.get(new Integer(column)))
-                     .intValue();
-
-            }
-         } else {
-            returnType = TYPE_FLOAT;
-            this.myownscalarvalue = myownscalarvalue;
-         }
-      }
-
-      /**
-       * Creates a new TerminalNode object.
-       *
-       * @param  myownflag  flag
-       * @param  expression expression
-       * @param  tempFloat  float (not used)
-       *
-       * @throws ExpressionException TerminalNode constructor for solo String
-       *                             values
-       */
-      public TerminalNode(int myownflag, String expression, float tempFloat)
-         throws ExpressionException {
-
-         this.myownflag = myownflag;
-         myValue = expression;
-         returnType = TYPE_STRING;
-
-      }
-
-      /**
-       * evaluate this node.
-       *
-       * @return array containing evaluation results
-       *
-       * @throws ExpressionException when something goes wrong
-       */
-      @Override
-    public Object evaluate() throws ExpressionException {
-
-         if (myownflag == 0) {
-
-            switch (returnType) {
-
-               case TYPE_BOOLEAN:
-
-                  boolean[] b = new boolean[table.getNumRows()];
-
-                  for (int i = 0; i < b.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     b[i] = table.getBoolean(i, column);
-                  }
-
-                  return b;
-
-               case TYPE_BYTE:
-
-                  byte[] bb = new byte[table.getNumRows()];
-
-                  for (int i = 0; i < bb.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     bb[i] = table.getByte(i, column);
-                  }
-
-                  return bb;
-
-               case TYPE_DOUBLE:
-
-                  double[] d = new double[table.getNumRows()];
-
-                  for (int i = 0; i < d.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     d[i] = table.getDouble(i, column);
-                  }
-
-                  return d;
-
-               case TYPE_FLOAT:
-
-                  float[] f = new float[table.getNumRows()];
-
-                  for (int i = 0; i < f.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     f[i] = table.getFloat(i, column);
-                  }
-
-                  return f;
-
-               case TYPE_INTEGER:
-
-                  int[] I = new int[table.getNumRows()];
-
-                  for (int i = 0; i < I.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     I[i] = table.getInt(i, column);
-                  }
-
-                  return I;
-
-               case TYPE_LONG:
-
-                  long[] l = new long[table.getNumRows()];
-
-                  for (int i = 0; i < l.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     l[i] = table.getLong(i, column);
-                  }
-
-                  return l;
-
-               case TYPE_SHORT:
-
-                  short[] s = new short[table.getNumRows()];
-
-                  for (int i = 0; i < s.length; i++) {
-
-                     if (table.isValueMissing(i, column)) {
-                        missingValues[i] = true;
-                     }
-
-                     s[i] = table.getShort(i, column);
-                  }
-
-                  return s;
-
-               default:
-                  throw new ExpressionException("There has been an error in ColumnExpression. Double-check your expression.");
-
-            }
-
-         } else if (myownflag == 1) {
-            float[] myf = new float[table.getNumRows()];
-
-            for (int i = 0; i < myf.length; i++) {
-               myf[i] = myownscalarvalue;
-            }
-
-            return myf;
-         } else {
-            String[] p = new String[table.getNumRows()];
-
-            for (int i = 0; i < p.length; i++) {
-               p[i] = myValue;
-            }
-
-            return p;
-
-         }
-
-      } // end method evaluate
+               break;
+         }
+      } // end method evaluate
 
       /**
-       * Format description nicely.
-       *
-       * @return description
+       * Prepare the children.
        */
       @Override
-    public String toString() {
-
-         if (myownflag == 0) {
-
-            if (column >= table.getNumColumns()) {
-               return "NEW";
-            }
-
-            return table.getColumnLabel(column);
-         } else {
-            return (Float.toString(myownscalarvalue));
-         }
+      public void open() {
+         left.open();
+         right.open();
       }
-   } // end class TerminalNode
+   } // end class OperationKernel
 } // ColumnExpression
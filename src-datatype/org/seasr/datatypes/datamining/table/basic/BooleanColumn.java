@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -73,12 +74,12 @@ public class BooleanColumn extends MissingValuesColumn {
 
     //~ Instance fields *********************************************************
 
-    /** Stores empty rows of the column. */
-    private boolean[] empty = null;
-
     /** Holds the internal data representation. */
     private boolean[] internal = null;
 
+    /** Number of rows in use; the arrays may have room for more. */
+    private transient int size;
+
     private static Logger _logger = Logger.getLogger("BooleanColumn");
 
     //~ Constructors ************************************************************
@@ -97,12 +98,13 @@ public class BooleanColumn extends MissingValuesColumn {
      * @param lbl  Labels for the column
      * @param comm Comment for the column
      */
-    private BooleanColumn(boolean[] vals, boolean[] miss, boolean[] emp,
+    private BooleanColumn(boolean[] vals, RowMask miss, RowMask emp,
             String lbl, String comm) {
         setIsNominal(true);
         type = ColumnTypes.BOOLEAN;
         internal = vals;
-        setMissingValues(miss);
+        size = internal.length;
+        missing = miss;
         empty = emp;
         setLabel(lbl);
         setComment(comm);
@@ -115,16 +117,9 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public BooleanColumn(int capacity) {
         internal = new boolean[capacity];
+        size = internal.length;
         setIsNominal(true);
         type = ColumnTypes.BOOLEAN;
-
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     /**
@@ -134,16 +129,9 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public BooleanColumn(boolean[] vals) {
         internal = vals;
+        size = internal.length;
         setIsNominal(true);
         type = ColumnTypes.BOOLEAN;
-
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     //~ Methods *****************************************************************
@@ -271,18 +259,9 @@ public class BooleanColumn extends MissingValuesColumn {
      * @param newEntry A new entry
      */
     public void addRow(Object newEntry) {
-        int last = internal.length;
-        boolean[] newInternal = new boolean[internal.length + 1];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        newInternal[last] = ((Boolean) newEntry).booleanValue();
-
-        internal = newInternal;
-        missing = newMissing;
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        internal[size] = ((Boolean) newEntry).booleanValue();
+        size++;
     }
 
     /**
@@ -291,17 +270,8 @@ public class BooleanColumn extends MissingValuesColumn {
      * @param number Number of rows to add.
      */
     public void addRows(int number) {
-        int last = internal.length;
-        boolean[] newInternal = new boolean[last + number];
-        boolean[] newMissing = new boolean[last + number];
-        boolean[] newEmpty = new boolean[last + number];
-
-        System.arraycopy(internal, 0, newInternal, 0, last);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        internal = newInternal;
-        missing = newMissing;
-        empty = newEmpty;
+        ensureCapacity(size + number);
+        size += number;
     }
 
     /**
@@ -381,17 +351,9 @@ public class BooleanColumn extends MissingValuesColumn {
                 newVals[i] = getBoolean(i);
             }
 
-            boolean[] miss = new boolean[internal.length];
-            boolean[] em = new boolean[internal.length];
-
-            for (int i = 0; i < internal.length; i++) {
-                miss[i] = missing[i];
-                em[i] = empty[i];
-
-            }
-
             newCol =
-                new BooleanColumn(newVals, miss, em, getLabel(), getComment());
+                new BooleanColumn(newVals, copyOf(missing), copyOf(empty),
+                        getLabel(), getComment());
 
             return newCol;
         }
@@ -523,7 +485,11 @@ public class BooleanColumn extends MissingValuesColumn {
      *
      * @return Internal representation of the data
      */
-    public Object getInternal() { return internal; }
+    public Object getInternal() {
+        trimToSize();
+
+        return internal;
+    }
 
     /**
      * Returns 1 if the value at <code>pos</code> is <code>true</code>, 0
@@ -552,7 +518,7 @@ public class BooleanColumn extends MissingValuesColumn {
     public int getNumEntries() {
         int ctr = 0;
 
-        for (int i = 0; i < internal.length; i++) {
+        for (int i = 0; i < size; i++) {
 
             if (!isValueMissing(i) && !isValueEmpty(i)) {
                 ctr++;
@@ -568,7 +534,7 @@ public class BooleanColumn extends MissingValuesColumn {
      *
      * @return Number of rows in this <code>Column</code>
      */
-    public int getNumRows() { return internal.length; }
+    public int getNumRows() { return size; }
 
     /**
      * Return the value at <code>pos</code> as a <code>Boolean</code>.
@@ -628,25 +594,14 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public Column getSubset(int[] rows) {
         boolean[] subset = new boolean[rows.length];
-        boolean[] newMissing = new boolean[rows.length];
-        boolean[] newEmpty = new boolean[rows.length];
-        int t = 0;
 
         for (int i = 0; i < rows.length; i++) {
             subset[i] = internal[rows[i]];
-            newMissing[i] = missing[rows[i]];
-
-            if (missing[rows[i]]) {
-                t++;
-            }
-
-            newEmpty[i] = empty[rows[i]];
         }
 
         BooleanColumn bc =
-            new BooleanColumn(subset, newMissing, newEmpty, getLabel(),
-                    getComment());
-        bc.numMissingValues = t;
+            new BooleanColumn(subset, subsetOf(missing, rows),
+                    subsetOf(empty, rows), getLabel(), getComment());
 
         return bc;
     }
@@ -668,30 +623,16 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public Column getSubset(int pos, int len) {
 
-        if ((pos + len) > internal.length) {
+        if ((pos + len) > size) {
             throw new ArrayIndexOutOfBoundsException();
         }
 
         boolean[] subset = new boolean[len];
-        boolean[] newMissing = new boolean[len];
-        boolean[] newEmpty = new boolean[len];
         System.arraycopy(internal, pos, subset, 0, len);
-        System.arraycopy(missing, pos, newMissing, 0, len);
-        System.arraycopy(empty, pos, newEmpty, 0, len);
 
         BooleanColumn bc =
-            new BooleanColumn(subset, newMissing, newEmpty, getLabel(),
-                    getComment());
-        int t = 0;
-
-        for (int i = pos; i < len; i++) {
-
-            if (missing[i]) {
-                t++;
-            }
-        }
-
-        bc.numMissingValues = t;
+            new BooleanColumn(subset, subsetOf(missing, pos, len),
+                    subsetOf(empty, pos, len), getLabel(), getComment());
 
         return bc;
     } // end method getSubset
@@ -715,45 +656,13 @@ public class BooleanColumn extends MissingValuesColumn {
             return;
         }
 
-        boolean[] newInternal = new boolean[internal.length + 1];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-
-        if (pos == 0) {
-            System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-            System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-            System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-        } else {
-            System.arraycopy(internal, 0, newInternal, 0, pos);
-            System.arraycopy(internal, pos, newInternal, pos + 1,
-                    internal.length -
-                    pos);
-
-            System.arraycopy(missing, 0, newMissing, 0, pos);
-            System.arraycopy(missing, pos, newMissing, pos + 1,
-                    internal.length -
-                    pos);
-
-            System.arraycopy(empty, 0, newEmpty, 0, pos);
-            System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                    pos);
-        }
-
-        newInternal[pos] = ((Boolean) newEntry).booleanValue();
-        internal = newInternal;
-        missing = newMissing;
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+        insertFlags(pos);
+        internal[pos] = ((Boolean) newEntry).booleanValue();
+        size++;
     } // end method insertRow
 
-    /**
-     * Tests if the value at <code>row</code> is empty.
-     *
-     * @param  row Row to test for empty status
-     *
-     * @return Whether or not the row is empty
-     */
-    public boolean isValueEmpty(int row) { return empty[row]; }
-
     /**
      * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
      * entries from <code>pos</code>+1 will be moved back 1 position.
@@ -766,32 +675,10 @@ public class BooleanColumn extends MissingValuesColumn {
     public Object removeRow(int pos) {
         boolean removed = internal[pos];
 
-        // copy all the items after the item to be removed one position up
-        System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                (pos + 1));
-
-        // If the row is missing reduce our count.
-        if (missing[pos]) {
-            this.numMissingValues--;
-        }
-
-        System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                (pos + 1));
-
-        System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                (pos + 1));
-
-        // copy the items into a new array
-        boolean[] newInternal = new boolean[internal.length - 1];
-        boolean[] newMissing = new boolean[internal.length - 1];
-        boolean[] newEmpty = new boolean[internal.length - 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-        System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-        System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-
-        internal = newInternal;
-        missing = newMissing;
-        empty = newEmpty;
+        System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+        removeFlags(pos);
+        size--;
+        internal[size] = false;
 
         return new Boolean(removed);
     } // end method removeRow
@@ -803,34 +690,25 @@ public class BooleanColumn extends MissingValuesColumn {
      * @param indices The <code>int</code> array of remove indices
      */
     public void removeRowsByIndex(int[] indices) {
-        HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+        RowMask toRemove = new RowMask();
 
         for (int i = 0; i < indices.length; i++) {
-            Integer id = new Integer(indices[i]);
-            toRemove.add(id);
+            toRemove.set(indices[i], true);
         }
 
-        boolean[] newInternal = new boolean[internal.length - indices.length];
-        boolean[] newMissing = new boolean[internal.length - indices.length];
-        boolean[] newEmpty = new boolean[internal.length - indices.length];
-
-        int newIntIdx = 0;
+        int newSize = 0;
 
-        for (int i = 0; i < getNumRows(); i++) {
+        for (int i = 0; i < size; i++) {
 
-            if (!toRemove.contains(new Integer(i))) {
-                newInternal[newIntIdx] = internal[i];
-                newMissing[newIntIdx] = missing[i];
-                newEmpty[newIntIdx] = empty[i];
-                newIntIdx++;
-            } else if (missing[i]) {
-                this.numMissingValues--;
+            if (!toRemove.get(i)) {
+                internal[newSize] = internal[i];
+                newSize++;
             }
         }
 
-        internal = newInternal;
-        missing = newMissing;
-        empty = newEmpty;
+        Arrays.fill(internal, newSize, size, false);
+        removeFlags(toRemove);
+        size = newSize;
     } // end method removeRowsByIndex
 
     /**
@@ -848,26 +726,20 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public Column reorderRows(int[] newOrder) {
         boolean[] newInternal = null;
-        boolean[] newMissing = null;
-        boolean[] newEmpty = null;
 
-        if (newOrder.length == internal.length) {
-            newInternal = new boolean[internal.length];
-            newMissing = new boolean[internal.length];
-            newEmpty = new boolean[internal.length];
+        if (newOrder.length == size) {
+            newInternal = new boolean[size];
 
-            for (int i = 0; i < internal.length; i++) {
+            for (int i = 0; i < size; i++) {
                 newInternal[i] = internal[newOrder[i]];
-                newMissing[i] = missing[newOrder[i]];
-                newEmpty[i] = empty[newOrder[i]];
             }
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
 
         BooleanColumn bc =
-            new BooleanColumn(newInternal, newMissing, newEmpty, getLabel(),
-                    getComment());
+            new BooleanColumn(newInternal, subsetOf(missing, newOrder),
+                    subsetOf(empty, newOrder), getLabel(), getComment());
 
         return bc;
     }
@@ -1013,26 +885,14 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public void setNumRows(int newCapacity) {
 
-        if (internal != null) {
-            boolean[] newInternal = new boolean[newCapacity];
-            boolean[] newMissing = new boolean[newCapacity];
-            boolean[] newEmpty = new boolean[newCapacity];
-
-            if (newCapacity > internal.length) {
-                newCapacity = internal.length;
-            }
-
-            System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-            System.arraycopy(missing, 0, newMissing, 0, missing.length);
-            System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-            internal = newInternal;
-            missing = newMissing;
-            empty = newEmpty;
+        if (newCapacity < size) {
+            Arrays.fill(internal, newCapacity, size, false);
+            clearFlags(newCapacity);
         } else {
-            internal = new boolean[newCapacity];
-            missing = new boolean[newCapacity];
-            empty = new boolean[newCapacity];
+            ensureCapacity(newCapacity);
         }
+
+        size = newCapacity;
     }
 
     /**
@@ -1093,15 +953,6 @@ public class BooleanColumn extends MissingValuesColumn {
         internal[pos] = new Boolean(newEntry).booleanValue();
     }
 
-    /**
-     * Sets the value of <code>row</code> to <code>b</code> which should be
-     * false.
-     *
-     * @param b   Should be true
-     * @param row Row to se to empty
-     */
-    public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
 
     /**
      * Sorts the items in this column.
@@ -1117,7 +968,7 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     @Override
     public void sort(MutableTable t, SortMode sortMode) {
-        internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+        internal = doSort(internal, 0, size - 1, t, sortMode);
     }
 
     /**
@@ -1134,9 +985,9 @@ public class BooleanColumn extends MissingValuesColumn {
     @Override
     public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-        if (end > internal.length - 1) {
+        if (end > size - 1) {
             _logger.severe(" end index was out of bounds");
-            end = internal.length - 1;
+            end = size - 1;
         }
 
         internal = doSort(internal, begin, end, t, sortMode);
@@ -1150,16 +1001,70 @@ public class BooleanColumn extends MissingValuesColumn {
      */
     public void swapRows(int pos1, int pos2) {
         boolean d1 = internal[pos1];
-        boolean miss = missing[pos1];
-        boolean emp = empty[pos1];
         internal[pos1] = internal[pos2];
         internal[pos2] = d1;
 
-        missing[pos1] = missing[pos2];
-        missing[pos2] = miss;
+        swapFlags(pos1, pos2);
+    }
+
+    /**
+     * Trims the capacity of this <code>Column</code> to its number of rows.
+     */
+    @Override
+    public void trimToSize() {
 
-        empty[pos1] = empty[pos2];
-        empty[pos2] = emp;
+        if (internal.length != size) {
+            resize(size);
+        }
     }
 
+    /**
+     * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+     * geometrically, so that appending rows one at a time is amortized O(1).
+     *
+     * @param minCapacity Number of rows to make room for
+     */
+    private void ensureCapacity(int minCapacity) {
+
+        if (minCapacity > internal.length) {
+            resize(newCapacity(internal.length, minCapacity));
+        }
+    }
+
+    /**
+     * Reallocates the arrays holding the rows with the given capacity.
+     *
+     * @param capacity The new capacity, at least the number of rows
+     */
+    private void resize(int capacity) {
+        boolean[] newInternal = new boolean[capacity];
+        System.arraycopy(internal, 0, newInternal, 0, size);
+        internal = newInternal;
+    }
+
+    /**
+     * Drops the spare capacity before serialization, so that the serialized
+     * form only holds the rows.
+     *
+     * @return This column
+     */
+    private Object writeReplace() {
+        trimToSize();
+
+        return this;
+    }
+
+    /**
+     * Restores the number of rows after deserialization.
+     *
+     * @param  in The stream to read from
+     *
+     * @throws IOException            If the column cannot be read
+     * @throws ClassNotFoundException If a class of the column cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException,
+                ClassNotFoundException {
+        in.defaultReadObject();
+        size = internal.length;
+    }
 } // end class BooleanColumn
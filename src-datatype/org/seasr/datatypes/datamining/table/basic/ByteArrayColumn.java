@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -82,12 +83,12 @@ implements TextualColumn {
 
     //~ Instance fields *********************************************************
 
-    /** Stores empty rows of the column. */
-    private boolean[] empty = null;
-
     /** Holds the internal representation of the column. */
     private byte[][] internal = null;
 
+    /** Number of rows in use; the arrays may have room for more. */
+    private transient int size;
+
     private static Logger _logger = Logger.getLogger("ByteArrayColumn");
 
     //~ Constructors ************************************************************
@@ -106,12 +107,12 @@ implements TextualColumn {
      * @param lbl      Labels for the column
      * @param comm     Comment for the column
      */
-    private ByteArrayColumn(byte[][] internal, boolean[] miss, boolean[] emp,
+    private ByteArrayColumn(byte[][] internal, RowMask miss, RowMask emp,
             String lbl, String comm) {
         setInternal(internal);
         setIsNominal(true);
         type = ColumnTypes.BYTE_ARRAY;
-        this.setMissingValues(miss);
+        missing = miss;
         empty = emp;
         setLabel(lbl);
         setComment(comm);
@@ -125,15 +126,9 @@ implements TextualColumn {
      */
     public ByteArrayColumn(int capacity) {
         internal = new byte[capacity][];
+        size = internal.length;
         setIsNominal(true);
         type = ColumnTypes.BYTE_ARRAY;
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     /**
@@ -145,13 +140,6 @@ implements TextualColumn {
         setInternal(data);
         setIsNominal(true);
         type = ColumnTypes.BYTE_ARRAY;
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     //~ Methods *****************************************************************
@@ -339,17 +327,9 @@ implements TextualColumn {
      * @param newEntry A new entry
      */
     public void addRow(Object newEntry) {
-        int last = internal.length;
-        byte[][] newInternal = new byte[internal.length + 1][];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        newInternal[last] = (byte[]) newEntry;
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        internal[size] = (byte[]) newEntry;
+        size++;
     }
 
     /**
@@ -358,17 +338,8 @@ implements TextualColumn {
      * @param number Number of blank rows to add.
      */
     public void addRows(int number) {
-        int last = internal.length;
-        byte[][] newInternal = new byte[last + number][];
-        boolean[] newMissing = new boolean[last + number];
-        boolean[] newEmpty = new boolean[last + number];
-
-        System.arraycopy(internal, 0, newInternal, 0, last);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + number);
+        size += number;
     }
 
     /**
@@ -442,15 +413,8 @@ implements TextualColumn {
                 newVals[i] = res;
             }
 
-            boolean[] miss = new boolean[internal.length];
-            boolean[] em = new boolean[internal.length];
-
-            for (int i = 0; i < internal.length; i++) {
-                miss[i] = missing[i];
-                em[i] = empty[i];
-            }
-
-            bac = new ByteArrayColumn(newVals, miss, em, getLabel(), getComment());
+            bac = new ByteArrayColumn(newVals, copyOf(missing), copyOf(empty),
+                    getLabel(), getComment());
 
             return bac;
         }
@@ -467,11 +431,11 @@ implements TextualColumn {
     public boolean equals(Object obj) {
         byte[][] objInternal = (byte[][]) ((ByteArrayColumn) obj).getInternal();
 
-        if (internal.length != objInternal.length) {
+        if (size != objInternal.length) {
             return false;
         }
 
-        for (int i = 0; i < internal.length; i++) {
+        for (int i = 0; i < size; i++) {
 
             if (compareRows(objInternal[i], i) != 0) {
                 return false;
@@ -518,7 +482,7 @@ implements TextualColumn {
      *
      * @return Max number of entries this <code>Column</code> can hold
      */
-    public int getCapacity() { return internal.length; }
+    public int getCapacity() { return size; }
 
     /**
      * Gets the value of the bytes as a <code>char</code> using <code>
@@ -583,7 +547,11 @@ implements TextualColumn {
      *
      * @return Internal representation of this <code>Column</code>.
      */
-    public Object getInternal() { return this.internal; }
+    public Object getInternal() {
+        trimToSize();
+
+        return this.internal;
+    }
 
     /**
      * Gets the value of the bytes as a <code>long</code> using <code>
@@ -606,7 +574,7 @@ implements TextualColumn {
     public int getNumEntries() {
         int numEntries = 0;
 
-        for (int i = 0; i < internal.length; i++) {
+        for (int i = 0; i < size; i++) {
 
             if (internal[i] != null && !isValueMissing(i) && !isValueEmpty(i)) {
                 numEntries++;
@@ -674,18 +642,14 @@ implements TextualColumn {
      */
     public Column getSubset(int[] rows) {
         byte[][] subset = new byte[rows.length][];
-        boolean[] newMissing = new boolean[rows.length];
-        boolean[] newEmpty = new boolean[rows.length];
 
         for (int i = 0; i < rows.length; i++) {
             subset[i] = internal[rows[i]];
-            newMissing[i] = missing[rows[i]];
-            newEmpty[i] = empty[rows[i]];
         }
 
         ByteArrayColumn bc =
-            new ByteArrayColumn(subset, newMissing, newEmpty, getLabel(),
-                    getComment());
+            new ByteArrayColumn(subset, subsetOf(missing, rows),
+                    subsetOf(empty, rows), getLabel(), getComment());
 
         return bc;
     }
@@ -703,15 +667,11 @@ implements TextualColumn {
      */
     public Column getSubset(int pos, int len) {
         byte[][] subset = new byte[len][];
-        boolean[] newMissing = new boolean[len];
-        boolean[] newEmpty = new boolean[len];
         System.arraycopy(internal, pos, subset, 0, len);
-        System.arraycopy(missing, pos, newMissing, 0, len);
-        System.arraycopy(empty, pos, newEmpty, 0, len);
 
         ByteArrayColumn bac =
-            new ByteArrayColumn(subset, newMissing, newEmpty,
-                    getLabel(), getComment());
+            new ByteArrayColumn(subset, subsetOf(missing, pos, len),
+                    subsetOf(empty, pos, len), getLabel(), getComment());
 
         return bac;
     }
@@ -732,44 +692,13 @@ implements TextualColumn {
             return;
         }
 
-        byte[][] newInternal = new byte[internal.length + 1][];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-
-        if (pos == 0) {
-            System.arraycopy(internal, 0, newInternal, 1, getCapacity());
-            System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-            System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-        } else {
-            System.arraycopy(internal, 0, newInternal, 0, pos);
-            System.arraycopy(internal, pos, newInternal, pos + 1,
-                    internal.length -
-                    pos);
-            System.arraycopy(missing, 0, newMissing, 0, pos);
-            System.arraycopy(missing, pos, newMissing, pos + 1,
-                    internal.length -
-                    pos);
-
-            System.arraycopy(empty, 0, newEmpty, 0, pos);
-            System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                    pos);
-        }
-
-        newInternal[pos] = (byte[]) newEntry;
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+        insertFlags(pos);
+        internal[pos] = (byte[]) newEntry;
+        size++;
     } // end method insertRow
 
-    /**
-     * Tests if the value at the specified row is empty.
-     *
-     * @param  row Row to test
-     *
-     * @return Whether or not the value at the row is empty
-     */
-    public boolean isValueEmpty(int row) { return empty[row]; }
-
     /**
      * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
      * entries from pos+1 will be moved back 1 position.
@@ -780,22 +709,11 @@ implements TextualColumn {
      */
     public Object removeRow(int pos) {
         byte[] removed = internal[pos];
-        System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                (pos + 1));
-        System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                (pos + 1));
-        System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                (pos + 1));
-
-        byte[][] newInternal = new byte[internal.length - 1][];
-        boolean[] newMissing = new boolean[internal.length - 1];
-        boolean[] newEmpty = new boolean[internal.length - 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-        System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-        System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+
+        System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+        removeFlags(pos);
+        size--;
+        internal[size] = null;
 
         return removed;
     }
@@ -807,31 +725,25 @@ implements TextualColumn {
      * @param indices Array of ints representing rows to remove
      */
     public void removeRowsByIndex(int[] indices) {
-        HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+        RowMask toRemove = new RowMask();
 
         for (int i = 0; i < indices.length; i++) {
-            Integer id = new Integer(indices[i]);
-            toRemove.add(id);
+            toRemove.set(indices[i], true);
         }
 
-        byte[][] newInternal = new byte[internal.length - indices.length][];
-        boolean[] newMissing = new boolean[internal.length - indices.length];
-        boolean[] newEmpty = new boolean[internal.length - indices.length];
-        int newIntIdx = 0;
+        int newSize = 0;
 
-        for (int i = 0; i < getNumRows(); i++) {
+        for (int i = 0; i < size; i++) {
 
-            if (!toRemove.contains(new Integer(i))) {
-                newInternal[newIntIdx] = internal[i];
-                newMissing[newIntIdx] = missing[i];
-                newEmpty[newIntIdx] = empty[i];
-                newIntIdx++;
+            if (!toRemove.get(i)) {
+                internal[newSize] = internal[i];
+                newSize++;
             }
         }
 
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        Arrays.fill(internal, newSize, size, null);
+        removeFlags(toRemove);
+        size = newSize;
     } // end method removeRowsByIndex
 
     /**
@@ -850,26 +762,20 @@ implements TextualColumn {
      */
     public Column reorderRows(int[] newOrder) {
         byte[][] newInternal = null;
-        boolean[] newMissing = null;
-        boolean[] newEmpty = null;
 
-        if (newOrder.length == internal.length) {
-            newInternal = new byte[internal.length][];
-            newMissing = new boolean[internal.length];
-            newEmpty = new boolean[internal.length];
+        if (newOrder.length == size) {
+            newInternal = new byte[size][];
 
-            for (int i = 0; i < internal.length; i++) {
+            for (int i = 0; i < size; i++) {
                 newInternal[i] = internal[newOrder[i]];
-                newMissing[i] = missing[newOrder[i]];
-                newEmpty[i] = empty[newOrder[i]];
             }
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
 
         ByteArrayColumn bc =
-            new ByteArrayColumn(newInternal, newMissing, newEmpty, getLabel(),
-                    getComment());
+            new ByteArrayColumn(newInternal, subsetOf(missing, newOrder),
+                    subsetOf(empty, newOrder), getLabel(), getComment());
 
         return bc;
     }
@@ -975,6 +881,7 @@ implements TextualColumn {
      */
     public void setInternal(Object newInternal) {
         this.internal = (byte[][]) newInternal;
+            size = internal.length;
     }
 
     /**
@@ -993,34 +900,21 @@ implements TextualColumn {
      * implementation of <code>Column</code> supports capacity then the
      * suggestion may be followed. The capacity is its potential max number of
      * entries. If numEntries > newCapacity then the <code>Column</code> may be
-     * truncated. If internal.length > newCapacity then the <code>Column</code>
+     * truncated. If size > newCapacity then the <code>Column</code>
      * will be truncated.
      *
      * @param newCapacity The new capacity
      */
     public void setNumRows(int newCapacity) {
 
-        if (internal != null) {
-            byte[][] newInternal = new byte[newCapacity][];
-            boolean[] newMissing = new boolean[newCapacity];
-            boolean[] newEmpty = new boolean[newCapacity];
-
-            if (newCapacity > internal.length) {
-                newCapacity = internal.length;
-            }
-
-            System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-            System.arraycopy(missing, 0, newMissing, 0, missing.length);
-            System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-            internal = newInternal;
-            this.setMissingValues(newMissing);
-            empty = newEmpty;
+        if (newCapacity < size) {
+            Arrays.fill(internal, newCapacity, size, null);
+            clearFlags(newCapacity);
         } else {
-            internal = new byte[newCapacity][];
-            missing = new boolean[newCapacity];
-            empty = new boolean[newCapacity];
+            ensureCapacity(newCapacity);
         }
 
+        size = newCapacity;
     }
 
     /**
@@ -1076,15 +970,6 @@ implements TextualColumn {
         this.internal[pos] = newEntry.getBytes();
     }
 
-    /**
-     * Sets the value at the specified row to the value of <code>b</code> which
-     * should be <code>true.</code>
-     *
-     * @param b   Empty value (<code>true</code>)
-     * @param row Row to set empty value
-     */
-    public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
     /**
      * Sorts the items in this <code>Column</code>.
      */
@@ -1099,7 +984,7 @@ implements TextualColumn {
      */
     @Override
     public void sort(MutableTable t, SortMode sortMode) {
-        internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+        internal = doSort(internal, 0, size - 1, t, sortMode);
     }
 
     /**
@@ -1115,9 +1000,9 @@ implements TextualColumn {
     @Override
     public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-        if (end > internal.length - 1) {
+        if (end > size - 1) {
             _logger.severe(" end index was out of bounds");
-            end = internal.length - 1;
+            end = size - 1;
         }
 
         internal = doSort(internal, begin, end, t, sortMode);
@@ -1132,15 +1017,69 @@ implements TextualColumn {
      */
     public void swapRows(int pos1, int pos2) {
         byte[] e1 = internal[pos1];
-        boolean miss = missing[pos1];
-        boolean emp = empty[pos1];
         internal[pos1] = internal[pos2];
         internal[pos2] = e1;
-        missing[pos1] = missing[pos2];
-        missing[pos2] = miss;
+        swapFlags(pos1, pos2);
+    }
+
+    /**
+     * Trims the capacity of this <code>Column</code> to its number of rows.
+     */
+    @Override
+    public void trimToSize() {
+
+        if (internal.length != size) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+     * geometrically, so that appending rows one at a time is amortized O(1).
+     *
+     * @param minCapacity Number of rows to make room for
+     */
+    private void ensureCapacity(int minCapacity) {
+
+        if (minCapacity > internal.length) {
+            resize(newCapacity(internal.length, minCapacity));
+        }
+    }
+
+    /**
+     * Reallocates the arrays holding the rows with the given capacity.
+     *
+     * @param capacity The new capacity, at least the number of rows
+     */
+    private void resize(int capacity) {
+        byte[][] newInternal = new byte[capacity][];
+        System.arraycopy(internal, 0, newInternal, 0, size);
+        internal = newInternal;
+    }
+
+    /**
+     * Drops the spare capacity before serialization, so that the serialized
+     * form only holds the rows.
+     *
+     * @return This column
+     */
+    private Object writeReplace() {
+        trimToSize();
 
-        empty[pos1] = empty[pos2];
-        empty[pos2] = emp;
+        return this;
     }
 
+    /**
+     * Restores the number of rows after deserialization.
+     *
+     * @param  in The stream to read from
+     *
+     * @throws IOException            If the column cannot be read
+     * @throws ClassNotFoundException If a class of the column cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException,
+                ClassNotFoundException {
+        in.defaultReadObject();
+        size = internal.length;
+    }
 } // end class ByteArrayColumn
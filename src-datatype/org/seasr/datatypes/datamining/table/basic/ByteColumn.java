@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -83,12 +84,12 @@ public final class ByteColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the <code>Column</code>. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation of this <code>Column</code>. */
    private byte[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Maximum value held by an element in this <code>Column</code>. */
    private byte max;
 
@@ -113,12 +114,13 @@ public final class ByteColumn extends MissingValuesColumn
     * @param lbl      Labels for the column
     * @param comm     Comment for the column
     */
-   private ByteColumn(byte[] internal, boolean[] miss, boolean[] emp,
+   private ByteColumn(byte[] internal, RowMask miss, RowMask emp,
                       String lbl, String comm) {
       this.internal = internal;
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.BYTE;
-      setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -131,15 +133,9 @@ public final class ByteColumn extends MissingValuesColumn
     */
    public ByteColumn(int capacity) {
       internal = new byte[capacity];
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.BYTE;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
 
    }
 
@@ -150,15 +146,9 @@ public final class ByteColumn extends MissingValuesColumn
     */
    public ByteColumn(byte[] newInternal) {
       internal = newInternal;
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.BYTE;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -253,7 +243,7 @@ public final class ByteColumn extends MissingValuesColumn
       max = Byte.MIN_VALUE;
       min = Byte.MAX_VALUE;
 
-      for (int i = 1; i < internal.length; i++) {
+      for (int i = 1; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -376,19 +366,9 @@ public final class ByteColumn extends MissingValuesColumn
     * @param newEntry A new entry to append
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      byte[] newInternal = new byte[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = ((Number) newEntry).byteValue();
-
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
-
+      ensureCapacity(size + 1);
+      internal[size] = ((Number) newEntry).byteValue();
+      size++;
    }
 
    /**
@@ -397,17 +377,8 @@ public final class ByteColumn extends MissingValuesColumn
     * @param number Number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      byte[] newInternal = new byte[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -483,16 +454,8 @@ public final class ByteColumn extends MissingValuesColumn
             newVals[i] = getByte(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         bac = new ByteColumn(newVals, miss, em, getLabel(), getComment());
+         bac = new ByteColumn(newVals, copyOf(missing), copyOf(empty),
+                              getLabel(), getComment());
 
          return bac;
       }
@@ -545,7 +508,7 @@ public final class ByteColumn extends MissingValuesColumn
     *
     * @return Max number of entries this <code>Column</code> can hold
     */
-   public int getCapacity() { return internal.length; }
+   public int getCapacity() { return size; }
 
    /**
     * Gets the value of the <code>byte</code> at <code>pos</code>, cast to a
@@ -609,7 +572,11 @@ public final class ByteColumn extends MissingValuesColumn
     *
     * @return Internal representation of the <code>Column</code> data.
     */
-   public Object getInternal() { return internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return internal;
+   }
 
    /**
     * Gets the value of the <code>byte</code> at <code>pos</code>, cast to a
@@ -655,7 +622,7 @@ public final class ByteColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -725,17 +692,14 @@ public final class ByteColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       byte[] subset = new byte[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       ByteColumn bc =
-         new ByteColumn(subset, newMissing, newEmpty, getLabel(), getComment());
+         new ByteColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                        getLabel(), getComment());
 
       return bc;
    }
@@ -758,20 +722,16 @@ public final class ByteColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       byte[] subset = new byte[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       ByteColumn bc =
-         new ByteColumn(subset, newMissing, newEmpty,
-                        getLabel(), getComment());
+         new ByteColumn(subset, subsetOf(missing, pos, len),
+                        subsetOf(empty, pos, len), getLabel(), getComment());
 
       return bc;
    }
@@ -792,47 +752,13 @@ public final class ByteColumn extends MissingValuesColumn
          return;
       }
 
-      byte[] newInternal = new byte[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Number) newEntry).byteValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
-
-
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Number) newEntry).byteValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at the specified row is empty.
-    *
-    * @param  row Row to test for emptiness
-    *
-    * @return True if the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the <code>Column</code>, at position <code>
     * pos</code>. All entries from <code>pos+1</code> will be moved back 1
@@ -843,30 +769,12 @@ public final class ByteColumn extends MissingValuesColumn
     * @return Removed <code>Object</code>
     */
    public Object removeRow(int pos) {
-
       byte removed = internal[pos];
 
-      // copy all the items after the item to be removed one position up
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      // copy the items into a new array
-      byte[] newInternal = new byte[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = (byte) 0;
 
       return new Byte(removed);
    } // end method removeRow
@@ -878,33 +786,25 @@ public final class ByteColumn extends MissingValuesColumn
     * @param indices Array containing indices to remove
     */
    public void removeRowsByIndex(int[] indices) {
-
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      byte[] newInternal = new byte[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
+      int newSize = 0;
 
-      int newIntIdx = 0;
+      for (int i = 0; i < size; i++) {
 
-      for (int i = 0; i < getNumRows(); i++) {
-
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, (byte) 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -921,26 +821,20 @@ public final class ByteColumn extends MissingValuesColumn
     */
    public Column reorderRows(int[] newOrder) {
       byte[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new byte[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new byte[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       ByteColumn bc =
-         new ByteColumn(newInternal, newMissing, newEmpty, getLabel(),
-                        getComment());
+         new ByteColumn(newInternal, subsetOf(missing, newOrder),
+                        subsetOf(empty, newOrder), getLabel(), getComment());
 
       return bc;
 
@@ -1049,34 +943,21 @@ public final class ByteColumn extends MissingValuesColumn
     * implementation of <code>Column</code> supports capacity then the
     * suggestion may be followed. The capacity is its potential max number of
     * entries. If numEntries > newCapacity then the <code>Column</code> may be
-    * truncated. If internal.length > newCapacity then the <code>Column</code>
+    * truncated. If size > newCapacity then the <code>Column</code>
     * will be truncated.
     *
     * @param newCapacity New capacity
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         byte[] newInternal = new byte[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, (byte) 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new byte[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
 
+      size = newCapacity;
    }
 
    /**
@@ -1133,15 +1014,6 @@ public final class ByteColumn extends MissingValuesColumn
    }
 
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the items in this column.
     */
@@ -1156,7 +1028,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1172,9 +1044,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1189,15 +1061,70 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       byte d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
 
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
+
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      byte[] newInternal = new byte[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
    }
 } // end class ByteColumn
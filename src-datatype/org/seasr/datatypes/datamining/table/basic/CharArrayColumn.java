@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -83,12 +84,12 @@ public final class CharArrayColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private char[][] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    private static Logger _logger = Logger.getLogger("CharArrayColumn");
 
    //~ Constructors ************************************************************
@@ -108,14 +109,14 @@ public final class CharArrayColumn extends MissingValuesColumn
     * @param comm     Comment for the column
     */
    private CharArrayColumn(char[][] internal,
-                           boolean[] miss,
-                           boolean[] emp,
+                           RowMask miss,
+                           RowMask emp,
                            String lbl,
                            String comm) {
       this.setInternal(internal);
       setIsNominal(true);
       type = ColumnTypes.CHAR_ARRAY;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -128,17 +129,10 @@ public final class CharArrayColumn extends MissingValuesColumn
     */
    public CharArrayColumn(int capacity) {
       internal = new char[capacity][];
+      size = internal.length;
 
       setIsNominal(true);
       type = ColumnTypes.CHAR_ARRAY;
-
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -151,14 +145,6 @@ public final class CharArrayColumn extends MissingValuesColumn
 
       setIsNominal(true);
       type = ColumnTypes.CHAR_ARRAY;
-
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -346,18 +332,9 @@ public final class CharArrayColumn extends MissingValuesColumn
     * @param newEntry A new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      char[][] newInternal = new char[internal.length + 1][];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = (char[]) newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      missing = newMissing;
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = (char[]) newEntry;
+      size++;
    }
 
    /**
@@ -366,17 +343,8 @@ public final class CharArrayColumn extends MissingValuesColumn
     * @param number Number of rows to add
     */
    public void addRows(int number) {
-      int last = internal.length;
-      char[][] newInternal = new char[last + number][];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -455,20 +423,8 @@ public final class CharArrayColumn extends MissingValuesColumn
             newVals[i] = temp;
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         cac = new CharArrayColumn(newVals,
-                                   miss,
-                                   em,
-                                   getLabel(),
-                                   getComment());
+         cac = new CharArrayColumn(newVals, copyOf(missing), copyOf(empty),
+                                   getLabel(), getComment());
 
          return cac;
       } // end try-catch
@@ -486,11 +442,11 @@ public final class CharArrayColumn extends MissingValuesColumn
 public boolean equals(Object obj) {
       char[][] objInternal = (char[][]) ((CharArrayColumn) obj).getInternal();
 
-      if (internal.length != objInternal.length) {
+      if (size != objInternal.length) {
          return false;
       }
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (compareRows(objInternal[i], i) != 0) {
             return false;
@@ -541,7 +497,7 @@ public boolean equals(Object obj) {
     *
     * @return Max number of entries this <code>Column</code> can hold
     */
-   public int getCapacity() { return internal.length; }
+   public int getCapacity() { return size; }
 
    /**
     * Gets the value at <code>pos</code> as a <code>char</code>.
@@ -601,7 +557,11 @@ public boolean equals(Object obj) {
     *
     * @return Internal representation of this <code>Column</code>.
     */
-   public Object getInternal() { return this.internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return this.internal;
+   }
 
    /**
     * Gets the value at <code>pos</code> as a <code>long</code>.
@@ -624,7 +584,7 @@ public boolean equals(Object obj) {
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (internal[i] != null && !isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -690,21 +650,14 @@ public boolean equals(Object obj) {
     */
    public Column getSubset(int[] rows) {
       char[][] subset = new char[rows.length][];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       CharArrayColumn bc =
-         new CharArrayColumn(subset,
-                             newMissing,
-                             newEmpty,
-                             getLabel(),
-                             getComment());
+         new CharArrayColumn(subset, subsetOf(missing, rows),
+                             subsetOf(empty, rows), getLabel(), getComment());
 
       return bc;
    }
@@ -720,17 +673,11 @@ public boolean equals(Object obj) {
     */
    public Column getSubset(int pos, int len) {
       char[][] subset = new char[len][];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       CharArrayColumn cac =
-         new CharArrayColumn(subset,
-                             newMissing,
-                             newEmpty,
-                             getLabel(),
+         new CharArrayColumn(subset, subsetOf(missing, pos, len),
+                             subsetOf(empty, pos, len), getLabel(),
                              getComment());
 
       return cac;
@@ -750,52 +697,13 @@ public boolean equals(Object obj) {
          return;
       }
 
-      char[][] newInternal = new char[internal.length + 1][];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getCapacity());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal,
-                          pos,
-                          newInternal,
-                          pos + 1,
-                          internal.length - pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing,
-                          pos,
-                          newMissing,
-                          pos + 1,
-                          internal.length - pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty,
-                          pos,
-                          newEmpty,
-                          pos + 1,
-                          internal.length - pos);
-      }
-
-      newInternal[pos] = (char[]) newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = (char[]) newEntry;
+      size++;
    } // end method insertRow
 
-   /**
-    * Returns <code>true</code> if the value at <code>row</code> is empty,
-    * <code>false</code> otherwise.
-    *
-    * @param  row The row index
-    *
-    * @return True if the value at row is empty, false otherwise
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
     * entries from pos+1 will be moved back 1 position
@@ -806,32 +714,11 @@ public boolean equals(Object obj) {
     */
    public Object removeRow(int pos) {
       char[] removed = internal[pos];
-      System.arraycopy(internal,
-                       pos + 1,
-                       internal,
-                       pos,
-                       internal.length - (pos + 1));
-      System.arraycopy(missing,
-                       pos + 1,
-                       missing,
-                       pos,
-                       internal.length - (pos + 1));
-      System.arraycopy(empty,
-                       pos + 1,
-                       empty,
-                       pos,
-                       internal.length - (pos + 1));
-      internal[internal.length - 1] = null;
-
-      char[][] newInternal = new char[internal.length - 1][];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = null;
 
       return removed;
    } // end method removeRow
@@ -843,31 +730,25 @@ public boolean equals(Object obj) {
     * @param indices The <code>int</code> array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      char[][] newInternal = new char[internal.length - indices.length][];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, null);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -884,29 +765,20 @@ public boolean equals(Object obj) {
     */
    public Column reorderRows(int[] newOrder) {
       char[][] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
-
-      if (newOrder.length == internal.length) {
-         newInternal = new char[internal.length][];
 
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new char[size][];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       CharArrayColumn cac =
-         new CharArrayColumn(newInternal,
-                             newMissing,
-                             newEmpty,
-                             getLabel(),
+         new CharArrayColumn(newInternal, subsetOf(missing, newOrder),
+                             subsetOf(empty, newOrder), getLabel(),
                              getComment());
 
       return cac;
@@ -1004,6 +876,7 @@ public boolean equals(Object obj) {
     */
    public void setInternal(Object newInternal) {
       this.internal = (char[][]) newInternal;
+         size = internal.length;
    }
 
    /**
@@ -1025,26 +898,14 @@ public boolean equals(Object obj) {
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         char[][] newInternal = new char[newCapacity][];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, null);
+         clearFlags(newCapacity);
       } else {
-         internal = new char[newCapacity][];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    } // end method setNumRows
 
    /**
@@ -1094,14 +955,6 @@ public boolean equals(Object obj) {
       this.internal[pos] = newEntry.toCharArray();
    }
 
-   /**
-    * Sets the value at <code>row</code> to be empty.
-    *
-    * @param b   Empty value
-    * @param row Row index to mark as empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sorts the elements in this <code>Column</code>.
     */
@@ -1116,7 +969,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1133,9 +986,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1150,15 +1003,69 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       char[] e1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = e1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      char[][] newInternal = new char[capacity][];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
    }
 
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
+   }
 } // end class CharArrayColumn
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -75,12 +76,12 @@ public final class CharColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private char[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    private static Logger _logger = Logger.getLogger("CharColumn");
 
    //~ Constructors ************************************************************
@@ -100,14 +101,15 @@ public final class CharColumn extends MissingValuesColumn
     * @param comm     Comment for the column
     */
    private CharColumn(char[] internal,
-                      boolean[] miss,
-                      boolean[] emp,
+                      RowMask miss,
+                      RowMask emp,
                       String lbl,
                       String comm) {
       this.internal = internal;
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.CHAR;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -120,15 +122,9 @@ public final class CharColumn extends MissingValuesColumn
     */
    public CharColumn(int capacity) {
       internal = new char[capacity];
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.CHAR;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -139,13 +135,6 @@ public final class CharColumn extends MissingValuesColumn
    public CharColumn(char[] newInternal) {
       this.setInternal(newInternal);
       setIsNominal(true);
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -341,19 +330,9 @@ public final class CharColumn extends MissingValuesColumn
     * @param newEntry A new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-
-      char[] newInternal = new char[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      newInternal[last] = ((Character) newEntry).charValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = ((Character) newEntry).charValue();
+      size++;
    }
 
    /**
@@ -362,17 +341,8 @@ public final class CharColumn extends MissingValuesColumn
     * @param number Number of rows to add
     */
    public void addRows(int number) {
-      int last = internal.length;
-      char[] newInternal = new char[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -445,18 +415,8 @@ public final class CharColumn extends MissingValuesColumn
 
          bac.setLabel(getLabel());
          bac.setComment(getComment());
-
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         this.setMissingValues(miss);
-         bac.empty = em;
+         bac.missing = copyOf(missing);
+         bac.empty = copyOf(empty);
 
          return bac;
       }
@@ -507,7 +467,7 @@ public final class CharColumn extends MissingValuesColumn
     *
     * @return Max number of entries this Column can hold
     */
-   public int getCapacity() { return internal.length; }
+   public int getCapacity() { return size; }
 
    /**
     * Gets the value at <code>pos</code> as a <code>char</code>.
@@ -567,7 +527,11 @@ public final class CharColumn extends MissingValuesColumn
     *
     * @return Internal representation of this <code>Column</code>.
     */
-   public Object getInternal() { return this.internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return this.internal;
+   }
 
    /**
     * Gets the value at <code>pos</code> as a <code>long</code>.
@@ -588,7 +552,7 @@ public final class CharColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -652,21 +616,14 @@ public final class CharColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       char[] subset = new char[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       CharColumn bc =
-         new CharColumn(subset,
-                        newMissing,
-                        newEmpty,
-                        getLabel(),
-                        getComment());
+         new CharColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                        getLabel(), getComment());
 
       return bc;
    }
@@ -682,17 +639,13 @@ public final class CharColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
       char[] subset = new char[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       CharColumn bac = new CharColumn(subset);
       bac.setLabel(getLabel());
       bac.setComment(getComment());
-      this.setMissingValues(newMissing);
-      bac.empty = newEmpty;
+      bac.missing = subsetOf(missing, pos, len);
+      bac.empty = subsetOf(empty, pos, len);
 
       return bac;
    }
@@ -704,9 +657,6 @@ public final class CharColumn extends MissingValuesColumn
     * @param pos      Position to insert the new row
     */
    public void insertRow(Object newEntry, int pos) {
-      char[] newInternal = new char[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
 
       if (pos > getCapacity()) {
          addRow(newEntry);
@@ -714,43 +664,13 @@ public final class CharColumn extends MissingValuesColumn
          return;
       }
 
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getCapacity());
-         System.arraycopy(missing, 0, newMissing, 1, getCapacity());
-         System.arraycopy(internal, 0, newInternal, 1, getCapacity());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal,
-                          pos,
-                          newInternal,
-                          pos + 1,
-                          internal.length - pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Character) newEntry).charValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Character) newEntry).charValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Returns <code>true</code> if the value at <code>row</code> is empty,
-    * <code>false</code> otherwise.
-    *
-    * @param  row The row index
-    *
-    * @return True if the value at row is empty, false otherwise
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
     * entries from pos+1 will be moved back 1 position
@@ -761,15 +681,11 @@ public final class CharColumn extends MissingValuesColumn
     */
    public Object removeRow(int pos) {
       char removed = internal[pos];
-      System.arraycopy(internal,
-                       pos + 1,
-                       internal,
-                       pos,
-                       internal.length - (pos + 1));
-
-      char[] newInternal = new char[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      internal = newInternal;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = (char) 0;
 
       return new Character(removed);
    }
@@ -781,26 +697,26 @@ public final class CharColumn extends MissingValuesColumn
     * @param indices The <code>int</code> array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      char[] newInternal = new char[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-   }
+      Arrays.fill(internal, newSize, size, (char) 0);
+      removeFlags(toRemove);
+      size = newSize;
+   } // end method removeRowsByIndex
 
    /**
     * Gets a copy of this <code>Column</code> reordered based on the input array
@@ -817,10 +733,10 @@ public final class CharColumn extends MissingValuesColumn
    public Column reorderRows(int[] newOrder) {
       char[] newInternal = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new char[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new char[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
          }
       } else {
@@ -925,6 +841,7 @@ public final class CharColumn extends MissingValuesColumn
     */
    public void setInternal(Object newInternal) {
       this.internal = (char[]) newInternal;
+         size = internal.length;
    }
 
    /**
@@ -944,26 +861,14 @@ public final class CharColumn extends MissingValuesColumn
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         char[] newInternal = new char[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, (char) 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new char[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    }
 
    /**
@@ -1022,14 +927,6 @@ public final class CharColumn extends MissingValuesColumn
       setChar(newEntry.toCharArray()[0], pos);
    }
 
-   /**
-    * Sets the value at <code>row</code> to be empty.
-    *
-    * @param b   Empty value
-    * @param row Row index to mark as empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sorts the elements in this <code>Column</code>.
     */
@@ -1045,7 +942,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
 
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1062,9 +959,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");;
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1083,4 +980,64 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
       internal[pos2] = e1;
    }
 
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
+
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      char[] newInternal = new char[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
+   }
 } // end class CharColumn
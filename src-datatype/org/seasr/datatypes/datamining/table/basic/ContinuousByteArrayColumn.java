@@ -92,9 +92,6 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
    /** The multiple used to increment the size of the internal buffer. */
    private final float capacityIncrement = 1.3f;
 
-   /** Description of field empty. */
-   private boolean[] empty = null;
-
    /** Internal buffer. */
    private byte[] internal;
 
@@ -623,14 +620,6 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
       } else {
          appendBytes(newEntry.toString().getBytes());
       }
-
-      int last = getNumRows();
-      boolean[] newMissing = new boolean[last + 1];
-      boolean[] newEmpty = new boolean[last + 1];
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
    }
 
    /**
@@ -716,7 +705,8 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
          }
 
          bac.setLabel(getLabel());
-         bac.setMissingValues(missing);
+         bac.missing = copyOf(missing);
+         bac.empty = copyOf(empty);
          bac.setComment(getComment());
 
          return bac;
@@ -912,18 +902,14 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       byte[][] subset = new byte[rows.length][];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = getBytes(rows[i]);
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       ContinuousByteArrayColumn cbac = new ContinuousByteArrayColumn(subset);
-      cbac.setMissingValues(newMissing);
-      cbac.empty = newEmpty;
+      cbac.missing = subsetOf(missing, rows);
+      cbac.empty = subsetOf(empty, rows);
       cbac.setLabel(getLabel());
       cbac.setComment(getComment());
 
@@ -1034,21 +1020,12 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
 
       }
 
+      insertFlags(row);
       numRows++;
       internal = newinternal;
       rowPtrs = newrowPtrs;
    } // end method insertRow
 
-   /**
-    * Returns <code>true</code> if the value at <code>row</code> is empty,
-    * <code>false</code> otherwise.
-    *
-    * @param  row The row index
-    *
-    * @return True if the value at row is empty, false otherwise
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
     * entries from pos+1 will be moved back 1 position
@@ -1059,6 +1036,7 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
     */
    public Object removeRow(int row) {
       byte[] removed = getInternalBytes(row);
+      removeFlags(row);
 
       byte[] newinternal = new byte[internal.length];
 
@@ -1428,14 +1406,6 @@ public final class ContinuousByteArrayColumn extends MissingValuesColumn
     */
    public void setString(String s, int row) { insertBytes(s.getBytes(), row); }
 
-   /**
-    * Sets the value at <code>row</code> to be empty.
-    *
-    * @param b   Empty value
-    * @param row Row index to mark as empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sorts the elements in this <code>Column</code>.
     */
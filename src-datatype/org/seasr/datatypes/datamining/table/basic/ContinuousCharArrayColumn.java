@@ -92,9 +92,6 @@ implements TextualColumn {
     /** Multiple used to increment the size of the internal buffer. */
     private final float capacityIncrement = 1.3f;
 
-    /** Stores empty rows of the column. */
-    private boolean[] empty = null;
-
     /** Internal buffer. */
     private char[] internal;
 
@@ -205,9 +202,6 @@ implements TextualColumn {
 
         setIsNominal(true);
         type = ColumnTypes.CHAR_ARRAY;
-
-        missing = new boolean[initialSize];
-        empty = new boolean[initialSize];
     }
 
     //~ Methods *****************************************************************
@@ -900,18 +894,14 @@ implements TextualColumn {
      */
     public Column getSubset(int[] rows) {
         char[][] subset = new char[rows.length][];
-        boolean[] newMissing = new boolean[rows.length];
-        boolean[] newEmpty = new boolean[rows.length];
 
         for (int i = 0; i < rows.length; i++) {
             subset[i] = getChars(rows[i]);
-            newMissing[i] = missing[rows[i]];
-            newEmpty[i] = empty[rows[i]];
         }
 
         ContinuousCharArrayColumn cbac = new ContinuousCharArrayColumn(subset);
-        cbac.setMissingValues(newMissing);
-        cbac.empty = newEmpty;
+        cbac.missing = subsetOf(missing, rows);
+        cbac.empty = subsetOf(empty, rows);
         cbac.setLabel(getLabel());
         cbac.setComment(getComment());
 
@@ -1031,21 +1021,12 @@ implements TextualColumn {
 
         }
 
+        insertFlags(row);
         numRows++;
         internal = newinternal;
         rowPtrs = newrowPtrs;
     } // end method insertRow
 
-    /**
-     * Returns <code>true</code> if the value at <code>row</code> is empty,
-     * <code>false</code> otherwise.
-     *
-     * @param  row The row index
-     *
-     * @return True if the value at row is empty, false otherwise
-     */
-    public boolean isValueEmpty(int row) { return empty[row]; }
-
     /**
      * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
      * entries from pos+1 will be moved back 1 position
@@ -1056,6 +1037,7 @@ implements TextualColumn {
      */
     public Object removeRow(int row) {
         char[] removed = getInternalChars(row);
+        removeFlags(row);
 
         char[] newinternal = new char[internal.length];
         int[] newrowPtrs = initializeArray(rowPtrs.length); // new
@@ -1385,14 +1367,6 @@ implements TextualColumn {
      */
     public void setString(String s, int row) { setChars(s.toCharArray(), row); }
 
-    /**
-     * Sets the value at <code>row</code> to be empty.
-     *
-     * @param b   Empty value
-     * @param row Row index to mark as empty
-     */
-    public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
     /**
      * Sorts the elements in this <code>Column</code>.
      */
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -65,7 +66,7 @@ import org.seasr.datatypes.datamining.table.NumericColumn;
  * of doubles, swapping of doubles, setting of doubles by index, reordering by
  * index, comparing of doubles.</p>
  *
- * <p>It is very inefficient for: removals, insertions, additions.</p>
+ * <p>It is very inefficient for: removals, insertions.</p>
  *
  * @author  suvalala
  * @author  redman
@@ -82,12 +83,12 @@ implements NumericColumn {
 
     //~ Instance fields *********************************************************
 
-    /** Stores empty rows of the column. */
-    private boolean[] empty = null;
-
     /** Holds the internal data representation. */
     private double[] internal = null;
 
+    /** Number of rows in use; the arrays may have room for more. */
+    private transient int size;
+
     /** Maximum value held in the column. */
     private double max;
 
@@ -112,13 +113,14 @@ implements NumericColumn {
      * @param lbl  Labels for the column
      * @param comm Comment for the column
      */
-    private DoubleColumn(double[] vals, boolean[] miss, boolean[] emp,
+    private DoubleColumn(double[] vals, RowMask miss, RowMask emp,
             String lbl,
             String com) {
         internal = vals;
+        size = internal.length;
         setIsScalar(true);
         type = ColumnTypes.DOUBLE;
-        this.setMissingValues(miss);
+        missing = miss;
         empty = emp;
         setLabel(lbl);
         setComment(com);
@@ -132,15 +134,9 @@ implements NumericColumn {
      */
     public DoubleColumn(int capacity) {
         internal = new double[capacity];
+        size = internal.length;
         setIsScalar(true);
         type = ColumnTypes.DOUBLE;
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     /**
@@ -150,15 +146,9 @@ implements NumericColumn {
      */
     public DoubleColumn(double[] vals) {
         internal = vals;
+        size = internal.length;
         setIsScalar(true);
         type = ColumnTypes.DOUBLE;
-        missing = new boolean[internal.length];
-        empty = new boolean[internal.length];
-
-        for (int i = 0; i < internal.length; i++) {
-            missing[i] = false;
-            empty[i] = false;
-        }
     }
 
     //~ Methods *****************************************************************
@@ -287,7 +277,7 @@ implements NumericColumn {
         max = Double.MIN_VALUE;
         min = Double.MAX_VALUE;
 
-        for (int i = 1; i < internal.length; i++) {
+        for (int i = 1; i < size; i++) {
 
             if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -309,17 +299,9 @@ implements NumericColumn {
      * @param newEntry A new entry
      */
     public void addRow(Object newEntry) {
-        int last = internal.length;
-        double[] newInternal = new double[internal.length + 1];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        newInternal[last] = ((Double) newEntry).doubleValue();
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        internal[size] = ((Double) newEntry).doubleValue();
+        size++;
     }
 
     /**
@@ -328,17 +310,8 @@ implements NumericColumn {
      * @param number Number of blank rows to add
      */
     public void addRows(int number) {
-        int last = internal.length;
-        double[] newInternal = new double[last + number];
-        boolean[] newMissing = new boolean[last + number];
-        boolean[] newEmpty = new boolean[last + number];
-
-        System.arraycopy(internal, 0, newInternal, 0, last);
-        System.arraycopy(missing, 0, newMissing, 0, missing.length);
-        System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + number);
+        size += number;
     }
 
     /**
@@ -419,16 +392,8 @@ implements NumericColumn {
                 newVals[i] = getDouble(i);
             }
 
-            boolean[] miss = new boolean[internal.length];
-            boolean[] em = new boolean[internal.length];
-
-            for (int i = 0; i < internal.length; i++) {
-                miss[i] = missing[i];
-                em[i] = empty[i];
-
-            }
-
-            dc = new DoubleColumn(newVals, miss, em, getLabel(), getComment());
+            dc = new DoubleColumn(newVals, copyOf(missing), copyOf(empty),
+                    getLabel(), getComment());
 
             return dc;
         }
@@ -530,7 +495,11 @@ implements NumericColumn {
      * @deprecated This method is deprecated.
      */
     @Deprecated
-    public Object getInternal() { return this.internal; }
+    public Object getInternal() {
+        trimToSize();
+
+        return this.internal;
+    }
 
     /**
      * Gets the value at <code>pos</code>, cast to a long.
@@ -573,7 +542,7 @@ implements NumericColumn {
     public int getNumEntries() {
         int numEntries = 0;
 
-        for (int i = 0; i < internal.length; i++) {
+        for (int i = 0; i < size; i++) {
 
             if (!isValueMissing(i) && !isValueEmpty(i)) {
                 numEntries++;
@@ -589,7 +558,7 @@ implements NumericColumn {
      *
      * @return Number of rows in this <code>Column</code>
      */
-    public int getNumRows() { return internal.length; }
+    public int getNumRows() { return size; }
 
     /**
      * Gets the value at <code>pos</code> as a Double object.
@@ -616,7 +585,7 @@ implements NumericColumn {
      * @return The internal representation of this <code>Column</code>
      */
     public double[] getScaledDoubles() {
-        int size1 = this.internal.length;
+        int size1 = this.size;
         double[] tmp = new double[size1];
         double min = this.getMin();
         double scal = 1.0 / (this.getMax() - this.getMin());
@@ -658,18 +627,14 @@ implements NumericColumn {
      */
     public Column getSubset(int[] rows) {
         double[] subset = new double[rows.length];
-        boolean[] newMissing = new boolean[rows.length];
-        boolean[] newEmpty = new boolean[rows.length];
 
         for (int i = 0; i < rows.length; i++) {
             subset[i] = internal[rows[i]];
-            newMissing[i] = missing[rows[i]];
-            newEmpty[i] = empty[rows[i]];
         }
 
         DoubleColumn bc =
-            new DoubleColumn(subset, newMissing, newEmpty, getLabel(),
-                    getComment());
+            new DoubleColumn(subset, subsetOf(missing, rows),
+                    subsetOf(empty, rows), getLabel(), getComment());
 
         return bc;
     }
@@ -691,20 +656,16 @@ implements NumericColumn {
      */
     public Column getSubset(int pos, int len) {
 
-        if ((pos + len) > internal.length) {
+        if ((pos + len) > size) {
             throw new ArrayIndexOutOfBoundsException();
         }
 
         double[] subset = new double[len];
-        boolean[] newMissing = new boolean[len];
-        boolean[] newEmpty = new boolean[len];
         System.arraycopy(internal, pos, subset, 0, len);
-        System.arraycopy(missing, pos, newMissing, 0, len);
-        System.arraycopy(empty, pos, newEmpty, 0, len);
 
         DoubleColumn dc =
-            new DoubleColumn(subset, newMissing, newEmpty,
-                    getLabel(), getComment());
+            new DoubleColumn(subset, subsetOf(missing, pos, len),
+                    subsetOf(empty, pos, len), getLabel(), getComment());
 
         return dc;
     }
@@ -724,44 +685,13 @@ implements NumericColumn {
             return;
         }
 
-        double[] newInternal = new double[internal.length + 1];
-        boolean[] newMissing = new boolean[internal.length + 1];
-        boolean[] newEmpty = new boolean[internal.length + 1];
-
-        if (pos == 0) {
-            System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-            System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-            System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-        } else {
-            System.arraycopy(internal, 0, newInternal, 0, pos);
-            System.arraycopy(internal, pos, newInternal, pos + 1,
-                    internal.length -
-                    pos);
-            System.arraycopy(missing, 0, newMissing, 0, pos);
-            System.arraycopy(missing, pos, newMissing, pos + 1,
-                    internal.length -
-                    pos);
-
-            System.arraycopy(empty, 0, newEmpty, 0, pos);
-            System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                    pos);
-        }
-
-        newInternal[pos] = ((Double) newEntry).doubleValue();
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        ensureCapacity(size + 1);
+        System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+        insertFlags(pos);
+        internal[pos] = ((Double) newEntry).doubleValue();
+        size++;
     } // end method insertRow
 
-    /**
-     * Tests if the value at <code>row</code> is empty.
-     *
-     * @param  row Row to test for empty status
-     *
-     * @return Whether or not the row is empty
-     */
-    public boolean isValueEmpty(int row) { return empty[row]; }
-
     /**
      * Removes an entry from the <code>Column</code>, at <code>pos</code>. All
      * entries from <code>pos</code>+1 will be moved back 1 position.
@@ -773,22 +703,11 @@ implements NumericColumn {
      */
     public Object removeRow(int pos) {
         double removed = internal[pos];
-        System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                (pos + 1));
-        System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                (pos + 1));
-        System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                (pos + 1));
-
-        double[] newInternal = new double[internal.length - 1];
-        boolean[] newMissing = new boolean[internal.length - 1];
-        boolean[] newEmpty = new boolean[internal.length - 1];
-        System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-        System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-        System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+
+        System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+        removeFlags(pos);
+        size--;
+        internal[size] = 0;
 
         return new Double(removed);
     }
@@ -801,31 +720,25 @@ implements NumericColumn {
      * @param indices The <code>int</code> array of remove indices
      */
     public void removeRowsByIndex(int[] indices) {
-        HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+        RowMask toRemove = new RowMask();
 
         for (int i = 0; i < indices.length; i++) {
-            Integer id = new Integer(indices[i]);
-            toRemove.add(id);
+            toRemove.set(indices[i], true);
         }
 
-        double[] newInternal = new double[internal.length - indices.length];
-        boolean[] newMissing = new boolean[internal.length - indices.length];
-        boolean[] newEmpty = new boolean[internal.length - indices.length];
-        int newIntIdx = 0;
+        int newSize = 0;
 
-        for (int i = 0; i < getNumRows(); i++) {
+        for (int i = 0; i < size; i++) {
 
-            if (!toRemove.contains(new Integer(i))) {
-                newInternal[newIntIdx] = internal[i];
-                newMissing[newIntIdx] = missing[i];
-                newEmpty[newIntIdx] = empty[i];
-                newIntIdx++;
+            if (!toRemove.get(i)) {
+                internal[newSize] = internal[i];
+                newSize++;
             }
         }
 
-        internal = newInternal;
-        this.setMissingValues(newMissing);
-        empty = newEmpty;
+        Arrays.fill(internal, newSize, size, 0);
+        removeFlags(toRemove);
+        size = newSize;
     } // end method removeRowsByIndex
 
     /**
@@ -843,26 +756,20 @@ implements NumericColumn {
      */
     public Column reorderRows(int[] newOrder) {
         double[] newInternal = null;
-        boolean[] newMissing = null;
-        boolean[] newEmpty = null;
 
-        if (newOrder.length == internal.length) {
-            newInternal = new double[internal.length];
-            newMissing = new boolean[internal.length];
-            newEmpty = new boolean[internal.length];
+        if (newOrder.length == size) {
+            newInternal = new double[size];
 
-            for (int i = 0; i < internal.length; i++) {
+            for (int i = 0; i < size; i++) {
                 newInternal[i] = internal[newOrder[i]];
-                newMissing[i] = missing[newOrder[i]];
-                newEmpty[i] = empty[newOrder[i]];
             }
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
 
         DoubleColumn dc =
-            new DoubleColumn(newInternal, newMissing, newEmpty, getLabel(),
-                    getComment());
+            new DoubleColumn(newInternal, subsetOf(missing, newOrder),
+                    subsetOf(empty, newOrder), getLabel(), getComment());
 
         return dc;
     }
@@ -974,26 +881,14 @@ implements NumericColumn {
      */
     public void setNumRows(int newCapacity) {
 
-        if (internal != null) {
-            double[] newInternal = new double[newCapacity];
-            boolean[] newMissing = new boolean[newCapacity];
-            boolean[] newEmpty = new boolean[newCapacity];
-
-            if (newCapacity > internal.length) {
-                newCapacity = internal.length;
-            }
-
-            System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-            System.arraycopy(missing, 0, newMissing, 0, missing.length);
-            System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-            internal = newInternal;
-            this.setMissingValues(newMissing);
-            empty = newEmpty;
+        if (newCapacity < size) {
+            Arrays.fill(internal, newCapacity, size, 0);
+            clearFlags(newCapacity);
         } else {
-            internal = new double[newCapacity];
-            missing = new boolean[newCapacity];
-            empty = new boolean[newCapacity];
+            ensureCapacity(newCapacity);
         }
+
+        size = newCapacity;
     }
 
     /**
@@ -1045,15 +940,6 @@ implements NumericColumn {
         internal[pos] = Double.parseDouble(newEntry);
     }
 
-    /**
-     * Sets the value of <code>row</code> to <code>b</code> which should be
-     * false.
-     *
-     * @param b   Should be true
-     * @param row Row to se to empty
-     */
-    public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
     /**
      * Sort the elements in this column.
      */
@@ -1068,7 +954,7 @@ implements NumericColumn {
      */
     @Override
     public void sort(MutableTable t, SortMode sortMode) {
-        internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+        internal = doSort(internal, 0, size - 1, t, sortMode);
     }
 
     /**
@@ -1084,9 +970,9 @@ implements NumericColumn {
     @Override
     public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-        if (end > internal.length - 1) {
+        if (end > size - 1) {
             _logger.severe(" end index was out of bounds");
-            end = internal.length - 1;
+            end = size - 1;
         }
 
         internal = doSort(internal, begin, end, t, sortMode);
@@ -1101,14 +987,69 @@ implements NumericColumn {
      */
     public void swapRows(int pos1, int pos2) {
         double d1 = internal[pos1];
-        boolean miss = missing[pos1];
-        boolean emp = empty[pos1];
         internal[pos1] = internal[pos2];
         internal[pos2] = d1;
-        missing[pos1] = missing[pos2];
-        missing[pos2] = miss;
+        swapFlags(pos1, pos2);
+    }
+
+    /**
+     * Trims the capacity of this <code>Column</code> to its number of rows.
+     */
+    @Override
+    public void trimToSize() {
+
+        if (internal.length != size) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+     * geometrically, so that appending rows one at a time is amortized O(1).
+     *
+     * @param minCapacity Number of rows to make room for
+     */
+    private void ensureCapacity(int minCapacity) {
+
+        if (minCapacity > internal.length) {
+            resize(newCapacity(internal.length, minCapacity));
+        }
+    }
 
-        empty[pos1] = empty[pos2];
-        empty[pos2] = emp;
+    /**
+     * Reallocates the arrays holding the rows with the given capacity.
+     *
+     * @param capacity The new capacity, at least the number of rows
+     */
+    private void resize(int capacity) {
+        double[] newInternal = new double[capacity];
+        System.arraycopy(internal, 0, newInternal, 0, size);
+        internal = newInternal;
+    }
+
+    /**
+     * Drops the spare capacity before serialization, so that the serialized
+     * form only holds the rows.
+     *
+     * @return This column
+     */
+    private Object writeReplace() {
+        trimToSize();
+
+        return this;
+    }
+
+    /**
+     * Restores the number of rows after deserialization.
+     *
+     * @param  in The stream to read from
+     *
+     * @throws IOException            If the column cannot be read
+     * @throws ClassNotFoundException If a class of the column cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException,
+                ClassNotFoundException {
+        in.defaultReadObject();
+        size = internal.length;
     }
 } // end class DoubleColumn
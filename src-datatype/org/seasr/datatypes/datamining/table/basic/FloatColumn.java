@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -64,7 +65,7 @@ import org.seasr.datatypes.datamining.table.NumericColumn;
  * of floats, swapping of floats, setting of floats by index, reordering by
  * index, compareing of floats.</p>
  *
- * <p>It is very inefficient for: removals, insertions, additions.</p>
+ * <p>It is very inefficient for: removals, insertions.</p>
  *
  * @author  suvalala
  * @author  redman
@@ -81,12 +82,12 @@ public final class FloatColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private float[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Maximum value held in the column. */
    private float max;
 
@@ -111,12 +112,13 @@ public final class FloatColumn extends MissingValuesColumn
     * @param lbl  Labels for the column
     * @param comm Comment for the column
     */
-   private FloatColumn(float[] vals, boolean[] newMiss, boolean[] newEmp,
+   private FloatColumn(float[] vals, RowMask newMiss, RowMask newEmp,
                        String lbl, String comm) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.FLOAT;
-      this.setMissingValues(newMiss);
+      missing = newMiss;
       empty = newEmp;
       setLabel(lbl);
       setComment(comm);
@@ -129,15 +131,9 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public FloatColumn(int capacity) {
       internal = new float[capacity];
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.FLOAT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -147,15 +143,9 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public FloatColumn(float[] vals) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.FLOAT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -286,7 +276,7 @@ public final class FloatColumn extends MissingValuesColumn
       max = Float.MIN_VALUE;
       min = Float.MAX_VALUE;
 
-      for (int i = 1; i < internal.length; i++) {
+      for (int i = 1; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -308,17 +298,9 @@ public final class FloatColumn extends MissingValuesColumn
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      float[] newInternal = new float[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = ((Number) newEntry).floatValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = ((Number) newEntry).floatValue();
+      size++;
    }
 
    /**
@@ -327,17 +309,8 @@ public final class FloatColumn extends MissingValuesColumn
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      float[] newInternal = new float[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -419,16 +392,8 @@ public final class FloatColumn extends MissingValuesColumn
             newVals[i] = getFloat(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         fc = new FloatColumn(newVals, miss, em, getLabel(), getComment());
+         fc = new FloatColumn(newVals, copyOf(missing), copyOf(empty),
+                              getLabel(), getComment());
 
          return fc;
       }
@@ -523,7 +488,11 @@ public final class FloatColumn extends MissingValuesColumn
     *
     * @return the internal representation of the data.
     */
-   public Object getInternal() { return internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return internal;
+   }
 
    /**
     * Get the value at pos as a long.
@@ -565,7 +534,7 @@ public final class FloatColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -580,7 +549,7 @@ public final class FloatColumn extends MissingValuesColumn
     *
     * @return the number of rows this column can hold
     */
-   public int getNumRows() { return internal.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Return the entry at pos as a Float.
@@ -607,7 +576,7 @@ public final class FloatColumn extends MissingValuesColumn
     * @return the internal representation of this Column.
     */
    public float[] getScaledFloats() {
-      int size1 = this.internal.length;
+      int size1 = this.size;
       float[] tmp = new float[size1];
       double min = this.getMin();
       double scal = 1.0 / (this.getMax() - this.getMin());
@@ -651,18 +620,14 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       float[] subset = new float[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       FloatColumn bc =
-         new FloatColumn(subset, newMissing, newEmpty, getLabel(),
-                         getComment());
+         new FloatColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                         getLabel(), getComment());
 
       return bc;
    }
@@ -682,20 +647,16 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       float[] subset = new float[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       FloatColumn fc =
-         new FloatColumn(subset, newMissing, newEmpty,
-                         getLabel(), getComment());
+         new FloatColumn(subset, subsetOf(missing, pos, len),
+                         subsetOf(empty, pos, len), getLabel(), getComment());
 
       return fc;
    }
@@ -715,44 +676,13 @@ public final class FloatColumn extends MissingValuesColumn
          return;
       }
 
-      float[] newInternal = new float[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Float) newEntry).floatValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Float) newEntry).floatValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at <code>row</code> is empty.
-    *
-    * @param  row Row to test for empty status
-    *
-    * @return Whether or not the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the Column, at pos. All entries from pos+1 will be
     * moved back 1 position and the last entry will be set to emptyValue;
@@ -763,22 +693,11 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public Object removeRow(int pos) {
       float removed = internal[pos];
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      float[] newInternal = new float[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = 0;
 
       return new Float(removed);
    }
@@ -790,33 +709,25 @@ public final class FloatColumn extends MissingValuesColumn
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      float[] newInternal = new float[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         // check if this row is in the list of rows to remove
-         // if this row is not in the list, copy it into the new internal
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -832,26 +743,20 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public Column reorderRows(int[] newOrder) {
       float[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new float[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new float[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       FloatColumn fc =
-         new FloatColumn(newInternal, newMissing, newEmpty, getLabel(),
-                         getComment());
+         new FloatColumn(newInternal, subsetOf(missing, newOrder),
+                         subsetOf(empty, newOrder), getLabel(), getComment());
 
       return fc;
    }
@@ -962,26 +867,14 @@ public final class FloatColumn extends MissingValuesColumn
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         float[] newInternal = new float[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new float[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    } // end method setNumRows
 
    /**
@@ -1032,15 +925,6 @@ public final class FloatColumn extends MissingValuesColumn
    }
 
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this column.
     */
@@ -1055,7 +939,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1071,9 +955,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1088,14 +972,69 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       float d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      float[] newInternal = new float[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
    }
 } // end class FloatColumn
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -63,7 +64,7 @@ import org.seasr.datatypes.datamining.table.NumericColumn;
  * ints, swapping of ints, setting of ints by index, reordering by index,
  * comparing of ints</p>
  *
- * <p>It is very inefficient for: removals, insertions, additions.</p>
+ * <p>It is very inefficient for: removals, insertions.</p>
  *
  * @author  suvalala
  * @author  redman
@@ -80,12 +81,12 @@ public final class IntColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private int[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Maximum value held in the column. */
    private int max;
 
@@ -110,12 +111,13 @@ public final class IntColumn extends MissingValuesColumn
     * @param lbl  Labels for the column
     * @param comm Comment for the column
     */
-   private IntColumn(int[] vals, boolean[] miss, boolean[] emp, String lbl,
+   private IntColumn(int[] vals, RowMask miss, RowMask emp, String lbl,
                      String comm) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.INTEGER;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -128,15 +130,9 @@ public final class IntColumn extends MissingValuesColumn
     */
    public IntColumn(int capacity) {
       internal = new int[capacity];
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.INTEGER;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -146,15 +142,9 @@ public final class IntColumn extends MissingValuesColumn
     */
    public IntColumn(int[] vals) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.INTEGER;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -188,7 +178,7 @@ public final class IntColumn extends MissingValuesColumn
       max = Integer.MIN_VALUE;
       min = Integer.MAX_VALUE;
 
-      for (int i = 1; i < internal.length; i++) {
+      for (int i = 1; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -306,17 +296,9 @@ public final class IntColumn extends MissingValuesColumn
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      int[] newInternal = new int[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = ((Number) newEntry).intValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = ((Number) newEntry).intValue();
+      size++;
    }
 
    /**
@@ -325,17 +307,8 @@ public final class IntColumn extends MissingValuesColumn
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      int[] newInternal = new int[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -415,16 +388,8 @@ public final class IntColumn extends MissingValuesColumn
             newVals[i] = getInt(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         newCol = new IntColumn(newVals, miss, em, getLabel(), getComment());
+         newCol = new IntColumn(newVals, copyOf(missing), copyOf(empty),
+                                getLabel(), getComment());
 
          return newCol;
       }
@@ -524,7 +489,11 @@ public final class IntColumn extends MissingValuesColumn
     * @deprecated Description of return value.
     */
    @Deprecated
-public Object getInternal() { return this.internal; }
+public Object getInternal() {
+      trimToSize();
+
+      return this.internal;
+   }
 
    /**
     * Get the value at pos as a long.
@@ -567,7 +536,7 @@ public Object getInternal() { return this.internal; }
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueEmpty(i) && !isValueMissing(i)) {
             numEntries++;
@@ -583,7 +552,7 @@ public Object getInternal() { return this.internal; }
     *
     * @return the number of rows this column can hold
     */
-   public int getNumRows() { return internal.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Returns the value at pos as an Integer.
@@ -635,17 +604,14 @@ public Object getInternal() { return this.internal; }
     */
    public Column getSubset(int[] rows) {
       int[] subset = new int[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       IntColumn bc =
-         new IntColumn(subset, newMissing, newEmpty, getLabel(), getComment());
+         new IntColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                       getLabel(), getComment());
 
       return bc;
    }
@@ -665,20 +631,16 @@ public Object getInternal() { return this.internal; }
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       int[] subset = new int[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       IntColumn ic =
-         new IntColumn(subset, newMissing, newEmpty,
-                       getLabel(), getComment());
+         new IntColumn(subset, subsetOf(missing, pos, len),
+                       subsetOf(empty, pos, len), getLabel(), getComment());
 
       return ic;
    }
@@ -698,44 +660,13 @@ public Object getInternal() { return this.internal; }
          return;
       }
 
-      int[] newInternal = new int[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Integer) newEntry).intValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Integer) newEntry).intValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at <code>row</code> is empty.
-    *
-    * @param  row Row to test for empty status
-    *
-    * @return Whether or not the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the Column, at pos. The number of rows in this
     * column will decrease by one.
@@ -746,22 +677,11 @@ public Object getInternal() { return this.internal; }
     */
    public Object removeRow(int pos) {
       int removed = internal[pos];
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      int[] newInternal = new int[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = 0;
 
       return new Integer(removed);
    }
@@ -773,33 +693,25 @@ public Object getInternal() { return this.internal; }
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      int[] newInternal = new int[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         // check if this row is in the list of rows to remove
-         // if this row is not in the list, copy it into the new internal
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -815,26 +727,20 @@ public Object getInternal() { return this.internal; }
     */
    public Column reorderRows(int[] newOrder) {
       int[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new int[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new int[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       IntColumn ic =
-         new IntColumn(newInternal, newMissing, newEmpty, getLabel(),
-                       getComment());
+         new IntColumn(newInternal, subsetOf(missing, newOrder),
+                       subsetOf(empty, newOrder), getLabel(), getComment());
 
       return ic;
    }
@@ -938,26 +844,14 @@ public Object getInternal() { return this.internal; }
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         int[] newInternal = new int[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new int[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    }
 
    /**
@@ -1009,15 +903,6 @@ public Object getInternal() { return this.internal; }
       internal[pos] = Integer.parseInt(newEntry);
    }
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this column.
     */
@@ -1032,7 +917,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1048,9 +933,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1064,14 +949,69 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       int d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      int[] newInternal = new int[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
    }
 } // end class IntColumn
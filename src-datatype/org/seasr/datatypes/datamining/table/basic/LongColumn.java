@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -68,8 +69,7 @@ import org.seasr.datatypes.datamining.table.NumericColumn;
  *            representation of longs, swapping of longs, setting of longs by
  *            index, reOrder-ing by index, comparing of shorts.</p>
  *
- *            <p>It is very inefficient for: removals, insertions,
- *            additions.</p>
+ *            <p>It is very inefficient for: removals, insertions.</p>
  */
 public final class LongColumn extends MissingValuesColumn
    implements NumericColumn {
@@ -81,12 +81,12 @@ public final class LongColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private long[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Maximum value held in the column. */
    private long max;
 
@@ -111,12 +111,13 @@ public final class LongColumn extends MissingValuesColumn
     * @param lbl  Labels for the column
     * @param comm Comment for the column
     */
-   private LongColumn(long[] vals, boolean[] miss, boolean[] emp, String lbl,
+   private LongColumn(long[] vals, RowMask miss, RowMask emp, String lbl,
                       String comm) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.LONG;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -129,15 +130,9 @@ public final class LongColumn extends MissingValuesColumn
     */
    public LongColumn(int capacity) {
       internal = new long[capacity];
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.LONG;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -147,15 +142,9 @@ public final class LongColumn extends MissingValuesColumn
     */
    public LongColumn(long[] vals) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.LONG;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -189,7 +178,7 @@ public final class LongColumn extends MissingValuesColumn
       max = Long.MIN_VALUE;
       min = Long.MAX_VALUE;
 
-      for (int i = 1; i < internal.length; i++) {
+      for (int i = 1; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -307,17 +296,9 @@ public final class LongColumn extends MissingValuesColumn
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      long[] newInternal = new long[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = ((Long) newEntry).longValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = ((Long) newEntry).longValue();
+      size++;
    }
 
    /**
@@ -326,17 +307,8 @@ public final class LongColumn extends MissingValuesColumn
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      long[] newInternal = new long[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -418,16 +390,8 @@ public final class LongColumn extends MissingValuesColumn
             newVals[i] = getLong(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         newCol = new LongColumn(newVals, miss, em, getLabel(), getComment());
+         newCol = new LongColumn(newVals, copyOf(missing), copyOf(empty),
+                                 getLabel(), getComment());
 
          return newCol;
       }
@@ -524,7 +488,11 @@ public final class LongColumn extends MissingValuesColumn
     *
     * @return the internal representation of the data.
     */
-   public Object getInternal() { return internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return internal;
+   }
 
    /**
     * Return the value at pos.
@@ -566,7 +534,7 @@ public final class LongColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -581,7 +549,7 @@ public final class LongColumn extends MissingValuesColumn
     *
     * @return the number of rows this column can hold
     */
-   public int getNumRows() { return internal.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Return the value at pos as a Long.
@@ -633,17 +601,14 @@ public final class LongColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       long[] subset = new long[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       LongColumn bc =
-         new LongColumn(subset, newMissing, newEmpty, getLabel(), getComment());
+         new LongColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                        getLabel(), getComment());
 
       return bc;
    }
@@ -663,20 +628,16 @@ public final class LongColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       long[] subset = new long[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       LongColumn lc =
-         new LongColumn(subset, newMissing, newEmpty,
-                        getLabel(), getComment());
+         new LongColumn(subset, subsetOf(missing, pos, len),
+                        subsetOf(empty, pos, len), getLabel(), getComment());
 
       return lc;
    }
@@ -696,44 +657,13 @@ public final class LongColumn extends MissingValuesColumn
          return;
       }
 
-      long[] newInternal = new long[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Long) newEntry).longValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Long) newEntry).longValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at <code>row</code> is empty.
-    *
-    * @param  row Row to test for empty status
-    *
-    * @return Whether or not the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the Column, at pos. All entries from pos+1 will be
     * moved back 1 position.
@@ -744,22 +674,11 @@ public final class LongColumn extends MissingValuesColumn
     */
    public Object removeRow(int pos) {
       long removed = internal[pos];
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      long[] newInternal = new long[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = 0;
 
       return new Long(removed);
    }
@@ -771,31 +690,25 @@ public final class LongColumn extends MissingValuesColumn
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      long[] newInternal = new long[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -811,26 +724,20 @@ public final class LongColumn extends MissingValuesColumn
     */
    public Column reorderRows(int[] newOrder) {
       long[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new long[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new long[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       LongColumn lc =
-         new LongColumn(newInternal, newMissing, newEmpty, getLabel(),
-                        getComment());
+         new LongColumn(newInternal, subsetOf(missing, newOrder),
+                        subsetOf(empty, newOrder), getLabel(), getComment());
 
       return lc;
    }
@@ -940,26 +847,14 @@ public final class LongColumn extends MissingValuesColumn
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         long[] newInternal = new long[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new long[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    }
 
    /**
@@ -1010,15 +905,6 @@ public final class LongColumn extends MissingValuesColumn
       internal[pos] = Long.parseLong(newEntry);
    }
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this column.
     */
@@ -1033,7 +919,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1049,9 +935,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1066,14 +952,69 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       long d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
    }
 
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      long[] newInternal = new long[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
+   }
 } // end class LongColumn
@@ -42,6 +42,11 @@
 
 package org.seasr.datatypes.datamining.table.basic;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * This class provides some support for missing values to all the subclasses. It
  * provides a method that returns true if there are any missing values in the
@@ -61,39 +66,244 @@ public abstract class MissingValuesColumn extends AbstractColumn {
    /** The universal version identifier. */
    static final long serialVersionUID = -1800413948697627105L;
 
+   /**
+    * The serialized form keeps the missing values in a <code>boolean</code>
+    * array with their count, as it was before the masks were bitmaps, so that
+    * the columns serialized then can still be read. The empty values were kept
+    * by each subclass at the time; they are now written here, and are not
+    * restored from the columns serialized then.
+    */
+   private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("missing", boolean[].class),
+      new ObjectStreamField("numMissingValues", Integer.TYPE),
+      new ObjectStreamField("empty", boolean[].class)
+   };
+
    //~ Instance fields *********************************************************
 
    /**
-    * Stores the missing values. A boolean for each row, true if the value in
-    * that row is missing.
+    * Stores the missing values: the rows whose value is missing, or null if no
+    * value is missing.
     */
-   protected boolean[] missing = null;
+   protected RowMask missing = null;
 
-   /** Count of the number of missing values. */
-   protected int numMissingValues = 0;
+   /**
+    * Stores the empty values: the rows whose value is empty, or null if no
+    * value is empty.
+    */
+   protected RowMask empty = null;
 
    //~ Methods *****************************************************************
 
    /**
-    * Gets the missing values in a <code>boolean</code> array.
+    * Sets a row of a mask, creating the mask if needed.
+    *
+    * @param  mask The mask, or null if it is empty
+    * @param  row  The row
+    * @param  b    The value of the row
+    *
+    * @return The mask, or null if it is empty
+    */
+   private static RowMask set(RowMask mask, int row, boolean b) {
+
+      if (mask == null) {
+
+         if (!b) {
+            return null;
+         }
+
+         mask = new RowMask();
+      }
+
+      mask.set(row, b);
+
+      return mask.isEmpty() ? null : mask;
+   }
+
+   /**
+    * Creates a copy of a mask.
+    *
+    * @param  mask The mask, or null if it is empty
+    *
+    * @return The copy, or null if the mask is empty
+    */
+   protected static RowMask copyOf(RowMask mask) {
+      return (mask == null) ? null : mask.copy();
+   }
+
+   /**
+    * Gets the rows <code>pos</code> to <code>pos + len - 1</code> of a mask.
+    *
+    * @param  mask The mask, or null if it is empty
+    * @param  pos  First row
+    * @param  len  Number of rows
+    *
+    * @return The subset, or null if it is empty
+    */
+   protected static RowMask subsetOf(RowMask mask, int pos, int len) {
+
+      if (mask == null) {
+         return null;
+      }
+
+      RowMask subset = mask.subset(pos, len);
+
+      return subset.isEmpty() ? null : subset;
+   }
+
+   /**
+    * Gets the given rows of a mask, in order.
+    *
+    * @param  mask The mask, or null if it is empty
+    * @param  rows The rows
+    *
+    * @return The subset, or null if it is empty
+    */
+   protected static RowMask subsetOf(RowMask mask, int[] rows) {
+
+      if (mask == null) {
+         return null;
+      }
+
+      RowMask subset = mask.subset(rows);
+
+      return subset.isEmpty() ? null : subset;
+   }
+
+   /**
+    * Shifts the missing and empty flags to make room for a row inserted at
+    * <code>pos</code>.
+    *
+    * @param pos Position of the inserted row
+    */
+   protected final void insertFlags(int pos) {
+
+      if (missing != null) {
+         missing.insert(pos);
+      }
+
+      if (empty != null) {
+         empty.insert(pos);
+      }
+   }
+
+   /**
+    * Removes the missing and empty flags of the row at <code>pos</code>.
+    *
+    * @param pos Position of the removed row
+    */
+   protected final void removeFlags(int pos) {
+
+      if (missing != null) {
+         missing.remove(pos);
+         missing = missing.isEmpty() ? null : missing;
+      }
+
+      if (empty != null) {
+         empty.remove(pos);
+         empty = empty.isEmpty() ? null : empty;
+      }
+   }
+
+   /**
+    * Removes the missing and empty flags of the given rows.
+    *
+    * @param rows The removed rows
+    */
+   protected final void removeFlags(RowMask rows) {
+
+      if (missing != null) {
+         missing.removeAll(rows);
+         missing = missing.isEmpty() ? null : missing;
+      }
+
+      if (empty != null) {
+         empty.removeAll(rows);
+         empty = empty.isEmpty() ? null : empty;
+      }
+   }
+
+   /**
+    * Clears the missing and empty flags of the rows at or after
+    * <code>from</code>.
+    *
+    * @param from First row to clear
+    */
+   protected final void clearFlags(int from) {
+
+      if (missing != null) {
+         missing.clearFrom(from);
+         missing = missing.isEmpty() ? null : missing;
+      }
+
+      if (empty != null) {
+         empty.clearFrom(from);
+         empty = empty.isEmpty() ? null : empty;
+      }
+   }
+
+   /**
+    * Swaps the missing and empty flags of two rows.
+    *
+    * @param pos1 The first row
+    * @param pos2 The second row
+    */
+   protected final void swapFlags(int pos1, int pos2) {
+
+      if (missing != null) {
+         missing.swap(pos1, pos2);
+      }
+
+      if (empty != null) {
+         empty.swap(pos1, pos2);
+      }
+   }
+
+   /**
+    * Gets the missing values in a <code>boolean</code> array. The array is a
+    * copy; changing it does not change the <code>Column</code>.
     *
     * @return Missing values in a boolean array
     */
-   public final boolean[] getMissingValues() { return missing; }
+   public final boolean[] getMissingValues() {
+      return (missing == null) ? new boolean[getNumRows()]
+                               : missing.toArray(getNumRows());
+   }
 
    /**
     * Gets the number of missing values in the <code>Column</code>.
     *
     * @return Number of missing values in the <code>Column</code>
     */
-   public final int getNumMissingValues() { return numMissingValues; }
+   public final int getNumMissingValues() {
+      return (missing == null) ? 0 : missing.cardinality();
+   }
 
    /**
     * Tests if there are any missing values.
     *
     * @return True if there are any missing values
     */
-   public final boolean hasMissingValues() { return numMissingValues != 0; }
+   public final boolean hasMissingValues() { return missing != null; }
+
+   /**
+    * Grows a capacity by half, so that a sequence of appends is amortized
+    * O(1).
+    *
+    * @param  capacity    The current capacity
+    * @param  minCapacity The capacity that is needed
+    *
+    * @return The new capacity, at least <code>minCapacity</code>
+    */
+   protected static int newCapacity(int capacity, int minCapacity) {
+      int newCapacity = capacity + (capacity >> 1) + 1;
+
+      if (newCapacity < minCapacity || newCapacity < 0) {
+         newCapacity = minCapacity;
+      }
+
+      return newCapacity;
+   }
 
    /**
     * Tests if the value at the specified row is missing.
@@ -102,7 +312,20 @@ public abstract class MissingValuesColumn extends AbstractColumn {
     *
     * @return True if the value is missing
     */
-   public final boolean isValueMissing(int row) { return missing[row]; }
+   public final boolean isValueMissing(int row) {
+      return (missing != null) && missing.get(row);
+   }
+
+   /**
+    * Tests if the value at the specified row is empty.
+    *
+    * @param  row Row index to test if empty
+    *
+    * @return True if the value is empty
+    */
+   public final boolean isValueEmpty(int row) {
+      return (empty != null) && empty.get(row);
+   }
 
    /**
     * Sets the missing values to the array passed in.
@@ -110,15 +333,7 @@ public abstract class MissingValuesColumn extends AbstractColumn {
     * @param miss Array of missing value flags
     */
    public final void setMissingValues(boolean[] miss) {
-      missing = miss;
-      this.numMissingValues = 0;
-
-      for (int i = 0; i < miss.length; i++) {
-
-         if (miss[i]) {
-            this.numMissingValues++;
-         }
-      }
+      missing = RowMask.valueOf(miss);
    }
 
    /**
@@ -129,18 +344,59 @@ public abstract class MissingValuesColumn extends AbstractColumn {
     * @param row Row to set the missing flag for
     */
    public final void setValueToMissing(boolean b, int row) {
+      missing = set(missing, row, b);
+   }
 
-      if (b == missing[row]) {
-         return;
-      }
+   /**
+    * Sets the value at the given row to empty if <code>b</code> is true, not
+    * empty otherwise.
+    *
+    * @param b   True if the value is empty
+    * @param row Row to set the empty flag for
+    */
+   public final void setValueToEmpty(boolean b, int row) {
+      empty = set(empty, row, b);
+   }
 
-      if (b == true) {
-         numMissingValues++;
-      } else {
-         numMissingValues--;
-      }
+   /**
+    * Trims the capacity of the <code>Column</code> to its number of rows.
+    * Columns that keep spare capacity to make appends cheap override this.
+    */
+   public void trimToSize() { }
+
+   /**
+    * Writes the masks as <code>boolean</code> arrays.
+    *
+    * @param  out The stream to write to
+    *
+    * @throws IOException If the column cannot be written
+    */
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      int numRows = getNumRows();
+      ObjectOutputStream.PutField fields = out.putFields();
+
+      fields.put("missing", getMissingValues());
+      fields.put("numMissingValues", getNumMissingValues());
+      fields.put("empty", (empty == null) ? null : empty.toArray(numRows));
+      out.writeFields();
+   }
+
+   /**
+    * Reads the masks from their <code>boolean</code> arrays.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+               ClassNotFoundException {
+      ObjectInputStream.GetField fields = in.readFields();
+      boolean[] missingFlags = (boolean[]) fields.get("missing", null);
+      boolean[] emptyFlags = (boolean[]) fields.get("empty", null);
 
-      missing[row] = b;
+      missing = (missingFlags == null) ? null : RowMask.valueOf(missingFlags);
+      empty = (emptyFlags == null) ? null : RowMask.valueOf(emptyFlags);
    }
 
 } // end class MissingValuesColumn
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -64,7 +65,7 @@ import org.seasr.datatypes.datamining.table.util.TableUtilities;
  * <p>It it optimized for: retrieval of Objects by index, compact representation
  * of Objects, swappings , settings, reordering by index,</p>
  *
- * <p>It is very inefficient for: removals, insertions, additions</p>
+ * <p>It is very inefficient for: removals, insertions</p>
  *
  * @author  suvalala
  * @author  redman
@@ -80,13 +81,13 @@ public final class ObjectColumn extends MissingValuesColumn {
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
 
    /** Holds the internal data representation. */
    private Object[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    private static Logger _logger = Logger.getLogger("ObjectColumn");
 
    //~ Constructors ************************************************************
@@ -106,14 +107,15 @@ public final class ObjectColumn extends MissingValuesColumn {
     * @param comm Comment for the column
     */
    private ObjectColumn(Object[] vals,
-                        boolean[] miss,
-                        boolean[] emp,
+                        RowMask miss,
+                        RowMask emp,
                         String lbl,
                         String comm) {
       internal = vals;
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.OBJECT;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -126,15 +128,9 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public ObjectColumn(int capacity) {
       internal = new Object[capacity];
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.OBJECT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -144,15 +140,9 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public ObjectColumn(Object[] vals) {
       internal = vals;
+      size = internal.length;
       setIsNominal(true);
       type = ColumnTypes.OBJECT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -280,17 +270,9 @@ public final class ObjectColumn extends MissingValuesColumn {
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      Object[] newInternal = new Object[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = newEntry;
+      size++;
    }
 
    /**
@@ -299,17 +281,8 @@ public final class ObjectColumn extends MissingValuesColumn {
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      Object[] newInternal = new Object[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -386,16 +359,8 @@ public final class ObjectColumn extends MissingValuesColumn {
             newVals[i] = getObject(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         newCol = new ObjectColumn(newVals, miss, em, getLabel(), getComment());
+         newCol = new ObjectColumn(newVals, copyOf(missing), copyOf(empty),
+                                   getLabel(), getComment());
 
          return newCol;
       }
@@ -554,7 +519,11 @@ public final class ObjectColumn extends MissingValuesColumn {
     *
     * @return the internal representation of the data.
     */
-   public Object getInternal() { return internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return internal;
+   }
 
    /**
     * If the item at pos is a Number, return its long value. Otherwise if the
@@ -588,7 +557,7 @@ public final class ObjectColumn extends MissingValuesColumn {
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -603,7 +572,7 @@ public final class ObjectColumn extends MissingValuesColumn {
     *
     * @return the number of rows this column can hold
     */
-   public int getNumRows() { return internal.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Get the item at pos.
@@ -668,21 +637,14 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public Column getSubset(int[] rows) {
       Object[] subset = new Object[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       ObjectColumn bc =
-         new ObjectColumn(subset,
-                          newMissing,
-                          newEmpty,
-                          getLabel(),
-                          getComment());
+         new ObjectColumn(subset, subsetOf(missing, rows),
+                          subsetOf(empty, rows), getLabel(), getComment());
 
       return bc;
    }
@@ -702,23 +664,16 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       Object[] subset = new Object[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       ObjectColumn oc =
-         new ObjectColumn(subset,
-                          newMissing,
-                          newEmpty,
-                          getLabel(),
-                          getComment());
+         new ObjectColumn(subset, subsetOf(missing, pos, len),
+                          subsetOf(empty, pos, len), getLabel(), getComment());
 
       return oc;
    }
@@ -738,51 +693,13 @@ public final class ObjectColumn extends MissingValuesColumn {
          return;
       }
 
-      Object[] newInternal = new Object[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal,
-                          pos,
-                          newInternal,
-                          pos + 1,
-                          internal.length - pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing,
-                          pos,
-                          newMissing,
-                          pos + 1,
-                          internal.length - pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty,
-                          pos,
-                          newEmpty,
-                          pos + 1,
-                          internal.length - pos);
-      }
-
-      newInternal[pos] = newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = newEntry;
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at <code>row</code> is empty.
-    *
-    * @param  row Row to test for empty status
-    *
-    * @return Whether or not the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the Column, at pos. All entries from pos+1 will be
     * moved back 1 position.
@@ -793,32 +710,11 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public Object removeRow(int pos) {
       Object removed = internal[pos];
-      System.arraycopy(internal,
-                       pos + 1,
-                       internal,
-                       pos,
-                       internal.length - (pos + 1));
-      System.arraycopy(missing,
-                       pos + 1,
-                       missing,
-                       pos,
-                       internal.length - (pos + 1));
-
-      System.arraycopy(empty,
-                       pos + 1,
-                       empty,
-                       pos,
-                       internal.length - (pos + 1));
-
-      Object[] newInternal = new Object[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = null;
 
       return removed;
    } // end method removeRow
@@ -830,31 +726,25 @@ public final class ObjectColumn extends MissingValuesColumn {
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      Object[] newInternal = new Object[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, null);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -870,29 +760,20 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public Column reorderRows(int[] newOrder) {
       Object[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new Object[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new Object[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       ObjectColumn oc =
-         new ObjectColumn(newInternal,
-                          newMissing,
-                          newEmpty,
-                          getLabel(),
-                          getComment());
+         new ObjectColumn(newInternal, subsetOf(missing, newOrder),
+                          subsetOf(empty, newOrder), getLabel(), getComment());
 
       return oc;
    } // end method reorderRows
@@ -992,26 +873,14 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         Object[] newInternal = new Object[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, null);
+         clearFlags(newCapacity);
       } else {
-         internal = new Object[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
+
+      size = newCapacity;
    } // end method setNumRows
 
    /**
@@ -1049,15 +918,6 @@ public final class ObjectColumn extends MissingValuesColumn {
     */
    public void setString(String newEntry, int pos) { internal[pos] = newEntry; }
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this column. Not supported for ObjectColumn.
     */
@@ -1089,9 +949,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1106,14 +966,69 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       Object d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      Object[] newInternal = new Object[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
    }
 } // end class ObjectColumn
@@ -0,0 +1,446 @@
+/**
+ * University of Illinois/NCSA
+ * Open Source License
+ *
+ * Copyright (c) 2008, Board of Trustees-University of Illinois.
+ * All rights reserved.
+ *
+ * Developed by:
+ *
+ * Automated Learning Group
+ * National Center for Supercomputing Applications
+ * http://www.seasr.org
+ *
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal with the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimers.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimers in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the names of Automated Learning Group, The National Center for
+ *    Supercomputing Applications, or University of Illinois, nor the names of
+ *    its contributors may be used to endorse or promote products derived from
+ *    this Software without specific prior written permission.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * WITH THE SOFTWARE.
+ */
+
+package org.seasr.datatypes.datamining.table.basic;
+
+import java.io.Serializable;
+
+
+/**
+ * A set of rows stored as a bitmap, one bit per row and 64 rows per word.
+ * Columns use it to flag their missing and empty values. Its cardinality is
+ * kept up to date, and shifting, compacting and subsetting work a word at a
+ * time.
+ */
+public final class RowMask implements Serializable {
+
+   //~ Static fields/initializers **********************************************
+
+   /** The universal version identifier. */
+   static final long serialVersionUID = 4720395317046531209L;
+
+   //~ Instance fields *********************************************************
+
+   /** The bits; row <code>r</code> is bit <code>r % 64</code> of word <code>r / 64</code>. */
+   private long[] words;
+
+   /** Number of rows in the set. */
+   private int cardinality;
+
+   //~ Constructors ************************************************************
+
+   /**
+    * Creates a new, empty <code>RowMask</code>.
+    */
+   public RowMask() { this(new long[1], 0); }
+
+   /**
+    * Creates a new <code>RowMask</code> with the given bits.
+    *
+    * @param words       The bits
+    * @param cardinality Number of bits set
+    */
+   private RowMask(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+   }
+
+   //~ Methods *****************************************************************
+
+   /**
+    * Creates a <code>RowMask</code> from an array of flags.
+    *
+    * @param  flags One flag per row
+    *
+    * @return The rows flagged, or null if there are none
+    */
+   public static RowMask valueOf(boolean[] flags) {
+      long[] words = new long[wordCount(flags.length)];
+      int cardinality = 0;
+
+      for (int i = 0; i < flags.length; i++) {
+
+         if (flags[i]) {
+            words[i >>> 6] |= 1L << i;
+            cardinality++;
+         }
+      }
+
+      return (cardinality > 0) ? new RowMask(words, cardinality) : null;
+   }
+
+   /**
+    * Gets the number of words needed to hold the given number of rows.
+    *
+    * @param  rows Number of rows
+    *
+    * @return Number of words
+    */
+   private static int wordCount(int rows) { return (rows + 63) >>> 6; }
+
+   /**
+    * Grows the bitmap so that it can hold the given row.
+    *
+    * @param row The row
+    */
+   private void ensureRow(int row) {
+      int needed = (row >>> 6) + 1;
+
+      if (needed > words.length) {
+         long[] newWords =
+            new long[Math.max(needed, words.length + (words.length >> 1) + 1)];
+         System.arraycopy(words, 0, newWords, 0, words.length);
+         words = newWords;
+      }
+   }
+
+   /**
+    * Gets the number of rows in the set.
+    *
+    * @return Number of rows in the set
+    */
+   public int cardinality() { return cardinality; }
+
+   /**
+    * Tests if the set is empty.
+    *
+    * @return True if no row is in the set
+    */
+   public boolean isEmpty() { return cardinality == 0; }
+
+   /**
+    * Tests if a row is in the set.
+    *
+    * @param  row The row
+    *
+    * @return True if the row is in the set
+    */
+   public boolean get(int row) {
+      int w = row >>> 6;
+
+      return (w < words.length) && ((words[w] & (1L << row)) != 0);
+   }
+
+   /**
+    * Adds a row to the set or removes it.
+    *
+    * @param row   The row
+    * @param value True to add the row, false to remove it
+    */
+   public void set(int row, boolean value) {
+
+      if (value) {
+         ensureRow(row);
+
+         long bit = 1L << row;
+
+         if ((words[row >>> 6] & bit) == 0) {
+            words[row >>> 6] |= bit;
+            cardinality++;
+         }
+      } else if (get(row)) {
+         words[row >>> 6] &= ~(1L << row);
+         cardinality--;
+      }
+   }
+
+   /**
+    * Gets the first row in the set at or after <code>from</code>.
+    *
+    * @param  from The row to start from
+    *
+    * @return The row, or -1 if there is none
+    */
+   public int nextSetBit(int from) {
+      int w = from >>> 6;
+
+      if (w >= words.length) {
+         return -1;
+      }
+
+      long word = words[w] & (-1L << from);
+
+      while (true) {
+
+         if (word != 0) {
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+         }
+
+         if (++w == words.length) {
+            return -1;
+         }
+
+         word = words[w];
+      }
+   }
+
+   /**
+    * Swaps the membership of two rows.
+    *
+    * @param row1 The first row
+    * @param row2 The second row
+    */
+   public void swap(int row1, int row2) {
+      boolean b1 = get(row1);
+      boolean b2 = get(row2);
+
+      if (b1 != b2) {
+         set(row1, b2);
+         set(row2, b1);
+      }
+   }
+
+   /**
+    * Makes room for a row inserted at <code>pos</code>: the rows at or after
+    * <code>pos</code> move up by one, and <code>pos</code> is not in the set.
+    *
+    * @param pos Position of the inserted row
+    */
+   public void insert(int pos) {
+      int w = pos >>> 6;
+
+      if (w >= words.length) {
+         return;
+      }
+
+      if ((words[words.length - 1] >>> 63) != 0) {
+         ensureRow(words.length << 6);
+      }
+
+      for (int i = words.length - 1; i > w; i--) {
+         words[i] = (words[i] << 1) | (words[i - 1] >>> 63);
+      }
+
+      long low = (1L << pos) - 1;
+
+      if ((pos & 63) == 0) {
+         low = 0;
+      }
+
+      words[w] = (words[w] & low) | ((words[w] & ~low) << 1);
+   }
+
+   /**
+    * Removes the row at <code>pos</code>: the rows after it move down by one.
+    *
+    * @param pos Position of the removed row
+    */
+   public void remove(int pos) {
+      int w = pos >>> 6;
+
+      if (w >= words.length) {
+         return;
+      }
+
+      if (get(pos)) {
+         cardinality--;
+      }
+
+      long low = (1L << pos) - 1;
+
+      if ((pos & 63) == 0) {
+         low = 0;
+      }
+
+      words[w] = (words[w] & low) | ((words[w] >>> 1) & ~low);
+
+      for (int i = w; i < words.length - 1; i++) {
+         words[i] |= words[i + 1] << 63;
+         words[i + 1] >>>= 1;
+      }
+   }
+
+   /**
+    * Removes the given rows, moving the rows after each of them down.
+    *
+    * @param rows The rows to remove
+    */
+   public void removeAll(RowMask rows) {
+
+      if (rows.isEmpty() || isEmpty()) {
+         return;
+      }
+
+      // number of removed rows before each word of the rows to remove
+      int[] removedBefore = new int[rows.words.length + 1];
+
+      for (int i = 0; i < rows.words.length; i++) {
+         removedBefore[i + 1] = removedBefore[i] + Long.bitCount(rows.words[i]);
+      }
+
+      long[] newWords = new long[words.length];
+      int newCardinality = 0;
+
+      for (int row = nextSetBit(0); row >= 0; row = nextSetBit(row + 1)) {
+
+         if (rows.get(row)) {
+            continue;
+         }
+
+         int w = row >>> 6;
+         int shift = (w < rows.words.length)
+            ? removedBefore[w] + Long.bitCount(rows.words[w] & ((1L << row) - 1))
+            : removedBefore[rows.words.length];
+         int newRow = row - shift;
+
+         newWords[newRow >>> 6] |= 1L << newRow;
+         newCardinality++;
+      }
+
+      words = newWords;
+      cardinality = newCardinality;
+   }
+
+   /**
+    * Removes all the rows at or after <code>from</code>.
+    *
+    * @param from The first row to remove
+    */
+   public void clearFrom(int from) {
+      int w = from >>> 6;
+
+      if (w >= words.length) {
+         return;
+      }
+
+      if ((from & 63) != 0) {
+         long keep = words[w] & ((1L << from) - 1);
+         cardinality -= Long.bitCount(words[w] ^ keep);
+         words[w] = keep;
+         w++;
+      }
+
+      for (int i = w; i < words.length; i++) {
+         cardinality -= Long.bitCount(words[i]);
+         words[i] = 0;
+      }
+   }
+
+   /**
+    * Gets the membership of the rows <code>pos</code> to <code>pos + len -
+    * 1</code>, as a new <code>RowMask</code> starting at 0.
+    *
+    * @param  pos First row
+    * @param  len Number of rows
+    *
+    * @return The subset
+    */
+   public RowMask subset(int pos, int len) {
+      long[] newWords = new long[wordCount(len)];
+      int offset = pos & 63;
+      int first = pos >>> 6;
+      int cardinality = 0;
+
+      for (int i = 0; i < newWords.length; i++) {
+         int w = first + i;
+         long word = (w < words.length) ? (words[w] >>> offset) : 0;
+
+         if ((offset != 0) && (w + 1 < words.length)) {
+            word |= words[w + 1] << (64 - offset);
+         }
+
+         newWords[i] = word;
+      }
+
+      if ((len & 63) != 0 && newWords.length > 0) {
+         newWords[newWords.length - 1] &= (1L << len) - 1;
+      }
+
+      for (int i = 0; i < newWords.length; i++) {
+         cardinality += Long.bitCount(newWords[i]);
+      }
+
+      return new RowMask(newWords, cardinality);
+   }
+
+   /**
+    * Gets the membership of the given rows, as a new <code>RowMask</code> in
+    * which row <code>i</code> is <code>rows[i]</code>.
+    *
+    * @param  rows The rows
+    *
+    * @return The subset
+    */
+   public RowMask subset(int[] rows) {
+      RowMask subset = new RowMask(new long[wordCount(rows.length)], 0);
+
+      for (int i = 0; i < rows.length; i++) {
+
+         if (get(rows[i])) {
+            subset.words[i >>> 6] |= 1L << i;
+            subset.cardinality++;
+         }
+      }
+
+      return subset;
+   }
+
+   /**
+    * Creates a copy of this <code>RowMask</code>.
+    *
+    * @return The copy
+    */
+   public RowMask copy() {
+      long[] newWords = new long[words.length];
+      System.arraycopy(words, 0, newWords, 0, words.length);
+
+      return new RowMask(newWords, cardinality);
+   }
+
+   /**
+    * Gets the membership of the first <code>length</code> rows as flags.
+    *
+    * @param  length Number of rows
+    *
+    * @return One flag per row
+    */
+   public boolean[] toArray(int length) {
+      boolean[] flags = new boolean[length];
+
+      for (int row = nextSetBit(0); row >= 0 && row < length; row = nextSetBit(row + 1)) {
+         flags[row] = true;
+      }
+
+      return flags;
+   }
+
+} // end class RowMask
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.seasr.datatypes.datamining.table.Column;
@@ -63,7 +64,7 @@ import org.seasr.datatypes.datamining.table.NumericColumn;
  * of shorts, swapping of shorts, setting of shorts by index, reOrder-ing by
  * index, compareing of shorts</p>
  *
- * <p>It is very inefficient for: removals, insertions, additions</p>
+ * <p>It is very inefficient for: removals, insertions</p>
  *
  * @author  suvalala
  * @author  redman
@@ -80,12 +81,12 @@ public final class ShortColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private short[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Maximum value held in the column. */
    private short max;
 
@@ -110,12 +111,13 @@ public final class ShortColumn extends MissingValuesColumn
     * @param lbl  Labels for the column
     * @param comm Comment for the column
     */
-   private ShortColumn(short[] vals, boolean[] miss, boolean[] emp,
+   private ShortColumn(short[] vals, RowMask miss, RowMask emp,
                        String lbl, String comm) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.SHORT;
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -128,15 +130,9 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public ShortColumn(int capacity) {
       internal = new short[capacity];
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.SHORT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -146,15 +142,9 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public ShortColumn(short[] vals) {
       internal = vals;
+      size = internal.length;
       setIsScalar(true);
       type = ColumnTypes.SHORT;
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -188,7 +178,7 @@ public final class ShortColumn extends MissingValuesColumn
       max = Short.MIN_VALUE;
       min = Short.MAX_VALUE;
 
-      for (int i = 1; i < internal.length; i++) {
+      for (int i = 1; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
 
@@ -306,19 +296,9 @@ public final class ShortColumn extends MissingValuesColumn
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      short[] newInternal = new short[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = ((Number) newEntry).shortValue();
-
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
-
+      ensureCapacity(size + 1);
+      internal[size] = ((Number) newEntry).shortValue();
+      size++;
    }
 
    /**
@@ -327,17 +307,8 @@ public final class ShortColumn extends MissingValuesColumn
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      short[] newInternal = new short[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -417,16 +388,8 @@ public final class ShortColumn extends MissingValuesColumn
             newVals[i] = getShort(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
-         newCol = new ShortColumn(newVals, miss, em, getLabel(), getComment());
+         newCol = new ShortColumn(newVals, copyOf(missing), copyOf(empty),
+                                  getLabel(), getComment());
 
          return newCol;
       }
@@ -521,7 +484,11 @@ public final class ShortColumn extends MissingValuesColumn
     *
     * @return the internal representation of the data.
     */
-   public Object getInternal() { return internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return internal;
+   }
 
    /**
     * Get the value at pos as a long.
@@ -563,7 +530,7 @@ public final class ShortColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -578,7 +545,7 @@ public final class ShortColumn extends MissingValuesColumn
     *
     * @return the number of rows this Column can hold
     */
-   public int getNumRows() { return internal.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Get the value at pos as an Object (Short).
@@ -630,18 +597,14 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       short[] subset = new short[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       ShortColumn bc =
-         new ShortColumn(subset, newMissing, newEmpty, getLabel(),
-                         getComment());
+         new ShortColumn(subset, subsetOf(missing, rows), subsetOf(empty, rows),
+                         getLabel(), getComment());
 
       return bc;
    }
@@ -661,20 +624,16 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > internal.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       short[] subset = new short[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       ShortColumn bc =
-         new ShortColumn(subset, newMissing, newEmpty,
-                         getLabel(), getComment());
+         new ShortColumn(subset, subsetOf(missing, pos, len),
+                         subsetOf(empty, pos, len), getLabel(), getComment());
 
       return bc;
    }
@@ -694,45 +653,13 @@ public final class ShortColumn extends MissingValuesColumn
          return;
       }
 
-      short[] newInternal = new short[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = ((Number) newEntry).shortValue();
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = ((Number) newEntry).shortValue();
+      size++;
    } // end method insertRow
 
-   /**
-    * Tests if the value at <code>row</code> is empty.
-    *
-    * @param  row Row to test for empty status
-    *
-    * @return Whether or not the row is empty
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Removes an entry from the Column, at pos. All entries from pos+1 will be
     * moved back 1 position and the last entry will be set to emptyValue.
@@ -744,26 +671,10 @@ public final class ShortColumn extends MissingValuesColumn
    public Object removeRow(int pos) {
       short removed = internal[pos];
 
-      // copy all the items after the item to be removed one position up
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      // copy the items into a new array
-      short[] newInternal = new short[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = (short) 0;
 
       return new Short(removed);
    }
@@ -775,32 +686,25 @@ public final class ShortColumn extends MissingValuesColumn
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      short[] newInternal = new short[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
+      int newSize = 0;
 
-      int newIntIdx = 0;
+      for (int i = 0; i < size; i++) {
 
-      for (int i = 0; i < getNumRows(); i++) {
-
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, (short) 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -816,26 +720,20 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public Column reorderRows(int[] newOrder) {
       short[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == internal.length) {
-         newInternal = new short[internal.length];
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new short[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       ShortColumn bc =
-         new ShortColumn(newInternal, newMissing, newEmpty, getLabel(),
-                         getComment());
+         new ShortColumn(newInternal, subsetOf(missing, newOrder),
+                         subsetOf(empty, newOrder), getLabel(), getComment());
 
       return bc;
    }
@@ -945,27 +843,14 @@ public final class ShortColumn extends MissingValuesColumn
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         short[] newInternal = new short[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, (short) 0);
+         clearFlags(newCapacity);
       } else {
-         internal = new short[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
 
+      size = newCapacity;
    }
 
    /**
@@ -1015,15 +900,6 @@ public final class ShortColumn extends MissingValuesColumn
       internal[pos] = Short.parseShort(newEntry);
    }
 
-   /**
-    * Sets the value of <code>row</code> to <code>b</code> which should be
-    * false.
-    *
-    * @param b   Should be true
-    * @param row Row to se to empty
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this Column.
     */
@@ -1038,7 +914,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, t, sortMode);
+      internal = doSort(internal, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1054,9 +930,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > internal.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = internal.length - 1;
+         end = size - 1;
       }
 
       internal = doSort(internal, begin, end, t, sortMode);
@@ -1071,15 +947,70 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       short d1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = d1;
 
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
+   }
+
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      short[] newInternal = new short[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
    }
 } // end class ShortColumn
@@ -44,10 +44,11 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.logging.Logger;
 
@@ -77,12 +78,12 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** The int value for each row. Each is an index into the values array */
    private int[] rowIndicies;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    /** Map of integer values to Strings. */
    private final HashMap<String, Integer> setOfValues;
 
@@ -111,7 +112,7 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     */
    @SuppressWarnings("unchecked")
    private StringColumn(int[] rows, String[] vals, HashMap<String, Integer> set,
-                        boolean[] missingV, boolean[] emptyV, String lbl,
+                        RowMask missingV, RowMask emptyV, String lbl,
                         String comm) {
       setOfValues = (HashMap<String, Integer>) set.clone();
       values = new String[vals.length];
@@ -121,22 +122,16 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
       }
 
       rowIndicies = new int[rows.length];
+      size = rowIndicies.length;
 
-      for (int i = 0; i < rowIndicies.length; i++) {
+      for (int i = 0; i < size; i++) {
          rowIndicies[i] = rows[i];
       }
 
       setIsNominal(true);
       type = ColumnTypes.STRING;
-      missing = new boolean[rowIndicies.length];
-      empty = new boolean[rowIndicies.length];
-
-      for (int i = 0; i < rowIndicies.length; i++) {
-         missing[i] = missingV[i];
-         empty[i] = emptyV[i];
-      }
-
-      this.setMissingValues(missing);
+      missing = missingV;
+      empty = emptyV;
       setLabel(lbl);
       this.setComment(comm);
    }
@@ -150,16 +145,13 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
       setOfValues = new HashMap<String, Integer>();
       values = new String[0];
       rowIndicies = new int[numRows];
+      size = rowIndicies.length;
       type = ColumnTypes.STRING;
       setIsNominal(true);
-      missing = new boolean[numRows];
-      empty = new boolean[numRows];
 
       String dummy = "?";
 
       for (int i = 0; i < numRows; i++) {
-         missing[i] = false;
-         empty[i] = false;
          setString(dummy, i);
       }
    }
@@ -173,6 +165,7 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
       setOfValues = new HashMap<String, Integer>();
       values = new String[0];
       rowIndicies = new int[data.length];
+      size = rowIndicies.length;
 
       for (int i = 0; i < data.length; i++) {
          setString(data[i], i);
@@ -180,13 +173,6 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
 
       type = ColumnTypes.STRING;
       setIsNominal(true);
-      missing = new boolean[rowIndicies.length];
-      empty = new boolean[rowIndicies.length];
-
-      for (int i = 0; i < rowIndicies.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -212,14 +198,18 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     * @return Description of return value.
     */
    private int addValue(String newVal) {
-      String[] tmp = new String[values.length + 1];
-      System.arraycopy(values, 0, tmp, 0, values.length);
-      tmp[tmp.length - 1] = newVal;
+      int idx = setOfValues.size();
 
-      setOfValues.put(newVal, new Integer((tmp.length - 1)));
-      values = tmp;
+      if (idx == values.length) {
+         String[] tmp = new String[newCapacity(values.length, idx + 1)];
+         System.arraycopy(values, 0, tmp, 0, idx);
+         values = tmp;
+      }
 
-      return (tmp.length - 1);
+      values[idx] = newVal;
+      setOfValues.put(newVal, new Integer(idx));
+
+      return idx;
    }
 
    /**
@@ -377,17 +367,9 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
          idx = r.intValue();
       }
 
-      int last = rowIndicies.length;
-      int[] newInternal = new int[rowIndicies.length + 1];
-      boolean[] newMissing = new boolean[rowIndicies.length + 1];
-      boolean[] newEmpty = new boolean[rowIndicies.length + 1];
-      System.arraycopy(rowIndicies, 0, newInternal, 0, rowIndicies.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = idx;
-      rowIndicies = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      rowIndicies[size] = idx;
+      size++;
    }
 
    /**
@@ -396,20 +378,8 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-
-      // ANCA : replaced this: int last = values.length; and all value with
-      // rowIndicies
-      int last = rowIndicies.length;
-      int[] newInternal = new int[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(rowIndicies, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      rowIndicies = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
 
@@ -460,11 +430,11 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
 
          return newCol;
       } catch (Exception e) {
-         int[] tmprow = new int[rowIndicies.length];
+         int[] tmprow = new int[size];
          String[] vals = new String[values.length];
          HashMap<String, Integer> set = new HashMap<String, Integer>();
 
-         for (int i = 0; i < rowIndicies.length; i++) {
+         for (int i = 0; i < size; i++) {
             tmprow[i] = rowIndicies[i];
          }
 
@@ -480,17 +450,9 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
             set.put(key, val);
          }
 
-         boolean[] miss = new boolean[rowIndicies.length];
-         boolean[] em = new boolean[rowIndicies.length];
-
-         for (int j = 0; j < rowIndicies.length; j++) {
-            miss[j] = missing[j];
-            em[j] = empty[j];
-         }
-
          newCol =
-            new StringColumn(tmprow, vals, set, miss, em, getLabel(),
-                             getComment());
+            new StringColumn(tmprow, vals, set, copyOf(missing), copyOf(empty),
+                             getLabel(), getComment());
 
          return newCol;
       } // end try-catch
@@ -611,7 +573,7 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < rowIndicies.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (!isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -627,7 +589,7 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     *
     * @return Description of return value.
     */
-   public int getNumRows() { return rowIndicies.length; }
+   public int getNumRows() { return size; }
 
    /**
     * Description of method getObject.
@@ -676,18 +638,14 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     */
    public Column getSubset(int[] rows) {
       int[] subset = new int[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = rowIndicies[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       StringColumn ic =
-         new StringColumn(subset, values, setOfValues, newMissing,
-                          newEmpty, getLabel(), getComment());
+         new StringColumn(subset, values, setOfValues, subsetOf(missing, rows),
+                          subsetOf(empty, rows), getLabel(), getComment());
 
       return ic;
    }
@@ -705,20 +663,17 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     */
    public Column getSubset(int pos, int len) {
 
-      if ((pos + len) > rowIndicies.length) {
+      if ((pos + len) > size) {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       int[] subset = new int[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(rowIndicies, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       StringColumn ic =
-         new StringColumn(subset, values, setOfValues, newMissing,
-                          newEmpty, getLabel(), getComment());
+         new StringColumn(subset, values, setOfValues,
+                          subsetOf(missing, pos, len),
+                          subsetOf(empty, pos, len), getLabel(), getComment());
 
       return ic;
    }
@@ -737,29 +692,6 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
          return;
       }
 
-      int[] newInternal = new int[rowIndicies.length + 1];
-      boolean[] newMissing = new boolean[rowIndicies.length + 1];
-      boolean[] newEmpty = new boolean[rowIndicies.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(rowIndicies, 0, newInternal, 1, getNumRows());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(rowIndicies, 0, newInternal, 0, pos);
-         System.arraycopy(rowIndicies, pos, newInternal, pos + 1,
-                          rowIndicies.length - pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          rowIndicies.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1,
-                          rowIndicies.length -
-                          pos);
-      }
-
       int idx;
 
       if (!setOfValues.containsKey(newEntry.toString())) {
@@ -769,21 +701,13 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
          idx = r.intValue();
       }
 
-      newInternal[pos] = idx;
-      rowIndicies = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(rowIndicies, pos, rowIndicies, pos + 1, size - pos);
+      insertFlags(pos);
+      rowIndicies[pos] = idx;
+      size++;
    } // end method insertRow
 
-   /**
-    * Description of method isValueEmpty.
-    *
-    * @param  row Description of parameter row.
-    *
-    * @return Description of return value.
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Description of method removeRow.
     *
@@ -793,24 +717,11 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     */
    public Object removeRow(int pos) {
       int removed = rowIndicies[pos];
-      System.arraycopy(rowIndicies, pos + 1, rowIndicies, pos,
-                       rowIndicies.length -
-                       (pos + 1));
-      System.arraycopy(missing, pos + 1, missing, pos, rowIndicies.length -
-                       (pos + 1));
-
-      System.arraycopy(empty, pos + 1, empty, pos, rowIndicies.length -
-                       (pos + 1));
-
-      int[] newInternal = new int[rowIndicies.length - 1];
-      boolean[] newMissing = new boolean[rowIndicies.length - 1];
-      boolean[] newEmpty = new boolean[rowIndicies.length - 1];
-      System.arraycopy(rowIndicies, 0, newInternal, 0, rowIndicies.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, rowIndicies.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, rowIndicies.length - 1);
-      rowIndicies = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(rowIndicies, pos + 1, rowIndicies, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      rowIndicies[size] = 0;
 
       return values[removed];
    }
@@ -821,33 +732,25 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     * @param indices Description of parameter indices.
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      int[] newInternal = new int[rowIndicies.length - indices.length];
-      boolean[] newMissing = new boolean[rowIndicies.length - indices.length];
-      boolean[] newEmpty = new boolean[rowIndicies.length - indices.length];
-      int newIntIdx = 0;
+      int newSize = 0;
 
-      for (int i = 0; i < getNumRows(); i++) {
+      for (int i = 0; i < size; i++) {
 
-         // check if this row is in the list of rows to remove
-         // if this row is not in the list, copy it into the new internal
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = rowIndicies[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
+         if (!toRemove.get(i)) {
+            rowIndicies[newSize] = rowIndicies[i];
+            newSize++;
          }
       }
 
-      rowIndicies = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(rowIndicies, newSize, size, 0);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
 
@@ -863,27 +766,21 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     */
    public Column reorderRows(int[] newOrder) {
       int[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
 
-      if (newOrder.length == rowIndicies.length) {
-         newInternal = new int[rowIndicies.length];
-         newMissing = new boolean[rowIndicies.length];
-         newEmpty = new boolean[rowIndicies.length];
+      if (newOrder.length == size) {
+         newInternal = new int[size];
 
-         for (int i = 0; i < rowIndicies.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = rowIndicies[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       StringColumn ic =
-         new StringColumn(newInternal, values, setOfValues, newMissing,
-                          newEmpty,
-                          getLabel(), getComment());
+         new StringColumn(newInternal, values, setOfValues,
+                          subsetOf(missing, newOrder),
+                          subsetOf(empty, newOrder), getLabel(), getComment());
 
       return ic;
    }
@@ -977,31 +874,15 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
     * @param nr Description of parameter nr.
     */
    public void setNumRows(int nr) {
-      int[] tmprow = new int[nr];
-      boolean[] newMissing = new boolean[nr];
-      boolean[] newEmpty = new boolean[nr];
 
-      if (rowIndicies == null) {
-         rowIndicies = tmprow;
-         missing = newMissing;
-         empty = newEmpty;
-
-         return;
-      }
-
-      if (nr < rowIndicies.length) {
-         System.arraycopy(rowIndicies, 0, tmprow, 0, tmprow.length);
-         System.arraycopy(missing, 0, newMissing, 0, tmprow.length);
-         System.arraycopy(empty, 0, newEmpty, 0, tmprow.length);
+      if (nr < size) {
+         Arrays.fill(rowIndicies, nr, size, 0);
+         clearFlags(nr);
       } else {
-         System.arraycopy(rowIndicies, 0, tmprow, 0, rowIndicies.length);
-         System.arraycopy(missing, 0, newMissing, 0, rowIndicies.length);
-         System.arraycopy(empty, 0, newEmpty, 0, rowIndicies.length);
+         ensureCapacity(nr);
       }
 
-      rowIndicies = tmprow;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      size = nr;
    } // end method setNumRows
 
    /**
@@ -1045,14 +926,6 @@ public class StringColumn extends MissingValuesColumn implements TextualColumn {
       }
    }
 
-   /**
-    * Description of method setValueToEmpty.
-    *
-    * @param b   Description of parameter b.
-    * @param row Description of parameter row.
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Description of method sort.
     */
@@ -1066,7 +939,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable t, SortMode sortMode) {
-      rowIndicies = doSort(rowIndicies, 0, rowIndicies.length - 1, t, sortMode);
+      rowIndicies = doSort(rowIndicies, 0, size - 1, t, sortMode);
    }
 
    /**
@@ -1079,9 +952,9 @@ public void sort(MutableTable t, SortMode sortMode) {
    @Override
 public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
 
-      if (end > rowIndicies.length - 1) {
+      if (end > size - 1) {
     	  _logger.severe(" end index was out of bounds");
-         end = rowIndicies.length - 1;
+         end = size - 1;
       }
 
       rowIndicies = doSort(rowIndicies, begin, end, t, sortMode);
@@ -1095,19 +968,74 @@ public void sort(MutableTable t, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       int tmp = rowIndicies[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       rowIndicies[pos1] = rowIndicies[pos2];
       rowIndicies[pos2] = tmp;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
-
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+      swapFlags(pos1, pos2);
    }
 
    /**
     * Description of method trim.
     */
    public void trim() { }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
+
+      if (rowIndicies.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > rowIndicies.length) {
+         resize(newCapacity(rowIndicies.length, minCapacity));
+      }
+   }
+
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      int[] newInternal = new int[capacity];
+      System.arraycopy(rowIndicies, 0, newInternal, 0, size);
+      rowIndicies = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = rowIndicies.length;
+   }
 } // end class StringColumn
@@ -44,9 +44,10 @@ package org.seasr.datatypes.datamining.table.basic;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.logging.Logger;
@@ -84,12 +85,12 @@ public final class StringObjectColumn extends MissingValuesColumn
 
    //~ Instance fields *********************************************************
 
-   /** Stores empty rows of the column. */
-   private boolean[] empty = null;
-
    /** Holds the internal data representation. */
    private String[] internal = null;
 
+   /** Number of rows in use; the arrays may have room for more. */
+   private transient int size;
+
    @SuppressWarnings("unused")
    private static Logger _logger = Logger.getLogger("StringObjectColumn");
 
@@ -109,13 +110,13 @@ public final class StringObjectColumn extends MissingValuesColumn
     * @param lbl         Labels for the column
     * @param comm        Comment for the column
     */
-   private StringObjectColumn(String[] newInternal, boolean[] miss,
-                              boolean[] emp,
+   private StringObjectColumn(String[] newInternal, RowMask miss,
+                              RowMask emp,
                               String lbl, String comm) {
       this.setInternal(newInternal);
       type = ColumnTypes.STRING;
       setIsNominal(true);
-      this.setMissingValues(miss);
+      missing = miss;
       empty = emp;
       setLabel(lbl);
       setComment(comm);
@@ -128,15 +129,9 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public StringObjectColumn(int capacity) {
       internal = new String[capacity];
+      size = internal.length;
       type = ColumnTypes.STRING;
       setIsNominal(true);
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    /**
@@ -148,13 +143,6 @@ public final class StringObjectColumn extends MissingValuesColumn
       this.setInternal(newInternal);
       type = ColumnTypes.STRING;
       setIsNominal(true);
-      missing = new boolean[internal.length];
-      empty = new boolean[internal.length];
-
-      for (int i = 0; i < internal.length; i++) {
-         missing[i] = false;
-         empty[i] = false;
-      }
    }
 
    //~ Methods *****************************************************************
@@ -308,17 +296,9 @@ public final class StringObjectColumn extends MissingValuesColumn
     * @param newEntry a new entry
     */
    public void addRow(Object newEntry) {
-      int last = internal.length;
-      String[] newInternal = new String[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      newInternal[last] = (String) newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      internal[size] = (String) newEntry;
+      size++;
    }
 
    /**
@@ -327,17 +307,8 @@ public final class StringObjectColumn extends MissingValuesColumn
     * @param number number of rows to add.
     */
    public void addRows(int number) {
-      int last = internal.length;
-      String[] newInternal = new String[last + number];
-      boolean[] newMissing = new boolean[last + number];
-      boolean[] newEmpty = new boolean[last + number];
-
-      System.arraycopy(internal, 0, newInternal, 0, last);
-      System.arraycopy(missing, 0, newMissing, 0, missing.length);
-      System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + number);
+      size += number;
    }
 
    /**
@@ -405,17 +376,9 @@ public final class StringObjectColumn extends MissingValuesColumn
             newVals[i] = getString(i);
          }
 
-         boolean[] miss = new boolean[internal.length];
-         boolean[] em = new boolean[internal.length];
-
-         for (int i = 0; i < internal.length; i++) {
-            miss[i] = missing[i];
-            em[i] = empty[i];
-
-         }
-
          newCol =
-            new StringObjectColumn(newVals, miss, em, getLabel(), getComment());
+            new StringObjectColumn(newVals, copyOf(missing), copyOf(empty),
+                                   getLabel(), getComment());
 
          return newCol;
       }
@@ -458,7 +421,7 @@ public final class StringObjectColumn extends MissingValuesColumn
     *
     * @return the max number of entries this Column can hold
     */
-   public int getCapacity() { return internal.length; }
+   public int getCapacity() { return size; }
 
    /**
     * Description of method getChar.
@@ -513,7 +476,11 @@ public final class StringObjectColumn extends MissingValuesColumn
     *
     * @return the internal representation of this Column.
     */
-   public Object getInternal() { return this.internal; }
+   public Object getInternal() {
+      trimToSize();
+
+      return this.internal;
+   }
 
    /**
     * Convert the item at pos to a long using Long.parseLong().
@@ -534,7 +501,7 @@ public final class StringObjectColumn extends MissingValuesColumn
    public int getNumEntries() {
       int numEntries = 0;
 
-      for (int i = 0; i < internal.length; i++) {
+      for (int i = 0; i < size; i++) {
 
          if (internal[i] != null && !isValueMissing(i) && !isValueEmpty(i)) {
             numEntries++;
@@ -598,17 +565,14 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public Column getSubset(int[] rows) {
       String[] subset = new String[rows.length];
-      boolean[] newMissing = new boolean[rows.length];
-      boolean[] newEmpty = new boolean[rows.length];
 
       for (int i = 0; i < rows.length; i++) {
          subset[i] = internal[rows[i]];
-         newMissing[i] = missing[rows[i]];
-         newEmpty[i] = empty[rows[i]];
       }
 
       StringObjectColumn bc =
-         new StringObjectColumn(subset, newMissing, newEmpty, getLabel(),
+         new StringObjectColumn(subset, subsetOf(missing, rows),
+                                subsetOf(empty, rows), getLabel(),
                                 getComment());
 
       return bc;
@@ -624,15 +588,12 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public Column getSubset(int pos, int len) {
       String[] subset = new String[len];
-      boolean[] newMissing = new boolean[len];
-      boolean[] newEmpty = new boolean[len];
       System.arraycopy(internal, pos, subset, 0, len);
-      System.arraycopy(missing, pos, newMissing, 0, len);
-      System.arraycopy(empty, pos, newEmpty, 0, len);
 
       StringObjectColumn sc =
-         new StringObjectColumn(subset, newMissing,
-                                newEmpty, getLabel(), getComment());
+         new StringObjectColumn(subset, subsetOf(missing, pos, len),
+                                subsetOf(empty, pos, len), getLabel(),
+                                getComment());
 
       return sc;
    }
@@ -652,44 +613,13 @@ public final class StringObjectColumn extends MissingValuesColumn
          return;
       }
 
-      String[] newInternal = new String[internal.length + 1];
-      boolean[] newMissing = new boolean[internal.length + 1];
-      boolean[] newEmpty = new boolean[internal.length + 1];
-
-      if (pos == 0) {
-         System.arraycopy(internal, 0, newInternal, 1, getCapacity());
-         System.arraycopy(missing, 0, newMissing, 1, getNumRows());
-         System.arraycopy(empty, 0, newEmpty, 1, getNumRows());
-      } else {
-         System.arraycopy(internal, 0, newInternal, 0, pos);
-         System.arraycopy(internal, pos, newInternal, pos + 1,
-                          internal.length -
-                          pos);
-         System.arraycopy(missing, 0, newMissing, 0, pos);
-         System.arraycopy(missing, pos, newMissing, pos + 1,
-                          internal.length -
-                          pos);
-
-         System.arraycopy(empty, 0, newEmpty, 0, pos);
-         System.arraycopy(empty, pos, newEmpty, pos + 1, internal.length -
-                          pos);
-      }
-
-      newInternal[pos] = (String) newEntry;
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      ensureCapacity(size + 1);
+      System.arraycopy(internal, pos, internal, pos + 1, size - pos);
+      insertFlags(pos);
+      internal[pos] = (String) newEntry;
+      size++;
    } // end method insertRow
 
-   /**
-    * Description of method isValueEmpty.
-    *
-    * @param  row Description of parameter row.
-    *
-    * @return Description of return value.
-    */
-   public boolean isValueEmpty(int row) { return empty[row]; }
-
    /**
     * Given an array of booleans, will remove the positions in the Column which
     * coorespond to the positions in the boolean array which are marked true. If
@@ -711,7 +641,7 @@ public final class StringObjectColumn extends MissingValuesColumn
          }
       }
 
-      for (; i < internal.length; i++) {
+      for (; i < size; i++) {
          ll.add(new Integer(i));
       }
 
@@ -739,23 +669,11 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public Object removeRow(int pos) {
       String removed = internal[pos];
-      System.arraycopy(internal, pos + 1, internal, pos, internal.length -
-                       (pos + 1));
-      System.arraycopy(missing, pos + 1, missing, pos, internal.length -
-                       (pos + 1));
-
-      System.arraycopy(empty, pos + 1, empty, pos, internal.length -
-                       (pos + 1));
-
-      String[] newInternal = new String[internal.length - 1];
-      boolean[] newMissing = new boolean[internal.length - 1];
-      boolean[] newEmpty = new boolean[internal.length - 1];
-      System.arraycopy(internal, 0, newInternal, 0, internal.length - 1);
-      System.arraycopy(missing, 0, newMissing, 0, internal.length - 1);
-      System.arraycopy(empty, 0, newEmpty, 0, internal.length - 1);
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+
+      System.arraycopy(internal, pos + 1, internal, pos, size - (pos + 1));
+      removeFlags(pos);
+      size--;
+      internal[size] = null;
 
       return removed;
    }
@@ -769,37 +687,25 @@ public final class StringObjectColumn extends MissingValuesColumn
     * @param indices the int array of remove indices
     */
    public void removeRowsByIndex(int[] indices) {
-      HashSet<Integer> toRemove = new HashSet<Integer>(indices.length);
+      RowMask toRemove = new RowMask();
 
       for (int i = 0; i < indices.length; i++) {
-         Integer id = new Integer(indices[i]);
-         toRemove.add(id);
+         toRemove.set(indices[i], true);
       }
 
-      String[] newInternal = new String[internal.length - indices.length];
-      boolean[] newMissing = new boolean[internal.length - indices.length];
-      boolean[] newEmpty = new boolean[internal.length - indices.length];
-      int newIntIdx = 0;
-
-      for (int i = 0; i < getNumRows(); i++) {
-
-         // check if this row is in the list of rows to remove
-         // Integer x = (Integer)toRemove.get(new Integer(i));
-         // if this row is not in the list, copy it into the new internal
-         // if (x == null) {
-         if (!toRemove.contains(new Integer(i))) {
-            newInternal[newIntIdx] = internal[i];
-            newMissing[newIntIdx] = missing[i];
-            newEmpty[newIntIdx] = empty[i];
-            newIntIdx++;
-         } else {
-            internal[i] = null;
+      int newSize = 0;
+
+      for (int i = 0; i < size; i++) {
+
+         if (!toRemove.get(i)) {
+            internal[newSize] = internal[i];
+            newSize++;
          }
       }
 
-      internal = newInternal;
-      this.setMissingValues(newMissing);
-      empty = newEmpty;
+      Arrays.fill(internal, newSize, size, null);
+      removeFlags(toRemove);
+      size = newSize;
    } // end method removeRowsByIndex
 
    /**
@@ -815,27 +721,20 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public Column reorderRows(int[] newOrder) {
       String[] newInternal = null;
-      boolean[] newMissing = null;
-      boolean[] newEmpty = null;
-
-      if (newOrder.length == internal.length) {
-         newInternal = new String[internal.length];
 
-         // ANCA: added newMissing, newEmpty allocation statements
-         newMissing = new boolean[internal.length];
-         newEmpty = new boolean[internal.length];
+      if (newOrder.length == size) {
+         newInternal = new String[size];
 
-         for (int i = 0; i < internal.length; i++) {
+         for (int i = 0; i < size; i++) {
             newInternal[i] = internal[newOrder[i]];
-            newMissing[i] = missing[newOrder[i]];
-            newEmpty[i] = empty[newOrder[i]];
          }
       } else {
          throw new ArrayIndexOutOfBoundsException();
       }
 
       StringObjectColumn sc =
-         new StringObjectColumn(newInternal, newMissing, newEmpty, getLabel(),
+         new StringObjectColumn(newInternal, subsetOf(missing, newOrder),
+                                subsetOf(empty, newOrder), getLabel(),
                                 getComment());
 
       return sc;
@@ -934,6 +833,7 @@ public final class StringObjectColumn extends MissingValuesColumn
     */
    public void setInternal(Object newInternal) {
       this.internal = (String[]) newInternal;
+         size = internal.length;
    }
 
    /**
@@ -950,34 +850,21 @@ public final class StringObjectColumn extends MissingValuesColumn
     * Suggests a new capacity for this Column. If this implementation of Column
     * supports capacity than the suggestion may be followed. The capacity is
     * it's potential max number of entries. If numEntries > newCapacity then
-    * Column may be truncated. If internal.length > newCapacity then Column will
+    * Column may be truncated. If size > newCapacity then Column will
     * be truncated.
     *
     * @param newCapacity a new capacity
     */
    public void setNumRows(int newCapacity) {
 
-      if (internal != null) {
-         String[] newInternal = new String[newCapacity];
-         boolean[] newMissing = new boolean[newCapacity];
-         boolean[] newEmpty = new boolean[newCapacity];
-
-         if (newCapacity > internal.length) {
-            newCapacity = internal.length;
-         }
-
-         System.arraycopy(internal, 0, newInternal, 0, newCapacity);
-         System.arraycopy(missing, 0, newMissing, 0, missing.length);
-         System.arraycopy(empty, 0, newEmpty, 0, empty.length);
-         internal = newInternal;
-         this.setMissingValues(newMissing);
-         empty = newEmpty;
+      if (newCapacity < size) {
+         Arrays.fill(internal, newCapacity, size, null);
+         clearFlags(newCapacity);
       } else {
-         internal = new String[newCapacity];
-         missing = new boolean[newCapacity];
-         empty = new boolean[newCapacity];
+         ensureCapacity(newCapacity);
       }
 
+      size = newCapacity;
    } // end method setNumRows
 
    /**
@@ -1021,14 +908,6 @@ public final class StringObjectColumn extends MissingValuesColumn
       this.internal[pos] = newEntry;
    }
 
-   /**
-    * Description of method setValueToEmpty.
-    *
-    * @param b   Description of parameter b.
-    * @param row Description of parameter row.
-    */
-   public void setValueToEmpty(boolean b, int row) { empty[row] = b; }
-
    /**
     * Sort the elements in this column.
     */
@@ -1043,7 +922,7 @@ public void sort(SortMode sortMode) { sort(null, sortMode); }
     */
    @Override
 public void sort(MutableTable vt, SortMode sortMode) {
-      internal = doSort(internal, 0, internal.length - 1, vt, sortMode);
+      internal = doSort(internal, 0, size - 1, vt, sortMode);
    }
 
    /**
@@ -1070,15 +949,69 @@ public void sort(MutableTable vt, int begin, int end, SortMode sortMode) {
     */
    public void swapRows(int pos1, int pos2) {
       String e1 = internal[pos1];
-      boolean miss = missing[pos1];
-      boolean emp = empty[pos1];
       internal[pos1] = internal[pos2];
       internal[pos2] = e1;
-      missing[pos1] = missing[pos2];
-      missing[pos2] = miss;
+      swapFlags(pos1, pos2);
+   }
+
+   /**
+    * Trims the capacity of this <code>Column</code> to its number of rows.
+    */
+   @Override
+   public void trimToSize() {
 
-      empty[pos1] = empty[pos2];
-      empty[pos2] = emp;
+      if (internal.length != size) {
+         resize(size);
+      }
+   }
+
+   /**
+    * Makes room for at least <code>minCapacity</code> rows. The capacity grows
+    * geometrically, so that appending rows one at a time is amortized O(1).
+    *
+    * @param minCapacity Number of rows to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity > internal.length) {
+         resize(newCapacity(internal.length, minCapacity));
+      }
    }
 
+   /**
+    * Reallocates the arrays holding the rows with the given capacity.
+    *
+    * @param capacity The new capacity, at least the number of rows
+    */
+   private void resize(int capacity) {
+      String[] newInternal = new String[capacity];
+      System.arraycopy(internal, 0, newInternal, 0, size);
+      internal = newInternal;
+   }
+
+   /**
+    * Drops the spare capacity before serialization, so that the serialized
+    * form only holds the rows.
+    *
+    * @return This column
+    */
+   private Object writeReplace() {
+      trimToSize();
+
+      return this;
+   }
+
+   /**
+    * Restores the number of rows after deserialization.
+    *
+    * @param  in The stream to read from
+    *
+    * @throws IOException            If the column cannot be read
+    * @throws ClassNotFoundException If a class of the column cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+      in.defaultReadObject();
+      size = internal.length;
+   }
 } // end class StringObjectColumn
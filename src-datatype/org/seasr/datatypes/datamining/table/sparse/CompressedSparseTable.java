@@ -0,0 +1,1378 @@
+/**
+ * University of Illinois/NCSA
+ * Open Source License
+ *
+ * Copyright (c) 2008, Board of Trustees-University of Illinois.
+ * All rights reserved.
+ *
+ * Developed by:
+ *
+ * Automated Learning Group
+ * National Center for Supercomputing Applications
+ * http://www.seasr.org
+ *
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal with the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimers.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimers in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the names of Automated Learning Group, The National Center for
+ *    Supercomputing Applications, or University of Illinois, nor the names of
+ *    its contributors may be used to endorse or promote products derived from
+ *    this Software without specific prior written permission.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * WITH THE SOFTWARE.
+ */
+
+package org.seasr.datatypes.datamining.table.sparse;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.seasr.datatypes.datamining.table.AbstractTable;
+import org.seasr.datatypes.datamining.table.Column;
+import org.seasr.datatypes.datamining.table.ColumnTypes;
+import org.seasr.datatypes.datamining.table.ExampleTable;
+import org.seasr.datatypes.datamining.table.MutableTable;
+import org.seasr.datatypes.datamining.table.Row;
+import org.seasr.datatypes.datamining.table.Sparse;
+import org.seasr.datatypes.datamining.table.Table;
+import org.seasr.datatypes.datamining.table.TableFactory;
+import org.seasr.datatypes.datamining.table.sparse.columns.AbstractSparseColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseBooleanColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseByteArrayColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseByteColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseCharArrayColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseCharColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseDoubleColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseFloatColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseIntColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseLongColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseShortColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseStringColumn;
+
+
+/**
+ * An immutable sparse table stored in compressed sparse row (CSR) and
+ * compressed sparse column (CSC) form. The entries of each row are held
+ * contiguously, sorted by column, and so are the entries of each column,
+ * sorted by row.
+ *
+ * <p>Unlike {@link SparseTable}, which keeps each column in a hash map, a cell
+ * is found by a binary search of its row (O(log k) for a row of k entries),
+ * and rows and columns are iterated in order without probing or sorting. This
+ * makes it suited to the similarity and classification code, which walks
+ * rows and takes sparse dot products; see {@link #dotRows(int, int)} and
+ * {@link #dotColumns(int, int)}.</p>
+ *
+ * <p>The values of numeric columns are held as doubles. A double holds the
+ * integers up to 2^53 exactly, so the values of long columns are also held
+ * as objects, which the accessors other than <code>getDouble</code> read.
+ * The values of other columns are held as objects and count as 0 in dot
+ * products. Only the
+ * column labels, comments and flags and the missing value defaults can be
+ * changed; to edit the values, convert the table with {@link
+ * #toSparseTable()}.</p>
+ */
+public class CompressedSparseTable extends AbstractTable implements Sparse,
+                                                                  Serializable {
+
+   //~ Static fields/initializers **********************************************
+
+   /** The universal version identifier. */
+   static final long serialVersionUID = -2305743861457118322L;
+
+   /** Rows with no flagged value. */
+   private static final int[] NO_ROWS = new int[0];
+
+   //~ Instance fields *********************************************************
+
+   /** Number of rows. */
+   private final int numRows;
+
+   /** Number of columns. */
+   private final int numColumns;
+
+   /** Start of each row's entries, plus the total number of entries. */
+   private final int[] rowStart;
+
+   /** Column of each entry, in row order. */
+   private final int[] rowColumns;
+
+   /** Numeric value of each entry, in row order; 0 for non-numeric columns. */
+   private final double[] rowValues;
+
+   /**
+    * Value of each entry of a non-numeric or long column, in row order, or
+    * null if there are no such columns.
+    */
+   private final Object[] rowObjects;
+
+   /** Start of each column's entries, plus the total number of entries. */
+   private final int[] columnStart;
+
+   /** Row of each entry, in column order. */
+   private final int[] columnRows;
+
+   /** Numeric value of each entry, in column order. */
+   private final double[] columnValues;
+
+   /** Type of each column. */
+   private final int[] columnTypes;
+
+   /** Whether each column is numeric. */
+   private final boolean[] columnNumeric;
+
+   /** Label of each column. */
+   private final String[] columnLabels;
+
+   /** Comment of each column. */
+   private final String[] columnComments;
+
+   /** Whether each column is nominal. */
+   private final boolean[] columnNominal;
+
+   /** Whether each column is scalar. */
+   private final boolean[] columnScalar;
+
+   /** Sorted rows of each column whose value is missing. */
+   private final int[][] missingRows;
+
+   /** Sorted rows of each column whose value is empty. */
+   private final int[][] emptyRows;
+
+   //~ Constructors ************************************************************
+
+   /**
+    * Creates a new <code>CompressedSparseTable</code> with the content of a
+    * sparse table. Building it takes time proportional to the number of
+    * entries, plus the number of rows of the columns that have missing or
+    * empty values.
+    *
+    * @param table The sparse table
+    */
+   public CompressedSparseTable(SparseTable table) {
+      numRows = table.getNumRows();
+      numColumns = table.getNumColumns();
+      columnTypes = new int[numColumns];
+      columnNumeric = new boolean[numColumns];
+      columnLabels = new String[numColumns];
+      columnComments = new String[numColumns];
+      columnNominal = new boolean[numColumns];
+      columnScalar = new boolean[numColumns];
+      missingRows = new int[numColumns][];
+      emptyRows = new int[numColumns][];
+
+      boolean needObjects = false;
+
+      for (int c = 0; c < numColumns; c++) {
+         columnTypes[c] = table.getColumnType(c);
+         columnNumeric[c] = table.isColumnNumeric(c);
+         columnLabels[c] = table.getColumnLabel(c);
+         columnComments[c] = table.getColumnComment(c);
+         columnNominal[c] = table.isColumnNominal(c);
+         columnScalar[c] = table.isColumnScalar(c);
+         needObjects |= !columnNumeric[c] || columnTypes[c] == ColumnTypes.LONG;
+
+         Column column = table.getColumn(c);
+         boolean maybeMissing = true;
+         boolean maybeEmpty = true;
+
+         if (column instanceof AbstractSparseColumn) {
+            maybeMissing = ((AbstractSparseColumn) column).getMissing().size() > 0;
+            maybeEmpty = ((AbstractSparseColumn) column).getEmpty().size() > 0;
+         }
+
+         missingRows[c] = NO_ROWS;
+         emptyRows[c] = NO_ROWS;
+
+         if (maybeMissing || maybeEmpty) {
+            int[] missing = new int[numRows];
+            int[] empty = new int[numRows];
+            int numMissing = 0;
+            int numEmpty = 0;
+
+            for (int r = 0; r < numRows; r++) {
+
+               if (maybeMissing && table.isValueMissing(r, c)) {
+                  missing[numMissing++] = r;
+               }
+
+               if (maybeEmpty && table.isValueEmpty(r, c)) {
+                  empty[numEmpty++] = r;
+               }
+            }
+
+            missingRows[c] = copyOf(missing, numMissing);
+            emptyRows[c] = copyOf(empty, numEmpty);
+         }
+      } // end for
+
+      // the row index lists of a sparse table give the entries row by row
+      int[][] indices = new int[numRows][];
+      rowStart = new int[numRows + 1];
+
+      for (int r = 0; r < numRows; r++) {
+         indices[r] = table.getRowIndices(r);
+
+         if (!isSorted(indices[r])) {
+            indices[r] = copyOf(indices[r], indices[r].length);
+            Arrays.sort(indices[r]);
+         }
+
+         rowStart[r + 1] = rowStart[r] + indices[r].length;
+      }
+
+      int numEntries = rowStart[numRows];
+      rowColumns = new int[numEntries];
+      rowValues = new double[numEntries];
+      rowObjects = needObjects ? new Object[numEntries] : null;
+
+      for (int r = 0; r < numRows; r++) {
+         int p = rowStart[r];
+
+         for (int i = 0; i < indices[r].length; i++, p++) {
+            int c = indices[r][i];
+            rowColumns[p] = c;
+
+            if (columnNumeric[c]) {
+               rowValues[p] = table.getDouble(r, c);
+
+               if (columnTypes[c] == ColumnTypes.LONG) {
+                  rowObjects[p] = new Long(table.getLong(r, c));
+               }
+            } else {
+               rowObjects[p] = table.getObject(r, c);
+            }
+         }
+
+         indices[r] = null;
+      }
+
+      columnStart = new int[numColumns + 1];
+      columnRows = new int[numEntries];
+      columnValues = new double[numEntries];
+      transpose();
+   }
+
+   /**
+    * Creates a new <code>CompressedSparseTable</code> with the given rows of
+    * another one, in order.
+    *
+    * @param src  The table to copy from
+    * @param rows The rows to copy
+    */
+   private CompressedSparseTable(CompressedSparseTable src, int[] rows) {
+      numRows = rows.length;
+      numColumns = src.numColumns;
+      columnTypes = src.columnTypes.clone();
+      columnNumeric = src.columnNumeric.clone();
+      columnLabels = src.columnLabels.clone();
+      columnComments = src.columnComments.clone();
+      columnNominal = src.columnNominal.clone();
+      columnScalar = src.columnScalar.clone();
+      missingRows = new int[numColumns][];
+      emptyRows = new int[numColumns][];
+
+      for (int c = 0; c < numColumns; c++) {
+         missingRows[c] = select(src.missingRows[c], rows);
+         emptyRows[c] = select(src.emptyRows[c], rows);
+      }
+
+      rowStart = new int[numRows + 1];
+
+      for (int i = 0; i < numRows; i++) {
+         rowStart[i + 1] =
+            rowStart[i] + src.rowStart[rows[i] + 1] - src.rowStart[rows[i]];
+      }
+
+      int numEntries = rowStart[numRows];
+      rowColumns = new int[numEntries];
+      rowValues = new double[numEntries];
+      rowObjects = (src.rowObjects == null) ? null : new Object[numEntries];
+
+      for (int i = 0; i < numRows; i++) {
+         int from = src.rowStart[rows[i]];
+         int len = src.rowStart[rows[i] + 1] - from;
+         System.arraycopy(src.rowColumns, from, rowColumns, rowStart[i], len);
+         System.arraycopy(src.rowValues, from, rowValues, rowStart[i], len);
+
+         if (rowObjects != null) {
+            System.arraycopy(src.rowObjects, from, rowObjects, rowStart[i], len);
+         }
+      }
+
+      columnStart = new int[numColumns + 1];
+      columnRows = new int[numEntries];
+      columnValues = new double[numEntries];
+      transpose();
+      setLabel(src.getLabel());
+      setComment(src.getComment());
+   }
+
+   //~ Methods *****************************************************************
+
+   /**
+    * Copies the start of an array.
+    *
+    * @param  array  The array
+    * @param  length Number of elements to copy
+    *
+    * @return The copy
+    */
+   private static int[] copyOf(int[] array, int length) {
+
+      if (length == 0) {
+         return NO_ROWS;
+      }
+
+      int[] copy = new int[length];
+      System.arraycopy(array, 0, copy, 0, length);
+
+      return copy;
+   }
+
+   /**
+    * Tests if an array is sorted in increasing order.
+    *
+    * @param  array The array
+    *
+    * @return True if the array is sorted
+    */
+   private static boolean isSorted(int[] array) {
+
+      for (int i = 1; i < array.length; i++) {
+
+         if (array[i - 1] > array[i]) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Searches a sorted range of an array for a key.
+    *
+    * @param  array The array
+    * @param  from  First index of the range
+    * @param  to    Index after the last one of the range
+    * @param  key   The key
+    *
+    * @return Index of the key, or -1 if it is not in the range
+    */
+   private static int search(int[] array, int from, int to, int key) {
+      int low = from;
+      int high = to - 1;
+
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+
+         if (array[mid] < key) {
+            low = mid + 1;
+         } else if (array[mid] > key) {
+            high = mid - 1;
+         } else {
+            return mid;
+         }
+      }
+
+      return -1;
+   }
+
+   /**
+    * Maps a sorted set of rows through a selection of rows.
+    *
+    * @param  flagged Sorted rows of the source table
+    * @param  rows    The source row of each new row
+    *
+    * @return Sorted new rows whose source row is in <code>flagged</code>
+    */
+   private static int[] select(int[] flagged, int[] rows) {
+
+      if (flagged.length == 0) {
+         return NO_ROWS;
+      }
+
+      int[] selected = new int[rows.length];
+      int n = 0;
+
+      for (int i = 0; i < rows.length; i++) {
+
+         if (search(flagged, 0, flagged.length, rows[i]) >= 0) {
+            selected[n++] = i;
+         }
+      }
+
+      return copyOf(selected, n);
+   }
+
+   /**
+    * Fills the column-ordered arrays from the row-ordered ones with a counting
+    * sort. Rows are visited in order, so each column's rows come out sorted.
+    */
+   private void transpose() {
+
+      for (int p = 0; p < rowColumns.length; p++) {
+         columnStart[rowColumns[p] + 1]++;
+      }
+
+      for (int c = 0; c < numColumns; c++) {
+         columnStart[c + 1] += columnStart[c];
+      }
+
+      int[] next = new int[numColumns];
+      System.arraycopy(columnStart, 0, next, 0, numColumns);
+
+      for (int r = 0; r < numRows; r++) {
+
+         for (int p = rowStart[r]; p < rowStart[r + 1]; p++) {
+            int q = next[rowColumns[p]]++;
+            columnRows[q] = r;
+            columnValues[q] = rowValues[p];
+         }
+      }
+   }
+
+   /**
+    * Gets the value a sparse column of a column's type gives for a cell with
+    * no entry.
+    *
+    * @param  column The column
+    *
+    * @return The default value, as an object of the column's type
+    */
+   private Object defaultValue(int column) {
+
+      switch (columnTypes[column]) {
+
+         case ColumnTypes.BOOLEAN:
+            return new Boolean(SparseDefaultValues.getDefaultBoolean());
+
+         case ColumnTypes.BYTE:
+            return new Byte(SparseDefaultValues.getDefaultByte());
+
+         case ColumnTypes.CHAR:
+            return new Character(SparseDefaultValues.getDefaultChar());
+
+         case ColumnTypes.SHORT:
+            return new Short((short) SparseDefaultValues.getDefaultInt());
+
+         case ColumnTypes.INTEGER:
+            return new Integer(SparseDefaultValues.getDefaultInt());
+
+         case ColumnTypes.LONG:
+            return new Long(SparseDefaultValues.getDefaultInt());
+
+         case ColumnTypes.FLOAT:
+            return new Float((float) SparseDefaultValues.getDefaultDouble());
+
+         case ColumnTypes.DOUBLE:
+            return new Double(SparseDefaultValues.getDefaultDouble());
+
+         case ColumnTypes.STRING:
+            return SparseDefaultValues.getDefaultString();
+
+         default:
+            return SparseDefaultValues.getDefaultObject();
+      }
+   }
+
+   /**
+    * Finds the entry of a cell.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return Index of the entry in row order, or -1 if the cell has none
+    */
+   private int find(int row, int column) {
+      return search(rowColumns, rowStart[row], rowStart[row + 1], column);
+   }
+
+   /**
+    * Gets the value of an entry as an object of its column's type.
+    *
+    * @param  p      Index of the entry in row order
+    * @param  column The column of the entry
+    *
+    * @return The value
+    */
+   private Object valueAt(int p, int column) {
+
+      if (!columnNumeric[column] || columnTypes[column] == ColumnTypes.LONG) {
+         return rowObjects[p];
+      }
+
+      double value = rowValues[p];
+
+      switch (columnTypes[column]) {
+
+         case ColumnTypes.BYTE:
+            return new Byte((byte) value);
+
+         case ColumnTypes.SHORT:
+            return new Short((short) value);
+
+         case ColumnTypes.INTEGER:
+            return new Integer((int) value);
+
+         case ColumnTypes.FLOAT:
+            return new Float((float) value);
+
+         default:
+            return new Double(value);
+      }
+   }
+
+   /**
+    * Returns this table; it is immutable, apart from its labels and flags,
+    * which are copied.
+    *
+    * @return A copy of this table
+    */
+   public Table copy() { return shallowCopy(); }
+
+   /**
+    * Gets a copy of the given rows of this table.
+    *
+    * @param  rows The rows to copy
+    *
+    * @return A table with the given rows, in order
+    */
+   public Table copy(int[] rows) { return getSubset(rows); }
+
+   /**
+    * Gets a copy of a range of rows of this table.
+    *
+    * @param  start First row to copy
+    * @param  len   Number of rows to copy
+    *
+    * @return A table with the given rows
+    */
+   public Table copy(int start, int len) { return getSubset(start, len); }
+
+   /**
+    * Creates an empty mutable sparse table.
+    *
+    * @return An empty <code>SparseMutableTable</code>
+    */
+   public MutableTable createTable() { return new SparseMutableTable(); }
+
+   /**
+    * Computes the dot product of a column with a dense vector indexed by row.
+    *
+    * @param  column The column
+    * @param  vector The vector
+    *
+    * @return The dot product
+    */
+   public double dotColumn(int column, double[] vector) {
+      double sum = 0;
+
+      for (int q = columnStart[column]; q < columnStart[column + 1]; q++) {
+         sum += columnValues[q] * vector[columnRows[q]];
+      }
+
+      return sum;
+   }
+
+   /**
+    * Computes the dot product of two columns.
+    *
+    * @param  column1 The first column
+    * @param  column2 The second column
+    *
+    * @return The dot product
+    */
+   public double dotColumns(int column1, int column2) {
+      int q1 = columnStart[column1];
+      int end1 = columnStart[column1 + 1];
+      int q2 = columnStart[column2];
+      int end2 = columnStart[column2 + 1];
+      double sum = 0;
+
+      while (q1 < end1 && q2 < end2) {
+         int r1 = columnRows[q1];
+         int r2 = columnRows[q2];
+
+         if (r1 < r2) {
+            q1++;
+         } else if (r1 > r2) {
+            q2++;
+         } else {
+            sum += columnValues[q1++] * columnValues[q2++];
+         }
+      }
+
+      return sum;
+   }
+
+   /**
+    * Computes the dot product of a row with a dense vector indexed by column.
+    *
+    * @param  row    The row
+    * @param  vector The vector
+    *
+    * @return The dot product
+    */
+   public double dotRow(int row, double[] vector) {
+      double sum = 0;
+
+      for (int p = rowStart[row]; p < rowStart[row + 1]; p++) {
+         sum += rowValues[p] * vector[rowColumns[p]];
+      }
+
+      return sum;
+   }
+
+   /**
+    * Computes the dot product of two rows.
+    *
+    * @param  row1 The first row
+    * @param  row2 The second row
+    *
+    * @return The dot product
+    */
+   public double dotRows(int row1, int row2) {
+      int p1 = rowStart[row1];
+      int end1 = rowStart[row1 + 1];
+      int p2 = rowStart[row2];
+      int end2 = rowStart[row2 + 1];
+      double sum = 0;
+
+      while (p1 < end1 && p2 < end2) {
+         int c1 = rowColumns[p1];
+         int c2 = rowColumns[p2];
+
+         if (c1 < c2) {
+            p1++;
+         } else if (c1 > c2) {
+            p2++;
+         } else {
+            sum += rowValues[p1++] * rowValues[p2++];
+         }
+      }
+
+      return sum;
+   }
+
+   /**
+    * Tests if a cell has an entry.
+    *
+    * @param  row The row
+    * @param  col The column
+    *
+    * @return True if the cell has an entry
+    */
+   public boolean doesValueExist(int row, int col) { return find(row, col) >= 0; }
+
+   /**
+    * Gets the value of a cell as a <code>boolean</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public boolean getBoolean(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultBoolean();
+      }
+
+      return columnNumeric[column] ? (rowValues[p] != 0)
+                                   : SparseBooleanColumn.toBoolean(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>byte</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public byte getByte(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultByte();
+      }
+
+      return columnNumeric[column] ? (byte) rowValues[p]
+                                   : SparseByteColumn.toByte(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>byte[]</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public byte[] getBytes(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultBytes();
+      }
+
+      return SparseByteArrayColumn.toByteArray(valueAt(p, column));
+   }
+
+   /**
+    * Gets the value of a cell as a <code>char</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public char getChar(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultChar();
+      }
+
+      return columnNumeric[column] ? (char) rowValues[p]
+                                   : SparseCharColumn.toChar(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>char[]</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public char[] getChars(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultChars();
+      }
+
+      return SparseCharArrayColumn.toCharArray(valueAt(p, column));
+   }
+
+   /**
+    * Gets a column as a new sparse column. Changing it does not change this
+    * table.
+    *
+    * @param  n The column
+    *
+    * @return A copy of the column
+    */
+   public Column getColumn(int n) {
+      Column column = getTableFactory().createColumn(columnTypes[n]);
+
+      for (int q = columnStart[n]; q < columnStart[n + 1]; q++) {
+         column.setObject(getObject(columnRows[q], n), columnRows[q]);
+      }
+
+      for (int i = 0; i < missingRows[n].length; i++) {
+         column.setValueToMissing(true, missingRows[n][i]);
+      }
+
+      for (int i = 0; i < emptyRows[n].length; i++) {
+         column.setValueToEmpty(true, emptyRows[n][i]);
+      }
+
+      column.setLabel(columnLabels[n]);
+      column.setComment(columnComments[n]);
+      column.setIsNominal(columnNominal[n]);
+      column.setIsScalar(columnScalar[n]);
+
+      return column;
+   }
+
+   /**
+    * Gets the comment of a column.
+    *
+    * @param  position The column
+    *
+    * @return The comment
+    */
+   public String getColumnComment(int position) {
+      return columnComments[position];
+   }
+
+   /**
+    * Gets the index after the last entry of a column.
+    *
+    * @param  column The column
+    *
+    * @return Index after the column's last entry, in column order
+    */
+   public int getColumnEnd(int column) { return columnStart[column + 1]; }
+
+   /**
+    * Gets the row of an entry, in column order.
+    *
+    * @param  q Index of the entry in column order
+    *
+    * @return The row of the entry
+    */
+   public int getColumnEntryRow(int q) { return columnRows[q]; }
+
+   /**
+    * Gets the numeric value of an entry, in column order.
+    *
+    * @param  q Index of the entry in column order
+    *
+    * @return The value of the entry, or 0 if its column is not numeric
+    */
+   public double getColumnEntryValue(int q) { return columnValues[q]; }
+
+   /**
+    * Gets the rows of a column's entries.
+    *
+    * @param  columnNumber The column
+    *
+    * @return The rows, sorted
+    */
+   public int[] getColumnIndices(int columnNumber) {
+      int from = columnStart[columnNumber];
+      int[] rows = new int[columnStart[columnNumber + 1] - from];
+      System.arraycopy(columnRows, from, rows, 0, rows.length);
+
+      return rows;
+   }
+
+   /**
+    * Gets the label of a column.
+    *
+    * @param  position The column
+    *
+    * @return The label
+    */
+   public String getColumnLabel(int position) { return columnLabels[position]; }
+
+   /**
+    * Gets the number of entries of a column.
+    *
+    * @param  position The column
+    *
+    * @return Number of entries
+    */
+   public int getColumnNumEntries(int position) {
+      return columnStart[position + 1] - columnStart[position];
+   }
+
+   /**
+    * Gets the index of the first entry of a column. The entries of column
+    * <code>c</code> are <code>getColumnStart(c)</code> to <code>
+    * getColumnEnd(c) - 1</code>, in row order.
+    *
+    * @param  column The column
+    *
+    * @return Index of the column's first entry, in column order
+    */
+   public int getColumnStart(int column) { return columnStart[column]; }
+
+   /**
+    * Gets the type of a column.
+    *
+    * @param  position The column
+    *
+    * @return The type, as defined in <code>ColumnTypes</code>
+    */
+   public int getColumnType(int position) { return columnTypes[position]; }
+
+   /**
+    * Gets the value of a cell as a <code>double</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public double getDouble(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultDouble();
+      }
+
+      return columnNumeric[column] ? rowValues[p]
+                                   : SparseDoubleColumn.toDouble(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>float</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public float getFloat(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return (float) SparseDefaultValues.getDefaultDouble();
+      }
+
+      return columnNumeric[column] ? (float) rowValues[p]
+                                   : SparseFloatColumn.toFloat(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as an <code>int</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public int getInt(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultInt();
+      }
+
+      return columnNumeric[column] ? (int) rowValues[p]
+                                   : SparseIntColumn.toInt(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>long</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public long getLong(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return SparseDefaultValues.getDefaultInt();
+      }
+
+      if (columnTypes[column] == ColumnTypes.LONG) {
+         return ((Long) rowObjects[p]).longValue();
+      }
+
+      return columnNumeric[column] ? (long) rowValues[p]
+                                   : SparseLongColumn.toLong(rowObjects[p]);
+   }
+
+   /**
+    * Gets the total number of entries.
+    *
+    * @return Number of entries
+    */
+   public int getNumEntries() { return rowColumns.length; }
+
+   /**
+    * Gets the number of columns.
+    *
+    * @return Number of columns
+    */
+   public int getNumColumns() { return numColumns; }
+
+   /**
+    * Gets the number of rows.
+    *
+    * @return Number of rows
+    */
+   public int getNumRows() { return numRows; }
+
+   /**
+    * Gets the value of a cell as an <code>Object</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public Object getObject(int row, int column) {
+      int p = find(row, column);
+
+      return (p < 0) ? defaultValue(column) : valueAt(p, column);
+   }
+
+   /**
+    * Gets a <code>Row</code> to access the rows of this table.
+    *
+    * @return A <code>Row</code>
+    */
+   public Row getRow() { return new CompressedSparseRow(this); }
+
+   /**
+    * Gets the index after the last entry of a row.
+    *
+    * @param  row The row
+    *
+    * @return Index after the row's last entry, in row order
+    */
+   public int getRowEnd(int row) { return rowStart[row + 1]; }
+
+   /**
+    * Gets the column of an entry, in row order.
+    *
+    * @param  p Index of the entry in row order
+    *
+    * @return The column of the entry
+    */
+   public int getRowEntryColumn(int p) { return rowColumns[p]; }
+
+   /**
+    * Gets the numeric value of an entry, in row order.
+    *
+    * @param  p Index of the entry in row order
+    *
+    * @return The value of the entry, or 0 if its column is not numeric
+    */
+   public double getRowEntryValue(int p) { return rowValues[p]; }
+
+   /**
+    * Gets the columns of a row's entries.
+    *
+    * @param  rowNumber The row
+    *
+    * @return The columns, sorted
+    */
+   public int[] getRowIndices(int rowNumber) {
+      int from = rowStart[rowNumber];
+      int[] columns = new int[rowStart[rowNumber + 1] - from];
+      System.arraycopy(rowColumns, from, columns, 0, columns.length);
+
+      return columns;
+   }
+
+   /**
+    * Gets the columns of a row's entries; they are sorted.
+    *
+    * @param  rowNumber The row
+    *
+    * @return The columns
+    */
+   public int[] getRowIndicesUnsorted(int rowNumber) {
+      return getRowIndices(rowNumber);
+   }
+
+   /**
+    * Gets the number of entries of a row.
+    *
+    * @param  position The row
+    *
+    * @return Number of entries
+    */
+   public int getRowNumEntries(int position) {
+      return rowStart[position + 1] - rowStart[position];
+   }
+
+   /**
+    * Gets the index of the first entry of a row. The entries of row <code>
+    * r</code> are <code>getRowStart(r)</code> to <code>getRowEnd(r) -
+    * 1</code>, in column order.
+    *
+    * @param  row The row
+    *
+    * @return Index of the row's first entry, in row order
+    */
+   public int getRowStart(int row) { return rowStart[row]; }
+
+   /**
+    * Gets the value of a cell as a <code>short</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public short getShort(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return (short) SparseDefaultValues.getDefaultInt();
+      }
+
+      return columnNumeric[column] ? (short) rowValues[p]
+                                   : SparseShortColumn.toShort(rowObjects[p]);
+   }
+
+   /**
+    * Gets the value of a cell as a <code>String</code>.
+    *
+    * @param  row    The row
+    * @param  column The column
+    *
+    * @return The value, or the default if the cell has no entry
+    */
+   public String getString(int row, int column) {
+      int p = find(row, column);
+
+      if (p < 0) {
+         return columnNumeric[column] ? defaultValue(column).toString()
+                                      : SparseDefaultValues.getDefaultString();
+      }
+
+      return SparseStringColumn.toStringObject(valueAt(p, column));
+   }
+
+   /**
+    * Gets a copy of the given rows of this table.
+    *
+    * @param  rows The rows
+    *
+    * @return A table with the given rows, in order
+    */
+   public Table getSubset(int[] rows) {
+      return new CompressedSparseTable(this, rows);
+   }
+
+   /**
+    * Gets a copy of a range of rows of this table.
+    *
+    * @param  start First row
+    * @param  len   Number of rows
+    *
+    * @return A table with the given rows
+    */
+   public Table getSubset(int start, int len) {
+      int[] rows = new int[len];
+
+      for (int i = 0; i < len; i++) {
+         rows[i] = start + i;
+      }
+
+      return getSubset(rows);
+   }
+
+   /**
+    * Gets the factory for the tables this table converts to.
+    *
+    * @return A <code>SparseTableFactory</code>
+    */
+   public TableFactory getTableFactory() { return new SparseTableFactory(); }
+
+   /**
+    * Tests if any value is missing.
+    *
+    * @return True if any value is missing
+    */
+   public boolean hasMissingValues() {
+
+      for (int c = 0; c < numColumns; c++) {
+
+         if (missingRows[c].length > 0) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Tests if any value of a column is missing.
+    *
+    * @param  columnIndex The column
+    *
+    * @return True if any value of the column is missing
+    */
+   public boolean hasMissingValues(int columnIndex) {
+      return missingRows[columnIndex].length > 0;
+   }
+
+   /**
+    * Tests if a column is nominal.
+    *
+    * @param  position The column
+    *
+    * @return True if the column is nominal
+    */
+   public boolean isColumnNominal(int position) {
+      return columnNominal[position];
+   }
+
+   /**
+    * Tests if a column is numeric.
+    *
+    * @param  position The column
+    *
+    * @return True if the column is numeric
+    */
+   public boolean isColumnNumeric(int position) {
+      return columnNumeric[position];
+   }
+
+   /**
+    * Tests if a column is scalar.
+    *
+    * @param  position The column
+    *
+    * @return True if the column is scalar
+    */
+   public boolean isColumnScalar(int position) { return columnScalar[position]; }
+
+   /**
+    * Tests if the value of a cell is empty.
+    *
+    * @param  row The row
+    * @param  col The column
+    *
+    * @return True if the value is empty
+    */
+   public boolean isValueEmpty(int row, int col) {
+      return search(emptyRows[col], 0, emptyRows[col].length, row) >= 0;
+   }
+
+   /**
+    * Tests if the value of a cell is missing.
+    *
+    * @param  row The row
+    * @param  col The column
+    *
+    * @return True if the value is missing
+    */
+   public boolean isValueMissing(int row, int col) {
+      return search(missingRows[col], 0, missingRows[col].length, row) >= 0;
+   }
+
+   /**
+    * Sets whether a column is nominal.
+    *
+    * @param value    True if the column is nominal
+    * @param position The column
+    */
+   public void setColumnIsNominal(boolean value, int position) {
+      columnNominal[position] = value;
+   }
+
+   /**
+    * Sets whether a column is scalar.
+    *
+    * @param value    True if the column is scalar
+    * @param position The column
+    */
+   public void setColumnIsScalar(boolean value, int position) {
+      columnScalar[position] = value;
+   }
+
+   /**
+    * Gets a copy of this table that shares its entries, which are immutable,
+    * and has its own labels and flags.
+    *
+    * @return The copy
+    */
+   public Table shallowCopy() {
+      int[] rows = new int[numRows];
+
+      for (int i = 0; i < numRows; i++) {
+         rows[i] = i;
+      }
+
+      return new CompressedSparseTable(this, rows);
+   }
+
+   /**
+    * Converts this table to an example table, through {@link
+    * #toSparseTable()}.
+    *
+    * @return An example table with the content of this table
+    */
+   public ExampleTable toExampleTable() {
+      return toSparseTable().toExampleTable();
+   }
+
+   /**
+    * Converts this table to a mutable, hash map based, sparse table.
+    *
+    * @return A <code>SparseMutableTable</code> with the content of this table
+    */
+   public SparseMutableTable toSparseTable() {
+      SparseMutableTable table = new SparseMutableTable();
+
+      for (int c = 0; c < numColumns; c++) {
+         table.addColumn(getColumn(c));
+      }
+
+      if (table.getNumRows() < numRows) {
+         table.addRows(numRows - table.getNumRows());
+      }
+
+      table.setLabel(getLabel());
+      table.setComment(getComment());
+
+      return table;
+   }
+
+   //~ Inner Classes ***********************************************************
+
+   /**
+    * A <code>Row</code> of a <code>CompressedSparseTable</code>.
+    */
+   private static final class CompressedSparseRow implements Row,
+                                                             Serializable {
+
+      /** The universal version identifier. */
+      static final long serialVersionUID = 3166410823554096521L;
+
+      /** The table. */
+      private final CompressedSparseTable table;
+
+      /** The row. */
+      private int index;
+
+      /**
+       * Creates a new <code>CompressedSparseRow</code>.
+       *
+       * @param table The table
+       */
+      CompressedSparseRow(CompressedSparseTable table) { this.table = table; }
+
+      public boolean getBoolean(int i) { return table.getBoolean(index, i); }
+
+      public byte getByte(int i) { return table.getByte(index, i); }
+
+      public byte[] getBytes(int i) { return table.getBytes(index, i); }
+
+      public char getChar(int i) { return table.getChar(index, i); }
+
+      public char[] getChars(int i) { return table.getChars(index, i); }
+
+      public double getDouble(int i) { return table.getDouble(index, i); }
+
+      public float getFloat(int i) { return table.getFloat(index, i); }
+
+      public int getInt(int i) { return table.getInt(index, i); }
+
+      public long getLong(int i) { return table.getLong(index, i); }
+
+      public Object getObject(int i) { return table.getObject(index, i); }
+
+      public short getShort(int i) { return table.getShort(index, i); }
+
+      public String getString(int i) { return table.getString(index, i); }
+
+      public Table getTable() { return table; }
+
+      public void setIndex(int i) { index = i; }
+   } // end class CompressedSparseRow
+
+} // end class CompressedSparseTable
@@ -461,14 +461,19 @@ public class SparseMutableTable extends SparseTable
       }
 
       //VG: added this - copy missing and empty values
-      for(int i=0; i<newColumn.getNumRows(); i++){
-        if(newColumn.isValueEmpty(i)){
-          col.setValueToEmpty(true, i);
+      // (a sparse column is used as is, so it already has them; getNumRows()
+      // scans a sparse column's keys, so it is read once)
+      if (col != newColumn) {
+        int numRows = newColumn.getNumRows();
+        for(int i=0; i<numRows; i++){
+          if(newColumn.isValueEmpty(i)){
+            col.setValueToEmpty(true, i);
+          }
         }
-      }
-      for (int i = 0; i < newColumn.getNumRows(); i++) {
-        if (newColumn.isValueMissing(i)) {
-          col.setValueToMissing(true, i);
+        for (int i = 0; i < numRows; i++) {
+          if (newColumn.isValueMissing(i)) {
+            col.setValueToMissing(true, i);
+          }
         }
       }
 
@@ -524,13 +529,12 @@ public class SparseMutableTable extends SparseTable
     protected void addCol2Row (int column, int row) {
         // XIAOLEI - just added some comments
 
-        //VERED - added a try catch for the retrieve of row *row* part.
+        // rows past the end are created below; checking the bound rather than
+        // catching the exception keeps appending rows cheap
         TIntArrayList newRow = null;
-        try{
+        if (row < _rows.size()) {
           newRow = (TIntArrayList)_rows.get(row);
         }
-        catch (ArrayIndexOutOfBoundsException ae) { }
-        catch (IndexOutOfBoundsException ie) { }
         if(newRow == null) {
           //VERED - ensuring _rows can be called with set method without an exception
           if(_rows.size() <= row){
@@ -740,6 +744,8 @@ public class SparseMutableTable extends SparseTable
           _rows.add(new TIntArrayList());
           // _rows ...
         }
+
+        updateNumRowsCols();
     }           //addRows
 
     /**
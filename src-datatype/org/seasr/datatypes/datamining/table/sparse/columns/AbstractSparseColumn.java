@@ -531,6 +531,13 @@ public abstract class AbstractSparseColumn extends AbstractColumn {
      */
     public VIntHashSet getMissing() { return missing; }
 
+    /**
+     * Gets all the empty values as a <code>VIntHashSet.</code>
+     *
+     * @return All empty values as a <code>VIntHashSet</code>
+     */
+    public VIntHashSet getEmpty() { return empty; }
+
     /**
      * Gets all the missing values.
      *
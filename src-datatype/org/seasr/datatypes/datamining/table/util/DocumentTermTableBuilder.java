@@ -0,0 +1,364 @@
+/**
+ * University of Illinois/NCSA
+ * Open Source License
+ *
+ * Copyright (c) 2008, Board of Trustees-University of Illinois.
+ * All rights reserved.
+ *
+ * Developed by:
+ *
+ * Automated Learning Group
+ * National Center for Supercomputing Applications
+ * http://www.seasr.org
+ *
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal with the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimers.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimers in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the names of Automated Learning Group, The National Center for
+ *    Supercomputing Applications, or University of Illinois, nor the names of
+ *    its contributors may be used to endorse or promote products derived from
+ *    this Software without specific prior written permission.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.  IN NO EVENT SHALL THE
+ * CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * WITH THE SOFTWARE.
+ */
+
+package org.seasr.datatypes.datamining.table.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.seasr.datatypes.datamining.table.Column;
+import org.seasr.datatypes.datamining.table.MutableTable;
+import org.seasr.datatypes.datamining.table.basic.IntColumn;
+import org.seasr.datatypes.datamining.table.basic.MutableTableImpl;
+import org.seasr.datatypes.datamining.table.basic.StringColumn;
+import org.seasr.datatypes.datamining.table.sparse.SparseMutableTable;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseIntColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseStringColumn;
+
+
+/**
+ * Builds a document-term table from a stream of documents. Each document
+ * becomes a row holding its label, its id and its term counts, in columns 0,
+ * 1 and 2 onwards. Each term becomes an integer column, in the order in which
+ * the terms are first seen.
+ *
+ * <p>Adding a document does not touch the table. The counts are buffered as
+ * (row, term, count) triples in primitive arrays, and the table is built once
+ * by {@link #build()}. The table is a sparse table if the fraction of cells
+ * holding a count is below the sparse density, and a table of dense integer
+ * columns otherwise.</p>
+ */
+public class DocumentTermTableBuilder {
+
+   //~ Static fields/initializers **********************************************
+
+   /** Density below which the table is built as a sparse table by default. */
+   public static final double DEFAULT_SPARSE_DENSITY = 0.1;
+
+   //~ Instance fields *********************************************************
+
+   /** Label of the label column. */
+   private final String labelColumnLabel;
+
+   /** Label of the id column. */
+   private final String idColumnLabel;
+
+   /** Density below which the table is built as a sparse table. */
+   private final double sparseDensity;
+
+   /** Label of each document. */
+   private final List<String> labels = new ArrayList<String>();
+
+   /** Id of each document. */
+   private final List<String> ids = new ArrayList<String>();
+
+   /** Index of each term. */
+   private final Map<String, Integer> termIndex = new HashMap<String, Integer>();
+
+   /** Terms in the order in which they were first seen. */
+   private final List<String> terms = new ArrayList<String>();
+
+   /** Row of each buffered count. */
+   private int[] entryRows = new int[1024];
+
+   /** Term index of each buffered count. */
+   private int[] entryTerms = new int[1024];
+
+   /** Buffered counts. */
+   private int[] entryCounts = new int[1024];
+
+   /** Number of buffered counts. */
+   private int numEntries;
+
+   //~ Constructors ************************************************************
+
+   /**
+    * Creates a new <code>DocumentTermTableBuilder</code> with the default
+    * sparse density.
+    *
+    * @param labelColumnLabel Label of the label column
+    * @param idColumnLabel    Label of the id column
+    */
+   public DocumentTermTableBuilder(String labelColumnLabel,
+                                   String idColumnLabel) {
+      this(labelColumnLabel, idColumnLabel, DEFAULT_SPARSE_DENSITY);
+   }
+
+   /**
+    * Creates a new <code>DocumentTermTableBuilder</code>.
+    *
+    * @param labelColumnLabel Label of the label column
+    * @param idColumnLabel    Label of the id column
+    * @param sparseDensity    Density below which the table is built as a
+    *                         sparse table
+    */
+   public DocumentTermTableBuilder(String labelColumnLabel,
+                                   String idColumnLabel,
+                                   double sparseDensity) {
+      this.labelColumnLabel = labelColumnLabel;
+      this.idColumnLabel = idColumnLabel;
+      this.sparseDensity = sparseDensity;
+   }
+
+   //~ Methods *****************************************************************
+
+   /**
+    * Copies part of an array.
+    *
+    * @param  array The array
+    * @param  from  First index to copy
+    * @param  to    Index after the last one to copy
+    *
+    * @return The copy
+    */
+   private static int[] copyOfRange(int[] array, int from, int to) {
+      int[] copy = new int[to - from];
+      System.arraycopy(array, from, copy, 0, copy.length);
+
+      return copy;
+   }
+
+   /**
+    * Grows the entry buffers geometrically so that they can hold at least
+    * <code>minCapacity</code> counts.
+    *
+    * @param minCapacity Number of counts to make room for
+    */
+   private void ensureCapacity(int minCapacity) {
+
+      if (minCapacity <= entryRows.length) {
+         return;
+      }
+
+      int capacity = Math.max(minCapacity, entryRows.length * 2);
+      int[] newRows = new int[capacity];
+      int[] newTerms = new int[capacity];
+      int[] newCounts = new int[capacity];
+      System.arraycopy(entryRows, 0, newRows, 0, numEntries);
+      System.arraycopy(entryTerms, 0, newTerms, 0, numEntries);
+      System.arraycopy(entryCounts, 0, newCounts, 0, numEntries);
+      entryRows = newRows;
+      entryTerms = newTerms;
+      entryCounts = newCounts;
+   }
+
+   /**
+    * Adds a document.
+    *
+    * @param  label      The label (class) of the document
+    * @param  id         The id of the document
+    * @param  termCounts The count of each term in the document
+    *
+    * @return The row of the document
+    */
+   public int addDocument(String label, String id,
+                          Map<String, Integer> termCounts) {
+      int row = labels.size();
+      labels.add(label);
+      ids.add(id);
+      ensureCapacity(numEntries + termCounts.size());
+
+      for (Entry<String, Integer> entry : termCounts.entrySet()) {
+         Integer term = termIndex.get(entry.getKey());
+
+         if (term == null) {
+            term = terms.size();
+            termIndex.put(entry.getKey(), term);
+            terms.add(entry.getKey());
+         }
+
+         int count = entry.getValue();
+
+         if (count != 0) {
+            entryRows[numEntries] = row;
+            entryTerms[numEntries] = term;
+            entryCounts[numEntries] = count;
+            numEntries++;
+         }
+      }
+
+      return row;
+   }
+
+   /**
+    * Gets the number of documents added.
+    *
+    * @return Number of documents
+    */
+   public int getNumDocuments() { return labels.size(); }
+
+   /**
+    * Gets the number of distinct terms seen.
+    *
+    * @return Number of terms
+    */
+   public int getNumTerms() { return terms.size(); }
+
+   /**
+    * Gets the number of non-zero counts added.
+    *
+    * @return Number of non-zero counts
+    */
+   public int getNumEntries() { return numEntries; }
+
+   /**
+    * Gets the fraction of the term cells that hold a non-zero count.
+    *
+    * @return The density, 0 if there are no documents or no terms
+    */
+   public double getDensity() {
+      double cells = (double) getNumDocuments() * getNumTerms();
+
+      return (cells == 0) ? 0 : numEntries / cells;
+   }
+
+   /**
+    * Tests if {@link #build()} will build a sparse table.
+    *
+    * @return True if the density is below the sparse density
+    */
+   public boolean isSparse() { return getDensity() < sparseDensity; }
+
+   /**
+    * Builds the table. The counts are grouped by term with a counting sort;
+    * within a term they are already in row order, since documents are added
+    * in order.
+    *
+    * @return The document-term table
+    */
+   public MutableTable build() {
+      int numTerms = terms.size();
+
+      // start of each term's counts in the grouped arrays
+      int[] start = new int[numTerms + 1];
+
+      for (int i = 0; i < numEntries; i++) {
+         start[entryTerms[i] + 1]++;
+      }
+
+      for (int t = 0; t < numTerms; t++) {
+         start[t + 1] += start[t];
+      }
+
+      int[] next = copyOfRange(start, 0, numTerms);
+      int[] rows = new int[numEntries];
+      int[] counts = new int[numEntries];
+
+      for (int i = 0; i < numEntries; i++) {
+         int pos = next[entryTerms[i]]++;
+         rows[pos] = entryRows[i];
+         counts[pos] = entryCounts[i];
+      }
+
+      return isSparse() ? buildSparse(start, rows, counts)
+                        : buildDense(start, rows, counts);
+   }
+
+   /**
+    * Builds a sparse table from the counts grouped by term.
+    *
+    * @param  start  Start of each term's counts
+    * @param  rows   Row of each count
+    * @param  counts The counts
+    *
+    * @return The table
+    */
+   private MutableTable buildSparse(int[] start, int[] rows, int[] counts) {
+      SparseMutableTable table = new SparseMutableTable();
+      String[] labelValues = labels.toArray(new String[labels.size()]);
+      String[] idValues = ids.toArray(new String[ids.size()]);
+
+      Column labelCol = new SparseStringColumn(labelValues);
+      labelCol.setLabel(labelColumnLabel);
+      table.addColumn(labelCol);
+
+      Column idCol = new SparseStringColumn(idValues);
+      idCol.setLabel(idColumnLabel);
+      table.addColumn(idCol);
+
+      for (int t = 0; t < terms.size(); t++) {
+         Column column =
+            new SparseIntColumn(copyOfRange(counts, start[t], start[t + 1]),
+                                copyOfRange(rows, start[t], start[t + 1]));
+         column.setLabel(terms.get(t));
+         table.addColumn(column);
+      }
+
+      return table;
+   }
+
+   /**
+    * Builds a table of dense columns from the counts grouped by term.
+    *
+    * @param  start  Start of each term's counts
+    * @param  rows   Row of each count
+    * @param  counts The counts
+    *
+    * @return The table
+    */
+   private MutableTable buildDense(int[] start, int[] rows, int[] counts) {
+      int numRows = getNumDocuments();
+      Column[] columns = new Column[terms.size() + 2];
+
+      columns[0] = new StringColumn(labels.toArray(new String[numRows]));
+      columns[0].setLabel(labelColumnLabel);
+      columns[1] = new StringColumn(ids.toArray(new String[numRows]));
+      columns[1].setLabel(idColumnLabel);
+
+      for (int t = 0; t < terms.size(); t++) {
+         int[] values = new int[numRows];
+
+         for (int i = start[t]; i < start[t + 1]; i++) {
+            values[rows[i]] = counts[i];
+         }
+
+         columns[t + 2] = new IntColumn(values);
+         columns[t + 2].setLabel(terms.get(t));
+      }
+
+      return new MutableTableImpl(columns);
+   }
+
+} // end class DocumentTermTableBuilder
@@ -19,6 +19,7 @@ import java.util.List;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.StreamUtils;
 
 import com.ontotext.gate.gazetteer.*;
@@ -82,7 +83,7 @@ public class AdvGazetteerWrapper implements AnnotationReceiver {
 
 
 
-    	tuplePeer = new SimpleTuplePeer(f);
+    	tuplePeer = TuplePeerRegistry.getPeer(f);
 
     	TYPE_IDX        = tuplePeer.getIndexForFieldName(TYPE_FIELD);
     	SENTENCE_ID_IDX = tuplePeer.getIndexForFieldName(SENTENCE_ID_FIELD);
@@ -42,9 +42,7 @@
 
 package org.seasr.meandre.components.nlp.opennlp;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 
 import opennlp.tools.chunker.ChunkerME;
 import opennlp.tools.chunker.ChunkerModel;
@@ -66,9 +64,12 @@ import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.support.components.opennlp.ModelRegistry;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 
 
@@ -93,6 +94,7 @@ import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
                 "opennlp-models-chunker.jar"
         }
 )
+@Stateless
 public class OpenNLPChunker extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -145,8 +147,12 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
     public static final String CHUNK_PROB_FIELD  = "chunkProb";
     public static final String TOKEN_START_FIELD = "tokenStart";
 
-    protected POSTaggerME _posTagger;
-    protected ChunkerME _chunker;
+    /** The models, shared with the other components using them (see ModelRegistry) */
+    protected POSModel _posModel;
+    protected ChunkerModel _chunkerModel;
+    /** The tagger and chunker are not thread safe - one per thread (sharing the models), for _parallelism > 1 */
+    protected ThreadLocal<POSTaggerME> _posTagger;
+    protected ThreadLocal<ChunkerME> _chunker;
     protected SimpleTuplePeer _tuplePeer;
 
 
@@ -157,10 +163,25 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
         String runDirectory = ccp.getRunDirectory();
         String langCode = getPropertyOrDieTrying(PROP_LANG_CODE, ccp);
 
-        _chunker = initializeChunker(langCode, runDirectory);
-        _posTagger = initializePosTagger(langCode, runDirectory);
+        _chunkerModel = initializeChunkerModel(langCode, runDirectory);
+        _chunker = new ThreadLocal<ChunkerME>() {
+            @Override
+            protected ChunkerME initialValue() {
+                return new ChunkerME(_chunkerModel);
+            }
+        };
+        console.fine("Chunker model loaded. Chunker is ready.");
+
+        _posModel = initializePosModel(langCode, runDirectory);
+        _posTagger = new ThreadLocal<POSTaggerME>() {
+            @Override
+            protected POSTaggerME initialValue() {
+                return new POSTaggerME(_posModel);
+            }
+        };
+        console.fine("POS model loaded. Tagger is ready.");
 
-        _tuplePeer = new SimpleTuplePeer(new String[] { SENTENCE_ID_FIELD, TOKEN_FIELD, POS_FIELD,
+        _tuplePeer = TuplePeerRegistry.getPeer(new String[] { SENTENCE_ID_FIELD, TOKEN_FIELD, POS_FIELD,
                 CHUNK_FIELD, POS_PROB_FIELD, CHUNK_PROB_FIELD, TOKEN_START_FIELD });
     }
 
@@ -168,14 +189,16 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
     public void executeCallBack(ComponentContext cc) throws Exception {
         StringsMap tokenizedSentences = (StringsMap) cc.getDataComponentFromInput(IN_TOKENIZED_SENTENCES);
         StringsArray.Builder chunkerTuples = StringsArray.newBuilder();
+        POSTaggerME posTagger = _posTagger.get();
+        ChunkerME chunker = _chunker.get();
 
         for (int i = 0, iMax = tokenizedSentences.getKeyCount(), sentenceOffset = 0; i < iMax; i++) {
             String sentence = tokenizedSentences.getKey(i);
             String[] tokens = BasicDataTypesTools.stringsToStringArray(tokenizedSentences.getValue(i));
-            String[] tags = _posTagger.tag(tokens);
-            String[] chunkerTags = _chunker.chunk(tokens, tags);
-            double[] posProbs = _posTagger.probs();
-            double[] chunkerProbs = _chunker.probs();
+            String[] tags = posTagger.tag(tokens);
+            String[] chunkerTags = chunker.chunk(tokens, tags);
+            double[] posProbs = posTagger.probs();
+            double[] chunkerProbs = chunker.probs();
 
             for (int t = 0, tMax = tokens.length, lastTokenStart = 0; t < tMax; t++) {
                 String token = tokens[t];
@@ -208,11 +231,17 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
         _posTagger = null;
         _chunker = null;
+
+        ModelRegistry registry = ModelRegistry.getInstance();
+        registry.release(_posModel);
+        registry.release(_chunkerModel);
+        _posModel = null;
+        _chunkerModel = null;
     }
 
     //--------------------------------------------------------------------------------------------
 
-    private POSTaggerME initializePosTagger(String langCode, final String runDirectory) throws Exception {
+    private POSModel initializePosModel(String langCode, final String runDirectory) throws Exception {
         String modelFileName = String.format(POS_MODEL_FORMAT, langCode);
         String nlpPosModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "pos";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), modelFileName, nlpPosModelsDir, false);
@@ -228,20 +257,10 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
         File modelFile = new File(nlpPosModelsDir, modelFileName);
         if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
 
-        FileInputStream modelStream = new FileInputStream(modelFile);
-        try {
-            POSModel model = new POSModel(modelStream);
-            POSTaggerME posTagger = new POSTaggerME(model);
-            console.fine("POS model loaded. Tagger is ready.");
-
-            return posTagger;
-        }
-        finally {
-            try { modelStream.close(); } catch (IOException e) { }
-        }
+        return ModelRegistry.getInstance().acquire(modelFile, POSModel.class);
     }
 
-    private ChunkerME initializeChunker(String langCode, final String runDirectory) throws Exception {
+    private ChunkerModel initializeChunkerModel(String langCode, final String runDirectory) throws Exception {
         String modelFileName = String.format(CHUNKER_MODEL_FORMAT, langCode);
         String nlpChunkerModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "chunker";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), modelFileName, nlpChunkerModelsDir, false);
@@ -257,16 +276,6 @@ public class OpenNLPChunker extends AbstractExecutableComponent {
         File modelFile = new File(nlpChunkerModelsDir, modelFileName);
         if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
 
-        FileInputStream modelStream = new FileInputStream(modelFile);
-        try {
-            ChunkerModel model = new ChunkerModel(modelStream);
-            ChunkerME chunker = new ChunkerME(model);
-            console.fine("Chunker model loaded. Chunker is ready.");
-
-            return chunker;
-        }
-        finally {
-            try { modelStream.close(); } catch (IOException e) { }
-        }
+        return ModelRegistry.getInstance().acquire(modelFile, ChunkerModel.class);
     }
 }
@@ -43,9 +43,7 @@
 package org.seasr.meandre.components.nlp.opennlp;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -71,9 +69,12 @@ import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.support.components.opennlp.ModelRegistry;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 
 /**
@@ -100,6 +101,7 @@ import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
                 "opennlp-models-ner.jar"
         }
 )
+@Stateless
 public class OpenNLPNamedEntity extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -156,7 +158,10 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
     public static final String TEXT_START_FIELD  = "textStart";
     public static final String TEXT_FIELD        = "text";
 
-    protected NameFinderME[] _finders;
+    /** The models, shared with the other components using them (see ModelRegistry) */
+    protected TokenNameFinderModel[] _models;
+    /** The finders are not thread safe - one set per thread (sharing the models), for _parallelism > 1 */
+    protected ThreadLocal<NameFinderME[]> _finders;
     protected SimpleTuplePeer _tuplePeer;
 
 
@@ -172,15 +177,26 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
 
         String runDirectory = ccp.getRunDirectory();
         String langCode = getPropertyOrDieTrying(PROP_LANG_CODE, ccp);
-        _finders = initializeNER(langCode, entityTypes, runDirectory);
+        _models = initializeNER(langCode, entityTypes, runDirectory);
+        _finders = new ThreadLocal<NameFinderME[]>() {
+            @Override
+            protected NameFinderME[] initialValue() {
+                NameFinderME[] finders = new NameFinderME[_models.length];
+                for (int i = 0; i < _models.length; i++)
+                    finders[i] = new NameFinderME(_models[i]);
+
+                return finders;
+            }
+        };
 
-        _tuplePeer = new SimpleTuplePeer(new String[] { SENTENCE_ID_FIELD, TEXT_FIELD, TYPE_FIELD, TEXT_START_FIELD });
+        _tuplePeer = TuplePeerRegistry.getPeer(new String[] { SENTENCE_ID_FIELD, TEXT_FIELD, TYPE_FIELD, TEXT_START_FIELD });
     }
 
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         StringsMap tokenizedSentences = (StringsMap) cc.getDataComponentFromInput(IN_TOKENIZED_SENTENCES);
         StringsArray.Builder entityTuples = StringsArray.newBuilder();
+        NameFinderME[] finders = _finders.get();
 
         try {
             for (int i = 0, iMax = tokenizedSentences.getKeyCount(); i < iMax; i++) {
@@ -195,7 +211,7 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
                     tokenPositions.put(j,  new Span(pos, lastPos));
                 }
 
-                for (NameFinderME finder : _finders) {
+                for (NameFinderME finder : finders) {
                     Span[] entitySpans = finder.find(tokens);
                     for (Span span : entitySpans) {
                         Span entity = new Span(
@@ -214,7 +230,7 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
             }
         }
         finally {
-            for (NameFinderME finder : _finders)
+            for (NameFinderME finder : finders)
                 finder.clearAdaptiveData();
         }
 
@@ -225,11 +241,16 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
         _finders = null;
+
+        if (_models != null)
+            for (TokenNameFinderModel model : _models)
+                ModelRegistry.getInstance().release(model);
+        _models = null;
     }
 
     //--------------------------------------------------------------------------------------------
 
-    private NameFinderME[] initializeNER(String langCode, Set<String> entityTypes, String runDirectory) throws Exception {
+    private TokenNameFinderModel[] initializeNER(String langCode, Set<String> entityTypes, String runDirectory) throws Exception {
         String nlpNERModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "ner";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), String.format(NER_MODEL_FORMAT, langCode, "person"), nlpNERModelsDir, false);
         switch (status) {
@@ -241,26 +262,27 @@ public class OpenNLPNamedEntity extends AbstractExecutableComponent {
                 throw new ComponentContextException("Failed to install models to: " + nlpNERModelsDir);
         }
 
-        NameFinderME[] finders = new NameFinderME[entityTypes.size()];
+        TokenNameFinderModel[] models = new TokenNameFinderModel[entityTypes.size()];
 
         int i = 0;
-        for (String entityType : entityTypes) {
-            File modelFile = new File(nlpNERModelsDir, String.format(NER_MODEL_FORMAT, langCode, entityType));
-            if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
-
-            FileInputStream modelStream = new FileInputStream(modelFile);
-            try {
-                TokenNameFinderModel model = new TokenNameFinderModel(modelStream);
-                finders[i++] = new NameFinderME(model);
+        try {
+            for (String entityType : entityTypes) {
+                File modelFile = new File(nlpNERModelsDir, String.format(NER_MODEL_FORMAT, langCode, entityType));
+                if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
+
+                models[i++] = ModelRegistry.getInstance().acquire(modelFile, TokenNameFinderModel.class);
                 console.fine(String.format("TokenNameFinder model for '%s' successfully loaded.", entityType));
             }
-            finally {
-                try { modelStream.close(); } catch (IOException e) { }
-            }
+        }
+        catch (Exception e) {
+            for (TokenNameFinderModel model : models)
+                ModelRegistry.getInstance().release(model);
+
+            throw e;
         }
 
         console.fine("All models loaded. Named entity finder is ready.");
 
-        return finders;
+        return models;
     }
 }
@@ -43,9 +43,8 @@
 package org.seasr.meandre.components.nlp.opennlp;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import opennlp.tools.postag.POSModel;
@@ -62,13 +61,16 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextException;
 import org.meandre.core.ComponentContextProperties;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
-import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
+import org.seasr.datatypes.core.views.TokenizedSentencesView;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.support.components.opennlp.ModelRegistry;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 
 /**
@@ -95,6 +97,7 @@ import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
                 "opennlp-models-pos.jar"
         }
 )
+@Stateless
 public class OpenNLPPosTagger extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -152,7 +155,10 @@ public class OpenNLPPosTagger extends AbstractExecutableComponent {
     public static final String POS_PROB_FIELD    = "posProb";
     public static final String TOKEN_START_FIELD = "tokenStart";
 
-    protected POSTaggerME _posTagger;
+    /** The model, shared with the other components using it (see ModelRegistry) */
+    protected POSModel _posModel;
+    /** The tagger is not thread safe - one per thread (sharing the model), for _parallelism > 1 */
+    protected ThreadLocal<POSTaggerME> _posTagger;
     protected Pattern _filter;
     protected SimpleTuplePeer _tuplePeer;
 
@@ -168,24 +174,33 @@ public class OpenNLPPosTagger extends AbstractExecutableComponent {
         if (filter.length() > 0)
             _filter = Pattern.compile(filter);
 
-        _posTagger = initializePosTagger(langCode, runDirectory);
-        _tuplePeer = new SimpleTuplePeer(new String[] { SENTENCE_ID_FIELD, TOKEN_FIELD, POS_FIELD, POS_PROB_FIELD, TOKEN_START_FIELD });
+        _posModel = initializePosModel(langCode, runDirectory);
+        _posTagger = new ThreadLocal<POSTaggerME>() {
+            @Override
+            protected POSTaggerME initialValue() {
+                return new POSTaggerME(_posModel);
+            }
+        };
+        console.fine("POS model loaded. Tagger is ready.");
+        _tuplePeer = TuplePeerRegistry.getPeer(new String[] { SENTENCE_ID_FIELD, TOKEN_FIELD, POS_FIELD, POS_PROB_FIELD, TOKEN_START_FIELD });
     }
 
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
-        StringsMap tokenizedSentences = (StringsMap) cc.getDataComponentFromInput(IN_TOKENIZED_SENTENCES);
+        TokenizedSentencesView tokenizedSentences =
+            DataTypeParser.parseAsTokenizedSentencesView(cc.getDataComponentFromInput(IN_TOKENIZED_SENTENCES));
         StringsArray.Builder posTuples = StringsArray.newBuilder();
+        POSTaggerME posTagger = _posTagger.get();
 
-        for (int i = 0, iMax = tokenizedSentences.getKeyCount(), sentenceOffset = 0; i < iMax; i++) {
-            String sentence = tokenizedSentences.getKey(i);
-            String[] tokens = BasicDataTypesTools.stringsToStringArray(tokenizedSentences.getValue(i));
-            String[] tags = _posTagger.tag(tokens);
-            double[] probs = _posTagger.probs();
+        for (int i = 0, iMax = tokenizedSentences.size(), sentenceOffset = 0; i < iMax; i++) {
+            String sentence = tokenizedSentences.getSentence(i);
+            List<String> tokens = tokenizedSentences.getTokenList(i);
+            List<String> tags = posTagger.tag(tokens);
+            double[] probs = posTagger.probs();
 
-            for (int t = 0, tMax = tokens.length, lastTokenStart = 0; t < tMax; t++) {
-                String token = tokens[t];
-                String tag = tags[t];
+            for (int t = 0, tMax = tokens.size(), lastTokenStart = 0; t < tMax; t++) {
+                String token = tokens.get(t);
+                String tag = tags.get(t);
                 int tokenStart = sentence.indexOf(token, lastTokenStart);
 
                 if (_filter == null || _filter.matcher(tag).matches()) {
@@ -212,11 +227,14 @@ public class OpenNLPPosTagger extends AbstractExecutableComponent {
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
         _posTagger = null;
+
+        ModelRegistry.getInstance().release(_posModel);
+        _posModel = null;
     }
 
     //--------------------------------------------------------------------------------------------
 
-    private POSTaggerME initializePosTagger(String langCode, final String runDirectory) throws Exception {
+    private POSModel initializePosModel(String langCode, final String runDirectory) throws Exception {
         String modelFileName = String.format(POS_MODEL_FORMAT, langCode);
         String nlpPosModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "pos";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), modelFileName, nlpPosModelsDir, false);
@@ -232,16 +250,6 @@ public class OpenNLPPosTagger extends AbstractExecutableComponent {
         File modelFile = new File(nlpPosModelsDir, modelFileName);
         if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
 
-        FileInputStream modelStream = new FileInputStream(modelFile);
-        try {
-            POSModel model = new POSModel(modelStream);
-            POSTaggerME posTagger = new POSTaggerME(model);
-            console.fine("POS model loaded. Tagger is ready.");
-
-            return posTagger;
-        }
-        finally {
-            try { modelStream.close(); } catch (IOException e) { }
-        }
+        return ModelRegistry.getInstance().acquire(modelFile, POSModel.class);
     }
 }
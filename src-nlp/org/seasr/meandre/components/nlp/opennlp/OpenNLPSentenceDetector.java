@@ -43,9 +43,7 @@
 package org.seasr.meandre.components.nlp.opennlp;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 
 import opennlp.tools.sentdetect.SentenceDetectorME;
 import opennlp.tools.sentdetect.SentenceModel;
@@ -64,7 +62,9 @@ import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.support.components.opennlp.ModelRegistry;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 
 /**
@@ -90,6 +90,7 @@ import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
                 "opennlp-models-sent.jar"
         }
 )
+@Stateless
 public class OpenNLPSentenceDetector extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -136,7 +137,10 @@ public class OpenNLPSentenceDetector extends AbstractExecutableComponent {
 
     protected static final String SENT_MODEL_FORMAT = "%s-sent.bin";
 
-    protected SentenceDetectorME _sentDetector;
+    /** The model, shared with the other components using it (see ModelRegistry) */
+    protected SentenceModel _sentModel;
+    /** The detector is not thread safe - one per thread (sharing the model), for _parallelism > 1 */
+    protected ThreadLocal<SentenceDetectorME> _sentDetector;
     protected boolean _removeNewLine;
 
 
@@ -147,14 +151,21 @@ public class OpenNLPSentenceDetector extends AbstractExecutableComponent {
         String runDirectory = ccp.getRunDirectory();
         String langCode = getPropertyOrDieTrying(PROP_LANG_CODE, ccp);
 
-        _sentDetector = initializeSentenceDetector(langCode, runDirectory);
+        _sentModel = initializeSentenceModel(langCode, runDirectory);
+        _sentDetector = new ThreadLocal<SentenceDetectorME>() {
+            @Override
+            protected SentenceDetectorME initialValue() {
+                return new SentenceDetectorME(_sentModel);
+            }
+        };
+        console.fine("Sentence model loaded. Detector is ready.");
         _removeNewLine = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_REMOVE_NEWLINE, ccp));
     }
 
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         String text = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_TEXT))[0];
-        String[] sentences = _sentDetector.sentDetect(text);
+        String[] sentences = _sentDetector.get().sentDetect(text);
         if (_removeNewLine)
             for (int i = 0, iMax = sentences.length; i < iMax; i++)
                 sentences[i] = sentences[i].replaceAll("\r\n", " ").replaceAll("\n", " ");
@@ -165,11 +176,14 @@ public class OpenNLPSentenceDetector extends AbstractExecutableComponent {
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
         _sentDetector = null;
+
+        ModelRegistry.getInstance().release(_sentModel);
+        _sentModel = null;
     }
 
     //--------------------------------------------------------------------------------------------
 
-    private SentenceDetectorME initializeSentenceDetector(String langCode, String runDirectory) throws Exception {
+    private SentenceModel initializeSentenceModel(String langCode, String runDirectory) throws Exception {
         String modelFileName = String.format(SENT_MODEL_FORMAT, langCode);
         String nlpSentModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "sent";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), modelFileName, nlpSentModelsDir, false);
@@ -185,16 +199,6 @@ public class OpenNLPSentenceDetector extends AbstractExecutableComponent {
         File modelFile = new File(nlpSentModelsDir, modelFileName);
         if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
 
-        FileInputStream modelStream = new FileInputStream(modelFile);
-        try {
-            SentenceModel model = new SentenceModel(modelStream);
-            SentenceDetectorME sentDetector = new SentenceDetectorME(model);
-            console.fine("Sentence model loaded. Detector is ready.");
-
-            return sentDetector;
-        }
-        finally {
-            try { modelStream.close(); } catch (IOException e) { }
-        }
+        return ModelRegistry.getInstance().acquire(modelFile, SentenceModel.class);
     }
 }
@@ -43,9 +43,7 @@
 package org.seasr.meandre.components.nlp.opennlp;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 
 import opennlp.tools.tokenize.TokenizerME;
 import opennlp.tools.tokenize.TokenizerModel;
@@ -65,7 +63,9 @@ import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.components.abstracts.util.ComponentUtils;
+import org.seasr.meandre.support.components.opennlp.ModelRegistry;
 import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
 
 /**
@@ -90,6 +90,7 @@ import org.seasr.meandre.support.generic.io.JARInstaller.InstallStatus;
                 "opennlp-models-token.jar"
         }
 )
+@Stateless
 public class OpenNLPSentenceTokenizer extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -129,7 +130,10 @@ public class OpenNLPSentenceTokenizer extends AbstractExecutableComponent {
 
     protected static final String TOKEN_MODEL_FORMAT = "%s-token.bin";
 
-    protected TokenizerME _tokenizer;
+    /** The model, shared with the other components using it (see ModelRegistry) */
+    protected TokenizerModel _tokenizerModel;
+    /** The tokenizer is not thread safe - one per thread (sharing the model), for _parallelism > 1 */
+    protected ThreadLocal<TokenizerME> _tokenizer;
 
 
     //--------------------------------------------------------------------------------------------
@@ -139,15 +143,23 @@ public class OpenNLPSentenceTokenizer extends AbstractExecutableComponent {
         String runDirectory = ccp.getRunDirectory();
         String langCode = getPropertyOrDieTrying(PROP_LANG_CODE, ccp);
 
-        _tokenizer = initializeTokenizer(langCode, runDirectory);
+        _tokenizerModel = initializeTokenizerModel(langCode, runDirectory);
+        _tokenizer = new ThreadLocal<TokenizerME>() {
+            @Override
+            protected TokenizerME initialValue() {
+                return new TokenizerME(_tokenizerModel);
+            }
+        };
+        console.fine("Tokenizer model loaded. Tokenizer is ready.");
     }
 
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         String[] sentences = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_SENTENCES));
         StringsMap.Builder tokenizedSentences = StringsMap.newBuilder();
+        TokenizerME tokenizer = _tokenizer.get();
         for (String sentence : sentences) {
-            String[] tokens = _tokenizer.tokenize(sentence);
+            String[] tokens = tokenizer.tokenize(sentence);
             tokenizedSentences.addKey(sentence);
             tokenizedSentences.addValue(BasicDataTypesTools.stringToStrings(tokens));
         }
@@ -158,11 +170,14 @@ public class OpenNLPSentenceTokenizer extends AbstractExecutableComponent {
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
         _tokenizer = null;
+
+        ModelRegistry.getInstance().release(_tokenizerModel);
+        _tokenizerModel = null;
     }
 
     //--------------------------------------------------------------------------------------------
 
-    private TokenizerME initializeTokenizer(String langCode, String runDirectory) throws Exception {
+    private TokenizerModel initializeTokenizerModel(String langCode, String runDirectory) throws Exception {
         String modelFileName = String.format(TOKEN_MODEL_FORMAT, langCode);
         String nlpTokensModelsDir = runDirectory + File.separator + "opennlp-models" + File.separator + "token";
         InstallStatus status = ComponentUtils.installJARContainingResource(getClass(), modelFileName, nlpTokensModelsDir, false);
@@ -178,16 +193,6 @@ public class OpenNLPSentenceTokenizer extends AbstractExecutableComponent {
         File modelFile = new File(nlpTokensModelsDir, modelFileName);
         if (!modelFile.exists()) throw new FileNotFoundException(modelFile.toString());
 
-        FileInputStream modelStream = new FileInputStream(modelFile);
-        try {
-            TokenizerModel model = new TokenizerModel(modelStream);
-            TokenizerME tokenizer = new TokenizerME(model);
-            console.fine("Tokenizer model loaded. Tokenizer is ready.");
-
-            return tokenizer;
-        }
-        finally {
-            try { modelStream.close(); } catch (IOException e) { }
-        }
+        return ModelRegistry.getInstance().acquire(modelFile, TokenizerModel.class);
     }
 }
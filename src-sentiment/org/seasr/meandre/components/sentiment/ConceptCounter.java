@@ -62,6 +62,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -143,8 +144,8 @@ public class ConceptCounter extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inputMeta);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[] { DOC_ID, _groupBy, COUNT });
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inputMeta);
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[] { DOC_ID, _groupBy, COUNT });
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
         Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
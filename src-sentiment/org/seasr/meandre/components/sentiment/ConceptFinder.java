@@ -66,6 +66,8 @@ import org.seasr.meandre.support.components.apps.sentiment.PathMetric;
 import org.seasr.meandre.support.components.apps.sentiment.PathMetricFinder;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleField;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -162,6 +164,7 @@ public class ConceptFinder extends AbstractExecutableComponent {
     protected static final String PATH_LENGTH = "pathLength";
 
     protected String _key;
+    protected TupleField _keyField;
     protected PathMetricFinder _pathMetricFinder;
     protected Map<String, String> _conceptSeedMap;
 
@@ -171,6 +174,7 @@ public class ConceptFinder extends AbstractExecutableComponent {
     @Override
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
         _key = getPropertyOrDieTrying(PROP_KEY, ccp);
+        _keyField = new TupleField(_key);
 
         String concepts = getPropertyOrDieTrying(PROP_CONCEPTS, ccp);
         _conceptSeedMap = parseConcepts(concepts);
@@ -189,10 +193,10 @@ public class ConceptFinder extends AbstractExecutableComponent {
 
         console.finest(String.format("input: meta='%s' tuple='%s'", inMetaTuple.toString(), inTuple.toString()));
 
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMetaTuple);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[] { CONCEPT, SEED, PATH_LENGTH });
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMetaTuple);
+        SimpleTuplePeer outPeer = inPeer.extend(CONCEPT, SEED, PATH_LENGTH);
 
-        int KEY_IDX = inPeer.getIndexForFieldName(_key);
+        int KEY_IDX = _keyField.getIndex(inPeer);
         if (KEY_IDX == -1)
             throw new ComponentExecutionException(String.format("Incoming tuple has no attributed named '%s'", _key));
 
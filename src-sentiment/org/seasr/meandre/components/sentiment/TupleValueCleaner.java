@@ -63,6 +63,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 
 /**
@@ -162,14 +163,14 @@ public class TupleValueCleaner extends AbstractExecutableComponent {
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer inPeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inputMeta);
 		SimpleTuple tuple = inPeer.createTuple();
 
 		StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 		Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
 
 		String newField = fieldname + "Org";
-		SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[]{newField});
+		SimpleTuplePeer outPeer = inPeer.extend(newField);
 
 
 		int FIELD_IDX = inPeer.getIndexForFieldName(fieldname);
@@ -0,0 +1,315 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.support.components.opennlp;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.zip.CRC32;
+
+/**
+ * Process-wide registry of (immutable, thread safe) models - ex: the OpenNLP POSModel,
+ * TokenNameFinderModel, SentenceModel... - so that a model file is deserialized once and shared
+ * by all the component instances (and flow runs) that use it. The components build their own
+ * (cheap, not thread safe) POSTaggerME, NameFinderME... on top of the shared model.
+ *
+ * Models are keyed by model class, file name and checksum, so the copies of the same model
+ * installed in different run directories are shared too. The registry counts the references
+ * to each model; a model nobody references is evicted after it has been idle for a while.
+ *
+ * A model class must have a public constructor taking an InputStream (as all OpenNLP models do).
+ */
+public class ModelRegistry {
+
+    /** How long (ms) an unreferenced model is kept around, in case another flow needs it */
+    public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+
+    private static final ModelRegistry INSTANCE = new ModelRegistry(DEFAULT_IDLE_TIMEOUT);
+
+    private final long _idleTimeout;
+
+    /** The models, by key (guarded by itself) */
+    private final Map<String, Entry> _models = new HashMap<String, Entry>();
+    /** The entries of the loaded models, by model (guarded by _models) */
+    private final Map<Object, Entry> _entries = new IdentityHashMap<Object, Entry>();
+    /** The checksums of the model files, by path (guarded by itself) */
+    private final Map<String, long[]> _checksums = new HashMap<String, long[]>();
+
+    private Timer _evictionTimer = null;
+
+
+    public static ModelRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param idleTimeout How long (ms) an unreferenced model is kept before being evicted
+     */
+    public ModelRegistry(long idleTimeout) {
+        _idleTimeout = idleTimeout;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the shared instance of a model, loading it if needed; every call must be
+     * matched by a call to release(...) once the model is no longer used
+     *
+     * @param modelFile The model file
+     * @param modelClass The model class
+     * @return The model
+     * @throws IOException Thrown if the model cannot be read
+     */
+    public <T> T acquire(File modelFile, Class<T> modelClass) throws IOException {
+        String key = String.format("%s:%s:%x", modelClass.getName(), modelFile.getName(), getChecksum(modelFile));
+
+        Entry entry;
+        synchronized (_models) {
+            entry = _models.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                _models.put(key, entry);
+            }
+
+            entry.refCount++;
+        }
+
+        // load outside of the registry lock, so that different models can load at the same time
+        synchronized (entry) {
+            if (entry.model == null) {
+                try {
+                    entry.model = load(modelFile, modelClass);
+                }
+                catch (IOException e) {
+                    release(entry);
+                    throw e;
+                }
+                catch (RuntimeException e) {
+                    release(entry);
+                    throw e;
+                }
+
+                synchronized (_models) {
+                    _entries.put(entry.model, entry);
+                }
+            }
+
+            return modelClass.cast(entry.model);
+        }
+    }
+
+    /**
+     * Releases a model obtained from acquire(...)
+     *
+     * @param model The model (null is ignored)
+     */
+    public void release(Object model) {
+        if (model == null) return;
+
+        Entry entry;
+        synchronized (_models) {
+            entry = _entries.get(model);
+        }
+
+        if (entry == null)
+            throw new IllegalArgumentException("The model was not obtained from this registry (or was released too many times)");
+
+        release(entry);
+    }
+
+    /**
+     * @return The number of models held by the registry
+     */
+    public int size() {
+        synchronized (_models) {
+            return _models.size();
+        }
+    }
+
+    /**
+     * Removes the unreferenced models that have been idle for longer than the idle timeout
+     */
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+
+        synchronized (_models) {
+            for (Iterator<Entry> it = _models.values().iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.refCount == 0 && now - entry.lastReleased >= _idleTimeout) {
+                    it.remove();
+                    if (entry.model != null)
+                        _entries.remove(entry.model);
+                }
+            }
+
+            if (_models.isEmpty() && _evictionTimer != null) {
+                _evictionTimer.cancel();
+                _evictionTimer = null;
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private void release(Entry entry) {
+        synchronized (_models) {
+            if (entry.refCount == 0)
+                throw new IllegalStateException("The model was released too many times: " + entry.key);
+
+            if (--entry.refCount > 0) return;
+
+            entry.lastReleased = System.currentTimeMillis();
+
+            if (entry.model == null) {
+                // failed to load - nothing to keep
+                _models.remove(entry.key);
+                return;
+            }
+
+            if (_evictionTimer == null) {
+                _evictionTimer = new Timer("ModelRegistry-eviction", true);
+                long period = Math.max(1000, _idleTimeout / 2);
+                _evictionTimer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        evictIdle();
+                    }
+                }, period, period);
+            }
+        }
+    }
+
+    private <T> T load(File modelFile, Class<T> modelClass) throws IOException {
+        Constructor<T> constructor;
+        try {
+            constructor = modelClass.getConstructor(InputStream.class);
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(modelClass.getName() + " has no constructor taking an InputStream");
+        }
+
+        InputStream modelStream = new BufferedInputStream(new FileInputStream(modelFile));
+        try {
+            return constructor.newInstance(modelStream);
+        }
+        catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+
+            IOException ioe = new IOException("Cannot load the model from " + modelFile);
+            ioe.initCause(cause);
+            throw ioe;
+        }
+        catch (Exception e) {
+            IOException ioe = new IOException("Cannot load the model from " + modelFile);
+            ioe.initCause(e);
+            throw ioe;
+        }
+        finally {
+            try { modelStream.close(); } catch (IOException e) { }
+        }
+    }
+
+    /**
+     * @return The CRC32 of the file; remembered as long as the file length and modification time do not change
+     */
+    private long getChecksum(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        synchronized (_checksums) {
+            long[] cached = _checksums.get(path);
+            if (cached != null && cached[0] == length && cached[1] == lastModified)
+                return cached[2];
+        }
+
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[65536];
+            int nRead;
+            while ((nRead = in.read(buffer)) > 0)
+                crc.update(buffer, 0, nRead);
+        }
+        finally {
+            in.close();
+        }
+
+        synchronized (_checksums) {
+            _checksums.put(path, new long[] { length, lastModified, crc.getValue() });
+        }
+
+        return crc.getValue();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static class Entry {
+        final String key;
+
+        /** Set once loaded (guarded by the entry) */
+        Object model = null;
+
+        /** Guarded by the registry */
+        int refCount = 0;
+        long lastReleased = 0;
+
+        Entry(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An aggregate computed per group of tuples, written as <code>function(field[, argument]) [AS name]</code>:
+ * <ul>
+ * <li>count(*) - the number of tuples</li>
+ * <li>count(field) - the number of non-empty values</li>
+ * <li>sum(field), mean(field), min(field), max(field) - over the numeric values</li>
+ * <li>distinct(field[, precision]) - the approximate number of distinct non-empty values (HyperLogLog)</li>
+ * <li>quantile(field, q) - the approximate q-quantile of the numeric values, 0 &lt;= q &lt;= 1</li>
+ * </ul>
+ * Empty and non-numeric values are ignored by the numeric aggregates; mean, min, max and quantile
+ * are NaN for a group that has no numeric values. Sum, min and max stay whole numbers when all
+ * the values aggregated are whole numbers (see {@link Accumulator#isIntegral()}).
+ */
+
+public class Aggregate {
+
+	public enum Function { COUNT, SUM, MEAN, MIN, MAX, DISTINCT, QUANTILE }
+
+	/** What an aggregate needs to see of each tuple */
+	public enum Input { ROW, TEXT, NUMBER }
+
+	private static final Pattern SPEC = Pattern.compile(
+			"(\\w+)\\s*\\(\\s*([^,()]+?)\\s*(?:,\\s*([^,()]+?)\\s*)?\\)(?:\\s+(?i:as)\\s+(\\S+))?");
+
+	private final Function _function;
+	private final String _field;
+	private final double _argument;
+	private final String _name;
+
+	public Aggregate(Function function, String field, double argument, String name) {
+		_function = function;
+		_field = field;
+		_argument = argument;
+		_name = name;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Parses a comma separated list of aggregates
+	 *
+	 * @param specs The aggregates, e.g. "count(*), sum(price) AS total, quantile(latency, 0.95)"
+	 * @return The aggregates
+	 * @throws IllegalArgumentException Thrown if an aggregate cannot be parsed
+	 */
+	public static List<Aggregate> parseList(String specs) {
+		List<Aggregate> aggregates = new ArrayList<Aggregate>();
+
+		int depth = 0, start = 0;
+		for (int i = 0; i <= specs.length(); i++) {
+			char c = (i < specs.length()) ? specs.charAt(i) : ',';
+			if (c == '(') depth++;
+			else if (c == ')') depth--;
+			else if (c == ',' && depth == 0) {
+				String spec = specs.substring(start, i).trim();
+				if (spec.length() > 0)
+					aggregates.add(parse(spec));
+				start = i + 1;
+			}
+		}
+
+		return aggregates;
+	}
+
+	/**
+	 * Parses an aggregate
+	 *
+	 * @param spec The aggregate, e.g. "mean(price) AS avg_price"
+	 * @return The aggregate
+	 * @throws IllegalArgumentException Thrown if the aggregate cannot be parsed
+	 */
+	public static Aggregate parse(String spec) {
+		Matcher m = SPEC.matcher(spec.trim());
+		if (!m.matches())
+			throw new IllegalArgumentException("Cannot parse aggregate: " + spec);
+
+		Function function;
+		try {
+			function = Function.valueOf(m.group(1).toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Unknown aggregate function '%s' in: %s", m.group(1), spec));
+		}
+
+		String field = m.group(2);
+		if (field.equals("*")) {
+			if (function != Function.COUNT)
+				throw new IllegalArgumentException("Only count() can be applied to *: " + spec);
+			field = null;
+		}
+
+		String arg = m.group(3);
+		double argument;
+		switch (function) {
+			case QUANTILE:
+				if (arg == null)
+					throw new IllegalArgumentException("quantile() requires the quantile to compute, e.g. quantile(field, 0.5): " + spec);
+				argument = Double.parseDouble(arg);
+				if (argument < 0 || argument > 1)
+					throw new IllegalArgumentException("The quantile must be between 0 and 1: " + spec);
+				break;
+
+			case DISTINCT:
+				argument = (arg != null) ? Integer.parseInt(arg) : HyperLogLog.DEFAULT_PRECISION;
+				break;
+
+			default:
+				if (arg != null)
+					throw new IllegalArgumentException(String.format("%s() does not take an argument: %s", m.group(1), spec));
+				argument = 0;
+				break;
+		}
+
+		String name = m.group(4);
+		if (name == null) {
+			name = function.name().toLowerCase();
+			if (field != null)
+				name += "_" + field;
+			if (function == Function.QUANTILE)
+				name += "_" + arg;
+		}
+
+		return new Aggregate(function, field, argument, name);
+	}
+
+	public Function getFunction() {
+		return _function;
+	}
+
+	/**
+	 * @return The field aggregated, or null for count(*)
+	 */
+	public String getField() {
+		return _field;
+	}
+
+	public double getArgument() {
+		return _argument;
+	}
+
+	/**
+	 * @return The name of the output field
+	 */
+	public String getName() {
+		return _name;
+	}
+
+	public Input getInput() {
+		switch (_function) {
+			case COUNT:    return (_field == null) ? Input.ROW : Input.TEXT;
+			case DISTINCT: return Input.TEXT;
+			default:       return Input.NUMBER;
+		}
+	}
+
+	/**
+	 * @return The type of the output column; sum, min and max are LONG instead when {@link Accumulator#isIntegral()}
+	 */
+	public ColumnType getOutputType() {
+		switch (_function) {
+			case COUNT:
+			case DISTINCT:
+				return ColumnType.LONG;
+
+			default:
+				return ColumnType.DOUBLE;
+		}
+	}
+
+	/**
+	 * @return A new, empty, set of per group states for this aggregate
+	 */
+	public Accumulator newAccumulator() {
+		switch (_function) {
+			case COUNT:    return new CountAccumulator();
+			case SUM:      return new SumAccumulator(false);
+			case MEAN:     return new SumAccumulator(true);
+			case MIN:      return new ExtremeAccumulator(false);
+			case MAX:      return new ExtremeAccumulator(true);
+			case DISTINCT: return new DistinctAccumulator((int) _argument);
+			case QUANTILE: return new QuantileAccumulator(_argument);
+			default:       throw new IllegalStateException();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return _name;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * The state of an aggregate for each group, indexed by group number.
+	 * Depending on {@link Aggregate#getInput()} one of the add methods is called for every tuple.
+	 */
+	public abstract static class Accumulator {
+		protected int _groups = 0;
+
+		/**
+		 * Adds the state for a new group; groups are numbered from 0 in the order they are added
+		 */
+		public void addGroup() {
+			_groups++;
+		}
+
+		public void addRow(int group) {
+		}
+
+		/**
+		 * @param group The group
+		 * @param hash The 64 bit hash of a non-empty value (see {@link HyperLogLog#hash(CharSequence)})
+		 */
+		public void addText(int group, long hash) {
+		}
+
+		public void addValue(int group, double value) {
+		}
+
+		/**
+		 * @return True if every value written by {@link #writeTo(ColumnarTuples.Builder, int, int)} is a whole
+		 *         number that fits in a long, so that the aggregate can be output as a LONG column
+		 */
+		public boolean isIntegral() {
+			return false;
+		}
+
+		/**
+		 * Writes the aggregate of a group in the current row of the output
+		 *
+		 * @param output The output
+		 * @param col The output column
+		 * @param group The group
+		 */
+		public abstract void writeTo(ColumnarTuples.Builder output, int col, int group);
+	}
+
+	private static class CountAccumulator extends Accumulator {
+		private long[] _counts = new long[16];
+
+		@Override
+		public void addGroup() {
+			if (_groups == _counts.length)
+				_counts = Arrays.copyOf(_counts, _groups * 2);
+			super.addGroup();
+		}
+
+		@Override
+		public void addRow(int group) {
+			_counts[group]++;
+		}
+
+		@Override
+		public void addText(int group, long hash) {
+			_counts[group]++;
+		}
+
+		@Override
+		public void writeTo(ColumnarTuples.Builder output, int col, int group) {
+			output.setLong(col, _counts[group]);
+		}
+	}
+
+	private static class SumAccumulator extends Accumulator {
+		private final boolean _mean;
+		private double[] _sums = new double[16];
+		private long[] _longSums = new long[16];
+		private long[] _counts = new long[16];
+		private boolean _integral = true;
+
+		SumAccumulator(boolean mean) {
+			_mean = mean;
+		}
+
+		@Override
+		public void addGroup() {
+			if (_groups == _sums.length) {
+				_sums = Arrays.copyOf(_sums, _groups * 2);
+				_longSums = Arrays.copyOf(_longSums, _groups * 2);
+				_counts = Arrays.copyOf(_counts, _groups * 2);
+			}
+			super.addGroup();
+		}
+
+		@Override
+		public void addValue(int group, double value) {
+			_sums[group] += value;
+			_counts[group]++;
+
+			// whole numbers are also summed exactly, until one is not or the sum overflows
+			if (_integral && !_mean) {
+				long sum = _longSums[group];
+				long add = (long) value;
+				long result = sum + add;
+				if (add != value || ((sum ^ result) & (add ^ result)) < 0)
+					_integral = false;
+				else
+					_longSums[group] = result;
+			}
+		}
+
+		@Override
+		public boolean isIntegral() {
+			return _integral && !_mean;
+		}
+
+		@Override
+		public void writeTo(ColumnarTuples.Builder output, int col, int group) {
+			if (_mean)
+				output.setDouble(col, (_counts[group] > 0) ? _sums[group] / _counts[group] : Double.NaN);
+			else
+			if (_integral)
+				output.setLong(col, _longSums[group]);
+			else
+				output.setDouble(col, _sums[group]);
+		}
+	}
+
+	private static class ExtremeAccumulator extends Accumulator {
+		private final boolean _max;
+		private double[] _values = new double[16];
+		private boolean _integral = true;
+
+		ExtremeAccumulator(boolean max) {
+			_max = max;
+			Arrays.fill(_values, Double.NaN);
+		}
+
+		@Override
+		public void addGroup() {
+			if (_groups == _values.length) {
+				_values = Arrays.copyOf(_values, _groups * 2);
+				Arrays.fill(_values, _groups, _values.length, Double.NaN);
+			}
+			super.addGroup();
+		}
+
+		@Override
+		public void addValue(int group, double value) {
+			double current = _values[group];
+			if (Double.isNaN(current) || (_max ? value > current : value < current))
+				_values[group] = value;
+
+			if (value != (long) value)
+				_integral = false;
+		}
+
+		@Override
+		public boolean isIntegral() {
+			// a group without values has no whole number to output
+			if (_integral)
+				for (int group = 0; group < _groups; group++)
+					if (Double.isNaN(_values[group]))
+						return false;
+
+			return _integral;
+		}
+
+		@Override
+		public void writeTo(ColumnarTuples.Builder output, int col, int group) {
+			if (_integral && !Double.isNaN(_values[group]))
+				output.setLong(col, (long) _values[group]);
+			else
+				output.setDouble(col, _values[group]);
+		}
+	}
+
+	private static class DistinctAccumulator extends Accumulator {
+		private final int _precision;
+		private HyperLogLog[] _estimators = new HyperLogLog[16];
+
+		DistinctAccumulator(int precision) {
+			_precision = precision;
+		}
+
+		@Override
+		public void addGroup() {
+			if (_groups == _estimators.length)
+				_estimators = Arrays.copyOf(_estimators, _groups * 2);
+			super.addGroup();
+		}
+
+		@Override
+		public void addText(int group, long hash) {
+			HyperLogLog estimator = _estimators[group];
+			if (estimator == null)
+				estimator = _estimators[group] = new HyperLogLog(_precision);
+
+			estimator.add(hash);
+		}
+
+		@Override
+		public void writeTo(ColumnarTuples.Builder output, int col, int group) {
+			HyperLogLog estimator = _estimators[group];
+			output.setLong(col, (estimator != null) ? estimator.cardinality() : 0);
+		}
+	}
+
+	private static class QuantileAccumulator extends Accumulator {
+		private final double _quantile;
+		private QuantileSketch[] _sketches = new QuantileSketch[16];
+
+		QuantileAccumulator(double quantile) {
+			_quantile = quantile;
+		}
+
+		@Override
+		public void addGroup() {
+			if (_groups == _sketches.length)
+				_sketches = Arrays.copyOf(_sketches, _groups * 2);
+			super.addGroup();
+		}
+
+		@Override
+		public void addValue(int group, double value) {
+			QuantileSketch sketch = _sketches[group];
+			if (sketch == null)
+				sketch = _sketches[group] = new QuantileSketch();
+
+			sketch.add(value);
+		}
+
+		@Override
+		public void writeTo(ColumnarTuples.Builder output, int col, int group) {
+			QuantileSketch sketch = _sketches[group];
+			output.setDouble(col, (sketch != null) ? sketch.getQuantile(_quantile) : Double.NaN);
+		}
+	}
+}
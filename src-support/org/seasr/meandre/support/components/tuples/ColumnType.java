@@ -0,0 +1,133 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+/**
+ * The storage type of a column in a {@link ColumnarTuples} batch
+ */
+
+public enum ColumnType {
+	/** Dictionary-encoded string values */
+	STRING(0),
+
+	/** 64-bit integer values */
+	LONG(1),
+
+	/** Double precision values */
+	DOUBLE(2);
+
+	private final int _code;
+
+	private ColumnType(int code) {
+		_code = code;
+	}
+
+	/**
+	 * Returns the code used to identify this type in the TupleBatch protobuf message
+	 *
+	 * @return The type code
+	 */
+	public int getCode() {
+		return _code;
+	}
+
+	/**
+	 * Returns the column type for a TupleBatch type code
+	 *
+	 * @param code The type code
+	 * @return The column type
+	 * @throws IllegalArgumentException Thrown if the code is not known
+	 */
+	public static ColumnType fromCode(int code) {
+		for (ColumnType type : values())
+			if (type._code == code)
+				return type;
+
+		throw new IllegalArgumentException("Unknown column type code: " + code);
+	}
+
+	/**
+	 * Returns the narrowest type that can hold the given value such that formatting the
+	 * typed value back to a string yields the original text
+	 *
+	 * @param value The value
+	 * @return LONG, DOUBLE or STRING
+	 */
+	public static ColumnType infer(String value) {
+		int len = value.length();
+		if (len == 0) return STRING;
+
+		char c = value.charAt(0);
+		if (!(c >= '0' && c <= '9') && c != '-' && c != 'N' && c != 'I')
+			return STRING;
+
+		if (c != 'N' && c != 'I' && len <= 20) {
+			try {
+				if (Long.toString(Long.parseLong(value)).equals(value))
+					return LONG;
+			}
+			catch (NumberFormatException e) { }
+		}
+
+		try {
+			if (Double.toString(Double.parseDouble(value)).equals(value))
+				return DOUBLE;
+		}
+		catch (NumberFormatException e) { }
+
+		return STRING;
+	}
+
+	/**
+	 * Returns the type that can hold values of both types without changing their text form.
+	 * Mixing LONG and DOUBLE yields STRING, since "5" would otherwise come back as "5.0".
+	 *
+	 * @param a A type
+	 * @param b Another type
+	 * @return The widened type
+	 */
+	public static ColumnType widen(ColumnType a, ColumnType b) {
+		return (a == b) ? a : STRING;
+	}
+}
@@ -0,0 +1,628 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
+
+/**
+ * A batch of tuples stored column by column, with typed columns. LONG and DOUBLE columns hold
+ * primitive values; STRING columns hold codes into a dictionary shared by all the string
+ * columns of the batch, so repeated values are stored (and compared) once.
+ *
+ * The batch travels between components as a {@link TupleBatch} message on the tuples port,
+ * and can be converted to and from the StringsArray + meta data pair used by {@link SimpleTuple}
+ * based components, so that both kinds of components can share a flow.
+ */
+
+public class ColumnarTuples {
+	private final TupleSchema _schema;
+	private final int _rows;
+	private final long[][] _longs;
+	private final double[][] _doubles;
+	private final int[][] _codes;
+	private final String[] _dictionary;
+
+	private ColumnarTuples(TupleSchema schema, int rows, long[][] longs, double[][] doubles, int[][] codes, String[] dictionary) {
+		_schema = schema;
+		_rows = rows;
+		_longs = longs;
+		_doubles = doubles;
+		_codes = codes;
+		_dictionary = dictionary;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a batch from the data pushed on the tuples and meta_tuple ports
+	 *
+	 * @param tuples A TupleBatch, a StringsArray, or a single tuple as Strings
+	 * @param meta The tuple meta data
+	 * @return The batch; string tuples are loaded as STRING columns
+	 * @throws IllegalArgumentException Thrown if the tuples are of an unsupported type
+	 */
+	public static ColumnarTuples fromInput(Object tuples, Strings meta) {
+		if (tuples instanceof TupleBatch)
+			return fromProtobuf((TupleBatch) tuples);
+
+		if (tuples instanceof StringsArray)
+			return fromStringsArray((StringsArray) tuples, meta);
+
+		if (tuples instanceof Strings)
+			return fromStringsArray(StringsArray.newBuilder().addValue((Strings) tuples).build(), meta);
+
+		throw new IllegalArgumentException("Don't know how to handle tuples of type: " + tuples.getClass().getName());
+	}
+
+	public static ColumnarTuples fromProtobuf(TupleBatch batch) {
+		int columns = batch.getNameCount();
+		if (batch.getTypeCount() != columns)
+			throw new IllegalArgumentException(String.format(
+					"Malformed tuple batch: %d column names but %d column types", columns, batch.getTypeCount()));
+
+		String[] names = batch.getNameList().toArray(new String[columns]);
+		ColumnType[] types = new ColumnType[columns];
+		for (int i = 0; i < columns; i++)
+			types[i] = ColumnType.fromCode(batch.getType(i));
+
+		TupleSchema schema = new TupleSchema(names, types);
+		int rows = batch.getRows();
+
+		long[][] longs = new long[columns][];
+		double[][] doubles = new double[columns][];
+		int[][] codes = new int[columns][];
+		String[] dictionary = batch.getDictionaryList().toArray(new String[batch.getDictionaryCount()]);
+
+		int longPos = 0, doublePos = 0, codePos = 0;
+		for (int col = 0; col < columns; col++) {
+			switch (types[col]) {
+				case LONG:
+					checkLength("long_value", batch.getLongValueCount(), longPos + rows);
+					long[] lc = longs[col] = new long[rows];
+					for (int row = 0; row < rows; row++)
+						lc[row] = batch.getLongValue(longPos++);
+					break;
+
+				case DOUBLE:
+					checkLength("double_value", batch.getDoubleValueCount(), doublePos + rows);
+					double[] dc = doubles[col] = new double[rows];
+					for (int row = 0; row < rows; row++)
+						dc[row] = batch.getDoubleValue(doublePos++);
+					break;
+
+				case STRING:
+					checkLength("string_code", batch.getStringCodeCount(), codePos + rows);
+					int[] cc = codes[col] = new int[rows];
+					for (int row = 0; row < rows; row++) {
+						int code = batch.getStringCode(codePos++);
+						if (code < 0 || code >= dictionary.length)
+							throw new IllegalArgumentException("Malformed tuple batch: string code out of range: " + code);
+						cc[row] = code;
+					}
+					break;
+			}
+		}
+
+		return new ColumnarTuples(schema, rows, longs, doubles, codes, dictionary);
+	}
+
+	/**
+	 * Creates a batch where every column is a STRING column
+	 *
+	 * @param tuples The tuples
+	 * @param meta The tuple meta data
+	 * @return The batch
+	 */
+	public static ColumnarTuples fromStringsArray(StringsArray tuples, Strings meta) {
+		return fromStringsArray(tuples, new TupleSchema(meta));
+	}
+
+	/**
+	 * Creates a batch from string tuples
+	 *
+	 * @param tuples The tuples
+	 * @param meta The tuple meta data
+	 * @param inferTypes True to store columns whose values are all integers (or all doubles) as
+	 *                   LONG (or DOUBLE) columns, false to store every column as STRING
+	 * @return The batch
+	 */
+	public static ColumnarTuples fromStringsArray(StringsArray tuples, Strings meta, boolean inferTypes) {
+		return fromStringsArray(tuples, inferTypes ? inferSchema(tuples, meta) : new TupleSchema(meta));
+	}
+
+	/**
+	 * Creates a batch from string tuples, parsing the values according to the schema
+	 *
+	 * @param tuples The tuples
+	 * @param schema The schema
+	 * @return The batch
+	 * @throws NumberFormatException Thrown if a value of a numeric column cannot be parsed
+	 */
+	public static ColumnarTuples fromStringsArray(StringsArray tuples, TupleSchema schema) {
+		int columns = schema.size();
+		Builder builder = new Builder(schema, tuples.getValueCount());
+
+		for (Strings tuple : tuples.getValueList()) {
+			if (tuple.getValueCount() != columns)
+				throw new RuntimeException(String.format(
+						"unable to force new values into tuple, mismatch in size  schema size %d  incoming size %d",
+						columns, tuple.getValueCount()));
+
+			for (int col = 0; col < columns; col++)
+				builder.setValue(col, tuple.getValue(col));
+
+			builder.addRow();
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Determines the narrowest lossless type of each column of a set of string tuples
+	 *
+	 * @param tuples The tuples
+	 * @param meta The tuple meta data
+	 * @return The schema
+	 */
+	public static TupleSchema inferSchema(StringsArray tuples, Strings meta) {
+		int columns = meta.getValueCount();
+		ColumnType[] types = new ColumnType[columns];
+
+		for (int col = 0; col < columns; col++) {
+			ColumnType type = null;
+			for (int row = 0, rows = tuples.getValueCount(); row < rows && type != ColumnType.STRING; row++) {
+				ColumnType valueType = ColumnType.infer(tuples.getValue(row).getValue(col));
+				type = (type == null) ? valueType : ColumnType.widen(type, valueType);
+			}
+			types[col] = (type != null) ? type : ColumnType.STRING;
+		}
+
+		return new TupleSchema(meta.getValueList().toArray(new String[columns]), types);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	public TupleSchema getSchema() {
+		return _schema;
+	}
+
+	public int getRowCount() {
+		return _rows;
+	}
+
+	public int getColumnCount() {
+		return _schema.size();
+	}
+
+	public ColumnType getType(int col) {
+		return _schema.getType(col);
+	}
+
+	/**
+	 * Returns a value as a long; DOUBLE values are truncated and STRING values are parsed
+	 *
+	 * @param col The column index
+	 * @param row The row index
+	 * @return The value
+	 */
+	public long getLong(int col, int row) {
+		switch (_schema.getType(col)) {
+			case LONG:   return _longs[col][row];
+			case DOUBLE: return (long) _doubles[col][row];
+			default:     return Long.parseLong(_dictionary[_codes[col][row]]);
+		}
+	}
+
+	/**
+	 * Returns a value as a double; STRING values are parsed
+	 *
+	 * @param col The column index
+	 * @param row The row index
+	 * @return The value
+	 */
+	public double getDouble(int col, int row) {
+		switch (_schema.getType(col)) {
+			case LONG:   return _longs[col][row];
+			case DOUBLE: return _doubles[col][row];
+			default:     return Double.parseDouble(_dictionary[_codes[col][row]]);
+		}
+	}
+
+	/**
+	 * Returns the text of a value, formatted the same way {@link SimpleTuple#setValue(int, double)} does
+	 *
+	 * @param col The column index
+	 * @param row The row index
+	 * @return The value
+	 */
+	public String getString(int col, int row) {
+		switch (_schema.getType(col)) {
+			case LONG:   return Long.toString(_longs[col][row]);
+			case DOUBLE: return Double.toString(_doubles[col][row]);
+			default:     return _dictionary[_codes[col][row]];
+		}
+	}
+
+	/**
+	 * Returns the dictionary code of a value of a STRING column. Equal strings have equal codes.
+	 *
+	 * @param col The column index
+	 * @param row The row index
+	 * @return The code
+	 */
+	public int getStringCode(int col, int row) {
+		return getStringCodeColumn(col)[row];
+	}
+
+	public String getDictionaryValue(int code) {
+		return _dictionary[code];
+	}
+
+	public int getDictionarySize() {
+		return _dictionary.length;
+	}
+
+	/**
+	 * Returns the values of a LONG column (the array must not be modified)
+	 *
+	 * @param col The column index
+	 * @return The values
+	 */
+	public long[] getLongColumn(int col) {
+		checkType(col, ColumnType.LONG);
+		return _longs[col];
+	}
+
+	/**
+	 * Returns the values of a DOUBLE column (the array must not be modified)
+	 *
+	 * @param col The column index
+	 * @return The values
+	 */
+	public double[] getDoubleColumn(int col) {
+		checkType(col, ColumnType.DOUBLE);
+		return _doubles[col];
+	}
+
+	/**
+	 * Returns the dictionary codes of a STRING column (the array must not be modified)
+	 *
+	 * @param col The column index
+	 * @return The codes
+	 */
+	public int[] getStringCodeColumn(int col) {
+		checkType(col, ColumnType.STRING);
+		return _codes[col];
+	}
+
+	/**
+	 * Returns a batch containing the given rows of this batch, in the given order
+	 *
+	 * @param rows The row indices
+	 * @param count The number of entries of 'rows' to use
+	 * @return The batch
+	 */
+	public ColumnarTuples select(int[] rows, int count) {
+		int columns = _schema.size();
+		long[][] longs = new long[columns][];
+		double[][] doubles = new double[columns][];
+		int[][] codes = new int[columns][];
+
+		for (int col = 0; col < columns; col++) {
+			switch (_schema.getType(col)) {
+				case LONG:
+					long[] lc = _longs[col], nlc = longs[col] = new long[count];
+					for (int i = 0; i < count; i++) nlc[i] = lc[rows[i]];
+					break;
+
+				case DOUBLE:
+					double[] dc = _doubles[col], ndc = doubles[col] = new double[count];
+					for (int i = 0; i < count; i++) ndc[i] = dc[rows[i]];
+					break;
+
+				case STRING:
+					int[] cc = _codes[col], ncc = codes[col] = new int[count];
+					for (int i = 0; i < count; i++) ncc[i] = cc[rows[i]];
+					break;
+			}
+		}
+
+		return new ColumnarTuples(_schema, count, longs, doubles, codes, _dictionary);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the protobuf representation of this batch
+	 *
+	 * @return The TupleBatch
+	 */
+	public TupleBatch convert() {
+		TupleBatch.Builder batch = TupleBatch.newBuilder();
+		batch.addAllName(Arrays.asList(_schema.getFieldNames()));
+		batch.setRows(_rows);
+
+		for (int col = 0, columns = _schema.size(); col < columns; col++) {
+			ColumnType type = _schema.getType(col);
+			batch.addType(type.getCode());
+
+			switch (type) {
+				case LONG:
+					for (long v : _longs[col]) batch.addLongValue(v);
+					break;
+
+				case DOUBLE:
+					for (double v : _doubles[col]) batch.addDoubleValue(v);
+					break;
+
+				case STRING:
+					for (int v : _codes[col]) batch.addStringCode(v);
+					break;
+			}
+		}
+
+		batch.addAllDictionary(Arrays.asList(_dictionary));
+
+		return batch.build();
+	}
+
+	/**
+	 * Returns the tuples in the format used by {@link SimpleTuple} (see {@link #getMeta()} for the meta data)
+	 *
+	 * @return The tuples
+	 */
+	public StringsArray toStringsArray() {
+		StringsArray.Builder tuples = StringsArray.newBuilder();
+		for (int row = 0; row < _rows; row++)
+			tuples.addValue(getTuple(row));
+
+		return tuples.build();
+	}
+
+	public Strings getTuple(int row) {
+		Strings.Builder tuple = Strings.newBuilder();
+		for (int col = 0, columns = _schema.size(); col < columns; col++)
+			tuple.addValue(getString(col, row));
+
+		return tuple.build();
+	}
+
+	public Strings getMeta() {
+		return _schema.convert();
+	}
+
+	/**
+	 * Returns this batch in the same representation as the tuples it is meant to replace
+	 *
+	 * @param like The original input (TupleBatch, StringsArray or Strings)
+	 * @return The TupleBatch, StringsArray or Strings (the first tuple, or an empty Strings if there are no rows)
+	 */
+	public Object convertLike(Object like) {
+		if (like instanceof TupleBatch)
+			return convert();
+
+		if (like instanceof Strings)
+			return (_rows > 0) ? getTuple(0) : Strings.newBuilder().build();
+
+		return toStringsArray();
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private void checkType(int col, ColumnType type) {
+		if (_schema.getType(col) != type)
+			throw new IllegalStateException(String.format("Column '%s' is of type %s, not %s",
+					_schema.getFieldNameForIndex(col), _schema.getType(col), type));
+	}
+
+	private static void checkLength(String field, int actual, int required) {
+		if (actual < required)
+			throw new IllegalArgumentException(String.format(
+					"Malformed tuple batch: '%s' has %d values, at least %d expected", field, actual, required));
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Builds a batch one row at a time: set the values of the row, then call {@link #addRow()}.
+	 * Values not set for a row are 0, 0.0 and the empty string.
+	 */
+	public static class Builder {
+		private final TupleSchema _schema;
+		private final long[][] _longs;
+		private final double[][] _doubles;
+		private final int[][] _codes;
+		private final Map<String,Integer> _dictionaryMap = new HashMap<String,Integer>();
+		private final List<String> _dictionary = new ArrayList<String>();
+		private int _capacity;
+		private int _rows = 0;
+
+		public Builder(TupleSchema schema) {
+			this(schema, 16);
+		}
+
+		public Builder(TupleSchema schema, int expectedRows) {
+			int columns = schema.size();
+
+			_schema = schema;
+			_capacity = Math.max(expectedRows, 1);
+			_longs = new long[columns][];
+			_doubles = new double[columns][];
+			_codes = new int[columns][];
+
+			for (int col = 0; col < columns; col++)
+				switch (schema.getType(col)) {
+					case LONG:   _longs[col] = new long[_capacity]; break;
+					case DOUBLE: _doubles[col] = new double[_capacity]; break;
+					case STRING:
+						_codes[col] = new int[_capacity];
+						Arrays.fill(_codes[col], -1);
+						break;
+				}
+		}
+
+		public Builder setLong(int col, long value) {
+			switch (_schema.getType(col)) {
+				case LONG:   _longs[col][_rows] = value; break;
+				case DOUBLE: _doubles[col][_rows] = value; break;
+				default:     _codes[col][_rows] = intern(Long.toString(value)); break;
+			}
+
+			return this;
+		}
+
+		public Builder setDouble(int col, double value) {
+			switch (_schema.getType(col)) {
+				case LONG:   _longs[col][_rows] = (long) value; break;
+				case DOUBLE: _doubles[col][_rows] = value; break;
+				default:     _codes[col][_rows] = intern(Double.toString(value)); break;
+			}
+
+			return this;
+		}
+
+		/**
+		 * Sets a value from its text, parsing it if the column is numeric
+		 *
+		 * @param col The column index
+		 * @param value The value
+		 * @return This builder
+		 * @throws NumberFormatException Thrown if the value cannot be parsed
+		 */
+		public Builder setValue(int col, String value) {
+			switch (_schema.getType(col)) {
+				case LONG:   _longs[col][_rows] = Long.parseLong(value); break;
+				case DOUBLE: _doubles[col][_rows] = Double.parseDouble(value); break;
+				default:     _codes[col][_rows] = intern(value); break;
+			}
+
+			return this;
+		}
+
+		/**
+		 * Copies a value from another batch, without going through its text when the column types match
+		 *
+		 * @param col The column index in this builder
+		 * @param tuples The source batch
+		 * @param srcCol The column index in the source batch
+		 * @param row The row in the source batch
+		 * @return This builder
+		 */
+		public Builder copyValue(int col, ColumnarTuples tuples, int srcCol, int row) {
+			switch (tuples.getType(srcCol)) {
+				case LONG:   return setLong(col, tuples._longs[srcCol][row]);
+				case DOUBLE: return setDouble(col, tuples._doubles[srcCol][row]);
+				default:     return setValue(col, tuples.getString(srcCol, row));
+			}
+		}
+
+		/**
+		 * Completes the current row
+		 *
+		 * @return This builder
+		 */
+		public Builder addRow() {
+			for (int col = 0, columns = _schema.size(); col < columns; col++)
+				if (_codes[col] != null && _codes[col][_rows] == -1)
+					_codes[col][_rows] = intern("");
+
+			if (++_rows == _capacity)
+				grow();
+
+			return this;
+		}
+
+		public int getRowCount() {
+			return _rows;
+		}
+
+		public ColumnarTuples build() {
+			int columns = _schema.size();
+			long[][] longs = new long[columns][];
+			double[][] doubles = new double[columns][];
+			int[][] codes = new int[columns][];
+
+			for (int col = 0; col < columns; col++) {
+				if (_longs[col] != null) longs[col] = Arrays.copyOf(_longs[col], _rows);
+				if (_doubles[col] != null) doubles[col] = Arrays.copyOf(_doubles[col], _rows);
+				if (_codes[col] != null) codes[col] = Arrays.copyOf(_codes[col], _rows);
+			}
+
+			return new ColumnarTuples(_schema, _rows, longs, doubles, codes,
+					_dictionary.toArray(new String[_dictionary.size()]));
+		}
+
+		private int intern(String value) {
+			Integer code = _dictionaryMap.get(value);
+			if (code == null) {
+				code = _dictionary.size();
+				_dictionary.add(value);
+				_dictionaryMap.put(value, code);
+			}
+
+			return code;
+		}
+
+		private void grow() {
+			_capacity *= 2;
+
+			for (int col = 0, columns = _schema.size(); col < columns; col++) {
+				if (_longs[col] != null) _longs[col] = Arrays.copyOf(_longs[col], _capacity);
+				if (_doubles[col] != null) _doubles[col] = Arrays.copyOf(_doubles[col], _capacity);
+				if (_codes[col] != null) {
+					_codes[col] = Arrays.copyOf(_codes[col], _capacity);
+					Arrays.fill(_codes[col], _rows, _capacity, -1);
+				}
+			}
+		}
+	}
+}
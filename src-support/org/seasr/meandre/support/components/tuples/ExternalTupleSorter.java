@@ -0,0 +1,301 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+
+/**
+ * Sorts tuples that may not fit in memory. Tuples are buffered until the buffer holds
+ * the maximum number of tuples allowed in memory; the buffer is then sorted and written to
+ * a temporary file as a sorted run. The runs are k-way merged when the sorted tuples are read.
+ *
+ * In top-K mode only the K first tuples of the order are kept, in a bounded heap, and nothing is spilled.
+ */
+
+public class ExternalTupleSorter {
+
+	/**
+	 * Receives the sorted tuples
+	 */
+	public interface Output {
+		void write(Strings tuple) throws Exception;
+	}
+
+	private final TupleSortOrder _order;
+	private final int _maxInMemory;
+	private final int _topK;
+	private final File _spillDir;
+
+	private final List<TupleSortOrder.Entry> _buffer = new ArrayList<TupleSortOrder.Entry>();
+	private final PriorityQueue<TupleSortOrder.Entry> _top;
+	private final List<File> _runs = new ArrayList<File>();
+	private long _count = 0;
+
+	/**
+	 * @param order The sort order
+	 * @param maxInMemory The maximum number of tuples to hold in memory before spilling a sorted run (-1 for no limit)
+	 * @param topK The number of tuples to keep (-1 to keep all)
+	 * @param spillDir The directory for the run files (null for the default temporary directory)
+	 */
+	public ExternalTupleSorter(TupleSortOrder order, int maxInMemory, int topK, File spillDir) {
+		_order = order;
+		_maxInMemory = maxInMemory;
+		_topK = topK;
+		_spillDir = spillDir;
+
+		// the root of the heap is the last of the K tuples kept so far
+		_top = (topK > 0) ?
+				new PriorityQueue<TupleSortOrder.Entry>(Math.min(topK, 1024) + 1, Collections.reverseOrder(order)) : null;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	public void add(Strings tuple) throws IOException {
+		TupleSortOrder.Entry entry = _order.newEntry(tuple, _count++);
+
+		if (_top != null) {
+			if (_top.size() < _topK)
+				_top.add(entry);
+			else
+				if (_order.compare(entry, _top.peek()) < 0) {
+					_top.poll();
+					_top.add(entry);
+				}
+
+			return;
+		}
+
+		_buffer.add(entry);
+		if (_maxInMemory > 0 && _buffer.size() >= _maxInMemory)
+			spill();
+	}
+
+	/**
+	 * @return The number of tuples added
+	 */
+	public long getCount() {
+		return _count;
+	}
+
+	/**
+	 * @return The number of sorted runs written to disk
+	 */
+	public int getRunCount() {
+		return _runs.size();
+	}
+
+	/**
+	 * Writes all the tuples, in order. The sorter is empty afterwards.
+	 *
+	 * @param output Receives the sorted tuples
+	 * @throws Exception Thrown if the runs cannot be read, or by the output
+	 */
+	public void sort(Output output) throws Exception {
+		try {
+			if (_top != null) {
+				List<TupleSortOrder.Entry> top = new ArrayList<TupleSortOrder.Entry>(_top);
+				Collections.sort(top, _order);
+				for (TupleSortOrder.Entry entry : top)
+					output.write(entry.tuple);
+
+				return;
+			}
+
+			Collections.sort(_buffer, _order);
+
+			if (_runs.isEmpty()) {
+				for (TupleSortOrder.Entry entry : _buffer)
+					output.write(entry.tuple);
+
+				return;
+			}
+
+			merge(output);
+		}
+		finally {
+			dispose();
+		}
+	}
+
+	/**
+	 * Drops the buffered tuples and deletes the run files
+	 */
+	public void dispose() {
+		_buffer.clear();
+		if (_top != null) _top.clear();
+
+		for (File run : _runs)
+			run.delete();
+		_runs.clear();
+
+		_count = 0;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private void spill() throws IOException {
+		Collections.sort(_buffer, _order);
+
+		File file = File.createTempFile("sort_", ".run", _spillDir);
+		_runs.add(file);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(_buffer.size());
+			for (TupleSortOrder.Entry entry : _buffer) {
+				out.writeLong(entry.sequence);
+				entry.tuple.writeDelimitedTo(out);
+			}
+		}
+		finally {
+			out.close();
+		}
+
+		_buffer.clear();
+	}
+
+	private void merge(Output output) throws Exception {
+		PriorityQueue<Run> heads = new PriorityQueue<Run>(_runs.size() + 1);
+		List<Run> runs = new ArrayList<Run>(_runs.size() + 1);
+
+		try {
+			for (File file : _runs)
+				runs.add(new FileRun(file));
+			runs.add(new BufferRun(_buffer));
+
+			for (Run run : runs)
+				if (run.advance())
+					heads.add(run);
+
+			while (!heads.isEmpty()) {
+				Run run = heads.poll();
+				output.write(run.current.tuple);
+
+				if (run.advance())
+					heads.add(run);
+			}
+		}
+		finally {
+			for (Run run : runs)
+				run.close();
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private abstract class Run implements Comparable<Run> {
+		TupleSortOrder.Entry current;
+
+		/**
+		 * Moves to the next tuple of the run
+		 *
+		 * @return False if the run is exhausted
+		 */
+		abstract boolean advance() throws IOException;
+
+		void close() throws IOException {
+		}
+
+		public int compareTo(Run other) {
+			return _order.compare(current, other.current);
+		}
+	}
+
+	private class BufferRun extends Run {
+		private final List<TupleSortOrder.Entry> _entries;
+		private int _next = 0;
+
+		BufferRun(List<TupleSortOrder.Entry> entries) {
+			_entries = entries;
+		}
+
+		@Override
+		boolean advance() {
+			current = (_next < _entries.size()) ? _entries.get(_next++) : null;
+			return current != null;
+		}
+	}
+
+	private class FileRun extends Run {
+		private final DataInputStream _in;
+		private int _remaining;
+
+		FileRun(File file) throws IOException {
+			_in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			_remaining = _in.readInt();
+		}
+
+		@Override
+		boolean advance() throws IOException {
+			if (_remaining == 0) {
+				current = null;
+				return false;
+			}
+
+			_remaining--;
+			long sequence = _in.readLong();
+			current = _order.newEntry(Strings.parseDelimitedFrom(_in), sequence);
+
+			return true;
+		}
+
+		@Override
+		void close() throws IOException {
+			_in.close();
+		}
+	}
+}
@@ -0,0 +1,345 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Counts the occurrences of composite keys made of a fixed number of long components
+ * (dictionary codes, LONG values or DOUBLE bits of the grouped fields).
+ *
+ * The keys are stored back to back in a single long[] and looked up through an open addressing
+ * table with linear probing, so counting a row does not allocate anything.
+ */
+
+public class GroupCounter {
+	private static final int MIN_CAPACITY = 16;
+
+	private final int _width;
+	private long[] _keys;
+	private long[] _counts;
+	private int[] _hashes;
+	private int[] _table;
+	private int _size;
+
+	/**
+	 * @param width The number of components of each key
+	 */
+	public GroupCounter(int width) {
+		this(width, MIN_CAPACITY);
+	}
+
+	/**
+	 * @param width The number of components of each key
+	 * @param expectedKeys The number of distinct keys expected
+	 */
+	public GroupCounter(int width, int expectedKeys) {
+		if (width < 1)
+			throw new IllegalArgumentException("The key width must be positive");
+
+		_width = width;
+		int capacity = Math.max(MIN_CAPACITY, expectedKeys);
+		_keys = new long[capacity * width];
+		_counts = new long[capacity];
+		_hashes = new int[capacity];
+		_table = new int[tableSizeFor(capacity)];
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Computes the hash of a composite key
+	 *
+	 * @param key The array holding the key
+	 * @param offset The position of the first component of the key
+	 * @param width The number of components
+	 * @return The hash
+	 */
+	public static int hash(long[] key, int offset, int width) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (int i = offset, iMax = offset + width; i < iMax; i++) {
+			h ^= key[i];
+			h *= 0xC2B2AE3D27D4EB4FL;
+			h ^= h >>> 29;
+		}
+		h ^= h >>> 32;
+
+		return (int) h;
+	}
+
+	public int getWidth() {
+		return _width;
+	}
+
+	/**
+	 * @return The number of distinct keys
+	 */
+	public int size() {
+		return _size;
+	}
+
+	/**
+	 * Adds to the count of a key
+	 *
+	 * @param key The key components (only the first 'width' entries are used)
+	 * @param count The amount to add
+	 * @return The entry index of the key
+	 */
+	public int add(long[] key, long count) {
+		return add(key, 0, hash(key, 0, _width), count);
+	}
+
+	/**
+	 * Adds to the count of a key whose hash was already computed with {@link #hash(long[], int, int)}
+	 *
+	 * @param key The array holding the key
+	 * @param offset The position of the first component of the key
+	 * @param hash The hash of the key
+	 * @param count The amount to add
+	 * @return The entry index of the key; new keys get the next index, starting at 0
+	 */
+	public int add(long[] key, int offset, int hash, long count) {
+		int mask = _table.length - 1;
+		int slot = hash & mask;
+
+		for (int entry; (entry = _table[slot]) != 0; slot = (slot + 1) & mask) {
+			entry--;
+			if (_hashes[entry] == hash && keyEquals(entry, key, offset)) {
+				_counts[entry] += count;
+				return entry;
+			}
+		}
+
+		if (_size == _counts.length)
+			grow();
+
+		System.arraycopy(key, offset, _keys, _size * _width, _width);
+		_counts[_size] = count;
+		_hashes[_size] = hash;
+		_size++;
+
+		if (_size * 2 > _table.length)
+			rehash(_table.length * 2);
+		else
+			_table[slot] = _size;
+
+		return _size - 1;
+	}
+
+	/**
+	 * Adds all the counts of another counter to this one
+	 *
+	 * @param other The counter
+	 */
+	public void addAll(GroupCounter other) {
+		if (other._width != _width)
+			throw new IllegalArgumentException("Key width mismatch");
+
+		for (int entry = 0; entry < other._size; entry++)
+			add(other._keys, entry * _width, other._hashes[entry], other._counts[entry]);
+	}
+
+	public long getCount(int entry) {
+		return _counts[entry];
+	}
+
+	public long getKey(int entry, int component) {
+		return _keys[entry * _width + component];
+	}
+
+	public int getHash(int entry) {
+		return _hashes[entry];
+	}
+
+	/**
+	 * Copies the components of a key
+	 *
+	 * @param entry The entry index
+	 * @param dest The destination array
+	 * @param offset The position in 'dest' of the first component
+	 */
+	public void getKey(int entry, long[] dest, int offset) {
+		System.arraycopy(_keys, entry * _width, dest, offset, _width);
+	}
+
+	public void clear() {
+		Arrays.fill(_table, 0);
+		_size = 0;
+	}
+
+	/**
+	 * Selects the entries with the highest counts, using a bounded heap rather than sorting all the entries
+	 *
+	 * @param n The maximum number of entries to select (use a negative value to select all)
+	 * @param minCount Entries with a count lower than this are ignored
+	 * @return The entry indices, ordered by descending count
+	 */
+	public int[] topEntries(int n, long minCount) {
+		if (n < 0 || n > _size)
+			n = _size;
+
+		// min-heap on count: the root is the weakest entry selected so far
+		int[] heap = new int[n];
+		int heapSize = 0;
+
+		for (int entry = 0; entry < _size && n > 0; entry++) {
+			long count = _counts[entry];
+			if (count < minCount)
+				continue;
+
+			if (heapSize < n) {
+				heap[heapSize] = entry;
+				siftUp(heap, heapSize++);
+			}
+			else
+
+			if (count > _counts[heap[0]]) {
+				heap[0] = entry;
+				siftDown(heap, 0, heapSize);
+			}
+		}
+
+		// heap sort in place, which leaves the entries in descending count order
+		for (int last = heapSize - 1; last > 0; last--) {
+			int tmp = heap[0]; heap[0] = heap[last]; heap[last] = tmp;
+			siftDown(heap, 0, last);
+		}
+
+		return heapSize == heap.length ? heap : Arrays.copyOf(heap, heapSize);
+	}
+
+	/**
+	 * Writes the keys and counts of this counter
+	 *
+	 * @param out The stream
+	 * @throws IOException
+	 */
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(_size);
+		for (int entry = 0; entry < _size; entry++) {
+			for (int i = entry * _width, iMax = i + _width; i < iMax; i++)
+				out.writeLong(_keys[i]);
+			out.writeLong(_counts[entry]);
+		}
+	}
+
+	/**
+	 * Adds the keys and counts written by {@link #writeTo(DataOutputStream)}
+	 *
+	 * @param in The stream
+	 * @throws IOException
+	 */
+	public void addFrom(DataInputStream in) throws IOException {
+		long[] key = new long[_width];
+		for (int entries = in.readInt(); entries > 0; entries--) {
+			for (int i = 0; i < _width; i++)
+				key[i] = in.readLong();
+			add(key, in.readLong());
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private boolean keyEquals(int entry, long[] key, int offset) {
+		for (int i = entry * _width, j = offset, iMax = i + _width; i < iMax; i++, j++)
+			if (_keys[i] != key[j])
+				return false;
+
+		return true;
+	}
+
+	private void grow() {
+		int capacity = _counts.length * 2;
+		_keys = Arrays.copyOf(_keys, capacity * _width);
+		_counts = Arrays.copyOf(_counts, capacity);
+		_hashes = Arrays.copyOf(_hashes, capacity);
+	}
+
+	private void rehash(int tableSize) {
+		_table = new int[tableSize];
+		int mask = tableSize - 1;
+
+		for (int entry = 0; entry < _size; entry++) {
+			int slot = _hashes[entry] & mask;
+			while (_table[slot] != 0)
+				slot = (slot + 1) & mask;
+			_table[slot] = entry + 1;
+		}
+	}
+
+	private void siftUp(int[] heap, int pos) {
+		int entry = heap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (_counts[heap[parent]] <= _counts[entry])
+				break;
+			heap[pos] = heap[parent];
+			pos = parent;
+		}
+		heap[pos] = entry;
+	}
+
+	private void siftDown(int[] heap, int pos, int size) {
+		int entry = heap[pos];
+		for (int child; (child = 2 * pos + 1) < size; pos = child) {
+			if (child + 1 < size && _counts[heap[child + 1]] < _counts[heap[child]])
+				child++;
+			if (_counts[entry] <= _counts[heap[child]])
+				break;
+			heap[pos] = heap[child];
+		}
+		heap[pos] = entry;
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int size = MIN_CAPACITY;
+		while (size < capacity * 2)
+			size <<= 1;
+
+		return size;
+	}
+}
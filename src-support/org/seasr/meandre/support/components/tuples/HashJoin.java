@@ -0,0 +1,321 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+
+/**
+ * Joins two sets of tuples on equal values of one or more fields.
+ *
+ * The hash table is built over the smaller side and the larger side is streamed through it.
+ * If the smaller side has more tuples than the build limit, both sides are first split by key hash
+ * into partitions written to temporary files (grace hash join), and each pair of partitions is then
+ * joined on its own, so that only one partition's hash table is in memory at a time.
+ *
+ * The output follows the order of the larger side; with partitioning, it follows the partition order.
+ */
+
+public class HashJoin {
+
+	public enum Type {
+		/** Pairs of matching left and right tuples */
+		INNER,
+		/** Like INNER, plus every left tuple without a match (paired with null) */
+		LEFT,
+		/** Every left tuple that has at least one match, once (paired with null) */
+		SEMI
+	}
+
+	/**
+	 * Receives the joined tuples
+	 */
+	public interface Output {
+		/**
+		 * @param left The left tuple
+		 * @param right The matching right tuple, or null for an unmatched LEFT tuple and for SEMI joins
+		 * @throws Exception
+		 */
+		void write(Strings left, Strings right) throws Exception;
+	}
+
+	private static final int SPILL_PARTITIONS = 16;
+	private static final int MAX_SPILL_DEPTH = 3;
+
+	private final Type _type;
+	private final int[] _leftFields;
+	private final int[] _rightFields;
+	private final int _maxBuildRows;
+	private final File _spillDir;
+
+	/**
+	 * @param type The join type
+	 * @param leftFields The indices of the join fields in the left tuples
+	 * @param rightFields The indices of the corresponding join fields in the right tuples
+	 * @param maxBuildRows The maximum number of tuples to build a hash table over (-1 for no limit)
+	 * @param spillDir The directory for the partition files (null for the default temporary directory)
+	 */
+	public HashJoin(Type type, int[] leftFields, int[] rightFields, int maxBuildRows, File spillDir) {
+		if (leftFields.length != rightFields.length || leftFields.length == 0)
+			throw new IllegalArgumentException("The same (non-zero) number of left and right join fields is required");
+
+		_type = type;
+		_leftFields = leftFields;
+		_rightFields = rightFields;
+		_maxBuildRows = maxBuildRows;
+		_spillDir = spillDir;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Joins two sets of tuples
+	 *
+	 * @param left The left tuples
+	 * @param right The right tuples
+	 * @param output Receives the result
+	 * @throws Exception Thrown if the partition files cannot be written or read, or by the output
+	 */
+	public void join(List<Strings> left, List<Strings> right, Output output) throws Exception {
+		join(left, right, output, 0);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private void join(List<Strings> left, List<Strings> right, Output output, int depth) throws Exception {
+		boolean buildLeft = left.size() < right.size();
+		int buildRows = buildLeft ? left.size() : right.size();
+
+		if (_maxBuildRows > 0 && buildRows > _maxBuildRows && depth < MAX_SPILL_DEPTH)
+			graceJoin(left, right, output, depth);
+		else
+			if (buildLeft)
+				joinBuildLeft(left, right, output);
+			else
+				joinBuildRight(left, right, output);
+	}
+
+	private void joinBuildRight(List<Strings> left, List<Strings> right, Output output) throws Exception {
+		int[] next = new int[right.size()];
+		Map<RowKey, Integer> table = buildTable(right, _rightFields, next);
+		RowKey probe = new RowKey();
+
+		for (Strings l : left) {
+			Integer head = table.get(probe.set(l, _leftFields));
+
+			if (head == null) {
+				if (_type == Type.LEFT)
+					output.write(l, null);
+			}
+			else
+				if (_type == Type.SEMI)
+					output.write(l, null);
+				else
+					for (int r = head; r >= 0; r = next[r])
+						output.write(l, right.get(r));
+		}
+	}
+
+	private void joinBuildLeft(List<Strings> left, List<Strings> right, Output output) throws Exception {
+		int[] next = new int[left.size()];
+		Map<RowKey, Integer> table = buildTable(left, _leftFields, next);
+		RowKey probe = new RowKey();
+		BitSet matched = new BitSet(left.size());
+
+		for (Strings r : right) {
+			Integer head = table.get(probe.set(r, _rightFields));
+			if (head == null) continue;
+
+			for (int l = head; l >= 0; l = next[l]) {
+				if (_type != Type.SEMI)
+					output.write(left.get(l), r);
+				matched.set(l);
+			}
+		}
+
+		if (_type == Type.LEFT)
+			for (int l = matched.nextClearBit(0); l < left.size(); l = matched.nextClearBit(l + 1))
+				output.write(left.get(l), null);
+
+		if (_type == Type.SEMI)
+			for (int l = matched.nextSetBit(0); l >= 0; l = matched.nextSetBit(l + 1))
+				output.write(left.get(l), null);
+	}
+
+	/**
+	 * Indexes tuples by key; the tuples with the same key are chained through 'next', in order
+	 */
+	private static Map<RowKey, Integer> buildTable(List<Strings> tuples, int[] fields, int[] next) {
+		Map<RowKey, Integer> table = new HashMap<RowKey, Integer>(Math.max(16, tuples.size() * 4 / 3 + 1));
+
+		for (int i = tuples.size() - 1; i >= 0; i--) {
+			Integer head = table.put(new RowKey().set(tuples.get(i), fields), i);
+			next[i] = (head != null) ? head : -1;
+		}
+
+		return table;
+	}
+
+	private void graceJoin(List<Strings> left, List<Strings> right, Output output, int depth) throws Exception {
+		File[] leftFiles = new File[SPILL_PARTITIONS];
+		File[] rightFiles = new File[SPILL_PARTITIONS];
+
+		try {
+			partition(left, _leftFields, leftFiles, depth);
+			partition(right, _rightFields, rightFiles, depth);
+
+			for (int p = 0; p < SPILL_PARTITIONS; p++) {
+				List<Strings> leftPartition = read(leftFiles[p]);
+				leftFiles[p].delete();
+				List<Strings> rightPartition = read(rightFiles[p]);
+				rightFiles[p].delete();
+
+				join(leftPartition, rightPartition, output, depth + 1);
+			}
+		}
+		finally {
+			for (int p = 0; p < SPILL_PARTITIONS; p++) {
+				if (leftFiles[p] != null) leftFiles[p].delete();
+				if (rightFiles[p] != null) rightFiles[p].delete();
+			}
+		}
+	}
+
+	private void partition(List<Strings> tuples, int[] fields, File[] files, int depth) throws IOException {
+		OutputStream[] outs = new OutputStream[files.length];
+
+		try {
+			for (int p = 0; p < files.length; p++) {
+				files[p] = File.createTempFile("join_", ".part", _spillDir);
+				outs[p] = new BufferedOutputStream(new FileOutputStream(files[p]));
+			}
+
+			RowKey key = new RowKey();
+			for (Strings tuple : tuples) {
+				// each level of partitioning uses different hash bits, so that a partition that is
+				// still too large gets split further
+				long hash = HyperLogLog.mix(key.set(tuple, fields).hashCode() + depth * 0x9E3779B97F4A7C15L);
+				int p = (int) ((hash >>> 32) * files.length >>> 32);
+				tuple.writeDelimitedTo(outs[p]);
+			}
+		}
+		finally {
+			for (OutputStream out : outs)
+				if (out != null) out.close();
+		}
+	}
+
+	private static List<Strings> read(File file) throws IOException {
+		List<Strings> tuples = new ArrayList<Strings>();
+
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			// parseDelimitedFrom() fails rather than returning null at the end of the stream in this protobuf version
+			for (in.mark(1); in.read() != -1; in.mark(1)) {
+				in.reset();
+				tuples.add(Strings.parseDelimitedFrom(in));
+			}
+		}
+		finally {
+			in.close();
+		}
+
+		return tuples;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * The join key of a tuple, compared in place (the values are not copied)
+	 */
+	private static final class RowKey {
+		private Strings _tuple;
+		private int[] _fields;
+		private int _hash;
+
+		RowKey set(Strings tuple, int[] fields) {
+			_tuple = tuple;
+			_fields = fields;
+
+			int hash = 1;
+			for (int field : fields)
+				hash = 31 * hash + tuple.getValue(field).hashCode();
+			_hash = hash;
+
+			return this;
+		}
+
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RowKey)) return false;
+
+			RowKey other = (RowKey) obj;
+			if (other._hash != _hash) return false;
+
+			for (int i = 0; i < _fields.length; i++)
+				if (!_tuple.getValue(_fields[i]).equals(other._tuple.getValue(other._fields[i])))
+					return false;
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+/**
+ * HyperLogLog estimator of the number of distinct values of a field.
+ * Memory use is fixed at 2^precision bytes; the standard error is about 1.04 / sqrt(2^precision).
+ */
+
+public class HyperLogLog {
+	public static final int DEFAULT_PRECISION = 10;
+
+	private final int _precision;
+	private final byte[] _registers;
+
+	public HyperLogLog() {
+		this(DEFAULT_PRECISION);
+	}
+
+	/**
+	 * @param precision The number of hash bits used to pick a register (4 to 16)
+	 */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 16)
+			throw new IllegalArgumentException("The precision must be between 4 and 16");
+
+		_precision = precision;
+		_registers = new byte[1 << precision];
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Computes a 64 bit hash of a value (String.hashCode() has too few bits for large cardinalities)
+	 *
+	 * @param value The value
+	 * @return The hash
+	 */
+	public static long hash(CharSequence value) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0, iMax = value.length(); i < iMax; i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001B3L;
+		}
+
+		return mix(h);
+	}
+
+	/**
+	 * Spreads the bits of a value over the whole 64 bits, so that it can be used as a hash
+	 *
+	 * @param h The value
+	 * @return The hash
+	 */
+	public static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+
+		return h;
+	}
+
+	public int getPrecision() {
+		return _precision;
+	}
+
+	/**
+	 * Adds a value to the estimator
+	 *
+	 * @param hash The 64 bit hash of the value
+	 */
+	public void add(long hash) {
+		int register = (int) (hash >>> (64 - _precision));
+		// the marker bit bounds the rank when the remaining bits are all 0
+		long rest = (hash << _precision) | (1L << (_precision - 1));
+		byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+
+		if (rank > _registers[register])
+			_registers[register] = rank;
+	}
+
+	/**
+	 * Adds the values seen by another estimator of the same precision
+	 *
+	 * @param other The estimator
+	 */
+	public void addAll(HyperLogLog other) {
+		if (other._precision != _precision)
+			throw new IllegalArgumentException("Precision mismatch");
+
+		for (int i = 0; i < _registers.length; i++)
+			if (other._registers[i] > _registers[i])
+				_registers[i] = other._registers[i];
+	}
+
+	/**
+	 * @return The estimated number of distinct values
+	 */
+	public long cardinality() {
+		int m = _registers.length;
+		double sum = 0;
+		int zeros = 0;
+
+		for (byte rank : _registers) {
+			sum += 1.0 / (1L << rank);
+			if (rank == 0) zeros++;
+		}
+
+		double alpha;
+		switch (m) {
+			case 16: alpha = 0.673; break;
+			case 32: alpha = 0.697; break;
+			case 64: alpha = 0.709; break;
+			default: alpha = 0.7213 / (1 + 1.079 / m); break;
+		}
+
+		double estimate = alpha * m * m / sum;
+
+		// small range correction (linear counting)
+		if (estimate <= 2.5 * m && zeros > 0)
+			estimate = m * Math.log((double) m / zeros);
+
+		return Math.round(estimate);
+	}
+}
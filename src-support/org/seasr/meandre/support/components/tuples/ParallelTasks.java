@@ -0,0 +1,102 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the independent pieces of work of a tuple operator (chunks of rows, hash partitions)
+ * on an executor and collects their results in order.
+ */
+
+public final class ParallelTasks {
+
+	private ParallelTasks() {
+	}
+
+	/**
+	 * Runs the tasks and waits for all of them to complete
+	 *
+	 * @param executor The executor, or null to run the tasks on the calling thread
+	 * @param tasks The tasks
+	 * @return The results, in the order of the tasks
+	 * @throws Exception The exception thrown by the first failed task; the remaining tasks are cancelled
+	 */
+	public static <T> List<T> runAll(ExecutorService executor, List<? extends Callable<T>> tasks) throws Exception {
+		List<T> results = new ArrayList<T>(tasks.size());
+
+		if (executor == null || tasks.size() == 1) {
+			for (Callable<T> task : tasks)
+				results.add(task.call());
+
+			return results;
+		}
+
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		for (Callable<T> task : tasks)
+			futures.add(executor.submit(task));
+
+		try {
+			for (Future<T> future : futures)
+				results.add(future.get());
+		}
+		catch (ExecutionException e) {
+			for (Future<T> future : futures)
+				future.cancel(true);
+
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception) cause;
+			else
+				throw e;
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,192 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link GroupCounter} split into hash partitions. Partials built by different threads over
+ * different rows can then be merged one partition at a time, each partition by a different thread,
+ * since a key always lands in the same partition.
+ *
+ * When a memory cap is set, a partition that grows past its share of the cap is written to a
+ * temporary file and cleared; {@link #takePartition(int)} reads the spilled counts back.
+ * The cap only bounds the counting: taking a partition holds all of its keys in memory.
+ */
+
+public class PartitionedGroupCounter {
+	private final int _width;
+	private final GroupCounter[] _partitions;
+	private final List<List<File>> _spills;
+	private final int _maxKeysPerPartition;
+	private final File _spillDir;
+
+	/**
+	 * @param width The number of components of each key
+	 * @param partitions The number of partitions
+	 */
+	public PartitionedGroupCounter(int width, int partitions) {
+		this(width, partitions, -1, null);
+	}
+
+	/**
+	 * @param width The number of components of each key
+	 * @param partitions The number of partitions
+	 * @param maxKeysInMemory The number of distinct keys kept in memory before spilling to disk (-1 for no limit)
+	 * @param spillDir The directory for the spill files (null for the default temporary directory)
+	 */
+	public PartitionedGroupCounter(int width, int partitions, int maxKeysInMemory, File spillDir) {
+		_width = width;
+		_partitions = new GroupCounter[partitions];
+		_spills = new ArrayList<List<File>>(partitions);
+		for (int i = 0; i < partitions; i++) {
+			_partitions[i] = new GroupCounter(width);
+			_spills.add(new ArrayList<File>());
+		}
+
+		_maxKeysPerPartition = maxKeysInMemory > 0 ? Math.max(1, maxKeysInMemory / partitions) : -1;
+		_spillDir = spillDir;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the partition of a key
+	 *
+	 * @param hash The key hash, as computed by {@link GroupCounter#hash(long[], int, int)}
+	 * @param partitions The number of partitions
+	 * @return The partition index
+	 */
+	public static int partitionFor(int hash, int partitions) {
+		// the high bits pick the partition, the low bits pick the slot inside the partition table
+		return (int) (((hash >>> 16) * (long) partitions) >>> 16);
+	}
+
+	public int getPartitionCount() {
+		return _partitions.length;
+	}
+
+	/**
+	 * Adds one occurrence of a key
+	 *
+	 * @param key The key components
+	 * @throws IOException Thrown if a partition could not be spilled to disk
+	 */
+	public void add(long[] key) throws IOException {
+		int hash = GroupCounter.hash(key, 0, _width);
+		int p = partitionFor(hash, _partitions.length);
+
+		GroupCounter partition = _partitions[p];
+		partition.add(key, 0, hash, 1);
+
+		if (_maxKeysPerPartition > 0 && partition.size() >= _maxKeysPerPartition)
+			spill(p);
+	}
+
+	/**
+	 * Returns the in-memory part of a partition, merged with everything spilled for it so far.
+	 * The partition is emptied and its spill files are deleted. The result is not bounded by
+	 * the memory cap; use more partitions to make each of them smaller.
+	 *
+	 * @param p The partition index
+	 * @return The counts
+	 * @throws IOException Thrown if the spill files could not be read
+	 */
+	public GroupCounter takePartition(int p) throws IOException {
+		GroupCounter partition = _partitions[p];
+		_partitions[p] = new GroupCounter(_width);
+
+		List<File> spills = _spills.get(p);
+		for (File file : spills) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				partition.addFrom(in);
+			}
+			finally {
+				in.close();
+			}
+			file.delete();
+		}
+		spills.clear();
+
+		return partition;
+	}
+
+	/**
+	 * Deletes any remaining spill files
+	 */
+	public void dispose() {
+		for (List<File> spills : _spills) {
+			for (File file : spills)
+				file.delete();
+			spills.clear();
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private void spill(int p) throws IOException {
+		File file = File.createTempFile("groupcount_", ".spill", _spillDir);
+		_spills.get(p).add(file);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			_partitions[p].writeTo(out);
+		}
+		finally {
+			out.close();
+		}
+
+		_partitions[p].clear();
+	}
+}
@@ -0,0 +1,167 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approximate quantiles of a stream of values, in bounded memory.
+ *
+ * Values go into a buffer of capacity k; when a buffer fills up it is sorted and every other
+ * value is promoted to the buffer of the next level, where each value stands for twice as many
+ * original values. The rank error is O(log(n/k) / k), and memory use is O(k log(n/k)).
+ */
+
+public class QuantileSketch {
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final int _capacity;
+	private final List<double[]> _levels = new ArrayList<double[]>();
+	private int[] _sizes = new int[0];
+	private boolean _offset = false;
+	private long _count = 0;
+	private double _min = Double.NaN;
+	private double _max = Double.NaN;
+
+	public QuantileSketch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity The number of values kept per level (rounded up to an even number)
+	 */
+	public QuantileSketch(int capacity) {
+		if (capacity < 2)
+			throw new IllegalArgumentException("The capacity must be at least 2");
+
+		_capacity = capacity + (capacity & 1);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	public void add(double value) {
+		if (_count++ == 0)
+			_min = _max = value;
+		else {
+			if (value < _min) _min = value;
+			if (value > _max) _max = value;
+		}
+
+		append(0, value);
+	}
+
+	/**
+	 * @return The number of values added
+	 */
+	public long getCount() {
+		return _count;
+	}
+
+	/**
+	 * Returns an approximation of the value at a given rank
+	 *
+	 * @param q The rank, between 0 and 1 (0.5 is the median)
+	 * @return The value, or NaN if no values were added
+	 */
+	public double getQuantile(double q) {
+		if (_count == 0)
+			return Double.NaN;
+
+		if (q <= 0) return _min;
+		if (q >= 1) return _max;
+
+		// merge the sorted levels, where a value of level i stands for 2^i values
+		int levels = _sizes.length;
+		double[][] sorted = new double[levels][];
+		for (int level = 0; level < levels; level++) {
+			sorted[level] = Arrays.copyOf(_levels.get(level), _sizes[level]);
+			Arrays.sort(sorted[level]);
+		}
+
+		int[] pos = new int[levels];
+		long target = (long) Math.ceil(q * _count);
+		long rank = 0;
+
+		while (true) {
+			int next = -1;
+			for (int level = 0; level < levels; level++)
+				if (pos[level] < sorted[level].length &&
+						(next == -1 || sorted[level][pos[level]] < sorted[next][pos[next]]))
+					next = level;
+
+			if (next == -1)
+				return _max;
+
+			rank += 1L << next;
+			if (rank >= target)
+				return sorted[next][pos[next]];
+
+			pos[next]++;
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private void append(int level, double value) {
+		if (level == _levels.size()) {
+			_levels.add(new double[_capacity]);
+			_sizes = Arrays.copyOf(_sizes, level + 1);
+		}
+
+		double[] buffer = _levels.get(level);
+		buffer[_sizes[level]++] = value;
+
+		if (_sizes[level] == _capacity) {
+			Arrays.sort(buffer);
+			_sizes[level] = 0;
+
+			// alternate which half survives, so that the error does not accumulate in one direction
+			_offset = !_offset;
+			for (int i = _offset ? 1 : 0; i < _capacity; i += 2)
+				append(level + 1, buffer[i]);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Uniform reservoir sampling (Li's algorithm L): every item has the same probability of being in the sample.
+ * Rather than drawing a random number per item, the sampler computes how many items to skip before the next
+ * replacement, so the cost per item past the first k is a counter increment.
+ */
+
+public class ReservoirSampler<T> implements Sampler<T> {
+	private final int _size;
+	private final Random _random;
+	private final List<T> _reservoir;
+	private long _count = 0;
+	private long _next;
+	private double _w;
+
+	/**
+	 * @param size The sample size
+	 * @param random The source of randomness
+	 */
+	public ReservoirSampler(int size, Random random) {
+		if (size < 1)
+			throw new IllegalArgumentException("The sample size must be positive");
+
+		_size = size;
+		_random = random;
+		_reservoir = new ArrayList<T>(Math.min(size, 1024));
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	public void add(T item) {
+		long position = _count++;
+
+		if (position < _size) {
+			_reservoir.add(item);
+			if (position == _size - 1) {
+				_w = Math.exp(Math.log(nextDouble()) / _size);
+				_next = position + skip() + 1;
+			}
+			return;
+		}
+
+		if (position == _next) {
+			_reservoir.set(_random.nextInt(_size), item);
+			_w *= Math.exp(Math.log(nextDouble()) / _size);
+			_next = position + skip() + 1;
+		}
+	}
+
+	public void add(T item, double weight) {
+		add(item);
+	}
+
+	public long getCount() {
+		return _count;
+	}
+
+	public List<T> getSample() {
+		return new ArrayList<T>(_reservoir);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private long skip() {
+		double skip = Math.floor(Math.log(nextDouble()) / Math.log(1 - _w));
+		return (skip < Long.MAX_VALUE / 2) ? (long) skip : Long.MAX_VALUE / 2;
+	}
+
+	/**
+	 * @return A random number in (0, 1)
+	 */
+	private double nextDouble() {
+		double d;
+		do {
+			d = _random.nextDouble();
+		} while (d == 0);
+
+		return d;
+	}
+}
@@ -51,7 +51,9 @@ package org.seasr.meandre.support.components.tuples;
 
 
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
@@ -59,9 +61,16 @@ import org.seasr.datatypes.core.BasicDataTypesTools;
 
 public class SimpleTuplePeer
 {
+	/** The extended peers cache is cleared when it grows past this size (fields that vary with the data) */
+	private static final int MAX_EXTENDED_PEERS = 64;
+
 	String[] fieldNames;
 	Map<String,Integer> fieldMap;
 
+	// lazily computed, shared by all callers (peers are immutable once created)
+	private volatile Strings meta;
+	private Map<List<String>,SimpleTuplePeer> extendedPeers;
+
 	public SimpleTuplePeer(String[] fieldNames)
 	{
 		this.init(fieldNames);
@@ -92,7 +101,45 @@ public class SimpleTuplePeer
 
 	public Strings convert()
 	{
-		return BasicDataTypesTools.stringToStrings(fieldNames);
+		Strings m = meta;
+		if (m == null) {
+			m = BasicDataTypesTools.stringToStrings(fieldNames);
+			meta = m;
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the peer made of this peer's fields followed by the given fields.
+	 * Unlike the SimpleTuplePeer(SimpleTuplePeer, String[]) constructor, the result is cached,
+	 * so calling this for every tuple does not rebuild the peer. Use the constructor instead when
+	 * the additional fields vary with the data.
+	 *
+	 * @param additionalFields The fields to append
+	 * @return The (interned) extended peer
+	 */
+	public SimpleTuplePeer extend(String... additionalFields)
+	{
+		List<String> key = Arrays.asList(additionalFields);
+
+		synchronized (this) {
+			if (extendedPeers == null) {
+				extendedPeers = new HashMap<List<String>,SimpleTuplePeer>();
+			}
+
+			SimpleTuplePeer peer = extendedPeers.get(key);
+			if (peer == null) {
+				String[] fields = Arrays.copyOf(fieldNames, fieldNames.length + additionalFields.length);
+				System.arraycopy(additionalFields, 0, fields, fieldNames.length, additionalFields.length);
+
+				peer = TuplePeerRegistry.getPeer(fields);
+				if (extendedPeers.size() >= MAX_EXTENDED_PEERS) {
+					extendedPeers.clear();
+				}
+				extendedPeers.put(Arrays.asList(additionalFields.clone()), peer);
+			}
+			return peer;
+		}
 	}
 
 	public int size()
@@ -100,8 +147,9 @@ public class SimpleTuplePeer
 		return fieldNames.length;
 	}
 
+	// peers are interned and shared, so callers get their own copy
 	public String[] getFieldNames() {
-	    return fieldNames;
+	    return fieldNames.clone();
 	}
 
 	public String getFieldNameForIndex(int i)
@@ -111,12 +159,8 @@ public class SimpleTuplePeer
 
 	public int getIndexForFieldName(String fn)
 	{
-		try {
-			return fieldMap.get(fn);
-		}
-		catch (NullPointerException npe) {
-			return -1;
-		}
+		Integer idx = fieldMap.get(fn);
+		return (idx != null) ? idx : -1;
 	}
 
 	@Override
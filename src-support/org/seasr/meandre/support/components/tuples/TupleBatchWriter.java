@@ -0,0 +1,185 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.Arrays;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+
+/**
+ * Builds a set of tuples one row at a time. Set the values of the row, then call
+ * {@link #writeRow()}; values carry over to the next row until they are set again (like reusing
+ * a {@link SimpleTuple}). Tuples that pass through unchanged can be appended with
+ * {@link #write(Strings)} without being copied.
+ */
+
+public class TupleBatchWriter {
+	private final SimpleTuplePeer _peer;
+	private final String[] _values;
+	private final StringsArray.Builder _tuples = StringsArray.newBuilder();
+
+	public TupleBatchWriter(SimpleTuplePeer peer) {
+		_peer = peer;
+		_values = new String[peer.size()];
+	}
+
+	public SimpleTuplePeer getPeer() {
+		return _peer;
+	}
+
+	public TupleBatchWriter setValue(int idx, String value) {
+		_values[idx] = value;
+		return this;
+	}
+
+	public TupleBatchWriter setValue(int idx, int value) {
+		_values[idx] = Integer.toString(value);
+		return this;
+	}
+
+	public TupleBatchWriter setValue(int idx, long value) {
+		_values[idx] = Long.toString(value);
+		return this;
+	}
+
+	public TupleBatchWriter setValue(int idx, double value) {
+		_values[idx] = Double.toString(value);
+		return this;
+	}
+
+	public TupleBatchWriter setValue(String fieldName, String value) {
+		int idx = _peer.getIndexForFieldName(fieldName);
+		if (idx == -1)
+			throw new RuntimeException("Unable to find field " + fieldName);
+
+		return setValue(idx, value);
+	}
+
+	/**
+	 * Copies the values of the current tuple of a cursor into the first positions of the row
+	 *
+	 * @param cursor The cursor
+	 * @return This writer
+	 */
+	public TupleBatchWriter setValues(TupleCursor cursor) {
+		for (int i = 0, iMax = cursor.getValueCount(); i < iMax; i++)
+			_values[i] = cursor.getValue(i);
+
+		return this;
+	}
+
+	public String getValue(int idx) {
+		return _values[idx];
+	}
+
+	/**
+	 * Appends the current row
+	 *
+	 * @return The tuple that was appended
+	 */
+	public Strings writeRow() {
+		Strings tuple = toStrings();
+		_tuples.addValue(tuple);
+
+		return tuple;
+	}
+
+	/**
+	 * Returns the current row without appending it
+	 *
+	 * @return The tuple
+	 */
+	public Strings toStrings() {
+		Strings.Builder tuple = Strings.newBuilder();
+		for (String value : _values)
+			tuple.addValue(value);
+
+		return tuple.build();
+	}
+
+	/**
+	 * Appends an existing tuple as is
+	 *
+	 * @param tuple The tuple
+	 * @return This writer
+	 */
+	public TupleBatchWriter write(Strings tuple) {
+		_tuples.addValue(tuple);
+		return this;
+	}
+
+	/**
+	 * Clears the values of the current row
+	 *
+	 * @return This writer
+	 */
+	public TupleBatchWriter clearRow() {
+		Arrays.fill(_values, null);
+		return this;
+	}
+
+	/**
+	 * @return The number of tuples written
+	 */
+	public int size() {
+		return _tuples.getValueCount();
+	}
+
+	/**
+	 * Returns the tuples written; the writer cannot be used afterwards
+	 *
+	 * @return The tuples
+	 */
+	public StringsArray build() {
+		return _tuples.build();
+	}
+
+	/**
+	 * @return The meta data for the tuples
+	 */
+	public Strings getMeta() {
+		return _peer.convert();
+	}
+}
@@ -0,0 +1,182 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
+
+/**
+ * A read-only cursor over a set of tuples. Values are read straight from the underlying
+ * protobuf messages, so iterating does not copy the tuples (unlike converting the StringsArray
+ * to a Strings[] and loading each row into a {@link SimpleTuple}).
+ *
+ * <pre>
+ * TupleCursor cursor = new TupleCursor(peer, tuples);
+ * while (cursor.next())
+ *     String value = cursor.getValue(FIELD_IDX);
+ * </pre>
+ */
+
+public class TupleCursor {
+	private final SimpleTuplePeer _peer;
+	private final List<Strings> _tuples;
+	private int _position = -1;
+	private Strings _current;
+
+	public TupleCursor(SimpleTuplePeer peer, StringsArray tuples) {
+		this(peer, tuples.getValueList());
+	}
+
+	public TupleCursor(SimpleTuplePeer peer, Strings tuple) {
+		this(peer, Collections.singletonList(tuple));
+	}
+
+	public TupleCursor(SimpleTuplePeer peer, List<Strings> tuples) {
+		_peer = peer;
+		_tuples = tuples;
+	}
+
+	/**
+	 * Returns the tuples pushed on a tuples port as a list, without copying them
+	 * (a TupleBatch is converted to string tuples)
+	 *
+	 * @param tuples A StringsArray, a single tuple as Strings, or a TupleBatch
+	 * @return The tuples
+	 * @throws IllegalArgumentException Thrown if the tuples are of an unsupported type
+	 */
+	public static List<Strings> getTuples(Object tuples) {
+		if (tuples instanceof StringsArray)
+			return ((StringsArray) tuples).getValueList();
+
+		if (tuples instanceof Strings)
+			return Collections.singletonList((Strings) tuples);
+
+		if (tuples instanceof TupleBatch)
+			return ColumnarTuples.fromProtobuf((TupleBatch) tuples).toStringsArray().getValueList();
+
+		throw new IllegalArgumentException("Don't know how to handle tuples of type: " + tuples.getClass().getName());
+	}
+
+	public SimpleTuplePeer getPeer() {
+		return _peer;
+	}
+
+	/**
+	 * @return The number of tuples
+	 */
+	public int size() {
+		return _tuples.size();
+	}
+
+	/**
+	 * Advances to the next tuple
+	 *
+	 * @return True if there is a tuple at the new position, false if the cursor is past the end
+	 */
+	public boolean next() {
+		if (_position + 1 >= _tuples.size()) {
+			_position = _tuples.size();
+			_current = null;
+			return false;
+		}
+
+		_current = _tuples.get(++_position);
+		return true;
+	}
+
+	/**
+	 * Positions the cursor on a given tuple
+	 *
+	 * @param position The tuple index
+	 */
+	public void moveTo(int position) {
+		_current = _tuples.get(position);
+		_position = position;
+	}
+
+	/**
+	 * Positions the cursor before the first tuple
+	 */
+	public void reset() {
+		_position = -1;
+		_current = null;
+	}
+
+	public int getPosition() {
+		return _position;
+	}
+
+	public String getValue(int idx) {
+		return _current.getValue(idx);
+	}
+
+	public String getValue(String fieldName) {
+		return _current.getValue(_peer.getIndexForFieldName(fieldName));
+	}
+
+	/**
+	 * @return The number of values of the current tuple
+	 */
+	public int getValueCount() {
+		return _current.getValueCount();
+	}
+
+	/**
+	 * Returns the current tuple (not a copy; protobuf messages are immutable)
+	 *
+	 * @return The tuple
+	 */
+	public Strings getTuple() {
+		return _current;
+	}
+
+	@Override
+	public String toString() {
+		return (_current != null) ? SimpleTuplePeer.toString(_current.getValueList().toArray(new String[_current.getValueCount()])) : "";
+	}
+}
@@ -0,0 +1,97 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+/**
+ * A handle on a named tuple field that remembers the index of the field in the last peer it was
+ * resolved against. Since peers obtained from the {@link TuplePeerRegistry} are shared, a component
+ * that creates its handles once (in initializeCallBack) resolves each field once per schema rather
+ * than once per tuple.
+ */
+
+public class TupleField {
+	private final String _name;
+	private volatile Resolution _last;
+
+	public TupleField(String name) {
+		_name = name;
+	}
+
+	public String getName() {
+		return _name;
+	}
+
+	/**
+	 * Returns the index of this field in the given peer
+	 *
+	 * @param peer The peer
+	 * @return The index, or -1 if the peer has no such field
+	 */
+	public int getIndex(SimpleTuplePeer peer) {
+		Resolution last = _last;
+		if (last == null || last.peer != peer) {
+			last = new Resolution(peer, peer.getIndexForFieldName(_name));
+			_last = last;
+		}
+
+		return last.index;
+	}
+
+	@Override
+	public String toString() {
+		return _name;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static final class Resolution {
+		final SimpleTuplePeer peer;
+		final int index;
+
+		Resolution(SimpleTuplePeer peer, int index) {
+			this.peer = peer;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+
+/**
+ * Interns {@link SimpleTuplePeer}s by their field list, so components that receive the same
+ * tuple meta data on every execution share one peer instead of rebuilding its field map each time.
+ * Interned peers must be treated as read-only.
+ */
+
+public final class TuplePeerRegistry {
+
+	/** The registry is cleared when it grows past this size (flows with ever-changing schemas) */
+	private static final int MAX_PEERS = 4096;
+
+	private static final ConcurrentMap<List<String>,SimpleTuplePeer> _peers =
+		new ConcurrentHashMap<List<String>,SimpleTuplePeer>();
+
+
+	private TuplePeerRegistry() {
+	}
+
+	/**
+	 * Returns the peer for the given tuple meta data
+	 *
+	 * @param meta The tuple meta data (field names)
+	 * @return The interned peer
+	 */
+	public static SimpleTuplePeer getPeer(Strings meta) {
+		List<String> fields = meta.getValueList();
+		SimpleTuplePeer peer = _peers.get(fields);
+
+		return (peer != null) ? peer : intern(fields.toArray(new String[fields.size()]));
+	}
+
+	/**
+	 * Returns the peer for the given field names
+	 *
+	 * @param fieldNames The field names
+	 * @return The interned peer
+	 */
+	public static SimpleTuplePeer getPeer(String... fieldNames) {
+		SimpleTuplePeer peer = _peers.get(Arrays.asList(fieldNames));
+
+		return (peer != null) ? peer : intern(fieldNames.clone());
+	}
+
+	/**
+	 * Returns the peer made of the fields of the given meta data followed by the additional fields
+	 *
+	 * @param meta The tuple meta data (field names)
+	 * @param additionalFields The fields to append
+	 * @return The interned peer
+	 */
+	public static SimpleTuplePeer getExtendedPeer(Strings meta, String... additionalFields) {
+		return getPeer(meta).extend(additionalFields);
+	}
+
+	public static int size() {
+		return _peers.size();
+	}
+
+	public static void clear() {
+		_peers.clear();
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static SimpleTuplePeer intern(String[] fieldNames) {
+		if (_peers.size() >= MAX_PEERS)
+			_peers.clear();
+
+		SimpleTuplePeer peer = new SimpleTuplePeer(fieldNames);
+		SimpleTuplePeer existing = _peers.putIfAbsent(Collections.unmodifiableList(Arrays.asList(fieldNames)), peer);
+
+		return (existing != null) ? existing : peer;
+	}
+}
@@ -0,0 +1,173 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypesTools;
+
+/**
+ * Describes the names and types of the columns of a {@link ColumnarTuples} batch.
+ * The field names alone are the meta data that {@link SimpleTuplePeer} exchanges on the
+ * meta_tuple port, so a schema can be created from, and converted to, that representation.
+ */
+
+public class TupleSchema {
+	private final String[] _fieldNames;
+	private final ColumnType[] _types;
+	private final Map<String,Integer> _fieldMap;
+
+	public TupleSchema(String[] fieldNames, ColumnType[] types) {
+		if (fieldNames == null || fieldNames.length == 0)
+			throw new RuntimeException("invalid schema, no fieldnames");
+
+		if (types.length != fieldNames.length)
+			throw new IllegalArgumentException(String.format(
+					"Mismatch between the number of fields (%d) and the number of types (%d)",
+					fieldNames.length, types.length));
+
+		_fieldNames = fieldNames;
+		_types = types;
+		_fieldMap = new HashMap<String,Integer>(fieldNames.length * 2);
+		for (int i = 0; i < fieldNames.length; i++)
+			_fieldMap.put(fieldNames[i], i);
+	}
+
+	/**
+	 * Creates a schema where every field is a STRING column
+	 *
+	 * @param peer The tuple peer
+	 */
+	public TupleSchema(SimpleTuplePeer peer) {
+		this(peer.getFieldNames(), stringTypes(peer.size()));
+	}
+
+	/**
+	 * Creates a schema where every field is a STRING column
+	 *
+	 * @param meta The tuple meta data (field names)
+	 */
+	public TupleSchema(Strings meta) {
+		this(BasicDataTypesTools.stringsToStringArray(meta), stringTypes(meta.getValueCount()));
+	}
+
+	public int size() {
+		return _fieldNames.length;
+	}
+
+	public String[] getFieldNames() {
+		return _fieldNames;
+	}
+
+	public String getFieldNameForIndex(int i) {
+		return _fieldNames[i];
+	}
+
+	public ColumnType getType(int i) {
+		return _types[i];
+	}
+
+	public ColumnType[] getTypes() {
+		return _types;
+	}
+
+	/**
+	 * Returns the column index of a field
+	 *
+	 * @param fieldName The field name
+	 * @return The index, or -1 if the schema has no such field
+	 */
+	public int getIndexForFieldName(String fieldName) {
+		Integer idx = _fieldMap.get(fieldName);
+		return (idx != null) ? idx : -1;
+	}
+
+	/**
+	 * Returns the meta data for this schema in the format used on the meta_tuple port
+	 *
+	 * @return The field names
+	 */
+	public Strings convert() {
+		return BasicDataTypesTools.stringToStrings(_fieldNames);
+	}
+
+	public SimpleTuplePeer toPeer() {
+		return new SimpleTuplePeer(_fieldNames);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (other == this) return true;
+		if (other == null || other.getClass() != getClass()) return false;
+
+		TupleSchema s = (TupleSchema) other;
+		return Arrays.equals(_fieldNames, s._fieldNames) && Arrays.equals(_types, s._types);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(_fieldNames) + Arrays.hashCode(_types);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < _fieldNames.length; i++)
+			sb.append(",").append(_fieldNames[i]).append(":").append(_types[i]);
+
+		return sb.length() > 0 ? sb.substring(1) : "";
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static ColumnType[] stringTypes(int size) {
+		ColumnType[] types = new ColumnType[size];
+		Arrays.fill(types, ColumnType.STRING);
+
+		return types;
+	}
+}
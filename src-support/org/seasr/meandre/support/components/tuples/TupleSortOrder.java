@@ -0,0 +1,242 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+
+/**
+ * The order of a tuple sort, given as a comma separated list of <code>field [asc|desc] [lexical|numeric|collation]</code>,
+ * for example "count desc numeric, token collation". Fields are ascending and lexical by default.
+ * <ul>
+ * <li>lexical - compares the values as strings (by character code)</li>
+ * <li>numeric - compares the values as numbers; values that are not numbers (and NaN) sort after all numbers,
+ *     in ascending and descending order alike</li>
+ * <li>collation - compares the values using the collation rules of a locale</li>
+ * </ul>
+ * The sort keys of a tuple are computed once, when the tuple is wrapped in an {@link Entry};
+ * entries with equal keys are ordered by their sequence number, which makes sorts stable.
+ */
+
+public class TupleSortOrder implements Comparator<TupleSortOrder.Entry> {
+
+	public enum Comparison { LEXICAL, NUMERIC, COLLATION }
+
+	private final int[] _fields;
+	private final boolean[] _descending;
+	private final Comparison[] _comparisons;
+	private final Collator _collator;
+
+	public TupleSortOrder(int[] fields, boolean[] descending, Comparison[] comparisons, Locale locale) {
+		_fields = fields;
+		_descending = descending;
+		_comparisons = comparisons;
+		_collator = Collator.getInstance(locale);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Parses a sort order
+	 *
+	 * @param spec The sort order, e.g. "count desc numeric, token"
+	 * @param peer The peer of the tuples to sort, used to resolve the field names
+	 * @param locale The locale for collation comparisons
+	 * @return The sort order
+	 * @throws IllegalArgumentException Thrown if the order cannot be parsed or names a field the tuples do not have
+	 */
+	public static TupleSortOrder parse(String spec, SimpleTuplePeer peer, Locale locale) {
+		List<Integer> fields = new ArrayList<Integer>();
+		List<Boolean> descending = new ArrayList<Boolean>();
+		List<Comparison> comparisons = new ArrayList<Comparison>();
+
+		for (String part : spec.split(",")) {
+			String[] words = part.trim().split("\\s+");
+			if (words[0].length() == 0) continue;
+
+			int field = peer.getIndexForFieldName(words[0]);
+			if (field < 0)
+				throw new IllegalArgumentException(String.format("The tuples have no field named '%s'%nAttributes: %s", words[0], peer));
+
+			boolean desc = false;
+			Comparison comparison = Comparison.LEXICAL;
+
+			for (int i = 1; i < words.length; i++) {
+				String word = words[i].toLowerCase();
+				if (word.equals("asc"))
+					desc = false;
+				else if (word.equals("desc"))
+					desc = true;
+				else
+					try {
+						comparison = Comparison.valueOf(word.toUpperCase());
+					}
+					catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException(String.format("Unknown sort option '%s' in: %s", words[i], part.trim()));
+					}
+			}
+
+			fields.add(field);
+			descending.add(desc);
+			comparisons.add(comparison);
+		}
+
+		if (fields.isEmpty())
+			throw new IllegalArgumentException("No sort fields specified");
+
+		int[] f = new int[fields.size()];
+		boolean[] d = new boolean[f.length];
+		for (int i = 0; i < f.length; i++) {
+			f[i] = fields.get(i);
+			d[i] = descending.get(i);
+		}
+
+		return new TupleSortOrder(f, d, comparisons.toArray(new Comparison[f.length]), locale);
+	}
+
+	/**
+	 * Computes the sort keys of a tuple
+	 *
+	 * @param tuple The tuple
+	 * @param sequence The position of the tuple in the input, used to order tuples with equal keys
+	 * @return The entry
+	 */
+	public Entry newEntry(Strings tuple, long sequence) {
+		Object[] keys = new Object[_fields.length];
+		double[] numbers = null;
+
+		for (int i = 0; i < _fields.length; i++) {
+			String value = tuple.getValue(_fields[i]);
+
+			switch (_comparisons[i]) {
+				case NUMERIC:
+					if (numbers == null)
+						numbers = new double[_fields.length];
+					numbers[i] = parseNumber(value);
+					break;
+
+				case COLLATION:
+					keys[i] = _collator.getCollationKey(value);
+					break;
+
+				default:
+					keys[i] = value;
+					break;
+			}
+		}
+
+		return new Entry(tuple, sequence, keys, numbers);
+	}
+
+	public int compare(Entry e1, Entry e2) {
+		for (int i = 0; i < _fields.length; i++) {
+			int c;
+
+			switch (_comparisons[i]) {
+				case NUMERIC:
+					double n1 = e1._numbers[i], n2 = e2._numbers[i];
+					boolean nan1 = Double.isNaN(n1), nan2 = Double.isNaN(n2);
+					if (nan1 || nan2) {
+						// not numbers go last whatever the direction
+						if (nan1 != nan2)
+							return nan1 ? 1 : -1;
+						c = 0;
+					}
+					else
+						c = Double.compare(n1, n2);
+					break;
+
+				case COLLATION:
+					c = ((CollationKey) e1._keys[i]).compareTo((CollationKey) e2._keys[i]);
+					break;
+
+				default:
+					c = ((String) e1._keys[i]).compareTo((String) e2._keys[i]);
+					break;
+			}
+
+			if (c != 0)
+				return _descending[i] ? -c : c;
+		}
+
+		return (e1.sequence < e2.sequence) ? -1 : (e1.sequence == e2.sequence ? 0 : 1);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static double parseNumber(String value) {
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			// sorts after all numbers
+			return Double.NaN;
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * A tuple together with its sort keys
+	 */
+	public static final class Entry {
+		public final Strings tuple;
+		public final long sequence;
+		private final Object[] _keys;
+		private final double[] _numbers;
+
+		private Entry(Strings tuple, long sequence, Object[] keys, double[] numbers) {
+			this.tuple = tuple;
+			this.sequence = sequence;
+			_keys = keys;
+			_numbers = numbers;
+		}
+	}
+}
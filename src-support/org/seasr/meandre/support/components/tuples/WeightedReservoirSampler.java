@@ -0,0 +1,123 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.support.components.tuples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Weighted reservoir sampling (Efraimidis and Spirakis' A-Res): each item gets the key u^(1/weight),
+ * with u uniform in (0, 1), and the sample is the k items with the largest keys.
+ * Items with a weight that is not positive are never sampled.
+ */
+
+public class WeightedReservoirSampler<T> implements Sampler<T> {
+	private final int _size;
+	private final Random _random;
+	private final PriorityQueue<Keyed<T>> _heap;
+	private long _count = 0;
+
+	/**
+	 * @param size The sample size
+	 * @param random The source of randomness
+	 */
+	public WeightedReservoirSampler(int size, Random random) {
+		if (size < 1)
+			throw new IllegalArgumentException("The sample size must be positive");
+
+		_size = size;
+		_random = random;
+		_heap = new PriorityQueue<Keyed<T>>(Math.min(size, 1024) + 1);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	public void add(T item, double weight) {
+		_count++;
+
+		if (!(weight > 0) || Double.isInfinite(weight))
+			return;
+
+		// log(u^(1/w)) = log(u)/w orders the items the same way, without underflowing for small weights
+		double key = Math.log(_random.nextDouble()) / weight;
+
+		if (_heap.size() < _size)
+			_heap.add(new Keyed<T>(item, key));
+		else
+			if (key > _heap.peek().key) {
+				_heap.poll();
+				_heap.add(new Keyed<T>(item, key));
+			}
+	}
+
+	public long getCount() {
+		return _count;
+	}
+
+	public List<T> getSample() {
+		List<T> sample = new ArrayList<T>(_heap.size());
+		for (Keyed<T> keyed : _heap)
+			sample.add(keyed.item);
+
+		return sample;
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static final class Keyed<T> implements Comparable<Keyed<T>> {
+		final T item;
+		final double key;
+
+		Keyed(T item, double key) {
+			this.item = item;
+			this.key = key;
+		}
+
+		public int compareTo(Keyed<T> other) {
+			return Double.compare(key, other.key);
+		}
+	}
+}
@@ -0,0 +1,321 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.seasr.meandre.support.components.tuples.Aggregate;
+import org.seasr.meandre.support.components.tuples.ColumnType;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
+import org.seasr.meandre.support.components.tuples.HyperLogLog;
+import org.seasr.meandre.support.components.tuples.QuantileSketch;
+import org.seasr.meandre.support.components.tuples.TupleSchema;
+
+/**
+ * Checks the aggregates of the group by component: parsing, the per group accumulators,
+ * and the accuracy of the quantile sketch and of the HyperLogLog distinct count.
+ */
+public class AggregateTests {
+
+	@Test
+	public void testParse() {
+		List<Aggregate> aggregates = Aggregate.parseList(
+				"count(*), count(user) AS users, sum(price), quantile(latency, 0.95) as p95, distinct(user, 12), ");
+		assertEquals(5, aggregates.size());
+
+		assertEquals("count", aggregates.get(0).getName());
+		assertEquals(null, aggregates.get(0).getField());
+		assertEquals(Aggregate.Input.ROW, aggregates.get(0).getInput());
+
+		assertEquals("users", aggregates.get(1).getName());
+		assertEquals(Aggregate.Input.TEXT, aggregates.get(1).getInput());
+
+		assertEquals("sum_price", aggregates.get(2).getName());
+		assertEquals(Aggregate.Input.NUMBER, aggregates.get(2).getInput());
+
+		assertEquals("p95", aggregates.get(3).getName());
+		assertEquals(Aggregate.Function.QUANTILE, aggregates.get(3).getFunction());
+		assertEquals(0.95, aggregates.get(3).getArgument(), 0);
+
+		assertEquals("distinct_user", aggregates.get(4).getName());
+		assertEquals(12, aggregates.get(4).getArgument(), 0);
+
+		assertEquals("quantile_x_0.5", Aggregate.parse("quantile(x, 0.5)").getName());
+
+		for (String spec : new String[] { "sum(*)", "median(x)", "quantile(x)", "quantile(x, 2)", "sum(x, 1)", "count" })
+			try {
+				Aggregate.parse(spec);
+				fail("Parsed " + spec);
+			}
+			catch (IllegalArgumentException e) { }
+	}
+
+	@Test
+	public void testAccumulators() {
+		List<Aggregate> aggregates = Aggregate.parseList(
+				"count(*), count(t), sum(a), sum(b), min(a), max(b), mean(a), distinct(t), quantile(a, 0.5)");
+		Aggregate.Accumulator[] accumulators = new Aggregate.Accumulator[aggregates.size()];
+		for (int i = 0; i < accumulators.length; i++)
+			accumulators[i] = aggregates.get(i).newAccumulator();
+
+		// 40 groups (past the initial capacity); group g gets g rows, so group 0 has none
+		int groups = 40;
+		for (Aggregate.Accumulator accumulator : accumulators)
+			for (int g = 0; g < groups; g++)
+				accumulator.addGroup();
+
+		for (int g = 0; g < groups; g++)
+			for (int row = 0; row < g; row++)
+				for (int i = 0; i < accumulators.length; i++) {
+					Aggregate aggregate = aggregates.get(i);
+					switch (aggregate.getInput()) {
+						case ROW:
+							accumulators[i].addRow(g);
+							break;
+						case TEXT:
+							accumulators[i].addText(g, HyperLogLog.hash("t" + (row % 3)));
+							break;
+						default:
+							accumulators[i].addValue(g, aggregate.getField().equals("a") ? row : row + 0.5);
+							break;
+					}
+				}
+
+		// the sums and the minimum of whole numbers are whole numbers, except that
+		// a group without values has no minimum
+		boolean[] integral = { false, false, true, false, false, false, false, false, false };
+		for (int i = 0; i < accumulators.length; i++)
+			assertEquals(aggregates.get(i).getName(), integral[i], accumulators[i].isIntegral());
+
+		String[] names = new String[aggregates.size()];
+		ColumnType[] types = new ColumnType[names.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = aggregates.get(i).getName();
+			types[i] = accumulators[i].isIntegral() ? ColumnType.LONG : aggregates.get(i).getOutputType();
+		}
+
+		ColumnarTuples.Builder builder = new ColumnarTuples.Builder(new TupleSchema(names, types));
+		for (int g = 0; g < groups; g++) {
+			for (int i = 0; i < accumulators.length; i++)
+				accumulators[i].writeTo(builder, i, g);
+			builder.addRow();
+		}
+		ColumnarTuples output = builder.build();
+
+		for (int g = 0; g < groups; g++) {
+			long sum = (long) g * (g - 1) / 2;
+			assertEquals(g, output.getLong(0, g));
+			assertEquals(g, output.getLong(1, g));
+			assertEquals(Long.toString(sum), output.getString(2, g));
+			assertEquals(sum + 0.5 * g, output.getDouble(3, g), 0);
+			assertEquals(g == 0 ? Double.NaN : 0, output.getDouble(4, g), 0);
+			assertEquals(g == 0 ? Double.NaN : g - 0.5, output.getDouble(5, g), 0);
+			assertEquals(g == 0 ? Double.NaN : (g - 1) / 2.0, output.getDouble(6, g), 0);
+			assertEquals(Math.min(g, 3), output.getLong(7, g));
+			assertEquals(g == 0 ? Double.NaN : Math.ceil(0.5 * g) - 1, output.getDouble(8, g), 0);
+		}
+
+		// whole numbers that overflow a long sum fall back to a double
+		Aggregate.Accumulator sum = Aggregate.parse("sum(x)").newAccumulator();
+		sum.addGroup();
+		sum.addValue(0, Long.MAX_VALUE);
+		assertTrue(sum.isIntegral());
+		sum.addValue(0, Long.MAX_VALUE);
+		assertTrue(!sum.isIntegral());
+	}
+
+	@Test
+	public void testQuantileSmall() {
+		QuantileSketch sketch = new QuantileSketch(64);
+		assertEquals(0, sketch.getCount());
+		assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+
+		sketch.add(42);
+		for (double q : new double[] { 0, 0.01, 0.5, 0.99, 1 })
+			assertEquals(42, sketch.getQuantile(q), 0);
+
+		// below the capacity nothing is compacted: the quantiles are exact
+		Random random = new Random(1);
+		for (int n = 2; n < 64; n++) {
+			sketch = new QuantileSketch(64);
+			double[] values = new double[n];
+			for (int i = 0; i < n; i++)
+				sketch.add(values[i] = random.nextInt(20));
+			Arrays.sort(values);
+
+			assertEquals(n, sketch.getCount());
+			for (double q = 0.05; q < 1; q += 0.05)
+				assertEquals(values[(int) Math.ceil(q * n) - 1], sketch.getQuantile(q), 0);
+			assertEquals(values[0], sketch.getQuantile(0), 0);
+			assertEquals(values[n - 1], sketch.getQuantile(1), 0);
+		}
+	}
+
+	@Test
+	public void testQuantileAccuracy() {
+		int n = 200000;
+		Random random = new Random(2);
+
+		// random, sorted, reversed, and with many ties
+		double[][] inputs = new double[4][n];
+		for (int i = 0; i < n; i++) {
+			inputs[0][i] = random.nextGaussian();
+			inputs[1][i] = i;
+			inputs[2][i] = n - i;
+			inputs[3][i] = random.nextInt(10);
+		}
+
+		for (double[] input : inputs) {
+			QuantileSketch sketch = new QuantileSketch();
+			for (double value : input)
+				sketch.add(value);
+
+			double[] sorted = input.clone();
+			Arrays.sort(sorted);
+			assertEquals(sorted[0], sketch.getQuantile(0), 0);
+			assertEquals(sorted[n - 1], sketch.getQuantile(1), 0);
+
+			for (double q = 0.01; q < 1; q += 0.01) {
+				double value = sketch.getQuantile(q);
+
+				// the ranks the value occupies must be within 1% of the rank asked for
+				int first = lowerBound(sorted, value);
+				int last = lowerBound(sorted, Math.nextUp(value));
+				assertTrue("value not from the input", first < last);
+
+				long target = (long) Math.ceil(q * n);
+				assertTrue(String.format("q=%.2f: ranks %d..%d, expected about %d", q, first + 1, last, target),
+						first + 1 - 0.01 * n <= target && target <= last + 0.01 * n);
+			}
+		}
+	}
+
+	@Test
+	public void testHyperLogLogAccuracy() {
+		for (int precision : new int[] { 4, 10, 14 }) {
+			double error = 1.04 / Math.sqrt(1 << precision);
+			HyperLogLog estimator = new HyperLogLog(precision);
+			assertEquals(0, estimator.cardinality());
+
+			int added = 0;
+			for (int n : new int[] { 1, 10, 100, 1000, 10000, 100000 }) {
+				for (; added < n; added++)
+					estimator.add(HyperLogLog.hash("value " + added));
+
+				// adding the same values again changes nothing
+				long estimate = estimator.cardinality();
+				for (int i = 0; i < n; i += 7)
+					estimator.add(HyperLogLog.hash("value " + i));
+				assertEquals(estimate, estimator.cardinality());
+
+				// within 4 standard errors (small counts are exact enough with linear counting)
+				assertTrue(String.format("precision %d: %d estimated as %d", precision, n, estimate),
+						Math.abs(estimate - n) <= Math.max(1, 4 * error * n));
+			}
+		}
+	}
+
+	@Test
+	public void testHyperLogLogMerge() {
+		HyperLogLog left = new HyperLogLog(12);
+		HyperLogLog right = new HyperLogLog(12);
+		HyperLogLog all = new HyperLogLog(12);
+
+		for (int i = 0; i < 30000; i++) {
+			long hash = HyperLogLog.mix(i);
+			all.add(hash);
+			// overlapping halves
+			if (i < 20000) left.add(hash);
+			if (i >= 10000) right.add(hash);
+		}
+
+		left.addAll(right);
+		assertEquals(all.cardinality(), left.cardinality());
+
+		try {
+			left.addAll(new HyperLogLog(10));
+			fail("Merged estimators of different precision");
+		}
+		catch (IllegalArgumentException e) { }
+
+		for (int precision : new int[] { 3, 17 })
+			try {
+				new HyperLogLog(precision);
+				fail("Accepted precision " + precision);
+			}
+			catch (IllegalArgumentException e) { }
+	}
+
+	@Test
+	public void testHash() {
+		// distinct values get distinct hashes, including values that differ by one character
+		Set<Long> hashes = new HashSet<Long>();
+		for (int i = 0; i < 100000; i++)
+			assertTrue(hashes.add(HyperLogLog.hash(Integer.toString(i))));
+		assertTrue(hashes.add(HyperLogLog.hash("")));
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * @return The index of the first value of a sorted array that is not less than the given value
+	 */
+	private static int lowerBound(double[] sorted, double value) {
+		int low = 0, high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] < value) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+}
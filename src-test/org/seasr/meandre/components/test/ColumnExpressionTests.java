@@ -0,0 +1,429 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.datatypes.datamining.ColumnExpression;
+import org.seasr.datatypes.datamining.table.Column;
+import org.seasr.datatypes.datamining.table.MutableTable;
+import org.seasr.datatypes.datamining.table.basic.BooleanColumn;
+import org.seasr.datatypes.datamining.table.basic.ByteColumn;
+import org.seasr.datatypes.datamining.table.basic.DoubleColumn;
+import org.seasr.datatypes.datamining.table.basic.FloatColumn;
+import org.seasr.datatypes.datamining.table.basic.IntColumn;
+import org.seasr.datatypes.datamining.table.basic.LongColumn;
+import org.seasr.datatypes.datamining.table.basic.MutableTableImpl;
+import org.seasr.datatypes.datamining.table.basic.ShortColumn;
+
+/**
+ * Checks that the chunked evaluation of column expressions gives, bit for bit, the
+ * results of evaluating them one row at a time with the typing rules of the row
+ * interpreter they replaced: every numeric type pair, operator and function, over
+ * tables whose sizes fall on and around the word and chunk boundaries, with missing values.
+ */
+public class ColumnExpressionTests {
+
+	private static final int[] NUM_ROWS = { 0, 1, 63, 64, 65, 2047, 2048, 2049, 4097, 5000 };
+
+	/** The numeric columns; the ones ending in 2 are never zero, so they can be divided by */
+	private static final String[] LEFT = { "by", "sh", "in", "lo", "fl", "db", "2.5" };
+	private static final String[] RIGHT = { "by2", "sh2", "in2", "lo2", "fl2", "db2", "3" };
+
+	private static final String[] OPERATORS = { "+", "-", "*", "/", "%", "^" };
+	private static final String[] FUNCTIONS = { "log", "ln", "exp", "abs", "sin", "asin", "cos", "acos", "tan", "atan", "sqrt", "neg" };
+
+	private static final String[] NESTED = {
+		"(in + by) * db2 - sqrt(fl)",
+		"((sh2 ^ by2) % in2) / (lo2 + 2.5)",
+		"abs(neg(lo) / fl2) + exp(by % sh2)",
+		"((fl * fl2) - (in2 * sh)) / 3"
+	};
+
+
+	@Test
+	public void testOperators() throws Exception {
+		for (int numRows : NUM_ROWS) {
+			Rows rows = new Rows(numRows, 7 + numRows);
+			for (String left : LEFT)
+				for (String right : RIGHT)
+					for (String op : OPERATORS)
+						rows.check(left + " " + op + " " + right, rows.binary(op, rows.get(left), rows.get(right)));
+		}
+	}
+
+	@Test
+	public void testFunctions() throws Exception {
+		for (int numRows : NUM_ROWS) {
+			Rows rows = new Rows(numRows, 11 + numRows);
+			for (String fn : FUNCTIONS)
+				for (String arg : LEFT) {
+					if (arg.equals("2.5")) continue;
+					rows.check(fn + "(" + arg + ")", rows.function(fn, rows.get(arg)));
+				}
+		}
+	}
+
+	@Test
+	public void testBooleans() throws Exception {
+		for (int numRows : NUM_ROWS) {
+			Rows rows = new Rows(numRows, 13 + numRows);
+			boolean[] bo = (boolean[]) rows.get("bo");
+			boolean[] bo2 = (boolean[]) rows.get("bo2");
+			boolean[] and = new boolean[numRows];
+			boolean[] or = new boolean[numRows];
+			for (int i = 0; i < numRows; i++) {
+				and[i] = bo[i] && bo2[i];
+				or[i] = bo[i] || bo2[i];
+			}
+
+			rows.check("bo && bo2", and);
+			rows.check("bo || bo2", or);
+		}
+	}
+
+	@Test
+	public void testNested() throws Exception {
+		for (int numRows : NUM_ROWS) {
+			Rows rows = new Rows(numRows, 17 + numRows);
+			rows.check(NESTED[0], rows.binary("-",
+					rows.binary("*", rows.binary("+", rows.get("in"), rows.get("by")), rows.get("db2")),
+					rows.function("sqrt", rows.get("fl"))));
+			rows.check(NESTED[1], rows.binary("/",
+					rows.binary("%", rows.binary("^", rows.get("sh2"), rows.get("by2")), rows.get("in2")),
+					rows.binary("+", rows.get("lo2"), rows.get("2.5"))));
+			rows.check(NESTED[2], rows.binary("+",
+					rows.function("abs", rows.binary("/", rows.function("neg", rows.get("lo")), rows.get("fl2"))),
+					rows.function("exp", rows.binary("%", rows.get("by"), rows.get("sh2")))));
+			rows.check(NESTED[3], rows.binary("/",
+					rows.binary("-", rows.binary("*", rows.get("fl"), rows.get("fl2")), rows.binary("*", rows.get("in2"), rows.get("sh"))),
+					rows.get("3")));
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * A table with a column of each type, the values of its columns, and the rows where
+	 * a value is missing in any of them
+	 */
+	private static class Rows {
+		private final int _numRows;
+		private final MutableTable _table;
+		private final String[] _labels = { "by", "by2", "sh", "sh2", "in", "in2", "lo", "lo2", "fl", "fl2", "db", "db2", "bo", "bo2" };
+		private final Object[] _values = new Object[_labels.length];
+		private final boolean[][] _missing = new boolean[_labels.length][];
+
+		Rows(int numRows, long seed) {
+			_numRows = numRows;
+			Random random = new Random(seed);
+
+			byte[] by = new byte[numRows], by2 = new byte[numRows];
+			short[] sh = new short[numRows], sh2 = new short[numRows];
+			int[] in = new int[numRows], in2 = new int[numRows];
+			long[] lo = new long[numRows], lo2 = new long[numRows];
+			float[] fl = new float[numRows], fl2 = new float[numRows];
+			double[] db = new double[numRows], db2 = new double[numRows];
+			boolean[] bo = new boolean[numRows], bo2 = new boolean[numRows];
+
+			for (int i = 0; i < numRows; i++) {
+				by[i] = (byte) random.nextInt();
+				by2[i] = (byte) ((random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(7)));
+				sh[i] = (short) random.nextInt();
+				sh2[i] = (short) (1 + random.nextInt(9));
+				in[i] = random.nextInt();
+				in2[i] = (random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(1000));
+				lo[i] = random.nextLong();
+				lo2[i] = 1 + random.nextInt(20);
+				fl[i] = (float) (random.nextGaussian() * 100);
+				fl2[i] = (random.nextInt(50) == 0) ? 0f : random.nextFloat() - 0.5f;
+				db[i] = random.nextGaussian() * 1e6;
+				db2[i] = (random.nextInt(50) == 0) ? 0d : random.nextDouble();
+				bo[i] = random.nextBoolean();
+				bo2[i] = random.nextBoolean();
+			}
+
+			// special values in the floating point columns
+			double[] special = { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0d, Double.MIN_VALUE };
+			for (int i = 0; i < special.length && 10 * i < numRows; i++) {
+				db[10 * i] = special[i];
+				fl[10 * i] = (float) special[i];
+			}
+
+			Column[] columns = { new ByteColumn(by), new ByteColumn(by2), new ShortColumn(sh), new ShortColumn(sh2),
+					new IntColumn(in), new IntColumn(in2), new LongColumn(lo), new LongColumn(lo2),
+					new FloatColumn(fl), new FloatColumn(fl2), new DoubleColumn(db), new DoubleColumn(db2),
+					new BooleanColumn(bo), new BooleanColumn(bo2) };
+			Object[] values = { by, by2, sh, sh2, in, in2, lo, lo2, fl, fl2, db, db2, bo, bo2 };
+
+			for (int c = 0; c < columns.length; c++) {
+				columns[c].setLabel(_labels[c]);
+				_values[c] = values[c];
+				_missing[c] = new boolean[numRows];
+
+				for (int i = 0; i < numRows; i++) {
+					// a few missing values, and the rows on either side of a word boundary in some columns
+					boolean missing = random.nextInt(31) == 0 || (c % 3 == 0 && (i == 63 || i == 64 || i == 2048));
+					if (missing) {
+						columns[c].setValueToMissing(true, i);
+						_missing[c][i] = true;
+					}
+				}
+			}
+
+			_table = new MutableTableImpl(columns);
+		}
+
+		/**
+		 * @return The values of a column, or of a constant (a float) repeated on every row
+		 */
+		Object get(String label) {
+			for (int c = 0; c < _labels.length; c++)
+				if (_labels[c].equals(label))
+					return _values[c];
+
+			float[] constant = new float[_numRows];
+			Arrays.fill(constant, Float.parseFloat(label));
+
+			return constant;
+		}
+
+		/**
+		 * Applies an operator row by row: the arithmetic is done in the type of the result, where
+		 * byte and short results are computed as int and narrowed, float with long gives double,
+		 * and '^' is Math.pow on the operands, narrowed to the type of the result
+		 */
+		Object binary(String op, Object left, Object right) {
+			int type = resultType(left, right);
+			Object result = Array.newInstance(componentType(type), _numRows);
+
+			for (int i = 0; i < _numRows; i++) {
+				Number l = (Number) Array.get(left, i);
+				Number r = (Number) Array.get(right, i);
+
+				if (op.equals("^")) {
+					double pow = Math.pow(l.doubleValue(), r.doubleValue());
+					switch (type) {
+						case 0: Array.setByte(result, i, (byte) pow); break;
+						case 1: Array.setShort(result, i, (short) pow); break;
+						case 2: Array.setInt(result, i, (int) pow); break;
+						case 3: Array.setLong(result, i, (long) pow); break;
+						case 4: Array.setFloat(result, i, (float) pow); break;
+						default: Array.setDouble(result, i, pow);
+					}
+					continue;
+				}
+
+				char o = op.charAt(0);
+				switch (type) {
+					case 0: Array.setByte(result, i, (byte) intOp(o, l.intValue(), r.intValue())); break;
+					case 1: Array.setShort(result, i, (short) intOp(o, l.intValue(), r.intValue())); break;
+					case 2: Array.setInt(result, i, intOp(o, l.intValue(), r.intValue())); break;
+					case 3: Array.setLong(result, i, longOp(o, l.longValue(), r.longValue())); break;
+					case 4: Array.setFloat(result, i, floatOp(o, l.floatValue(), r.floatValue())); break;
+					default: Array.setDouble(result, i, doubleOp(o, l.doubleValue(), r.doubleValue()));
+				}
+			}
+
+			return result;
+		}
+
+		/**
+		 * Applies a function row by row, on the values converted to double
+		 */
+		double[] function(String fn, Object arg) {
+			double[] result = new double[_numRows];
+
+			for (int i = 0; i < _numRows; i++) {
+				double a = ((Number) Array.get(arg, i)).doubleValue();
+
+				if (fn.equals("log")) result[i] = Math.log(a) / Math.log(10);
+				else if (fn.equals("ln")) result[i] = Math.log(a);
+				else if (fn.equals("exp")) result[i] = Math.exp(a);
+				else if (fn.equals("abs")) result[i] = Math.abs(a);
+				else if (fn.equals("sin")) result[i] = Math.sin(a);
+				else if (fn.equals("asin")) result[i] = Math.asin(a);
+				else if (fn.equals("cos")) result[i] = Math.cos(a);
+				else if (fn.equals("acos")) result[i] = Math.acos(a);
+				else if (fn.equals("tan")) result[i] = Math.tan(a);
+				else if (fn.equals("atan")) result[i] = Math.atan(a);
+				else if (fn.equals("sqrt")) result[i] = Math.sqrt(a);
+				else if (fn.equals("neg")) result[i] = a * -1;
+				else fail("Unknown function " + fn);
+			}
+
+			return result;
+		}
+
+		/**
+		 * Evaluates an expression and compares its result and missing values to the expected ones
+		 *
+		 * @param expression The expression
+		 * @param expected The values computed row by row, before the missing values are replaced
+		 */
+		void check(String expression, Object expected) throws Exception {
+			boolean[] missing = new boolean[_numRows];
+			for (int c = 0; c < _labels.length; c++)
+				if (expression.matches(".*\\b" + _labels[c] + "\\b.*"))
+					for (int i = 0; i < _numRows; i++)
+						missing[i] |= _missing[c][i];
+
+			for (int i = 0; i < _numRows; i++) {
+				if (!missing[i]) continue;
+
+				if (expected instanceof boolean[]) ((boolean[]) expected)[i] = _table.getMissingBoolean();
+				else if (expected instanceof byte[]) ((byte[]) expected)[i] = _table.getMissingByte();
+				else if (expected instanceof short[]) ((short[]) expected)[i] = (short) _table.getMissingInt();
+				else if (expected instanceof int[]) ((int[]) expected)[i] = _table.getMissingInt();
+				else if (expected instanceof long[]) ((long[]) expected)[i] = _table.getMissingInt();
+				else if (expected instanceof float[]) ((float[]) expected)[i] = (float) _table.getMissingDouble();
+				else ((double[]) expected)[i] = _table.getMissingDouble();
+			}
+
+			ColumnExpression ce = new ColumnExpression(_table);
+			ce.setExpression(expression);
+			Object actual = ce.evaluate();
+
+			String where = expression + " (" + _numRows + " rows)";
+			assertEquals(where, expected.getClass(), actual.getClass());
+			assertEquals(where, _numRows, Array.getLength(actual));
+
+			for (int i = 0; i < _numRows; i++) {
+				Object e = Array.get(expected, i);
+				Object a = Array.get(actual, i);
+
+				boolean same;
+				if (e instanceof Double)
+					same = Double.doubleToRawLongBits((Double) e) == Double.doubleToRawLongBits((Double) a);
+				else if (e instanceof Float)
+					same = Float.floatToRawIntBits((Float) e) == Float.floatToRawIntBits((Float) a);
+				else
+					same = e.equals(a);
+
+				if (!same)
+					fail(where + " row " + i + ": expected " + e + " but was " + a);
+			}
+
+			assertTrue(where + " missing values", Arrays.equals(missing, ce.getMissingValues()));
+		}
+
+		//----------------------------------------------------------------------------------------
+
+		/** 0: byte, 1: short, 2: int, 3: long, 4: float, 5: double */
+		private static int typeOf(Object values) {
+			Class<?> type = values.getClass().getComponentType();
+			if (type == Byte.TYPE) return 0;
+			if (type == Short.TYPE) return 1;
+			if (type == Integer.TYPE) return 2;
+			if (type == Long.TYPE) return 3;
+			if (type == Float.TYPE) return 4;
+
+			return 5;
+		}
+
+		private static int resultType(Object left, Object right) {
+			int l = typeOf(left), r = typeOf(right);
+			if ((l == 4 && r == 3) || (l == 3 && r == 4)) return 5;
+
+			return Math.max(l, r);
+		}
+
+		private static Class<?> componentType(int type) {
+			switch (type) {
+				case 0: return Byte.TYPE;
+				case 1: return Short.TYPE;
+				case 2: return Integer.TYPE;
+				case 3: return Long.TYPE;
+				case 4: return Float.TYPE;
+				default: return Double.TYPE;
+			}
+		}
+
+		private static int intOp(char op, int l, int r) {
+			switch (op) {
+				case '+': return l + r;
+				case '-': return l - r;
+				case '*': return l * r;
+				case '/': return l / r;
+				default: return l % r;
+			}
+		}
+
+		private static long longOp(char op, long l, long r) {
+			switch (op) {
+				case '+': return l + r;
+				case '-': return l - r;
+				case '*': return l * r;
+				case '/': return l / r;
+				default: return l % r;
+			}
+		}
+
+		private static float floatOp(char op, float l, float r) {
+			switch (op) {
+				case '+': return l + r;
+				case '-': return l - r;
+				case '*': return l * r;
+				case '/': return l / r;
+				default: return l % r;
+			}
+		}
+
+		private static double doubleOp(char op, double l, double r) {
+			switch (op) {
+				case '+': return l + r;
+				case '-': return l - r;
+				case '*': return l * r;
+				case '/': return l / r;
+				default: return l % r;
+			}
+		}
+	}
+}
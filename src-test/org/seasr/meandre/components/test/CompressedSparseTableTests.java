@@ -0,0 +1,333 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.datatypes.datamining.table.Column;
+import org.seasr.datatypes.datamining.table.Table;
+import org.seasr.datatypes.datamining.table.sparse.CompressedSparseTable;
+import org.seasr.datatypes.datamining.table.sparse.SparseMutableTable;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseDoubleColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseIntColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseLongColumn;
+import org.seasr.datatypes.datamining.table.sparse.columns.SparseStringColumn;
+
+/**
+ * Checks that a compressed sparse table holds the same cells as the sparse table it
+ * was built from, and that its dot products match the ones computed cell by cell.
+ */
+public class CompressedSparseTableTests {
+
+	private static final int[] NUM_ROWS = { 0, 1, 63, 64, 65, 300 };
+
+	/** The column types of the tables built by {@link #randomTable(int, Random)} */
+	private static final int DOUBLE = 0, INT = 1, LONG = 2, STRING = 3;
+	private static final int[] TYPES = { DOUBLE, INT, STRING, LONG, DOUBLE, INT, DOUBLE };
+
+
+	@Test
+	public void testCells() {
+		for (int numRows : NUM_ROWS) {
+			SparseMutableTable source = randomTable(numRows, new Random(numRows));
+			CompressedSparseTable table = new CompressedSparseTable(source);
+
+			assertSameCells(source, table);
+			assertSameCells(source, table.toSparseTable());
+		}
+	}
+
+	@Test
+	public void testRowIndices() {
+		for (int numRows : NUM_ROWS) {
+			SparseMutableTable source = randomTable(numRows, new Random(numRows + 1));
+			CompressedSparseTable table = new CompressedSparseTable(source);
+
+			for (int r = 0; r < numRows; r++) {
+				int[] expected = source.getRowIndices(r).clone();
+				Arrays.sort(expected);
+				assertTrue("row " + r, Arrays.equals(expected, table.getRowIndices(r)));
+
+				int p = table.getRowStart(r);
+				for (int c : expected)
+					assertEquals(c, table.getRowEntryColumn(p++));
+				assertEquals(table.getRowEnd(r), p);
+			}
+
+			for (int c = 0; c < TYPES.length; c++) {
+				int q = table.getColumnStart(c);
+				for (int r = 0; r < numRows; r++)
+					if (source.doesValueExist(r, c))
+						assertEquals(r, table.getColumnEntryRow(q++));
+				assertEquals(table.getColumnEnd(c), q);
+			}
+		}
+	}
+
+	@Test
+	public void testDotProducts() {
+		for (int numRows : NUM_ROWS) {
+			Random random = new Random(numRows + 2);
+			SparseMutableTable source = randomTable(numRows, random);
+			CompressedSparseTable table = new CompressedSparseTable(source);
+
+			double[] byColumn = new double[TYPES.length];
+			for (int c = 0; c < byColumn.length; c++)
+				byColumn[c] = random.nextDouble() - 0.5;
+			double[] byRow = new double[numRows];
+			for (int r = 0; r < numRows; r++)
+				byRow[r] = random.nextDouble() - 0.5;
+
+			for (int r1 = 0; r1 < numRows; r1++) {
+				assertEquals(dotRow(source, r1, byColumn), table.dotRow(r1, byColumn), 0);
+				for (int r2 = r1; r2 < Math.min(numRows, r1 + 5); r2++)
+					assertEquals(dotRows(source, r1, r2), table.dotRows(r1, r2), 0);
+			}
+
+			for (int c1 = 0; c1 < TYPES.length; c1++) {
+				assertEquals(dotColumn(source, c1, byRow), table.dotColumn(c1, byRow), 0);
+				for (int c2 = 0; c2 < TYPES.length; c2++)
+					assertEquals(dotColumns(source, c1, c2), table.dotColumns(c1, c2), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testSubset() {
+		for (int numRows : NUM_ROWS) {
+			SparseMutableTable source = randomTable(numRows, new Random(numRows + 3));
+			CompressedSparseTable table = new CompressedSparseTable(source);
+
+			// reversed, with every third row repeated
+			List<Integer> picked = new ArrayList<Integer>();
+			for (int r = numRows - 1; r >= 0; r--) {
+				picked.add(r);
+				if (r % 3 == 0) picked.add(r);
+			}
+			int[] rows = new int[picked.size()];
+			for (int i = 0; i < rows.length; i++)
+				rows[i] = picked.get(i);
+
+			Table subset = table.getSubset(rows);
+			assertEquals(rows.length, subset.getNumRows());
+
+			for (int i = 0; i < rows.length; i++)
+				for (int c = 0; c < TYPES.length; c++) {
+					assertEquals(table.getObject(rows[i], c), subset.getObject(i, c));
+					assertEquals(table.isValueMissing(rows[i], c), subset.isValueMissing(i, c));
+					assertEquals(table.isValueEmpty(rows[i], c), subset.isValueEmpty(i, c));
+				}
+		}
+	}
+
+	@Test
+	public void testLongPrecision() {
+		long[] values = { (1L << 53) + 1, Long.MAX_VALUE, Long.MIN_VALUE + 1, -((1L << 60) + 3), 7 };
+		int[] rows = { 0, 2, 3, 5, 6 };
+
+		SparseMutableTable source = new SparseMutableTable();
+		source.addColumn(new SparseLongColumn(values, rows));
+		source.addColumn(new SparseDoubleColumn(new double[] { 0.5 }, new int[] { 2 }));
+
+		CompressedSparseTable table = new CompressedSparseTable(source);
+		SparseMutableTable back = table.toSparseTable();
+
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], table.getLong(rows[i], 0));
+			assertEquals(new Long(values[i]), table.getObject(rows[i], 0));
+			assertEquals(Long.toString(values[i]), table.getString(rows[i], 0));
+			assertEquals(values[i], back.getLong(rows[i], 0));
+		}
+
+		// the dot products still see the column, as doubles
+		assertEquals((double) Long.MAX_VALUE, table.dotRow(2, new double[] { 1, 0 }), 0);
+		assertEquals(0.5 * (double) Long.MAX_VALUE, table.dotColumns(0, 1), 0);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Builds a table with about a third of its cells set; a few of the set cells are also
+	 * flagged as missing or empty
+	 */
+	private static SparseMutableTable randomTable(int numRows, Random random) {
+		SparseMutableTable table = new SparseMutableTable();
+
+		for (int c = 0; c < TYPES.length; c++) {
+			List<Integer> rows = new ArrayList<Integer>();
+			for (int r = 0; r < numRows; r++)
+				if (random.nextInt(3) == 0)
+					rows.add(r);
+
+			// rows are added out of order, as a hash map based column would hand them out
+			int[] validRows = new int[rows.size()];
+			for (int i = 0; i < validRows.length; i++)
+				validRows[i] = rows.get(i);
+			shuffle(validRows, random);
+
+			Column column;
+			switch (TYPES[c]) {
+				case DOUBLE: {
+					double[] data = new double[validRows.length];
+					for (int i = 0; i < data.length; i++)
+						data[i] = (random.nextDouble() - 0.5) * 100;
+					column = new SparseDoubleColumn(data, validRows);
+					break;
+				}
+
+				case INT: {
+					int[] data = new int[validRows.length];
+					for (int i = 0; i < data.length; i++)
+						data[i] = random.nextInt(2001) - 1000;
+					column = new SparseIntColumn(data, validRows);
+					break;
+				}
+
+				case LONG: {
+					long[] data = new long[validRows.length];
+					for (int i = 0; i < data.length; i++)
+						data[i] = random.nextLong();
+					column = new SparseLongColumn(data, validRows);
+					break;
+				}
+
+				default: {
+					String[] data = new String[validRows.length];
+					for (int i = 0; i < data.length; i++)
+						data[i] = "s" + random.nextInt(50);
+					column = new SparseStringColumn(data, validRows);
+					break;
+				}
+			}
+
+			table.addColumn(column);
+
+			for (int i = 0; i < validRows.length; i++) {
+				int flag = random.nextInt(10);
+				if (flag == 0)
+					table.setValueToMissing(true, validRows[i], c);
+				else if (flag == 1)
+					table.setValueToEmpty(true, validRows[i], c);
+			}
+		}
+
+		if (table.getNumRows() < numRows)
+			table.addRows(numRows - table.getNumRows());
+
+		return table;
+	}
+
+	private static void shuffle(int[] values, Random random) {
+		for (int i = values.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = values[i]; values[i] = values[j]; values[j] = tmp;
+		}
+	}
+
+	private static void assertSameCells(Table expected, Table actual) {
+		assertEquals(expected.getNumRows(), actual.getNumRows());
+		assertEquals(expected.getNumColumns(), actual.getNumColumns());
+
+		for (int c = 0; c < expected.getNumColumns(); c++) {
+			assertEquals(expected.getColumnType(c), actual.getColumnType(c));
+
+			for (int r = 0; r < expected.getNumRows(); r++) {
+				String cell = "cell (" + r + ", " + c + ")";
+				assertEquals(cell, expected.getObject(r, c), actual.getObject(r, c));
+				assertEquals(cell, expected.getString(r, c), actual.getString(r, c));
+				assertEquals(cell, expected.isValueMissing(r, c), actual.isValueMissing(r, c));
+				assertEquals(cell, expected.isValueEmpty(r, c), actual.isValueEmpty(r, c));
+
+				if (TYPES[c] == LONG)
+					assertEquals(cell, expected.getLong(r, c), actual.getLong(r, c));
+				else if (TYPES[c] != STRING)
+					assertEquals(cell, expected.getDouble(r, c), actual.getDouble(r, c), 0);
+			}
+		}
+	}
+
+	private static boolean isNumeric(int c) {
+		return TYPES[c] != STRING;
+	}
+
+	private static double dotRow(SparseMutableTable table, int row, double[] vector) {
+		double sum = 0;
+		for (int c = 0; c < TYPES.length; c++)
+			if (isNumeric(c) && table.doesValueExist(row, c))
+				sum += table.getDouble(row, c) * vector[c];
+		return sum;
+	}
+
+	private static double dotRows(SparseMutableTable table, int row1, int row2) {
+		double sum = 0;
+		for (int c = 0; c < TYPES.length; c++)
+			if (isNumeric(c) && table.doesValueExist(row1, c) && table.doesValueExist(row2, c))
+				sum += table.getDouble(row1, c) * table.getDouble(row2, c);
+		return sum;
+	}
+
+	private static double dotColumn(SparseMutableTable table, int column, double[] vector) {
+		double sum = 0;
+		if (isNumeric(column))
+			for (int r = 0; r < table.getNumRows(); r++)
+				if (table.doesValueExist(r, column))
+					sum += table.getDouble(r, column) * vector[r];
+		return sum;
+	}
+
+	private static double dotColumns(SparseMutableTable table, int column1, int column2) {
+		double sum = 0;
+		if (isNumeric(column1) && isNumeric(column2))
+			for (int r = 0; r < table.getNumRows(); r++)
+				if (table.doesValueExist(r, column1) && table.doesValueExist(r, column2))
+					sum += table.getDouble(r, column1) * table.getDouble(r, column2);
+		return sum;
+	}
+}
@@ -0,0 +1,199 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.meandre.support.components.tuples.ExternalTupleSorter;
+import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
+import org.seasr.meandre.support.components.tuples.TupleSortOrder;
+
+/**
+ * Checks the external sorter against a stable in-memory sort, with no run, one run and many
+ * runs spilled to disk, and in top-K mode.
+ */
+public class ExternalTupleSorterTests {
+
+	private static final SimpleTuplePeer PEER = TuplePeerRegistry.getPeer("count", "token", "id");
+
+	/** Few distinct values, so that many tuples tie on both sort fields */
+	private static final String[] COUNTS = { "3", "10", "-1", "2.5", "x", "", "10.0" };
+	private static final String[] TOKENS = { "b", "a", "B", "" };
+
+	/** count desc numeric, then token ascending (lexical); ties keep the input order */
+	private static final Comparator<Strings> ORDER = new Comparator<Strings>() {
+		public int compare(Strings t1, Strings t2) {
+			double n1 = number(t1.getValue(0)), n2 = number(t2.getValue(0));
+			if (Double.isNaN(n1) != Double.isNaN(n2))
+				return Double.isNaN(n1) ? 1 : -1;
+			if (!Double.isNaN(n1) && n1 != n2)
+				return (n1 > n2) ? -1 : 1;
+
+			return t1.getValue(1).compareTo(t2.getValue(1));
+		}
+	};
+
+
+	@Test
+	public void testEmpty() throws Exception {
+		for (int maxInMemory : new int[] { -1, 1, 10 }) {
+			ExternalTupleSorter sorter = new ExternalTupleSorter(order(), maxInMemory, -1, null);
+			assertEquals(0, sort(sorter).size());
+			assertEquals(0, sorter.getRunCount());
+		}
+
+		assertEquals(0, sort(new ExternalTupleSorter(order(), -1, 5, null)).size());
+	}
+
+	@Test
+	public void testRuns() throws Exception {
+		File spillDir = new File(System.getProperty("java.io.tmpdir"), "sorter_" + System.nanoTime());
+		assertTrue(spillDir.mkdirs());
+
+		try {
+			for (int n : new int[] { 1, 2, 100, 1000 })
+				// no limit, one tuple per run, and limits around n (exactly one run, one run plus a buffer)
+				for (int maxInMemory : new int[] { -1, 1, 7, 64, n - 1, n, n + 1 }) {
+					List<Strings> tuples = randomTuples(new Random(n * 31 + maxInMemory), n);
+					ExternalTupleSorter sorter = new ExternalTupleSorter(order(), maxInMemory, -1, spillDir);
+					for (Strings tuple : tuples)
+						sorter.add(tuple);
+
+					int expectedRuns = (maxInMemory > 0) ? n / maxInMemory : 0;
+					assertEquals(expectedRuns, sorter.getRunCount());
+					assertEquals(expectedRuns, spillDir.list().length);
+					assertEquals(n, sorter.getCount());
+
+					assertEquals("n=" + n + ", max " + maxInMemory, ids(stableSort(tuples)), ids(sort(sorter)));
+
+					// the runs are deleted once merged
+					assertEquals(0, spillDir.list().length);
+					assertEquals(0, sorter.getCount());
+				}
+		}
+		finally {
+			for (File file : spillDir.listFiles())
+				file.delete();
+			spillDir.delete();
+		}
+	}
+
+	@Test
+	public void testTopK() throws Exception {
+		for (int n : new int[] { 1, 10, 500 })
+			for (int k : new int[] { 1, 2, 9, 10, 11, 499, 500, 501 }) {
+				List<Strings> tuples = randomTuples(new Random(n * 17 + k), n);
+				ExternalTupleSorter sorter = new ExternalTupleSorter(order(), 3, k, null);
+				for (Strings tuple : tuples)
+					sorter.add(tuple);
+
+				// nothing is spilled in top-K mode
+				assertEquals(0, sorter.getRunCount());
+
+				List<String> expected = ids(stableSort(tuples));
+				assertEquals("n=" + n + ", k=" + k, expected.subList(0, Math.min(k, n)), ids(sort(sorter)));
+			}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static TupleSortOrder order() {
+		return TupleSortOrder.parse("count desc numeric, token", PEER, Locale.US);
+	}
+
+	private static List<Strings> randomTuples(Random random, int count) {
+		List<Strings> tuples = new ArrayList<Strings>(count);
+		for (int i = 0; i < count; i++)
+			tuples.add(BasicDataTypesTools.stringToStrings(new String[] {
+					COUNTS[random.nextInt(COUNTS.length)], TOKENS[random.nextInt(TOKENS.length)], Integer.toString(i) }));
+
+		return tuples;
+	}
+
+	private static List<Strings> stableSort(List<Strings> tuples) {
+		List<Strings> sorted = new ArrayList<Strings>(tuples);
+		// Collections.sort is a stable merge sort
+		Collections.sort(sorted, ORDER);
+		return sorted;
+	}
+
+	private static List<Strings> sort(ExternalTupleSorter sorter) throws Exception {
+		final List<Strings> output = new ArrayList<Strings>();
+		sorter.sort(new ExternalTupleSorter.Output() {
+			public void write(Strings tuple) {
+				output.add(tuple);
+			}
+		});
+
+		return output;
+	}
+
+	private static List<String> ids(List<Strings> tuples) {
+		List<String> ids = new ArrayList<String>(tuples.size());
+		for (Strings tuple : tuples)
+			ids.add(tuple.getValue(2));
+		return ids;
+	}
+
+	private static double number(String value) {
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.meandre.support.components.tuples.GroupCounter;
+import org.seasr.meandre.support.components.tuples.PartitionedGroupCounter;
+
+/**
+ * Checks the group counters against a map of the keys to their counts.
+ */
+public class GroupCounterTests {
+
+	@Test
+	public void testEmpty() throws Exception {
+		GroupCounter counter = new GroupCounter(2);
+		assertEquals(0, counter.size());
+		assertEquals(0, counter.topEntries(10, 0).length);
+		assertEquals(0, counter.topEntries(-1, 0).length);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		counter.writeTo(new DataOutputStream(bytes));
+		GroupCounter copy = new GroupCounter(2);
+		copy.addFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(0, copy.size());
+	}
+
+	@Test
+	public void testCounts() {
+		for (int width = 1; width <= 3; width++) {
+			Random random = new Random(width);
+			GroupCounter counter = new GroupCounter(width);
+			Map<List<Long>, Long> expected = new LinkedHashMap<List<Long>, Long>();
+
+			// enough distinct keys to grow and rehash several times
+			for (int i = 0; i < 20000; i++) {
+				long[] key = randomKey(random, width, 3000);
+				long count = 1 + random.nextInt(3);
+
+				boolean isNew = !expected.containsKey(asList(key));
+				int entry = counter.add(key, count);
+				add(expected, asList(key), count);
+
+				// new keys are numbered in the order they are first seen
+				if (isNew)
+					assertEquals(expected.size() - 1, entry);
+			}
+
+			assertSameCounts(expected, counter);
+		}
+	}
+
+	@Test
+	public void testClear() {
+		GroupCounter counter = new GroupCounter(1);
+		for (long k = 0; k < 100; k++)
+			counter.add(new long[] { k }, 5);
+
+		counter.clear();
+		assertEquals(0, counter.size());
+
+		assertEquals(0, counter.add(new long[] { 42 }, 1));
+		assertEquals(1, counter.add(new long[] { 7 }, 2));
+		assertEquals(0, counter.add(new long[] { 42 }, 1));
+		assertEquals(2, counter.getCount(0));
+		assertEquals(2, counter.getCount(1));
+	}
+
+	@Test
+	public void testTopEntries() {
+		Random random = new Random(1);
+		GroupCounter counter = new GroupCounter(1);
+		// few distinct counts, so that there are many ties
+		for (long k = 0; k < 500; k++)
+			counter.add(new long[] { k }, 1 + random.nextInt(8));
+
+		List<Long> counts = new ArrayList<Long>();
+		for (int entry = 0; entry < counter.size(); entry++)
+			counts.add(counter.getCount(entry));
+		Collections.sort(counts, Collections.reverseOrder());
+
+		for (int n : new int[] { 0, 1, 2, 10, 63, 64, 65, 499, 500, 501, -1 }) {
+			int[] top = counter.topEntries(n, 0);
+			int expectedLength = (n < 0 || n > 500) ? 500 : n;
+			assertEquals(expectedLength, top.length);
+
+			boolean[] seen = new boolean[counter.size()];
+			for (int i = 0; i < top.length; i++) {
+				assertEquals("n=" + n + ", rank " + i, (long) counts.get(i), counter.getCount(top[i]));
+				assertTrue(!seen[top[i]]);
+				seen[top[i]] = true;
+			}
+		}
+
+		// entries under the minimum count are left out
+		int[] top = counter.topEntries(-1, 5);
+		int atLeast5 = 0;
+		for (long count : counts)
+			if (count >= 5) atLeast5++;
+		assertEquals(atLeast5, top.length);
+		for (int entry : top)
+			assertTrue(counter.getCount(entry) >= 5);
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		Random random = new Random(2);
+		GroupCounter left = new GroupCounter(2);
+		GroupCounter right = new GroupCounter(2, 1000);
+		Map<List<Long>, Long> expected = new LinkedHashMap<List<Long>, Long>();
+
+		for (int i = 0; i < 5000; i++) {
+			long[] key = randomKey(random, 2, 800);
+			(i % 2 == 0 ? left : right).add(key, 1);
+		}
+		for (int entry = 0; entry < left.size(); entry++)
+			add(expected, key(left, entry), left.getCount(entry));
+		for (int entry = 0; entry < right.size(); entry++)
+			add(expected, key(right, entry), right.getCount(entry));
+
+		GroupCounter merged = new GroupCounter(2);
+		merged.addAll(left);
+		merged.addAll(right);
+		assertSameCounts(expected, merged);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		left.writeTo(new DataOutputStream(bytes));
+		right.writeTo(new DataOutputStream(bytes));
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		GroupCounter read = new GroupCounter(2);
+		read.addFrom(in);
+		read.addFrom(in);
+		assertSameCounts(expected, read);
+	}
+
+	@Test
+	public void testPartitions() throws Exception {
+		File spillDir = new File(System.getProperty("java.io.tmpdir"), "groupcounter_" + System.nanoTime());
+		assertTrue(spillDir.mkdirs());
+
+		try {
+			for (int maxKeys : new int[] { -1, 1, 64, 1000 }) {
+				Random random = new Random(maxKeys + 10);
+				PartitionedGroupCounter counter = new PartitionedGroupCounter(2, 4, maxKeys, spillDir);
+				Map<List<Long>, Long> expected = new HashMap<List<Long>, Long>();
+
+				for (int i = 0; i < 10000; i++) {
+					long[] key = randomKey(random, 2, 1500);
+					counter.add(key);
+					add(expected, asList(key), 1);
+				}
+
+				Map<List<Long>, Long> actual = new HashMap<List<Long>, Long>();
+				for (int p = 0; p < counter.getPartitionCount(); p++) {
+					GroupCounter partition = counter.takePartition(p);
+					for (int entry = 0; entry < partition.size(); entry++) {
+						List<Long> key = key(partition, entry);
+						assertEquals(p, PartitionedGroupCounter.partitionFor(partition.getHash(entry), 4));
+						// all the counts of a key, spilled or not, are merged in one entry
+						assertEquals(null, actual.put(key, partition.getCount(entry)));
+					}
+				}
+
+				assertEquals(expected, actual);
+				assertEquals(0, spillDir.list().length);
+				counter.dispose();
+			}
+		}
+		finally {
+			for (File file : spillDir.listFiles())
+				file.delete();
+			spillDir.delete();
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static long[] randomKey(Random random, int width, int distinct) {
+		long[] key = new long[width];
+		int id = random.nextInt(distinct);
+		for (int i = 0; i < width; i++)
+			key[i] = (i == 0) ? id : id * 31L + i;
+		return key;
+	}
+
+	private static List<Long> asList(long[] key) {
+		List<Long> list = new ArrayList<Long>(key.length);
+		for (long k : key)
+			list.add(k);
+		return list;
+	}
+
+	private static List<Long> key(GroupCounter counter, int entry) {
+		long[] key = new long[counter.getWidth()];
+		counter.getKey(entry, key, 0);
+		for (int i = 0; i < key.length; i++)
+			assertEquals(key[i], counter.getKey(entry, i));
+		return asList(key);
+	}
+
+	private static void add(Map<List<Long>, Long> counts, List<Long> key, long count) {
+		Long current = counts.get(key);
+		counts.put(key, (current != null) ? current + count : count);
+	}
+
+	private static void assertSameCounts(Map<List<Long>, Long> expected, GroupCounter counter) {
+		assertEquals(expected.size(), counter.size());
+
+		int entry = 0;
+		for (Map.Entry<List<Long>, Long> e : expected.entrySet()) {
+			if (expected instanceof LinkedHashMap)
+				assertEquals(e.getKey(), key(counter, entry++));
+
+			long[] key = new long[e.getKey().size()];
+			for (int i = 0; i < key.length; i++)
+				key[i] = e.getKey().get(i);
+			assertEquals(GroupCounter.hash(key, 0, key.length), counter.getHash(counter.add(key, 0)));
+			assertEquals((long) e.getValue(), counter.getCount(counter.add(key, 0)));
+		}
+
+		assertEquals(expected.size(), counter.size());
+	}
+}
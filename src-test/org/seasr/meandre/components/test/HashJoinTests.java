@@ -0,0 +1,209 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.meandre.support.components.tuples.HashJoin;
+
+/**
+ * Checks the hash join against a nested loop join, in memory and with partitions spilled to disk.
+ */
+public class HashJoinTests {
+
+	/** "Aa" and "BB" have the same String.hashCode() */
+	private static final String[] KEYS = { "Aa", "BB", "c", "d", "", "e f" };
+
+	private static final int[] SIZES = { 0, 1, 2, 17, 150 };
+
+
+	@Test
+	public void testInMemory() throws Exception {
+		for (HashJoin.Type type : HashJoin.Type.values())
+			for (int leftSize : SIZES)
+				for (int rightSize : SIZES) {
+					Random random = new Random(leftSize * 1000 + rightSize);
+					List<Strings> left = randomTuples(random, leftSize, "l");
+					List<Strings> right = randomTuples(random, rightSize, "r");
+
+					for (int[][] fields : new int[][][] { { { 0 }, { 1 } }, { { 0, 2 }, { 1, 0 } } }) {
+						List<String> expected = nestedLoopJoin(type, left, right, fields[0], fields[1], left.size() >= right.size());
+						List<String> actual = join(new HashJoin(type, fields[0], fields[1], -1, null), left, right);
+
+						// the output follows the order of the larger side
+						assertEquals(type + " " + leftSize + "x" + rightSize, expected, actual);
+					}
+				}
+	}
+
+	@Test
+	public void testSpilled() throws Exception {
+		File spillDir = new File(System.getProperty("java.io.tmpdir"), "hashjoin_" + System.nanoTime());
+		assertTrue(spillDir.mkdirs());
+
+		try {
+			for (HashJoin.Type type : HashJoin.Type.values())
+				for (int maxBuildRows : new int[] { 1, 10, 100 }) {
+					Random random = new Random(maxBuildRows);
+					List<Strings> left = randomTuples(random, 300, "l");
+					List<Strings> right = randomTuples(random, 200, "r");
+					int[] leftFields = { 0, 2 };
+					int[] rightFields = { 1, 0 };
+
+					// with partitions, the order is the partition order: compare the tuples only
+					List<String> expected = nestedLoopJoin(type, left, right, leftFields, rightFields, true);
+					List<String> actual = join(new HashJoin(type, leftFields, rightFields, maxBuildRows, spillDir), left, right);
+					Collections.sort(expected);
+					Collections.sort(actual);
+
+					assertEquals(type + " max " + maxBuildRows, expected, actual);
+					assertEquals(0, spillDir.list().length);
+				}
+		}
+		finally {
+			for (File file : spillDir.listFiles())
+				file.delete();
+			spillDir.delete();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFieldMismatch() {
+		new HashJoin(HashJoin.Type.INNER, new int[] { 0 }, new int[] { 0, 1 }, -1, null);
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * @return Tuples of 3 fields; the first two are drawn from a few keys, so that there are
+	 *         many matches per key, the third one identifies the tuple
+	 */
+	private static List<Strings> randomTuples(Random random, int count, String prefix) {
+		List<Strings> tuples = new ArrayList<Strings>(count);
+		for (int i = 0; i < count; i++)
+			tuples.add(BasicDataTypesTools.stringToStrings(new String[] {
+					KEYS[random.nextInt(KEYS.length)], KEYS[random.nextInt(KEYS.length)], prefix + i }));
+
+		// the third field also takes part in the two field join: give some tuples a shared value
+		for (int i = 0; i < count; i += 3)
+			tuples.set(i, BasicDataTypesTools.stringToStrings(new String[] {
+					tuples.get(i).getValue(0), tuples.get(i).getValue(1), KEYS[i % KEYS.length] }));
+
+		return tuples;
+	}
+
+	private static List<String> join(HashJoin join, List<Strings> left, List<Strings> right) throws Exception {
+		final List<String> output = new ArrayList<String>();
+		join.join(left, right, new HashJoin.Output() {
+			public void write(Strings l, Strings r) {
+				output.add(format(l, r));
+			}
+		});
+
+		return output;
+	}
+
+	/**
+	 * @param leftMajor True to output in the order of the left tuples, false for the order of the right tuples
+	 */
+	private static List<String> nestedLoopJoin(HashJoin.Type type, List<Strings> left, List<Strings> right,
+			int[] leftFields, int[] rightFields, boolean leftMajor) {
+
+		List<String> output = new ArrayList<String>();
+		boolean[] matched = new boolean[left.size()];
+
+		if (leftMajor)
+			for (int l = 0; l < left.size(); l++) {
+				for (Strings r : right)
+					if (matches(left.get(l), leftFields, r, rightFields)) {
+						if (type != HashJoin.Type.SEMI)
+							output.add(format(left.get(l), r));
+						else
+							if (!matched[l])
+								output.add(format(left.get(l), null));
+						matched[l] = true;
+					}
+
+				if (type == HashJoin.Type.LEFT && !matched[l])
+					output.add(format(left.get(l), null));
+			}
+		else {
+			for (Strings r : right)
+				for (int l = 0; l < left.size(); l++)
+					if (matches(left.get(l), leftFields, r, rightFields)) {
+						if (type != HashJoin.Type.SEMI)
+							output.add(format(left.get(l), r));
+						matched[l] = true;
+					}
+
+			// then the unmatched (LEFT) or the matched (SEMI) left tuples, in order
+			for (int l = 0; l < left.size(); l++)
+				if ((type == HashJoin.Type.LEFT && !matched[l]) || (type == HashJoin.Type.SEMI && matched[l]))
+					output.add(format(left.get(l), null));
+		}
+
+		return output;
+	}
+
+	private static boolean matches(Strings left, int[] leftFields, Strings right, int[] rightFields) {
+		for (int i = 0; i < leftFields.length; i++)
+			if (!left.getValue(leftFields[i]).equals(right.getValue(rightFields[i])))
+				return false;
+
+		return true;
+	}
+
+	private static String format(Strings left, Strings right) {
+		return left.getValueList() + " | " + ((right != null) ? right.getValueList() : "null");
+	}
+}
@@ -0,0 +1,239 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Build check that flags debug logging (fine, finer, finest) which builds its message
+ * with String.format or string concatenation inside a loop, without first checking
+ * console.isLoggable(...) - such calls pay for the message on every iteration even
+ * when the level is off.
+ *
+ * A call is considered guarded when it is inside an 'if' that calls isLoggable(...), or that
+ * tests a boolean variable initialized from isLoggable(...). The check works on the source
+ * text (one statement per line, as in the rest of the code base), not on a parse tree.
+ *
+ * Usage: LoggingGuardCheck folder...  (exits with status 1 if anything is flagged)
+ */
+public class LoggingGuardCheck {
+
+    private static final Pattern LOOP = Pattern.compile("^\\s*(\\}\\s*)?(for|while)\\s*\\(|^\\s*do\\s*(\\{|$)");
+    private static final Pattern IF = Pattern.compile("\\bif\\s*\\((.*)");
+    private static final Pattern GUARD_VAR = Pattern.compile("\\bboolean\\s+(\\w+)\\s*=.*isLoggable\\s*\\(");
+    private static final Pattern DEBUG_LOG = Pattern.compile(
+            "\\.(fine|finer|finest)\\s*\\(|\\.log\\s*\\(\\s*Level\\.(FINE|FINER|FINEST)\\b");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"(\\\\.|[^\"\\\\])*\"");
+
+    private enum Block { LOOP, GUARD, OTHER }
+
+
+    public static void main(String[] args) throws IOException {
+        List<String> problems = new ArrayList<String>();
+        for (String folder : args)
+            checkFolder(new File(folder), problems);
+
+        for (String problem : problems)
+            System.err.println(problem);
+
+        if (problems.size() > 0) {
+            System.err.println(String.format("%d unguarded debug logging call(s) inside loops - wrap them in " +
+                    "'if (console.isLoggable(Level.FINE...))'", problems.size()));
+            System.exit(1);
+        }
+    }
+
+    private static void checkFolder(File folder, List<String> problems) throws IOException {
+        File[] files = folder.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.isDirectory())
+                checkFolder(file, problems);
+            else
+                if (file.getName().endsWith(".java"))
+                    checkFile(file, problems);
+        }
+    }
+
+    /**
+     * Flags the unguarded calls of a source file
+     *
+     * @param file The source file
+     * @param problems The list the problems are added to
+     * @throws IOException
+     */
+    public static void checkFile(File file, List<String> problems) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null)
+                lines.add(line);
+        }
+        finally {
+            reader.close();
+        }
+
+        Set<String> guardVars = new HashSet<String>();
+        for (String line : lines) {
+            Matcher m = GUARD_VAR.matcher(line);
+            if (m.find()) guardVars.add(m.group(1));
+        }
+
+        // each open block remembers what it is, together with the brace-less loops and
+        // guards (if/for/while without '{') it is nested in
+        LinkedList<Set<Block>> blocks = new LinkedList<Set<Block>>();
+        Set<Block> pending = EnumSet.noneOf(Block.class);   // loops and guards whose body has not started yet
+        boolean inComment = false;
+
+        for (int i = 0; i < lines.size(); i++) {
+            String code = stripComments(lines.get(i), inComment);
+            inComment = code.endsWith("/*");
+            if (inComment) code = code.substring(0, code.length() - 2);
+            if (code.trim().length() == 0) continue;
+
+            Block kind = null;
+            if (LOOP.matcher(code).find())
+                kind = Block.LOOP;
+            else {
+                Matcher m = IF.matcher(code);
+                if (m.find() && isGuard(m.group(1), guardVars))
+                    kind = Block.GUARD;
+            }
+
+            if (DEBUG_LOG.matcher(code).find() && buildsMessage(lines.get(i))) {
+                boolean inLoop = pending.contains(Block.LOOP) || isIn(blocks, Block.LOOP);
+                boolean guarded = pending.contains(Block.GUARD) || kind == Block.GUARD || isIn(blocks, Block.GUARD);
+                if (inLoop && !guarded)
+                    problems.add(String.format("%s:%d: %s", file.getPath(), i + 1, lines.get(i).trim()));
+            }
+
+            boolean opened = false;
+            for (int j = 0; j < code.length(); j++) {
+                char c = code.charAt(j);
+                if (c == '{') {
+                    Set<Block> block = EnumSet.copyOf(pending);
+                    block.add((kind != null) ? kind : Block.OTHER);
+                    blocks.push(block);
+                    kind = null;
+                    pending = EnumSet.noneOf(Block.class);
+                    opened = true;
+                } else
+                    if (c == '}' && !blocks.isEmpty())
+                        blocks.pop();
+            }
+
+            // a loop or guard without braces applies to the next statement only
+            if (kind != null && !opened && !code.trim().endsWith(";"))
+                pending.add(kind);
+            else
+                if (!opened && code.trim().endsWith(";"))
+                    pending.clear();
+        }
+    }
+
+    private static boolean isIn(List<Set<Block>> blocks, Block kind) {
+        for (Set<Block> block : blocks)
+            if (block.contains(kind)) return true;
+
+        return false;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static boolean isGuard(String condition, Set<String> guardVars) {
+        if (condition.contains("isLoggable")) return true;
+
+        for (String var : guardVars)
+            if (condition.matches("\\s*!?\\s*" + var + "\\b.*"))
+                return !condition.trim().startsWith("!");
+
+        return false;
+    }
+
+    private static boolean buildsMessage(String line) {
+        return line.contains("String.format") || STRING_LITERAL.matcher(line).replaceAll("\"\"").contains("+");
+    }
+
+    /**
+     * @return The code of the line without string literals and comments; ends with "/*" if a block comment remains open
+     */
+    private static String stripComments(String line, boolean inComment) {
+        String code = STRING_LITERAL.matcher(line).replaceAll("\"\"");
+        StringBuilder sb = new StringBuilder();
+
+        int i = 0;
+        while (i < code.length()) {
+            if (inComment) {
+                int end = code.indexOf("*/", i);
+                if (end < 0) return sb.append("/*").toString();
+                inComment = false;
+                i = end + 2;
+            } else {
+                if (code.startsWith("//", i)) break;
+                if (code.startsWith("/*", i)) {
+                    inComment = true;
+                    i += 2;
+                    continue;
+                }
+                sb.append(code.charAt(i++));
+            }
+        }
+
+        return inComment ? sb.append("/*").toString() : sb.toString();
+    }
+}
@@ -0,0 +1,290 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.datatypes.datamining.table.basic.RowMask;
+
+/**
+ * Checks the row bitmap used by the columns for their missing and empty values against
+ * a list of flags, at sizes around the word boundaries.
+ */
+public class RowMaskTests {
+
+	private static final int[] SIZES = { 0, 1, 2, 63, 64, 65, 127, 128, 129, 200 };
+
+
+	@Test
+	public void testValueOf() {
+		assertEquals(null, RowMask.valueOf(new boolean[0]));
+		assertEquals(null, RowMask.valueOf(new boolean[100]));
+
+		Random random = new Random(1);
+		for (int size : SIZES) {
+			for (int ones : new int[] { 1, size / 2, size }) {
+				if (size == 0 || ones == 0) continue;
+
+				boolean[] flags = flags(random, size, ones);
+				RowMask mask = RowMask.valueOf(flags);
+				assertMask(toList(flags), mask);
+				assertTrue(Arrays.equals(flags, mask.toArray(size)));
+
+				// rows beyond the last one are never set
+				assertTrue(!mask.get(size));
+				assertTrue(!mask.get(size + 64));
+			}
+		}
+	}
+
+	@Test
+	public void testSetAndNextSetBit() {
+		for (int size : SIZES) {
+			RowMask mask = new RowMask();
+			List<Boolean> expected = new ArrayList<Boolean>();
+			for (int i = 0; i < size; i++)
+				expected.add(false);
+
+			// the rows next to each word boundary, set from the top so the bitmap grows
+			for (int row = size - 1; row >= 0; row--) {
+				if (row % 64 == 0 || row % 64 == 63 || row == size - 1) {
+					mask.set(row, true);
+					expected.set(row, true);
+				}
+			}
+			assertMask(expected, mask);
+
+			// setting twice doesn't count twice, clearing an absent row doesn't count either
+			if (size > 0) {
+				mask.set(size - 1, true);
+				mask.set(size + 1000, false);
+				assertMask(expected, mask);
+			}
+
+			for (int row = 0; row < size; row++) {
+				mask.set(row, false);
+				expected.set(row, false);
+			}
+			assertMask(expected, mask);
+			assertTrue(mask.isEmpty());
+			assertEquals(-1, mask.nextSetBit(0));
+		}
+	}
+
+	@Test
+	public void testSubset() {
+		Random random = new Random(2);
+		for (int size : SIZES) {
+			if (size == 0) continue;
+
+			boolean[] flags = flags(random, size, size / 2 + 1);
+			RowMask mask = RowMask.valueOf(flags);
+
+			for (int pos : new int[] { 0, 1, 63, 64, 65, size - 1, size }) {
+				if (pos < 0 || pos > size) continue;
+
+				for (int len : new int[] { 0, 1, 63, 64, 65, size - pos, size - pos + 10 }) {
+					if (len < 0) continue;
+
+					List<Boolean> expected = new ArrayList<Boolean>();
+					for (int i = 0; i < len; i++)
+						expected.add(pos + i < size && flags[pos + i]);
+
+					assertMask(expected, mask.subset(pos, len));
+				}
+			}
+
+			int[] rows = new int[size];
+			List<Boolean> expected = new ArrayList<Boolean>();
+			for (int i = 0; i < size; i++) {
+				rows[i] = random.nextInt(size + 10);
+				expected.add(rows[i] < size && flags[rows[i]]);
+			}
+			assertMask(expected, mask.subset(rows));
+		}
+	}
+
+	@Test
+	public void testEdits() throws Exception {
+		Random random = new Random(3);
+		for (int size : SIZES) {
+			if (size == 0) continue;
+
+			boolean[] flags = flags(random, size, size / 3 + 1);
+			RowMask mask = RowMask.valueOf(flags);
+			List<Boolean> expected = toList(flags);
+
+			for (int step = 0; step < 2000; step++) {
+				int op = random.nextInt(6);
+				int n = expected.size();
+
+				if (op == 0) {
+					int row = random.nextInt(n + 1);
+					boolean value = random.nextBoolean();
+					mask.set(row, value);
+					if (row == n) expected.add(value);
+					else expected.set(row, value);
+				}
+				else if (op == 1 && n > 0) {
+					int row1 = random.nextInt(n), row2 = random.nextInt(n);
+					mask.swap(row1, row2);
+					expected.set(row1, expected.set(row2, expected.get(row1)));
+				}
+				else if (op == 2) {
+					int pos = boundary(random, n + 1);
+					mask.insert(pos);
+					expected.add(pos, false);
+				}
+				else if (op == 3 && n > 0) {
+					int pos = boundary(random, n);
+					mask.remove(pos);
+					expected.remove(pos);
+				}
+				else if (op == 4 && n > 0) {
+					boolean[] remove = flags(random, n, random.nextInt(Math.min(n, 5)) + 1);
+					RowMask rows = RowMask.valueOf(remove);
+					mask.removeAll(rows);
+					for (int i = n - 1; i >= 0; i--)
+						if (remove[i]) expected.remove(i);
+				}
+				else if (op == 5 && random.nextInt(10) == 0) {
+					int from = boundary(random, n + 1);
+					mask.clearFrom(from);
+					for (int i = from; i < n; i++)
+						expected.set(i, false);
+				}
+
+				assertMask(expected, mask);
+
+				// keep the sizes around the ones being tested
+				if (expected.size() > 2 * size + 64) {
+					mask.clearFrom(size);
+					expected.subList(size, expected.size()).clear();
+				}
+			}
+
+			RowMask copy = mask.copy();
+			assertMask(expected, copy);
+			assertMask(expected, serialize(mask));
+
+			// a copy doesn't share the bits
+			copy.set(0, !copy.get(0));
+			assertMask(expected, mask);
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	/**
+	 * Picks a row, often one next to a word boundary
+	 */
+	private static int boundary(Random random, int n) {
+		if (random.nextBoolean()) {
+			int row = random.nextInt(n / 64 + 1) * 64 + random.nextInt(3) - 1;
+			if (row >= 0 && row < n) return row;
+		}
+
+		return random.nextInt(n);
+	}
+
+	private static boolean[] flags(Random random, int size, int ones) {
+		boolean[] flags = new boolean[size];
+		for (int i = 0; i < ones; i++)
+			flags[random.nextInt(size)] = true;
+		flags[random.nextInt(size)] = true;
+
+		return flags;
+	}
+
+	private static List<Boolean> toList(boolean[] flags) {
+		List<Boolean> list = new ArrayList<Boolean>();
+		for (boolean flag : flags)
+			list.add(flag);
+
+		return list;
+	}
+
+	private static void assertMask(List<Boolean> expected, RowMask mask) {
+		int n = expected.size();
+		int cardinality = 0;
+		boolean[] flags = new boolean[n + 130];
+		for (int i = 0; i < n; i++) {
+			flags[i] = expected.get(i);
+			if (flags[i]) cardinality++;
+			assertEquals("row " + i, flags[i], mask.get(i));
+		}
+
+		assertEquals(cardinality, mask.cardinality());
+		assertEquals(cardinality == 0, mask.isEmpty());
+		assertTrue(Arrays.equals(flags, mask.toArray(flags.length)));
+
+		int next = mask.nextSetBit(0);
+		for (int i = 0; i < flags.length; i++) {
+			if (flags[i]) {
+				assertEquals(i, next);
+				next = mask.nextSetBit(i + 1);
+			}
+		}
+		assertEquals(-1, next);
+	}
+
+	private static RowMask serialize(RowMask mask) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(mask);
+		out.close();
+
+		return (RowMask) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+	}
+}
@@ -0,0 +1,182 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.seasr.meandre.support.components.tuples.ReservoirSampler;
+import org.seasr.meandre.support.components.tuples.Sampler;
+import org.seasr.meandre.support.components.tuples.WeightedReservoirSampler;
+
+/**
+ * Checks the reservoir samplers: the sample size, the items sampled, and (over many seeded
+ * trials) the probability of each item to be sampled, within 5 standard deviations.
+ */
+public class SamplerTests {
+
+	private static final int TRIALS = 20000;
+
+
+	@Test
+	public void testSizes() {
+		for (int k : new int[] { 1, 2, 10 })
+			for (int n : new int[] { 0, 1, k - 1, k, k + 1, 1000 }) {
+				List<Sampler<Integer>> samplers = new ArrayList<Sampler<Integer>>();
+				samplers.add(new ReservoirSampler<Integer>(k, new Random(n)));
+				samplers.add(new WeightedReservoirSampler<Integer>(k, new Random(n)));
+
+				for (Sampler<Integer> sampler : samplers) {
+					for (int i = 0; i < n; i++)
+						sampler.add(i, 1 + i % 3);
+
+					List<Integer> sample = sampler.getSample();
+					assertEquals(n, sampler.getCount());
+					assertEquals(Math.min(k, n), sample.size());
+					assertEquals(sample.size(), new HashSet<Integer>(sample).size());
+					for (int item : sample)
+						assertTrue(item >= 0 && item < n);
+				}
+
+				// until the reservoir is full, it holds the items in the order they came
+				if (n <= k) {
+					ReservoirSampler<Integer> sampler = new ReservoirSampler<Integer>(k, new Random(n));
+					List<Integer> items = new ArrayList<Integer>();
+					for (int i = 0; i < n; i++) {
+						sampler.add(i);
+						items.add(i);
+					}
+					assertEquals(items, sampler.getSample());
+				}
+			}
+
+		for (int size : new int[] { 0, -1 }) {
+			try {
+				new ReservoirSampler<Integer>(size, new Random());
+				fail("Accepted sample size " + size);
+			}
+			catch (IllegalArgumentException e) { }
+
+			try {
+				new WeightedReservoirSampler<Integer>(size, new Random());
+				fail("Accepted sample size " + size);
+			}
+			catch (IllegalArgumentException e) { }
+		}
+	}
+
+	@Test
+	public void testUniform() {
+		int n = 100, k = 10;
+		int[] reservoirHits = new int[n];
+		int[] weightedHits = new int[n];
+		Random random = new Random(1);
+
+		for (int trial = 0; trial < TRIALS; trial++) {
+			ReservoirSampler<Integer> reservoir = new ReservoirSampler<Integer>(k, random);
+			WeightedReservoirSampler<Integer> weighted = new WeightedReservoirSampler<Integer>(k, random);
+			for (int i = 0; i < n; i++) {
+				reservoir.add(i);
+				weighted.add(i, 2.5);
+			}
+
+			for (int item : reservoir.getSample())
+				reservoirHits[item]++;
+			for (int item : weighted.getSample())
+				weightedHits[item]++;
+		}
+
+		// every item, first or last, has a k/n chance of being sampled
+		for (int i = 0; i < n; i++) {
+			assertProbability("reservoir, item " + i, (double) k / n, reservoirHits[i]);
+			assertProbability("equal weights, item " + i, (double) k / n, weightedHits[i]);
+		}
+	}
+
+	@Test
+	public void testWeighted() {
+		double[] weights = { 1, 2, 3, 4, 0, -1, Double.NaN, 10 };
+		double total = 1 + 2 + 3 + 4 + 10;
+		int[] hits = new int[weights.length];
+		Random random = new Random(2);
+
+		for (int trial = 0; trial < TRIALS; trial++) {
+			WeightedReservoirSampler<Integer> sampler = new WeightedReservoirSampler<Integer>(1, random);
+			for (int i = 0; i < weights.length; i++)
+				sampler.add(i, weights[i]);
+
+			assertEquals(weights.length, sampler.getCount());
+			hits[sampler.getSample().get(0)]++;
+		}
+
+		// with a sample of one, an item is picked with a probability proportional to its weight
+		for (int i = 0; i < weights.length; i++)
+			if (weights[i] > 0)
+				assertProbability("weight " + weights[i], weights[i] / total, hits[i]);
+			else
+				assertEquals("weight " + weights[i], 0, hits[i]);
+
+		// items without a positive weight are never sampled, even to fill the sample
+		WeightedReservoirSampler<Integer> sampler = new WeightedReservoirSampler<Integer>(5, random);
+		for (int i = 0; i < weights.length; i++)
+			sampler.add(i, weights[i] > 0 ? 0 : 1);
+		assertEquals(3, sampler.getSample().size());
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static void assertProbability(String message, double p, int hits) {
+		double expected = p * TRIALS;
+		double sigma = Math.sqrt(TRIALS * p * (1 - p));
+
+		assertTrue(String.format("%s: %d hits, expected %.0f +/- %.0f", message, hits, expected, 5 * sigma),
+				Math.abs(hits - expected) <= 5 * sigma);
+	}
+}
@@ -0,0 +1,186 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+package org.seasr.meandre.components.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.seasr.meandre.components.abstracts.util.SpillRing;
+
+/**
+ * Checks the file backed ring used by the input cache to spill inputs: FIFO order across
+ * wrap-arounds (including records and headers split by the end of the file), a full ring,
+ * and the lifetime of its temporary file.
+ */
+public class SpillRingTests {
+
+	/** Each record takes 4 bytes more than its length */
+	private static final int HEADER = 4;
+
+	private File _dir;
+
+
+	@Before
+	public void createDir() {
+		_dir = new File(System.getProperty("java.io.tmpdir"), "spillring_" + System.nanoTime());
+		assertTrue(_dir.mkdirs());
+	}
+
+	@After
+	public void deleteDir() {
+		for (File file : _dir.listFiles())
+			file.delete();
+		_dir.delete();
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		SpillRing ring = new SpillRing(64, _dir);
+		assertEquals(null, ring.poll());
+		assertEquals(0, ring.size());
+		assertEquals(0, ring.getUsedBytes());
+
+		// the file is only created by the first write
+		assertEquals(0, _dir.list().length);
+
+		assertTrue(ring.offer(new byte[0]));
+		assertEquals(1, _dir.list().length);
+		assertEquals(HEADER, ring.getUsedBytes());
+		assertEquals(0, ring.poll().length);
+		assertEquals(null, ring.poll());
+
+		ring.close();
+		assertEquals(0, _dir.list().length);
+	}
+
+	@Test
+	public void testFull() throws Exception {
+		SpillRing ring = new SpillRing(64, _dir);
+
+		// a record that can never fit
+		assertTrue(!ring.offer(new byte[64 - HEADER + 1]));
+
+		// records that fill the ring exactly
+		assertTrue(ring.offer(record(20, 1)));
+		assertTrue(ring.offer(record(64 - 2 * HEADER - 20, 2)));
+		assertEquals(64, ring.getUsedBytes());
+
+		assertTrue(!ring.offer(new byte[0]));
+		assertEquals(2, ring.size());
+
+		// the space of a polled record can be reused, across the end of the file
+		assertTrue(Arrays.equals(record(20, 1), ring.poll()));
+		assertTrue(!ring.offer(record(21, 3)));
+		assertTrue(ring.offer(record(20, 3)));
+		assertEquals(64, ring.getUsedBytes());
+
+		assertTrue(Arrays.equals(record(64 - 2 * HEADER - 20, 2), ring.poll()));
+		assertTrue(Arrays.equals(record(20, 3), ring.poll()));
+		assertEquals(null, ring.poll());
+		assertEquals(0, ring.getUsedBytes());
+
+		ring.close();
+	}
+
+	@Test
+	public void testFifo() throws Exception {
+		// capacities that make the headers and the records straddle the end of the file at various offsets
+		for (int capacity : new int[] { 5, 13, 64, 65, 1000 }) {
+			Random random = new Random(capacity);
+			SpillRing ring = new SpillRing(capacity, _dir);
+			LinkedList<byte[]> expected = new LinkedList<byte[]>();
+			long used = 0;
+
+			for (int step = 0; step < 20000; step++) {
+				if (random.nextInt(3) > 0) {
+					byte[] record = record(random.nextInt(Math.max(1, capacity / 3)), step);
+					boolean fits = used + HEADER + record.length <= capacity;
+
+					assertEquals("capacity " + capacity + ", step " + step, fits, ring.offer(record));
+					if (fits) {
+						expected.add(record);
+						used += HEADER + record.length;
+					}
+				}
+				else {
+					byte[] record = ring.poll();
+					if (expected.isEmpty())
+						assertEquals(null, record);
+					else {
+						byte[] next = expected.removeFirst();
+						assertTrue("capacity " + capacity + ", step " + step, Arrays.equals(next, record));
+						used -= HEADER + next.length;
+					}
+				}
+
+				assertEquals(expected.size(), ring.size());
+				assertEquals(used, ring.getUsedBytes());
+			}
+
+			ring.close();
+			assertEquals(0, ring.size());
+			assertEquals(0, _dir.list().length);
+
+			// a closed ring can be used again, with a new file
+			assertTrue(ring.offer(record(1, 1)));
+			assertTrue(Arrays.equals(record(1, 1), ring.poll()));
+			ring.close();
+		}
+	}
+
+	//--------------------------------------------------------------------------------------------
+
+	private static byte[] record(int length, int seed) {
+		byte[] record = new byte[length];
+		new Random(seed).nextBytes(record);
+		return record;
+	}
+}
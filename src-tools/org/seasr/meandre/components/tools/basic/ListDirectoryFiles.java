@@ -44,6 +44,7 @@ package org.seasr.meandre.components.tools.basic;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -157,17 +158,20 @@ public class ListDirectoryFiles extends AbstractStreamingExecutableComponent {
 		    File dir = (sLoc.trim().toLowerCase().startsWith("file:/")) ?
 		        new File(DataTypeParser.parseAsURI(sLoc)) : new File(sLoc);
 
-		    console.fine("Processing " + dir);
+		    if (console.isLoggable(Level.FINE))
+		        console.fine("Processing " + dir);
 
 		    if (bWrapStream) {
-		        console.fine("Starting stream: " + streamId);
+		        if (console.isLoggable(Level.FINE))
+		            console.fine("Starting stream: " + streamId);
 		        cc.pushDataComponentToOutput(OUT_LOCATION, new StreamInitiator(streamId));
 		    }
 
     		pushLocations(dir);
 
     		if (bWrapStream) {
-    		    console.fine("Ending stream: " + streamId);
+    		    if (console.isLoggable(Level.FINE))
+    		        console.fine("Ending stream: " + streamId);
     		    cc.pushDataComponentToOutput(OUT_LOCATION, new StreamTerminator(streamId));
     		}
 		}
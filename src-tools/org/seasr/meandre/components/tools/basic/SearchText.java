@@ -42,6 +42,7 @@
 
 package org.seasr.meandre.components.tools.basic;
 
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -153,13 +154,15 @@ public class SearchText extends AbstractStreamingExecutableComponent {
 
 		if (_wrapStream) {
 		    StreamDelimiter sd = new StreamInitiator(streamId);
-		    cc.pushDataComponentToOutput(OUT_TEXT, sd);
-		    cc.pushDataComponentToOutput(OUT_MATCHED_TEXT, sd);
+		    pushBatched(cc, OUT_TEXT, sd);
+		    pushBatched(cc, OUT_MATCHED_TEXT, sd);
 		}
 
 		for (String text : input) {
-    		console.finest(String.format("Input text: %s", text));
-    		console.finer(String.format("Using regular expression: %s", _regexp.pattern()));
+    		if (console.isLoggable(Level.FINEST))
+    		    console.finest(String.format("Input text: %s", text));
+    		if (console.isLoggable(Level.FINER))
+    		    console.finer(String.format("Using regular expression: %s", _regexp.pattern()));
 
     		Matcher matcher = _regexp.matcher(text);
     		boolean found = false;
@@ -167,24 +170,26 @@ public class SearchText extends AbstractStreamingExecutableComponent {
     		while (matcher.find()) {
                 found = true;
 
-                console.finer(String.format("Match: start=%d, end=%d", matcher.start(), matcher.end()));
-                for (int i = 0, iMax = matcher.groupCount() + 1; i < iMax; i++)
-                    console.finer(String.format("Group %d: match='%s'", i, matcher.group(i)));
+                if (console.isLoggable(Level.FINER)) {
+                    console.finer(String.format("Match: start=%d, end=%d", matcher.start(), matcher.end()));
+                    for (int i = 0, iMax = matcher.groupCount() + 1; i < iMax; i++)
+                        console.finer(String.format("Group %d: match='%s'", i, matcher.group(i)));
+                }
 
                 String matchText = matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
                 if (matchText == null) continue;
 
-    			componentContext.pushDataComponentToOutput(OUT_MATCHED_TEXT, BasicDataTypesTools.stringToStrings(matchText));
+    			pushBatched(componentContext, OUT_MATCHED_TEXT, BasicDataTypesTools.stringToStrings(matchText));
     		}
 
     		if (!found)
-    		    componentContext.pushDataComponentToOutput(OUT_TEXT, BasicDataTypesTools.stringToStrings(text));
+    		    pushBatched(componentContext, OUT_TEXT, BasicDataTypesTools.stringToStrings(text));
 		}
 
 		if (_wrapStream) {
 		    StreamDelimiter sd = new StreamTerminator(streamId);
-		    cc.pushDataComponentToOutput(OUT_TEXT, sd);
-		    cc.pushDataComponentToOutput(OUT_MATCHED_TEXT, sd);
+		    pushBatched(cc, OUT_TEXT, sd);
+		    pushBatched(cc, OUT_MATCHED_TEXT, sd);
 		}
 	}
 
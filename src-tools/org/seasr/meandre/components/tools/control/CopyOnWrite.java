@@ -0,0 +1,257 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+
+package org.seasr.meandre.components.tools.control;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.seasr.datatypes.datamining.table.Table;
+
+import com.google.protobuf.Message;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+
+/**
+ * Copy-on-write sharing of the data sent to the branches of a fork.
+ *
+ * <p>Immutable data (protobuf messages, strings, boxed primitives) is shared as is.
+ * Tables and Jena models are wrapped in a proxy that reads through to the shared
+ * instance and makes a private copy the first time the branch calls a method that
+ * could modify it (or that hands out a mutable view of it, such as a column or the
+ * underlying graph). Other types are not supported.</p>
+ *
+ * <p>The proxies implement all the interfaces of the shared object, so consumers must
+ * use the data through its interfaces (ex: Table, MutableTable, Model) and not cast
+ * it to an implementation class.</p>
+ */
+public final class CopyOnWrite {
+
+    /** Table methods that neither modify the table nor expose its internals */
+    private static final Set<String> SAFE_TABLE_METHODS = new HashSet<String>(Arrays.asList(
+            "copy", "createTable", "getTableFactory", "getObject", "equals", "hashCode", "toString"));
+
+    /** Model methods that neither modify the model nor expose its internals */
+    private static final Set<String> SAFE_MODEL_METHODS = new HashSet<String>(Arrays.asList(
+            "size", "isEmpty", "isClosed", "contains", "containsAll", "containsAny", "containsLiteral",
+            "containsResource", "independent", "supportsTransactions", "supportsSetOperations",
+            "isIsomorphicWith", "getNsPrefixURI", "getNsURIPrefix", "getNsPrefixMap", "expandPrefix",
+            "shortForm", "qnameFor", "samePrefixMappingAs", "union", "intersection", "difference",
+            "write", "equals", "hashCode", "toString"));
+
+
+    private CopyOnWrite() { }
+
+    /**
+     * Checks whether an object can be shared by the branches of a fork
+     *
+     * @param data The object
+     * @return True if share() supports it, false otherwise
+     */
+    public static boolean isSupported(Object data) {
+        return isImmutable(data) || data instanceof Table || data instanceof Model;
+    }
+
+    /**
+     * Returns a view of an object that a branch of a fork can use as if it were its own copy
+     *
+     * @param data The object to share
+     * @param copies The counter to increment when the branch makes its private copy (can be null)
+     * @return The object itself if it is immutable, or a copy-on-write proxy of it
+     * @throws IllegalArgumentException If the object is not supported
+     */
+    public static Object share(Object data, AtomicLong copies) {
+        if (isImmutable(data))
+            return data;
+
+        if (data instanceof Table)
+            return newProxy(data, new TableHandler((Table) data, copies));
+
+        if (data instanceof Model)
+            return newProxy(data, new ModelHandler((Model) data, copies));
+
+        throw new IllegalArgumentException("Copy-on-write is not supported for " + data.getClass().getName());
+    }
+
+    /**
+     * Checks whether a proxy returned by share() has made its private copy
+     *
+     * @param data The object returned by share()
+     * @return True if the proxy has made its copy, false if it still reads the shared object or is not a proxy
+     */
+    public static boolean isCopied(Object data) {
+        if (data == null || !Proxy.isProxyClass(data.getClass())) return false;
+
+        InvocationHandler handler = Proxy.getInvocationHandler(data);
+        return (handler instanceof Handler) && ((Handler<?>) handler).isCopied();
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static boolean isImmutable(Object data) {
+        return data == null || data instanceof Message || data instanceof String || data instanceof Number ||
+            data instanceof Boolean || data instanceof Character || data instanceof Enum<?>;
+    }
+
+    private static Object newProxy(Object data, Handler<?> handler) {
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        for (Class<?> cls = data.getClass(); cls != null; cls = cls.getSuperclass())
+            collectInterfaces(cls, interfaces);
+
+        return Proxy.newProxyInstance(data.getClass().getClassLoader(),
+                interfaces.toArray(new Class<?>[interfaces.size()]), handler);
+    }
+
+    private static void collectInterfaces(Class<?> cls, Set<Class<?>> interfaces) {
+        for (Class<?> iface : cls.getInterfaces())
+            if (interfaces.add(iface))
+                collectInterfaces(iface, interfaces);
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static abstract class Handler<T> implements InvocationHandler, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private T _target;
+        private volatile boolean _copied = false;
+        private final transient AtomicLong _copies;
+
+        Handler(T shared, AtomicLong copies) {
+            _target = shared;
+            _copies = copies;
+        }
+
+        /**
+         * @param method The method called
+         * @return True if the method can be called on the shared object
+         */
+        protected abstract boolean isSafe(Method method);
+
+        /**
+         * @param shared The shared object
+         * @return A private copy of the shared object
+         */
+        protected abstract T copy(T shared);
+
+        boolean isCopied() {
+            return _copied;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object target;
+            if (_copied || isSafe(method))
+                target = _target;
+            else
+                synchronized (this) {
+                    if (!_copied) {
+                        _target = copy(_target);
+                        _copied = true;
+                        if (_copies != null) _copies.incrementAndGet();
+                    }
+                    target = _target;
+                }
+
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static class TableHandler extends Handler<Table> {
+        private static final long serialVersionUID = 1L;
+
+        TableHandler(Table shared, AtomicLong copies) {
+            super(shared, copies);
+        }
+
+        @Override
+        protected boolean isSafe(Method method) {
+            if (SAFE_TABLE_METHODS.contains(method.getName())) return true;
+            if (method.getName().startsWith("set")) return false;
+
+            // getters of primitive values and strings; arrays and objects may be the internal storage
+            Class<?> type = method.getReturnType();
+            return (type.isPrimitive() && type != void.class) || type == String.class;
+        }
+
+        @Override
+        protected Table copy(Table shared) {
+            return shared.copy();
+        }
+    }
+
+    private static class ModelHandler extends Handler<Model> {
+        private static final long serialVersionUID = 1L;
+
+        ModelHandler(Model shared, AtomicLong copies) {
+            super(shared, copies);
+        }
+
+        @Override
+        protected boolean isSafe(Method method) {
+            return SAFE_MODEL_METHODS.contains(method.getName());
+        }
+
+        @Override
+        protected Model copy(Model shared) {
+            Model model = ModelFactory.createDefaultModel();
+            model.setNsPrefixes(shared.getNsPrefixMap());
+            model.add(shared);
+
+            return model;
+        }
+    }
+}
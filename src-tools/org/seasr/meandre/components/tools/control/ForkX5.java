@@ -44,6 +44,7 @@ package org.seasr.meandre.components.tools.control;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.Licenses;
@@ -61,9 +62,10 @@ import org.seasr.meandre.support.generic.io.Serializer;
  * <p>Title: Fork Times Five</p>
  *
  * <p>Description: This component takes in any Java object and distributes
- * it (or copies of it) across multiple outputs.  The user can choose from five
+ * it (or copies of it) across multiple outputs.  The user can choose from six
  * object replication methods -- by reference, shallow copy by clone, deep copy
- * via serialization, copy via constructor, or copy via custom method.</p>
+ * via serialization, copy via constructor, copy via custom method, or copy-on-write
+ * (tables and RDF models are copied only by the branches that modify them).</p>
  *
  * <p>Copyright: UIUC Copyright (c) 2007</p>
  *
@@ -78,9 +80,10 @@ import org.seasr.meandre.support.generic.io.Serializer;
         creator = "Lily Dong",
         description = "<p>Description: This component takes in any Java object " +
                       "and distributes it (or copies of it) across multiple outputs.  " +
-                      "The user can choose from five object replication methods -- by reference, " +
+                      "The user can choose from six object replication methods -- by reference, " +
                       "shallow copy by clone, deep copy via serialization, copy via constructor, " +
-                      "or copy via custom method.</p>",
+                      "copy via custom method, or copy-on-write (tables and RDF models are copied " +
+                      "only by the branches that modify them).</p>",
         name = "Fork x5",
         tags = "#CONTROL, clone, fork, copy",
         rights = Licenses.UofINCSA,
@@ -132,7 +135,8 @@ public class ForkX5 extends AbstractExecutableComponent {
 
     @ComponentProperty(
             defaultValue = "0",
-            description = "Replication mode (0 = by reference, 1 = clone shallow, 2 = serialize deep, 3 = constructor, 4 = custom)",
+            description = "Replication mode (0 = by reference, 1 = clone shallow, 2 = serialize deep, 3 = constructor, 4 = custom, " +
+                          "5 = copy-on-write)",
             name = Names.PROP_REPLICATION_MODE
     )
     protected static final String PROP_REPLICATION_MODE = Names.PROP_REPLICATION_MODE;
@@ -153,9 +157,16 @@ public class ForkX5 extends AbstractExecutableComponent {
     static public final int s_SERIALIZE_DEEP = 2;
     static public final int s_CONSTRUCTOR = 3;
     static public final int s_CUSTOM = 4;
+    static public final int s_COPY_ON_WRITE = 5;
+
+    /** The output ports, in the order the data is pushed */
+    protected static final String[] OUTPUTS = { OUT_OBJECT, OUT_OBJECT_2, OUT_OBJECT_3, OUT_OBJECT_4, OUT_OBJECT_5 };
 
     private String fn;
 
+    /** The number of private copies made by each branch, in copy-on-write mode */
+    private AtomicLong[] _copies;
+
 
     //--------------------------------------------------------------------------------------------
 
@@ -164,6 +175,10 @@ public class ForkX5 extends AbstractExecutableComponent {
         fn = ccp.getProperty(PROP_REPLICATION_MODE);
         if (fn == null || fn.length() == 0)
             throw new ComponentExecutionException("No replication mode given.");
+
+        _copies = new AtomicLong[OUTPUTS.length];
+        for (int i = 0; i < OUTPUTS.length; i++)
+            _copies[i] = componentMetrics.getCounter("copies on " + OUTPUTS[i]);
     }
 
     @Override
@@ -247,6 +262,21 @@ public class ForkX5 extends AbstractExecutableComponent {
                 cc.pushDataComponentToOutput(OUT_OBJECT_5, obj);
                 break;
 
+            case 5: //COPY-ON-WRITE
+
+                if (CopyOnWrite.isSupported(dat))
+                    for (int i = 0; i < OUTPUTS.length; i++)
+                        cc.pushDataComponentToOutput(OUTPUTS[i], CopyOnWrite.share(dat, _copies[i]));
+                else {
+                    // no way to tell when the data is modified - copy it for all but the first branch
+                    cc.pushDataComponentToOutput(OUTPUTS[0], dat);
+                    for (int i = 1; i < OUTPUTS.length; i++) {
+                        cc.pushDataComponentToOutput(OUTPUTS[i], makeDeepCopy(dat));
+                        _copies[i].incrementAndGet();
+                    }
+                }
+                break;
+
             default:
                 throw new Exception(
                         "No anticipated replication mode matches requested value.");
@@ -51,6 +51,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.UUID;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -281,7 +282,8 @@ public class PersistToDB extends AbstractStreamingExecutableComponent {
                 psData.setString(4, input.getClass().getName());
                 psData.setString(5, _port1Name);
                 int rowCount = psData.executeUpdate();
-                console.finer(String.format("psData: rowCount=%d", rowCount));
+                if (console.isLoggable(Level.FINER))
+                    console.finer(String.format("psData: rowCount=%d", rowCount));
 
                 is.close();
                 tmpFile.delete();
@@ -219,7 +219,8 @@ public class RetrieveFromDB extends AbstractStreamingExecutableComponent {
                                 dataStream = rs.getBinaryStream("data");
                                 String type = rs.getString("type");
 
-                                console.finer(String.format("from db: type='%s'", type));
+                                if (console.isLoggable(Level.FINER))
+                                    console.finer(String.format("from db: type='%s'", type));
 
                                 Object obj = Serializer.deserializeObject(dataStream);
                                 cc.pushDataComponentToOutput(OUT_DATA, obj);
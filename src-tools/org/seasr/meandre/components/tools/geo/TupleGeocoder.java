@@ -59,6 +59,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.gis.GeoLocation;
 
 /**
@@ -150,7 +151,7 @@ public class TupleGeocoder extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMeta);
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMeta);
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
         Strings[] tuples;
@@ -171,7 +172,7 @@ public class TupleGeocoder extends AbstractExecutableComponent {
         if (inPeer.getIndexForFieldName(_locField) < 0)
             throw new ComponentExecutionException("Incoming tuples do not have a field named: '" + _locField + "'");
 
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[] { LATITUDE_FIELD, LONGITUDE_FIELD });
+        SimpleTuplePeer outPeer = inPeer.extend(LATITUDE_FIELD, LONGITUDE_FIELD);
         StringsArray.Builder outTuples = StringsArray.newBuilder();
 
         for (Strings t : tuples) {
@@ -68,6 +68,7 @@ import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableCompone
 import org.seasr.meandre.components.nlp.opennlp.OpenNLPNamedEntity;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.gis.GeoLocation;
 import org.seasr.meandre.support.generic.gis.LatLngCoord;
 import org.xml.sax.SAXException;
@@ -207,7 +208,7 @@ public class TupleLocationsToKML extends AbstractStreamingExecutableComponent {
         String[] ctxSentences = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_SENTENCES));
 
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMeta);
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMeta);
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
         Strings[] tuples;
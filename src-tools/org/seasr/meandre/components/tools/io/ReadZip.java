@@ -45,6 +45,7 @@ package org.seasr.meandre.components.tools.io;
 import java.io.BufferedInputStream;
 import java.net.URL;
 import java.util.jar.JarInputStream;
+import java.util.logging.Level;
 import java.util.zip.ZipEntry;
 
 import org.meandre.annotations.Component;
@@ -137,16 +138,17 @@ public class ReadZip extends AbstractStreamingExecutableComponent {
 		JarInputStream zipStream = new JarInputStream(new BufferedInputStream(location.openStream()));
 
 		try {
-		    if (wrapStream) cc.pushDataComponentToOutput(OUT_LOCATION, new StreamInitiator(streamId));
+		    if (wrapStream) pushBatched(cc, OUT_LOCATION, new StreamInitiator(streamId));
 
 		    ZipEntry entry;
 		    while ((entry = zipStream.getNextEntry()) != null) {
 		        URL entryUrl = new URL("jar:" + location.toString() + "!/" + entry);
-		        console.finer("Pushing " + entryUrl);
-		        cc.pushDataComponentToOutput(OUT_LOCATION, entryUrl);
+		        if (console.isLoggable(Level.FINER))
+		            console.finer("Pushing " + entryUrl);
+		        pushBatched(cc, OUT_LOCATION, entryUrl);
 		    }
 
-		    if (wrapStream) cc.pushDataComponentToOutput(OUT_LOCATION, new StreamTerminator(streamId));
+		    if (wrapStream) pushBatched(cc, OUT_LOCATION, new StreamTerminator(streamId));
 		}
 		finally {
 		    zipStream.close();
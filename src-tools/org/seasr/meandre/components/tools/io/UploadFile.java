@@ -45,6 +45,7 @@ package org.seasr.meandre.components.tools.io;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.logging.Level;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -217,7 +218,8 @@ public class UploadFile extends GenericTemplate {
 	    			// it's a parameter part
 	    			ParamPart paramPart = (ParamPart) part;
 	    			String value = paramPart.getStringValue();
-	    			console.finest("param; name=" + name + ", value=" + value);
+	    			if (console.isLoggable(Level.FINEST))
+	    				console.finest("param; name=" + name + ", value=" + value);
 	    		}
 	    		else if (part.isFile()) {
 	    			// it's a file part
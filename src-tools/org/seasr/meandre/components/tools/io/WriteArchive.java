@@ -185,6 +185,22 @@ public class WriteArchive extends AbstractStreamingExecutableComponent {
     )
     protected static final String PROP_ARCHIVE_FORMAT = "archive_format";
 
+    @ComponentProperty(
+            name = Names.PROP_MAX_QUEUED_BYTES,
+            description = "The number of bytes of inputs queued in memory per input port while waiting for the archive location; " +
+                    "beyond this, queued inputs are spilled to a temporary file (use -1 for no limit)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_MAX_QUEUED_BYTES = Names.PROP_MAX_QUEUED_BYTES;
+
+    @ComponentProperty(
+            name = Names.PROP_MAX_SPILLED_BYTES,
+            description = "The size of the temporary file holding the spilled inputs of each input port; " +
+                    "an error is raised when it is full (ignored if max_queued_bytes is -1)",
+            defaultValue = "1073741824"
+    )
+    protected static final String PROP_MAX_SPILLED_BYTES = Names.PROP_MAX_SPILLED_BYTES;
+
     //--------------------------------------------------------------------------------------------
 
 
@@ -228,6 +244,10 @@ public class WriteArchive extends AbstractStreamingExecutableComponent {
         publicResourcesDir = new File(ccp.getPublicResourcesDirectory()).getAbsolutePath();
         if (!publicResourcesDir.endsWith(File.separator)) publicResourcesDir += File.separator;
 
+        long maxQueuedBytes = Long.parseLong(getPropertyOrDefault(PROP_MAX_QUEUED_BYTES, "-1", ccp));
+        if (maxQueuedBytes >= 0)
+            componentInputCache.setBounds(maxQueuedBytes, Long.parseLong(getPropertyOrDefault(PROP_MAX_SPILLED_BYTES, "1073741824", ccp)));
+
         outputProperties = new Properties();
         outputProperties.setProperty(OutputKeys.INDENT, "yes");
         outputProperties.setProperty("{http://xml.apache.org/xslt}indent-amount", "2");
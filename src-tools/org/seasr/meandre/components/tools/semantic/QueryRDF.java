@@ -58,6 +58,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 import com.hp.hpl.jena.query.Query;
 import com.hp.hpl.jena.query.QueryExecution;
@@ -148,7 +149,7 @@ public class QueryRDF extends AbstractExecutableComponent {
             List<String> resultFieldNames = results.getResultVars();
             String[] fieldNames = new String[resultFieldNames.size()];
 
-            SimpleTuplePeer outPeer = new SimpleTuplePeer(resultFieldNames.toArray(fieldNames));
+            SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(resultFieldNames.toArray(fieldNames));
             StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
 
             while (results.hasNext()) {
@@ -49,6 +49,7 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.logging.Level;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -243,7 +244,8 @@ public class InputData extends AbstractGWTWebUIComponent {
                     String paramName = paramNames.nextElement();
                     if (paramName.startsWith("url_")) {
                         String sUrl = request.getParameter(paramName);
-                        console.fine(paramName + ": " + sUrl);
+                        if (console.isLoggable(Level.FINE))
+                            console.fine(paramName + ": " + sUrl);
                         try {
                             urls.put(paramName, new URL(sUrl));
                         }
@@ -329,11 +331,13 @@ public class InputData extends AbstractGWTWebUIComponent {
                         if (file == null || !file.getFieldName().startsWith("file_"))
                             continue;
 
-                        console.fine("isFormField:\t" + file.isFormField());
-                        console.fine("fieldName:\t" + file.getFieldName());
-                        console.fine("name:\t" + file.getName());
-                        console.fine("contentType:\t" + file.getContentType());
-                        console.fine("size:\t" + file.getSize());
+                        if (console.isLoggable(Level.FINE)) {
+                            console.fine("isFormField:\t" + file.isFormField());
+                            console.fine("fieldName:\t" + file.getFieldName());
+                            console.fine("name:\t" + file.getName());
+                            console.fine("contentType:\t" + file.getContentType());
+                            console.fine("size:\t" + file.getSize());
+                        }
 
                         if (file.isFormField())
                             continue;
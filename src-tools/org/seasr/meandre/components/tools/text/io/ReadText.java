@@ -53,6 +53,7 @@ import java.net.URLConnection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.logging.Level;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -206,7 +207,8 @@ public class ReadText extends AbstractExecutableComponent {
             connection.setReadTimeout(readTimeout);
 
             try {
-                console.fine("Connecting to " + connection.getURL());
+                if (console.isLoggable(Level.FINE))
+                    console.fine("Connecting to " + connection.getURL());
                 connection.connect();
                 console.fine("Connection established, now reading data...");
 
@@ -242,7 +244,8 @@ public class ReadText extends AbstractExecutableComponent {
                     ((HttpURLConnection)connection).disconnect();
             }
 
-            console.fine(String.format("Sleeping %,d ms...", retryDelay));
+            if (console.isLoggable(Level.FINE))
+                console.fine(String.format("Sleeping %,d ms...", retryDelay));
             Thread.sleep(retryDelay);
         }
     }
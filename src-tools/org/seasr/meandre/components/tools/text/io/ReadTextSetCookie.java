@@ -44,6 +44,7 @@ package org.seasr.meandre.components.tools.text.io;
 
 
 import java.net.URI;
+import java.util.logging.Level;
 
 import org.apache.commons.httpclient.Cookie;
 import org.apache.commons.httpclient.HttpClient;
@@ -141,8 +142,9 @@ public class ReadTextSetCookie extends AbstractExecutableComponent {
             String sRes = method.getResponseBodyAsString();
             Cookie[] cookies = client.getState().getCookies();
 
-            for (int i = 0; i < cookies.length; i++)
-                console.fine("Cookies: " + cookies[i].toExternalForm());
+            if (console.isLoggable(Level.FINE))
+                for (int i = 0; i < cookies.length; i++)
+                    console.fine("Cookies: " + cookies[i].toExternalForm());
 
             cc.pushDataComponentToOutput(OUT_TEXT, BasicDataTypesTools.stringToStrings(sRes));
             cc.pushDataComponentToOutput(OUT_COOKIE, cookies);
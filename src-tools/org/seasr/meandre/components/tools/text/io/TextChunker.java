@@ -134,21 +134,21 @@ public class TextChunker extends AbstractStreamingExecutableComponent {
 
         char[] buffer = new char[chunkSize];
 
-        cc.pushDataComponentToOutput(OUT_TEXT, new StreamInitiator(streamId));
+        pushBatched(cc, OUT_TEXT, new StreamInitiator(streamId));
 
         StringReader reader = new StringReader(text);
         try {
             int nRead;
             while ((nRead = reader.read(buffer)) > 0) {
                 String chunk = new String(buffer, 0, nRead);
-                cc.pushDataComponentToOutput(OUT_TEXT, BasicDataTypesTools.stringToStrings(chunk));
+                pushBatched(cc, OUT_TEXT, BasicDataTypesTools.stringToStrings(chunk));
             }
         }
         finally {
             reader.close();
         }
 
-        cc.pushDataComponentToOutput(OUT_TEXT, new StreamTerminator(streamId));
+        pushBatched(cc, OUT_TEXT, new StreamTerminator(streamId));
     }
 
     @Override
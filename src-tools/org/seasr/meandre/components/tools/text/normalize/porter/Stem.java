@@ -55,7 +55,10 @@ import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.datatypes.core.exceptions.UnsupportedDataTypeException;
+import org.seasr.datatypes.core.views.StringsView;
+import org.seasr.datatypes.core.views.TokenizedSentencesView;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 import org.seasr.meandre.support.components.text.normalize.porter.PorterStemmer;
 
 
@@ -94,6 +97,7 @@ import org.seasr.meandre.support.components.text.normalize.porter.PorterStemmer;
         firingPolicy = FiringPolicy.all,
         baseURL = "meandre://seasr.org/components/foundry/"
 )
+@Stateless
 public class Stem extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -125,30 +129,33 @@ public class Stem extends AbstractExecutableComponent {
     //--------------------------------------------------------------------------------------------
 
 
-	private PorterStemmer stemmer = null;
+	/** The stemmer is not thread safe - one per thread, for _parallelism > 1 */
+	private ThreadLocal<PorterStemmer> stemmers = null;
 
 
     //--------------------------------------------------------------------------------------------
 
 	@Override
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
-		stemmer = null;
+		stemmers = new ThreadLocal<PorterStemmer>() {
+		    @Override
+		    protected PorterStemmer initialValue() {
+		        return new PorterStemmer();
+		    }
+		};
 	}
 
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
-		if (stemmer == null)
-			stemmer = new PorterStemmer();
-
 		Object object = cc.getDataComponentFromInput(IN_OBJECT);
 
 		if (object instanceof Strings)
-			processTokens(object);
+			processTokens(object, cc);
 
 		else
 
 		if(object instanceof StringsMap)
-			processSentences(object);
+			processSentences(object, cc);
 
 		else
 			throw new Exception("Unsupported data type: " + object.getClass().toString());
@@ -156,7 +163,7 @@ public class Stem extends AbstractExecutableComponent {
 
 	@Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
-	    stemmer = null;
+	    stemmers = null;
 	}
 
 	//--------------------------------------------------------------------------------------------
@@ -164,13 +171,15 @@ public class Stem extends AbstractExecutableComponent {
 	/**
 	 *
 	 * @param object input tokens
+	 * @param cc the component context
 	 * @throws Exception
 	 */
-	private void processTokens(Object object) throws Exception {
-		String[] tokens = null;
+	private void processTokens(Object object, ComponentContext cc) throws Exception {
+		PorterStemmer stemmer = stemmers.get();
+		StringsView tokens = null;
 
 		try {
-            tokens = DataTypeParser.parseAsString(object);
+            tokens = DataTypeParser.parseAsStringsView(object);
         }
         catch (UnsupportedDataTypeException e) {
             if (ignoreErrors)
@@ -187,24 +196,25 @@ public class Stem extends AbstractExecutableComponent {
 				res.addValue(stem);
 			}
 
-		componentContext.pushDataComponentToOutput(OUT_TOKENS, res.build());
+		cc.pushDataComponentToOutput(OUT_TOKENS, res.build());
 	}
 
 	/**
 	 *
 	 * @param object input sentences
+	 * @param cc the component context
 	 * @throws Exception
 	 */
-	private void processSentences (Object object) throws Exception {
-		StringsMap im = (StringsMap)object;
+	private void processSentences (Object object, ComponentContext cc) throws Exception {
+		PorterStemmer stemmer = stemmers.get();
+		TokenizedSentencesView im = DataTypeParser.parseAsTokenizedSentencesView(object);
 
 		org.seasr.datatypes.core.BasicDataTypes.StringsMap.Builder res = BasicDataTypes.StringsMap.newBuilder();
 
-		for ( int i=0, iMax=im.getKeyCount() ; i<iMax ; i++ ) {
-			String sKey = im.getKey(i);
-			Strings sVals = im.getValue(i);
+		for ( int i=0, iMax=im.size() ; i<iMax ; i++ ) {
+			String sKey = im.getSentence(i);
 			org.seasr.datatypes.core.BasicDataTypes.Strings.Builder resStemmed = BasicDataTypes.Strings.newBuilder();
-			for ( String s:sVals.getValueList()) {
+			for ( String s:im.getTokenList(i)) {
 				String stem = stemmer.normalizeTerm(s);
 				resStemmed.addValue(stem);
 			}
@@ -212,6 +222,6 @@ public class Stem extends AbstractExecutableComponent {
 			res.addValue(resStemmed.build());
 		}
 
-		componentContext.pushDataComponentToOutput(OUT_TOKENIZED_SENTENCES, res.build());
+		cc.pushDataComponentToOutput(OUT_TOKENIZED_SENTENCES, res.build());
 	}
 }
@@ -54,12 +54,13 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleBatchWriter;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -145,41 +146,38 @@ public class AddTupleAttribute extends AbstractExecutableComponent {
         String attribute = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_ATTRIBUTE))[0];
 
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inputMeta);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[] { _attributeName });
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inputMeta);
+        SimpleTuplePeer outPeer = inPeer.extend(_attributeName);
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
         boolean singleTuple = true;
-        Strings[] tuples;
+        TupleCursor cursor;
 
         if (input instanceof StringsArray) {
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
+            cursor = new TupleCursor(inPeer, (StringsArray) input);
             singleTuple = false;
         }
 
         else
 
         if (input instanceof Strings)
-            tuples = new Strings[] { (Strings) input };
+            cursor = new TupleCursor(inPeer, (Strings) input);
 
         else
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
 
-        SimpleTuple tuple    = inPeer.createTuple();
-        SimpleTuple outTuple = outPeer.createTuple();
+        TupleBatchWriter writer = new TupleBatchWriter(outPeer);
+        int ATTRIB_IDX = outPeer.getIndexForFieldName(_attributeName);
+        Strings lastTuple = null;
 
-        Strings[] modifiedTuples = new Strings[tuples.length];
-        int i = 0;
+        while (cursor.next()) {
+            writer.setValues(cursor);
+            writer.setValue(ATTRIB_IDX, attribute);
 
-        for (Strings t : tuples) {
-            tuple.setValues(t);
-            outTuple.setValue(tuple);
-            outTuple.setValue(_attributeName, attribute);
-
-            modifiedTuples[i++] = outTuple.convert();
+            lastTuple = writer.writeRow();
         }
 
-        Object output = singleTuple ? modifiedTuples[0] : BasicDataTypesTools.javaArrayToStringsArray(modifiedTuples);
+        Object output = singleTuple ? lastTuple : writer.build();
         cc.pushDataComponentToOutput(OUT_TUPLES, output);
         cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
     }
@@ -63,11 +63,12 @@ import org.meandre.core.ComponentContextException;
 import org.meandre.core.ComponentContextProperties;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleBatchWriter;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -186,8 +187,7 @@ public class AlterTuple extends AbstractExecutableComponent {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inMeta);
-        Strings[] inTuples = BasicDataTypesTools.stringsArrayToJavaArray(input);
+        SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inMeta);
 
         List<String> inFieldNames = new ArrayList<String>(Arrays.asList(inPeer.getFieldNames()));
         List<String> outFieldNames = new ArrayList<String>(inFieldNames.size());
@@ -204,29 +204,35 @@ public class AlterTuple extends AbstractExecutableComponent {
         outFieldNames.addAll(_fieldsToAdd.keySet());
 
         String[] fieldNames = new String[outFieldNames.size()];
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(outFieldNames.toArray(fieldNames));
-        StringsArray.Builder outTuples = StringsArray.newBuilder();
-
-        for (Strings t : inTuples) {
-            SimpleTuple inTuple = inPeer.createTuple();
-            inTuple.setValues(t);
-
-            SimpleTuple outTuple = outPeer.createTuple();
-            for (String fieldName : inFieldNames) {
-                String outFieldName = fieldName;
-                if (_renameRules.containsKey(fieldName))
-                    outFieldName = _renameRules.get(fieldName);
-                outTuple.setValue(outFieldName, inTuple.getValue(fieldName));
-            }
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(outFieldNames.toArray(fieldNames));
+        TupleBatchWriter writer = new TupleBatchWriter(outPeer);
+
+        // resolve the field mapping once, rather than by name for every tuple
+        int[] IN_IDX  = new int[inFieldNames.size()];
+        int[] OUT_IDX = new int[inFieldNames.size()];
+        for (int i = 0, iMax = inFieldNames.size(); i < iMax; i++) {
+            String fieldName = inFieldNames.get(i);
+            String outFieldName = fieldName;
+            if (_renameRules.containsKey(fieldName))
+                outFieldName = _renameRules.get(fieldName);
+
+            IN_IDX[i]  = inPeer.getIndexForFieldName(fieldName);
+            OUT_IDX[i] = outPeer.getIndexForFieldName(outFieldName);
+        }
+
+        for (Entry<String, String> entry : _fieldsToAdd.entrySet())
+            writer.setValue(entry.getKey(), entry.getValue());
 
-            for (Entry<String, String> entry : _fieldsToAdd.entrySet())
-                outTuple.setValue(entry.getKey(), entry.getValue());
+        TupleCursor cursor = new TupleCursor(inPeer, input);
+        while (cursor.next()) {
+            for (int i = 0; i < IN_IDX.length; i++)
+                writer.setValue(OUT_IDX[i], cursor.getValue(IN_IDX[i]));
 
-            outTuples.addValue(outTuple.convert());
+            writer.writeRow();
         }
 
         cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
-        cc.pushDataComponentToOutput(OUT_TUPLES, outTuples.build());
+        cc.pushDataComponentToOutput(OUT_TUPLES, writer.build());
     }
 
     @Override
@@ -65,8 +65,11 @@ import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleBatchWriter;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TupleField;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.IOUtils;
 import org.seasr.meandre.support.generic.io.PathUtils;
 
@@ -175,6 +178,8 @@ public class AttributeCacheLookup extends AbstractExecutableComponent {
     protected Set<String> _ignoreCacheSet = Collections.synchronizedSet(new HashSet<String>());
     protected String _key;
     protected String _attributeName;
+    protected TupleField _keyField;
+    protected TupleField _attributeField;
 
 
     //--------------------------------------------------------------------------------------------
@@ -183,6 +188,8 @@ public class AttributeCacheLookup extends AbstractExecutableComponent {
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
         _key = getPropertyOrDieTrying(PROP_KEY, ccp);
         _attributeName = getPropertyOrDieTrying(PROP_ATTRIBUTE, ccp);
+        _keyField = new TupleField(_key);
+        _attributeField = new TupleField(_attributeName);
 
         String defaultDir = ccp.getPublicResourcesDirectory();
 
@@ -199,27 +206,27 @@ public class AttributeCacheLookup extends AbstractExecutableComponent {
         Strings inTuple = (Strings) cc.getDataComponentFromInput(IN_TUPLE);
         Strings inMetaTuple = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
 
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMetaTuple);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[] { _attributeName });
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMetaTuple);
+        SimpleTuplePeer outPeer = inPeer.extend(_attributeName);
 
-        int KEY_IDX = inPeer.getIndexForFieldName(_key);
-        int ATTRIB_IDX = outPeer.getIndexForFieldName(_attributeName);
+        int KEY_IDX = _keyField.getIndex(inPeer);
+        int ATTRIB_IDX = _attributeField.getIndex(outPeer);
 
         if (KEY_IDX == -1)
             throw new ComponentExecutionException(String.format("Incoming tuple has no attributed named '%s'", _key));
 
-        SimpleTuple tuple    = inPeer.createTuple();
-        SimpleTuple outTuple = outPeer.createTuple();
+        TupleCursor tuple = new TupleCursor(inPeer, inTuple);
+        tuple.next();
 
-        tuple.setValues(inTuple);
-        outTuple.setValue(tuple);
+        TupleBatchWriter outTuple = new TupleBatchWriter(outPeer);
+        outTuple.setValues(tuple);
 
         String key = tuple.getValue(KEY_IDX);
         // Look it up in the ignore set
         if (_ignoreCacheSet != null && _ignoreCacheSet.contains(key)) {
             console.fine(String.format("key '%s' found in ignore list", key));
             outTuple.setValue(ATTRIB_IDX, "");
-            cc.pushDataComponentToOutput(OUT_TUPLE, outTuple.convert());
+            cc.pushDataComponentToOutput(OUT_TUPLE, outTuple.toStrings());
             cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
             return;
         }
@@ -238,7 +245,7 @@ public class AttributeCacheLookup extends AbstractExecutableComponent {
         console.fine(String.format("key '%s' found in cache with value '%s'", key, value));
         outTuple.setValue(ATTRIB_IDX, value);
 
-        cc.pushDataComponentToOutput(OUT_TUPLE, outTuple.convert());
+        cc.pushDataComponentToOutput(OUT_TUPLE, outTuple.toStrings());
         cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
     }
 
@@ -60,6 +60,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.supercsv.cellprocessor.constraint.NotNull;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.encoder.CsvEncoder;
@@ -180,7 +181,7 @@ public class CSVToTuple extends AbstractExecutableComponent {
             for (int i = 0; i < header.length; i++)
                 processors[i] = new NotNull();  // do not allow null values in the CSV data  (TODO: we may have to revisit this decision)
 
-            SimpleTuplePeer outPeer = new SimpleTuplePeer(header);
+            SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(header);
             StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
 
             Map<String, Object> csvEntry;
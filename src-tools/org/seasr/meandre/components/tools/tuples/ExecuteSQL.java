@@ -194,7 +194,8 @@ public class ExecuteSQL extends AbstractExecutableComponent {
                                 else
                                     console.fine(report);
                             } else
-                                console.fine("SQL SUCCESS_NO_INFO: " + stmts.get(i));
+                                if (console.isLoggable(Level.FINE))
+                                    console.fine("SQL SUCCESS_NO_INFO: " + stmts.get(i));
                         }
                     }
 
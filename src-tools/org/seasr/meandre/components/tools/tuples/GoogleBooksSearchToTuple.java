@@ -48,6 +48,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -68,6 +69,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.components.tuples.TupleUtilities;
 import org.seasr.meandre.support.generic.io.HttpUtils;
 
@@ -155,7 +157,7 @@ public class GoogleBooksSearchToTuple extends AbstractExecutableComponent {
 		//filter = String.valueOf(ccp.getProperty(PROP_FILTER).trim());
 	    String fields[] = {"url", "title", "authors", "bookId", "publishedYear",
 	    		"tbUrl", "tbHeight", "tbWidth", "pageCount"};
-		tuplePeer = new SimpleTuplePeer(fields);
+		tuplePeer = TuplePeerRegistry.getPeer(fields);
 
 		columnMap.put("titleNoFormatting", "title");
 	}
@@ -187,7 +189,8 @@ public class GoogleBooksSearchToTuple extends AbstractExecutableComponent {
 
 		while (output.size() < count) {
 			String url = buildURL(query);
-			console.fine("Reading location: " + url);
+			if (console.isLoggable(Level.FINE))
+				console.fine("Reading location: " + url);
 			String json = HttpUtils.doGET(url, null);
 
 			List<SimpleTuple> tuples = jsonToTuples(json, tuplePeer, columnMap);
@@ -47,6 +47,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -67,6 +68,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.components.tuples.TupleUtilities;
 import org.seasr.meandre.support.generic.io.HttpUtils;
 
@@ -139,7 +141,7 @@ public class GoogleSearchToTuple extends AbstractExecutableComponent {
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
 		count = Integer.parseInt(ccp.getProperty(PROP_COUNT).trim());
 	    String fields[] = {"url","title", "content"};
-		tuplePeer = new SimpleTuplePeer(fields);
+		tuplePeer = TuplePeerRegistry.getPeer(fields);
 
 		columnMap.put("titleNoFormatting", "title");
 	}
@@ -154,7 +156,8 @@ public class GoogleSearchToTuple extends AbstractExecutableComponent {
 
 		while (output.size() < count) {
 			String url = buildURL(query);
-			console.fine("Reading location: " + url);
+			if (console.isLoggable(Level.FINE))
+				console.fine("Reading location: " + url);
 			String json = HttpUtils.doGET(url, null);
 
 			List<SimpleTuple> tuples = jsonToTuples(json, tuplePeer, columnMap);
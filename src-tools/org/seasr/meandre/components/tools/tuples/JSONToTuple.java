@@ -63,6 +63,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -133,7 +134,7 @@ public class JSONToTuple extends AbstractExecutableComponent {
         }
 
         String[] keys = new String[fields.size()];
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(fields.toArray(keys));
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(fields.toArray(keys));
 
         StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
         for (int i = 0, iMax = jaData.length(); i < iMax; i++) {
@@ -70,6 +70,7 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.db.DBUtils;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 import com.jolbox.bonecp.BoneCP;
 
@@ -222,7 +223,7 @@ public class SQLToTuple extends AbstractExecutableComponent {
                 String columnName = rsMetaData.getColumnLabel(i+1);
                 fieldNames[i] = columnName;
             }
-            outPeer = new SimpleTuplePeer(fieldNames);
+            outPeer = TuplePeerRegistry.getPeer(fieldNames);
             SimpleTuple outTuple = outPeer.createTuple();
 
             output = new ArrayList<Strings>();
@@ -42,6 +42,9 @@
 
 package org.seasr.meandre.components.tools.tuples;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
 import org.meandre.annotations.Component.Licenses;
@@ -54,7 +57,6 @@ import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 
@@ -129,15 +131,15 @@ public class TupleAggregator extends AbstractStreamingExecutableComponent {
 
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples;
+        List<Strings> tuples;
 
         if (input instanceof StringsArray)
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
+            tuples = ((StringsArray) input).getValueList();
 
         else
 
         if (input instanceof Strings)
-            tuples = new Strings[] { (Strings) input };
+            tuples = Collections.singletonList((Strings) input);
 
         else
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
@@ -147,8 +149,7 @@ public class TupleAggregator extends AbstractStreamingExecutableComponent {
 
         _metaTuple = inputMeta;
 
-        for (Strings tuple : tuples)
-        	_tuples.addValue(tuple);
+        _tuples.addAllValue(tuples);
     }
 
 	@Override
@@ -0,0 +1,664 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.tools.tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.meandre.annotations.Component;
+import org.meandre.annotations.Component.FiringPolicy;
+import org.meandre.annotations.Component.Licenses;
+import org.meandre.annotations.Component.Mode;
+import org.meandre.annotations.ComponentInput;
+import org.meandre.annotations.ComponentOutput;
+import org.meandre.annotations.ComponentProperty;
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextProperties;
+import org.meandre.core.ComponentExecutionException;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
+import org.seasr.datatypes.core.Names;
+import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
+import org.seasr.meandre.support.components.tuples.Aggregate;
+import org.seasr.meandre.support.components.tuples.ColumnType;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
+import org.seasr.meandre.support.components.tuples.GroupCounter;
+import org.seasr.meandre.support.components.tuples.HyperLogLog;
+import org.seasr.meandre.support.components.tuples.ParallelTasks;
+import org.seasr.meandre.support.components.tuples.PartitionedGroupCounter;
+import org.seasr.meandre.support.components.tuples.TupleSchema;
+
+@Component(
+        name = "Tuple Group By",
+        creator = "The Automated Learning Group",
+        baseURL = "meandre://seasr.org/components/foundry/",
+        firingPolicy = FiringPolicy.all,
+        mode = Mode.compute,
+        rights = Licenses.UofINCSA,
+        tags = "#TRANSFORM, tuple, group, aggregate, count, sum, average",
+        description = "This component groups the incoming tuples by the values of a set of fields and computes aggregates " +
+                "for each group, similar to a 'SELECT <fields>, <aggregates> ... GROUP BY <fields>' sql statement. " +
+                "The supported aggregates are count(*), count(field), sum(field), mean(field), min(field), max(field), " +
+                "distinct(field) (approximate number of distinct values) and quantile(field, q) (approximate q-quantile, 0 &lt;= q &lt;= 1). " +
+                "If the tuples arrive inside a stream whose id matches the '_stream_id' property, the aggregates are computed over " +
+                "all the tuples of the stream and output when the stream ends; otherwise each set of tuples is grouped on its own. " +
+                "The groups are output in the order in which they were first seen. Without group fields a single tuple is output, " +
+                "even if there were no tuples to aggregate. Sums, minimums and maximums of whole numbers are output as whole numbers.",
+        dependency = {"protobuf-java-2.2.0.jar"}
+)
+public class TupleGroupBy extends AbstractStreamingExecutableComponent {
+
+    //------------------------------ INPUTS ------------------------------------------------------
+
+    @ComponentInput(
+            name = Names.PORT_TUPLES,
+            description = "The tuple(s)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
+    )
+    protected static final String IN_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentInput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String IN_META_TUPLE = Names.PORT_META_TUPLE;
+
+    //------------------------------ OUTPUTS -----------------------------------------------------
+
+    @ComponentOutput(
+            name = Names.PORT_TUPLES,
+            description = "One tuple per group, containing the group fields followed by the aggregates" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch (if the input was a TupleBatch)"
+    )
+    protected static final String OUT_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentOutput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for the tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String OUT_META_TUPLE = Names.PORT_META_TUPLE;
+
+    //----------------------------- PROPERTIES ---------------------------------------------------
+
+    @ComponentProperty(
+            name = "group_by",
+            description = "The field(s) to group by. Separate multiple fields with commas. " +
+                    "Leave empty to aggregate all the tuples into a single group.",
+            defaultValue = ""
+    )
+    protected static final String PROP_GROUP_BY = "group_by";
+
+    @ComponentProperty(
+            name = "aggregates",
+            description = "The aggregates to compute for each group, separated by commas. " +
+                    "Each aggregate can be named with 'AS name'; otherwise it is named function_field. " +
+                    "Example: count(*) AS n, sum(price), mean(price) AS avg_price, distinct(user), quantile(latency, 0.95) AS p95",
+            defaultValue = "count(*)"
+    )
+    protected static final String PROP_AGGREGATES = "aggregates";
+
+    @ComponentProperty(
+            name = "num_threads",
+            description = "The number of threads used to aggregate the tuples; each thread owns the groups of one hash partition " +
+                    "(use 0 for one thread per available processor).",
+            defaultValue = "1"
+    )
+    protected static final String PROP_NUM_THREADS = "num_threads";
+
+    //--------------------------------------------------------------------------------------------
+
+    /** Chunks smaller than this are not worth a thread of their own */
+    private static final int MIN_ROWS_PER_THREAD = 10000;
+
+
+    protected String[] _groupBy;
+    protected List<Aggregate> _aggregates;
+    protected int _numThreads;
+    protected ExecutorService _executor;
+
+    /** The groups, split into one hash partition per thread; null when not aggregating */
+    private Partition[] _partitions;
+
+    /** The group field values seen so far; the group keys are indices in this list */
+    private Map<String, Integer> _keyIds;
+    private List<String> _keyValues;
+
+    private long _rowsSeen;
+    private boolean _outputBatch;
+    private boolean _inStream = false;
+
+
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
+        super.initializeCallBack(ccp);
+
+        String groupBy = getPropertyOrDieTrying(PROP_GROUP_BY, true, false, ccp);
+        List<String> fields = new ArrayList<String>();
+        for (String field : groupBy.split(","))
+            if (field.trim().length() > 0)
+                fields.add(field.trim());
+        _groupBy = fields.toArray(new String[fields.size()]);
+
+        try {
+            _aggregates = Aggregate.parseList(getPropertyOrDieTrying(PROP_AGGREGATES, ccp));
+        }
+        catch (IllegalArgumentException e) {
+            throw new ComponentExecutionException(e.getMessage());
+        }
+
+        if (_aggregates.isEmpty())
+            throw new ComponentExecutionException("No aggregates specified in the '" + PROP_AGGREGATES + "' property");
+
+        _numThreads = Integer.parseInt(getPropertyOrDieTrying(PROP_NUM_THREADS, ccp));
+        if (_numThreads <= 0)
+            _numThreads = Runtime.getRuntime().availableProcessors();
+
+        if (_numThreads > 1)
+            _executor = Executors.newFixedThreadPool(_numThreads);
+
+        console.fine(String.format("Grouping by %s, computing %s using %d thread(s)",
+                Arrays.toString(_groupBy), _aggregates, _numThreads));
+    }
+
+    @Override
+    public void executeCallBack(ComponentContext cc) throws Exception {
+        Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
+        Object input = cc.getDataComponentFromInput(IN_TUPLES);
+
+        ColumnarTuples tuples = ColumnarTuples.fromInput(input, inputMeta);
+
+        if (_inStream) {
+            if (_partitions == null)
+                reset(input instanceof TupleBatch);
+
+            aggregate(tuples);
+        }
+        else {
+            // not inside a stream: each set of tuples is grouped on its own
+            reset(input instanceof TupleBatch);
+            try {
+                aggregate(tuples);
+                pushGroups();
+            }
+            finally {
+                _partitions = null;
+            }
+        }
+    }
+
+    @Override
+    public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
+        if (_executor != null) {
+            _executor.shutdownNow();
+            _executor = null;
+        }
+
+        _partitions = null;
+        _keyIds = null;
+        _keyValues = null;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean isAccumulator() {
+        return true;
+    }
+
+    @Override
+    public void startStream() throws Exception {
+        _inStream = true;
+        _partitions = null;
+    }
+
+    @Override
+    public void endStream() throws Exception {
+        _inStream = false;
+
+        if (_partitions == null && _groupBy.length == 0)
+            reset(false);
+
+        if (_partitions != null)
+            pushGroups();
+        else
+            console.warning("Nothing to push - the stream did not contain any tuples");
+
+        _partitions = null;
+        _keyIds = null;
+        _keyValues = null;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private void reset(boolean outputBatch) {
+        int width = Math.max(1, _groupBy.length);
+
+        _partitions = new Partition[_numThreads];
+        for (int p = 0; p < _partitions.length; p++)
+            _partitions[p] = new Partition(width, _aggregates);
+
+        _keyIds = new HashMap<String, Integer>();
+        _keyValues = new ArrayList<String>();
+        _rowsSeen = 0;
+        _outputBatch = outputBatch;
+    }
+
+    /**
+     * Adds a set of tuples to the groups
+     */
+    private void aggregate(final ColumnarTuples tuples) throws Exception {
+        TupleSchema schema = tuples.getSchema();
+
+        final int keyCount = _groupBy.length;
+        final int width = Math.max(1, keyCount);
+        final int rows = tuples.getRowCount();
+
+        final int[] keyIdx = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keyIdx[i] = schema.getIndexForFieldName(_groupBy[i]);
+            if (keyIdx[i] < 0)
+                throw new ComponentExecutionException(String.format("The tuples have no field named '%s' (listed in '%s')", _groupBy[i], PROP_GROUP_BY));
+        }
+
+        final int aggregateCount = _aggregates.size();
+        final int[] valueIdx = new int[aggregateCount];
+        for (int a = 0; a < aggregateCount; a++) {
+            String field = _aggregates.get(a).getField();
+            valueIdx[a] = (field != null) ? schema.getIndexForFieldName(field) : -1;
+            if (field != null && valueIdx[a] < 0)
+                throw new ComponentExecutionException(String.format("The tuples have no field named '%s' (used by '%s')", field, _aggregates.get(a)));
+        }
+
+        final int dictionarySize = tuples.getDictionarySize();
+        final int chunks = Math.max(1, Math.min(_numThreads, rows / MIN_ROWS_PER_THREAD));
+
+        // STRING group fields: the dictionary codes they use, so that ids are only assigned to those
+        final int[][] keyCodes = new int[keyCount][];
+        final boolean[][] usedCodes = new boolean[keyCount][];
+        for (int i = 0; i < keyCount; i++)
+            if (tuples.getType(keyIdx[i]) == ColumnType.STRING) {
+                keyCodes[i] = tuples.getStringCodeColumn(keyIdx[i]);
+                usedCodes[i] = new boolean[dictionarySize];
+            }
+
+        // STRING values are parsed/hashed once per dictionary code
+        final double[][] codeNumbers = new double[aggregateCount][];
+        final long[][] codeHashes = new long[aggregateCount][];
+        for (int a = 0; a < aggregateCount; a++) {
+            int col = valueIdx[a];
+            if (col < 0 || tuples.getType(col) != ColumnType.STRING) continue;
+
+            switch (_aggregates.get(a).getInput()) {
+                case NUMBER: codeNumbers[a] = new double[dictionarySize]; break;
+                case TEXT:   codeHashes[a] = new long[dictionarySize]; break;
+            }
+        }
+
+        List<Callable<Object>> scanTasks = new ArrayList<Callable<Object>>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            final int from = (int) ((long) rows * c / chunks);
+            final int to = (int) ((long) rows * (c + 1) / chunks);
+            final int codeFrom = (int) ((long) dictionarySize * c / chunks);
+            final int codeTo = (int) ((long) dictionarySize * (c + 1) / chunks);
+
+            scanTasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (int i = 0; i < keyCount; i++)
+                        if (keyCodes[i] != null)
+                            for (int row = from; row < to; row++)
+                                usedCodes[i][keyCodes[i][row]] = true;
+
+                    for (int a = 0; a < aggregateCount; a++) {
+                        if (codeNumbers[a] != null)
+                            for (int code = codeFrom; code < codeTo; code++)
+                                codeNumbers[a][code] = parseNumber(tuples.getDictionaryValue(code));
+
+                        if (codeHashes[a] != null)
+                            for (int code = codeFrom; code < codeTo; code++)
+                                codeHashes[a][code] = hashText(tuples.getDictionaryValue(code));
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        ParallelTasks.runAll(_executor, scanTasks);
+
+        // the key of a row is the ids of its group field values; the ids are shared by all the tuples seen,
+        // so they are assigned here, on a single thread: once per dictionary code used by a STRING column,
+        // and once per row for the other columns
+        final long[] keys = new long[rows * width];
+        final int[][] codeToId = new int[keyCount][];
+        for (int i = 0; i < keyCount; i++) {
+            if (keyCodes[i] != null) {
+                codeToId[i] = new int[dictionarySize];
+                for (int code = 0; code < dictionarySize; code++)
+                    if (usedCodes[i][code])
+                        codeToId[i][code] = getKeyId(tuples.getDictionaryValue(code));
+            }
+            else
+                for (int row = 0; row < rows; row++)
+                    keys[row * width + i] = getKeyId(tuples.getString(keyIdx[i], row));
+        }
+
+        final int partitionCount = _partitions.length;
+        final int[] hashes = new int[rows];
+        final int[] rowPartitions = (partitionCount > 1) ? new int[rows] : null;
+        final int[][] chunkCounts = new int[chunks][partitionCount];
+
+        List<Callable<Object>> hashTasks = new ArrayList<Callable<Object>>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            final int from = (int) ((long) rows * c / chunks);
+            final int to = (int) ((long) rows * (c + 1) / chunks);
+            final int[] counts = chunkCounts[c];
+
+            hashTasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (int row = from; row < to; row++) {
+                        for (int i = 0; i < keyCount; i++)
+                            if (codeToId[i] != null)
+                                keys[row * width + i] = codeToId[i][keyCodes[i][row]];
+
+                        int hash = hashes[row] = GroupCounter.hash(keys, row * width, width);
+                        if (rowPartitions != null)
+                            counts[rowPartitions[row] = PartitionedGroupCounter.partitionFor(hash, partitionCount)]++;
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        ParallelTasks.runAll(_executor, hashTasks);
+
+        // bucket the rows by partition (a counting sort), keeping them in order within each partition
+        final int[] partitionStart = new int[partitionCount + 1];
+        final int[] partitionRows;
+
+        if (rowPartitions != null) {
+            int pos = 0;
+            for (int p = 0; p < partitionCount; p++) {
+                partitionStart[p] = pos;
+                for (int c = 0; c < chunks; c++) {
+                    int count = chunkCounts[c][p];
+                    chunkCounts[c][p] = pos;
+                    pos += count;
+                }
+            }
+
+            partitionRows = new int[rows];
+            List<Callable<Object>> bucketTasks = new ArrayList<Callable<Object>>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                final int from = (int) ((long) rows * c / chunks);
+                final int to = (int) ((long) rows * (c + 1) / chunks);
+                final int[] next = chunkCounts[c];
+
+                bucketTasks.add(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        for (int row = from; row < to; row++)
+                            partitionRows[next[rowPartitions[row]]++] = row;
+
+                        return null;
+                    }
+                });
+            }
+
+            ParallelTasks.runAll(_executor, bucketTasks);
+        }
+        else
+            partitionRows = null;
+
+        partitionStart[partitionCount] = rows;
+
+        final long rowBase = _rowsSeen;
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(partitionCount);
+
+        for (int p = 0; p < partitionCount; p++) {
+            final Partition partition = _partitions[p];
+            final int from = partitionStart[p];
+            final int to = partitionStart[p + 1];
+
+            tasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (int i = from; i < to; i++) {
+                        int row = (partitionRows != null) ? partitionRows[i] : i;
+                        int group = partition.getGroup(keys, row * width, hashes[row], rowBase + row);
+
+                        for (int a = 0; a < aggregateCount; a++) {
+                            Aggregate.Accumulator accumulator = partition.accumulators[a];
+                            int col = valueIdx[a];
+
+                            switch (_aggregates.get(a).getInput()) {
+                                case ROW:
+                                    accumulator.addRow(group);
+                                    break;
+
+                                case TEXT:
+                                    long textHash = (codeHashes[a] != null) ?
+                                            codeHashes[a][tuples.getStringCode(col, row)] : hashText(tuples.getString(col, row));
+                                    if (textHash != 0)
+                                        accumulator.addText(group, textHash);
+                                    break;
+
+                                case NUMBER:
+                                    double value;
+                                    switch (tuples.getType(col)) {
+                                        case LONG:   value = tuples.getLongColumn(col)[row]; break;
+                                        case DOUBLE: value = tuples.getDoubleColumn(col)[row]; break;
+                                        default:     value = codeNumbers[a][tuples.getStringCode(col, row)]; break;
+                                    }
+                                    if (!Double.isNaN(value))
+                                        accumulator.addValue(group, value);
+                                    break;
+                            }
+                        }
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        ParallelTasks.runAll(_executor, tasks);
+        _rowsSeen += rows;
+    }
+
+    /**
+     * Pushes one tuple per group, in the order the groups were first seen
+     */
+    private void pushGroups() throws Exception {
+        int keyCount = _groupBy.length;
+        int aggregateCount = _aggregates.size();
+
+        // like sql, aggregating no tuples without group fields still yields one (empty) group
+        if (keyCount == 0 && _rowsSeen == 0)
+            _partitions[0].getGroup(new long[1], 0, GroupCounter.hash(new long[1], 0, 1), 0);
+
+        String[] outputFields = new String[keyCount + aggregateCount];
+        ColumnType[] outputTypes = new ColumnType[keyCount + aggregateCount];
+        for (int i = 0; i < keyCount; i++) {
+            outputFields[i] = _groupBy[i];
+            outputTypes[i] = ColumnType.STRING;
+        }
+        for (int a = 0; a < aggregateCount; a++) {
+            outputFields[keyCount + a] = _aggregates.get(a).getName();
+            outputTypes[keyCount + a] = isIntegral(a) ? ColumnType.LONG : _aggregates.get(a).getOutputType();
+        }
+
+        TupleSchema outSchema = new TupleSchema(outputFields, outputTypes);
+
+        int groupCount = 0;
+        for (Partition partition : _partitions)
+            groupCount += partition.groups.size();
+
+        ColumnarTuples.Builder output = new ColumnarTuples.Builder(outSchema, groupCount);
+
+        // the groups of each partition are already in first seen order; merge the partitions
+        int[] next = new int[_partitions.length];
+        for (int n = 0; n < groupCount; n++) {
+            int p = -1;
+            for (int i = 0; i < _partitions.length; i++)
+                if (next[i] < _partitions[i].groups.size() &&
+                        (p == -1 || _partitions[i].firstRow[next[i]] < _partitions[p].firstRow[next[p]]))
+                    p = i;
+
+            Partition partition = _partitions[p];
+            int group = next[p]++;
+
+            for (int i = 0; i < keyCount; i++)
+                output.setValue(i, _keyValues.get((int) partition.groups.getKey(group, i)));
+
+            for (int a = 0; a < aggregateCount; a++)
+                partition.accumulators[a].writeTo(output, keyCount + a, group);
+
+            output.addRow();
+        }
+
+        console.fine(String.format("Pushing %,d group(s) aggregated from %,d tuple(s)", groupCount, _rowsSeen));
+
+        ColumnarTuples groups = output.build();
+        componentContext.pushDataComponentToOutput(OUT_TUPLES, _outputBatch ? groups.convert() : groups.toStringsArray());
+        componentContext.pushDataComponentToOutput(OUT_META_TUPLE, outSchema.convert());
+    }
+
+    /**
+     * @return True if the aggregate is a whole number for all the groups of all the partitions
+     */
+    private boolean isIntegral(int aggregate) {
+        for (Partition partition : _partitions)
+            if (!partition.accumulators[aggregate].isIntegral())
+                return false;
+
+        return true;
+    }
+
+    private int getKeyId(String value) {
+        Integer id = _keyIds.get(value);
+        if (id == null) {
+            id = _keyValues.size();
+            _keyIds.put(value, id);
+            _keyValues.add(value);
+        }
+
+        return id;
+    }
+
+    private static double parseNumber(String value) {
+        if (value.length() == 0)
+            return Double.NaN;
+
+        char c = value.charAt(0);
+        if (!Character.isDigit(c) && c != '-' && c != '+' && c != '.')
+            return Double.NaN;
+
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return The hash of a value, or 0 if the value is empty
+     */
+    private static long hashText(String value) {
+        if (value.length() == 0)
+            return 0;
+
+        long hash = HyperLogLog.hash(value);
+        return (hash != 0) ? hash : 1;
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    /**
+     * The groups whose keys hash to one partition, and their aggregates
+     */
+    private static class Partition {
+        final GroupCounter groups;
+        final Aggregate.Accumulator[] accumulators;
+        long[] firstRow = new long[16];
+
+        Partition(int width, List<Aggregate> aggregates) {
+            groups = new GroupCounter(width);
+            accumulators = new Aggregate.Accumulator[aggregates.size()];
+            for (int a = 0; a < accumulators.length; a++)
+                accumulators[a] = aggregates.get(a).newAccumulator();
+        }
+
+        /**
+         * Returns the group of a key, creating it if the key was not seen before
+         */
+        int getGroup(long[] keys, int offset, int hash, long row) {
+            int size = groups.size();
+            int group = groups.add(keys, offset, hash, 1);
+
+            if (group == size) {
+                if (group == firstRow.length)
+                    firstRow = Arrays.copyOf(firstRow, group * 2);
+                firstRow[group] = row;
+
+                for (Aggregate.Accumulator accumulator : accumulators)
+                    accumulator.addGroup();
+            }
+
+            return group;
+        }
+    }
+}
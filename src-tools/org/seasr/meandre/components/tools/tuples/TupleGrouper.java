@@ -42,7 +42,6 @@
 
 package org.seasr.meandre.components.tools.tuples;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,13 +57,12 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
-import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.apps.sentiment.SentimentSupport;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
-import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.ColumnType;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
+import org.seasr.meandre.support.components.tuples.TupleSchema;
 
 /**
  *
@@ -90,7 +88,8 @@ public class TupleGrouper extends AbstractExecutableComponent {
     @ComponentInput(
             name = Names.PORT_TUPLES,
             description = "set of labelled tuples to be grouped (e.g. startTokenPosition, token, concept)" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
     )
     protected static final String IN_TUPLES = Names.PORT_TUPLES;
 
@@ -106,7 +105,7 @@ public class TupleGrouper extends AbstractExecutableComponent {
     @ComponentOutput(
             name = Names.PORT_TUPLES,
             description = "set of grouped tuples" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: same as input"
     )
     protected static final String OUT_TUPLES = Names.PORT_TUPLES;
 
@@ -195,21 +194,22 @@ public class TupleGrouper extends AbstractExecutableComponent {
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer inPeer  = new SimpleTuplePeer(inputMeta);
-		SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[]{
-				                 WINDOW_FIELD, START_FIELD, posField,
-							     keyField, COUNT_FIELD, FREQ_FIELD});
+		Object input = cc.getDataComponentFromInput(IN_TUPLES);
 
-		StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-		Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
+		ColumnarTuples in = ColumnarTuples.fromInput(input, inputMeta);
+		TupleSchema inSchema  = in.getSchema();
+		TupleSchema outSchema = new TupleSchema(
+				new String[] { WINDOW_FIELD, START_FIELD, posField,
+				               keyField, COUNT_FIELD, FREQ_FIELD },
+				new ColumnType[] { ColumnType.LONG, ColumnType.LONG, ColumnType.STRING,
+				                   ColumnType.STRING, ColumnType.LONG, ColumnType.LONG });
 
+		ColumnarTuples.Builder output = new ColumnarTuples.Builder(outSchema);
 
-		SimpleTuple tuple    = inPeer.createTuple();
-		SimpleTuple outTuple = outPeer.createTuple();
-
-		int KEY_IDX   = inPeer.getIndexForFieldName(keyField);
-		int START_IDX = inPeer.getIndexForFieldName(windowField);
-		int POS_IDX   = inPeer.getIndexForFieldName(posField);
+		int KEY_IDX   = inSchema.getIndexForFieldName(keyField);
+		int START_IDX = inSchema.getIndexForFieldName(windowField);
+		int POS_IDX   = inSchema.getIndexForFieldName(posField);
+		int rows      = in.getRowCount();
 
 		if (KEY_IDX == -1){
 			throw new ComponentExecutionException("tuple has no key field " + keyField);
@@ -222,16 +222,15 @@ public class TupleGrouper extends AbstractExecutableComponent {
 		// assumes, tuples are in order, so the last tuple has the biggest windowField value
 		//
 		long end = 0;
-		if (in.length > 0) {
-		   tuple.setValues(in[in.length - 1]);
-		   end = Long.parseLong(tuple.getValue(START_IDX));
+		if (rows > 0) {
+		   end = in.getLong(START_IDX, rows - 1);
 		}else {
 			console.warning("NO tuples to process");
 		}
 
 		long numberOfWindows = 1;
 		if (DEFAULT_MAX_WINDOWS == -1 && DEFAULT_WINDOW_SIZE == -1) {
-			numberOfWindows = end/in.length; // even split, an average
+			numberOfWindows = end/rows; // even split, an average
 		}
 		else if (DEFAULT_MAX_WINDOWS == -1) {
 			numberOfWindows = end/DEFAULT_WINDOW_SIZE;
@@ -259,16 +258,14 @@ public class TupleGrouper extends AbstractExecutableComponent {
 
 		Map<String,Integer> freqMap = new HashMap<String,Integer>();
 
-		List<Strings> output = new ArrayList<Strings>();
-		for (int i = 0; i < in.length; i++) {
+		for (int i = 0; i < rows; i++) {
 
-			tuple.setValues(in[i]);
-			String concept = tuple.getValue(KEY_IDX);
-			long start     = Long.parseLong(tuple.getValue(START_IDX));
+			String concept = in.getString(KEY_IDX, i);
+			long start     = in.getLong(START_IDX, i);
 
 			String pos = "N.A";
 			if (POS_IDX != -1) {
-				pos = tuple.getValue(POS_IDX);
+				pos = in.getString(POS_IDX, i);
 			}
 
 			if (concept == null) {
@@ -292,7 +289,7 @@ public class TupleGrouper extends AbstractExecutableComponent {
 			//
 			// check to see if we have a window's worth of data
 			//
-			if (start - currentPosition >= windowSize || (i + 1 == in.length)) {
+			if (start - currentPosition >= windowSize || (i + 1 == rows)) {
 
 				List<Map.Entry<String, Integer>> sortedEntries;
 				sortedEntries = SentimentSupport.sortHashMap(freqMap);
@@ -309,13 +306,13 @@ public class TupleGrouper extends AbstractExecutableComponent {
 					double f = ((double)count/(double)total) * 100.0;
 					int rf = (int) f;
 
-					outTuple.setValue(WINDOW_FIELD,  Integer.toString(windowId));
-					outTuple.setValue(START_FIELD,   Long.toString(currentPosition));
-					outTuple.setValue(posField,      pos);
-					outTuple.setValue(keyField,      key);
-					outTuple.setValue(COUNT_FIELD,   Integer.toString(count));
-					outTuple.setValue(FREQ_FIELD,    Integer.toString(rf));
-					output.add(outTuple.convert());
+					output.setLong(0,  windowId);
+					output.setLong(1,  currentPosition);
+					output.setValue(2, pos);
+					output.setValue(3, key);
+					output.setLong(4,  count);
+					output.setLong(5,  rf);
+					output.addRow();
 				}
 
 				freqMap.clear();
@@ -327,17 +324,14 @@ public class TupleGrouper extends AbstractExecutableComponent {
 		}
 
 		//
-		// push the whole collection, protocol safe
+		// push the whole collection, in the same format as the input
 		//
-		Strings[] results = new Strings[output.size()];
-		output.toArray(results);
-		StringsArray outputSafe = BasicDataTypesTools.javaArrayToStringsArray(results);
-		cc.pushDataComponentToOutput(OUT_TUPLES, outputSafe);
+		cc.pushDataComponentToOutput(OUT_TUPLES, output.build().convertLike(input));
 
 	    //
 		// metaData for this tuple producer
 		//
-	    cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
+	    cc.pushDataComponentToOutput(OUT_META_TUPLE, outSchema.convert());
 	}
 
     @Override
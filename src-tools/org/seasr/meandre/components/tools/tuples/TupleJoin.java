@@ -0,0 +1,308 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.tools.tuples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.meandre.annotations.Component;
+import org.meandre.annotations.Component.FiringPolicy;
+import org.meandre.annotations.Component.Licenses;
+import org.meandre.annotations.Component.Mode;
+import org.meandre.annotations.ComponentInput;
+import org.meandre.annotations.ComponentOutput;
+import org.meandre.annotations.ComponentProperty;
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextProperties;
+import org.meandre.core.ComponentExecutionException;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
+import org.seasr.datatypes.core.Names;
+import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.support.components.tuples.HashJoin;
+import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleBatchWriter;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
+
+@Component(
+        name = "Tuple Join",
+        creator = "The Automated Learning Group",
+        baseURL = "meandre://seasr.org/components/foundry/",
+        firingPolicy = FiringPolicy.all,
+        mode = Mode.compute,
+        rights = Licenses.UofINCSA,
+        tags = "#TRANSFORM, tuple, join, merge",
+        description = "This component joins two sets of tuples on equal values of one or more fields, similar to a " +
+                "'SELECT ... FROM left [INNER|LEFT] JOIN right ON left.f1 = right.f1 ...' sql statement. " +
+                "An 'inner' join outputs the fields of the left tuple followed by the fields of the matching right tuple " +
+                "(without the right join fields) for every matching pair; a 'left' join also outputs the left tuples that " +
+                "have no match, with empty right fields; a 'semi' join outputs (once) the left tuples that have at least one match. " +
+                "Right fields whose names clash with left fields are prefixed with 'right_'. " +
+                "The hash table is built over the smaller set of tuples; if that has more tuples than 'max_build_tuples', " +
+                "both sets are partitioned by key into temporary files first and joined one partition at a time.",
+        dependency = {"protobuf-java-2.2.0.jar"}
+)
+public class TupleJoin extends AbstractExecutableComponent {
+
+    //------------------------------ INPUTS ------------------------------------------------------
+
+    @ComponentInput(
+            name = Names.PORT_TUPLES,
+            description = "The left tuple(s)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
+    )
+    protected static final String IN_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentInput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for the left tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String IN_META_TUPLE = Names.PORT_META_TUPLE;
+
+    @ComponentInput(
+            name = "tuples_right",
+            description = "The right tuple(s)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
+    )
+    protected static final String IN_TUPLES_RIGHT = "tuples_right";
+
+    @ComponentInput(
+            name = "meta_tuple_right",
+            description = "The meta data for the right tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String IN_META_TUPLE_RIGHT = "meta_tuple_right";
+
+    //------------------------------ OUTPUTS -----------------------------------------------------
+
+    @ComponentOutput(
+            name = Names.PORT_TUPLES,
+            description = "The joined tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+    )
+    protected static final String OUT_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentOutput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for the joined tuples: the left fields followed by the right fields " +
+                    "that are not join fields (only the left fields for a 'semi' join)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String OUT_META_TUPLE = Names.PORT_META_TUPLE;
+
+    //----------------------------- PROPERTIES ---------------------------------------------------
+
+    @ComponentProperty(
+            name = "join_type",
+            description = "The type of join: inner, left or semi",
+            defaultValue = "inner"
+    )
+    protected static final String PROP_JOIN_TYPE = "join_type";
+
+    @ComponentProperty(
+            name = "left_fields",
+            description = "The left field(s) to join on. Separate multiple fields with commas.",
+            defaultValue = ""
+    )
+    protected static final String PROP_LEFT_FIELDS = "left_fields";
+
+    @ComponentProperty(
+            name = "right_fields",
+            description = "The right field(s) to join on, in the same order as the left fields. " +
+                    "Leave empty if they have the same names as the left fields.",
+            defaultValue = ""
+    )
+    protected static final String PROP_RIGHT_FIELDS = "right_fields";
+
+    @ComponentProperty(
+            name = "max_build_tuples",
+            description = "The maximum number of tuples to hold in the in-memory hash table; larger inputs are " +
+                    "partitioned into temporary files and joined one partition at a time (use -1 for no limit)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_MAX_BUILD_TUPLES = "max_build_tuples";
+
+    //--------------------------------------------------------------------------------------------
+
+
+    protected HashJoin.Type _joinType;
+    protected String[] _leftFields;
+    protected String[] _rightFields;
+    protected int _maxBuildTuples;
+
+
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
+        String joinType = getPropertyOrDieTrying(PROP_JOIN_TYPE, ccp);
+        try {
+            _joinType = HashJoin.Type.valueOf(joinType.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            throw new ComponentExecutionException(String.format("Unknown join type '%s' - use one of: %s",
+                    joinType, Arrays.toString(HashJoin.Type.values()).toLowerCase()));
+        }
+
+        _leftFields = splitFields(getPropertyOrDieTrying(PROP_LEFT_FIELDS, ccp));
+        _rightFields = splitFields(getPropertyOrDieTrying(PROP_RIGHT_FIELDS, true, false, ccp));
+        if (_rightFields.length == 0)
+            _rightFields = _leftFields;
+
+        if (_leftFields.length == 0)
+            throw new ComponentExecutionException("No join fields specified in the '" + PROP_LEFT_FIELDS + "' property");
+
+        if (_leftFields.length != _rightFields.length)
+            throw new ComponentExecutionException(String.format("'%s' and '%s' must list the same number of fields",
+                    PROP_LEFT_FIELDS, PROP_RIGHT_FIELDS));
+
+        _maxBuildTuples = Integer.parseInt(getPropertyOrDieTrying(PROP_MAX_BUILD_TUPLES, ccp));
+    }
+
+    @Override
+    public void executeCallBack(ComponentContext cc) throws Exception {
+        Strings leftMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
+        Strings rightMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE_RIGHT);
+        SimpleTuplePeer leftPeer = TuplePeerRegistry.getPeer(leftMeta);
+        SimpleTuplePeer rightPeer = TuplePeerRegistry.getPeer(rightMeta);
+
+        List<Strings> left = TupleCursor.getTuples(cc.getDataComponentFromInput(IN_TUPLES));
+        List<Strings> right = TupleCursor.getTuples(cc.getDataComponentFromInput(IN_TUPLES_RIGHT));
+
+        final int[] LEFT_IDX = getFieldIndices(leftPeer, _leftFields, "left");
+        final int[] RIGHT_IDX = getFieldIndices(rightPeer, _rightFields, "right");
+
+        // the right fields that are output, renamed if they clash with left fields
+        List<Integer> rightOut = new ArrayList<Integer>();
+        List<String> rightOutNames = new ArrayList<String>();
+
+        if (_joinType != HashJoin.Type.SEMI) {
+            Set<String> names = new HashSet<String>(Arrays.asList(leftPeer.getFieldNames()));
+            Set<Integer> joinFields = new HashSet<Integer>();
+            for (int idx : RIGHT_IDX)
+                joinFields.add(idx);
+
+            for (int i = 0; i < rightPeer.size(); i++) {
+                if (joinFields.contains(i)) continue;
+
+                String name = rightPeer.getFieldNameForIndex(i);
+                while (names.contains(name))
+                    name = "right_" + name;
+
+                names.add(name);
+                rightOut.add(i);
+                rightOutNames.add(name);
+            }
+        }
+
+        SimpleTuplePeer outPeer = leftPeer.extend(rightOutNames.toArray(new String[rightOutNames.size()]));
+
+        final int leftSize = leftPeer.size();
+        final int[] RIGHT_OUT_IDX = new int[rightOut.size()];
+        for (int i = 0; i < RIGHT_OUT_IDX.length; i++)
+            RIGHT_OUT_IDX[i] = rightOut.get(i);
+
+        final TupleBatchWriter writer = new TupleBatchWriter(outPeer);
+
+        HashJoin join = new HashJoin(_joinType, LEFT_IDX, RIGHT_IDX, _maxBuildTuples, null);
+        join.join(left, right, new HashJoin.Output() {
+            public void write(Strings l, Strings r) {
+                if (RIGHT_OUT_IDX.length == 0) {
+                    writer.write(l);
+                    return;
+                }
+
+                for (int i = 0; i < leftSize; i++)
+                    writer.setValue(i, l.getValue(i));
+
+                for (int i = 0; i < RIGHT_OUT_IDX.length; i++)
+                    writer.setValue(leftSize + i, (r != null) ? r.getValue(RIGHT_OUT_IDX[i]) : "");
+
+                writer.writeRow();
+            }
+        });
+
+        console.fine(String.format("Joined %,d left and %,d right tuple(s) into %,d tuple(s)", left.size(), right.size(), writer.size()));
+
+        cc.pushDataComponentToOutput(OUT_TUPLES, writer.build());
+        cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
+    }
+
+    @Override
+    public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private static String[] splitFields(String fields) {
+        List<String> result = new ArrayList<String>();
+        for (String field : fields.split(","))
+            if (field.trim().length() > 0)
+                result.add(field.trim());
+
+        return result.toArray(new String[result.size()]);
+    }
+
+    private static int[] getFieldIndices(SimpleTuplePeer peer, String[] fields, String side) throws ComponentExecutionException {
+        int[] indices = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            indices[i] = peer.getIndexForFieldName(fields[i]);
+            if (indices[i] < 0)
+                throw new ComponentExecutionException(String.format("The %s tuples have no field named '%s'%nAttributes: %s",
+                        side, fields[i], peer.toString()));
+        }
+
+        return indices;
+    }
+}
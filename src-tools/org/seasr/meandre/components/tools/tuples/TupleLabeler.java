@@ -42,9 +42,7 @@
 
 package org.seasr.meandre.components.tools.tuples;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.meandre.annotations.Component;
@@ -59,11 +57,12 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleBatchWriter;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  *
@@ -208,12 +207,10 @@ public class TupleLabeler extends AbstractExecutableComponent {
         //
 
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_CONCEPT_META_TUPLE);
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inputMeta);
+        SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inputMeta);
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_CONCEPT_TUPLES);
-        Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
-
-        SimpleTuple tuple = inPeer.createTuple();
+        TupleCursor tuple = new TupleCursor(inPeer, input);
 
         //
         // convert the list of concept tokens to a map for easy access
@@ -230,9 +227,7 @@ public class TupleLabeler extends AbstractExecutableComponent {
         }
 
         Map<String,String> wordToConceptMap = new HashMap<String,String>();
-        for (int i = 0; i < in.length; i++) {
-
-            tuple.setValues(in[i]);
+        while (tuple.next()) {
             String key   = tuple.getValue(KEY_IDX);
             String value = tuple.getValue(VALUE_IDX);
 
@@ -243,13 +238,11 @@ public class TupleLabeler extends AbstractExecutableComponent {
         // Process the tuple data
         //
         inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        inPeer = new SimpleTuplePeer(inputMeta);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(inPeer, new String[]{hashValueFieldName});
+        inPeer = TuplePeerRegistry.getPeer(inputMeta);
+        SimpleTuplePeer outPeer = inPeer.extend(hashValueFieldName);
 
         input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-        in = BasicDataTypesTools.stringsArrayToJavaArray(input);
-
-        tuple = inPeer.createTuple();
+        tuple = new TupleCursor(inPeer, input);
 
         KEY_IDX = inPeer.getIndexForFieldName(keyFieldName);
         if (KEY_IDX == -1) {
@@ -262,27 +255,22 @@ public class TupleLabeler extends AbstractExecutableComponent {
         // assert VALUE_IDX != -1, since we just added it
 
 
-        List<Strings> output = new ArrayList<Strings>();
-        SimpleTuple outTuple = outPeer.createTuple();
-        for (int i = 0; i < in.length; i++) {
-            tuple.setValues(in[i]);
+        TupleBatchWriter output = new TupleBatchWriter(outPeer);
+        while (tuple.next()) {
             String key = tuple.getValue(KEY_IDX);
             String concept = wordToConceptMap.get(normalize(key));
 
             if (concept != null) {
-                outTuple.setValue(tuple);
-                outTuple.setValue(VALUE_IDX, concept);
-                output.add(outTuple.convert());
+                output.setValues(tuple);
+                output.setValue(VALUE_IDX, concept);
+                output.writeRow();
             }
         }
 
         //
         // push the whole collection, protocol safe
         //
-        Strings[] results = new Strings[output.size()];
-        output.toArray(results);
-        StringsArray outputSafe = BasicDataTypesTools.javaArrayToStringsArray(results);
-        cc.pushDataComponentToOutput(OUT_TUPLES, outputSafe);
+        cc.pushDataComponentToOutput(OUT_TUPLES, output.build());
 
         //
         // metaData for this tuple producer
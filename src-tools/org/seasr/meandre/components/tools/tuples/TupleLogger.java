@@ -58,11 +58,11 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  *
@@ -155,30 +155,26 @@ public class TupleLogger extends AbstractExecutableComponent {
     public void executeCallBack(ComponentContext cc) throws Exception
     {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inputMeta);
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inputMeta);
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples;
+        TupleCursor tuple;
 
         if (input instanceof StringsArray)
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
+            tuple = new TupleCursor(inPeer, (StringsArray) input);
 
         else
 
-        if (input instanceof Strings) {
-            Strings inTuple = (Strings)input;
-            tuples = new Strings[] { inTuple };
-        }
+        if (input instanceof Strings)
+            tuple = new TupleCursor(inPeer, (Strings) input);
+
         else
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
 
 
 		console.info(inPeer.toString());
 
-		SimpleTuple tuple = inPeer.createTuple();
-
-		for (int i = 0; i < tuples.length; i++) {
-			tuple.setValues(tuples[i]);
+		while (tuple.next()) {
 			if (idxList == null) {
 			   console.info(tuple.toString());
 			}
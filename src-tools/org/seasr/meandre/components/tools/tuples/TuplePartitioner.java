@@ -138,8 +138,8 @@ public class TuplePartitioner extends AbstractStreamingExecutableComponent {
         
         if (_wrapStream) {
             StreamDelimiter sd = new StreamInitiator(streamId);
-            cc.pushDataComponentToOutput(OUT_META_TUPLE, sd);
-            cc.pushDataComponentToOutput(OUT_TUPLES, sd);
+            pushBatched(cc, OUT_META_TUPLE, sd);
+            pushBatched(cc, OUT_TUPLES, sd);
         }
         
         if (partitionSize == null)
@@ -147,23 +147,23 @@ public class TuplePartitioner extends AbstractStreamingExecutableComponent {
         
         if (size <= partitionSize) {
         	// optimization
-        	cc.pushDataComponentToOutput(OUT_META_TUPLE, inputMeta);
-        	cc.pushDataComponentToOutput(OUT_TUPLES, input);
+        	pushBatched(cc, OUT_META_TUPLE, inputMeta);
+        	pushBatched(cc, OUT_TUPLES, input);
         } else {
         	for (int i = 0; i < size; i += partitionSize) {
         		StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
         		for (int j = i, jMax = Math.min(i+partitionSize, size); j < jMax; j++)
         			tuplesBuilder.addValue(input.getValue(j));
 
-        		cc.pushDataComponentToOutput(OUT_META_TUPLE, inputMeta);
-        		cc.pushDataComponentToOutput(OUT_TUPLES, tuplesBuilder.build());
+        		pushBatched(cc, OUT_META_TUPLE, inputMeta);
+        		pushBatched(cc, OUT_TUPLES, tuplesBuilder.build());
         	}
         }
 
         if (_wrapStream) {
             StreamDelimiter sd = new StreamTerminator(streamId);
-            cc.pushDataComponentToOutput(OUT_META_TUPLE, sd);
-            cc.pushDataComponentToOutput(OUT_TUPLES, sd);
+            pushBatched(cc, OUT_META_TUPLE, sd);
+            pushBatched(cc, OUT_TUPLES, sd);
         }
     }
 
@@ -42,6 +42,8 @@
 
 package org.seasr.meandre.components.tools.tuples;
 
+import java.util.logging.Level;
+
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
 import org.meandre.annotations.Component.Licenses;
@@ -57,11 +59,11 @@ import org.meandre.core.system.components.ext.StreamInitiator;
 import org.meandre.core.system.components.ext.StreamTerminator;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * 
@@ -146,37 +148,37 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
 	@Override
 	public void executeCallBack(ComponentContext cc) throws Exception {
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer inPeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inputMeta);
 
 		Object input = cc.getDataComponentFromInput(IN_TUPLES);
-		Strings[] tuples;
+		TupleCursor tuple_i, tuple_k;
 
 		Strings inputMeta_2 = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE_2);
-		SimpleTuplePeer inPeer_2 = new SimpleTuplePeer(inputMeta_2);
+		SimpleTuplePeer inPeer_2 = TuplePeerRegistry.getPeer(inputMeta_2);
 
 		Object input_2 = cc.getDataComponentFromInput(IN_TUPLES_2);
-		Strings[] tuples_2;
+		TupleCursor tuple_j;
 
-		if (input instanceof StringsArray)
-			tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
-		else
+		if (input instanceof StringsArray) {
+			tuple_i = new TupleCursor(inPeer, (StringsArray) input);
+			tuple_k = new TupleCursor(inPeer, (StringsArray) input);
+		} else
 			//this is only using one tuple instead, so not useful
 			if (input instanceof Strings) {
-				Strings inTuple = (Strings) input;
-				tuples = new Strings[] { inTuple };
+				tuple_i = new TupleCursor(inPeer, (Strings) input);
+				tuple_k = new TupleCursor(inPeer, (Strings) input);
 			} else
 				throw new ComponentExecutionException(
 						"Don't know how to handle input of type: "
 						+ input.getClass().getName());
 
 		if (input_2 instanceof StringsArray)
-			tuples_2 = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input_2);
+			tuple_j = new TupleCursor(inPeer_2, (StringsArray) input_2);
 		else
 			//this is only using one tuple instead, so not useful
-			if (input_2 instanceof Strings) {
-				Strings inTuple_2 = (Strings) input_2;
-				tuples_2 = new Strings[] { inTuple_2 };
-			} else
+			if (input_2 instanceof Strings)
+				tuple_j = new TupleCursor(inPeer_2, (Strings) input_2);
+			else
 				throw new ComponentExecutionException(
 						"Don't know how to handle input of type: "
 						+ input.getClass().getName());
@@ -186,15 +188,11 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
 			cc.pushDataComponentToOutput(OUT_QUERY, sd);
 		}
 
-		SimpleTuple tuple_i = inPeer.createTuple();
-		SimpleTuple tuple_j = inPeer_2.createTuple();
-		SimpleTuple tuple_k = inPeer.createTuple();
-
-		for (int i = 0; i < tuples.length; i++) {
-			tuple_i.setValues(tuples[i]);
+		for (int i = 0, iMax = tuple_i.size(); i < iMax; i++) {
+			tuple_i.moveTo(i);
 			String word_i = tuple_i.getValue(0);
-			for (int j = 0; j < tuples_2.length; j++) {
-				tuple_j.setValues(tuples_2[j]);
+			for (int j = 0, jMax = tuple_j.size(); j < jMax; j++) {
+				tuple_j.moveTo(j);
 				String word_j = tuple_j.getValue(0);
 				// skip the calculation if the word in list 1 is the same as the word in list 2
 				if (!word_i.equalsIgnoreCase(word_j)) {
@@ -202,7 +200,7 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
 					// skip the calculation if we have already made the comparison of the word in list 2 because it occurs earlier in list 1
 					boolean found = false;
 					for (int k=0; k<i; k++) {
-						tuple_k.setValues(tuples[k]);
+						tuple_k.moveTo(k);
 						String word_k = tuple_k.getValue(0);
 						if (word_j.equalsIgnoreCase(word_k)) {
 							found = true;
@@ -212,7 +210,8 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
 
 					if (!found){
 
-						console.fine("word 1 = " + tuple_i.toString() + " word 2 = " + tuple_j.toString());
+						if (console.isLoggable(Level.FINE))
+							console.fine("word 1 = " + tuple_i.toString() + " word 2 = " + tuple_j.toString());
 
 						String query = "SELECT \"" 
 						+tuple_i.toString()
@@ -240,7 +239,8 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
 						+"LEFT JOIN ngrams n USING(ngram) LEFT JOIN yearly_summary s USING(year) "
 						+"GROUP BY ngram_label, year HAVING year >= "+ _min_year+" AND year <= "+_max_year+") t2 group by year) t3;";
 
-						console.finer("query = "+query);
+						if (console.isLoggable(Level.FINER))
+							console.finer("query = "+query);
 						cc.pushDataComponentToOutput(OUT_QUERY, query);
 					}
 				}
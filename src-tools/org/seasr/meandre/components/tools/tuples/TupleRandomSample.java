@@ -1,8 +1,8 @@
 package org.seasr.meandre.components.tools.tuples;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -12,11 +12,19 @@ import org.meandre.annotations.ComponentInput;
 import org.meandre.annotations.ComponentOutput;
 import org.meandre.annotations.ComponentProperty;
 import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextException;
 import org.meandre.core.ComponentContextProperties;
+import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
 import org.seasr.datatypes.core.Names;
-import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
+import org.seasr.meandre.support.components.tuples.ReservoirSampler;
+import org.seasr.meandre.support.components.tuples.Sampler;
+import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
+import org.seasr.meandre.support.components.tuples.WeightedReservoirSampler;
 
 /**
 *
@@ -33,17 +41,24 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
        rights = Licenses.UofINCSA,
        tags = "#TRANSFORM, tuple, tools, sample",
        description = "This component creates a random sample of a specified size " +
-       		"from the tuples received as input" ,
+       		"from the tuples received as input. If the tuples arrive inside a stream whose id matches " +
+       		"the '_stream_id' property, the sample is drawn from all the tuples of the stream and output " +
+       		"when the stream ends; only 'sample_size' tuples are held in memory regardless of the length " +
+       		"of the stream. Otherwise each set of tuples is sampled on its own. The sampling can be weighted " +
+       		"by a numeric field, and can be stratified by a field, in which case a sample of 'sample_size' " +
+       		"tuples is drawn for every distinct value of that field." ,
        dependency = { "protobuf-java-2.2.0.jar" }
 )
-public class TupleRandomSample extends AbstractExecutableComponent {
+public class TupleRandomSample extends AbstractStreamingExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
 
     @ComponentInput(
             name = Names.PORT_TUPLES,
-            description = "The set of tuples" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+            description = "The tuple(s)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
     )
     protected static final String IN_TUPLES = Names.PORT_TUPLES;
 
@@ -86,53 +101,167 @@ public class TupleRandomSample extends AbstractExecutableComponent {
     )
     protected static final String PROP_RANDOM_SEED = Names.PROP_SEED;
 
+    @ComponentProperty(
+            name = "weight_field",
+            description = "The numeric field holding the sampling weight of each tuple; tuples with a weight " +
+                    "that is not a positive number are never sampled (can be empty for uniform sampling)",
+            defaultValue = ""
+    )
+    protected static final String PROP_WEIGHT_FIELD = "weight_field";
+
+    @ComponentProperty(
+            name = "stratify_field",
+            description = "The field to stratify by: a separate sample is drawn for every distinct value " +
+                    "of this field (can be empty)",
+            defaultValue = ""
+    )
+    protected static final String PROP_STRATIFY_FIELD = "stratify_field";
+
     //--------------------------------------------------------------------------------------------
 
 
     protected int _sampleSize;
-    protected ThreadLocalRandom _random;
+    protected Random _random;
+    protected String _weightField;
+    protected String _stratifyField;
+
+    private Map<String, Sampler<Strings>> _samplers;
+    private Strings _metaTuple;
+    private int _weightIdx;
+    private int _stratifyIdx;
+    private boolean _inStream = false;
 
 
     //--------------------------------------------------------------------------------------------
 	
     @Override
 	public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
+    	super.initializeCallBack(ccp);
+
     	_sampleSize = Integer.parseInt(getPropertyOrDieTrying(PROP_SAMPLE_SIZE, ccp));
+    	if (_sampleSize < 1)
+    		throw new ComponentContextException(PROP_SAMPLE_SIZE + " must be positive");
+
+
     	String sRandomSeed = getPropertyOrDieTrying(PROP_RANDOM_SEED, true, false, ccp);
 		Long randomSeed = sRandomSeed.isEmpty() ? null : Long.parseLong(sRandomSeed);
 		
-    	_random = ThreadLocalRandom.current();
     	if (randomSeed != null) {
     		console.fine("Using random seed value: " + randomSeed);
-    		_random.setSeed(randomSeed);
-    	}
+    		_random = new Random(randomSeed);
+    	} else
+    		_random = new Random();
+
+    	_weightField = getPropertyOrDieTrying(PROP_WEIGHT_FIELD, true, false, ccp);
+    	_stratifyField = getPropertyOrDieTrying(PROP_STRATIFY_FIELD, true, false, ccp);
 	}
 
 	@Override
 	public void executeCallBack(ComponentContext cc) throws Exception {
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-        List<Strings> tuples = new ArrayList<Strings>(input.getValueList());
-        StringsArray output = input;
-       
-        int size = input.getValueCount();
-       
-        if (size > _sampleSize) {
-        	StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
-        	for (int i = 0; i < _sampleSize; i++) {
-        		int pos = _random.nextInt(i, size);
-        		tuplesBuilder.addValue(tuples.get(pos));
-        		tuples.set(pos, tuples.get(i));
-        	}
-        	output = tuplesBuilder.build();
+        Object input = cc.getDataComponentFromInput(IN_TUPLES);
+
+        if (_metaTuple != null && !_metaTuple.getValueList().equals(inputMeta.getValueList()))
+            throw new ComponentExecutionException("Tuple metadata mismatch!");
+
+        if (_samplers == null) {
+            SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inputMeta);
+            _weightIdx = getFieldIndex(inPeer, _weightField);
+            _stratifyIdx = getFieldIndex(inPeer, _stratifyField);
+            _samplers = new LinkedHashMap<String, Sampler<Strings>>();
+            _metaTuple = inputMeta;
         }
-        
-        cc.pushDataComponentToOutput(OUT_META_TUPLE, inputMeta);
-        cc.pushDataComponentToOutput(OUT_TUPLES, output);
+
+        for (Strings tuple : TupleCursor.getTuples(input)) {
+            String stratum = (_stratifyIdx >= 0) ? tuple.getValue(_stratifyIdx) : "";
+            Sampler<Strings> sampler = _samplers.get(stratum);
+            if (sampler == null) {
+                sampler = (_weightIdx >= 0) ?
+                        new WeightedReservoirSampler<Strings>(_sampleSize, _random) :
+                        new ReservoirSampler<Strings>(_sampleSize, _random);
+                _samplers.put(stratum, sampler);
+            }
+
+            sampler.add(tuple, (_weightIdx >= 0) ? parseWeight(tuple.getValue(_weightIdx)) : 1d);
+        }
+
+        // not inside a stream: each set of tuples is sampled on its own
+        if (!_inStream)
+            pushSample();
 	}
 
 	@Override
-	public void disposeCallBack(ComponentContextProperties ccp) throws Exception {		
+	public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
+		_samplers = null;
 	}
 
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean isAccumulator() {
+        return true;
+    }
+
+    @Override
+    protected boolean isStreamIdRequired() {
+        // '_stream_id' is not set in flows created before this component handled streams
+        return false;
+    }
+
+    @Override
+    public void startStream() throws Exception {
+        _inStream = true;
+    }
+
+    @Override
+    public void endStream() throws Exception {
+        _inStream = false;
+
+        if (_samplers != null)
+            pushSample();
+        else
+            console.warning("Nothing to push - the stream did not contain any tuples");
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private void pushSample() throws Exception {
+        StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
+        long count = 0;
+
+        for (Sampler<Strings> sampler : _samplers.values()) {
+            tuplesBuilder.addAllValue(sampler.getSample());
+            count += sampler.getCount();
+        }
+
+        console.fine(String.format("Sampled %,d out of %,d tuple(s) from %,d strata",
+                tuplesBuilder.getValueCount(), count, _samplers.size()));
+
+        componentContext.pushDataComponentToOutput(OUT_META_TUPLE, _metaTuple);
+        componentContext.pushDataComponentToOutput(OUT_TUPLES, tuplesBuilder.build());
+
+        _samplers = null;
+        _metaTuple = null;
+    }
+
+    private int getFieldIndex(SimpleTuplePeer peer, String field) throws ComponentExecutionException {
+        if (field.length() == 0)
+            return -1;
+
+        int idx = peer.getIndexForFieldName(field);
+        if (idx == -1)
+            throw new ComponentExecutionException("Tuple has no field named " + field);
+
+        return idx;
+    }
+
+    private static double parseWeight(String value) {
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
 }
@@ -0,0 +1,281 @@
+/**
+*
+* University of Illinois/NCSA
+* Open Source License
+*
+* Copyright (c) 2008, NCSA.  All rights reserved.
+*
+* Developed by:
+* The Automated Learning Group
+* University of Illinois at Urbana-Champaign
+* http://www.seasr.org
+*
+* Permission is hereby granted, free of charge, to any person obtaining
+* a copy of this software and associated documentation files (the
+* "Software"), to deal with the Software without restriction, including
+* without limitation the rights to use, copy, modify, merge, publish,
+* distribute, sublicense, and/or sell copies of the Software, and to
+* permit persons to whom the Software is furnished to do so, subject
+* to the following conditions:
+*
+* Redistributions of source code must retain the above copyright
+* notice, this list of conditions and the following disclaimers.
+*
+* Redistributions in binary form must reproduce the above copyright
+* notice, this list of conditions and the following disclaimers in
+* the documentation and/or other materials provided with the distribution.
+*
+* Neither the names of The Automated Learning Group, University of
+* Illinois at Urbana-Champaign, nor the names of its contributors may
+* be used to endorse or promote products derived from this Software
+* without specific prior written permission.
+*
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE CONTRIBUTORS OR COPYRIGHT HOLDERS BE LIABLE
+* FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+* CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+* WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*
+*/
+
+
+package org.seasr.meandre.components.tools.tuples;
+
+import java.util.Locale;
+
+import org.meandre.annotations.Component;
+import org.meandre.annotations.Component.FiringPolicy;
+import org.meandre.annotations.Component.Licenses;
+import org.meandre.annotations.Component.Mode;
+import org.meandre.annotations.ComponentInput;
+import org.meandre.annotations.ComponentOutput;
+import org.meandre.annotations.ComponentProperty;
+import org.meandre.core.ComponentContext;
+import org.meandre.core.ComponentContextProperties;
+import org.meandre.core.ComponentExecutionException;
+import org.seasr.datatypes.core.BasicDataTypes.Strings;
+import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
+import org.seasr.datatypes.core.Names;
+import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
+import org.seasr.meandre.support.components.tuples.ExternalTupleSorter;
+import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
+import org.seasr.meandre.support.components.tuples.TupleSortOrder;
+
+@Component(
+        name = "Tuple Sorter",
+        creator = "The Automated Learning Group",
+        baseURL = "meandre://seasr.org/components/foundry/",
+        firingPolicy = FiringPolicy.all,
+        mode = Mode.compute,
+        rights = Licenses.UofINCSA,
+        tags = "#TRANSFORM, tuple, sort, order, top",
+        description = "This component sorts the incoming tuples by one or more fields, similar to an 'ORDER BY' sql clause. " +
+                "If the tuples arrive inside a stream whose id matches the '_stream_id' property, all the tuples of the stream " +
+                "are sorted together and output when the stream ends; otherwise each set of tuples is sorted on its own. " +
+                "When more tuples than 'max_tuples_in_memory' are received, sorted runs are written to temporary files " +
+                "and merged at the end. Tuples with equal sort values keep their input order.",
+        dependency = {"protobuf-java-2.2.0.jar"}
+)
+public class TupleSorter extends AbstractStreamingExecutableComponent {
+
+    //------------------------------ INPUTS ------------------------------------------------------
+
+    @ComponentInput(
+            name = Names.PORT_TUPLES,
+            description = "The tuple(s)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
+    )
+    protected static final String IN_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentInput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String IN_META_TUPLE = Names.PORT_META_TUPLE;
+
+    //------------------------------ OUTPUTS -----------------------------------------------------
+
+    @ComponentOutput(
+            name = Names.PORT_TUPLES,
+            description = "The sorted tuples" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+    )
+    protected static final String OUT_TUPLES = Names.PORT_TUPLES;
+
+    @ComponentOutput(
+            name = Names.PORT_META_TUPLE,
+            description = "The meta data for the tuples (same as input)" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings"
+    )
+    protected static final String OUT_META_TUPLE = Names.PORT_META_TUPLE;
+
+    //----------------------------- PROPERTIES ---------------------------------------------------
+
+    @ComponentProperty(
+            name = "sort_by",
+            description = "The field(s) to sort by, separated by commas. Each field can be followed by 'asc' or 'desc' " +
+                    "and by the type of comparison: 'lexical' (the default), 'numeric' or 'collation' (locale aware). " +
+                    "Values that are not numbers sort last in a numeric comparison, whatever the direction. " +
+                    "Example: count desc numeric, token collation",
+            defaultValue = ""
+    )
+    protected static final String PROP_SORT_BY = "sort_by";
+
+    @ComponentProperty(
+            name = "locale",
+            description = "The locale used for 'collation' comparisons, e.g. en_US or fr",
+            defaultValue = "en_US"
+    )
+    protected static final String PROP_LOCALE = "locale";
+
+    @ComponentProperty(
+            name = "top_k",
+            description = "Keep only the first K tuples of the sort order (use -1 to keep all the tuples)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_TOP_K = "top_k";
+
+    @ComponentProperty(
+            name = "max_tuples_in_memory",
+            description = "The maximum number of tuples held in memory; beyond this, sorted runs are spilled " +
+                    "to temporary files (use -1 for no limit)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_MAX_TUPLES_IN_MEMORY = "max_tuples_in_memory";
+
+    @ComponentProperty(
+            name = "batch_size",
+            description = "The maximum number of tuples pushed per output; larger results are pushed as several sets " +
+                    "of tuples (use -1 to push all the tuples at once)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_BATCH_SIZE = "batch_size";
+
+    //--------------------------------------------------------------------------------------------
+
+
+    protected String _sortBy;
+    protected Locale _locale;
+    protected int _topK;
+    protected int _maxTuplesInMemory;
+    protected int _batchSize;
+
+    private ExternalTupleSorter _sorter;
+    private Strings _metaTuple;
+    private boolean _inStream = false;
+
+
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
+        super.initializeCallBack(ccp);
+
+        _sortBy = getPropertyOrDieTrying(PROP_SORT_BY, ccp);
+
+        String[] locale = getPropertyOrDieTrying(PROP_LOCALE, ccp).split("_");
+        _locale = (locale.length > 1) ? new Locale(locale[0], locale[1]) : new Locale(locale[0]);
+
+        _topK = Integer.parseInt(getPropertyOrDieTrying(PROP_TOP_K, ccp));
+        _maxTuplesInMemory = Integer.parseInt(getPropertyOrDieTrying(PROP_MAX_TUPLES_IN_MEMORY, ccp));
+        _batchSize = Integer.parseInt(getPropertyOrDieTrying(PROP_BATCH_SIZE, ccp));
+    }
+
+    @Override
+    public void executeCallBack(ComponentContext cc) throws Exception {
+        Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
+        Object input = cc.getDataComponentFromInput(IN_TUPLES);
+
+        if (_metaTuple != null && !_metaTuple.getValueList().equals(inputMeta.getValueList()))
+            throw new ComponentExecutionException("Tuple metadata mismatch!");
+
+        if (_sorter == null) {
+            SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inputMeta);
+            TupleSortOrder order;
+            try {
+                order = TupleSortOrder.parse(_sortBy, inPeer, _locale);
+            }
+            catch (IllegalArgumentException e) {
+                throw new ComponentExecutionException(e.getMessage());
+            }
+
+            _sorter = new ExternalTupleSorter(order, _maxTuplesInMemory, _topK, null);
+            _metaTuple = inputMeta;
+        }
+
+        for (Strings tuple : TupleCursor.getTuples(input))
+            _sorter.add(tuple);
+
+        // not inside a stream: each set of tuples is sorted on its own
+        if (!_inStream)
+            pushSorted();
+    }
+
+    @Override
+    public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
+        if (_sorter != null) {
+            _sorter.dispose();
+            _sorter = null;
+        }
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    @Override
+    public boolean isAccumulator() {
+        return true;
+    }
+
+    @Override
+    public void startStream() throws Exception {
+        _inStream = true;
+    }
+
+    @Override
+    public void endStream() throws Exception {
+        _inStream = false;
+
+        if (_sorter != null)
+            pushSorted();
+        else
+            console.warning("Nothing to push - the stream did not contain any tuples");
+    }
+
+    //--------------------------------------------------------------------------------------------
+
+    private void pushSorted() throws Exception {
+        final Strings meta = _metaTuple;
+        final ExternalTupleSorter sorter = _sorter;
+        _sorter = null;
+        _metaTuple = null;
+
+        console.fine(String.format("Sorting %,d tuple(s) (%d run(s) on disk)", sorter.getCount(), sorter.getRunCount()));
+
+        final StringsArray.Builder[] batch = { StringsArray.newBuilder() };
+
+        sorter.sort(new ExternalTupleSorter.Output() {
+            public void write(Strings tuple) throws Exception {
+                batch[0].addValue(tuple);
+
+                if (_batchSize > 0 && batch[0].getValueCount() >= _batchSize) {
+                    componentContext.pushDataComponentToOutput(OUT_TUPLES, batch[0].build());
+                    componentContext.pushDataComponentToOutput(OUT_META_TUPLE, meta);
+                    batch[0] = StringsArray.newBuilder();
+                }
+            }
+        });
+
+        if (batch[0].getValueCount() > 0 || _batchSize <= 0) {
+            componentContext.pushDataComponentToOutput(OUT_TUPLES, batch[0].build());
+            componentContext.pushDataComponentToOutput(OUT_META_TUPLE, meta);
+        }
+    }
+}
@@ -56,7 +56,6 @@ import org.meandre.core.system.components.ext.StreamInitiator;
 import org.meandre.core.system.components.ext.StreamTerminator;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 
@@ -137,7 +136,6 @@ public class TupleSplitter extends AbstractStreamingExecutableComponent {
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples = BasicDataTypesTools.stringsArrayToJavaArray(input);
 
         if (_wrapStream) {
             StreamDelimiter sd = new StreamInitiator(streamId);
@@ -145,7 +143,7 @@ public class TupleSplitter extends AbstractStreamingExecutableComponent {
             cc.pushDataComponentToOutput(OUT_TUPLE, sd);
         }
 
-        for (Strings tuple : tuples) {
+        for (Strings tuple : input.getValueList()) {
             cc.pushDataComponentToOutput(OUT_META_TUPLE, inputMeta);
             cc.pushDataComponentToOutput(OUT_TUPLE, tuple);
         }
@@ -60,8 +60,9 @@ import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.supercsv.cellprocessor.Optional;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.encoder.CsvEncoder;
@@ -154,11 +155,10 @@ public class TupleToCSV extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
-        SimpleTuple tuple = tuplePeer.createTuple();
+        SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
+        TupleCursor tuple = new TupleCursor(tuplePeer, input);
 
         int size = tuplePeer.size();
 
@@ -183,8 +183,7 @@ public class TupleToCSV extends AbstractExecutableComponent {
                 csvWriter.writeHeader(header);
 
             List<String> rowData = new ArrayList<String>(size);
-            for (int i = 0; i < in.length; i++) {
-                tuple.setValues(in[i]);
+            while (tuple.next()) {
                 rowData.clear();
 
                 for (int j = 0; j < size; j++)
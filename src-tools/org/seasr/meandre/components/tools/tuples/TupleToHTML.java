@@ -55,11 +55,11 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.vis.html.VelocityTemplateToHTML;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -116,22 +116,23 @@ public class TupleToHTML extends VelocityTemplateToHTML {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inMeta);
-        Strings[] inTuples = BasicDataTypesTools.stringsArrayToJavaArray(input);
+        SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inMeta);
+        TupleCursor tuple = new TupleCursor(inPeer, input);
 
-        Map<String, List<String>> data = new LinkedHashMap<String, List<String>>(inPeer.size());
-        for (int i = 0, iMax = inPeer.size(); i < iMax; i++)
-            data.put(inPeer.getFieldNameForIndex(i), new ArrayList<String>());
-
-        for (Strings inTuple : inTuples) {
-            SimpleTuple tuple = inPeer.createTuple();
-            tuple.setValues(inTuple);
-
-            for (int i = 0, iMax = inPeer.size(); i < iMax; i++)
-                data.get(inPeer.getFieldNameForIndex(i)).add(tuple.getValue(i));
+        int fieldCount = inPeer.size();
+        List<List<String>> columns = new ArrayList<List<String>>(fieldCount);
+        Map<String, List<String>> data = new LinkedHashMap<String, List<String>>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            List<String> column = new ArrayList<String>(tuple.size());
+            columns.add(column);
+            data.put(inPeer.getFieldNameForIndex(i), column);
         }
 
-        context.put("_tuplesCount", inTuples.length);
+        while (tuple.next())
+            for (int i = 0; i < fieldCount; i++)
+                columns.get(i).add(tuple.getValue(i));
+
+        context.put("_tuplesCount", tuple.size());
         context.put("_tuples", data);
 
         super.executeCallBack(cc);
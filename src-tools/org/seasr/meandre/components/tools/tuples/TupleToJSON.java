@@ -58,8 +58,9 @@ import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -141,32 +142,28 @@ public class TupleToJSON extends AbstractExecutableComponent {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inMeta);
-        SimpleTuple tuple = inPeer.createTuple();
-
-        Strings[] inTuples = BasicDataTypesTools.stringsArrayToJavaArray(input);
+        SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inMeta);
+        TupleCursor tuple = new TupleCursor(inPeer, input);
+        String[] fieldNames = inPeer.getFieldNames();
 
         if (_compactOutput) {
             JSONObject joResult = new JSONObject();
-            for (String fieldName : inPeer.getFieldNames()) {
+            for (int i = 0; i < fieldNames.length; i++) {
                 JSONArray jaField = new JSONArray();
-                for (Strings inTuple : inTuples) {
-                    tuple.setValues(inTuple);
-                    jaField.put(tuple.getValue(fieldName));
-                }
-                joResult.put(fieldName, jaField);
+                tuple.reset();
+                while (tuple.next())
+                    jaField.put(tuple.getValue(i));
+                joResult.put(fieldNames[i], jaField);
             }
 
             String output = _indentOutput ? joResult.toString(3) : joResult.toString();
             cc.pushDataComponentToOutput(OUT_JSON, BasicDataTypesTools.stringToStrings(output));
         } else {
             JSONArray jaTuples = new JSONArray();
-            for (Strings inTuple : inTuples) {
-                tuple.setValues(inTuple);
-
+            while (tuple.next()) {
                 JSONObject joTuple = new JSONObject();
-                for (String fieldName : inPeer.getFieldNames())
-                    joTuple.put(fieldName, tuple.getValue(fieldName));
+                for (int i = 0; i < fieldNames.length; i++)
+                    joTuple.put(fieldNames[i], tuple.getValue(i));
 
                 jaTuples.put(joTuple);
             }
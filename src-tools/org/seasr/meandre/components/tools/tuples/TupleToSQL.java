@@ -68,13 +68,13 @@ import org.meandre.core.system.components.ext.StreamInitiator;
 import org.meandre.core.system.components.ext.StreamTerminator;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 import org.seasr.meandre.support.components.db.DBUtils;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 import com.jolbox.bonecp.BoneCP;
 
@@ -162,11 +162,30 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
     )
     protected static final String PROP_DROP_TABLE = "drop_table";
 
+    @ComponentProperty(
+            name = Names.PROP_MAX_QUEUED_BYTES,
+            description = "The number of bytes of inputs queued in memory per input port while waiting for a database connection; " +
+                    "beyond this, queued inputs are spilled to a temporary file (use -1 for no limit)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_MAX_QUEUED_BYTES = Names.PROP_MAX_QUEUED_BYTES;
+
+    @ComponentProperty(
+            name = Names.PROP_MAX_SPILLED_BYTES,
+            description = "The size of the temporary file holding the spilled inputs of each input port; " +
+                    "an error is raised when it is full (ignored if max_queued_bytes is -1)",
+            defaultValue = "1073741824"
+    )
+    protected static final String PROP_MAX_SPILLED_BYTES = Names.PROP_MAX_SPILLED_BYTES;
+
     //--------------------------------------------------------------------------------------------
 
 
     protected static final int MAX_INSERTS_PER_BATCH = 100;
 
+    /** The input ports consumed together (table name, meta, tuples), resolved when the component initializes */
+    protected int[] _dataPorts;
+
     protected BoneCP connectionPool = null;
 
     protected String _columnDefs;
@@ -188,6 +207,15 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
         _columnDefs = getPropertyOrDieTrying(PROP_COLUMNDEFS, ccp);
         _tableOptions = getPropertyOrDieTrying(PROP_TABLE_OPTIONS, true, false, ccp);
         _dropTable = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_DROP_TABLE, ccp));
+
+        _dataPorts = new int[] {
+                componentInputCache.getPortIndex(IN_TABLE_NAME),
+                componentInputCache.getPortIndex(IN_META_TUPLE),
+                componentInputCache.getPortIndex(IN_TUPLES) };
+
+        long maxQueuedBytes = Long.parseLong(getPropertyOrDefault(PROP_MAX_QUEUED_BYTES, "-1", ccp));
+        if (maxQueuedBytes >= 0)
+            componentInputCache.setBounds(maxQueuedBytes, Long.parseLong(getPropertyOrDefault(PROP_MAX_SPILLED_BYTES, "1073741824", ccp)));
     }
 
     @Override
@@ -207,7 +235,7 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
                 console.warning("Stream delimiters should not arrive on port '" + IN_DB_CONN_POOL + "'. Ignoring...");
         }
 
-        if (connectionPool == null || !componentInputCache.hasDataAll(new String[] { IN_TABLE_NAME, IN_META_TUPLE, IN_TUPLES }))
+        if (connectionPool == null || !componentInputCache.hasDataAll(_dataPorts))
             // we're not ready to process yet, return
             return;
 
@@ -224,8 +252,8 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
                     continue;
                 }
 
-                Object inMeta = componentInputCache.retrieveNext(IN_META_TUPLE);
-                Object inTuple = componentInputCache.retrieveNext(IN_TUPLES);
+                Object inMeta = componentInputCache.retrieveNext(_dataPorts[1]);
+                Object inTuple = componentInputCache.retrieveNext(_dataPorts[2]);
                 String tableName = DataTypeParser.parseAsString(inTableName)[0];
 
                 if (inMeta instanceof StreamInitiator || inTuple instanceof StreamInitiator) {
@@ -287,9 +315,8 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
                     componentInputCache.retrieveNext(IN_TABLE_NAME); // remove from queue the current table name
                 }
 
-                SimpleTuplePeer metaPeer  = new SimpleTuplePeer((Strings) inMeta);
-                Strings[] tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) inTuple);
-                SimpleTuple tuple = metaPeer.createTuple();
+                SimpleTuplePeer metaPeer  = TuplePeerRegistry.getPeer((Strings) inMeta);
+                TupleCursor tuple = new TupleCursor(metaPeer, (StringsArray) inTuple);
 
                 if (console.isLoggable(Level.FINER)) {
                     StringBuilder sb = new StringBuilder();
@@ -305,12 +332,15 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
 
                     int count = 0;
 
-                    for (Strings t : tuples) {
-                        tuple.setValues(t);
+                    int[] columnIdx = new int[_currentTableColumns.size()];
+                    for (int i = 0; i < columnIdx.length; i++)
+                        columnIdx[i] = metaPeer.getIndexForFieldName(_currentTableColumns.get(i));
 
-                        for (int i = 0, iMax = _currentTableColumns.size(); i < iMax; i++) {
-                            console.finer("Retrieving tuple value for column (single quotes added): '" + _currentTableColumns.get(i) + "'");
-                            String tupleValue = tuple.getValue(_currentTableColumns.get(i));
+                    while (tuple.next()) {
+                        for (int i = 0; i < columnIdx.length; i++) {
+                            if (console.isLoggable(Level.FINER))
+                                console.finer("Retrieving tuple value for column (single quotes added): '" + _currentTableColumns.get(i) + "'");
+                            String tupleValue = tuple.getValue(columnIdx[i]);
                             ps.setObject(i + 1, tupleValue.length() > 0 ? tupleValue : null);
                         }
 
@@ -330,8 +360,9 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
                     String newLine = System.getProperty("line.separator");
                     StringBuilder sb = new StringBuilder();
                     sb.append(newLine);
-                    for (Strings t : tuples)
-                        sb.append(SimpleTuplePeer.toString(BasicDataTypesTools.stringsToStringArray(t))).append(newLine);
+                    tuple.reset();
+                    while (tuple.next())
+                        sb.append(tuple.toString()).append(newLine);
 
                     console.log(Level.SEVERE, sb.toString(), e);
                     throw e;
@@ -344,7 +375,7 @@ public class TupleToSQL extends AbstractStreamingExecutableComponent {
                 if (!_isStreaming)
                     cc.pushDataComponentToOutput(OUT_TABLE_NAME, tableName);
 
-            } while (componentInputCache.hasDataAll(new String[] { IN_TABLE_NAME, IN_META_TUPLE, IN_TUPLES }));
+            } while (componentInputCache.hasDataAll(_dataPorts));
         }
         finally {
             DBUtils.releaseConnection(connection);
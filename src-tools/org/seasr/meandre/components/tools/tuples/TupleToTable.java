@@ -42,6 +42,8 @@
 
 package org.seasr.meandre.components.tools.tuples;
 
+import java.util.logging.Level;
+
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
 import org.meandre.annotations.Component.Licenses;
@@ -52,15 +54,15 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.datatypes.datamining.table.Column;
 import org.seasr.datatypes.datamining.table.ColumnTypes;
 import org.seasr.datatypes.datamining.table.MutableTable;
 import org.seasr.datatypes.datamining.table.TableFactory;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  *
@@ -149,23 +151,22 @@ public class TupleToTable extends AbstractExecutableComponent {
 
         TableFactory _fact;
         MutableTable _table;
-        Strings[] in = null;
         SimpleTuplePeer tuplePeer = null;
-        SimpleTuple tuple = null;
+        TupleCursor tuple = null;
 
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        tuplePeer = new SimpleTuplePeer(inputMeta);
-        tuple = tuplePeer.createTuple();
+        tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-        in = BasicDataTypesTools.stringsArrayToJavaArray(input);
+        tuple = new TupleCursor(tuplePeer, input);
 
         _fact = (TableFactory)cc.getDataComponentFromInput(IN_TABLE_FACTORY);
         _table = (MutableTable)_fact.createTable();
 
-        if ((_table != null) && (in != null) && (tuple != null)) {
+        if ((_table != null) && (tuple != null)) {
             int size = tuplePeer.size();
-            console.fine("Number of rows: "+in.length+" Number of columns: "+size);
+            int rows = tuple.size();
+            console.fine("Number of rows: "+rows+" Number of columns: "+size);
 
             for (int j = 0; j < size; j++) {
                 int col=0;
@@ -177,19 +178,18 @@ public class TupleToTable extends AbstractExecutableComponent {
 
                 _table.addColumn(column);
             }
-            _table.addRows(in.length);
-
-            for (int j = 0; j < size; j++) {
-                for (int i = 0; i < in.length; i++) {
-
-                    tuple.setValues(in[i]);
-                    //int row = _table.getNumRows();
+            _table.addRows(rows);
 
+            boolean finest = console.isLoggable(Level.FINEST);
+            for (int i = 0; tuple.next(); i++) {
+                for (int j = 0; j < size; j++) {
                     String value = tuple.getValue(j);
-                    if (value.length()<100)
-                        console.finest("Setting table: ("+i+","+j+")="+value);
-                    else
-                        console.finest("Setting table: ("+i+","+j+")="+value.substring(0, 100)+"...");
+                    if (finest) {
+                        if (value.length()<100)
+                            console.finest("Setting table: ("+i+","+j+")="+value);
+                        else
+                            console.finest("Setting table: ("+i+","+j+")="+value.substring(0, 100)+"...");
+                    }
                     _table.setString(value, i, j);
                 }
             }
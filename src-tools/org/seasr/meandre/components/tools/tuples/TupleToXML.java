@@ -51,11 +51,11 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.DOMUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -113,20 +113,18 @@ public class TupleToXML extends AbstractExecutableComponent {
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMeta);
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMeta);
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples;
+        TupleCursor tuple;
 
         if (input instanceof StringsArray)
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
+            tuple = new TupleCursor(inPeer, (StringsArray) input);
 
         else
 
-        if (input instanceof Strings) {
-            Strings inTuple = (Strings) input;
-            tuples = new Strings[] { inTuple };
-        }
+        if (input instanceof Strings)
+            tuple = new TupleCursor(inPeer, (Strings) input);
 
         else
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
@@ -135,13 +133,12 @@ public class TupleToXML extends AbstractExecutableComponent {
 	    Element root = xml.createElement("tuples");
 	    xml.appendChild(root);
 
-		for (Strings t : tuples) {
-		    SimpleTuple tuple = inPeer.createTuple();
-		    tuple.setValues(t);
+	    String[] fieldNames = inPeer.getFieldNames();
 
+		while (tuple.next()) {
 		    Element xmlTuple = xml.createElement("tuple");
-		    for (String fieldName : inPeer.getFieldNames())
-		        xmlTuple.setAttribute(fieldName, tuple.getValue(fieldName));
+		    for (int i = 0; i < fieldNames.length; i++)
+		        xmlTuple.setAttribute(fieldNames[i], tuple.getValue(i));
 
 		    root.appendChild(xmlTuple);
 		}
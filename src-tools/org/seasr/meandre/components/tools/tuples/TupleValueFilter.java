@@ -56,11 +56,12 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
+import org.seasr.datatypes.core.BasicDataTypes.TupleBatch;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
-import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.components.abstracts.Stateless;
+import org.seasr.meandre.support.components.tuples.ColumnType;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
 
 /**
  *
@@ -80,6 +81,7 @@ import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
         description = "This component filters the incoming set of tuples based on a regular expression" ,
         dependency = {"protobuf-java-2.2.0.jar"}
 )
+@Stateless
 public class TupleValueFilter extends AbstractExecutableComponent {
 
     //------------------------------ INPUTS ------------------------------------------------------
@@ -88,7 +90,8 @@ public class TupleValueFilter extends AbstractExecutableComponent {
             name = Names.PORT_TUPLES,
             description = "The (set of) tuple(s)" +
                 "<br>TYPE: org.seasr.datatypes.BasicDataTypes.Strings" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
     )
     protected static final String IN_TUPLES = Names.PORT_TUPLES;
 
@@ -161,66 +164,57 @@ public class TupleValueFilter extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inMeta);
-
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples;
-
-        if (input instanceof StringsArray)
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
-
-        else
-
-        if (input instanceof Strings) {
-            Strings inTuple = (Strings) input;
-            tuples = new Strings[] { inTuple };
-        }
 
-        else
+        if (!(input instanceof StringsArray || input instanceof Strings || input instanceof TupleBatch))
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
 
-        int FIELD_IDX = inPeer.getIndexForFieldName(_attribute);
+        ColumnarTuples tuples = ColumnarTuples.fromInput(input, inMeta);
+
+        int FIELD_IDX = tuples.getSchema().getIndexForFieldName(_attribute);
         if (FIELD_IDX == -1)
             throw new ComponentExecutionException(String.format("The tuple has no attribute named '%s'", _attribute));
 
-        StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
+        int rows = tuples.getRowCount();
+        int[] selected = new int[rows];
+        int count = 0;
 
-        for (int i = 0, iMax = tuples.length; i < iMax; i++) {
-            SimpleTuple tuple = inPeer.createTuple();
-            tuple.setValues(tuples[i]);
+        if (tuples.getType(FIELD_IDX) == ColumnType.STRING) {
+            // evaluate the regular expression once per distinct value
+            int[] codes = tuples.getStringCodeColumn(FIELD_IDX);
+            Boolean[] accepted = new Boolean[tuples.getDictionarySize()];
 
-            String fieldValue = tuple.getValue(FIELD_IDX);
+            for (int i = 0; i < rows; i++) {
+                int code = codes[i];
+                if (accepted[code] == null)
+                    accepted[code] = accept(tuples.getDictionaryValue(code));
 
-            boolean match = _regexp.matcher(fieldValue).matches();
-            if ((_filterOut && !match) || (!_filterOut && match))
-                tuplesBuilder.addValue(tuple.convert());
-        }
+                if (accepted[code])
+                    selected[count++] = i;
+            }
+        } else
+            for (int i = 0; i < rows; i++)
+                if (accept(tuples.getString(FIELD_IDX, i)))
+                    selected[count++] = i;
 
         // Return if nothing to output
-        if (tuplesBuilder.getValueCount() == 0) {
+        if (count == 0) {
             //outputError("Nothing to output - no tuples pass the filter rule", Level.WARNING);
             console.warning("No tuples pass the filter rule - outputting empty tuple");
-
-            if (input instanceof Strings)
-                cc.pushDataComponentToOutput(OUT_TUPLES, Strings.newBuilder().build());
-
-            if (input instanceof StringsArray)
-                cc.pushDataComponentToOutput(OUT_TUPLES, tuplesBuilder.build());
-
-            cc.pushDataComponentToOutput(OUT_META_TUPLE, inMeta);
-            return;
         }
 
-        if (input instanceof Strings)
-            cc.pushDataComponentToOutput(OUT_TUPLES, tuplesBuilder.getValue(0));
-
-        if (input instanceof StringsArray)
-            cc.pushDataComponentToOutput(OUT_TUPLES, tuplesBuilder.build());
-
+        cc.pushDataComponentToOutput(OUT_TUPLES, tuples.select(selected, count).convertLike(input));
         cc.pushDataComponentToOutput(OUT_META_TUPLE, inMeta);
     }
 
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
     }
+
+    //--------------------------------------------------------------------------------------------
+
+    private boolean accept(String fieldValue) {
+        boolean match = _regexp.matcher(fieldValue).matches();
+        return (_filterOut && !match) || (!_filterOut && match);
+    }
 }
\ No newline at end of file
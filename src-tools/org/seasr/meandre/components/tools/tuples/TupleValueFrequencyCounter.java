@@ -44,11 +44,14 @@ package org.seasr.meandre.components.tools.tuples;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -61,13 +64,14 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
-import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.FrequencyMap;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
-import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.ColumnType;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
+import org.seasr.meandre.support.components.tuples.GroupCounter;
+import org.seasr.meandre.support.components.tuples.ParallelTasks;
+import org.seasr.meandre.support.components.tuples.PartitionedGroupCounter;
+import org.seasr.meandre.support.components.tuples.TupleSchema;
 
 /**
  *
@@ -96,7 +100,8 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 	@ComponentInput(
 			name = Names.PORT_TUPLES,
 			description = "The set of tuples" +
-			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
 	)
 	protected static final String IN_TUPLES = Names.PORT_TUPLES;
 
@@ -112,7 +117,7 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 	@ComponentOutput(
 			name = Names.PORT_TUPLES,
 			description = "The set of tuples containing the counts" +
-			    "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+			    "<br>TYPE: same as input"
 	)
 	protected static final String OUT_TUPLES = Names.PORT_TUPLES;
 
@@ -163,6 +168,25 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 	)
 	protected static final String PROP_FILTER_TOP_N = Names.PROP_MAX_SIZE;
 
+	@ComponentProperty(
+	        name = "num_threads",
+	        description = "The number of threads used to count the tuples. The tuples are split into one chunk per thread, " +
+	        		"each chunk is counted separately and the partial counts are merged (use 0 for one thread per available processor).",
+	        defaultValue = "1"
+	)
+	protected static final String PROP_NUM_THREADS = "num_threads";
+
+	@ComponentProperty(
+	        name = "max_keys_in_memory",
+	        description = "The maximum number of distinct (sets of) values each thread keeps in memory while counting. " +
+	        		"Partial counts above this limit are spilled to temporary files and merged at the end " +
+	        		"(use -1 to keep everything in memory). The limit only applies while counting: the merge reads back " +
+	        		"all the counts of a hash partition at once, up to one partition per thread, and the result holds " +
+	        		"every (set of) values kept by the threshold and maximum size.",
+	        defaultValue = "-1"
+	)
+	protected static final String PROP_MAX_KEYS_IN_MEMORY = "max_keys_in_memory";
+
 	//--------------------------------------------------------------------------------------------
 
 	protected Set<String> fields = new HashSet<String>();
@@ -170,6 +194,16 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 	protected Set<String> trimFields = new HashSet<String>();
 	protected int threshold = 0;
 	protected int topN = 0;
+	protected int numThreads = 1;
+	protected int maxKeysInMemory = -1;
+
+	protected ExecutorService executor;
+
+	/** Chunks smaller than this are not worth a thread of their own */
+	private static final int MIN_ROWS_PER_THREAD = 10000;
+
+	/** More (smaller) partitions when spilling, so that merging a partition does not need all the keys in memory at once */
+	private static final int SPILL_PARTITIONS_PER_THREAD = 8;
 
 	//--------------------------------------------------------------------------------------------
 
@@ -203,6 +237,17 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 		threshold = Integer.parseInt(getPropertyOrDieTrying(PROP_FILTER_THRESHOLD, ccp));
 		topN      = Integer.parseInt(getPropertyOrDieTrying(PROP_FILTER_TOP_N, ccp));
 
+		numThreads = Integer.parseInt(getPropertyOrDieTrying(PROP_NUM_THREADS, ccp));
+		if (numThreads <= 0)
+		    numThreads = Runtime.getRuntime().availableProcessors();
+
+		maxKeysInMemory = Integer.parseInt(getPropertyOrDieTrying(PROP_MAX_KEYS_IN_MEMORY, ccp));
+
+		if (numThreads > 1) {
+		    executor = Executors.newFixedThreadPool(numThreads);
+		    console.fine(String.format("Counting with %d threads", numThreads));
+		}
+
 		console.fine(String.format("Tuples with COUNT(%s) > %d will be included in the result", fields, threshold));
 
 		if (topN > 0)
@@ -212,113 +257,203 @@ public class TupleValueFrequencyCounter extends AbstractExecutableComponent {
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
-		SimpleTuple tuple = tuplePeer.createTuple();
+		Object input = cc.getDataComponentFromInput(IN_TUPLES);
 
-		StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
-		Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(input);
+		final ColumnarTuples tuples = ColumnarTuples.fromInput(input, inputMeta);
+		TupleSchema schema = tuples.getSchema();
 
-		if (!Arrays.asList(tuplePeer.getFieldNames()).containsAll(fields))
+		if (!Arrays.asList(schema.getFieldNames()).containsAll(fields))
 		    throw new ComponentExecutionException("Incoming tuples do not contain all the fields listed in the '" + PROP_FILTER_FIELD + "' property.");
 
-		FrequencyMap<ValueList<String>> freqMap = new FrequencyMap<ValueList<String>>();
-		for (int i = 0; i < in.length; i++) {
-			tuple.setValues(in[i]);
-
-			ValueList<String> key = new ValueList<String>(fields.size());
-			for (String field : fields) {
-			    String fieldValue = tuple.getValue(field);
-
-			    if (normalizeFields.contains(field))
-			        fieldValue = fieldValue.toLowerCase();
-
-			    if (trimFields.contains(field))
-			        fieldValue = fieldValue.trim();
-
-			    key.add(fieldValue);
-			}
-
-			freqMap.add(key);
+		final int fieldCount = fields.size();
+		String[] fieldNames = fields.toArray(new String[fieldCount]);
+		final ColumnType[] fieldTypes = new ColumnType[fieldCount];
+		final int[] FIELD_IDX = new int[fieldCount];
+
+		// each row is counted under a key of one long per field: the dictionary code of STRING values
+		// (remapped when the field is normalized/trimmed, so that values that become equal share a code),
+		// the LONG value, or the bits of the DOUBLE value
+		final int[][] codeToKey = new int[fieldCount][];
+		String[][] keyToValue = new String[fieldCount][];
+
+		final long[][] longColumns = new long[fieldCount][];
+		final double[][] doubleColumns = new double[fieldCount][];
+		final int[][] codeColumns = new int[fieldCount][];
+
+		for (int i = 0; i < fieldCount; i++) {
+		    FIELD_IDX[i] = schema.getIndexForFieldName(fieldNames[i]);
+		    fieldTypes[i] = schema.getType(FIELD_IDX[i]);
+
+		    switch (fieldTypes[i]) {
+		        case LONG:   longColumns[i] = tuples.getLongColumn(FIELD_IDX[i]); break;
+		        case DOUBLE: doubleColumns[i] = tuples.getDoubleColumn(FIELD_IDX[i]); break;
+		        default:     codeColumns[i] = tuples.getStringCodeColumn(FIELD_IDX[i]); break;
+		    }
+
+		    if (fieldTypes[i] == ColumnType.STRING && isTransformed(fieldNames[i])) {
+		        Map<String, Integer> keys = new HashMap<String, Integer>();
+		        List<String> values = new ArrayList<String>();
+		        codeToKey[i] = new int[tuples.getDictionarySize()];
+
+		        for (int code = 0; code < codeToKey[i].length; code++) {
+		            String value = transform(fieldNames[i], tuples.getDictionaryValue(code));
+		            Integer key = keys.get(value);
+		            if (key == null) {
+		                key = values.size();
+		                keys.put(value, key);
+		                values.add(value);
+		            }
+		            codeToKey[i][code] = key;
+		        }
+
+		        keyToValue[i] = values.toArray(new String[values.size()]);
+		    }
 		}
 
-		List<Map.Entry<ValueList<String>, Integer>> sortedEntries = freqMap.sortedEntries();
-
-		String[] outputFields = new String[fields.size() + 1];
-		fields.toArray(outputFields);
-		outputFields[fields.size()] = "count";
-
-	    SimpleTuplePeer outPeer = new SimpleTuplePeer(outputFields);
-	    SimpleTuple outTuple = outPeer.createTuple();
-
-	    int COUNT_IDX = fields.size();
-
-	    List<Strings> output = new ArrayList<Strings>();
-
-	    for (Map.Entry<ValueList<String>,Integer> v : sortedEntries) {
-	    	int count = v.getValue();
-	    	if (count > threshold) {
-	    	   Iterator<String> valueIt = v.getKey().iterator();
-	    	   for (String field : fields)
-	    	       outTuple.setValue(field, valueIt.next());
-
-	    	   outTuple.setValue(COUNT_IDX, count);
-
-	    	   if (topN <= 0 || topN > 0 && output.size() < topN)
-	    	      output.add(outTuple.convert());
-	    	}
-	    }
-
-	    Strings[] results = new Strings[output.size()];
-	    output.toArray(results);
-
-	    StringsArray outputSafe = BasicDataTypesTools.javaArrayToStringsArray(results);
-	    cc.pushDataComponentToOutput(OUT_TUPLES, outputSafe);
+		int rows = tuples.getRowCount();
+		int chunks = Math.max(1, Math.min(numThreads, rows / MIN_ROWS_PER_THREAD));
+		int partitions = (maxKeysInMemory > 0) ? chunks * SPILL_PARTITIONS_PER_THREAD : chunks;
+
+		final PartitionedGroupCounter[] partials = new PartitionedGroupCounter[chunks];
+		List<Callable<Object>> countTasks = new ArrayList<Callable<Object>>(chunks);
+
+		for (int c = 0; c < chunks; c++) {
+		    final PartitionedGroupCounter partial = partials[c] =
+		        new PartitionedGroupCounter(fieldCount, partitions, maxKeysInMemory, null);
+		    final int from = (int) ((long) rows * c / chunks);
+		    final int to = (int) ((long) rows * (c + 1) / chunks);
+
+		    countTasks.add(new Callable<Object>() {
+		        public Object call() throws Exception {
+		            long[] key = new long[fieldCount];
+		            for (int row = from; row < to; row++) {
+		                for (int i = 0; i < fieldCount; i++) {
+		                    if (codeColumns[i] != null) {
+		                        int code = codeColumns[i][row];
+		                        key[i] = (codeToKey[i] != null) ? codeToKey[i][code] : code;
+		                    }
+		                    else
+		                        key[i] = (longColumns[i] != null) ? longColumns[i][row] : Double.doubleToLongBits(doubleColumns[i][row]);
+		                }
+
+		                partial.add(key);
+		            }
+		            return null;
+		        }
+		    });
+		}
 
-		// tuple meta data
-		cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
+		try {
+		    ParallelTasks.runAll(executor, countTasks);
+
+		    // merge the partials one partition at a time, keeping only the top candidates of each partition
+		    final long minCount = threshold + 1L;
+		    final int maxEntries = (topN > 0) ? topN : -1;
+		    List<Callable<GroupCounter>> mergeTasks = new ArrayList<Callable<GroupCounter>>(partitions);
+
+		    for (int p = 0; p < partitions; p++) {
+		        final int partition = p;
+		        mergeTasks.add(new Callable<GroupCounter>() {
+		            public GroupCounter call() throws Exception {
+		                GroupCounter counts = partials[0].takePartition(partition);
+		                for (int c = 1; c < partials.length; c++)
+		                    counts.addAll(partials[c].takePartition(partition));
+
+		                int[] top = counts.topEntries(maxEntries, minCount);
+		                GroupCounter candidates = new GroupCounter(fieldCount, top.length);
+		                long[] key = new long[fieldCount];
+		                for (int entry : top) {
+		                    counts.getKey(entry, key, 0);
+		                    candidates.add(key, 0, counts.getHash(entry), counts.getCount(entry));
+		                }
+
+		                return candidates;
+		            }
+		        });
+		    }
+
+		    GroupCounter result = new GroupCounter(fieldCount);
+		    for (GroupCounter candidates : ParallelTasks.runAll(executor, mergeTasks))
+		        result.addAll(candidates);
+
+		    String[] outputFields = new String[fieldCount + 1];
+		    ColumnType[] outputTypes = new ColumnType[fieldCount + 1];
+		    for (int i = 0; i < fieldCount; i++) {
+		        outputFields[i] = fieldNames[i];
+		        outputTypes[i] = isTransformed(fieldNames[i]) ? ColumnType.STRING : fieldTypes[i];
+		    }
+		    outputFields[fieldCount] = "count";
+		    outputTypes[fieldCount] = ColumnType.LONG;
+
+		    TupleSchema outSchema = new TupleSchema(outputFields, outputTypes);
+		    int[] top = result.topEntries(maxEntries, minCount);
+		    ColumnarTuples.Builder output = new ColumnarTuples.Builder(outSchema, top.length);
+
+		    int COUNT_IDX = fieldCount;
+
+		    for (int entry : top) {
+		        for (int i = 0; i < fieldCount; i++) {
+		            long key = result.getKey(entry, i);
+
+		            switch (fieldTypes[i]) {
+		                case STRING:
+		                    output.setValue(i, (keyToValue[i] != null) ? keyToValue[i][(int) key] : tuples.getDictionaryValue((int) key));
+		                    break;
+
+		                case LONG:
+		                    if (isTransformed(fieldNames[i]))
+		                        output.setValue(i, transform(fieldNames[i], Long.toString(key)));
+		                    else
+		                        output.setLong(i, key);
+		                    break;
+
+		                case DOUBLE:
+		                    double value = Double.longBitsToDouble(key);
+		                    if (isTransformed(fieldNames[i]))
+		                        output.setValue(i, transform(fieldNames[i], Double.toString(value)));
+		                    else
+		                        output.setDouble(i, value);
+		                    break;
+		            }
+		        }
+
+		        output.setLong(COUNT_IDX, result.getCount(entry));
+		        output.addRow();
+		    }
+
+		    cc.pushDataComponentToOutput(OUT_TUPLES, output.build().convertLike(input));
+
+		    // tuple meta data
+		    cc.pushDataComponentToOutput(OUT_META_TUPLE, outSchema.convert());
+		}
+		finally {
+		    for (PartitionedGroupCounter partial : partials)
+		        partial.dispose();
+		}
 	}
 
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
     }
 
     //--------------------------------------------------------------------------------------------
 
-    @SuppressWarnings("serial")
-    static class ValueList<T> extends ArrayList<T> {
+    private String transform(String field, String fieldValue) {
+        if (normalizeFields.contains(field))
+            fieldValue = fieldValue.toLowerCase();
 
-        public ValueList(int size) {
-            super(size);
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null || !(obj instanceof ValueList<?>))
-                return false;
-
-            @SuppressWarnings("unchecked")
-            ValueList<?> other = (ValueList<T>) obj;
-            if (this.size() != other.size()) return false;
-
-            Iterator<T> thisIt = this.iterator();
-            Iterator<?> otherIt = other.iterator();
-
-            while (thisIt.hasNext())
-                if (!thisIt.next().equals(otherIt.next()))
-                    return false;
+        if (trimFields.contains(field))
+            fieldValue = fieldValue.trim();
 
-            return true;
-        }
-
-        @Override
-        public int hashCode() {
-            int hashCode = 0;
-
-            for (T item : this)
-                hashCode += item.hashCode();
+        return fieldValue;
+    }
 
-            return hashCode;
-        }
+    private boolean isTransformed(String field) {
+        return normalizeFields.contains(field) || trimFields.contains(field);
     }
 }
 
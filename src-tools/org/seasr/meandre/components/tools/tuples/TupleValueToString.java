@@ -54,11 +54,11 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  *
@@ -138,21 +138,19 @@ public class TupleValueToString extends AbstractExecutableComponent {
 	@Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMeta);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[] { _attributeName });
+        SimpleTuplePeer inPeer  = TuplePeerRegistry.getPeer(inMeta);
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[] { _attributeName });
 
         Object input = cc.getDataComponentFromInput(IN_TUPLES);
-        Strings[] tuples;
+        TupleCursor tuple;
 
         if (input instanceof StringsArray)
-            tuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) input);
+            tuple = new TupleCursor(inPeer, (StringsArray) input);
 
         else
 
-        if (input instanceof Strings) {
-            Strings inTuple = (Strings) input;
-            tuples = new Strings[] { inTuple };
-        }
+        if (input instanceof Strings)
+            tuple = new TupleCursor(inPeer, (Strings) input);
 
         else
             throw new ComponentExecutionException("Don't know how to handle input of type: " + input.getClass().getName());
@@ -163,15 +161,10 @@ public class TupleValueToString extends AbstractExecutableComponent {
             throw new ComponentExecutionException(String.format("The tuple has no attribute named '%s'%nAttributes: %s", _attributeName, dump));
         }
 
-        SimpleTuple tuple = inPeer.createTuple();
         Strings.Builder valuesBuilder = Strings.newBuilder();
 
-        for (Strings t : tuples) {
-            tuple.setValues(t);
-
-            String value = tuple.getValue(FIELD_IDX);
-            valuesBuilder.addValue(value);
-        }
+        while (tuple.next())
+            valuesBuilder.addValue(tuple.getValue(FIELD_IDX));
 
         cc.pushDataComponentToOutput(OUT_TEXT, valuesBuilder.build());
         cc.pushDataComponentToOutput(OUT_META_TUPLE, outPeer.convert());
@@ -56,12 +56,10 @@ import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
-import org.seasr.datatypes.core.BasicDataTypes.StringsArray;
-import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
-import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.ColumnarTuples;
+import org.seasr.meandre.support.components.tuples.TupleSchema;
 import org.seasr.meandre.support.components.tuples.UniqueTupleValues;
 
 /**
@@ -87,7 +85,8 @@ public class UniqueTupleFilter extends AbstractExecutableComponent {
     @ComponentInput(
             name = Names.PORT_TUPLES,
             description = "The tuples" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.TupleBatch"
     )
     protected static final String IN_TUPLES = Names.PORT_TUPLES;
 
@@ -103,14 +102,14 @@ public class UniqueTupleFilter extends AbstractExecutableComponent {
     @ComponentOutput(
             name = "unique_tuples",
             description = "The unique tuples" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: same as input"
     )
     protected static final String OUT_UNIQUE_TUPLES = "unique_tuples";
 
     @ComponentOutput(
             name = "duplicate_tuples",
             description = "The duplicate tuples" +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.StringsArray"
+                "<br>TYPE: same as input"
     )
     protected static final String OUT_DUPLICATE_TUPLES = "duplicate_tuples";
 
@@ -163,50 +162,48 @@ public class UniqueTupleFilter extends AbstractExecutableComponent {
             _uniqueSet = new HashSet<UniqueTupleValues>();
 
         Strings inMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer inPeer  = new SimpleTuplePeer(inMeta);
+        Object input = cc.getDataComponentFromInput(IN_TUPLES);
+
+        ColumnarTuples tuples = ColumnarTuples.fromInput(input, inMeta);
+        TupleSchema schema = tuples.getSchema();
 
         int uniqueAttributeCount = _uniqueAttributeNames.length;
 
 		int[] FIELD_IDX = new int[uniqueAttributeCount];
         for (int i = 0; i < uniqueAttributeCount; i++) {
         	String attributeName = _uniqueAttributeNames[i].trim();
-	        int index = inPeer.getIndexForFieldName(attributeName);
+	        int index = schema.getIndexForFieldName(attributeName);
 	        if (index == -1) {
-	            String dump = inPeer.toString();
+	            String dump = schema.toString();
 	            throw new ComponentExecutionException(String.format("The tuples have no attribute named '%s'%nAttributes: %s", attributeName, dump));
 	        } else
 	        	FIELD_IDX[i] = index;
         }
 
-        Strings[] inTuples = BasicDataTypesTools.stringsArrayToJavaArray((StringsArray) cc.getDataComponentFromInput(IN_TUPLES));
-        SimpleTuple tuple = inPeer.createTuple();
-
-        StringsArray.Builder uniqueTuplesBuilder = StringsArray.newBuilder();
-        StringsArray.Builder duplicateTuplesBuilder = StringsArray.newBuilder();
-
-        for (Strings inTuple : inTuples) {
-            tuple.setValues(inTuple);
+        int rows = tuples.getRowCount();
+        int[] uniqueRows = new int[rows];
+        int[] duplicateRows = new int[rows];
+        int uniqueCount = 0, duplicateCount = 0;
 
+        for (int row = 0; row < rows; row++) {
             String[] values = new String[uniqueAttributeCount];
             for (int i = 0; i < uniqueAttributeCount; i++) {
-            	String value = tuple.getValue(FIELD_IDX[i]);
+            	String value = tuples.getString(FIELD_IDX[i], row);
             	values[i] = value;
             }
             UniqueTupleValues uniqueValuesTuple = new UniqueTupleValues(values);
 
-            if (!_uniqueSet.contains(uniqueValuesTuple)) {
-                uniqueTuplesBuilder.addValue(inTuple);
-                _uniqueSet.add(uniqueValuesTuple);
-            }
+            if (_uniqueSet.add(uniqueValuesTuple))
+                uniqueRows[uniqueCount++] = row;
             else
-                duplicateTuplesBuilder.addValue(inTuple);
+                duplicateRows[duplicateCount++] = row;
         }
 
-        console.fine(String.format("%d unique tuples, %d duplicate tuples", uniqueTuplesBuilder.getValueCount(), duplicateTuplesBuilder.getValueCount()));
+        console.fine(String.format("%d unique tuples, %d duplicate tuples", uniqueCount, duplicateCount));
 
         cc.pushDataComponentToOutput(OUT_META_TUPLE, inMeta);
-        cc.pushDataComponentToOutput(OUT_DUPLICATE_TUPLES, duplicateTuplesBuilder.build());
-        cc.pushDataComponentToOutput(OUT_UNIQUE_TUPLES, uniqueTuplesBuilder.build());
+        cc.pushDataComponentToOutput(OUT_DUPLICATE_TUPLES, tuples.select(duplicateRows, duplicateCount).convertLike(input));
+        cc.pushDataComponentToOutput(OUT_UNIQUE_TUPLES, tuples.select(uniqueRows, uniqueCount).convertLike(input));
     }
 
     @Override
@@ -59,8 +59,9 @@ import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
-import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TupleCursor;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.IOUtils;
 import org.seasr.meandre.support.generic.io.PathUtils;
 
@@ -162,10 +163,9 @@ public class UpdateTupleCache extends AbstractExecutableComponent {
         Strings inTuple = (Strings) cc.getDataComponentFromInput(IN_TUPLE);
         Strings inMetaTuple = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
 
-        SimpleTuplePeer inPeer = new SimpleTuplePeer(inMetaTuple);
-        SimpleTuple tuple = inPeer.createTuple();
-
-        tuple.setValues(inTuple);
+        SimpleTuplePeer inPeer = TuplePeerRegistry.getPeer(inMetaTuple);
+        TupleCursor tuple = new TupleCursor(inPeer, inTuple);
+        tuple.next();
 
         int KEY_IDX = inPeer.getIndexForFieldName(_key);
         int VALUE_IDX = inPeer.getIndexForFieldName(_value);
@@ -62,6 +62,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 
 /**
@@ -153,7 +154,7 @@ public class UrlToTuple extends AbstractExecutableComponent {
 			sb.append(inputLine).append("\n");
 		in.close();
 
-		SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[]{"title", "location", "content"});
+		SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[]{"title", "location", "content"});
 		outTuple = outPeer.createTuple();
 		outTuple.setValue(0, title);
 		outTuple.setValue(1, location);
@@ -169,7 +169,8 @@ public class ServiceHeadRequest extends AbstractExecutableComponent
 				StringBuilder sb = new StringBuilder();
 				for (String paramValue : paramValues)
 					sb.append(",").append(paramValue);
-				console.finer(String.format("param: '%s' value: '%s'", paramName, sb.substring(1)));
+				if (console.isLoggable(Level.FINER))
+					console.finer(String.format("param: '%s' value: '%s'", paramName, sb.substring(1)));
 			}
 			paramMap.put(paramName, paramValues);
 		}
@@ -43,6 +43,7 @@
 package org.seasr.meandre.components.tools.xml.transform;
 
 import java.io.StringWriter;
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -144,7 +145,8 @@ public class EntityXMLToSimileXML extends AbstractExecutableComponent {
 			Element elEntity = (Element)dateNodes.item(i);
 			String aDate = elEntity.getAttribute("value");
 
-			console.finest("aDate: '" + aDate + "'");
+			if (console.isLoggable(Level.FINEST))
+				console.finest("aDate: '" + aDate + "'");
 			String origDate = aDate;
 	        aDate = aDate.replaceAll("[^a-zA-Z0-9\\., ]"," "); //replace all invalid chars with space
 	        aDate = aDate.replaceAll("\\s+", " ");
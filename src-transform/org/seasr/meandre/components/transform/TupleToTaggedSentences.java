@@ -60,6 +60,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * Created for DHSI 2013
@@ -128,7 +129,7 @@ public class TupleToTaggedSentences extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-        SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+        SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
         SimpleTuple tuple = tuplePeer.createTuple();
 
         StringsArray input = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
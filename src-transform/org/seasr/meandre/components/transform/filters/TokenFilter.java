@@ -43,8 +43,6 @@
 package org.seasr.meandre.components.transform.filters;
 
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import org.meandre.annotations.Component;
@@ -59,11 +57,15 @@ import org.meandre.core.ComponentContextException;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.system.components.ext.StreamDelimiter;
 import org.seasr.datatypes.core.BasicDataTypes.IntegersMap;
+import org.seasr.datatypes.core.BasicDataTypes.PackedIntegersMap;
 import org.seasr.datatypes.core.BasicDataTypes.Strings;
 import org.seasr.datatypes.core.BasicDataTypes.StringsMap;
 import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
+import org.seasr.datatypes.core.views.StringsView;
+import org.seasr.datatypes.core.views.TokenCountView;
+import org.seasr.datatypes.core.views.TokenizedSentencesView;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 
 /**
@@ -124,6 +126,7 @@ public class TokenFilter extends AbstractExecutableComponent {
 			name = Names.PORT_TOKEN_COUNTS,
 			description = "The token counts to filter." +
 			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap" +
 			"<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>"
 	)
 	protected static final String IN_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
@@ -146,8 +149,9 @@ public class TokenFilter extends AbstractExecutableComponent {
 
 	@ComponentOutput(
 			name = Names.PORT_TOKEN_COUNTS,
-			description = "The filtered token counts." +
-			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap"
+			description = "The filtered token counts (packed if the input was packed)." +
+			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+			"<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
 	)
 	protected static final String OUT_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -178,6 +182,22 @@ public class TokenFilter extends AbstractExecutableComponent {
     )
     protected static final String PROP_IGNORE_CASE = "ignore_case";
 
+    @ComponentProperty(
+            name = Names.PROP_MAX_QUEUED_BYTES,
+            description = "The number of bytes of inputs queued in memory per input port while waiting for the blacklist; " +
+                    "beyond this, queued inputs are spilled to a temporary file (use -1 for no limit)",
+            defaultValue = "-1"
+    )
+    protected static final String PROP_MAX_QUEUED_BYTES = Names.PROP_MAX_QUEUED_BYTES;
+
+    @ComponentProperty(
+            name = Names.PROP_MAX_SPILLED_BYTES,
+            description = "The size of the temporary file holding the spilled inputs of each input port; " +
+                    "an error is raised when it is full (ignored if max_queued_bytes is -1)",
+            defaultValue = "1073741824"
+    )
+    protected static final String PROP_MAX_SPILLED_BYTES = Names.PROP_MAX_SPILLED_BYTES;
+
 	//--------------------------------------------------------------------------------------------
 
 
@@ -193,6 +213,10 @@ public class TokenFilter extends AbstractExecutableComponent {
     public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
 	    _replaceBlacklist = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_REPLACE, ccp));
 	    _ignoreCase = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_IGNORE_CASE, ccp));
+
+	    long maxQueuedBytes = Long.parseLong(getPropertyOrDefault(PROP_MAX_QUEUED_BYTES, "-1", ccp));
+	    if (maxQueuedBytes >= 0)
+	        componentInputCache.setBounds(maxQueuedBytes, Long.parseLong(getPropertyOrDefault(PROP_MAX_SPILLED_BYTES, "1073741824", ccp)));
 	}
 
 	@Override
@@ -222,7 +246,7 @@ public class TokenFilter extends AbstractExecutableComponent {
                 cc.pushDataComponentToOutput(OUT_TOKENS, input);
                 continue;
             } else
-                processInputTokens(DataTypeParser.parseAsString(input));
+                processInputTokens(DataTypeParser.parseAsStringsView(input));
         }
 
         // Process queued token counts
@@ -232,7 +256,7 @@ public class TokenFilter extends AbstractExecutableComponent {
                 cc.pushDataComponentToOutput(OUT_TOKEN_COUNTS, input);
                 continue;
             } else
-                processInputTokenCounts(DataTypeParser.parseAsStringIntegerMap(input));
+                processInputTokenCounts(DataTypeParser.parseAsTokenCountView(input), input instanceof PackedIntegersMap);
         }
 
         // Process queued tokenized sentences
@@ -242,7 +266,7 @@ public class TokenFilter extends AbstractExecutableComponent {
                 cc.pushDataComponentToOutput(OUT_TOKENIZED_SENTENCES, input);
                 continue;
             } else
-                processInputTokenizedSentences((StringsMap) input);
+                processInputTokenizedSentences(DataTypeParser.parseAsTokenizedSentencesView(input));
         }
 	}
 
@@ -265,7 +289,7 @@ public class TokenFilter extends AbstractExecutableComponent {
 
     //--------------------------------------------------------------------------------------------
 
-    protected void processInputTokens(String[] tokens) throws ComponentContextException {
+    protected void processInputTokens(StringsView tokens) throws ComponentContextException {
         int nRemovedTokens = 0;
 
         Strings.Builder outTokens = Strings.newBuilder();
@@ -285,39 +309,45 @@ public class TokenFilter extends AbstractExecutableComponent {
         componentContext.pushDataComponentToOutput(OUT_TOKENS, outTokens.build());
     }
 
-    protected void processInputTokenCounts(Map<String, Integer> tokenCounts) throws ComponentContextException {
+    protected void processInputTokenCounts(TokenCountView tokenCounts, boolean packed) throws ComponentContextException {
         int nRemovedTokens = 0;
 
-        IntegersMap.Builder outTokenCounts = IntegersMap.newBuilder();
-        for (Entry<String, Integer> entry : tokenCounts.entrySet()) {
-            String token = entry.getKey();
+        IntegersMap.Builder outTokenCounts = packed ? null : IntegersMap.newBuilder();
+        PackedIntegersMap.Builder outPackedTokenCounts = packed ? PackedIntegersMap.newBuilder() : null;
+        for (int i = 0, iMax = tokenCounts.size(); i < iMax; i++) {
+            String token = tokenCounts.getKey(i);
             String s = (_ignoreCase) ? token.toLowerCase() : token;
             if (!_blackList.contains(s)) {
-                outTokenCounts.addKey(token);
-                outTokenCounts.addValue(BasicDataTypesTools.integerToIntegers(entry.getValue()));
+                if (packed) {
+                    outPackedTokenCounts.addKey(token);
+                    outPackedTokenCounts.addCount(tokenCounts.getCount(i));
+                } else {
+                    outTokenCounts.addKey(token);
+                    outTokenCounts.addValue(BasicDataTypesTools.integerToIntegers(tokenCounts.getCount(i)));
+                }
             } else
                 nRemovedTokens++;
         }
 
-        int nKeptTokens = outTokenCounts.getKeyCount();
+        int nKeptTokens = tokenCounts.size() - nRemovedTokens;
 
         console.fine(String.format("tokenCounts: Removed: %,d  Kept: %,d  Total: %,d",
                 nRemovedTokens, nKeptTokens, nRemovedTokens + nKeptTokens));
 
-        componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS, outTokenCounts.build());
+        componentContext.pushDataComponentToOutput(OUT_TOKEN_COUNTS,
+                packed ? outPackedTokenCounts.build() : outTokenCounts.build());
     }
 
-    protected void processInputTokenizedSentences(StringsMap tokenizedSentences) throws ComponentContextException {
+    protected void processInputTokenizedSentences(TokenizedSentencesView tokenizedSentences) throws ComponentContextException {
         int nRemovedTokens = 0;
         int nKeptTokens = 0;
 
         StringsMap.Builder outTokenizedSentences = StringsMap.newBuilder();
-        for (int i = 0, iMax = tokenizedSentences.getKeyCount(); i < iMax; i++) {
-            String sentence = tokenizedSentences.getKey(i);
-            Strings tokens = tokenizedSentences.getValue(i);
+        for (int i = 0, iMax = tokenizedSentences.size(); i < iMax; i++) {
+            String sentence = tokenizedSentences.getSentence(i);
 
             Strings.Builder filteredTokens = Strings.newBuilder();
-            for (String token : tokens.getValueList()) {
+            for (String token : tokenizedSentences.getTokenList(i)) {
                 String s = (_ignoreCase) ? token.toLowerCase() : token;
                 if (!_blackList.contains(s))
                     filteredTokens.addValue(token);
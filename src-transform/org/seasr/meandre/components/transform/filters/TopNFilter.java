@@ -83,7 +83,9 @@ public class TopNFilter extends AbstractExecutableComponent {
     @ComponentInput(
             name = Names.PORT_TOKEN_COUNTS,
             description = "Token counts." +
-                "<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>"
+                "<br>TYPE: java.util.Map<java.lang.String, java.lang.Integer>" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
     )
     protected static final String IN_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -92,7 +94,8 @@ public class TopNFilter extends AbstractExecutableComponent {
     @ComponentOutput(
             name = Names.PORT_TOKEN_COUNTS,
             description = "Filtered token counts." +
-                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap"
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.IntegersMap" +
+                "<br>TYPE: org.seasr.datatypes.BasicDataTypes.PackedIntegersMap"
     )
     protected static final String OUT_FILTERED_TOKEN_COUNTS = Names.PORT_TOKEN_COUNTS;
 
@@ -119,12 +122,20 @@ public class TopNFilter extends AbstractExecutableComponent {
     )
     protected static final String PROP_ORDERED = Names.PROP_ORDERED;
 
+    @ComponentProperty(
+            name = Names.PROP_PACKED,
+            description = "Should the filtered token counts be output as a PackedIntegersMap?",
+            defaultValue = "false"
+    )
+    protected static final String PROP_PACKED = Names.PROP_PACKED;
+
     //--------------------------------------------------------------------------------------------
 
 
     private int _upperLimit;
     private boolean _bottomN;
     private boolean _ordered;
+    private boolean _packed;
 
 
     //--------------------------------------------------------------------------------------------
@@ -135,6 +146,7 @@ public class TopNFilter extends AbstractExecutableComponent {
         _upperLimit = upperLimit.length() > 0 ? Integer.parseInt(upperLimit) : Integer.MAX_VALUE;
         _bottomN = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_BOTTOM_N, ccp));
         _ordered = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_ORDERED, ccp));
+        _packed = Boolean.parseBoolean(getPropertyOrDieTrying(PROP_PACKED, ccp));
     }
 
     @Override
@@ -159,7 +171,9 @@ public class TopNFilter extends AbstractExecutableComponent {
         }
 
         console.fine(String.format("Filter results:%ninput_tokens=%s%noutput_tokens=%s", inputMap.size(), outputMap.size()));
-        cc.pushDataComponentToOutput(OUT_FILTERED_TOKEN_COUNTS, BasicDataTypesTools.mapToIntegerMap(outputMap, _ordered));
+        cc.pushDataComponentToOutput(OUT_FILTERED_TOKEN_COUNTS, _packed ?
+                BasicDataTypesTools.mapToPackedIntegerMap(outputMap, _ordered) :
+                BasicDataTypesTools.mapToIntegerMap(outputMap, _ordered));
     }
 
     @Override
@@ -42,6 +42,8 @@
 
 package org.seasr.meandre.components.transform.text;
 
+import java.util.logging.Level;
+
 import org.json.JSONArray;
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -119,7 +121,8 @@ public class JSONArrayUnroll extends AbstractStreamingExecutableComponent {
 
 		for (int i = 0, iMax= jsonArray.length(); i < iMax; i++) {
 			String element = jsonArray.getString(i);
-			console.finer(String.format("[%d]: '%s'", i, element));
+			if (console.isLoggable(Level.FINER))
+				console.finer(String.format("[%d]: '%s'", i, element));
 			cc.pushDataComponentToOutput(OUT_INDEX, BasicDataTypesTools.integerToIntegers(i));
 			cc.pushDataComponentToOutput(OUT_JSON, BasicDataTypesTools.stringToStrings(element));
 		}
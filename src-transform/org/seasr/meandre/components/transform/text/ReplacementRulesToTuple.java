@@ -62,6 +62,7 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.transform.text.TransformDictionary;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Boris Capitanu
@@ -128,7 +129,7 @@ public class ReplacementRulesToTuple extends AbstractExecutableComponent {
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
         Object input = cc.getDataComponentFromInput(IN_REPLACEMENT_RULES);
-        SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[] { WORD_LABEL, MISSPELLING_LABEL });
+        SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[] { WORD_LABEL, MISSPELLING_LABEL });
 
         StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
         if (input instanceof StringsMap) {
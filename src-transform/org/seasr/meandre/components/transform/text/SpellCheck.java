@@ -74,6 +74,7 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.transform.text.LevenshteinDistance;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.IOUtils;
 
 import com.swabunga.spell.engine.Configuration;
@@ -340,7 +341,7 @@ public class SpellCheck extends AbstractExecutableComponent {
                 console.info(String.format("Number of unique misspelled words: %d", _countMisspelledWords));
                 console.info(String.format("Number of unique corrected words: %d", countCorrectedWords));
 
-                SimpleTuplePeer outPeer = new SimpleTuplePeer(new String[] { "countTotalWords", "countMisspelledWords", "countCorrectedWords" });
+                SimpleTuplePeer outPeer = TuplePeerRegistry.getPeer(new String[] { "countTotalWords", "countMisspelledWords", "countCorrectedWords" });
                 StringsArray.Builder tuplesBuilder = StringsArray.newBuilder();
                 String[] fieldValues = new String[] {
                         Integer.toString(_countTotalWords),
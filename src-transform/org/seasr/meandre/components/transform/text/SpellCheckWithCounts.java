@@ -51,6 +51,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.meandre.annotations.Component;
@@ -317,11 +318,14 @@ public class SpellCheckWithCounts extends SpellCheck {
                     if (count == null) count = 0;
                     if (count >= _minRuleSupport) {
                         suggestions.add(suggestion);
-                        console.finer(String.format("Transformed '%s' into '%s' after %d transformations", invalidWord, suggestion, countTransformations));
+                        if (console.isLoggable(Level.FINER))
+                            console.finer(String.format("Transformed '%s' into '%s' after %d transformations", invalidWord, suggestion, countTransformations));
                     } else
-                        console.finer(String.format("Suggestion '%s' => '%s' ignored because it does not meet the minimum support threshold (count=%d).", invalidWord, suggestion, count));
+                        if (console.isLoggable(Level.FINER))
+                            console.finer(String.format("Suggestion '%s' => '%s' ignored because it does not meet the minimum support threshold (count=%d).", invalidWord, suggestion, count));
                 } else
-                    console.finest(String.format("Discarding transformation '%s' - not found in dictionary", suggestion));
+                    if (console.isLoggable(Level.FINEST))
+                        console.finest(String.format("Discarding transformation '%s' - not found in dictionary", suggestion));
             }
 
             return suggestions;
@@ -45,6 +45,7 @@ package org.seasr.meandre.components.transform.text;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,6 +60,7 @@ import org.seasr.datatypes.core.BasicDataTypesTools;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
+import org.seasr.meandre.components.abstracts.Stateless;
 
 /**
  * @author Boris Capitanu
@@ -73,6 +75,7 @@ import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
         baseURL = "meandre://seasr.org/components/foundry/",
         dependency = {"protobuf-java-2.2.0.jar"}
 )
+@Stateless
 public class TextCleaner extends AbstractExecutableComponent {
 
 	//------------------------------ INPUTS ------------------------------------------------------
@@ -208,12 +211,15 @@ public class TextCleaner extends AbstractExecutableComponent {
 
 		        Matcher matcher = regexp.matcher(text);
 
-		        while (matcher.find())
-    		        for (int n = 1, nMax = matcher.groupCount(); n <= nMax; n++)
-    		            if (matcher.group(n) != null)
-    		                console.fine(String.format("Group %2$d ($%2$d) match: '%s'", matcher.group(n), n));
+		        // only scan the text a second time when the group matches will actually be logged
+		        if (console.isLoggable(Level.FINE)) {
+		            while (matcher.find())
+		                for (int n = 1, nMax = matcher.groupCount(); n <= nMax; n++)
+		                    if (matcher.group(n) != null)
+		                        console.fine(String.format("Group %2$d ($%2$d) match: '%s'", matcher.group(n), n));
 
-                matcher.reset();
+		            matcher.reset();
+		        }
 
 		        text = matcher.replaceAll(replacement);
 		    }
@@ -45,6 +45,7 @@ package org.seasr.meandre.components.transform.text;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.meandre.annotations.Component;
@@ -170,7 +171,8 @@ public class TextReplacement extends AbstractExecutableComponent {
 	    
 			for (String key : dictionary.keySet()) {
 				String v = dictionary.get(key);
-				console.finest("mapping " + key + " --> " + v);
+				if (console.isLoggable(Level.FINEST))
+					console.finest("mapping " + key + " --> " + v);
 			}
 	     
 
@@ -269,7 +271,8 @@ public class TextReplacement extends AbstractExecutableComponent {
 	            // this is a reverse map
 	            // e.g. the KEY is the value, the value is the key
 	            map.put(value, key);
-	            console.finest("mapping " + value + " --> " + key);
+	            if (console.isLoggable(Level.FINEST))
+	                console.finest("mapping " + value + " --> " + key);
 	        }
 	    }
 	    return map;
@@ -45,6 +45,7 @@ package org.seasr.meandre.components.transform.text;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.logging.Level;
 import java.util.regex.Pattern;
 
 import org.meandre.annotations.Component;
@@ -198,7 +199,8 @@ public class TextReplacement2 extends AbstractExecutableComponent {
             while (valTokenizer.hasMoreTokens()) {
                 String value = valTokenizer.nextToken();
                 rulesMap.put(value, key);
-                console.finest(String.format("adding rule: '%s' -> '%s'", value, key));
+                if (console.isLoggable(Level.FINEST))
+                    console.finest(String.format("adding rule: '%s' -> '%s'", value, key));
             }
         }
 
@@ -42,9 +42,7 @@
 
 package org.seasr.meandre.components.transform.text;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.meandre.annotations.Component;
 import org.meandre.annotations.Component.FiringPolicy;
@@ -57,12 +55,8 @@ import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.ComponentExecutionException;
 import org.seasr.datatypes.core.DataTypeParser;
 import org.seasr.datatypes.core.Names;
-import org.seasr.datatypes.datamining.table.Column;
-import org.seasr.datatypes.datamining.table.ColumnTypes;
 import org.seasr.datatypes.datamining.table.ExampleTable;
-import org.seasr.datatypes.datamining.table.MutableTable;
-import org.seasr.datatypes.datamining.table.TableFactory;
-import org.seasr.datatypes.datamining.table.sparse.SparseTableFactory;
+import org.seasr.datatypes.datamining.table.util.DocumentTermTableBuilder;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 
 /**
@@ -71,9 +65,10 @@ import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableCompone
 
 @Component(
         creator = "Boris Capitanu",
-        description = "This component accumulates a set of token counts representing documents and constructs a sparse table <br>" +
+        description = "This component accumulates a set of token counts representing documents and constructs a table <br>" +
                 "where each row represents a document, and each column represents a word in the document. The value stored <br>" +
                 "at a particular x,y coordinate in the table represents the frequency (count) of word 'y' from document 'x'. <br>" +
+                "The table is built once the stream ends; it is a sparse table unless at least 10% of its cells hold a count. <br>" +
                 "This type of table is necessary for being able to run a number of data analysis algorithms available in Meandre.",
         name = "Token Count To Feature Table",
         tags = "#TRANSFORM, token, count, table, convert",
@@ -131,7 +126,6 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
     //--------------------------------------------------------------------------------------------
 
 
-    protected static final TableFactory TABLE_FACTORY = new SparseTableFactory();
     protected static final String LABEL_ID = "_id";  // Note: By convention the ID will be stored in column 1
 
     // Note: By convention the ID is stored in column 1 while the label (possibly empty for unlabeled data) in column 0
@@ -140,8 +134,7 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
     protected static final int ID_COL_IDX = 1;
 
     protected boolean _isStreaming;
-    protected MutableTable _table;
-    protected Map<String, Integer> _tokenColumnMap;
+    protected DocumentTermTableBuilder _builder;
     protected String _classColumnLabel;
 
 
@@ -157,7 +150,7 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
 
     @Override
     public void executeCallBack(ComponentContext cc) throws Exception {
-        if (_table == null)
+        if (_builder == null)
             throw new ComponentExecutionException("Start stream marker not received!");
 
         String label = DataTypeParser.parseAsString(cc.getDataComponentFromInput(IN_LABEL))[0];
@@ -166,33 +159,13 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
         Object inTokenCounts = cc.getDataComponentFromInput(IN_TOKEN_COUNTS);
         Map<String, Integer> tokenCounts = DataTypeParser.parseAsStringIntegerMap(inTokenCounts);
 
-        int row = _table.getNumRows();
-        _table.addRows(1);
-        _table.setString(label, row, LABEL_COL_IDX);  // the label/class always goes in column 0
-        _table.setString(id, row, ID_COL_IDX);        // the id goes in column 1  (by convention)
-
-        for (Entry<String, Integer> entry : tokenCounts.entrySet()) {
-            String token = entry.getKey();
-            int count = entry.getValue();
-
-            int col;
-
-            if (!_tokenColumnMap.containsKey(token)) {
-                col = _table.getNumColumns();
-                Column column = TABLE_FACTORY.createColumn(ColumnTypes.INTEGER);
-                column.setLabel(token);
-                _table.addColumn(column);
-                _tokenColumnMap.put(token, col);
-            } else
-                col = _tokenColumnMap.get(token);
-
-            _table.setInt(count, row, col);
-        }
+        // the label/class goes in column 0 and the id in column 1 (by convention)
+        _builder.addDocument(label, id, tokenCounts);
     }
 
     @Override
     public void disposeCallBack(ComponentContextProperties ccp) throws Exception {
-        _table = null;
+        _builder = null;
     }
 
     //--------------------------------------------------------------------------------------------
@@ -208,19 +181,7 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
             console.severe("Stream error - start stream marker already received!");
 
         _isStreaming = true;
-        _table = (MutableTable) TABLE_FACTORY.createTable();
-
-        // create the label/class column
-        Column labelCol = TABLE_FACTORY.createColumn(ColumnTypes.STRING);
-        labelCol.setLabel(_classColumnLabel);
-        _table.addColumn(labelCol);
-
-        // create the id column
-        Column idCol = TABLE_FACTORY.createColumn(ColumnTypes.STRING);
-        idCol.setLabel(LABEL_ID);
-        _table.addColumn(idCol);
-
-        _tokenColumnMap = new HashMap<String, Integer>();
+        _builder = new DocumentTermTableBuilder(_classColumnLabel, LABEL_ID);
     }
 
     @Override
@@ -228,7 +189,10 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
         if (!_isStreaming)
             console.severe("Stream error - received end stream marker without start stream!");
 
-        ExampleTable featureTable = _table.toExampleTable();
+        console.fine(String.format("Building a %s table from %,d document(s), %,d term(s) and %,d count(s)",
+                _builder.isSparse() ? "sparse" : "dense", _builder.getNumDocuments(), _builder.getNumTerms(), _builder.getNumEntries()));
+
+        ExampleTable featureTable = _builder.build().toExampleTable();
         int numCols = featureTable.getNumColumns();
         int[] inputFeatures = new int[numCols - 2];  // two of the columns are not input features: label/class and id
         for (int i = 0; i < numCols-2; i++)
@@ -242,9 +206,7 @@ public class TokenCountsToFeatureTable extends AbstractStreamingExecutableCompon
         componentContext.pushDataComponentToOutput(OUT_TABLE, featureTable);
 
         _isStreaming = false;
-        _table = null;
-        _tokenColumnMap.clear();
-        _tokenColumnMap = null;
+        _builder = null;
     }
 
 }
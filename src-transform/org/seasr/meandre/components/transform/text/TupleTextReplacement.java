@@ -63,6 +63,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractExecutableComponent;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 
 /**
  * @author Surya Kallumadi
@@ -211,7 +212,7 @@ public class TupleTextReplacement extends AbstractExecutableComponent {
 			*/
 		}
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
 		SimpleTuple tuple = tuplePeer.createTuple();
 		StringsArray tinput = (StringsArray) cc.getDataComponentFromInput(IN_TUPLES);
 		Strings[] in = BasicDataTypesTools.stringsArrayToJavaArray(tinput);
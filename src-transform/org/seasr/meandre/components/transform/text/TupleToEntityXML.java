@@ -44,6 +44,7 @@ package org.seasr.meandre.components.transform.text;
 
 import java.util.Properties;
 import java.util.Vector;
+import java.util.logging.Level;
 
 import javax.xml.transform.OutputKeys;
 
@@ -63,6 +64,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.abstracts.AbstractStreamingExecutableComponent;
 import org.seasr.meandre.components.nlp.opennlp.OpenNLPNamedEntity;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.io.DOMUtils;
 import org.seasr.meandre.support.generic.text.XMLUtils;
 import org.w3c.dom.Document;
@@ -195,7 +197,7 @@ public class TupleToEntityXML extends AbstractStreamingExecutableComponent {
 		StringsMap sm = (StringsMap) cc.getDataComponentFromInput(IN_TOKENS);
 		Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
 
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
         int SENTENCE_ID_IDX = tuplePeer.getIndexForFieldName(OpenNLPNamedEntity.SENTENCE_ID_FIELD);
         int TYPE_IDX        = tuplePeer.getIndexForFieldName(OpenNLPNamedEntity.TYPE_FIELD);
         int TEXT_IDX        = tuplePeer.getIndexForFieldName(OpenNLPNamedEntity.TEXT_FIELD);
@@ -226,7 +228,8 @@ public class TupleToEntityXML extends AbstractStreamingExecutableComponent {
 				
 				//do some cleaning for data that is not meaningful
 		        if (value.length()*_number >= sentence.length()) {
-		        	console.fine("Date: "+value+"\tSentence: "+sentence);
+		        	if (console.isLoggable(Level.FINE))
+		        		console.fine("Date: "+value+"\tSentence: "+sentence);
 		        }
 		        else { //add the data point
 				
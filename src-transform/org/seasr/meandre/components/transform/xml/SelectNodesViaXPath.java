@@ -193,7 +193,8 @@ public class SelectNodesViaXPath extends AbstractStreamingExecutableComponent {
                 String nsValue = parts[1].trim();
                 nsMap.put(nsKey, nsValue);
 
-                console.fine(String.format("Registered namespace: %s = %s", nsKey, nsValue));
+                if (console.isLoggable(Level.FINE))
+                    console.fine(String.format("Registered namespace: %s = %s", nsKey, nsValue));
             }
 
             namespaceContext = new NamespaceContext() {
@@ -256,7 +257,7 @@ public class SelectNodesViaXPath extends AbstractStreamingExecutableComponent {
         }
 
         if (_wrapStream)
-            cc.pushDataComponentToOutput(OUT_XML, new StreamInitiator(streamId));
+            pushBatched(cc, OUT_XML, new StreamInitiator(streamId));
 
         if (result instanceof NodeList) {
             NodeList nodes = (NodeList) result;
@@ -276,23 +277,23 @@ public class SelectNodesViaXPath extends AbstractStreamingExecutableComponent {
         else
 
         if (result instanceof String) {
-            cc.pushDataComponentToOutput(OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
+            pushBatched(cc, OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
         }
 
         else
 
         if (result instanceof Boolean) {
-            cc.pushDataComponentToOutput(OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
+            pushBatched(cc, OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
         }
 
         else
 
         if (result instanceof Number) {
-            cc.pushDataComponentToOutput(OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
+            pushBatched(cc, OUT_XML, BasicDataTypesTools.stringToStrings(result.toString()));
         }
 
         if (_wrapStream)
-            cc.pushDataComponentToOutput(OUT_XML, new StreamTerminator(streamId));
+            pushBatched(cc, OUT_XML, new StreamTerminator(streamId));
     }
 
     @Override
@@ -315,7 +316,7 @@ public class SelectNodesViaXPath extends AbstractStreamingExecutableComponent {
         switch (node.getNodeType()) {
             case Node.ATTRIBUTE_NODE:
             case Node.TEXT_NODE:
-                componentContext.pushDataComponentToOutput(OUT_XML,
+                pushBatched(componentContext, OUT_XML,
                         BasicDataTypesTools.stringToStrings(node.getNodeValue()));
                 break;
 
@@ -323,7 +324,7 @@ public class SelectNodesViaXPath extends AbstractStreamingExecutableComponent {
                 StringWriter writer = new StringWriter();
                 _output.setCharacterStream(writer);
                 if (_serializer.write(node, _output))
-                    componentContext.pushDataComponentToOutput(OUT_XML,
+                    pushBatched(componentContext, OUT_XML,
                             BasicDataTypesTools.stringToStrings(writer.toString()));
                 else
                     outputError("Cannot serialize node: " + node, Level.WARNING);
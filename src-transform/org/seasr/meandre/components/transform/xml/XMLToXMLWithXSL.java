@@ -45,6 +45,7 @@ package org.seasr.meandre.components.transform.xml;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.logging.Level;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
@@ -61,6 +62,7 @@ import org.meandre.annotations.Component.Licenses;
 import org.meandre.annotations.Component.Mode;
 import org.meandre.annotations.ComponentInput;
 import org.meandre.annotations.ComponentOutput;
+import org.meandre.annotations.ComponentProperty;
 import org.meandre.core.ComponentContext;
 import org.meandre.core.ComponentContextProperties;
 import org.meandre.core.system.components.ext.StreamDelimiter;
@@ -123,6 +125,24 @@ public class XMLToXMLWithXSL extends AbstractExecutableComponent {
 	)
 	private final static String OUT_RESULT = "xml_or_text";
 
+	//----------------------------- PROPERTIES ---------------------------------------------------
+
+	@ComponentProperty(
+			name = Names.PROP_MAX_QUEUED_BYTES,
+			description = "The number of bytes of XML documents queued in memory while waiting for the XSL document; " +
+			    "beyond this, queued documents are spilled to a temporary file (use -1 for no limit)",
+			defaultValue = "-1"
+	)
+	protected static final String PROP_MAX_QUEUED_BYTES = Names.PROP_MAX_QUEUED_BYTES;
+
+	@ComponentProperty(
+			name = Names.PROP_MAX_SPILLED_BYTES,
+			description = "The size of the temporary file holding the spilled XML documents; " +
+			    "an error is raised when it is full (ignored if max_queued_bytes is -1)",
+			defaultValue = "1073741824"
+	)
+	protected static final String PROP_MAX_SPILLED_BYTES = Names.PROP_MAX_SPILLED_BYTES;
+
 	//--------------------------------------------------------------------------------------------
 
 
@@ -136,6 +156,10 @@ public class XMLToXMLWithXSL extends AbstractExecutableComponent {
 	@Override
 	public void initializeCallBack(ComponentContextProperties ccp) throws Exception {
 		xslt = null;
+
+		long maxQueuedBytes = Long.parseLong(getPropertyOrDefault(PROP_MAX_QUEUED_BYTES, "-1", ccp));
+		if (maxQueuedBytes >= 0)
+		    componentInputCache.setBounds(maxQueuedBytes, Long.parseLong(getPropertyOrDefault(PROP_MAX_SPILLED_BYTES, "1073741824", ccp)));
 	}
 
 	@Override
@@ -171,8 +195,9 @@ public class XMLToXMLWithXSL extends AbstractExecutableComponent {
 	    while ((input = componentInputCache.retrieveNext(IN_XML)) != null) {
 	        if (input instanceof StreamDelimiter) {
 	            StreamDelimiter sd = (StreamDelimiter) input;
-	            console.fine(String.format("Forwarding the %s (id: %d) on all output ports...",
-	                    sd.getClass().getSimpleName(), sd.getStreamId()));
+	            if (console.isLoggable(Level.FINE))
+	                console.fine(String.format("Forwarding the %s (id: %d) on all output ports...",
+	                        sd.getClass().getSimpleName(), sd.getStreamId()));
 	            componentContext.pushDataComponentToOutput(OUT_RESULT, sd);
 
 	            continue;
@@ -180,7 +205,8 @@ public class XMLToXMLWithXSL extends AbstractExecutableComponent {
 
 	        Document doc = DataTypeParser.parseAsDomDocument(input, "UTF-8");
 	        String transformResult = transformXml(doc);
-	        console.finest("XSL transformation finished. Output:\n" + transformResult);
+	        if (console.isLoggable(Level.FINEST))
+	            console.finest("XSL transformation finished. Output:\n" + transformResult);
 
 	        componentContext.pushDataComponentToOutput(OUT_RESULT,
 	                BasicDataTypesTools.stringToStrings(transformResult));
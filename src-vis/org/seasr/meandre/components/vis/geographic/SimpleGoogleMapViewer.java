@@ -64,6 +64,7 @@ import org.seasr.datatypes.core.Names;
 import org.seasr.meandre.components.tools.text.io.GenericTemplate;
 import org.seasr.meandre.support.components.tuples.SimpleTuple;
 import org.seasr.meandre.support.components.tuples.SimpleTuplePeer;
+import org.seasr.meandre.support.components.tuples.TuplePeerRegistry;
 import org.seasr.meandre.support.generic.gis.GeoLocation;
 import org.seasr.meandre.support.generic.html.VelocityTemplateService;
 
@@ -197,7 +198,7 @@ public class SimpleGoogleMapViewer extends GenericTemplate {
     	//
 
     	Strings inputMeta = (Strings) cc.getDataComponentFromInput(IN_META_TUPLE);
-		SimpleTuplePeer tuplePeer = new SimpleTuplePeer(inputMeta);
+		SimpleTuplePeer tuplePeer = TuplePeerRegistry.getPeer(inputMeta);
 		SimpleTuple tuple = tuplePeer.createTuple();
 
 		//